@@ -104,6 +104,9 @@ create table if not exists comment
     index idx_userId (userId),
     index idx_parentId (parentId)
 ) COMMENT '评论表' COLLATE = utf8mb4_unicode_ci;
+-- 二级评论游标分页按 (createTime, id) 定位
+ALTER TABLE comment
+    ADD INDEX idx_rootId_createTime (rootId, createTime);
 
 -- 评论点赞表（硬删除）
 create table if not exists comment_thumb
@@ -139,6 +142,20 @@ create table if not exists post
 -- 修改帖子表，新增总结字段
 ALTER TABLE post
     ADD COLUMN summary TEXT NULL COMMENT '总结';
+-- 游标分页按 (createTime, id) 定位
+ALTER TABLE post
+    ADD INDEX idx_createTime (createTime);
+
+-- 帖子标签关联表（硬删除，由帖子增删改维护，存量数据通过 BackfillPostTag 回填）
+create table if not exists post_tag
+(
+    id         bigint auto_increment comment 'id' primary key,
+    postId     bigint                             not null comment '帖子id',
+    tagName    varchar(80)                        not null comment '标签名',
+    createTime datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    unique key uk_postId_tagName (postId, tagName),
+    index idx_tagName_postId (tagName, postId)
+) comment '帖子标签关联表' collate = utf8mb4_unicode_ci;
 
 -- 帖子点赞表（硬删除）
 create table if not exists post_thumb
@@ -182,6 +199,37 @@ create table if not exists hot_post
     index idx_postId (sort)
 ) comment '热点表' collate = utf8mb4_unicode_ci;
 
+-- 热榜条目表（每个来源的每条链接一行）
+create table if not exists hot_item
+(
+    id                bigint auto_increment comment 'id' primary key,
+    type              varchar(64)                        not null comment '热点类型',
+    urlHash           bigint                             not null comment '链接哈希（链接为空时取标题）',
+    title             varchar(512)                       null comment '标题',
+    url               varchar(1024)                      null comment '链接',
+    lastRank          int                                not null comment '最近一次排名（从 1 开始）',
+    bestRank          int                                not null comment '最高排名',
+    lastFollowerCount int                                null comment '最近一次热度',
+    onBoard           tinyint  default 1                 not null comment '是否在榜',
+    onBoardTime       datetime default CURRENT_TIMESTAMP not null comment '本次上榜时间',
+    lastSeenTime      datetime default CURRENT_TIMESTAMP not null comment '最近在榜时间',
+    unique key uk_type_urlHash (type, urlHash),
+    index idx_type_onBoard (type, onBoard),
+    index idx_lastSeenTime (lastSeenTime)
+) comment '热榜条目表' collate = utf8mb4_unicode_ci;
+
+-- 热榜条目快照表（只追加，排名或热度变化时写入）
+create table if not exists hot_item_snapshot
+(
+    id            bigint auto_increment comment 'id' primary key,
+    itemId        bigint                             not null comment '条目 id',
+    boardRank     int                                not null comment '排名，0 表示下榜',
+    followerCount int                                null comment '热度',
+    snapshotTime  datetime default CURRENT_TIMESTAMP not null comment '快照时间',
+    index idx_itemId_snapshotTime (itemId, snapshotTime),
+    index idx_snapshotTime (snapshotTime)
+) comment '热榜条目快照表' collate = utf8mb4_unicode_ci;
+
 -- 待办表
 create table if not exists todo
 (
@@ -221,6 +269,22 @@ create table if not exists mock_interview
     isDelete       tinyint  default 0                 not null comment '是否删除（逻辑删除）',
     index idx_userId (userId)
 ) comment '模拟面试' collate = utf8mb4_unicode_ci;
+-- 模拟面试滚动摘要：移出上下文窗口的轮次压缩为摘要
+ALTER TABLE mock_interview
+    ADD COLUMN summary       TEXT          NULL COMMENT '滚动摘要',
+    ADD COLUMN summaryTurnNo INT DEFAULT 0 NOT NULL COMMENT '摘要已覆盖到的轮次序号';
+
+-- 模拟面试对话轮次表（只追加，每条消息一行，面试结束时汇总写回 mock_interview.messages）
+create table if not exists mock_interview_turn
+(
+    id          bigint auto_increment comment 'id' primary key,
+    interviewId bigint                             not null comment '模拟面试 id',
+    turnNo      int                                not null comment '轮次序号，从 1 开始',
+    role        varchar(16)                        not null comment '角色（user/assistant）',
+    content     text                               null comment '消息内容',
+    createTime  datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    unique index uk_interviewId_turnNo (interviewId, turnNo)
+) comment '模拟面试对话轮次表' collate = utf8mb4_unicode_ci;
 
 -- 收藏表情包表（硬删除）
 create table if not exists emoticon_favour
@@ -327,6 +391,12 @@ create table if not exists event_remind
     isDelete      tinyint  default 0                 not null comment '是否删除（逻辑删除）',
     index idx_userId (recipientId)
 ) comment '事件提醒表' collate = utf8mb4_unicode_ci;
+-- 提醒列表游标分页按 (remindTime, id) 定位
+ALTER TABLE event_remind
+    ADD INDEX idx_recipientId_remindTime (recipientId, remindTime);
+-- 点赞去重记录过期后按事件源重新加载操作者
+ALTER TABLE event_remind
+    ADD INDEX idx_sourceId_sourceType (sourceId, sourceType);
 
 -- 用户会员表
 CREATE TABLE if not exists `user_vip`
@@ -357,6 +427,17 @@ create table if not exists word_library
     updateTime datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间'
 ) COMMENT '词库表' collate = utf8mb4_unicode_ci;
 
+-- 敏感词表（与 classpath 词库文件合并，修改后 SensitiveWordManager 自动重建）
+create table if not exists sensitive_word
+(
+    id         bigint auto_increment comment 'id' primary key,
+    word       varchar(100)                       not null comment '敏感词',
+    createTime datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    updateTime datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+    isDelete   tinyint  default 0                 not null comment '是否删除',
+    unique uk_word (word)
+) comment '敏感词表' collate = utf8mb4_unicode_ci;
+
 
 -- 道具表
 create table if not exists props
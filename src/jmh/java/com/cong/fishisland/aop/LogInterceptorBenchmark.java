@@ -0,0 +1,116 @@
+package com.cong.fishisland.aop;
+
+import com.cong.fishisland.config.ObservabilityConfig;
+import com.cong.fishisland.manager.RequestMetricsManager;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.StopWatch;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 请求日志切面开销基准
+ * <p>
+ * 典型的发帖请求（64KB 正文 + 1MB 附件），原来的 UUID + 全量参数日志与当前的采样日志 + Micrometer 耗时统计对比。
+ *
+ * @author cong
+ */
+@Slf4j
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LogInterceptorBenchmark {
+
+    private ProceedingJoinPoint point;
+
+    private LogInterceptor logInterceptor;
+
+    @Setup
+    public void setup() throws Throwable {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/post/add");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/post/add");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+        PostAddRequest body = new PostAddRequest();
+        body.setTitle("标题");
+        body.setContent(StringUtils.repeat("摸鱼", 32 * 1024));
+        Object[] args = {body, new MockMultipartFile("file", "a.png", "image/png", new byte[1024 * 1024])};
+        // stubOnly：不记录调用，避免测量期间内存持续增长
+        point = mock(ProceedingJoinPoint.class, withSettings().stubOnly());
+        when(point.getArgs()).thenReturn(args);
+        when(point.proceed()).thenReturn("ok");
+        RequestMetricsManager requestMetricsManager =
+                new RequestMetricsManager(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        logInterceptor = new LogInterceptor(requestMetricsManager, new ObservabilityConfig());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * 原来的实现
+     */
+    @Benchmark
+    public Object legacy() throws Throwable {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        RequestAttributes requestAttributes = RequestContextHolder.currentRequestAttributes();
+        HttpServletRequest httpServletRequest = ((ServletRequestAttributes) requestAttributes).getRequest();
+        String requestId = UUID.randomUUID().toString();
+        String url = httpServletRequest.getRequestURI();
+        Object[] args = point.getArgs();
+        String reqParam = "[" + StringUtils.join(args, ", ") + "]";
+        log.info("request start，id: {}, path: {}, ip: {}, params: {}", requestId, url,
+                httpServletRequest.getRemoteHost(), reqParam);
+        Object result = point.proceed();
+        stopWatch.stop();
+        log.info("request end, id: {}, cost: {}ms", requestId, stopWatch.getTotalTimeMillis());
+        return result;
+    }
+
+    @Benchmark
+    public Object current() throws Throwable {
+        return logInterceptor.doInterceptor(point);
+    }
+
+    @Data
+    public static class PostAddRequest {
+
+        private String title;
+
+        private String content;
+    }
+}
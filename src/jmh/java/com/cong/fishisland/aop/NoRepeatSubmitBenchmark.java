@@ -0,0 +1,153 @@
+package com.cong.fishisland.aop;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.spring.SaTokenContextForSpring;
+import com.cong.fishisland.annotation.NoRepeatSubmit;
+import com.cong.fishisland.common.BaseResponse;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.ResultUtils;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.manager.IdempotencyManager;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 防重复提交开销基准：原来的 Session ID + Lua 脚本与现在的本地预检 + SET NX 对比
+ * <p>
+ * Redis 每次往返按 200µs 模拟；每次操作是一个新用户连续点击 5 次（1 次首次提交 + 4 次重复），结果为每次点击的耗时。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NoRepeatSubmitBenchmark {
+
+    private static final int CLICKS = 5;
+
+    private static final long REDIS_RTT_NANOS = 200_000;
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    private NoRepeatSubmitAspect aspect;
+
+    private NoRepeatSubmit annotation;
+
+    private ProceedingJoinPoint point;
+
+    private int user;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws NoSuchMethodException {
+        // 与运行时一样从 Spring 请求上下文读取 Sa-Token 令牌（未登录）
+        SaManager.setSaTokenContext(new SaTokenContextForSpring());
+        // 不用 Mockito，避免记录调用的开销计入切面；只实现用到的 setIfAbsent
+        ValueOperations<String, String> valueOperations = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                ValueOperations.class.getClassLoader(), new Class<?>[]{ValueOperations.class},
+                (target, method, args) -> roundTrip() && redis.putIfAbsent((String) args[0], (String) args[1]) == null);
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate() {
+            @Override
+            public ValueOperations<String, String> opsForValue() {
+                return valueOperations;
+            }
+        };
+        aspect = new NoRepeatSubmitAspect(new IdempotencyManager(stringRedisTemplate));
+        annotation = Controller.class.getMethod("exchange", String.class).getAnnotation(NoRepeatSubmit.class);
+        Object[] args = {"{\"petSkinId\":1}"};
+        BaseResponse<Boolean> response = ResultUtils.success(true);
+        point = (ProceedingJoinPoint) Proxy.newProxyInstance(ProceedingJoinPoint.class.getClassLoader(),
+                new Class<?>[]{ProceedingJoinPoint.class},
+                (target, method, methodArgs) -> "getArgs".equals(method.getName()) ? args : response);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * 原来的实现：每次获取（创建）Session，每次执行 Lua 脚本
+     */
+    @Benchmark
+    @OperationsPerInvocation(CLICKS)
+    public int legacy() {
+        MockHttpServletRequest request = nextRequest();
+        int rejected = 0;
+        for (int click = 0; click < CLICKS; click++) {
+            String key = "fish:noRepeatSubmit:" + request.getSession().getId() + ":" + request.getRequestURI();
+            roundTrip();
+            if (redis.putIfAbsent(key, "1") != null) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLICKS)
+    public int current() throws Throwable {
+        MockHttpServletRequest request = nextRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+        int rejected = 0;
+        for (int click = 0; click < CLICKS; click++) {
+            try {
+                aspect.around(point, annotation);
+            } catch (BusinessException e) {
+                if (e.getCode() != ErrorCode.REPEAT_SUBMIT_ERROR.getCode()) {
+                    throw e;
+                }
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    private MockHttpServletRequest nextRequest() {
+        int id = user++;
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/pet/skin/exchange");
+        request.setRemoteAddr("10." + (id >>> 16 & 0xFF) + "." + (id >>> 8 & 0xFF) + "." + (id & 0xFF));
+        return request;
+    }
+
+    private static boolean roundTrip() {
+        LockSupport.parkNanos(REDIS_RTT_NANOS);
+        return true;
+    }
+
+    @SuppressWarnings("unused")
+    public static class Controller {
+
+        @NoRepeatSubmit
+        public BaseResponse<Boolean> exchange(String body) {
+            return ResultUtils.success(true);
+        }
+    }
+}
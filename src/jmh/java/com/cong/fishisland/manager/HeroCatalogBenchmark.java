@@ -0,0 +1,145 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.core.bean.BeanUtil;
+import com.cong.fishisland.mapper.hero.HeroMapper;
+import com.cong.fishisland.model.entity.hero.Hero;
+import com.cong.fishisland.model.vo.hero.HeroVO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 随机英雄基准：ORDER BY RAND() 查询与内存快照对比
+ * <p>
+ * snapshotRandom 的 Mapper 和 Redis 为 Mock，不需要外部依赖。
+ * sqlRandom 执行与 HeroMapper.selectRandomHero 相同的 SQL 并转换为 HeroVO，需要 hero 表中已有数据（可调用 /hero/add 初始化），
+ * 连接信息取环境变量 HERO_JDBC_URL、HERO_JDBC_USERNAME、HERO_JDBC_PASSWORD，默认与 application-dev.yml 一致。
+ * 默认不运行，见 pom.xml 中的 jmh.exclude。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HeroCatalogBenchmark {
+
+    private static final String RANDOM_HERO_SQL = "SELECT * FROM hero ORDER BY RAND() LIMIT 1";
+
+    @Benchmark
+    public HeroVO snapshotRandom(Snapshot snapshot) {
+        return snapshot.heroCatalogManager.random();
+    }
+
+    @Benchmark
+    public HeroVO sqlRandom(Database database) throws SQLException {
+        try (ResultSet resultSet = database.statement.executeQuery()) {
+            resultSet.next();
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            Map<String, Object> row = new HashMap<>(metaData.getColumnCount() * 2);
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                row.put(metaData.getColumnLabel(i), resultSet.getObject(i));
+            }
+            return HeroCatalogManager.toHeroVO(BeanUtil.toBean(row, Hero.class));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Snapshot {
+
+        /**
+         * 与线上英雄数量相当
+         */
+        @Param({"120"})
+        public int heroCount;
+
+        private HeroCatalogManager heroCatalogManager;
+
+        @Setup
+        @SuppressWarnings("unchecked")
+        public void setup() {
+            List<Hero> heroes = new ArrayList<>(heroCount);
+            Date now = new Date();
+            for (int i = 0; i < heroCount; i++) {
+                Hero hero = new Hero();
+                hero.setId(100L + i);
+                hero.setEname(String.valueOf(100 + i));
+                hero.setCname("英雄" + i);
+                hero.setTitle("称号" + i);
+                hero.setReleaseDate(now);
+                hero.setPrimaryType(i % 6 + 1);
+                hero.setSkins("经典|皮肤一|皮肤二|皮肤三");
+                hero.setOfficialLink("https://pvp.qq.com/web201605/herodetail/" + (100 + i) + ".shtml");
+                hero.setRegion("长城");
+                hero.setQuote("我的台词" + i);
+                heroes.add(hero);
+            }
+            HeroMapper heroMapper = mock(HeroMapper.class, withSettings().stubOnly());
+            when(heroMapper.selectList(any())).thenReturn(heroes);
+            StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class, withSettings().stubOnly());
+            ValueOperations<String, String> valueOperations = mock(ValueOperations.class, withSettings().stubOnly());
+            when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+            when(valueOperations.get(anyString())).thenReturn("1");
+            heroCatalogManager = new HeroCatalogManager(heroMapper, stringRedisTemplate, new ObjectMapper());
+            heroCatalogManager.init();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Database {
+
+        private Connection connection;
+
+        private PreparedStatement statement;
+
+        @Setup
+        public void setup() throws SQLException {
+            connection = DriverManager.getConnection(env("HERO_JDBC_URL", "jdbc:mysql://127.0.0.1:3306/fish"),
+                    env("HERO_JDBC_USERNAME", "fish"), env("HERO_JDBC_PASSWORD", "123456"));
+            statement = connection.prepareStatement(RANDOM_HERO_SQL);
+        }
+
+        @TearDown
+        public void tearDown() throws SQLException {
+            statement.close();
+            connection.close();
+        }
+
+        private static String env(String name, String defaultValue) {
+            String value = System.getenv(name);
+            return value == null ? defaultValue : value;
+        }
+    }
+}
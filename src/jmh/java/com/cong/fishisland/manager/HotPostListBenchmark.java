@@ -0,0 +1,143 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.EmbeddedRedis;
+import com.cong.fishisland.common.ResultUtils;
+import com.cong.fishisland.config.JsonConfig;
+import com.cong.fishisland.controller.hot.HotPostController;
+import com.cong.fishisland.model.entity.hot.HotPost;
+import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import com.cong.fishisland.model.vo.hot.HotPostVO;
+import com.cong.fishisland.service.HotPostHistoryService;
+import com.cong.fishisland.service.HotPostService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 热榜列表接口基准：原来的整表 JSON 反序列化再编码、按榜单拼接的字节响应、If-None-Match 命中 304
+ * <p>
+ * 20 个榜单各 50 条，缓存在 embedded-redis 启动的真实 Redis 中，接口通过 MockMvc 调用。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HotPostListBenchmark {
+
+    private static final int BOARDS = 20;
+
+    private static final int ITEMS = 50;
+
+    private final ObjectMapper objectMapper = new JsonConfig().jacksonObjectMapper(new Jackson2ObjectMapperBuilder());
+
+    private String listJson;
+
+    private String etag;
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setup() throws Exception {
+        EmbeddedRedis.flush();
+        List<HotPost> hotPostList = new ArrayList<>();
+        for (int i = 0; i < BOARDS; i++) {
+            hotPostList.add(board("source" + i, i));
+        }
+        // stubOnly：不记录调用，避免测量期间内存持续增长
+        HotPostService hotPostService = mock(HotPostService.class, withSettings().stubOnly());
+        when(hotPostService.list()).thenReturn(hotPostList);
+        DataSourceRegistry dataSourceRegistry = mock(DataSourceRegistry.class, withSettings().stubOnly());
+        when(dataSourceRegistry.getTypes())
+                .thenReturn(hotPostList.stream().map(HotPost::getType).collect(Collectors.toList()));
+        HotPostCacheManager hotPostCacheManager = new HotPostCacheManager(EmbeddedRedis.template(), objectMapper,
+                hotPostService, dataSourceRegistry);
+        hotPostCacheManager.init();
+        hotPostCacheManager.rebuild();
+
+        // 原来的缓存：整个列表一个 JSON 字符串
+        listJson = objectMapper.writeValueAsString(hotPostList.stream().map(HotPostVO::objToVo)
+                .collect(Collectors.toList()));
+        etag = hotPostCacheManager.getHotPostList().getEtag();
+        mockMvc = MockMvcBuilders.standaloneSetup(new HotPostController(hotPostCacheManager,
+                mock(HotPostHistoryService.class), mock(DataSourceScheduler.class))).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedRedis.flush();
+    }
+
+    /**
+     * 原来的实现：每次请求反序列化整表，再由消息转换器编码
+     */
+    @Benchmark
+    public byte[] legacy() throws Exception {
+        List<HotPostVO> hotPostList = objectMapper.readValue(listJson, new TypeReference<List<HotPostVO>>() {
+        });
+        return objectMapper.writeValueAsBytes(ResultUtils.success(hotPostList));
+    }
+
+    @Benchmark
+    public byte[] list() throws Exception {
+        return mockMvc.perform(get("/hot/list"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public int notModified() throws Exception {
+        return mockMvc.perform(get("/hot/list").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse().getStatus();
+    }
+
+    private HotPost board(String type, int sort) throws Exception {
+        List<HotPostDataVO> dataList = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            dataList.add(HotPostDataVO.builder()
+                    .title(type + " 热榜第 " + (i + 1) + " 条：今天摸鱼岛上在讨论缓存和并发优化")
+                    .url("https://example.com/" + type + "/" + i)
+                    .followerCount(100_000 - i * 1000)
+                    .build());
+        }
+        return HotPost.builder()
+                .id((long) sort + 1)
+                .name(type)
+                .type(type)
+                .typeName(type)
+                .category(1)
+                .sort(sort)
+                .updateTime(new Date())
+                .hostJson(objectMapper.writeValueAsString(dataList))
+                .build();
+    }
+}
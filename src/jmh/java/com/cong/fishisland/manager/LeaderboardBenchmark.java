@@ -0,0 +1,118 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.EmbeddedRedis;
+import com.cong.fishisland.config.LeaderboardConfig;
+import com.cong.fishisland.model.enums.LeaderboardPeriodEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 排行榜基准：100 万成员时前 N 名、名次、前后窗口的耗时，以及逐个补全、批量补全与按版本缓存补全的对比
+ * <p>
+ * 在 embedded-redis 启动的真实 Redis 上运行，展示信息放在 Redis 中代替用户表，逐个补全即原来的每名一次查询。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LeaderboardBenchmark {
+
+    private static final String BOARD = "benchmark";
+
+    private static final int MEMBERS = 1_000_000;
+
+    private static final int TOP_SIZE = 10;
+
+    private static final LeaderboardPeriodEnum PERIOD = LeaderboardPeriodEnum.TOTAL;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private LeaderboardManager leaderboardManager;
+
+    @Setup
+    public void setup() {
+        stringRedisTemplate = EmbeddedRedis.template();
+        EmbeddedRedis.flush();
+        leaderboardManager = new LeaderboardManager(stringRedisTemplate, new LeaderboardConfig());
+        Map<String, Double> scores = new HashMap<>(MEMBERS * 2);
+        for (int i = 0; i < MEMBERS; i++) {
+            scores.put(String.valueOf(i), (double) ThreadLocalRandom.current().nextInt(100_000));
+        }
+        leaderboardManager.replace(BOARD, PERIOD, scores);
+        leaderboardManager.top(BOARD, PERIOD, TOP_SIZE)
+                .forEach(entry -> stringRedisTemplate.opsForValue().set(profileKey(entry.getMember()),
+                        "{\"userName\":\"" + entry.getMember() + "\"}"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedRedis.flush();
+    }
+
+    /**
+     * 原来的实现：前 N 名后每名查询一次展示信息
+     */
+    @Benchmark
+    public int topPerEntry() {
+        int hydrated = 0;
+        for (LeaderboardManager.Entry entry : leaderboardManager.top(BOARD, PERIOD, TOP_SIZE)) {
+            hydrated += stringRedisTemplate.opsForValue().get(profileKey(entry.getMember())) == null ? 0 : 1;
+        }
+        return hydrated;
+    }
+
+    @Benchmark
+    public List<String> topBatch() {
+        return hydrate(leaderboardManager.top(BOARD, PERIOD, TOP_SIZE));
+    }
+
+    @Benchmark
+    public List<String> topCached() {
+        return leaderboardManager.top(BOARD, PERIOD, LocalDate.now(), TOP_SIZE, this::hydrate);
+    }
+
+    @Benchmark
+    public LeaderboardManager.Entry rank() {
+        return leaderboardManager.rank(BOARD, PERIOD, randomMember());
+    }
+
+    @Benchmark
+    public List<LeaderboardManager.Entry> around() {
+        return leaderboardManager.around(BOARD, PERIOD, randomMember(), 5);
+    }
+
+    private List<String> hydrate(List<LeaderboardManager.Entry> entries) {
+        return stringRedisTemplate.opsForValue().multiGet(entries.stream()
+                .map(entry -> profileKey(entry.getMember())).collect(Collectors.toList()));
+    }
+
+    private static String randomMember() {
+        return String.valueOf(ThreadLocalRandom.current().nextInt(MEMBERS));
+    }
+
+    private static String profileKey(String member) {
+        return "benchmark:profile:" + member;
+    }
+}
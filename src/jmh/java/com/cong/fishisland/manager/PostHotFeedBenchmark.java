@@ -0,0 +1,124 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.EmbeddedRedis;
+import com.cong.fishisland.model.dto.post.PostHotScore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 帖子热榜基准：偏斜互动事件的更新、首页和深翻页延迟，以及按数据库整体重建
+ * <p>
+ * 在 embedded-redis 启动的真实 Redis 上运行，初始为 100 万条近 30 天的帖子重建后保留的热榜。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PostHotFeedBenchmark {
+
+    private static final int POST_COUNT = 1_000_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int PAGE_DEPTH = 200;
+
+    private PostHotFeedManager postHotFeedManager;
+
+    private List<PostHotScore> scoreList;
+
+    private List<Long> hotIdList;
+
+    private String deepCursor;
+
+    @Setup
+    public void setup() {
+        EmbeddedRedis.flush();
+        postHotFeedManager = new PostHotFeedManager();
+        ReflectionTestUtils.setField(postHotFeedManager, "stringRedisTemplate", EmbeddedRedis.template());
+        long now = System.currentTimeMillis();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        scoreList = new ArrayList<>(POST_COUNT);
+        for (long i = 1; i <= POST_COUNT; i++) {
+            PostHotScore score = new PostHotScore();
+            score.setId(i);
+            score.setCreateTime(new Date(now - random.nextLong(PostHotFeedManager.WINDOW_MILLIS)));
+            score.setViewNum(random.nextInt(1000));
+            score.setThumbNum(random.nextInt(50));
+            score.setFavourNum(random.nextInt(20));
+            score.setCommentNum(random.nextInt(30));
+            score.setIsFeatured(random.nextInt(100) == 0 ? 1 : 0);
+            scoreList.add(score);
+        }
+        postHotFeedManager.rebalance(scoreList);
+        hotIdList = postHotFeedManager.page(null, 1000).getPostIds();
+        String cursor = postHotFeedManager.page(null, PAGE_SIZE).getNextCursor();
+        for (int i = 1; i < PAGE_DEPTH && cursor != null; i++) {
+            cursor = postHotFeedManager.page(cursor, PAGE_SIZE).getNextCursor();
+        }
+        deepCursor = cursor;
+    }
+
+    @TearDown
+    public void tearDown() {
+        EmbeddedRedis.flush();
+    }
+
+    /**
+     * 互动事件：少数热门帖子承接大部分互动（近似 Zipf 分布），浏览、点赞、收藏、评论按 80:12:5:3
+     */
+    @Benchmark
+    public void event() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int rank = (int) Math.min(hotIdList.size() - 1, Math.floor(Math.pow(hotIdList.size(), random.nextDouble())) - 1);
+        Long postId = hotIdList.get(Math.max(rank, 0));
+        int type = random.nextInt(100);
+        if (type < 80) {
+            postHotFeedManager.onView(postId);
+        } else if (type < 92) {
+            postHotFeedManager.onThumb(postId, 1);
+        } else if (type < 97) {
+            postHotFeedManager.onFavour(postId, 1);
+        } else {
+            postHotFeedManager.onComment(postId, 1);
+        }
+    }
+
+    @Benchmark
+    public PostHotFeedManager.HotFeedPage firstPage() {
+        return postHotFeedManager.page(null, PAGE_SIZE);
+    }
+
+    /**
+     * 第 {@link #PAGE_DEPTH} 页
+     */
+    @Benchmark
+    public PostHotFeedManager.HotFeedPage deepPage() {
+        return postHotFeedManager.page(deepCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long rebalance() {
+        return postHotFeedManager.rebalance(scoreList);
+    }
+}
@@ -0,0 +1,197 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.json.JSONUtil;
+import com.cong.fishisland.config.PostSearchConfig;
+import com.cong.fishisland.model.dto.post.PostQueryRequest;
+import com.cong.fishisland.model.entity.post.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 帖子检索基准：数据库 LIKE 与内嵌 Lucene 索引的查询延迟对比
+ * <p>
+ * index 在临时目录中为随机生成的帖子建索引，不需要外部依赖。
+ * sqlLike 执行与 PostServiceImpl#getQueryWrapper 按搜索词分页相同形式的 SQL（COUNT 加首页），只读不写，需要 post 表中已有数据，
+ * 连接信息取环境变量 POST_JDBC_URL、POST_JDBC_USERNAME、POST_JDBC_PASSWORD，默认与 application-dev.yml 一致。
+ * 默认不运行，见 pom.xml 中的 jmh.exclude。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PostSearchBenchmark {
+
+    private static final List<String> WORDS = Arrays.asList("摸鱼", "程序员", "前端", "后端", "数据库", "缓存", "并发",
+            "周末", "钓鱼", "游戏", "面试", "算法", "架构", "性能", "优化", "生活", "工作", "学习", "旅行", "美食");
+
+    private static final List<String> TAGS = Arrays.asList("技术", "生活", "公告", "求助", "分享", "吐槽", "面试", "游戏");
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM post WHERE isDelete = 0"
+            + " AND (title LIKE ? OR content LIKE ?)";
+
+    private static final String PAGE_SQL = "SELECT * FROM post WHERE isDelete = 0"
+            + " AND (title LIKE ? OR content LIKE ?) LIMIT ?";
+
+    @Param({"钓鱼", "性能优化", "面试算法", "数据库缓存", "周末旅行"})
+    public String keyword;
+
+    @Benchmark
+    public PostSearchManager.PostSearchHits index(Index index) {
+        PostQueryRequest request = new PostQueryRequest();
+        request.setSearchText(keyword);
+        request.setPageSize(PAGE_SIZE);
+        return index.postSearchManager.search(request);
+    }
+
+    @Benchmark
+    public long sqlLike(Database database) throws SQLException {
+        String like = "%" + keyword + "%";
+        long sum;
+        database.countStatement.setString(1, like);
+        database.countStatement.setString(2, like);
+        try (ResultSet resultSet = database.countStatement.executeQuery()) {
+            resultSet.next();
+            sum = resultSet.getLong(1);
+        }
+        database.pageStatement.setString(1, like);
+        database.pageStatement.setString(2, like);
+        database.pageStatement.setInt(3, PAGE_SIZE);
+        try (ResultSet resultSet = database.pageStatement.executeQuery()) {
+            int columnCount = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                for (int i = 1; i <= columnCount; i++) {
+                    sum += resultSet.getObject(i) == null ? 0 : 1;
+                }
+            }
+        }
+        return sum;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Index {
+
+        @Param({"1000000"})
+        public int postCount;
+
+        private Path indexDir;
+
+        private PostSearchManager postSearchManager;
+
+        @Setup
+        public void setup() throws IOException {
+            indexDir = Files.createTempDirectory("post-search-benchmark");
+            PostSearchConfig config = new PostSearchConfig();
+            config.setIndexDir(indexDir.toString());
+            postSearchManager = new PostSearchManager(config);
+            postSearchManager.init();
+            postSearchManager.rebuild(() -> new Iterator<Post>() {
+
+                private final Random random = new Random(42);
+
+                private long id;
+
+                @Override
+                public boolean hasNext() {
+                    return id < postCount;
+                }
+
+                @Override
+                public Post next() {
+                    Post post = new Post();
+                    post.setId(++id);
+                    post.setTitle(randomSentence(random, 3));
+                    post.setContent(randomSentence(random, 60));
+                    post.setTags(JSONUtil.toJsonStr(Arrays.asList(TAGS.get(random.nextInt(TAGS.size())),
+                            TAGS.get(random.nextInt(TAGS.size())))));
+                    post.setUserId(1L);
+                    post.setThumbNum(random.nextInt(1000));
+                    post.setFavourNum(random.nextInt(500));
+                    post.setViewNum(random.nextInt(100000));
+                    post.setIsFeatured(0);
+                    post.setIsDelete(0);
+                    post.setCreateTime(new Date(id * 1000));
+                    return post;
+                }
+            });
+        }
+
+        @TearDown
+        public void tearDown() {
+            postSearchManager.destroy();
+            FileUtil.del(indexDir.toFile());
+        }
+
+        private static String randomSentence(Random random, int words) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < words; i++) {
+                sb.append(WORDS.get(random.nextInt(WORDS.size())));
+                if (i % 8 == 7) {
+                    sb.append('，');
+                }
+            }
+            return sb.append('。').toString();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Database {
+
+        private Connection connection;
+
+        private PreparedStatement countStatement;
+
+        private PreparedStatement pageStatement;
+
+        @Setup
+        public void setup() throws SQLException {
+            connection = DriverManager.getConnection(env("POST_JDBC_URL", "jdbc:mysql://127.0.0.1:3306/fish"),
+                    env("POST_JDBC_USERNAME", "fish"), env("POST_JDBC_PASSWORD", "123456"));
+            countStatement = connection.prepareStatement(COUNT_SQL);
+            pageStatement = connection.prepareStatement(PAGE_SQL);
+        }
+
+        @TearDown
+        public void tearDown() throws SQLException {
+            countStatement.close();
+            pageStatement.close();
+            connection.close();
+        }
+
+        private static String env(String name, String defaultValue) {
+            String value = System.getenv(name);
+            return value == null ? defaultValue : value;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.cong.fishisland.manager;
+
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.http.Method;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预签名地址基准：每次重新签名与缓存复用（1000 个对象轮流访问）
+ * <p>
+ * 指定区域后 MinIO 客户端签名不需要访问服务端，不需要外部依赖。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PresignedUrlBenchmark {
+
+    private static final int EXPIRY_SECONDS = 3600;
+
+    private static final int MARGIN_SECONDS = 300;
+
+    private static final int OBJECT_COUNT = 1000;
+
+    private final String[] objectNames = new String[OBJECT_COUNT];
+
+    private PresignedUrlCache.Signer signer;
+
+    private PresignedUrlCache presignedUrlCache;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        MinioClient minioClient = MinioClient.builder()
+                .endpoint("http://127.0.0.1:9000")
+                .region("us-east-1")
+                .credentials("minioadmin", "minioadmin")
+                .build();
+        signer = (objectName, expirySeconds) -> minioClient.getPresignedObjectUrl(
+                GetPresignedObjectUrlArgs.builder()
+                        .method(Method.GET)
+                        .bucket("fish")
+                        .object(objectName)
+                        .expiry(expirySeconds, TimeUnit.SECONDS)
+                        .build());
+        presignedUrlCache = new PresignedUrlCache(signer, EXPIRY_SECONDS, MARGIN_SECONDS, 10_000, System::nanoTime);
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            objectNames[i] = "img-" + i + ".png";
+        }
+    }
+
+    /**
+     * 原来的方式：每次请求都重新签名
+     */
+    @Benchmark
+    public String sign() throws Exception {
+        return signer.sign(nextObjectName(), EXPIRY_SECONDS);
+    }
+
+    @Benchmark
+    public String cached() throws Exception {
+        return presignedUrlCache.get(nextObjectName());
+    }
+
+    private String nextObjectName() {
+        String objectName = objectNames[next];
+        next = (next + 1) % OBJECT_COUNT;
+        return objectName;
+    }
+}
@@ -0,0 +1,96 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.utils.SensitiveWordAutomaton;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import toolgood.words.StringSearch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 聊天内容敏感词替换基准
+ * <p>
+ * 词库为 classpath 下的 key-simple.txt，比较 ToolGood StringSearch 和业务实际使用的 SensitiveWordAutomaton 的替换耗时。
+ * 内容分为一条普通聊天消息、一篇含少量命中词的长文和一篇不含敏感词的长文（帖子正文的常见情况）。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SensitiveWordBenchmark {
+
+    private static final String CHAT = "楼下新开了一家兰州拉面，要不要一起去试试？顺便带杯咖啡回来，下午开会前还能摸会儿鱼";
+
+    @Param({"chat", "post", "clean-post"})
+    public String content;
+
+    private String text;
+
+    private StringSearch stringSearch;
+
+    private SensitiveWordAutomaton automaton;
+
+    @Setup
+    public void setup() throws IOException {
+        List<String> keywords = loadKeywords();
+        stringSearch = new StringSearch();
+        stringSearch.SetKeywords(keywords);
+        automaton = SensitiveWordAutomaton.build(keywords);
+
+        // 在正文中间插入词库里的词，保证每次替换都有命中
+        String hit = CHAT.substring(0, 10) + keywords.get(0) + CHAT.substring(10);
+        if ("chat".equals(content)) {
+            text = hit;
+        } else {
+            String line = "post".equals(content) ? hit : CHAT;
+            StringBuilder builder = new StringBuilder(8 * 1024);
+            while (builder.length() < 8 * 1024) {
+                builder.append(CHAT).append('\n').append(line).append('\n');
+            }
+            text = builder.toString();
+        }
+    }
+
+    @Benchmark
+    public String stringSearch() {
+        return stringSearch.Replace(text);
+    }
+
+    @Benchmark
+    public String automaton() {
+        return automaton.replace(text);
+    }
+
+    private static List<String> loadKeywords() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(
+                SensitiveWordBenchmark.class.getClassLoader().getResourceAsStream("key-simple.txt")),
+                StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .flatMap(line -> Arrays.stream(line.split(",")))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.config.FileUploadConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 50MB 上传基准：临时文件（原 /file/upload）、getBytes（原 /file/111666/upload）与流式分片上传
+ * <p>
+ * 对象存储只计数不保存内容，Redis 为 Mock（不命中去重）。每次上传的堆分配看 -prof gc 的 gc.alloc.rate.norm，
+ * 如 -Djmh.args="-foe true -prof gc -bm ss -i 10"；临时文件方式每次另有 50MB 磁盘写入。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StreamUploadBenchmark {
+
+    private static final long SIZE = 50L * 1024 * 1024;
+
+    private static final String SCOPE = "user_file:1";
+
+    private final CountingStorage storage = new CountingStorage();
+
+    private StreamUploadManager streamUploadManager;
+
+    private Path tempDir;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class, withSettings().stubOnly());
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class, withSettings().stubOnly());
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        streamUploadManager = new StreamUploadManager(stringRedisTemplate, new FileUploadConfig());
+        tempDir = Files.createTempDirectory("upload-benchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(tempDir);
+    }
+
+    /**
+     * 原 /file/upload：先落临时文件，再由 SDK 读取上传
+     */
+    @Benchmark
+    public long tempFile() throws IOException {
+        Path temp = Files.createTempFile(tempDir, "upload", null);
+        try {
+            Files.copy(new RepeatingInputStream(SIZE), temp, StandardCopyOption.REPLACE_EXISTING);
+            long read = 0;
+            byte[] buffer = new byte[8192];
+            try (InputStream in = Files.newInputStream(temp)) {
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    read += n;
+                }
+            }
+            return read;
+        } finally {
+            Files.delete(temp);
+        }
+    }
+
+    /**
+     * 原 /file/111666/upload：MultipartFile#getBytes 整个读入内存
+     */
+    @Benchmark
+    public int getBytes() throws Exception {
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        InputStream in = new RepeatingInputStream(SIZE);
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            all.write(buffer, 0, n);
+        }
+        byte[] bytes = all.toByteArray();
+        storage.putObject("bytes", bytes, bytes.length, null);
+        return bytes.length;
+    }
+
+    @Benchmark
+    public String stream() {
+        return streamUploadManager.upload(storage, new RepeatingInputStream(SIZE), "stream", null, Long.MAX_VALUE,
+                SCOPE);
+    }
+
+    /**
+     * 重复输出同一块数据的输入流，读取时不分配内存
+     */
+    private static class RepeatingInputStream extends InputStream {
+
+        private static final byte[] BLOCK = new byte[64 * 1024];
+
+        static {
+            new Random(42).nextBytes(BLOCK);
+        }
+
+        private long remaining;
+
+        RepeatingInputStream(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining <= 0) {
+                return -1;
+            }
+            return BLOCK[(int) (remaining-- % BLOCK.length)] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = (int) Math.min(Math.min(len, remaining), BLOCK.length);
+            System.arraycopy(BLOCK, 0, b, off, n);
+            remaining -= n;
+            return n;
+        }
+    }
+
+    /**
+     * 只计数不保存内容的对象存储
+     */
+    private static class CountingStorage implements ObjectStorage {
+
+        private long bytes;
+
+        @Override
+        public String name() {
+            return "mem";
+        }
+
+        @Override
+        public void putObject(String key, byte[] data, int length, String contentType) {
+            bytes += length;
+        }
+
+        @Override
+        public String initiateMultipartUpload(String key, String contentType) {
+            return "upload-" + key;
+        }
+
+        @Override
+        public String uploadPart(String key, String uploadId, int partNumber, byte[] data, int length) {
+            bytes += length;
+            return "etag-" + partNumber;
+        }
+
+        @Override
+        public void completeMultipartUpload(String key, String uploadId, List<String> etags) {
+            // 只计数
+        }
+
+        @Override
+        public void abortMultipartUpload(String key, String uploadId) {
+            // 只计数
+        }
+
+        @Override
+        public InputStream getObject(String key) {
+            return null;
+        }
+
+        @Override
+        public void removeObject(String key) {
+            // 只计数
+        }
+
+        @Override
+        public String getUrl(String key) {
+            return "mem://" + key;
+        }
+    }
+}
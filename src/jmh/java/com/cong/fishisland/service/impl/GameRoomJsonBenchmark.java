@@ -0,0 +1,143 @@
+package com.cong.fishisland.service.impl;
+
+import com.cong.fishisland.config.JsonConfig;
+import com.cong.fishisland.model.entity.game.DrawRoom;
+import com.cong.fishisland.model.entity.game.UndercoverRoom;
+import com.cong.fishisland.model.enums.RoomStatusEnum;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 游戏房间 JSON 往返基准
+ * <p>
+ * 谁是卧底、你画我猜的房间状态以 JSON 存在 Redis，每次操作都要读出、修改、写回。
+ * ObjectMapper 与应用中的配置相同（JsonConfig，Long 转字符串）。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GameRoomJsonBenchmark {
+
+    @Param({"8", "30"})
+    public int players;
+
+    private ObjectMapper objectMapper;
+
+    private UndercoverRoom undercoverRoom;
+
+    private String undercoverRoomJson;
+
+    private DrawRoom drawRoom;
+
+    private String drawRoomJson;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = new JsonConfig().jacksonObjectMapper(Jackson2ObjectMapperBuilder.json());
+
+        List<Long> userIds = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            userIds.add(1816001234567890000L + i);
+        }
+        Set<Long> participantIds = new HashSet<>(userIds);
+        Date now = new Date();
+
+        undercoverRoom = new UndercoverRoom();
+        undercoverRoom.setStatus(RoomStatusEnum.PLAYING);
+        undercoverRoom.setParticipantIds(participantIds);
+        undercoverRoom.setOrderedParticipantIds(userIds);
+        undercoverRoom.setUndercoverIds(Collections.singleton(userIds.get(0)));
+        undercoverRoom.setCivilianIds(new HashSet<>(userIds.subList(1, players)));
+        undercoverRoom.setCivilianWord("饺子");
+        undercoverRoom.setUndercoverWord("馄饨");
+        undercoverRoom.setEliminatedIds(new HashSet<>(userIds.subList(players - 2, players)));
+        undercoverRoom.setCreateTime(now);
+        undercoverRoom.setStartTime(now);
+        undercoverRoom.setDuration(600);
+        undercoverRoom.setCreatorId(userIds.get(0));
+        undercoverRoom.setMaxPlayers(players);
+        undercoverRoom.getGuessCountMap().put(userIds.get(0), 1);
+        undercoverRoomJson = objectMapper.writeValueAsString(undercoverRoom);
+
+        drawRoom = new DrawRoom();
+        drawRoom.setStatus(RoomStatusEnum.PLAYING);
+        drawRoom.setCreatorId(userIds.get(0));
+        drawRoom.setParticipantIds(participantIds);
+        drawRoom.setCreateTime(now);
+        drawRoom.setStartTime(now);
+        drawRoom.setMaxPlayers(players);
+        drawRoom.setTotalRounds(players);
+        drawRoom.setCurrentRound(3);
+        drawRoom.setRoundDuration(60);
+        drawRoom.setRoundEndTime(now.getTime() + 60_000);
+        drawRoom.setCurrentWord("长颈鹿");
+        drawRoom.setWordHint("动物，3个字");
+        drawRoom.setCurrentDrawerId(userIds.get(2));
+        drawRoom.setCorrectGuessIds(new HashSet<>(userIds.subList(3, players / 2)));
+        drawRoom.setCreatorOnlyMode(false);
+        drawRoom.setWordType("animal");
+        drawRoomJson = objectMapper.writeValueAsString(drawRoom);
+    }
+
+    @Benchmark
+    public String undercoverWrite() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(undercoverRoom);
+    }
+
+    @Benchmark
+    public UndercoverRoom undercoverRead() throws JsonProcessingException {
+        return objectMapper.readValue(undercoverRoomJson, UndercoverRoom.class);
+    }
+
+    /**
+     * 一次房间操作：读出、修改、写回
+     */
+    @Benchmark
+    public String undercoverRoundTrip() throws JsonProcessingException {
+        UndercoverRoom room = objectMapper.readValue(undercoverRoomJson, UndercoverRoom.class);
+        room.setDuration(room.getDuration() + 1);
+        return objectMapper.writeValueAsString(room);
+    }
+
+    @Benchmark
+    public String drawWrite() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(drawRoom);
+    }
+
+    @Benchmark
+    public DrawRoom drawRead() throws JsonProcessingException {
+        return objectMapper.readValue(drawRoomJson, DrawRoom.class);
+    }
+
+    @Benchmark
+    public String drawRoundTrip() throws JsonProcessingException {
+        DrawRoom room = objectMapper.readValue(drawRoomJson, DrawRoom.class);
+        room.setCurrentRound(room.getCurrentRound() + 1);
+        return objectMapper.writeValueAsString(room);
+    }
+}
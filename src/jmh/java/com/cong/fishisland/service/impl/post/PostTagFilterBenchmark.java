@@ -0,0 +1,116 @@
+package com.cong.fishisland.service.impl.post;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 标签过滤基准：原来对 tags json 列的 LIKE 与 post_tag 关联表（全部匹配 / 任一匹配）的延迟对比
+ * <p>
+ * 执行与 {@link PostServiceImpl#getQueryWrapper} 相同形式的 SQL（按 createTime 倒序取首页），只读不写，
+ * 需要 post 表中已有帖子并已执行 BackfillPostTag 回填 post_tag。连接信息取环境变量 POST_JDBC_URL、
+ * POST_JDBC_USERNAME、POST_JDBC_PASSWORD，默认与 application-dev.yml 一致。默认不运行，见 pom.xml 中的 jmh.exclude。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PostTagFilterBenchmark {
+
+    private static final String FIRST_TAG = "技术";
+
+    private static final String SECOND_TAG = "面试";
+
+    private static final String LIKE_SQL = "SELECT id FROM post WHERE isDelete = 0"
+            + " AND tags LIKE ? AND tags LIKE ? ORDER BY createTime DESC LIMIT 10";
+
+    private static final String ALL_SQL = "SELECT id FROM post WHERE isDelete = 0"
+            + " AND id IN (SELECT postId FROM post_tag WHERE tagName = ?)"
+            + " AND id IN (SELECT postId FROM post_tag WHERE tagName = ?) ORDER BY createTime DESC LIMIT 10";
+
+    private static final String ANY_SQL = "SELECT id FROM post WHERE isDelete = 0"
+            + " AND id IN (SELECT postId FROM post_tag WHERE tagName IN (?, ?)) ORDER BY createTime DESC LIMIT 10";
+
+    private Connection connection;
+
+    private PreparedStatement likeStatement;
+
+    private PreparedStatement allStatement;
+
+    private PreparedStatement anyStatement;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(env("POST_JDBC_URL", "jdbc:mysql://127.0.0.1:3306/fish"),
+                env("POST_JDBC_USERNAME", "fish"), env("POST_JDBC_PASSWORD", "123456"));
+        likeStatement = connection.prepareStatement(LIKE_SQL);
+        likeStatement.setString(1, "%\"" + FIRST_TAG + "\"%");
+        likeStatement.setString(2, "%\"" + SECOND_TAG + "\"%");
+        allStatement = connection.prepareStatement(ALL_SQL);
+        allStatement.setString(1, FIRST_TAG);
+        allStatement.setString(2, SECOND_TAG);
+        anyStatement = connection.prepareStatement(ANY_SQL);
+        anyStatement.setString(1, FIRST_TAG);
+        anyStatement.setString(2, SECOND_TAG);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        likeStatement.close();
+        allStatement.close();
+        anyStatement.close();
+        connection.close();
+    }
+
+    /**
+     * 原来的过滤：tags json 列 LIKE
+     */
+    @Benchmark
+    public long like() throws SQLException {
+        return read(likeStatement);
+    }
+
+    @Benchmark
+    public long postTagAll() throws SQLException {
+        return read(allStatement);
+    }
+
+    @Benchmark
+    public long postTagAny() throws SQLException {
+        return read(anyStatement);
+    }
+
+    private static long read(PreparedStatement statement) throws SQLException {
+        long sum = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                sum += resultSet.getLong(1);
+            }
+        }
+        return sum;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+}
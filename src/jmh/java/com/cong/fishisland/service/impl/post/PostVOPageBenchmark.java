@@ -0,0 +1,151 @@
+package com.cong.fishisland.service.impl.post;
+
+import cn.hutool.core.bean.BeanUtil;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cong.fishisland.mapper.post.PostFavourMapper;
+import com.cong.fishisland.mapper.post.PostThumbMapper;
+import com.cong.fishisland.model.entity.post.Post;
+import com.cong.fishisland.model.entity.post.PostFavour;
+import com.cong.fishisland.model.entity.post.PostThumb;
+import com.cong.fishisland.model.entity.user.User;
+import com.cong.fishisland.model.vo.comment.CommentVO;
+import com.cong.fishisland.model.vo.post.PostVO;
+import com.cong.fishisland.model.vo.user.UserVO;
+import com.cong.fishisland.service.CommentService;
+import com.cong.fishisland.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 帖子列表 VO 组装基准
+ * <p>
+ * Mapper 和依赖的服务均为 Mock，只衡量 getPostVOPage 自身的组装开销（分组、查询条件构造、标签解析、对象拷贝）。
+ * 实际耗时还要加上每页 3~5 次批量查询，以及每条帖子一次的 getThumbComment。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PostVOPageBenchmark {
+
+    @Param({"10", "20", "50"})
+    public int pageSize;
+
+    @Param({"false", "true"})
+    public boolean login;
+
+    private PostServiceImpl postService;
+
+    private Page<Post> postPage;
+
+    @Setup
+    public void setup() {
+        List<Post> posts = new ArrayList<>(pageSize);
+        List<User> users = new ArrayList<>();
+        List<PostThumb> thumbs = new ArrayList<>();
+        List<PostFavour> favours = new ArrayList<>();
+        Map<Long, Integer> commentNumMap = new HashMap<>();
+        Date now = new Date();
+        for (int i = 0; i < pageSize; i++) {
+            long postId = 1834000000000000000L + i;
+            // 每 3 条帖子同一个作者
+            long userId = 1816001234567890000L + i / 3;
+            Post post = new Post();
+            post.setId(postId);
+            post.setTitle("摸鱼日报 第" + i + "期");
+            post.setContent("今天的热榜看完了吗？这里是一段帖子正文的摘要内容，用于列表展示。");
+            post.setTags("[\"摸鱼\",\"日常\",\"分享\"]");
+            post.setThumbNum(i * 3);
+            post.setFavourNum(i);
+            post.setViewNum(i * 40);
+            post.setUserId(userId);
+            post.setCreateTime(now);
+            post.setUpdateTime(now);
+            post.setIsFeatured(i % 5 == 0 ? 1 : 0);
+            posts.add(post);
+            if (i % 3 == 0) {
+                User user = new User();
+                user.setId(userId);
+                user.setUserName("摸鱼用户" + i);
+                user.setUserAvatar("https://oss.cqbo.com/moyu/user_avatar/" + userId + "/avatar.png");
+                user.setUserProfile("上班摸鱼，下班钓鱼");
+                user.setUserRole("user");
+                user.setCreateTime(now);
+                users.add(user);
+            }
+            if (i % 2 == 0) {
+                PostThumb thumb = new PostThumb();
+                thumb.setPostId(postId);
+                thumbs.add(thumb);
+            }
+            if (i % 4 == 0) {
+                PostFavour favour = new PostFavour();
+                favour.setPostId(postId);
+                favours.add(favour);
+            }
+            commentNumMap.put(postId, i);
+        }
+        postPage = new Page<>(1, pageSize, 1000);
+        postPage.setRecords(posts);
+
+        CommentVO thumbComment = new CommentVO();
+        thumbComment.setId(1L);
+        thumbComment.setContent("沙发");
+        thumbComment.setThumbNum(12);
+        thumbComment.setCreateTime(now);
+
+        UserService userService = mock(UserService.class, withSettings().stubOnly());
+        when(userService.listByIds(anyCollection())).thenReturn(users);
+        User loginUser = login ? users.get(0) : null;
+        when(userService.getLoginUserPermitNull()).thenReturn(loginUser);
+        when(userService.getLoginUser()).thenReturn(loginUser);
+        when(userService.getUserVO(any(User.class)))
+                .thenAnswer(invocation -> BeanUtil.copyProperties(invocation.getArgument(0), UserVO.class));
+        PostThumbMapper postThumbMapper = mock(PostThumbMapper.class, withSettings().stubOnly());
+        when(postThumbMapper.selectList(any())).thenReturn(thumbs);
+        PostFavourMapper postFavourMapper = mock(PostFavourMapper.class, withSettings().stubOnly());
+        when(postFavourMapper.selectList(any())).thenReturn(favours);
+        CommentService commentService = mock(CommentService.class, withSettings().stubOnly());
+        when(commentService.getCommentNumMap(anyCollection())).thenReturn(commentNumMap);
+        when(commentService.getThumbComment(anyLong())).thenReturn(thumbComment);
+
+        postService = new PostServiceImpl();
+        ReflectionTestUtils.setField(postService, "userService", userService);
+        ReflectionTestUtils.setField(postService, "postThumbMapper", postThumbMapper);
+        ReflectionTestUtils.setField(postService, "postFavourMapper", postFavourMapper);
+        ReflectionTestUtils.setField(postService, "commentService", commentService);
+    }
+
+    @Benchmark
+    public Page<PostVO> getPostVOPage() {
+        return postService.getPostVOPage(postPage);
+    }
+}
@@ -0,0 +1,69 @@
+package com.cong.fishisland.service.impl.redpacket;
+
+import com.cong.fishisland.model.entity.redpacket.RedPacket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拼手气红包金额计算基准
+ * <p>
+ * 单次计算取红包刚发出时的状态；整包拆分模拟所有人依次抢完，与 grabRedPacket 中的扣减顺序一致。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RedPacketBenchmark {
+
+    @Param({"10", "100"})
+    public int count;
+
+    private RedPacket redPacket;
+
+    @Setup
+    public void setup() {
+        redPacket = newRedPacket();
+    }
+
+    @Benchmark
+    public Integer calculateRandomAmount() {
+        return RedPacketServiceImpl.calculateRandomAmount(redPacket);
+    }
+
+    @Benchmark
+    public int splitAll() {
+        RedPacket packet = newRedPacket();
+        int total = 0;
+        while (packet.getRemainingCount() > 0) {
+            int amount = RedPacketServiceImpl.calculateRandomAmount(packet);
+            packet.setRemainingAmount(packet.getRemainingAmount() - amount);
+            packet.setRemainingCount(packet.getRemainingCount() - 1);
+            total += amount;
+        }
+        return total;
+    }
+
+    private RedPacket newRedPacket() {
+        RedPacket packet = new RedPacket();
+        packet.setTotalAmount(count * 100);
+        packet.setCount(count);
+        packet.setRemainingAmount(count * 100);
+        packet.setRemainingCount(count);
+        return packet;
+    }
+}
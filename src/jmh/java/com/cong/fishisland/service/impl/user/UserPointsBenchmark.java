@@ -0,0 +1,53 @@
+package com.cong.fishisland.service.impl.user;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 积分等级计算基准
+ * <p>
+ * 积分在 0~20000 之间随机分布，覆盖所有等级区间，避免分支预测只命中同一个等级。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserPointsBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private final UserPointsServiceImpl userPointsService = new UserPointsServiceImpl();
+
+    private final int[] points = new int[SIZE];
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            points[i] = random.nextInt(20_000);
+        }
+    }
+
+    @Benchmark
+    public int calculateLevel() {
+        index = (index + 1) & (SIZE - 1);
+        return userPointsService.calculateLevel(points[index]);
+    }
+}
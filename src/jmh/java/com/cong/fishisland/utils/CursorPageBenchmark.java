@@ -0,0 +1,151 @@
+package com.cong.fishisland.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页基准：offset 分页（含 COUNT / 不含 COUNT）与游标分页在不同翻页深度下的延迟对比
+ * <p>
+ * 执行与 MyBatis-Plus 分页插件、{@link CursorUtils#page} 相同形式的 SQL（按 createTime、id 倒序，过滤逻辑删除），
+ * 需要 post 表中已有不少于 页码 × 20 条数据，连接信息取环境变量 POST_JDBC_URL、POST_JDBC_USERNAME、POST_JDBC_PASSWORD，
+ * 默认与 application-dev.yml 一致。默认不运行，见 pom.xml 中的 jmh.exclude。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CursorPageBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM post WHERE isDelete = 0";
+
+    private static final String OFFSET_SQL =
+            "SELECT * FROM post WHERE isDelete = 0 ORDER BY createTime DESC, id DESC LIMIT ?, ?";
+
+    private static final String CURSOR_SQL = "SELECT * FROM post WHERE isDelete = 0"
+            + " AND (createTime < ? OR (createTime = ? AND id < ?)) ORDER BY createTime DESC, id DESC LIMIT ?";
+
+    /**
+     * 翻页深度（页码）
+     */
+    @Param({"1", "100", "1000", "10000", "50000"})
+    public long page;
+
+    private Connection connection;
+
+    private PreparedStatement countStatement;
+
+    private PreparedStatement offsetStatement;
+
+    private PreparedStatement cursorStatement;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(env("POST_JDBC_URL", "jdbc:mysql://127.0.0.1:3306/fish"),
+                env("POST_JDBC_USERNAME", "fish"), env("POST_JDBC_PASSWORD", "123456"));
+        countStatement = connection.prepareStatement(COUNT_SQL);
+        long offset = (page - 1) * PAGE_SIZE;
+        offsetStatement = connection.prepareStatement(OFFSET_SQL);
+        offsetStatement.setLong(1, offset);
+        offsetStatement.setInt(2, PAGE_SIZE);
+
+        // 取上一页最后一条作为游标（不计时），模拟连续翻页到该深度；首页用不会命中边界的位置
+        Timestamp createTime = Timestamp.valueOf("9999-12-31 00:00:00");
+        long id = Long.MAX_VALUE;
+        if (offset > 0) {
+            try (PreparedStatement statement = connection.prepareStatement(OFFSET_SQL)) {
+                statement.setLong(1, offset - 1);
+                statement.setInt(2, 1);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new IllegalStateException("post 表数据不足 " + offset + " 条");
+                    }
+                    createTime = resultSet.getTimestamp("createTime");
+                    id = resultSet.getLong("id");
+                }
+            }
+        }
+        cursorStatement = connection.prepareStatement(CURSOR_SQL);
+        cursorStatement.setTimestamp(1, createTime);
+        cursorStatement.setTimestamp(2, createTime);
+        cursorStatement.setLong(3, id);
+        // 多取一条判断是否还有下一页
+        cursorStatement.setInt(4, PAGE_SIZE + 1);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        countStatement.close();
+        offsetStatement.close();
+        cursorStatement.close();
+        connection.close();
+    }
+
+    /**
+     * 原来的分页：COUNT 加 offset
+     */
+    @Benchmark
+    public long offsetWithCount() throws SQLException {
+        long total;
+        try (ResultSet resultSet = countStatement.executeQuery()) {
+            resultSet.next();
+            total = resultSet.getLong(1);
+        }
+        return total + read(offsetStatement);
+    }
+
+    @Benchmark
+    public long offset() throws SQLException {
+        return read(offsetStatement);
+    }
+
+    @Benchmark
+    public long cursor() throws SQLException {
+        return read(cursorStatement);
+    }
+
+    /**
+     * 读出每一行的全部列，与映射实体时的数据量相当
+     */
+    private static long read(PreparedStatement statement) throws SQLException {
+        long sum = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            int columnCount = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                for (int i = 1; i <= columnCount; i++) {
+                    Object value = resultSet.getObject(i);
+                    sum += value == null ? 0 : 1;
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+}
@@ -0,0 +1,77 @@
+package com.cong.fishisland.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片衍生图基准：单线程（每核）每秒处理的 1600x1200 JPEG 张数
+ * <p>
+ * derive 按生成衍生图的流程解码一次，生成 48/96/256 三种缩略图并编码；decode 只做降采样解码。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ImageUtilsBenchmark {
+
+    private static final long MAX_PIXELS = 100_000_000L;
+
+    private static final int DECODE_SIZE = 256;
+
+    private static final int[] SIZES = {48, 96, 256};
+
+    private byte[] jpeg;
+
+    @Setup
+    public void setup() throws IOException {
+        int width = 1600;
+        int height = 1200;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        for (int y = 0; y < height; y += 40) {
+            graphics.setColor(new Color((y * 7) % 256, (y * 3) % 256, 128));
+            graphics.fillRect(0, y, width, 40);
+        }
+        graphics.setColor(Color.WHITE);
+        graphics.drawOval(width / 4, height / 4, width / 2, height / 2);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        jpeg = out.toByteArray();
+    }
+
+    @Benchmark
+    public BufferedImage decode() throws IOException {
+        return ImageUtils.decode(new ByteArrayInputStream(jpeg), DECODE_SIZE, MAX_PIXELS).getImage();
+    }
+
+    @Benchmark
+    public void derive(Blackhole blackhole) throws IOException {
+        ImageUtils.DecodedImage decoded = ImageUtils.decode(new ByteArrayInputStream(jpeg), DECODE_SIZE, MAX_PIXELS);
+        for (int size : SIZES) {
+            blackhole.consume(ImageUtils.encode(ImageUtils.resize(decoded.getImage(), size), 0.8f));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.cong.fishisland.websocket;
+
+import cn.hutool.json.JSONUtil;
+import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.config.JsonConfig;
+import com.cong.fishisland.model.enums.MessageTypeEnum;
+import com.cong.fishisland.model.ws.request.Message;
+import com.cong.fishisland.model.ws.request.MessageWrapper;
+import com.cong.fishisland.model.ws.request.Sender;
+import com.cong.fishisland.model.ws.response.WSBaseResp;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聊天室广播编码基准
+ * <p>
+ * 单条消息分别用 hutool JSONUtil（当前 sendMsg 的实现）、fastjson、Jackson 编码；
+ * 广播按在线人数比较逐个连接编码和编码一次后共享帧（retainedDuplicate）的开销。
+ *
+ * @author cong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WebSocketEncodeBenchmark {
+
+    private WSBaseResp<MessageWrapper> chatResp;
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        Sender sender = Sender.builder()
+                .id("1816001234567890123")
+                .name("摸鱼达人")
+                .avatar("https://oss.cqbo.com/moyu/user_avatar/1816001234567890123/avatar.png")
+                .points(3280)
+                .level(6)
+                .userProfile("上班摸鱼，下班钓鱼")
+                .avatarFramerUrl("https://oss.cqbo.com/moyu/avatar_frame/12.png")
+                .titleId(3L)
+                .titleIdList("[1,2,3]")
+                .isAdmin(false)
+                .isVip(true)
+                .region("广东")
+                .country("中国")
+                .build();
+        Message quoted = new Message();
+        quoted.setId("1834000000000000001");
+        quoted.setRoomId("-1");
+        quoted.setContent("今天中午吃什么？");
+        quoted.setSender(sender);
+        quoted.setTimestamp("2024-09-12T04:01:02.000Z");
+
+        Message message = new Message();
+        message.setId("1834000000000000002");
+        message.setRoomId("-1");
+        message.setContent("楼下新开了一家兰州拉面，要不要一起去试试？顺便带杯咖啡回来 [doge]");
+        message.setSender(sender);
+        message.setTimestamp("2024-09-12T04:01:30.000Z");
+        message.setQuotedMessage(quoted);
+        message.setMentionedUsers(Collections.singletonList(sender));
+        MessageWrapper wrapper = new MessageWrapper();
+        wrapper.setMessage(message);
+
+        chatResp = WSBaseResp.<MessageWrapper>builder().type(MessageTypeEnum.CHAT.getType()).data(wrapper).build();
+        objectMapper = new JsonConfig().jacksonObjectMapper(Jackson2ObjectMapperBuilder.json());
+    }
+
+    @Benchmark
+    public String hutool() {
+        return JSONUtil.toJsonStr(chatResp);
+    }
+
+    @Benchmark
+    public String fastjson() {
+        return JSON.toJSONString(chatResp);
+    }
+
+    @Benchmark
+    public byte[] jackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(chatResp);
+    }
+
+    /**
+     * 广播给在线用户，帧写出后由 Netty 释放，这里直接 release
+     */
+    @State(Scope.Benchmark)
+    public static class Broadcast {
+
+        @Param({"10", "100", "500"})
+        public int recipients;
+    }
+
+    /**
+     * 当前实现：每个连接各编码一次
+     */
+    @Benchmark
+    public void broadcastEncodePerChannel(Broadcast broadcast, Blackhole blackhole) {
+        for (int i = 0; i < broadcast.recipients; i++) {
+            TextWebSocketFrame frame = new TextWebSocketFrame(JSONUtil.toJsonStr(chatResp));
+            blackhole.consume(frame);
+            frame.release();
+        }
+    }
+
+    /**
+     * 编码一次，每个连接写共享内容的帧
+     */
+    @Benchmark
+    public void broadcastEncodeOnce(Broadcast broadcast, Blackhole blackhole) {
+        TextWebSocketFrame frame = new TextWebSocketFrame(JSONUtil.toJsonStr(chatResp));
+        for (int i = 0; i < broadcast.recipients; i++) {
+            TextWebSocketFrame duplicate = frame.retainedDuplicate();
+            blackhole.consume(duplicate);
+            duplicate.release();
+        }
+        frame.release();
+    }
+}
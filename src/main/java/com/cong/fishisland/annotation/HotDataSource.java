@@ -0,0 +1,41 @@
+package com.cong.fishisland.annotation;
+
+import com.cong.fishisland.model.enums.HotDataKeyEnum;
+import com.cong.fishisland.model.enums.UpdateIntervalEnum;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 热榜数据源描述，标注在 DataSource 实现类上，由 DataSourceRegistry 自动发现
+ *
+ * @author cong
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface HotDataSource {
+
+    /**
+     * 热榜类型
+     */
+    HotDataKeyEnum key();
+
+    /**
+     * 更新间隔
+     */
+    UpdateIntervalEnum interval() default UpdateIntervalEnum.HALF_HOUR;
+
+    /**
+     * 单次抓取时间预算（毫秒，含重试），0 表示使用 hot-post.crawl.source-timeout
+     */
+    long timeout() default 0;
+
+    /**
+     * 优先级，同时到期时数值大的先抓取
+     */
+    int priority() default 0;
+}
@@ -5,9 +5,17 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * 防重复提交
+ * <p>
+ * 同一用户（或同一 Idempotency-Key）对同一接口提交相同参数，在有效期内只执行一次。
+ */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface NoRepeatSubmit {
     // 防重复提交时间间隔（秒）
     long expire() default 2;
+
+    // 是否重放首次结果：开启后重复提交返回首次执行的结果，而不是报错（执行中的重复提交仍然报错）
+    boolean replay() default false;
 }
@@ -0,0 +1,52 @@
+package com.cong.fishisland.annotation;
+
+import com.cong.fishisland.model.enums.RateLimitKeyEnum;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 接口限流，多个实例共享额度
+ * <p>
+ * 可以叠加多个，如同时按用户和按 IP 限流，任意一个超出即拒绝。
+ *
+ * @author cong
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(RateLimits.class)
+public @interface RateLimit {
+
+    /**
+     * 限流名称，默认为 类名.方法名；名称相同的接口共享额度
+     */
+    String name() default "";
+
+    /**
+     * 限流维度
+     */
+    RateLimitKeyEnum key() default RateLimitKeyEnum.USER;
+
+    /**
+     * 每个周期允许的请求数
+     */
+    int permits();
+
+    /**
+     * 周期（秒）
+     */
+    long periodSeconds() default 60;
+
+    /**
+     * 允许的突发请求数，默认等于 permits
+     */
+    int burst() default 0;
+
+    /**
+     * 超出限制时的提示
+     */
+    String message() default "请求过于频繁，请稍后再试";
+}
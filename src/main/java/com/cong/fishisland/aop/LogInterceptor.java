@@ -1,55 +1,155 @@
 package com.cong.fishisland.aop;
 
-import java.util.UUID;
+import com.cong.fishisland.config.ObservabilityConfig;
+import com.cong.fishisland.manager.RequestMetricsManager;
+import java.io.InputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StopWatch;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.HandlerMapping;
 
 /**
  * 请求响应日志 AOP
+ * <p>
+ * 每个请求生成递增的请求 ID（放入 MDC 和响应头），按接口记录耗时和 SQL 次数；
+ * 请求参数日志按比例采样并限制长度，慢请求始终打印。
  *
  * # @author <a href="https://github.com/lhccong">程序员聪</a>
  **/
 @Aspect
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class LogInterceptor {
 
+    /**
+     * MDC 中的请求 ID
+     */
+    public static final String REQUEST_ID = "requestId";
+
+    /**
+     * 响应头中的请求 ID
+     */
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    /**
+     * 请求 ID 前缀：启动时间，区分不同实例和重启
+     */
+    private static final String REQUEST_ID_PREFIX = Long.toString(System.currentTimeMillis(), 36) + "-";
+
+    private static final AtomicLong REQUEST_SEQUENCE = new AtomicLong();
+
+    private static final String NO_EXCEPTION = "none";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final RequestMetricsManager requestMetricsManager;
+
+    private final ObservabilityConfig observabilityConfig;
+
     /**
      * 执行拦截
      */
-    @Around("execution(* com.cong.fishisland.controller.*.*(..))")
+    @Around("execution(* com.cong.fishisland.controller..*.*(..))")
     public Object doInterceptor(ProceedingJoinPoint point) throws Throwable {
-        // 计时
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        // 获取请求路径
-        RequestAttributes requestAttributes = RequestContextHolder.currentRequestAttributes();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        // 非请求线程或嵌套调用，不重复统计
+        if (!(requestAttributes instanceof ServletRequestAttributes) || !SqlMetricsInterceptor.beginRequest()) {
+            return point.proceed();
+        }
         HttpServletRequest httpServletRequest = ((ServletRequestAttributes) requestAttributes).getRequest();
-        // 生成请求唯一 id
-        String requestId = UUID.randomUUID().toString();
-        String url = httpServletRequest.getRequestURI();
-        // 获取请求参数
-        Object[] args = point.getArgs();
-        String reqParam = "[" + StringUtils.join(args, ", ") + "]";
-        // 输出请求日志
-        log.info("request start，id: {}, path: {}, ip: {}, params: {}", requestId, url,
-                httpServletRequest.getRemoteHost(), reqParam);
-        // 执行原方法
-        Object result = point.proceed();
-        // 输出响应日志
-        stopWatch.stop();
-        long totalTimeMillis = stopWatch.getTotalTimeMillis();
-        log.info("request end, id: {}, cost: {}ms", requestId, totalTimeMillis);
-        return result;
+        String requestId = nextRequestId();
+        MDC.put(REQUEST_ID, requestId);
+        HttpServletResponse httpServletResponse = ((ServletRequestAttributes) requestAttributes).getResponse();
+        if (httpServletResponse != null) {
+            httpServletResponse.setHeader(REQUEST_ID_HEADER, requestId);
+        }
+        long start = System.nanoTime();
+        String exception = NO_EXCEPTION;
+        try {
+            return point.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            SqlMetricsInterceptor.RequestSql requestSql = SqlMetricsInterceptor.endRequest();
+            Object pattern = httpServletRequest.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            requestMetricsManager.recordRequest(httpServletRequest.getMethod(),
+                    pattern == null ? UNKNOWN_URI : pattern.toString(), exception, nanos,
+                    requestSql.getQueries(), requestSql.getNanos());
+            logRequest(point, httpServletRequest, requestId, nanos, requestSql, exception);
+            MDC.remove(REQUEST_ID);
+        }
+    }
+
+    /**
+     * 递增的请求 ID，如 lq3k2x1c-1a
+     */
+    static String nextRequestId() {
+        return REQUEST_ID_PREFIX + Long.toString(REQUEST_SEQUENCE.incrementAndGet(), 36);
     }
-}
 
+    private void logRequest(ProceedingJoinPoint point, HttpServletRequest httpServletRequest, String requestId,
+                            long nanos, SqlMetricsInterceptor.RequestSql requestSql, String exception) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        boolean slow = millis >= observabilityConfig.getSlowRequestMillis();
+        if (!slow && ThreadLocalRandom.current().nextDouble() >= observabilityConfig.getLogSampleRate()) {
+            return;
+        }
+        String reqParam = formatArgs(point.getArgs(), observabilityConfig.getMaxLogLength());
+        if (slow) {
+            log.warn("slow request, id: {}, path: {}, ip: {}, cost: {}ms, sql: {}/{}ms, exception: {}, params: {}",
+                    requestId, httpServletRequest.getRequestURI(), httpServletRequest.getRemoteHost(), millis,
+                    requestSql.getQueries(), TimeUnit.NANOSECONDS.toMillis(requestSql.getNanos()), exception, reqParam);
+        } else {
+            log.info("request, id: {}, path: {}, ip: {}, cost: {}ms, sql: {}/{}ms, exception: {}, params: {}",
+                    requestId, httpServletRequest.getRequestURI(), httpServletRequest.getRemoteHost(), millis,
+                    requestSql.getQueries(), TimeUnit.NANOSECONDS.toMillis(requestSql.getNanos()), exception, reqParam);
+        }
+    }
+
+    /**
+     * 请求参数，文件、流等只记录类型和大小，总长度超出时截断
+     */
+    static String formatArgs(Object[] args, int maxLength) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < args.length && builder.length() < maxLength; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            Object arg = args[i];
+            if (arg instanceof MultipartFile) {
+                MultipartFile file = (MultipartFile) arg;
+                builder.append("MultipartFile(").append(file.getOriginalFilename()).append(", ")
+                        .append(file.getSize()).append(" bytes)");
+            } else if (arg instanceof byte[]) {
+                builder.append("byte[").append(((byte[]) arg).length).append(']');
+            } else if (arg instanceof ServletRequest || arg instanceof ServletResponse
+                    || arg instanceof InputStream || arg instanceof BindingResult) {
+                builder.append(arg.getClass().getSimpleName());
+            } else {
+                builder.append(StringUtils.abbreviate(String.valueOf(arg), maxLength));
+            }
+        }
+        builder.append(']');
+        return StringUtils.abbreviate(builder.toString(), maxLength);
+    }
+}
@@ -1,23 +1,41 @@
 package com.cong.fishisland.aop;
 
+import cn.dev33.satoken.stp.StpUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.extra.servlet.ServletUtil;
+import com.alibaba.fastjson.JSON;
 import com.cong.fishisland.annotation.NoRepeatSubmit;
 import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.common.exception.ThrowUtils;
 import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.manager.IdempotencyManager;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.multipart.MultipartFile;
 
-import javax.annotation.Resource;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
-import java.util.Collections;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 防重复提交切面
+ * <p>
+ * 请求键为 登录用户（未登录时为客户端 IP）+ 可选的 Idempotency-Key 请求头 + 请求方法、路径和参数的摘要，
+ * 不依赖 HttpSession。去重和结果重放见 {@link IdempotencyManager}。
  *
  * @author 许林涛
  * @date 2025年05月30日 9:08
@@ -25,63 +43,53 @@ import java.util.Collections;
 @Aspect
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class NoRepeatSubmitAspect {
-    @Resource
-    private StringRedisTemplate stringRedisTemplate;
-    @Resource
-    private HttpServletRequest httpServletRequest;
 
     /**
-     * 定义一个常量，用于存储Lua脚本
+     * 客户端指定的幂等键请求头，同一个键的重试视为同一次提交
      */
-    private static final String LUA_SCRIPT =
-            "if redis.call('exists', KEYS[1]) == 0 then " +
-                    "redis.call('set', KEYS[1], '1', 'EX', ARGV[1]); " +
-                    "return 1; " +
-                    "else " +
-                    "return 0; " +
-                    "end";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
-    /**
-     * 定义一个常量，用于存储DefaultRedisScript的实例
-     */
-    private static final DefaultRedisScript<Long> REDIS_SCRIPT =
-            new DefaultRedisScript<>(LUA_SCRIPT, Long.class);
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    private final IdempotencyManager idempotencyManager;
 
     /**
      * 环绕通知方法，用于处理重复提交的请求
-     * 该方法会在操作执行前后进行拦截，主要用于防止重复提交
+     * <p>
+     * 首次提交占用请求键后执行原方法，失败时释放请求键允许重试；有效期内的重复提交抛出异常，
+     * 开启重放时返回首次执行的结果。
      *
      * @param pjp            连接点对象，用于操作原方法的执行
      * @param noRepeatSubmit 无重复提交注解对象，用于获取配置信息
      * @return 原方法的执行结果
      * @throws Throwable 如果方法执行过程中发生异常，将会抛出Throwable异常
-     *                   <p>
-     *                   为什么使用环绕通知：
-     *                   环绕通知可以在方法执行前后插入自定义的逻辑，这里用于检查和防止重复提交
-     *                   通过在方法执行前检查Redis中是否存在特定的key，我们可以有效阻止重复提交
-     *                   如果存在该key，表示该请求已经提交过，此时抛出异常，阻止方法的执行
-     *                   如果不存在，我们将创建该key，并设置过期时间，以确保请求在指定时间内不会被重复提交
      */
     @Around("@annotation(noRepeatSubmit)")
     public Object around(ProceedingJoinPoint pjp, NoRepeatSubmit noRepeatSubmit) throws Throwable {
-        // 获取用于防止重复提交的唯一key
-        String key = getKey();
-        // 获取配置的过期时间
         long expireTime = noRepeatSubmit.expire();
-        // 验证expireTime是否有效
         ThrowUtils.throwIf(expireTime <= 0, ErrorCode.PARAMS_ERROR, "过期时间不合法");
-        // 调用Redis的Lua脚本，检查是否存在该key，如果存在则返回0，表示重复提交
-        Long result = stringRedisTemplate.execute(REDIS_SCRIPT, Collections.singletonList(key), String.valueOf(expireTime));
-        ThrowUtils.throwIf(result == null, ErrorCode.SYSTEM_ERROR, "Redis服务异常");
-        // 如果key已经存在，表示这是一个重复的提交请求
-        ThrowUtils.throwIf(result == 0L, ErrorCode.REPEAT_SUBMIT_ERROR);
-        try {
-            // 继续执行原方法，并返回其结果
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        // 非 Web 请求（如内部调用）不去重
+        if (!(requestAttributes instanceof ServletRequestAttributes)) {
             return pjp.proceed();
+        }
+        String key = getKey(((ServletRequestAttributes) requestAttributes).getRequest(), pjp.getArgs());
+        IdempotencyManager.Record existing = idempotencyManager.tryAcquire(key, expireTime);
+        if (existing != null) {
+            if (noRepeatSubmit.replay() && existing.isDone()) {
+                return existing.getResult(((MethodSignature) pjp.getSignature()).getMethod().getGenericReturnType());
+            }
+            throw new BusinessException(ErrorCode.REPEAT_SUBMIT_ERROR);
+        }
+        try {
+            Object result = pjp.proceed();
+            idempotencyManager.complete(key, expireTime, noRepeatSubmit.replay() ? result : null);
+            return result;
         } catch (Throwable e) {
-            // 异常时清理 Redis 键
-            stringRedisTemplate.delete(key);
+            // 异常时释放请求键
+            idempotencyManager.release(key);
             log.error("NoRepeatSubmitAspect around, error: ", e);
             throw e;
         }
@@ -90,15 +98,46 @@ public class NoRepeatSubmitAspect {
     /**
      * 构造一个用于防止表单重复提交的唯一键
      *
-     * @return 唯一键值，格式为"noRepeatSubmit:sessionId:请求URI"，用于标识每个请求的唯一性
+     * @return 唯一键值，格式为"noRepeatSubmit:请求方:摘要"
+     */
+    static String getKey(HttpServletRequest request, Object[] args) {
+        String subject = currentUserId();
+        subject = subject == null ? "ip-" + ServletUtil.getClientIP(request) : "u-" + subject;
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (StringUtils.isNotBlank(idempotencyKey)) {
+            ThrowUtils.throwIf(idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH, ErrorCode.PARAMS_ERROR,
+                    "Idempotency-Key 过长");
+            subject = subject + "-" + idempotencyKey;
+        }
+        String digest = DigestUtil.md5Hex(request.getMethod() + ' ' + request.getRequestURI() + '\n'
+                + JSON.toJSONString(bodyArgs(args)));
+        return RedisKey.getKey(RedisKey.NO_REPEAT_SUBMIT_PREFIX, subject, digest);
+    }
+
+    /**
+     * 参与摘要的参数，去掉请求、响应、文件流等
      */
-    private String getKey() {
-        // 获取会话ID，用于区分不同的用户会话
-        String sessionId = httpServletRequest.getSession().getId();
-        // 获取请求的URI，用于区分不同的请求路径
-        String uri = httpServletRequest.getRequestURI();
-        // 拼接会话ID和请求URI，生成唯一键
-        return RedisKey.getKey(RedisKey.NO_REPEAT_SUBMIT_PREFIX, sessionId,uri);
+    private static List<Object> bodyArgs(Object[] args) {
+        List<Object> bodyArgs = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            if (arg instanceof ServletRequest || arg instanceof ServletResponse || arg instanceof MultipartFile
+                    || arg instanceof InputStream || arg instanceof BindingResult) {
+                continue;
+            }
+            bodyArgs.add(arg);
+        }
+        return bodyArgs;
     }
 
-}
\ No newline at end of file
+    /**
+     * 当前登录用户，只读取 Sa-Token 令牌，不会创建 HttpSession
+     */
+    static String currentUserId() {
+        try {
+            Object loginId = StpUtil.getLoginIdDefaultNull();
+            return loginId == null ? null : loginId.toString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
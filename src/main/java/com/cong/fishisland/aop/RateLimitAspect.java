@@ -0,0 +1,113 @@
+package com.cong.fishisland.aop;
+
+import cn.hutool.extra.servlet.ServletUtil;
+import com.cong.fishisland.annotation.RateLimit;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.config.RateLimitConfig;
+import com.cong.fishisland.manager.RateLimitManager;
+import com.cong.fishisland.model.enums.RateLimitKeyEnum;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 接口限流切面
+ * <p>
+ * 按 {@link RateLimit} 的维度（用户、IP、全局）限流，超出时返回请求过于频繁，并通过 Retry-After 响应头告知等待时间。
+ *
+ * @author cong
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RateLimitAspect {
+
+    private static final String GLOBAL_SUBJECT = "global";
+
+    private final RateLimitManager rateLimitManager;
+
+    /**
+     * 接口方法 -> 限流规则，注解只解析一次
+     */
+    private final Map<Method, List<Limit>> limits = new ConcurrentHashMap<>();
+
+    @Around("@annotation(com.cong.fishisland.annotation.RateLimit) || @annotation(com.cong.fishisland.annotation.RateLimits)")
+    public Object around(ProceedingJoinPoint pjp) throws Throwable {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        // 非 Web 请求（如内部调用）不限流
+        if (!(requestAttributes instanceof ServletRequestAttributes)) {
+            return pjp.proceed();
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) requestAttributes).getRequest();
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        for (Limit limit : limits.computeIfAbsent(method, RateLimitAspect::resolve)) {
+            long retryAfterMillis = rateLimitManager.tryAcquire(limit.name, subject(limit.key, request), limit.rule);
+            if (retryAfterMillis > 0) {
+                HttpServletResponse response = ((ServletRequestAttributes) requestAttributes).getResponse();
+                if (response != null) {
+                    response.setHeader(HttpHeaders.RETRY_AFTER,
+                            String.valueOf(Math.max(TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999), 1)));
+                }
+                throw new BusinessException(ErrorCode.REPEAT_SUBMIT_ERROR, limit.message);
+            }
+        }
+        return pjp.proceed();
+    }
+
+    /**
+     * 限流对象：登录用户 ID（未登录时按 IP）、客户端 IP 或全局
+     */
+    static String subject(RateLimitKeyEnum key, HttpServletRequest request) {
+        switch (key) {
+            case USER:
+                String userId = NoRepeatSubmitAspect.currentUserId();
+                return userId == null ? "ip-" + ServletUtil.getClientIP(request) : "u-" + userId;
+            case IP:
+                return "ip-" + ServletUtil.getClientIP(request);
+            default:
+                return GLOBAL_SUBJECT;
+        }
+    }
+
+    private static List<Limit> resolve(Method method) {
+        String defaultName = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return AnnotatedElementUtils.findMergedRepeatableAnnotations(method, RateLimit.class).stream()
+                .map(rateLimit -> new Limit(
+                        StringUtils.defaultIfBlank(rateLimit.name(), defaultName) + ":" + rateLimit.key().getValue(),
+                        rateLimit.key(),
+                        new RateLimitConfig.Rule(rateLimit.permits(), rateLimit.periodSeconds(), rateLimit.burst()),
+                        rateLimit.message()))
+                .collect(Collectors.toList());
+    }
+
+    @RequiredArgsConstructor
+    private static class Limit {
+
+        private final String name;
+
+        private final RateLimitKeyEnum key;
+
+        private final RateLimitConfig.Rule rule;
+
+        private final String message;
+    }
+}
@@ -0,0 +1,110 @@
+package com.cong.fishisland.aop;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import com.cong.fishisland.config.ObservabilityConfig;
+import com.cong.fishisland.manager.RequestMetricsManager;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL 耗时统计插件
+ * <p>
+ * 按 Mapper 方法统计每条 SQL 的执行耗时，超过阈值的打印慢 SQL 日志；在请求线程中执行时同时计入该请求的 SQL 次数和耗时。
+ * 代替 StdOutImpl 打印全部 SQL。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "queryCursor", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "batch", args = {Statement.class})
+})
+public class SqlMetricsInterceptor implements Interceptor {
+
+    /**
+     * 当前请求的 SQL 统计，不在请求中时为 null
+     */
+    private static final ThreadLocal<RequestSql> REQUEST_SQL = new ThreadLocal<>();
+
+    private final RequestMetricsManager requestMetricsManager;
+
+    private final ObservabilityConfig observabilityConfig;
+
+    /**
+     * 开始统计当前请求的 SQL
+     *
+     * @return 是否为最外层请求，嵌套调用返回 false 且不重新开始
+     */
+    public static boolean beginRequest() {
+        if (REQUEST_SQL.get() != null) {
+            return false;
+        }
+        REQUEST_SQL.set(new RequestSql());
+        return true;
+    }
+
+    /**
+     * 结束统计并返回当前请求的 SQL 次数和耗时
+     */
+    public static RequestSql endRequest() {
+        RequestSql requestSql = REQUEST_SQL.get();
+        REQUEST_SQL.remove();
+        return requestSql == null ? new RequestSql() : requestSql;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            record(invocation, System.nanoTime() - start);
+        }
+    }
+
+    private void record(Invocation invocation, long nanos) {
+        RequestSql requestSql = REQUEST_SQL.get();
+        if (requestSql != null) {
+            requestSql.queries++;
+            requestSql.nanos += nanos;
+        }
+        StatementHandler statementHandler = PluginUtils.realTarget(invocation.getTarget());
+        MappedStatement mappedStatement = PluginUtils.mpStatementHandler(statementHandler).mappedStatement();
+        requestMetricsManager.recordStatement(mappedStatement.getId(), nanos);
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (millis >= observabilityConfig.getSlowSqlMillis()) {
+            String sql = StringUtils.normalizeSpace(statementHandler.getBoundSql().getSql());
+            log.warn("slow sql, requestId: {}, id: {}, cost: {}ms, sql: {}", MDC.get(LogInterceptor.REQUEST_ID),
+                    mappedStatement.getId(), millis, StringUtils.abbreviate(sql, observabilityConfig.getMaxLogLength()));
+        }
+    }
+
+    /**
+     * 一次请求中执行的 SQL
+     */
+    @Getter
+    public static class RequestSql {
+
+        private long queries;
+
+        private long nanos;
+    }
+}
@@ -0,0 +1,50 @@
+package com.cong.fishisland.common;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 游标分页结果
+ *
+ * @author cong
+ */
+@Data
+@NoArgsConstructor
+public class CursorPage<T> implements Serializable {
+
+    /**
+     * 当前页数据
+     */
+    private List<T> records = Collections.emptyList();
+
+    /**
+     * 下一页游标（为空表示没有更多数据）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+
+    /**
+     * 总记录数（未要求统计时为空）
+     */
+    private Long total;
+
+    public CursorPage(List<T> records, String nextCursor) {
+        this.records = records;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    public static <T> CursorPage<T> empty() {
+        return new CursorPage<>();
+    }
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,26 @@
+package com.cong.fishisland.common;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 游标分页请求
+ *
+ * @author cong
+ */
+@Data
+public class CursorPageRequest implements Serializable {
+
+    /**
+     * 上一页返回的游标（首页为空）
+     */
+    private String cursor;
+
+    /**
+     * 页面大小
+     */
+    private int pageSize = 10;
+
+    private static final long serialVersionUID = 1L;
+}
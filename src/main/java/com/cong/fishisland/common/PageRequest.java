@@ -29,4 +29,14 @@ public class PageRequest {
      * 排序顺序（默认升序）
      */
     private String sortOrder = CommonConstant.SORT_ORDER_ASC;
+
+    /**
+     * 游标（仅游标分页接口使用，首页为空）
+     */
+    private String cursor;
+
+    /**
+     * 是否统计总数（为空时偏移分页统计、游标分页不统计）
+     */
+    private Boolean searchCount;
 }
@@ -17,6 +17,10 @@ public class AIModelConfig {
      * 硅基流动模型KEY
      */
     private String siliconFlow;
+    /**
+     * 硅基流动接口地址（OpenAI 兼容）
+     */
+    private String siliconFlowUrl = "https://api.siliconflow.cn/v1";
     /**
      * 鱼类识别模型KEY
      */
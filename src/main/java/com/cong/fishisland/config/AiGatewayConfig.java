@@ -0,0 +1,64 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AI 网关配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ai.gateway")
+@Data
+public class AiGatewayConfig {
+
+    /**
+     * 同时发往 AI 服务的最大请求数
+     */
+    private int maxConcurrent = 8;
+
+    /**
+     * 最多排队等待的请求数，超出直接拒绝
+     */
+    private int maxQueue = 32;
+
+    /**
+     * 排队最长等待时间（毫秒）
+     */
+    private long queueTimeout = 10_000;
+
+    /**
+     * 每个模型每分钟默认请求数
+     */
+    private int modelPermitsPerMinute = 120;
+
+    /**
+     * 按模型单独指定每分钟请求数
+     */
+    private Map<String, Integer> modelPermits = new HashMap<>();
+
+    /**
+     * 每个用户每分钟请求数
+     */
+    private int userPermitsPerMinute = 10;
+
+    /**
+     * 结果确定的调用的缓存时间（秒）
+     */
+    private long cacheSeconds = 86_400;
+
+    /**
+     * 缓存最大条数
+     */
+    private long cacheSize = 2_000;
+
+    /**
+     * 服务失败后的备用路由，key 为服务名，value 为 "备用服务名:模型"
+     */
+    private Map<String, String> fallbacks = new HashMap<>();
+}
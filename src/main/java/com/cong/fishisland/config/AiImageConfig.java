@@ -0,0 +1,41 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI 图片生成任务配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ai.image")
+@Data
+public class AiImageConfig {
+
+    /**
+     * 生成图片的模型
+     */
+    private String model = "flux.1-dev";
+
+    /**
+     * 队列最大长度，超出直接拒绝
+     */
+    private int maxQueue = 50;
+
+    /**
+     * 单个任务的预计最长执行时间（秒），用于估算去重登记的过期时间（排队 + 执行）
+     */
+    private long jobTimeoutSeconds = 600;
+
+    /**
+     * 生成结果的保留时间（秒），期间相同描述直接返回已有图片
+     */
+    private long resultSeconds = 86400;
+
+    /**
+     * 消费线程阻塞读取队列的超时（秒）
+     */
+    private long pollSeconds = 5;
+}
@@ -0,0 +1,46 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 事件提醒配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "event-remind")
+@Data
+public class EventRemindConfig {
+
+    /**
+     * 提醒批量写库的间隔（毫秒）
+     */
+    private long flushIntervalMillis = 500;
+
+    /**
+     * 每批写库的最大条数
+     */
+    private int batchSize = 500;
+
+    /**
+     * 待写库提醒的队列长度，超出时在提交线程直接写库
+     */
+    private int queueCapacity = 100000;
+
+    /**
+     * 同一用户两次推送的最小间隔（毫秒），期间的提醒合并为一条推送
+     */
+    private long pushIntervalMillis = 3000;
+
+    /**
+     * 点赞去重记录的保留时间（秒），过期后从数据库重新加载
+     */
+    private long dedupSeconds = 30L * 24 * 3600;
+
+    /**
+     * 未读数缓存时间（秒），过期后从数据库重新统计
+     */
+    private long unreadSeconds = 30L * 24 * 3600;
+}
@@ -0,0 +1,41 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 流式分片上传配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "file.upload")
+@Data
+public class FileUploadConfig {
+
+    /**
+     * 分片大小（字节），COS 和 MinIO 要求除最后一片外至少 5MB
+     */
+    private int partSize = 5 * 1024 * 1024;
+
+    /**
+     * 分片缓冲区上限，每个上传占用一个，缓冲区占用的内存不超过 partSize * maxBuffers
+     */
+    private int maxBuffers = 16;
+
+    /**
+     * 等待空闲缓冲区的最长时间（毫秒），超时拒绝上传
+     */
+    private long acquireTimeoutMillis = 3000;
+
+    /**
+     * 单个文件大小上限（字节）
+     */
+    private long maxSize = 100L * 1024 * 1024;
+
+    /**
+     * 内容哈希去重记录的保留时间（秒）
+     */
+    private long dedupeSeconds = 30L * 24 * 3600;
+}
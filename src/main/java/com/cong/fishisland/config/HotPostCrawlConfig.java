@@ -0,0 +1,63 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 热榜抓取配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hot-post.crawl")
+@Data
+public class HotPostCrawlConfig {
+
+    /**
+     * 单个数据源的默认时间预算（毫秒，含重试），超时后放弃该数据源，不影响其他数据源
+     */
+    private long sourceTimeout = 30000;
+
+    /**
+     * 按数据源类型单独指定时间预算（毫秒），key 为 HotDataKeyEnum 的 value
+     */
+    private Map<String, Long> sourceTimeouts = new HashMap<>();
+
+    /**
+     * 连续失败达到该次数后熔断
+     */
+    private int failureThreshold = 3;
+
+    /**
+     * 失败后首次退避时长（毫秒），之后每次翻倍
+     */
+    private long backoffBase = 60_000;
+
+    /**
+     * 最长退避时长（毫秒）
+     */
+    private long backoffMax = 3_600_000;
+
+    /**
+     * 熔断时长（毫秒），到期后放行一次试探，试探失败则翻倍
+     */
+    private long openDuration = 1_800_000;
+
+    /**
+     * 最长熔断时长（毫秒）
+     */
+    private long openDurationMax = 21_600_000;
+
+    /**
+     * 下次执行时间的随机抖动比例
+     */
+    private double jitterRatio = 0.1;
+
+    public long getTimeout(String type) {
+        return sourceTimeouts.getOrDefault(type, sourceTimeout);
+    }
+}
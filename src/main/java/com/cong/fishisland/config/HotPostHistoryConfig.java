@@ -0,0 +1,41 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 热榜历史配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hot-post.history")
+@Data
+public class HotPostHistoryConfig {
+
+    /**
+     * 快照保留天数，下榜超过该天数的条目一并删除
+     */
+    private int retentionDays = 30;
+
+    /**
+     * 早于该天数的快照按小时降采样
+     */
+    private int hourlyAfterDays = 1;
+
+    /**
+     * 早于该天数的快照按天降采样
+     */
+    private int dailyAfterDays = 7;
+
+    /**
+     * 跨来源标题判定为同一话题的最低相似度（MinHash 估计的字符二元组 Jaccard）
+     */
+    private double similarityThreshold = 0.4;
+
+    /**
+     * 排名上升至少多少位算作飙升
+     */
+    private int risingRankChange = 5;
+}
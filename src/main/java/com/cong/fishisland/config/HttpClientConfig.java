@@ -0,0 +1,64 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 出站 HTTP 客户端配置（热榜、AI 等外部接口共用一个连接池）
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "http-client")
+@Data
+public class HttpClientConfig {
+
+    /**
+     * 响应缓存目录（按 Cache-Control / ETag / Last-Modified 缓存和条件请求）
+     */
+    private String cacheDir = "data/http-cache";
+
+    /**
+     * 响应缓存最大占用（MB）
+     */
+    private long cacheSizeMb = 50;
+
+    /**
+     * 全局最大并发请求数
+     */
+    private int maxRequests = 64;
+
+    /**
+     * 单个主机最大并发请求数
+     */
+    private int maxRequestsPerHost = 4;
+
+    /**
+     * 按主机单独指定并发上限，如 AI 接口
+     */
+    private Map<String, Integer> hostMaxRequests = new HashMap<>();
+
+    /**
+     * 连接池最大空闲连接数
+     */
+    private int maxIdleConnections = 32;
+
+    /**
+     * 空闲连接保活时长（秒）
+     */
+    private long keepAliveSec = 300;
+
+    /**
+     * 连接超时（毫秒）
+     */
+    private long connectTimeout = 5000;
+
+    /**
+     * 读超时（毫秒）
+     */
+    private long readTimeout = 15000;
+}
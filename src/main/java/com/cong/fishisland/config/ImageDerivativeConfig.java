@@ -0,0 +1,44 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 图片衍生图（缩略图、动图首帧封面）配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "image.derivative")
+@Data
+public class ImageDerivativeConfig {
+
+    /**
+     * 是否在上传后生成衍生图
+     */
+    private boolean enabled = true;
+
+    /**
+     * 缩略图长边像素
+     */
+    private List<Integer> sizes = Arrays.asList(48, 96, 256);
+
+    /**
+     * 动图首帧封面的最大长边像素
+     */
+    private int posterMaxSide = 512;
+
+    /**
+     * JPEG 质量（0~1）
+     */
+    private float quality = 0.8f;
+
+    /**
+     * 原图像素数上限，超出不生成衍生图
+     */
+    private long maxPixels = 50_000_000L;
+}
@@ -0,0 +1,41 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 排行榜配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "leaderboard")
+@Data
+public class LeaderboardConfig {
+
+    /**
+     * 日榜保留天数，过期后自动删除
+     */
+    private int dailyRetentionDays = 30;
+
+    /**
+     * 周榜保留周数
+     */
+    private int weeklyRetentionWeeks = 12;
+
+    /**
+     * 周期结束后归档的名次数，其余成员删除以节省内存
+     */
+    private int archiveSize = 1000;
+
+    /**
+     * 本地缓存的榜单数（每个榜单每种长度一条）
+     */
+    private long cacheSize = 1000;
+
+    /**
+     * 启动时把旧的猜英雄排行（guess:hero:ranking）迁移到总榜（一次性，完成后关闭）
+     */
+    private boolean migrateHeroGuessOnStartup = false;
+}
@@ -17,6 +17,21 @@ public class MinioConfig {
     private String secretKey;
     private String bucketName;
 
+    /**
+     * 下载预签名地址有效期（秒）
+     */
+    private int presignExpirySeconds = 3600;
+
+    /**
+     * 预签名地址到期前多久停止复用（秒）
+     */
+    private int presignRefreshMarginSeconds = 300;
+
+    /**
+     * 最多缓存的预签名地址数
+     */
+    private long presignCacheSize = 10000;
+
     @Bean
     public MinioClient minioClient() {
         return MinioClient.builder()
@@ -0,0 +1,36 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 请求耗时、SQL 耗时统计配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "observability")
+@Data
+public class ObservabilityConfig {
+
+    /**
+     * 正常请求打印参数日志的采样比例（0~1），慢请求始终打印
+     */
+    private double logSampleRate = 0.01;
+
+    /**
+     * 慢请求阈值（毫秒）
+     */
+    private long slowRequestMillis = 1000;
+
+    /**
+     * 慢 SQL 阈值（毫秒）
+     */
+    private long slowSqlMillis = 200;
+
+    /**
+     * 日志中请求参数、SQL 的最大长度，超出截断
+     */
+    private int maxLogLength = 512;
+}
@@ -0,0 +1,36 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 帖子全文检索（内嵌 Lucene）配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "post-search")
+@Data
+public class PostSearchConfig {
+
+    /**
+     * 索引目录（本地磁盘持久化）
+     */
+    private String indexDir = "data/post-index";
+
+    /**
+     * 近实时刷新最大延迟（秒）
+     */
+    private double maxStaleSec = 1.0;
+
+    /**
+     * 启动时是否强制全量重建索引（索引为空时总会重建）
+     */
+    private boolean rebuildOnStartup = false;
+
+    /**
+     * 分面统计返回的标签数量
+     */
+    private int facetTopN = 20;
+}
@@ -0,0 +1,78 @@
+package com.cong.fishisland.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 限流配置
+ * <p>
+ * 接口的限流规则写在 {@link com.cong.fishisland.annotation.RateLimit} 上，这里是总开关和 WebSocket 的规则。
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitConfig {
+
+    /**
+     * 是否开启限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否先在本地限流：单个实例上已经超出额度的请求直接拒绝，不访问 Redis
+     */
+    private boolean localPreLimit = true;
+
+    /**
+     * 每个 WebSocket 连接每秒最多的消息帧数（含心跳），只在本地限制
+     */
+    private int wsFramesPerSecond = 20;
+
+    /**
+     * 每个 WebSocket 连接允许的突发帧数
+     */
+    private int wsFrameBurst = 40;
+
+    /**
+     * 每个用户发送聊天室消息的频率
+     */
+    private Rule chat = new Rule(20, 10, 0);
+
+    /**
+     * 每个用户 @摸鱼助手 的频率
+     */
+    private Rule ai = new Rule(5, 60, 0);
+
+    /**
+     * 限流规则
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rule {
+
+        /**
+         * 每个周期允许的请求数
+         */
+        private int permits;
+
+        /**
+         * 周期（秒）
+         */
+        private long periodSeconds;
+
+        /**
+         * 允许的突发请求数，0 表示等于 permits
+         */
+        private int burst;
+
+        public int burstOrPermits() {
+            return burst > 0 ? burst : permits;
+        }
+    }
+}
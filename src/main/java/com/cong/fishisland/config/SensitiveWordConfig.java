@@ -0,0 +1,26 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 敏感词过滤配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sensitive-word")
+@Data
+public class SensitiveWordConfig {
+
+    /**
+     * 外部词库文件（逗号或换行分隔，可选），修改后自动重建；classpath 下的 key-simple.txt 始终加载
+     */
+    private String file;
+
+    /**
+     * 词库变化检查间隔（毫秒）
+     */
+    private long refreshInterval = 30000;
+}
@@ -16,7 +16,7 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
- * 敏感词配置类
+ * 敏感词配置类（ToolGood 实现，业务过滤已改用 {@link com.cong.fishisland.manager.SensitiveWordManager}，保留用于对比测试）
  * @author cong
  */
 @Configuration
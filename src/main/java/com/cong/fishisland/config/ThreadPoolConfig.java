@@ -31,6 +31,31 @@ public class ThreadPoolConfig implements AsyncConfigurer {
 
     public static final String AI_CHAT_EXECUTOR = "aiChatExecutor";
 
+    /**
+     * 热榜抓取线程池
+     */
+    public static final String CRAWL_EXECUTOR = "crawlExecutor";
+
+    /**
+     * 热榜分页抓取线程池，与数据源抓取线程池分开，避免抓取线程互相等待
+     */
+    public static final String CRAWL_PAGE_EXECUTOR = "crawlPageExecutor";
+
+    /**
+     * AI 图片生成线程池，每个线程循环消费 Redis 任务队列
+     */
+    public static final String AI_IMAGE_EXECUTOR = "aiImageExecutor";
+
+    /**
+     * 图片衍生图（缩略图、首帧封面）生成线程池
+     */
+    public static final String IMAGE_DERIVATIVE_EXECUTOR = "imageDerivativeExecutor";
+
+    /**
+     * 网页链接预览抓取线程池
+     */
+    public static final String WEB_PREVIEW_EXECUTOR = "webPreviewExecutor";
+
     @Override
     public Executor getAsyncExecutor() {
         return fishExecutor();
@@ -80,6 +105,81 @@ public class ThreadPoolConfig implements AsyncConfigurer {
         //满了直接丢弃，默认为不重要消息推送
         executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
         executor.setThreadFactory(new MyThreadFactory(executor));
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(CRAWL_EXECUTOR)
+    public ThreadPoolTaskExecutor crawlExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        //所有数据源同时抓取
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(64);
+        executor.setThreadNamePrefix("crawl-executor-");
+        //满了调用线程执行，抓取任务不能丢
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadFactory(new MyThreadFactory(executor));
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(CRAWL_PAGE_EXECUTOR)
+    public ThreadPoolTaskExecutor crawlPageExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        //只承载分页请求，调用方是数据源抓取线程，带超时等待
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(16);
+        executor.setThreadNamePrefix("crawl-page-executor-");
+        //满了调用线程执行，调用方不在本线程池内，不会互相等待
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadFactory(new MyThreadFactory(executor));
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(AI_IMAGE_EXECUTOR)
+    public ThreadPoolTaskExecutor aiImageExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        //图片生成耗时长，少量线程串行消费队列，避免占满共用线程池
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("ai-image-executor-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.setThreadFactory(new MyThreadFactory(executor));
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(IMAGE_DERIVATIVE_EXECUTOR)
+    public ThreadPoolTaskExecutor imageDerivativeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        //解码和缩放占 CPU 和内存，少量线程处理，同时解码的图片数有上限
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("image-derivative-executor-");
+        //满了直接丢弃，没有衍生图时使用原图
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setThreadFactory(new MyThreadFactory(executor));
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(WEB_PREVIEW_EXECUTOR)
+    public ThreadPoolTaskExecutor webPreviewExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        //抓取的都是外部网站，同时抓取的数量有上限，慢网站不会占满共用线程池
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(64);
+        executor.setThreadNamePrefix("web-preview-executor-");
+        //满了直接拒绝，调用方返回空的预览
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setThreadFactory(new MyThreadFactory(executor));
+        executor.initialize();
         return executor;
     }
 }
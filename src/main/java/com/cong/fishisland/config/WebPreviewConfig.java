@@ -0,0 +1,46 @@
+package com.cong.fishisland.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 网页链接预览配置
+ *
+ * @author cong
+ */
+@Configuration
+@ConfigurationProperties(prefix = "web.preview")
+@Data
+public class WebPreviewConfig {
+
+    /**
+     * 最多读取的网页字节数，读到 &lt;/head&gt; 提前停止
+     */
+    private int maxHeadBytes = 64 * 1024;
+
+    /**
+     * 单次抓取的最长时间（毫秒）
+     */
+    private long timeoutMillis = 3000;
+
+    /**
+     * 解析成功的缓存时间（秒）
+     */
+    private long successSeconds = 86400;
+
+    /**
+     * 抓取失败的缓存时间（秒）
+     */
+    private long failureSeconds = 300;
+
+    /**
+     * 本地缓存条数
+     */
+    private long localCacheSize = 2000;
+
+    /**
+     * 本地缓存时间（秒），不超过 Redis 中的缓存时间
+     */
+    private long localSeconds = 600;
+}
@@ -0,0 +1,29 @@
+package com.cong.fishisland.constant;
+
+/**
+ * 排行榜常量
+ *
+ * @author cong
+ */
+public interface LeaderboardConstant {
+
+    /**
+     * 猜英雄排行榜，成员为用户 id，分数为猜对次数
+     */
+    String HERO_GUESS = "hero_guess";
+
+    /**
+     * 宠物排行榜，成员为宠物 id，分数由等级和经验组成
+     */
+    String PET = "pet";
+
+    /**
+     * 排行榜默认展示名次数
+     */
+    int DEFAULT_TOP_SIZE = 10;
+
+    /**
+     * “我的名次”前后展示的名次数
+     */
+    int AROUND_RADIUS = 5;
+}
@@ -11,5 +11,14 @@ public interface PostConstant {
      */
     String POST_ID = "postId";
 
-    
+    /**
+     * 多标签过滤：同时包含全部标签
+     */
+    String TAG_MATCH_ALL = "all";
+
+    /**
+     * 多标签过滤：包含任一标签
+     */
+    String TAG_MATCH_ANY = "any";
+
 }
@@ -20,9 +20,19 @@ public interface RedisKey {
     String OFFLINE_UID_ZET = "offline";
 
     /**
-     * 热帖缓存
+     * 热榜各榜单序列化结果（哈希，type -> 榜单 json）
      */
-    String HOT_POST_CACHE_KEY = "hot_post_list";
+    String HOT_POST_BOARDS = "hot:post:boards";
+
+    /**
+     * 热榜榜单顺序（有序集合，score 为 sort）
+     */
+    String HOT_POST_ORDER = "hot:post:order";
+
+    /**
+     * 热榜版本号，任一榜单更新时自增
+     */
+    String HOT_POST_VERSION = "hot:post:version";
 
     /**
      * 用户猜对的英雄
@@ -35,7 +45,7 @@ public interface RedisKey {
     String GUESS_HERO_SUCCESS_COUNT = "guess:hero:success:count";
 
     /**
-     * 猜对英雄排行
+     * 猜对英雄排行（旧数据，已迁移到排行榜 hero_guess，见 MigrateHeroGuessRanking）
      */
     String GUESS_HERO_RANKING = "guess:hero:ranking";
 
@@ -53,8 +63,136 @@ public interface RedisKey {
      * 用户禁言 user:mute:{userId}
      */
     String USER_MUTE = "user:mute:%d";
+    /**
+     * 限流 rateLimit:{限流名称}:{用户、IP 或 global}，值为下次理论到达时间（微秒）
+     */
+    String RATE_LIMIT = "rateLimit:%s:%s";
+
+    /**
+     * 防重复提交 noRepeatSubmit:{用户或IP[-Idempotency-Key]}:{请求摘要}
+     */
     String NO_REPEAT_SUBMIT_PREFIX = "noRepeatSubmit:%s:%s";
 
+    /**
+     * 标签帖子数（有序集合，score 为帖子数）
+     */
+    String POST_TAG_COUNT = "post:tag:count";
+
+    /**
+     * 标签帖子数按需重建的标记（短时），没有任何标签时计数键不存在，避免每次读取都重新统计
+     */
+    String POST_TAG_COUNT_REBUILT = "post:tag:count:rebuilt";
+
+    /**
+     * 标签每日新增帖子数 post:tag:daily:{yyyyMMdd}
+     */
+    String POST_TAG_DAILY_COUNT = "post:tag:daily:%s";
+
+    /**
+     * 趋势标签聚合结果（短时缓存）post:tag:trending:{days}
+     */
+    String POST_TAG_TRENDING = "post:tag:trending:%d";
+
+    /**
+     * 帖子热榜（有序集合，score 为热度）
+     */
+    String POST_HOT_FEED = "post:hot:feed";
+
+    /**
+     * 帖子热榜互动权重（哈希，postId -> 权重）
+     */
+    String POST_HOT_WEIGHT = "post:hot:weight";
+
+    /**
+     * 帖子热榜基础分（哈希，postId -> 时间项 + 加精加成）
+     */
+    String POST_HOT_BASE = "post:hot:base";
+
+    /**
+     * AI 图片生成任务队列（列表，元素为任务 json）
+     */
+    String AI_IMAGE_QUEUE = "ai:image:queue";
+
+    /**
+     * AI 图片生成执行中的任务（列表，元素为任务 json），消费线程从队列原子移入，完成后移除
+     */
+    String AI_IMAGE_PROCESSING = "ai:image:processing";
+
+    /**
+     * AI 图片生成任务的执行租约 ai:image:running:{jobId}，过期仍在执行列表中的任务重新入队
+     */
+    String AI_IMAGE_RUNNING = "ai:image:running:%s";
+
+    /**
+     * AI 图片生成中的任务 ai:image:pending:{jobId}
+     */
+    String AI_IMAGE_PENDING = "ai:image:pending:%s";
+
+    /**
+     * AI 图片生成结果 ai:image:result:{jobId}
+     */
+    String AI_IMAGE_RESULT = "ai:image:result:%s";
+
+    /**
+     * 等待 AI 图片生成结果的聊天消息（列表）ai:image:waiters:{jobId}
+     */
+    String AI_IMAGE_WAITERS = "ai:image:waiters:%s";
+
+    /**
+     * 文件内容哈希到访问地址的映射 file:hash:{storage}:{biz}:{userId}:{sha256}
+     */
+    String FILE_HASH = "file:hash:%s:%s:%s";
+
+    /**
+     * 图片衍生图（缩略图、首帧封面）地址 file:image:variants:{原图地址的 md5}
+     */
+    String FILE_IMAGE_VARIANTS = "file:image:variants:%s";
+
+    /**
+     * 网页链接预览（标题、描述、图标）web:preview:{规范化地址的 md5}
+     */
+    String WEB_PREVIEW = "web:preview:%s";
+
+    /**
+     * 英雄数据版本号，英雄数据同步后递增，各节点据此重新加载内存快照
+     */
+    String HERO_CATALOG_VERSION = "hero:catalog:version";
+
+    /**
+     * 排行榜（有序集合）leaderboard:{榜单}:{周期}，周期为 total 或日期、周，如 20250101、2025W01
+     */
+    String LEADERBOARD = "leaderboard:%s:%s";
+
+    /**
+     * 排行榜版本号，分数变化时递增 leaderboard:{榜单}:{周期}:version
+     */
+    String LEADERBOARD_VERSION = "leaderboard:%s:%s:version";
+
+    /**
+     * 已使用的榜单和周期（集合，成员为 {榜单}:{周期类型}），用于归档
+     */
+    String LEADERBOARD_BOARDS = "leaderboard:boards";
+
+    /**
+     * 旧排行数据已迁移的标记 leaderboard:{榜单}:migrated，存在时不再迁移
+     */
+    String LEADERBOARD_MIGRATED = "leaderboard:%s:migrated";
+
+    /**
+     * 已触发过提醒的操作者（集合）event:remind:senders:{动作}:{事件源类型}:{事件源 ID}，用于去重
+     */
+    String EVENT_REMIND_SENDERS = "event:remind:senders:%s:%s:%s";
+
+    /**
+     * 用户未读提醒数（哈希，动作 -> 数量，total 为合计）event:remind:unread:{用户 ID}
+     */
+    String EVENT_REMIND_UNREAD = "event:remind:unread:%s";
+
+    /**
+     * 未读数哈希不存在时跳过的调整次数，统计期间有变化则不写入统计结果 event:remind:unread:missed:{用户 ID}
+     */
+    String EVENT_REMIND_UNREAD_MISSED = "event:remind:unread:missed:%s";
+
     static String getKey(String key, Object... objects) {
         return BASE_KEY + String.format(key, objects);
     }
@@ -2,32 +2,45 @@ package com.cong.fishisland.controller;
 
 import cn.hutool.core.io.FileUtil;
 import com.alibaba.fastjson.JSONObject;
+import com.cong.fishisland.annotation.RateLimit;
 import com.cong.fishisland.common.BaseResponse;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.ResultUtils;
 import com.cong.fishisland.common.exception.BusinessException;
-import com.cong.fishisland.constant.FileConstant;
+import com.cong.fishisland.common.exception.ThrowUtils;
 import com.cong.fishisland.manager.CosManager;
+import com.cong.fishisland.manager.HttpClientManager;
+import com.cong.fishisland.manager.ImageDerivativeManager;
 import com.cong.fishisland.manager.MinioManager;
+import com.cong.fishisland.manager.ObjectStorage;
+import com.cong.fishisland.manager.StreamUploadManager;
 import com.cong.fishisland.model.dto.file.UploadFileRequest;
 import com.cong.fishisland.model.entity.user.User;
 import com.cong.fishisland.model.enums.FileUploadBizEnum;
 import com.cong.fishisland.model.vo.file.CosCredentialVo;
+import com.cong.fishisland.model.vo.file.ImageVariantsVO;
 import com.cong.fishisland.service.UserService;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.*;
-import okhttp3.RequestBody;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.Request;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
 import org.apache.commons.lang3.RandomStringUtils;
-import org.springframework.beans.factory.annotation.Value;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.Resource;
-import java.io.File;
+import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 文件接口
@@ -39,6 +52,12 @@ import java.util.Arrays;
 //@Api(tags = "文件")
 public class FileController {
 
+    private static final long AVATAR_MAX_SIZE = 1024 * 1024L;
+
+    private static final int MAX_VARIANTS_BATCH = 100;
+
+    private static final int MAX_PRESIGN_BATCH = 100;
+
     @Resource
     private UserService userService;
 
@@ -48,6 +67,15 @@ public class FileController {
     @Resource
     private MinioManager minioManager;
 
+    @Resource
+    private HttpClientManager httpClientManager;
+
+    @Resource
+    private StreamUploadManager streamUploadManager;
+
+    @Resource
+    private ImageDerivativeManager imageDerivativeManager;
+
     @GetMapping("/cos/credential")
     @ApiOperation(value = "获取cos临时凭证")
     public BaseResponse<CosCredentialVo> getCosCredential(String fileName) {
@@ -62,6 +90,7 @@ public class FileController {
      * @param uploadFileRequest 上传文件请求
      * @return {@link BaseResponse}<{@link String}>
      */
+    @RateLimit(name = "fileUpload", permits = 30, message = "上传过于频繁，请稍后再试")
     @PostMapping("/upload")
     @ApiOperation(value = "文件上传")
     public BaseResponse<String> uploadFile(@RequestPart("file") MultipartFile multipartFile,
@@ -77,28 +106,17 @@ public class FileController {
         String uuid = RandomStringUtils.randomAlphanumeric(8);
         String filename = uuid + "-" + multipartFile.getOriginalFilename();
         String filepath = String.format("/%s/%s/%s", fileUploadBizEnum.getValue(), loginUser.getId(), filename);
-        File file = null;
-        try {
-            // 上传文件
-            file = File.createTempFile(filepath, null);
-            multipartFile.transferTo(file);
-            cosManager.putObject(filepath, file);
-            // 返回可访问地址
-            return ResultUtils.success(FileConstant.COS_HOST + filepath);
-        } catch (Exception e) {
+        // 边读边分片上传，不落临时文件
+        try (InputStream is = multipartFile.getInputStream()) {
+            return ResultUtils.success(upload(cosManager, is, filepath, multipartFile.getContentType(),
+                    fileUploadBizEnum, loginUser));
+        } catch (IOException e) {
             log.error("file upload error, filepath = " + filepath, e);
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "上传失败");
-        } finally {
-            if (file != null) {
-                // 删除临时文件
-                boolean delete = file.delete();
-                if (!delete) {
-                    log.error("file delete error, filepath = {}", filepath);
-                }
-            }
         }
     }
 
+    @RateLimit(name = "fileUpload", permits = 30, message = "上传过于频繁，请稍后再试")
     @PostMapping("/minio/upload")
     @ApiOperation(value = "Minio 文件上传")
     public BaseResponse<String> uploadFileByMinio(@RequestPart("file") MultipartFile multipartFile,
@@ -114,20 +132,94 @@ public class FileController {
         String uuid = RandomStringUtils.randomAlphanumeric(8);
         String filename = uuid + "-" + multipartFile.getOriginalFilename();
         String filepath = String.format("%s/%s/%s", fileUploadBizEnum.getValue(), loginUser.getId(), filename);
-        try {
-            // 获取文件流
-            InputStream is = multipartFile.getInputStream();
-            String contentType = multipartFile.getContentType();
-
+        try (InputStream is = multipartFile.getInputStream()) {
             // 上传文件到 MinIO
-            return ResultUtils.success(minioManager.uploadObject(is, filepath, contentType));
+            return ResultUtils.success(upload(minioManager, is, filepath, multipartFile.getContentType(),
+                    fileUploadBizEnum, loginUser));
+        } catch (IOException e) {
+            log.error("File upload failed, filePath = " + filepath, e);
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "上传失败");
+        }
+    }
+
+    /**
+     * 流式上传文件到 COS
+     * 请求体即文件内容（非 multipart），边读边分片上传，不落临时文件
+     *
+     * @param fileName          文件名
+     * @param uploadFileRequest 上传文件请求
+     * @return {@link BaseResponse}<{@link String}>
+     */
+    @RateLimit(name = "fileUpload", permits = 30, message = "上传过于频繁，请稍后再试")
+    @PostMapping("/stream/upload")
+    @ApiOperation(value = "流式文件上传")
+    public BaseResponse<String> uploadFileByStream(@RequestParam("fileName") String fileName,
+                                                   UploadFileRequest uploadFileRequest,
+                                                   HttpServletRequest request) {
+        return streamUpload(cosManager, "/%s/%s/%s", fileName, uploadFileRequest, request);
+    }
+
+    @RateLimit(name = "fileUpload", permits = 30, message = "上传过于频繁，请稍后再试")
+    @PostMapping("/minio/stream/upload")
+    @ApiOperation(value = "Minio 流式文件上传")
+    public BaseResponse<String> uploadFileByMinioStream(@RequestParam("fileName") String fileName,
+                                                        UploadFileRequest uploadFileRequest,
+                                                        HttpServletRequest request) {
+        return streamUpload(minioManager, "%s/%s/%s", fileName, uploadFileRequest, request);
+    }
 
-        } catch (Exception e) {
+    private BaseResponse<String> streamUpload(ObjectStorage storage, String pathFormat, String fileName,
+                                              UploadFileRequest uploadFileRequest, HttpServletRequest request) {
+        FileUploadBizEnum fileUploadBizEnum = FileUploadBizEnum.getEnumByValue(uploadFileRequest.getBiz());
+        if (fileUploadBizEnum == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        validFile(fileName, request.getContentLengthLong(), fileUploadBizEnum);
+        User loginUser = userService.getLoginUser();
+        String uuid = RandomStringUtils.randomAlphanumeric(8);
+        String filepath = String.format(pathFormat, fileUploadBizEnum.getValue(), loginUser.getId(),
+                uuid + "-" + FileUtil.getName(fileName));
+        try (InputStream is = request.getInputStream()) {
+            return ResultUtils.success(upload(storage, is, filepath, request.getContentType(), fileUploadBizEnum,
+                    loginUser));
+        } catch (IOException e) {
             log.error("File upload failed, filePath = " + filepath, e);
             throw new BusinessException(ErrorCode.OPERATION_ERROR, "上传失败");
         }
     }
 
+    /**
+     * 上传并在后台生成图片衍生图；同一业务下本人上传过相同内容时沿用已有文件及其衍生图
+     */
+    private String upload(ObjectStorage storage, InputStream is, String filepath, String contentType,
+                          FileUploadBizEnum fileUploadBizEnum, User loginUser) {
+        String url = streamUploadManager.upload(storage, is, filepath, contentType, maxSize(fileUploadBizEnum),
+                fileUploadBizEnum.getValue() + ":" + loginUser.getId());
+        if (url.equals(storage.getUrl(filepath))) {
+            imageDerivativeManager.submit(storage, filepath);
+        }
+        return url;
+    }
+
+    /**
+     * 获取图片的缩略图和动图封面地址
+     *
+     * @param url 原图地址
+     * @return {@link BaseResponse}<{@link ImageVariantsVO}>
+     */
+    @GetMapping("/image/variants")
+    @ApiOperation(value = "获取图片衍生图地址")
+    public BaseResponse<ImageVariantsVO> getImageVariants(@RequestParam("url") String url) {
+        return ResultUtils.success(imageDerivativeManager.getVariants(url));
+    }
+
+    @PostMapping("/image/variants/batch")
+    @ApiOperation(value = "批量获取图片衍生图地址")
+    public BaseResponse<Map<String, ImageVariantsVO>> getImageVariantsBatch(@RequestBody List<String> urls) {
+        ThrowUtils.throwIf(urls == null || urls.size() > MAX_VARIANTS_BATCH, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(imageDerivativeManager.getVariants(urls));
+    }
+
     @GetMapping("/minio/presigned/upload")
     @ApiOperation(value = "获取 minio 上传预签名URL")
     public BaseResponse<String> getMinioPresigned(String fileName) {
@@ -142,22 +234,26 @@ public class FileController {
         return ResultUtils.success(url);
     }
 
+    @PostMapping("/minio/presigned/download/batch")
+    @ApiOperation("批量获取 minio 下载预签名URL")
+    public BaseResponse<Map<String, String>> generatePresignedDownloadUrls(@RequestBody List<String> fileNames) {
+        ThrowUtils.throwIf(fileNames == null || fileNames.size() > MAX_PRESIGN_BATCH, ErrorCode.PARAMS_ERROR);
+        ThrowUtils.throwIf(fileNames.stream().anyMatch(StringUtils::isBlank), ErrorCode.PARAMS_ERROR, "文件名不能为空");
+        return ResultUtils.success(minioManager.generatePresignedDownloadUrls(fileNames));
+    }
+
     @PostMapping("/111666/upload")
     @ApiOperation(value = "上传图片到111666.best")
     public BaseResponse<String> uploadTo111666(@RequestPart("file") MultipartFile multipartFile) {
         try {
-            // 1. 校验文件
-            // 2. 创建 OkHttpClient
-            OkHttpClient client = new OkHttpClient();
-
-            // 3. 创建请求体
-            RequestBody requestBody = new MultipartBody.Builder()
+            // 1. 创建请求体
+            okhttp3.RequestBody requestBody = new MultipartBody.Builder()
                     .setType(MultipartBody.FORM)
                     .addFormDataPart("image", multipartFile.getOriginalFilename(),
-                            RequestBody.create(MediaType.parse(multipartFile.getContentType()), multipartFile.getBytes()))
+                            streamingBody(multipartFile))
                     .build();
 
-            // 4. 创建请求
+            // 2. 创建请求
             Request request = new Request.Builder()
                     .url("https://i.111666.best/image")
                     //时间戳
@@ -165,24 +261,50 @@ public class FileController {
                     .post(requestBody)
                     .build();
 
-            // 5. 发送请求
-            try (Response response = client.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    throw new BusinessException(ErrorCode.OPERATION_ERROR, "上传失败：" + response.code());
-                }
-                String responseBody = response.body().string();
-                log.info("上传成功，响应内容：{}", responseBody);
-                //获取 src 字段
-                JSONObject jsonObject = JSONObject.parseObject(responseBody);
-                String src = jsonObject.getString("src");
-                return ResultUtils.success("https://i.111666.best" + src);
-            }
+            // 3. 通过共享连接池发送请求，非 2xx 时抛出 IOException
+            String responseBody = httpClientManager.execute(request);
+            log.info("上传成功，响应内容：{}", responseBody);
+            //获取 src 字段
+            JSONObject jsonObject = JSONObject.parseObject(responseBody);
+            String src = jsonObject.getString("src");
+            return ResultUtils.success("https://i.111666.best" + src);
         } catch (IOException e) {
             log.error("文件上传失败", e);
             throw new BusinessException(ErrorCode.OPERATION_ERROR, "上传失败：" + e.getMessage());
         }
     }
 
+    /**
+     * 边读文件边发送的请求体，不把整个文件读入内存
+     */
+    private static okhttp3.RequestBody streamingBody(MultipartFile multipartFile) {
+        return new okhttp3.RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return MediaType.parse(multipartFile.getContentType());
+            }
+
+            @Override
+            public long contentLength() {
+                return multipartFile.getSize();
+            }
+
+            @Override
+            public void writeTo(@NotNull BufferedSink sink) throws IOException {
+                try (Source source = Okio.source(multipartFile.getInputStream())) {
+                    sink.writeAll(source);
+                }
+            }
+        };
+    }
+
+    /**
+     * 业务允许的文件大小上限
+     */
+    private static long maxSize(FileUploadBizEnum fileUploadBizEnum) {
+        return FileUploadBizEnum.USER_AVATAR.equals(fileUploadBizEnum) ? AVATAR_MAX_SIZE : Long.MAX_VALUE;
+    }
+
     /**
      * 校验文件
      *
@@ -191,13 +313,21 @@ public class FileController {
      */
     @ApiOperation(value = "校验文件")
     private void validFile(MultipartFile multipartFile, FileUploadBizEnum fileUploadBizEnum) {
-        // 文件大小
-        long fileSize = multipartFile.getSize();
+        validFile(multipartFile.getOriginalFilename(), multipartFile.getSize(), fileUploadBizEnum);
+    }
+
+    /**
+     * 校验文件
+     *
+     * @param fileName          文件名
+     * @param fileSize          文件大小，未知时为 -1，由上传时按实际读到的字节数限制
+     * @param fileUploadBizEnum 业务类型
+     */
+    private void validFile(String fileName, long fileSize, FileUploadBizEnum fileUploadBizEnum) {
         // 文件后缀
-        String fileSuffix = FileUtil.getSuffix(multipartFile.getOriginalFilename());
-        final long oneM = 1024 * 1024L;
+        String fileSuffix = FileUtil.getSuffix(fileName);
         if (FileUploadBizEnum.USER_AVATAR.equals(fileUploadBizEnum)) {
-            if (fileSize > oneM) {
+            if (fileSize > AVATAR_MAX_SIZE) {
                 throw new BusinessException(ErrorCode.PARAMS_ERROR, "文件大小不能超过 1M");
             }
             if (!Arrays.asList("jpeg", "jpg", "svg", "png", "webp","gif").contains(fileSuffix)) {
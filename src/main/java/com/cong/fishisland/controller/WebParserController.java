@@ -1,14 +1,24 @@
 package com.cong.fishisland.controller;
 
+import cn.dev33.satoken.annotation.SaCheckRole;
+import com.cong.fishisland.annotation.RateLimit;
 import com.cong.fishisland.common.BaseResponse;
+import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.ResultUtils;
+import com.cong.fishisland.common.exception.ThrowUtils;
+import com.cong.fishisland.constant.UserConstant;
+import com.cong.fishisland.model.enums.RateLimitKeyEnum;
 import com.cong.fishisland.model.vo.WebParseVO;
+import com.cong.fishisland.model.vo.WebPreviewStatsVO;
 import com.cong.fishisland.service.WebParserService;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/web")
 @Slf4j
@@ -16,11 +26,33 @@ import org.springframework.web.bind.annotation.*;
 //@Api(tags = "网页解析接口")
 public class WebParserController {
 
+    /**
+     * 批量解析的最大网页数
+     */
+    private static final int MAX_PARSE_BATCH = 20;
+
     private final WebParserService webParserService;
 
     @GetMapping("/parse")
+    @RateLimit(key = RateLimitKeyEnum.IP, permits = 60)
     @ApiOperation(value = "解析网页信息")
     public BaseResponse<WebParseVO> parseWebPage(@RequestParam String url) {
         return ResultUtils.success(webParserService.parseWebPage(url));
     }
-} 
\ No newline at end of file
+
+    @PostMapping("/parse/batch")
+    @RateLimit(key = RateLimitKeyEnum.IP, permits = 10)
+    @ApiOperation(value = "批量解析网页信息")
+    public BaseResponse<Map<String, WebParseVO>> parseWebPages(@RequestBody List<String> urls) {
+        ThrowUtils.throwIf(urls == null || urls.isEmpty() || urls.size() > MAX_PARSE_BATCH, ErrorCode.PARAMS_ERROR,
+                "网页数量应在 1~" + MAX_PARSE_BATCH + " 之间");
+        return ResultUtils.success(webParserService.parseWebPages(urls));
+    }
+
+    @GetMapping("/stats")
+    @SaCheckRole(UserConstant.ADMIN_ROLE)
+    @ApiOperation(value = "获取链接预览统计（仅管理员）")
+    public BaseResponse<WebPreviewStatsVO> getStats() {
+        return ResultUtils.success(webParserService.stats());
+    }
+}
@@ -1,12 +1,16 @@
 package com.cong.fishisland.controller.chat;
 
+import cn.dev33.satoken.annotation.SaCheckRole;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.cong.fishisland.common.BaseResponse;
 import com.cong.fishisland.common.ResultUtils;
+import com.cong.fishisland.constant.UserConstant;
+import com.cong.fishisland.manager.AiGatewayManager;
 import com.cong.fishisland.model.dto.sse.CustomSseEvent;
 import com.cong.fishisland.service.impl.FlexChatServiceDemo;
 import com.cong.fishisland.service.impl.OkHttpChatServiceDemo;
 import com.cong.fishisland.model.dto.chat.MessageQueryRequest;
+import com.cong.fishisland.model.vo.ai.AiGatewayStatsVO;
 import com.cong.fishisland.model.vo.chat.RoomMessageVo;
 import com.cong.fishisland.model.ws.response.UserChatResponse;
 import com.cong.fishisland.service.RoomMessageService;
@@ -39,6 +43,7 @@ public class ChatController {
 
     private final RoomMessageService roomMessageService;
     private final WebSocketService webSocketService;
+    private final AiGatewayManager aiGatewayManager;
 
     @Autowired
     private FlexChatServiceDemo flexChatServiceDemo;
@@ -200,4 +205,11 @@ public class ChatController {
         String filename = (String) request.getOrDefault("filename", "test.pdf");
         return flexChatServiceDemo.streamFileUploadCustomSseEvents(filename);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/ai/stats")
+    @SaCheckRole(UserConstant.ADMIN_ROLE)
+    @ApiOperation(value = "获取 AI 网关统计（仅管理员）")
+    public BaseResponse<AiGatewayStatsVO> getAiGatewayStats() {
+        return ResultUtils.success(aiGatewayManager.stats());
+    }
+}
@@ -2,11 +2,13 @@ package com.cong.fishisland.controller.comment;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.cong.fishisland.common.BaseResponse;
+import com.cong.fishisland.common.CursorPage;
 import com.cong.fishisland.common.DeleteRequest;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.ResultUtils;
 import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.common.exception.ThrowUtils;
+import com.cong.fishisland.manager.PostHotFeedManager;
 import com.cong.fishisland.model.dto.comment.ChildCommentQueryRequest;
 import com.cong.fishisland.model.dto.comment.CommentAddRequest;
 import com.cong.fishisland.model.dto.comment.CommentQueryRequest;
@@ -48,6 +50,9 @@ public class CommentController {
     @Resource
     private PostService postService;
 
+    @Resource
+    private PostHotFeedManager postHotFeedManager;
+
     /**
      * 添加评论
      *
@@ -117,6 +122,9 @@ public class CommentController {
             throw new BusinessException(ErrorCode.NO_AUTH_ERROR);
         }
         boolean b = commentService.removeById(id);
+        if (b) {
+            postHotFeedManager.onComment(oldComment.getPostId(), -1);
+        }
         return ResultUtils.success(b);
     }
 
@@ -132,6 +140,21 @@ public class CommentController {
         return ResultUtils.success(commentService.getCommentTreeByPostId(request));
     }
 
+    /**
+     * 游标分页获取评论树
+     *
+     * @param request 获取请求（cursor 为上一页返回的游标）
+     * @return 获取结果
+     */
+    @PostMapping("/list/tree/cursor")
+    @ApiOperation("获取评论树（游标分页）")
+    public BaseResponse<CursorPage<CommentNodeVO>> getCommentTreeByCursor(@RequestBody CommentQueryRequest request) {
+        ThrowUtils.throwIf(request == null, ErrorCode.PARAMS_ERROR);
+        // 限制爬虫
+        ThrowUtils.throwIf(request.getPageSize() <= 0 || request.getPageSize() > 20, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(commentService.getCommentTreeByCursor(request));
+    }
+
     /**
      * 获取二级评论
      *
@@ -144,4 +167,19 @@ public class CommentController {
         return ResultUtils.success(commentService.getChildComments(request));
     }
 
+    /**
+     * 游标分页获取二级评论
+     *
+     * @param request 获取请求（cursor 为上一页返回的游标）
+     * @return 获取结果
+     */
+    @PostMapping("/list/children/cursor")
+    @ApiOperation("获取二级评论（游标分页）")
+    public BaseResponse<CursorPage<CommentVO>> getChildCommentsByCursor(@RequestBody ChildCommentQueryRequest request) {
+        ThrowUtils.throwIf(request == null, ErrorCode.PARAMS_ERROR);
+        // 限制爬虫
+        ThrowUtils.throwIf(request.getPageSize() <= 0 || request.getPageSize() > 20, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(commentService.getChildCommentsByCursor(request));
+    }
+
 }
@@ -2,6 +2,7 @@ package com.cong.fishisland.controller.event;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.cong.fishisland.common.BaseResponse;
+import com.cong.fishisland.common.CursorPage;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.ResultUtils;
 import com.cong.fishisland.common.exception.ThrowUtils;
@@ -11,12 +12,14 @@ import com.cong.fishisland.model.entity.event.EventRemind;
 import com.cong.fishisland.model.vo.event.EventRemindVO;
 import com.cong.fishisland.service.EventRemindService;
 import io.swagger.annotations.ApiOperation;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Resource;
+import java.util.Map;
 
 /**
  * 事件提醒控制器
@@ -44,6 +47,17 @@ public class EventRemindController {
     }
 
 
+    /**
+     * 获取当前用户的未读数，代替轮询提醒列表
+     *
+     * @return 动作类型 -> 数量，total 为合计
+     */
+    @GetMapping("/my/unread/count")
+    @ApiOperation(value = "获取当前用户的未读数")
+    public BaseResponse<Map<String, Long>> getMyUnreadCount() {
+        return ResultUtils.success(eventRemindService.getMyUnreadCount());
+    }
+
     /**
      * 分页获取当前用户的事件提醒列表
      *
@@ -65,5 +79,20 @@ public class EventRemindController {
         Page<EventRemindVO> eventRemindVOPage = eventRemindService.getEventRemindVOPage(eventRemindPage);
         return ResultUtils.success(eventRemindVOPage);
     }
+
+    /**
+     * 游标分页获取当前用户的事件提醒列表
+     *
+     * @param request 事件提醒查询请求（cursor 为上一页返回的游标）
+     * @return 游标分页结果
+     */
+    @PostMapping("/my/list/cursor")
+    @ApiOperation(value = "游标分页获取当前用户的事件提醒列表")
+    public BaseResponse<CursorPage<EventRemindVO>> listMyEventRemindByCursor(@RequestBody EventRemindQueryRequest request) {
+        ThrowUtils.throwIf(request == null, ErrorCode.PARAMS_ERROR);
+        // 限制爬虫
+        ThrowUtils.throwIf(request.getPageSize() > 20, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(eventRemindService.listMyEventRemindByCursor(request));
+    }
 }
 
@@ -6,30 +6,36 @@ import com.cong.fishisland.common.BaseResponse;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.ResultUtils;
 import com.cong.fishisland.common.exception.ThrowUtils;
+import com.cong.fishisland.constant.LeaderboardConstant;
 import com.cong.fishisland.constant.RedisKey;
 import com.cong.fishisland.constant.UserConstant;
+import com.cong.fishisland.manager.HeroCatalogManager;
+import com.cong.fishisland.manager.LeaderboardManager;
+import com.cong.fishisland.model.enums.LeaderboardPeriodEnum;
 import com.cong.fishisland.model.entity.user.User;
 import com.cong.fishisland.model.vo.hero.HeroRankingVO;
 import com.cong.fishisland.model.vo.hero.HeroVO;
-import com.cong.fishisland.model.vo.hero.SimpleHeroVO;
 import com.cong.fishisland.service.HeroService;
 import com.cong.fishisland.service.UserService;
 import com.cong.fishisland.utils.CryptoUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Resource;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -45,6 +51,10 @@ public class HeroController {
     @Resource
     private HeroService heroService;
     @Resource
+    private HeroCatalogManager heroCatalogManager;
+    @Resource
+    private LeaderboardManager leaderboardManager;
+    @Resource
     private UserService userService;
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
@@ -95,11 +105,13 @@ public class HeroController {
     }
 
     /**
-     * 简单英雄数据列表
+     * 简单英雄数据列表（BaseResponse&lt;List&lt;SimpleHeroVO&gt;&gt;，英雄数据加载时已序列化）
      */
     @GetMapping("/list/simple")
-    public BaseResponse<List<SimpleHeroVO>> listSimpleHero() {
-        return ResultUtils.success(heroService.listSimpleHero());
+    public ResponseEntity<byte[]> listSimpleHero() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(heroCatalogManager.simpleHeroesResponse());
     }
 
     /**
@@ -129,11 +141,8 @@ public class HeroController {
         ThrowUtils.throwIf(!Objects.equals(storedHeroId, heroId), ErrorCode.OPERATION_ERROR, "请不要进行非法操作");
         // 原子操作记录数据
         redisTemplate.opsForValue().increment(RedisKey.GUESS_HERO_SUCCESS_COUNT);
-        redisTemplate.opsForZSet().incrementScore(
-                RedisKey.GUESS_HERO_RANKING,
-                loginUser.getId().toString(),
-                1
-        );
+        leaderboardManager.increment(LeaderboardConstant.HERO_GUESS, userId.toString(), 1,
+                LeaderboardPeriodEnum.TOTAL, LeaderboardPeriodEnum.DAILY, LeaderboardPeriodEnum.WEEKLY);
         // 成功后删除记录
         redisTemplate.delete(redisKey);
         return ResultUtils.success(true);
@@ -154,46 +163,40 @@ public class HeroController {
     /**
      * 获取英雄排行榜
      *
+     * @param period 周期：total 总榜（默认）、daily 日榜、weekly 周榜
      * @return 英雄排行榜
      */
     @GetMapping("/guess/ranking")
-    public BaseResponse<List<HeroRankingVO>> getGuessRanking() {
-        // 获取分数最高的前10条数据
-        Set<ZSetOperations.TypedTuple<Object>> tuples = redisTemplate.opsForZSet()
-                .reverseRangeWithScores(RedisKey.GUESS_HERO_RANKING, 0, 9);
-        if (tuples == null || tuples.isEmpty()) {
-            return ResultUtils.success(Collections.emptyList());
-        }
-        // 使用原子计数器维护排名
-        AtomicLong rankCounter = new AtomicLong(1);
-        // 转换数据结构
-        List<HeroRankingVO> ranking = tuples.stream().map(tuple -> {
-            HeroRankingVO vo = new HeroRankingVO();
-            vo.setUserId(Long.parseLong(Objects.requireNonNull(tuple.getValue()).toString()));
-            vo.setScore(Objects.requireNonNull(tuple.getScore()).intValue());
-            // 获取用户信息
-            User user = userService.getById(vo.getUserId());
-            vo.setUserName(user.getUserName());
-            vo.setUserAvatar(user.getUserAvatar());
-            // 设置排名（从1开始递增）
-            vo.setRank(rankCounter.getAndIncrement());
-            return vo;
-        }).collect(Collectors.toList());
+    public BaseResponse<List<HeroRankingVO>> getGuessRanking(@RequestParam(defaultValue = "total") String period) {
+        // 获取分数最高的前10条数据，用户信息按榜单版本缓存
+        return ResultUtils.success(leaderboardManager.top(LeaderboardConstant.HERO_GUESS, getPeriod(period),
+                LeaderboardConstant.DEFAULT_TOP_SIZE, this::toHeroRanking));
+    }
 
-        return ResultUtils.success(ranking);
+    /**
+     * 获取当前用户名次前后的排行
+     *
+     * @param period 周期：total 总榜（默认）、daily 日榜、weekly 周榜
+     * @return 当前用户及前后各 5 名，未上榜时为空
+     */
+    @GetMapping("/guess/ranking/around")
+    public BaseResponse<List<HeroRankingVO>> getGuessRankingAround(@RequestParam(defaultValue = "total") String period) {
+        User loginUser = userService.getLoginUser();
+        return ResultUtils.success(toHeroRanking(leaderboardManager.around(LeaderboardConstant.HERO_GUESS,
+                getPeriod(period), loginUser.getId().toString(), LeaderboardConstant.AROUND_RADIUS)));
     }
 
     /**
      * 获取当前用户猜英雄数据
      *
+     * @param period 周期：total 总榜（默认）、daily 日榜、weekly 周榜
      * @return 当前用户猜英雄数据
      */
     @GetMapping("/guess/user")
-    public BaseResponse<HeroRankingVO> getCurrentUserGuessData() {
+    public BaseResponse<HeroRankingVO> getCurrentUserGuessData(@RequestParam(defaultValue = "total") String period) {
         // 获取当前登录用户
         User loginUser = userService.getLoginUser();
         Long userId = loginUser.getId();
-        String userIdStr = userId.toString();
 
         // 创建返回对象
         HeroRankingVO result = new HeroRankingVO();
@@ -201,23 +204,49 @@ public class HeroController {
         result.setUserName(loginUser.getUserName());
         result.setUserAvatar(loginUser.getUserAvatar());
 
-        // 先查询用户是否在排行榜里
-        Double score = redisTemplate.opsForZSet().score(RedisKey.GUESS_HERO_RANKING, userIdStr);
-        if (score != null) {
-            // 用户在排行榜中，查询排行榜数据
-            result.setScore(score.intValue());
-            // 计算排名（从0开始的排名）
-            Long rank = redisTemplate.opsForZSet().reverseRank(RedisKey.GUESS_HERO_RANKING, userIdStr);
-            if (rank != null) {
-                // 设置排名（转换为从1开始）
-                result.setRank(rank + 1);
-            }
+        // 名次和分数一次查询
+        LeaderboardManager.Entry entry = leaderboardManager.rank(LeaderboardConstant.HERO_GUESS, getPeriod(period),
+                userId.toString());
+        if (entry != null) {
+            result.setScore((int) entry.getScore());
+            result.setRank(entry.getRank());
         } else {
-            // 用户不在排行榜中，score设为0
+            // 用户不在排行榜中，score设为0，不设置rank属性（保持为null）
             result.setScore(0);
-            // 不设置rank属性（保持为null）
         }
         return ResultUtils.success(result);
     }
 
+    private static LeaderboardPeriodEnum getPeriod(String period) {
+        LeaderboardPeriodEnum periodEnum = LeaderboardPeriodEnum.getEnumByValue(period);
+        ThrowUtils.throwIf(periodEnum == null, ErrorCode.PARAMS_ERROR, "排行榜周期错误");
+        return periodEnum;
+    }
+
+    /**
+     * 批量查询用户信息，补全排行
+     */
+    private List<HeroRankingVO> toHeroRanking(List<LeaderboardManager.Entry> entries) {
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Long> userIds = entries.stream()
+                .map(entry -> Long.parseLong(entry.getMember()))
+                .collect(Collectors.toSet());
+        Map<Long, User> userMap = userService.listByIds(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return entries.stream().map(entry -> {
+            HeroRankingVO vo = new HeroRankingVO();
+            vo.setUserId(Long.parseLong(entry.getMember()));
+            vo.setScore((int) entry.getScore());
+            vo.setRank(entry.getRank());
+            User user = userMap.get(vo.getUserId());
+            if (user != null) {
+                vo.setUserName(user.getUserName());
+                vo.setUserAvatar(user.getUserAvatar());
+            }
+            return vo;
+        }).collect(Collectors.toList());
+    }
+
 }
@@ -1,13 +1,26 @@
 package com.cong.fishisland.controller.hot;
 
+import cn.dev33.satoken.annotation.SaCheckRole;
 import com.cong.fishisland.common.BaseResponse;
+import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.ResultUtils;
+import com.cong.fishisland.common.exception.ThrowUtils;
+import com.cong.fishisland.constant.UserConstant;
+import com.cong.fishisland.manager.DataSourceScheduler;
+import com.cong.fishisland.manager.HotPostCacheManager;
+import com.cong.fishisland.model.vo.hot.DataSourceHealthVO;
+import com.cong.fishisland.model.vo.hot.HotItemHistoryVO;
 import com.cong.fishisland.model.vo.hot.HotPostVO;
-import com.cong.fishisland.service.HotPostService;
+import com.cong.fishisland.model.vo.hot.HotTrendVO;
+import com.cong.fishisland.service.HotPostHistoryService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,16 +36,55 @@ import java.util.List;
 //@Api(tags = "热榜数据")
 public class HotPostController {
 
-    private final HotPostService hotPostService;
+    private final HotPostCacheManager hotPostCacheManager;
+
+    private final HotPostHistoryService hotPostHistoryService;
+
+    private final DataSourceScheduler dataSourceScheduler;
+
     /**
      * 获取列表（封装类）
+     * <p>
+     * 直接返回缓存中拼好的响应体；GET 请求携带 If-None-Match 且与 ETag 一致时返回 304
      */
-    @PostMapping("/list")
-    @ApiOperation(value = "获取列表（封装类）")
-    public BaseResponse<List<HotPostVO>> getHotPostList() {
-        return ResultUtils.success(hotPostService.getHotPostList());
+    @RequestMapping(value = "/list", method = {RequestMethod.GET, RequestMethod.POST})
+    @ApiOperation(value = "获取列表（封装类）", response = HotPostVO.class, responseContainer = "List")
+    public ResponseEntity<byte[]> getHotPostList() {
+        HotPostCacheManager.HotPostList hotPostList = hotPostCacheManager.getHotPostList();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(hotPostList.getEtag())
+                .body(hotPostList.getBody());
     }
 
+    /**
+     * 获取跨来源热门话题
+     */
+    @GetMapping("/trending")
+    @ApiOperation(value = "获取跨来源热门话题")
+    public BaseResponse<List<HotTrendVO>> listTrending(@RequestParam(defaultValue = "20") int size) {
+        ThrowUtils.throwIf(size <= 0 || size > 50, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(hotPostHistoryService.listTrending(size));
+    }
 
+    /**
+     * 获取热榜条目的排名历史
+     */
+    @GetMapping("/history")
+    @ApiOperation(value = "获取热榜条目的排名历史")
+    public BaseResponse<List<HotItemHistoryVO>> listItemHistory(@RequestParam String type, @RequestParam String url) {
+        ThrowUtils.throwIf(StringUtils.isAnyBlank(type, url), ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(hotPostHistoryService.listItemHistory(type, url));
+    }
 
+    /**
+     * 获取各数据源的抓取健康状况（仅管理员）
+     */
+    @GetMapping("/source/health")
+    @SaCheckRole(UserConstant.ADMIN_ROLE)
+    @ApiOperation(value = "获取数据源健康状况")
+    public BaseResponse<List<DataSourceHealthVO>> listSourceHealth() {
+        return ResultUtils.success(dataSourceScheduler.health());
+    }
 }
@@ -17,7 +17,9 @@ import com.cong.fishisland.model.entity.user.User;
 import com.cong.fishisland.service.MockInterviewService;
 import com.cong.fishisland.service.UserService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import javax.annotation.Resource;
 
@@ -82,6 +84,8 @@ public class MockInterviewController {
         // 查询数据库
         MockInterview mockInterview = mockInterviewService.getById(id);
         ThrowUtils.throwIf(mockInterview == null, ErrorCode.NOT_FOUND_ERROR);
+        // 进行中的面试从对话轮次汇总消息记录
+        mockInterviewService.fillMessages(mockInterview);
         // 获取封装类
         return ResultUtils.success(mockInterview);
     }
@@ -144,4 +148,12 @@ public class MockInterviewController {
         return ResultUtils.success(aiResponse);
     }
 
+    /**
+     * 流式处理模拟面试事件，AI 的回复逐段返回
+     */
+    @PostMapping(value = "/handleEvent/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<String> streamMockInterviewEvent(@RequestBody MockInterviewEventRequest mockInterviewEventRequest) {
+        return mockInterviewService.streamMockInterviewEvent(mockInterviewEventRequest);
+    }
+
 }
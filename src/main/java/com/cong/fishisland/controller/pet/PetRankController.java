@@ -6,6 +6,7 @@ import com.cong.fishisland.common.ResultUtils;
 import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.model.vo.pet.PetRankVO;
 import com.cong.fishisland.service.FishPetService;
+import com.cong.fishisland.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -28,6 +29,8 @@ public class PetRankController {
 
     private final FishPetService fishPetService;
 
+    private final UserService userService;
+
     /**
      * 获取宠物排行榜
      *
@@ -43,4 +46,14 @@ public class PetRankController {
         List<PetRankVO> petRankList = fishPetService.getPetRankList(limit);
         return ResultUtils.success(petRankList);
     }
+
+    /**
+     * 获取我的宠物名次及前后各 5 名
+     *
+     * @return 宠物排行榜列表，没有宠物或未上榜时为空
+     */
+    @GetMapping("/around")
+    public BaseResponse<List<PetRankVO>> getPetRankAround() {
+        return ResultUtils.success(fishPetService.getPetRankAround(userService.getLoginUser().getId()));
+    }
 } 
\ No newline at end of file
@@ -50,7 +50,7 @@ public class PetSkinController {
      */
     @PostMapping("/exchange")
     @SaCheckLogin
-    @NoRepeatSubmit
+    @NoRepeatSubmit(replay = true)
     public BaseResponse<Boolean> exchangePetSkin(@RequestBody PetSkinExchangeRequest petSkinExchangeRequest) {
         Long userId = StpUtil.getLoginIdAsLong();
         boolean result = petSkinService.exchangePetSkin(petSkinExchangeRequest, userId);
@@ -4,15 +4,19 @@ import cn.dev33.satoken.annotation.SaCheckRole;
 import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.cong.fishisland.common.BaseResponse;
+import com.cong.fishisland.common.CursorPage;
+import com.cong.fishisland.common.CursorPageRequest;
 import com.cong.fishisland.common.DeleteRequest;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.ResultUtils;
 import com.cong.fishisland.constant.UserConstant;
 import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.common.exception.ThrowUtils;
+import com.cong.fishisland.manager.PostHotFeedManager;
 import com.cong.fishisland.model.dto.post.*;
 import com.cong.fishisland.model.entity.post.Post;
 import com.cong.fishisland.model.entity.user.User;
+import com.cong.fishisland.model.vo.post.PostSearchVO;
 import com.cong.fishisland.model.vo.post.PostVO;
 import com.cong.fishisland.service.PostService;
 import com.cong.fishisland.service.UserService;
@@ -20,9 +24,11 @@ import com.cong.fishisland.service.UserService;
 import java.util.List;
 import javax.annotation.Resource;
 
+import com.cong.fishisland.service.event.PostIndexHandler;
 import com.cong.fishisland.service.event.PostSummaryHandler;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -49,6 +55,12 @@ public class PostController {
     @Resource
     private PostSummaryHandler postSummaryHandler;
 
+    @Resource
+    private PostIndexHandler postIndexHandler;
+
+    @Resource
+    private PostHotFeedManager postHotFeedManager;
+
     // region 增删改查
 
     /**
@@ -72,10 +84,12 @@ public class PostController {
         postService.validPost(post, true);
         User loginUser = userService.getLoginUser();
         post.setUserId(loginUser.getId());
-        boolean result = postService.save(post);
+        boolean result = postService.savePostWithTags(post);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
         long newPostId = post.getId();
         postSummaryHandler.generateSummaryAsync(newPostId);
+        postIndexHandler.syncPostAsync(newPostId);
+        postHotFeedManager.onPostCreated(post);
         return ResultUtils.success(newPostId);
     }
 
@@ -100,7 +114,11 @@ public class PostController {
         if (!oldPost.getUserId().equals(user.getId()) && !userService.isAdmin()) {
             throw new BusinessException(ErrorCode.NO_AUTH_ERROR);
         }
-        boolean b = postService.removeById(id);
+        boolean b = postService.removePostWithTags(id);
+        if (b) {
+            postIndexHandler.syncPostAsync(id);
+            postHotFeedManager.onPostDeleted(id);
+        }
         return ResultUtils.success(b);
     }
 
@@ -119,6 +137,7 @@ public class PostController {
         }
         Post post = new Post();
         BeanUtils.copyProperties(postUpdateRequest, post);
+        post.setId(Long.parseLong(postUpdateRequest.getId()));
         List<String> tags = postUpdateRequest.getTags();
         if (tags != null) {
             post.setTags(JSONUtil.toJsonStr(tags));
@@ -129,9 +148,10 @@ public class PostController {
         // 判断是否存在
         Post oldPost = postService.getById(id);
         ThrowUtils.throwIf(oldPost == null, ErrorCode.NOT_FOUND_ERROR);
-        boolean result = postService.updateById(post);
+        boolean result = postService.updatePostWithTags(post);
         if (result){
             postSummaryHandler.generateSummaryAsync(id);
+            postIndexHandler.syncPostAsync(id);
         }
         return ResultUtils.success(result);
     }
@@ -187,11 +207,60 @@ public class PostController {
         long size = postQueryRequest.getPageSize();
         // 限制爬虫
         ThrowUtils.throwIf(size > 20, ErrorCode.PARAMS_ERROR);
-        Page<Post> postPage = postService.page(new Page<>(current, size),
+        // 关键词搜索走全文检索索引
+        if (StringUtils.isNotBlank(postQueryRequest.getSearchText())) {
+            return ResultUtils.success(postService.getPostVOPage(postService.searchFromEs(postQueryRequest)));
+        }
+        Page<Post> postPage = postService.page(new Page<>(current, size, !Boolean.FALSE.equals(postQueryRequest.getSearchCount())),
                 postService.getQueryWrapper(postQueryRequest));
         return ResultUtils.success(postService.getPostVOPage(postPage));
     }
 
+    /**
+     * 游标分页获取列表（封装类），翻页深度不影响查询耗时
+     *
+     * @param postQueryRequest 发布查询请求（cursor 为上一页返回的游标）
+     * @return {@link BaseResponse}<{@link CursorPage}<{@link PostVO}>>
+     */
+    @PostMapping("/list/cursor/vo")
+    @ApiOperation(value = "游标分页获取列表（封装类）")
+    public BaseResponse<CursorPage<PostVO>> listPostVoByCursor(@RequestBody PostQueryRequest postQueryRequest) {
+        ThrowUtils.throwIf(postQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        // 限制爬虫
+        ThrowUtils.throwIf(postQueryRequest.getPageSize() > 20, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(postService.listPostVoByCursor(postQueryRequest));
+    }
+
+    /**
+     * 热榜帖子（游标分页）
+     *
+     * @param cursorPageRequest 游标分页请求
+     * @return {@link BaseResponse}<{@link CursorPage}<{@link PostVO}>>
+     */
+    @PostMapping("/hot/list/vo")
+    @ApiOperation(value = "热榜帖子（游标分页）")
+    public BaseResponse<CursorPage<PostVO>> listHotPostVoByCursor(@RequestBody CursorPageRequest cursorPageRequest) {
+        ThrowUtils.throwIf(cursorPageRequest == null, ErrorCode.PARAMS_ERROR);
+        // 限制爬虫
+        ThrowUtils.throwIf(cursorPageRequest.getPageSize() <= 0 || cursorPageRequest.getPageSize() > 20, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(postService.listHotPostVoByCursor(cursorPageRequest));
+    }
+
+    /**
+     * 全文检索帖子（相关度排序、高亮、标签分面）
+     *
+     * @param postQueryRequest 发布查询请求
+     * @return {@link BaseResponse}<{@link PostSearchVO}>
+     */
+    @PostMapping("/search/page/vo")
+    @ApiOperation(value = "全文检索帖子")
+    public BaseResponse<PostSearchVO> searchPostVoByPage(@RequestBody PostQueryRequest postQueryRequest) {
+        ThrowUtils.throwIf(postQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        // 限制爬虫
+        ThrowUtils.throwIf(postQueryRequest.getPageSize() > 20, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(postService.searchPostVO(postQueryRequest));
+    }
+
     /**
      * 分页获取当前用户创建的资源列表
      *
@@ -210,11 +279,28 @@ public class PostController {
         long size = postQueryRequest.getPageSize();
         // 限制爬虫
         ThrowUtils.throwIf(size > 20, ErrorCode.PARAMS_ERROR);
-        Page<Post> postPage = postService.page(new Page<>(current, size),
+        Page<Post> postPage = postService.page(new Page<>(current, size, !Boolean.FALSE.equals(postQueryRequest.getSearchCount())),
                 postService.getQueryWrapper(postQueryRequest));
         return ResultUtils.success(postService.getPostVOPage(postPage));
     }
 
+    /**
+     * 游标分页获取当前用户创建的资源列表
+     *
+     * @param postQueryRequest 发布查询请求（cursor 为上一页返回的游标）
+     * @return {@link BaseResponse}<{@link CursorPage}<{@link PostVO}>>
+     */
+    @PostMapping("/my/list/cursor/vo")
+    @ApiOperation(value = "游标分页获取当前用户创建的资源列表")
+    public BaseResponse<CursorPage<PostVO>> listMyPostVoByCursor(@RequestBody PostQueryRequest postQueryRequest) {
+        ThrowUtils.throwIf(postQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        // 限制爬虫
+        ThrowUtils.throwIf(postQueryRequest.getPageSize() > 20, ErrorCode.PARAMS_ERROR);
+        User loginUser = userService.getLoginUser();
+        postQueryRequest.setUserId(loginUser.getId());
+        return ResultUtils.success(postService.listPostVoByCursor(postQueryRequest));
+    }
+
     // endregion
 
     /**
@@ -247,9 +333,10 @@ public class PostController {
         if (!oldPost.getUserId().equals(loginUser.getId()) && !userService.isAdmin(loginUser)) {
             throw new BusinessException(ErrorCode.NO_AUTH_ERROR);
         }
-        boolean result = postService.updateById(post);
+        boolean result = postService.updatePostWithTags(post);
         if (result){
             postSummaryHandler.generateSummaryAsync(id);
+            postIndexHandler.syncPostAsync(id);
         }
         return ResultUtils.success(result);
     }
@@ -281,4 +368,20 @@ public class PostController {
         return ResultUtils.success(postVoPage);
     }
 
+    /**
+     * 游标分页获取当前用户收藏的帖子（按收藏时间倒序）
+     *
+     * @param postQueryRequest 帖子查询请求（cursor 为上一页返回的游标）
+     * @return {@link BaseResponse}<{@link CursorPage}<{@link PostVO}>>
+     */
+    @PostMapping("/my/favour/list/cursor/vo")
+    @ApiOperation(value = "游标分页获取当前用户收藏的帖子")
+    public BaseResponse<CursorPage<PostVO>> listMyFavourPostVoByCursor(@RequestBody PostQueryRequest postQueryRequest) {
+        ThrowUtils.throwIf(postQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        // 限制爬虫
+        ThrowUtils.throwIf(postQueryRequest.getPageSize() > 20, ErrorCode.PARAMS_ERROR);
+        User loginUser = userService.getLoginUser();
+        return ResultUtils.success(postService.listFavourPostByCursor(postQueryRequest, loginUser.getId()));
+    }
+
 }
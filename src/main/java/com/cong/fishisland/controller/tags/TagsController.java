@@ -14,7 +14,9 @@ import com.cong.fishisland.model.dto.tags.TagsQueryRequest;
 import com.cong.fishisland.model.dto.tags.TagsUpdateRequest;
 import com.cong.fishisland.model.entity.tags.Tags;
 import com.cong.fishisland.model.entity.user.User;
+import com.cong.fishisland.model.vo.tags.TagCountVO;
 import com.cong.fishisland.model.vo.tags.TagsVO;
+import com.cong.fishisland.service.PostTagService;
 import com.cong.fishisland.service.TagsService;
 import com.cong.fishisland.service.UserService;
 import io.swagger.annotations.ApiOperation;
@@ -23,6 +25,7 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
+import java.util.List;
 
 /**
  * 标签接口
@@ -41,6 +44,9 @@ public class TagsController {
     @Resource
     private UserService userService;
 
+    @Resource
+    private PostTagService postTagService;
+
     // region 增删改查
 
     /**
@@ -179,4 +185,32 @@ public class TagsController {
     }
 
     // endregion
+
+    /**
+     * 获取帖子数最多的标签（标签云）
+     *
+     * @param topN 数量
+     * @return {@link BaseResponse }<{@link List }<{@link TagCountVO }>>
+     */
+    @GetMapping("/hot")
+    @ApiOperation(value = "获取帖子数最多的标签")
+    public BaseResponse<List<TagCountVO>> listHotTags(@RequestParam(defaultValue = "20") int topN) {
+        ThrowUtils.throwIf(topN <= 0 || topN > 100, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(postTagService.listHotTags(topN));
+    }
+
+    /**
+     * 获取近几天的趋势标签
+     *
+     * @param days 统计天数
+     * @param topN 数量
+     * @return {@link BaseResponse }<{@link List }<{@link TagCountVO }>>
+     */
+    @GetMapping("/trending")
+    @ApiOperation(value = "获取近几天的趋势标签")
+    public BaseResponse<List<TagCountVO>> listTrendingTags(@RequestParam(defaultValue = "7") int days,
+                                                           @RequestParam(defaultValue = "20") int topN) {
+        ThrowUtils.throwIf(topN <= 0 || topN > 100, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(postTagService.listTrendingTags(days, topN));
+    }
 }
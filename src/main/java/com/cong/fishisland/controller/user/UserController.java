@@ -6,6 +6,7 @@ import com.anji.captcha.model.vo.CaptchaVO;
 import com.anji.captcha.service.CaptchaService;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.cong.fishisland.annotation.NoRepeatSubmit;
+import com.cong.fishisland.annotation.RateLimit;
 import com.cong.fishisland.common.BaseResponse;
 import com.cong.fishisland.common.DeleteRequest;
 import com.cong.fishisland.common.ErrorCode;
@@ -17,6 +18,7 @@ import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.common.exception.ThrowUtils;
 import com.cong.fishisland.model.dto.user.*;
 import com.cong.fishisland.model.entity.user.User;
+import com.cong.fishisland.model.enums.RateLimitKeyEnum;
 import com.cong.fishisland.model.vo.user.*;
 import com.cong.fishisland.service.UserPointsService;
 import com.cong.fishisland.service.UserService;
@@ -226,6 +228,7 @@ public class UserController {
      * @return {@link BaseResponse}<{@link Long}>
      */
     @PostMapping("/email/send")
+    @RateLimit(key = RateLimitKeyEnum.IP, permits = 5, periodSeconds = 600, message = "验证码发送过于频繁，请稍后再试")
     @ApiOperation(value = "用户邮箱验证码")
     public BaseResponse<Boolean> userEmailSend(@RequestBody UserEmailSendRequest userEmailSendRequest, HttpServletRequest request) {
         String email = userEmailSendRequest.getEmail();
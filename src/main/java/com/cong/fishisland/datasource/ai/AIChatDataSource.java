@@ -13,6 +13,16 @@ public interface AIChatDataSource {
 
     AiResponse getAiResponse(List<SiliconFlowRequest.Message> messages, String model);
 
+    /**
+     * 获取 AI 返回结果，用于结果确定的调用（如帖子总结），相同的提示在缓存有效期内直接复用上次的回答
+     *
+     * @param messages 消息列表
+     * @param model    模型类型
+     */
+    default AiResponse getCacheableAiResponse(List<SiliconFlowRequest.Message> messages, String model) {
+        return getAiResponse(messages, model);
+    }
+
     /**
      * 获取 AI 返回结果
      *
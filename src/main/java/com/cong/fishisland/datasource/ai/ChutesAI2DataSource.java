@@ -1,27 +1,27 @@
 package com.cong.fishisland.datasource.ai;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.json.JSONUtil;
-import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.JSONArray;
-import com.alibaba.fastjson.JSONObject;
-import com.cong.fishisland.common.ResultUtils;
-import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.config.AIModelConfig;
+import com.cong.fishisland.manager.AiGatewayManager;
+import com.cong.fishisland.manager.HttpClientManager;
+import com.cong.fishisland.manager.MinioManager;
 import com.cong.fishisland.model.vo.ai.AiResponse;
 import com.cong.fishisland.model.vo.ai.ImageAIRequest;
 import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
-import com.cong.fishisland.model.vo.ai.SiliconFlowResponse;
+import com.cong.fishisland.utils.JsonFieldInputStream;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.*;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
 
 
@@ -35,16 +35,51 @@ import java.util.List;
 @Slf4j
 public class ChutesAI2DataSource implements AIChatDataSource {
 
+    private static final long READ_TIMEOUT_MILLIS = 120_000;
+
+    /**
+     * 生成图片在 MinIO 中的目录
+     */
+    private static final String IMAGE_DIR = "ai-image/";
+
     @Resource
     private AIModelConfig aiModelConfig;
 
+    @Resource
+    private HttpClientManager httpClientManager;
+
+    @Resource
+    private AiGatewayManager aiGatewayManager;
+
+    @Resource
+    private MinioManager minioManager;
+
+    @PostConstruct
+    public void init() {
+        aiGatewayManager.registerProvider(AiGatewayManager.CHUTES_IMAGE, this::generateImage);
+    }
+
+    /**
+     * 以最后一条消息作为图片描述生成图片
+     */
     @Override
     public AiResponse getAiResponse(List<SiliconFlowRequest.Message> messages, String model) {
-        return null;
+        return aiGatewayManager.chat(AiGatewayManager.CHUTES_IMAGE, model, messages, false);
     }
 
     @Override
     public AiResponse getAiResponse(String prompt, String model) {
+        SiliconFlowRequest.Message message = new SiliconFlowRequest.Message();
+        message.setRole("user");
+        message.setContent(prompt);
+        return getAiResponse(Collections.singletonList(message), model);
+    }
+
+    /**
+     * 生成图片：响应体中的 b64_json 边读边解码，直接上传到 MinIO，不在内存中保留完整响应和图片
+     */
+    private AiResponse generateImage(List<SiliconFlowRequest.Message> messages, String model) throws IOException {
+        String prompt = messages.get(messages.size() - 1).getContent();
 
         ImageAIRequest imageAiRequest = new ImageAIRequest();
         imageAiRequest.setModel(model);
@@ -52,73 +87,29 @@ public class ChutesAI2DataSource implements AIChatDataSource {
         imageAiRequest.setSize("128x128");
         imageAiRequest.setResponse_format("b64_json");
 
-        // 发送 HTTP 请求
-        HttpResponse response = HttpRequest.post(aiModelConfig.getChutesAi2() + "/images/generations")
-                .header("Authorization", "ccong")
-                .header("Content-Type", "application/json")
-                .body(JSONUtil.toJsonStr(imageAiRequest))
-                .execute();
-        String result = response.body();
-        JSONObject jsonObject = JSON.parseObject(result);
-        JSONArray jsonArray = jsonObject.getJSONArray("data");
-        if (jsonArray.isEmpty() || jsonArray.getJSONObject(0).getString("b64_json") == null) {
-            return AiResponse
-                    .builder()
-                    .id("-1")
-                    .aiName(model)
-                    .answer("生成图片失败了，请稍后再试")
-                    .build();
-        }
-        String b64Json = jsonArray.getJSONObject(0).getString("b64_json");
-
-        // 将 base64 转换为图片文件
-        try {
-            byte[] imageBytes = Base64.getDecoder().decode(b64Json);
-            File tempFile = File.createTempFile("generated_image", ".png");
-            try (FileOutputStream fos = new FileOutputStream(tempFile)) {
-                fos.write(imageBytes);
+        Request request = new Request.Builder()
+                .url(aiModelConfig.getChutesAi2() + "/images/generations")
+                .header("Authorization", MockInterviewDataSource.AUTHORIZATION)
+                .post(RequestBody.create(JSONUtil.toJsonStr(imageAiRequest), HttpClientManager.JSON_MEDIA_TYPE))
+                .build();
+        try (Response response = httpClientManager.client(READ_TIMEOUT_MILLIS).newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException("HTTP " + response.code() + " " + request.url());
             }
-
-            // 创建 OkHttpClient
-            OkHttpClient client = new OkHttpClient();
-
-            // 创建 MultipartBody
-            RequestBody requestBody = new MultipartBody.Builder()
-                    .setType(MultipartBody.FORM)
-                    .addFormDataPart("image", tempFile.getName(),
-                            RequestBody.create(MediaType.parse("image/png"), tempFile))
-                    .build();
-
-            // 创建请求
-            Request request = new Request.Builder()
-                    .url("https://i.111666.best/image")
-                    .addHeader("Auth-Token", "YOUR-TOKEN")
-                    .post(requestBody)
-                    .build();
-
-            // 发送请求
-            String imgUrl = null;
-            try (Response uploadResponse = client.newCall(request).execute()) {
-                // 验证响应
-                String responseBody = uploadResponse.body().string();
-                //获取 src 字段
-                JSONObject parseObject = JSONObject.parseObject(responseBody);
-                imgUrl = parseObject.getString("src");
+            JsonFieldInputStream b64Json = new JsonFieldInputStream(body.byteStream(), "b64_json");
+            if (!b64Json.find()) {
+                throw new IOException("响应中没有图片数据");
             }
-
-            // 删除临时文件
-            tempFile.delete();
-
+            String objectName = IMAGE_DIR + IdUtil.fastSimpleUUID() + ".png";
+            String url = minioManager.uploadStream(Base64.getDecoder().wrap(b64Json), objectName, "image/png");
             return AiResponse
                     .builder()
-                    .id("-1")
+                    .id(objectName)
                     .aiName(model)
-                    .answer("https://i.111666.best" + imgUrl)
+                    .answer(url)
                     .build();
-        } catch (Exception e) {
-            log.error("Failed to generate image", e);
         }
-        return null;
     }
 
     @Override
@@ -1,19 +1,23 @@
 package com.cong.fishisland.datasource.ai;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
 import cn.hutool.json.JSONUtil;
 import com.alibaba.fastjson.JSON;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.config.AIModelConfig;
+import com.cong.fishisland.manager.AiGatewayManager;
+import com.cong.fishisland.manager.AiStreamManager;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.vo.ai.AiResponse;
 import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
 import com.cong.fishisland.model.vo.ai.SiliconFlowResponse;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import okhttp3.Headers;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
@@ -29,41 +33,65 @@ public class MockInterviewDataSource implements AIChatDataSource {
 
     public static final String DEFAULT_MODEL = "deepseek-v3-0324";
 
+    public static final String AUTHORIZATION = "ccong";
+
+    private static final long READ_TIMEOUT_MILLIS = 60_000;
+
     private final AIModelConfig aiModelConfig;
 
+    private final HttpClientManager httpClientManager;
+
+    private final AiGatewayManager aiGatewayManager;
+
+    private final AiStreamManager aiStreamManager;
+
+    @PostConstruct
+    public void init() {
+        aiGatewayManager.registerProvider(AiGatewayManager.CHUTES, this::request);
+        aiGatewayManager.registerStreamProvider(AiGatewayManager.CHUTES, (messages, model) -> aiStreamManager
+                .streamChunks(aiModelConfig.getChutesAi2(), AUTHORIZATION, messages, model));
+    }
+
     @Override
     public AiResponse getAiResponse(List<SiliconFlowRequest.Message> messages, String model) {
+        return aiGatewayManager.chat(AiGatewayManager.CHUTES, model, messages, false);
+    }
+
+    @Override
+    public AiResponse getCacheableAiResponse(List<SiliconFlowRequest.Message> messages, String model) {
+        return aiGatewayManager.chat(AiGatewayManager.CHUTES, model, messages, true);
+    }
+
+    private AiResponse request(List<SiliconFlowRequest.Message> messages, String model) {
         // 构建请求体
         SiliconFlowRequest request = new SiliconFlowRequest();
         request.setModel(model);
         request.setMessages(messages);
 
         // 发送请求
-        HttpResponse response = HttpRequest.post(aiModelConfig.getChutesAi2() + "/chat/completions")
-                .header("Authorization",  "ccong")
-                .header("Content-Type", "application/json")
-                .body(JSONUtil.toJsonStr(request))
-                .timeout(60000) // 超时时间
-                .execute();
-
-        if (response.getStatus() != 200) {
-            throw new BusinessException(ErrorCode.OPERATION_ERROR,
-                    "AI 请求失败，HTTP Status:  " + response.getStatus());
+        String result;
+        try {
+            result = httpClientManager.postJson(aiModelConfig.getChutesAi2() + "/chat/completions",
+                    Headers.of("Authorization", AUTHORIZATION), JSONUtil.toJsonStr(request), READ_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "AI 请求失败，" + e.getMessage());
         }
 
-        SiliconFlowResponse siliconFlowResponse = JSON.parseObject(response.body(), SiliconFlowResponse.class);
+        SiliconFlowResponse siliconFlowResponse = JSON.parseObject(result, SiliconFlowResponse.class);
         // 拼接所有 choice 消息
         StringBuilder allMessage = new StringBuilder();
         for (SiliconFlowResponse.Choice choice : siliconFlowResponse.getChoices()) {
             allMessage.append(choice.getMessage().getContent());
         }
         //处理响应
-        String[] result = allMessage.toString().split("</think>");
+        String[] answers = allMessage.toString().split("</think>");
         return AiResponse
                 .builder()
                 .id(String.valueOf(siliconFlowResponse.getCreated()))
                 .aiName(siliconFlowResponse.getModel())
-                .answer(result.length > 1 ? result[1].trim() : result[0].trim())
+                .answer(answers.length > 1 ? answers[1].trim() : answers[0].trim())
+                .promptTokens(siliconFlowResponse.getUsage() == null ? null : siliconFlowResponse.getUsage().getPrompt_tokens())
+                .completionTokens(siliconFlowResponse.getUsage() == null ? null : siliconFlowResponse.getUsage().getCompletion_tokens())
                 .build();
     }
 
@@ -1,16 +1,22 @@
 package com.cong.fishisland.datasource.ai;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
 import cn.hutool.json.JSONUtil;
 import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.config.AIModelConfig;
+import com.cong.fishisland.manager.AiGatewayManager;
+import com.cong.fishisland.manager.AiStreamManager;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.vo.ai.AiResponse;
 import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
 import com.cong.fishisland.model.vo.ai.SiliconFlowResponse;
+import okhttp3.Headers;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,36 +30,68 @@ import java.util.List;
 @Component
 public class SiliconFlowDataSource implements AIChatDataSource {
 
+    private static final long READ_TIMEOUT_MILLIS = 60_000;
+
     @Resource
     private AIModelConfig aiModelConfig;
 
+    @Resource
+    private HttpClientManager httpClientManager;
+
+    @Resource
+    private AiGatewayManager aiGatewayManager;
+
+    @Resource
+    private AiStreamManager aiStreamManager;
+
+    @PostConstruct
+    public void init() {
+        aiGatewayManager.registerProvider(AiGatewayManager.SILICON_FLOW, this::request);
+        aiGatewayManager.registerStreamProvider(AiGatewayManager.SILICON_FLOW, (messages, model) -> aiStreamManager
+                .streamChunks(aiModelConfig.getSiliconFlowUrl(), "Bearer " + aiModelConfig.getSiliconFlow(), messages, model));
+    }
+
     @Override
     public AiResponse getAiResponse(List<SiliconFlowRequest.Message> messages, String model) {
+        return aiGatewayManager.chat(AiGatewayManager.SILICON_FLOW, model, messages, false);
+    }
+
+    @Override
+    public AiResponse getCacheableAiResponse(List<SiliconFlowRequest.Message> messages, String model) {
+        return aiGatewayManager.chat(AiGatewayManager.SILICON_FLOW, model, messages, true);
+    }
+
+    private AiResponse request(List<SiliconFlowRequest.Message> messages, String model) {
         // 只需要设置 messages，其他字段都有默认值
         SiliconFlowRequest request = new SiliconFlowRequest();
         request.setModel(model);
         request.setMessages(messages);
 
         // 发送 HTTP 请求
-        HttpResponse response = HttpRequest.post("https://api.siliconflow.cn/v1/chat/completions")
-                .header("Authorization", "Bearer " + aiModelConfig.getSiliconFlow())
-                .header("Content-Type", "application/json")
-                .body(JSONUtil.toJsonStr(request))
-                .execute();
+        String result;
+        try {
+            result = httpClientManager.postJson(aiModelConfig.getSiliconFlowUrl() + "/chat/completions",
+                    Headers.of("Authorization", "Bearer " + aiModelConfig.getSiliconFlow()),
+                    JSONUtil.toJsonStr(request), READ_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "AI 请求失败：" + e.getMessage());
+        }
 
-        SiliconFlowResponse siliconFlowResponse = JSON.parseObject(response.body(), SiliconFlowResponse.class);
+        SiliconFlowResponse siliconFlowResponse = JSON.parseObject(result, SiliconFlowResponse.class);
         //将所有消息合并成一个字符串
         StringBuilder allMessage = new StringBuilder();
         for (SiliconFlowResponse.Choice choice : siliconFlowResponse.getChoices()) {
             allMessage.append(choice.getMessage().getContent());
         }
 
-        String[] result = allMessage.toString().split("</think>");
+        String[] answers = allMessage.toString().split("</think>");
         return AiResponse
                 .builder()
                 .id(String.valueOf(siliconFlowResponse.getCreated()))
                 .aiName(siliconFlowResponse.getModel())
-                .answer(result.length > 1 ? result[1].trim() : result[0].trim())
+                .answer(answers.length > 1 ? answers[1].trim() : answers[0].trim())
+                .promptTokens(siliconFlowResponse.getUsage() == null ? null : siliconFlowResponse.getUsage().getPrompt_tokens())
+                .completionTokens(siliconFlowResponse.getUsage() == null ? null : siliconFlowResponse.getUsage().getCompletion_tokens())
                 .build();
     }
 
@@ -1,17 +1,23 @@
 package com.cong.fishisland.datasource.hostpost;
 
 
-import cn.hutool.http.HttpRequest;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
+import com.cong.fishisland.annotation.HotDataSource;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.entity.hot.HotPost;
 import com.cong.fishisland.model.enums.CategoryTypeEnum;
-import com.cong.fishisland.model.enums.UpdateIntervalEnum;
+import com.cong.fishisland.model.enums.HotDataKeyEnum;
 import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,20 +27,45 @@ import java.util.stream.Collectors;
  * @author shing
  */
 @Slf4j
+@HotDataSource(key = HotDataKeyEnum.BILI_BILI)
 @Component
+@RequiredArgsConstructor
 public class BiliBiliDataSource implements DataSource {
 
+    private static final String BILI_BILI_POPULAR_URL = "https://api.bilibili.com/x/web-interface/popular";
+
+    private final HttpClientManager httpClientManager;
+
     @Override
     public HotPost getHotPost() {
-        String urlBilibili = "https://api.bilibili.com/x/web-interface/popular";
-        String result = HttpRequest.get(urlBilibili).execute().body();
+        List<HotPostDataVO> dataList;
+        try {
+            dataList = httpClientManager.get(BILI_BILI_POPULAR_URL, Headers.of(), this::parsePopularList);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "B站热门数据获取失败：" + e.getMessage());
+        }
+
+        return HotPost.builder()
+                .sort(CategoryTypeEnum.VIDEO_ENTERTAINMENT.getValue())
+                .name("B站热门")
+                .category(CategoryTypeEnum.VIDEO_ENTERTAINMENT.getValue())
+                .iconUrl("https://www.bilibili.com/favicon.ico")
+                //按 followerCount 降序排序
+                .hostJson(JSON.toJSONString(dataList
+                        .stream().sorted((a, b) -> b.getFollowerCount() - a.getFollowerCount()).collect(Collectors.toList())
+                        .subList(0, Math.min(dataList.size(), 20))))
+                .typeName("哔哩哔哩")
+                .build();
+    }
+
+    private List<HotPostDataVO> parsePopularList(String result) {
         JSONObject resultJson = JSON.parseObject(result);
 
         // 获取嵌套数据结构
         JSONObject data = resultJson.getJSONObject("data");
         JSONArray list = data.getJSONArray("list");
 
-        List<HotPostDataVO> dataList = list.stream().map(item -> {
+        return list.stream().map(item -> {
             JSONObject jsonItem = (JSONObject) item;
 
             // 提取基础字段
@@ -51,19 +82,6 @@ public class BiliBiliDataSource implements DataSource {
                     .followerCount(view)
                     .build();
         }).collect(Collectors.toList());
-
-        return HotPost.builder()
-                .sort(CategoryTypeEnum.VIDEO_ENTERTAINMENT.getValue())
-                .name("B站热门")
-                .category(CategoryTypeEnum.VIDEO_ENTERTAINMENT.getValue())
-                .updateInterval(UpdateIntervalEnum.HALF_HOUR.getValue())
-                .iconUrl("https://www.bilibili.com/favicon.ico")
-                //按 followerCount 降序排序
-                .hostJson(JSON.toJSONString(dataList
-                        .stream().sorted((a, b) -> b.getFollowerCount() - a.getFollowerCount()).collect(Collectors.toList())
-                        .subList(0, Math.min(dataList.size(), 20))))
-                .typeName("哔哩哔哩")
-                .build();
     }
 
 }
@@ -4,19 +4,17 @@ import cn.hutool.core.text.CharSequenceUtil;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
+import com.cong.fishisland.annotation.HotDataSource;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.entity.hot.HotPost;
 import com.cong.fishisland.model.enums.CategoryTypeEnum;
+import com.cong.fishisland.model.enums.HotDataKeyEnum;
 import com.cong.fishisland.model.enums.UpdateIntervalEnum;
 import com.cong.fishisland.model.vo.hot.HotPostDataVO;
 import com.cong.fishisland.utils.StringUtils;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.http.HttpHeaders;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
+import okhttp3.Headers;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -29,45 +27,47 @@ import java.util.List;
  * @date 2025/02/21
  */
 @Slf4j
+@HotDataSource(key = HotDataKeyEnum.CODE_FATHER, interval = UpdateIntervalEnum.ONE_DAY)
 @Component
+@RequiredArgsConstructor
 public class CodeFatherDataSource implements DataSource {
+
+    private static final String CODE_FATHER_HOT_URL = "https://api.codefather.cn/api/search/hot";
+
+    /**
+     * 请求体（body）
+     */
+    private static final String REQUEST_BODY = "{\"hiddenContent\": true, \"pageSize\": 20, \"type\": \"all_hot\"}";
+
+    /**
+     * 常见的请求头和其他请求头
+     */
+    private static final Headers HEADERS = new Headers.Builder()
+            .add("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/58.0.3029.110 Safari/537.36")
+            .add("Referer", "https://s.weibo.com/top/summary?cate=realtimehot")
+            .add("Access-Control-Allow-Credentials", "true")
+            .add("Access-Control-Allow-Origin", "https://www.codefather.cn")
+            .add("Access-Control-Expose-Headers", "*")
+            .add("Date", "Fri, 21 Feb 2025 07:03:51 GMT")
+            .add("Server", "www.tsycdn.com")
+            .add("Strict-Transport-Security", "max-age=31536000")
+            .add("Vary", "Origin,Access-Control-Request-Method,Access-Control-Request-Headers")
+            .add("X-Cloudbase-Request-Id", "af099400-1c70-4f1b-9e6c-9a67996adce4")
+            .add("X-Cloudbase-Upstream-Status-Code", "200")
+            .add("X-Cloudbase-Upstream-Timecost", "133")
+            .add("X-Cloudbase-Upstream-Type", "Tencent-CBR")
+            .add("X-Request-Id", "af099400-1c70-4f1b-9e6c-9a67996adce4")
+            .add("X-Upstream-Status-Code", "200")
+            .add("X-Upstream-Timecost", "133")
+            .build();
+
+    private final HttpClientManager httpClientManager;
+
     @Override
     public HotPost getHotPost() {
-        String urlCodeFather = "https://api.codefather.cn/api/search/hot";
-        HttpPost request = new HttpPost(urlCodeFather);
-        // 创建请求体（body）
-        String jsonBody = "{\"hiddenContent\": true, \"pageSize\": 20, \"type\": \"all_hot\"}";
-        // 添加常见的请求头
-        request.setHeader(HttpHeaders.USER_AGENT, "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/58.0.3029.110 Safari/537.36");
-        request.setHeader(HttpHeaders.REFERER, "https://s.weibo.com/top/summary?cate=realtimehot");
-
-        // 添加其他请求头
-        request.setHeader("Access-Control-Allow-Credentials", "true");
-        request.setHeader("Access-Control-Allow-Origin", "https://www.codefather.cn");
-        request.setHeader("Access-Control-Expose-Headers", "*");
-        request.setHeader("Content-Encoding", "gzip");
-        request.setHeader("Content-Type", "application/json");
-        request.setHeader("Date", "Fri, 21 Feb 2025 07:03:51 GMT");
-        request.setHeader("Server", "www.tsycdn.com");
-        request.setHeader("Strict-Transport-Security", "max-age=31536000");
-        request.setHeader("Vary", "Accept-Encoding");
-        request.setHeader("Vary", "Origin,Access-Control-Request-Method,Access-Control-Request-Headers");
-        request.setHeader("X-Cloudbase-Request-Id", "af099400-1c70-4f1b-9e6c-9a67996adce4");
-        request.setHeader("X-Cloudbase-Upstream-Status-Code", "200");
-        request.setHeader("X-Cloudbase-Upstream-Timecost", "133");
-        request.setHeader("X-Cloudbase-Upstream-Type", "Tencent-CBR");
-        request.setHeader("X-Request-Id", "af099400-1c70-4f1b-9e6c-9a67996adce4");
-        request.setHeader("X-Upstream-Status-Code", "200");
-        request.setHeader("X-Upstream-Timecost", "133");
-        CloseableHttpClient httpClient = HttpClients.createDefault();
         List<HotPostDataVO> dataList = new ArrayList<>();
         try {
-            StringEntity entity = new StringEntity(jsonBody);
-
-            // 设置请求体
-            request.setEntity(entity);
-            CloseableHttpResponse response = httpClient.execute(request);
-            String result = EntityUtils.toString(response.getEntity());
+            String result = httpClientManager.postJson(CODE_FATHER_HOT_URL, HEADERS, REQUEST_BODY);
             JSONObject resultJson = (JSONObject) JSON.parse(result);
             JSONObject data = resultJson.getJSONObject("data");
             JSONArray records = data.getJSONObject("searchPage").getJSONArray("records");
@@ -93,7 +93,6 @@ public class CodeFatherDataSource implements DataSource {
                 .sort(CategoryTypeEnum.TECH_PROGRAMMING.getValue())
                 .name("编程热门")
                 .category(CategoryTypeEnum.TECH_PROGRAMMING.getValue())
-                .updateInterval(UpdateIntervalEnum.ONE_DAY.getValue())
                 .iconUrl("https://www.codefather.cn/favicon.ico")
                 //只拿前 20 条数据
                 .hostJson(JSON.toJSONString(dataList.subList(0, Math.min(dataList.size(), 20))))
@@ -1,28 +1,24 @@
 package com.cong.fishisland.datasource.hostpost;
 
 import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.annotation.HotDataSource;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.entity.hot.HotPost;
 import com.cong.fishisland.model.enums.CategoryTypeEnum;
-import com.cong.fishisland.model.enums.UpdateIntervalEnum;
+import com.cong.fishisland.model.enums.HotDataKeyEnum;
 import com.cong.fishisland.model.vo.hot.HotPostDataVO;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.entity.GZIPInputStreamFactory;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
+import okhttp3.Headers;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,14 +27,27 @@ import java.util.stream.Collectors;
  *
  * @author Shing
  */
+@HotDataSource(key = HotDataKeyEnum.DOU_YIN)
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class DouYinDataSource implements DataSource {
 
+    private static final String HOT_BASE_URL = "https://www.douyin.com/hot";
+
+    private static final String API_URL = "https://www.douyin.com/aweme/v1/web/hot/search/list";
+
+    private static final Headers HEADERS = Headers.of(
+            "User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7)...",
+            "Referer", "https://www.douyin.com/hot",
+            "Accept", "application/json");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpClientManager httpClientManager;
+
     @Override
     public HotPost getHotPost() {
-        final String HOT_BASE_URL = "https://www.douyin.com/hot";
-        final String API_URL = "https://www.douyin.com/aweme/v1/web/hot/search/list";
         String fullApiUrl;
         try {
             URIBuilder uriBuilder = new URIBuilder(API_URL)
@@ -116,25 +125,11 @@ public class DouYinDataSource implements DataSource {
             log.error("URL 构造异常: {}", e.getMessage(), e);
             return buildHotPost(Collections.emptyList());
         }
-        final int TIMEOUT = 30_000;
-
         List<HotPostDataVO> dataList = new ArrayList<>();
 
-        try (CloseableHttpClient client = HttpClients.custom()
-                .setDefaultRequestConfig(RequestConfig.custom()
-                        .setConnectTimeout(10_000)
-                        .setSocketTimeout(TIMEOUT)
-                        .build())
-                .setRetryHandler(new DefaultHttpRequestRetryHandler(3, true))
-                .setContentDecoderRegistry(Collections.singletonMap("gzip", GZIPInputStreamFactory.getInstance()))
-                .build()) {
-
-            HttpGet httpGet = new HttpGet(fullApiUrl);
-            configureHeaders(httpGet);
-
-            try (CloseableHttpResponse response = client.execute(httpGet)) {
-                dataList = processResponse(response, HOT_BASE_URL);
-            }
+        try {
+            // 重试交给抓取任务统一处理，gzip 由客户端透明解压
+            dataList = httpClientManager.get(fullApiUrl, HEADERS, this::processResponse);
         } catch (IOException e) {
             log.error("网络通信异常: {}", e.getMessage(), e);
         } catch (Exception e) {
@@ -144,16 +139,13 @@ public class DouYinDataSource implements DataSource {
         return buildHotPost(dataList);
     }
 
-    private void configureHeaders(HttpGet httpGet) {
-        httpGet.setHeader("User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7)...");
-        httpGet.setHeader("Referer", "https://www.douyin.com/hot");
-        httpGet.setHeader("Accept", "application/json");
-    }
-
-    private List<HotPostDataVO> processResponse(CloseableHttpResponse response, String hotBaseUrl) throws IOException {
-        String responseString = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
-        JsonNode rootNode = new ObjectMapper().readTree(responseString);
-        return convertAndSortItems(rootNode.path("data").path("word_list"), hotBaseUrl);
+    private List<HotPostDataVO> processResponse(String responseString) {
+        try {
+            JsonNode rootNode = OBJECT_MAPPER.readTree(responseString);
+            return convertAndSortItems(rootNode.path("data").path("word_list"), HOT_BASE_URL);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private List<HotPostDataVO> convertAndSortItems(JsonNode items, String hotBaseUrl) {
@@ -201,7 +193,6 @@ public class DouYinDataSource implements DataSource {
                 .sort(CategoryTypeEnum.VIDEO_ENTERTAINMENT.getValue())
                 .name("抖音热搜")
                 .category(CategoryTypeEnum.VIDEO_ENTERTAINMENT.getValue())
-                .updateInterval(UpdateIntervalEnum.HALF_HOUR.getValue())
                 .iconUrl("https://lf1-cdn-tos.bytegoofy.com/goofy/ies/douyin_web/public/favicon.ico")
                 // 取前 20 条数据
                 .hostJson(JSON.toJSONString(dataList.subList(0, Math.min(dataList.size(), 20))))
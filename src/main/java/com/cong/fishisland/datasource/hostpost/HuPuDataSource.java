@@ -1,11 +1,14 @@
 package com.cong.fishisland.datasource.hostpost;
 
 import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.entity.hot.HotPost;
 import com.cong.fishisland.model.enums.CategoryTypeEnum;
 import com.cong.fishisland.model.enums.UpdateIntervalEnum;
 import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -23,11 +26,14 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 //@Component
+@RequiredArgsConstructor
 public class HuPuDataSource implements DataSource {
 
     private static final String HUPU_URL = "https://hupu.com";
     private static final String USER_AGENT = "Mozilla/5.0(Windows NT 10.0;Win64;x64;rv:66.0)Gecko/20100101 Firefox/66.0";
 
+    private final HttpClientManager httpClientManager;
+
     @Override
     public HotPost getHotPost() {
         Document document = fetchDocument();
@@ -67,9 +73,7 @@ public class HuPuDataSource implements DataSource {
      */
     private Document fetchDocument() {
         try {
-            return Jsoup.connect(HuPuDataSource.HUPU_URL)
-                    .userAgent(USER_AGENT)
-                    .get();
+            return Jsoup.parse(httpClientManager.get(HUPU_URL, Headers.of("User-Agent", USER_AGENT)), HUPU_URL);
         } catch (IOException e) {
             log.error("获取网页内容失败，URL: " + HuPuDataSource.HUPU_URL, e);
             return null;
@@ -1,11 +1,15 @@
 package com.cong.fishisland.datasource.hostpost;
 
 import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.annotation.HotDataSource;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.entity.hot.HotPost;
 import com.cong.fishisland.model.enums.CategoryTypeEnum;
-import com.cong.fishisland.model.enums.UpdateIntervalEnum;
+import com.cong.fishisland.model.enums.HotDataKeyEnum;
 import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -23,13 +27,17 @@ import java.util.stream.Collectors;
  * @author shing
  */
 @Slf4j
+@HotDataSource(key = HotDataKeyEnum.HU_PU_STREET)
 @Component
+@RequiredArgsConstructor
 public class HuPuStreetDataSource implements DataSource {
 
     private static final String HUPU_URL = "https://bbs.hupu.com";
     private static final String USER_AGENT = "Mozilla/5.0(Windows NT 10.0;Win64;x64;rv:66.0)Gecko/20100101 Firefox/66.0";
     String hupuStreetURL = "https://bbs.hupu.com/all-gambia";
 
+    private final HttpClientManager httpClientManager;
+
     @Override
     public HotPost getHotPost() {
         Document document = fetchDocument(hupuStreetURL);
@@ -53,7 +61,6 @@ public class HuPuStreetDataSource implements DataSource {
                 .sort(CategoryTypeEnum.GENERAL_DISCUSSION.getValue())
                 .name("虎扑步行街热榜")
                 .category(CategoryTypeEnum.GENERAL_DISCUSSION.getValue())
-                .updateInterval(UpdateIntervalEnum.HALF_HOUR.getValue())
                 .iconUrl("https://hupu.com/favicon.ico")
                 .hostJson(JSON.toJSONString(dataList.stream()
                         .sorted((a, b) -> b.getFollowerCount() - a.getFollowerCount()).collect(Collectors.toList())
@@ -70,9 +77,7 @@ public class HuPuStreetDataSource implements DataSource {
      */
     private Document fetchDocument(String url) {
         try {
-            return Jsoup.connect(url)
-                    .userAgent(USER_AGENT)
-                    .get();
+            return Jsoup.parse(httpClientManager.get(url, Headers.of("User-Agent", USER_AGENT)), url);
         } catch (IOException e) {
             log.error("获取网页内容失败，URL: " + url, e);
             return null;
@@ -1,21 +1,24 @@
 package com.cong.fishisland.datasource.hostpost;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
+import com.cong.fishisland.annotation.HotDataSource;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.entity.hot.HotPost;
 import com.cong.fishisland.model.enums.CategoryTypeEnum;
-import com.cong.fishisland.model.enums.UpdateIntervalEnum;
+import com.cong.fishisland.model.enums.HotDataKeyEnum;
 import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
 import org.apache.http.client.utils.URIBuilder;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -26,16 +29,22 @@ import java.util.stream.Collectors;
  * @author shing
  */
 @Slf4j
+@HotDataSource(key = HotDataKeyEnum.JUE_JIN)
 @Component
+@RequiredArgsConstructor
 public class JueJinDataSource implements DataSource {
 
     private static final String JUE_JIN_URL = "https://api.juejin.cn/content_api/v1/content/article_rank";
 
     private static final String JUE_JIN_POST_URL = "https://juejin.cn/post/";
 
+    private static final Headers HEADERS = Headers.of("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36...");
+
+    private final HttpClientManager httpClientManager;
+
     @Override
     public HotPost getHotPost() {
-        List<HotPostDataVO> allDataList = new ArrayList<>();
+        List<HotPostDataVO> allDataList = Collections.emptyList();
 
         try {
             // 1. 构建请求URL
@@ -48,38 +57,7 @@ public class JueJinDataSource implements DataSource {
                     .build();
 
             // 2. 发送请求并处理响应
-            try (HttpResponse response = HttpRequest.get(url.toString())
-                    .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36...")
-                    .execute()) {
-
-                String result = response.body();
-                JSONObject resultJson = JSON.parseObject(result);
-                JSONArray data = resultJson.getJSONArray("data");
-
-                // 3. 解析数据
-                data.stream()
-                        .map(JSONObject.class::cast)
-                        .forEach(jsonItem -> {
-                            try {
-                                JSONObject content = jsonItem.getJSONObject("content");
-                                JSONObject contentCounter = jsonItem.getJSONObject("content_counter");
-
-                                String title = content.getString("title");
-                                String contentId = content.getString("content_id");
-                                int hotRank = contentCounter.getIntValue("hot_rank");
-
-                                allDataList.add(HotPostDataVO.builder()
-                                        .title(title)
-                                        .url(JUE_JIN_POST_URL + contentId)
-                                        .followerCount(hotRank)
-                                        .build());
-
-                            } catch (Exception e) {
-                                log.warn("数据解析失败: {}", jsonItem.toJSONString(), e);
-                            }
-                        });
-            }
-
+            allDataList = httpClientManager.get(url.toString(), HEADERS, this::parseArticleRank);
         } catch (URISyntaxException e) {
             log.error("URL构造失败: {}", JUE_JIN_URL, e);
         } catch (Exception e) {
@@ -91,7 +69,6 @@ public class JueJinDataSource implements DataSource {
                 .category(CategoryTypeEnum.TECH_PROGRAMMING.getValue())
                 .sort(CategoryTypeEnum.TECH_PROGRAMMING.getValue())
                 .name("掘金热榜")
-                .updateInterval(UpdateIntervalEnum.HALF_HOUR.getValue())
                 .iconUrl("https://lf3-cdn-tos.bytescm.com/obj/static/xitu_juejin_web//static/favicon.ico")
                 .hostJson(JSON.toJSONString(allDataList.stream()
                         .sorted(Comparator.comparingInt(HotPostDataVO::getFollowerCount).reversed())
@@ -100,4 +77,34 @@ public class JueJinDataSource implements DataSource {
                 .typeName("掘金")
                 .build();
     }
-}
\ No newline at end of file
+
+    private List<HotPostDataVO> parseArticleRank(String result) {
+        List<HotPostDataVO> dataList = new ArrayList<>();
+        JSONObject resultJson = JSON.parseObject(result);
+        JSONArray data = resultJson.getJSONArray("data");
+
+        // 3. 解析数据
+        data.stream()
+                .map(JSONObject.class::cast)
+                .forEach(jsonItem -> {
+                    try {
+                        JSONObject content = jsonItem.getJSONObject("content");
+                        JSONObject contentCounter = jsonItem.getJSONObject("content_counter");
+
+                        String title = content.getString("title");
+                        String contentId = content.getString("content_id");
+                        int hotRank = contentCounter.getIntValue("hot_rank");
+
+                        dataList.add(HotPostDataVO.builder()
+                                .title(title)
+                                .url(JUE_JIN_POST_URL + contentId)
+                                .followerCount(hotRank)
+                                .build());
+
+                    } catch (Exception e) {
+                        log.warn("数据解析失败: {}", jsonItem.toJSONString(), e);
+                    }
+                });
+        return dataList;
+    }
+}
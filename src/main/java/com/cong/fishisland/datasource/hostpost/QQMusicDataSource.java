@@ -1,25 +1,39 @@
 package com.cong.fishisland.datasource.hostpost;
 
-import cn.hutool.http.HttpUtil;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
+import com.cong.fishisland.annotation.HotDataSource;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.entity.hot.HotPost;
 import com.cong.fishisland.model.enums.CategoryTypeEnum;
+import com.cong.fishisland.model.enums.HotDataKeyEnum;
 import com.cong.fishisland.model.enums.UpdateIntervalEnum;
 import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+@HotDataSource(key = HotDataKeyEnum.QQ_MUSIC, interval = UpdateIntervalEnum.TWO_HOUR)
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class QQMusicDataSource implements DataSource {
 
     private static final String MUSIC_DETAIL_URL = "https://y.qq.com/n/ryqq/songDetail/";
 
+    private static final String QQ_MUSIC_TOP_LIST_URL = "https://u.y.qq.com/cgi-bin/musicu.fcg";
+
+    private final HttpClientManager httpClientManager;
+
 
     //提交
     @Override
@@ -37,11 +51,31 @@ public class QQMusicDataSource implements DataSource {
                 "            }\n" +
                 "        }\n" +
                 "    }";
-        //发送请求
-        String response = HttpUtil.get("https://u.y.qq.com/cgi-bin/musicu.fcg?data=" + jsonData);
+        //发送请求，data 参数需要 URL 编码
+        String url = HttpUrl.get(QQ_MUSIC_TOP_LIST_URL).newBuilder()
+                .addQueryParameter("data", jsonData)
+                .build()
+                .toString();
+        List<HotPostDataVO> hotPostDataVos;
+        try {
+            hotPostDataVos = httpClientManager.get(url, Headers.of(), this::parseSongList);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "QQ音乐热歌榜数据获取失败：" + e.getMessage());
+        }
 
-        JSONObject jsonObject = JSON.parseObject(response);
+        return HotPost.builder()
+                .sort(CategoryTypeEnum.MUSIC_HOT.getValue())
+                .category(CategoryTypeEnum.MUSIC_HOT.getValue())
+                .name("QQ音乐热歌榜")
+                .iconUrl("https://s1.aigei.com/src/img/png/5d/5d7d335b9cab49e39236418edf31ed1f.png?imageMogr2/auto-orient/thumbnail/!282x282r/gravity/Center/crop/282x282/quality/85/%7CimageView2/2/w/282&e=2051020800&token=P7S2Xpzfz11vAkASLTkfHN7Fw-oOZBecqeJaxypL:lwKuad6Nw3hxdwVBE-_6NeCuqf0=")
+                .hostJson(JSON.toJSONString(hotPostDataVos.subList(0, Math.min(hotPostDataVos.size(), 20))))
+                .typeName("QQ音乐")
+                .build();
+
+    }
 
+    private List<HotPostDataVO> parseSongList(String response) {
+        JSONObject jsonObject = JSON.parseObject(response);
 
         JSONArray jsonArray = jsonObject.getJSONObject("detail").getJSONObject("data").getJSONObject("data").getJSONArray("song");
 
@@ -54,18 +88,7 @@ public class QQMusicDataSource implements DataSource {
             Integer rank = song.getInteger("rank");
             hotPostDataVos.add(HotPostDataVO.builder().title(title).url(MUSIC_DETAIL_URL + songId).followerCount(rank).build());
         }
-
-        return HotPost.builder()
-                .sort(CategoryTypeEnum.MUSIC_HOT.getValue())
-                .category(CategoryTypeEnum.MUSIC_HOT.getValue())
-                .name("QQ音乐热歌榜")
-                .updateInterval(UpdateIntervalEnum.TWO_HOUR.getValue())
-                .iconUrl("https://s1.aigei.com/src/img/png/5d/5d7d335b9cab49e39236418edf31ed1f.png?imageMogr2/auto-orient/thumbnail/!282x282r/gravity/Center/crop/282x282/quality/85/%7CimageView2/2/w/282&e=2051020800&token=P7S2Xpzfz11vAkASLTkfHN7Fw-oOZBecqeJaxypL:lwKuad6Nw3hxdwVBE-_6NeCuqf0=")
-                .hostJson(JSON.toJSONString(hotPostDataVos.subList(0, Math.min(hotPostDataVos.size(), 20))))
-                .typeName("QQ音乐")
-                .build();
-
+        return hotPostDataVos;
     }
 
 }
-
@@ -1,13 +1,18 @@
 package com.cong.fishisland.datasource.hostpost;
 
 import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.annotation.HotDataSource;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.entity.hot.HotPost;
 import com.cong.fishisland.model.enums.CategoryTypeEnum;
+import com.cong.fishisland.model.enums.HotDataKeyEnum;
 import com.cong.fishisland.model.enums.UpdateIntervalEnum;
 import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -25,42 +30,22 @@ import java.util.List;
  * @author shing
  */
 @Slf4j
+@HotDataSource(key = HotDataKeyEnum.SM_ZDM, interval = UpdateIntervalEnum.TWO_HOUR)
 @Component
+@RequiredArgsConstructor
 public class SmzdmDataSource implements DataSource {
-    @Override
-    public HotPost getHotPost() {
-
-        String smzdmUrl = "https://www.smzdm.com/top/";
-        List<HotPostDataVO> dataList = new ArrayList<>();
-        try {
-            // 获取主页面内容
-            Document document = Jsoup.connect(smzdmUrl)
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:66.0) Gecko/20100101 Firefox/66.0")
-                    .get();
-            // 解析热门商品列表
-            Elements items = document.select(".feed-hot-card");
+    private static final String SMZDM_URL = "https://www.smzdm.com/top/";
 
-            for (Element item : items) {
-                String position = item.attr("data-position");
-                // 定位 a 标签
-                Element link = item.select("a[target=_blank]").first();
-                if (link == null) continue;
-                // 从 a 标签中提取 title 和 url
-                String title = link.select(".feed-hot-title").text();
-                String url = link.attr("href");
-                String onclickData = link.attr("onclick");
+    private static final Headers HEADERS = Headers.of("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:66.0) Gecko/20100101 Firefox/66.0");
 
-                // 直接判断是否属于 "好价品类榜"
-                if (onclickData.contains("'floor':'好价品类榜'")) {
-                    dataList.add(HotPostDataVO.builder()
-                            .title(title)
-                            .url(url)
-                            .followerCount(Integer.parseInt(position))
-                            .build());
-                }
-            }
-            dataList.sort(Comparator.comparingInt(HotPostDataVO::getFollowerCount));
+    private final HttpClientManager httpClientManager;
 
+    @Override
+    public HotPost getHotPost() {
+        List<HotPostDataVO> dataList;
+        try {
+            // 获取主页面内容，页面未变化时复用上次的解析结果
+            dataList = httpClientManager.get(SMZDM_URL, HEADERS, html -> parseHotList(Jsoup.parse(html, SMZDM_URL)));
         } catch (IOException e) {
             log.error("获取数据失败: {}", e.getMessage(), e);
             throw new BusinessException(ErrorCode.NOT_FOUND_ERROR, "获取数据失败");
@@ -70,10 +55,37 @@ public class SmzdmDataSource implements DataSource {
                 .sort(CategoryTypeEnum.GOODS_SHARE.getValue())
                 .name("什么值得买热榜")
                 .category(CategoryTypeEnum.GOODS_SHARE.getValue())
-                .updateInterval(UpdateIntervalEnum.TWO_HOUR.getValue())
                 .iconUrl("https://www.smzdm.com/favicon.ico")
                 .hostJson(JSON.toJSONString(dataList.subList(0, Math.min(dataList.size(), 20))))
                 .typeName("什么值得买")
                 .build();
     }
+
+    private List<HotPostDataVO> parseHotList(Document document) {
+        List<HotPostDataVO> dataList = new ArrayList<>();
+        // 解析热门商品列表
+        Elements items = document.select(".feed-hot-card");
+
+        for (Element item : items) {
+            String position = item.attr("data-position");
+            // 定位 a 标签
+            Element link = item.select("a[target=_blank]").first();
+            if (link == null) continue;
+            // 从 a 标签中提取 title 和 url
+            String title = link.select(".feed-hot-title").text();
+            String url = link.attr("href");
+            String onclickData = link.attr("onclick");
+
+            // 直接判断是否属于 "好价品类榜"
+            if (onclickData.contains("'floor':'好价品类榜'")) {
+                dataList.add(HotPostDataVO.builder()
+                        .title(title)
+                        .url(url)
+                        .followerCount(Integer.parseInt(position))
+                        .build());
+            }
+        }
+        dataList.sort(Comparator.comparingInt(HotPostDataVO::getFollowerCount));
+        return dataList;
+    }
 }
@@ -1,16 +1,22 @@
 package com.cong.fishisland.datasource.hostpost;
 
-import cn.hutool.http.HttpUtil;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
+import com.cong.fishisland.annotation.HotDataSource;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.entity.hot.HotPost;
 import com.cong.fishisland.model.enums.CategoryTypeEnum;
-import com.cong.fishisland.model.enums.UpdateIntervalEnum;
+import com.cong.fishisland.model.enums.HotDataKeyEnum;
 import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
@@ -22,15 +28,23 @@ import java.util.stream.Collectors;
  * @author Shing
  */
 @Slf4j
+@HotDataSource(key = HotDataKeyEnum.TIE_BA)
 @Component
-public class TieBaDataSource implements DataSource{
-    @Override
-    public HotPost getHotPost() {
+@RequiredArgsConstructor
+public class TieBaDataSource implements DataSource {
+
+    private static final String TIEBA_HOT_URL = "https://tieba.baidu.com/hottopic/browse/topicList";
 
-        String tiebaHotUrl = "https://tieba.baidu.com/hottopic/browse/topicList";
-        String result = HttpUtil.get(tiebaHotUrl);
+    private final HttpClientManager httpClientManager;
 
-        List<HotPostDataVO> dataList = parseTiebaTopicList(result);
+    @Override
+    public HotPost getHotPost() {
+        List<HotPostDataVO> dataList;
+        try {
+            dataList = httpClientManager.get(TIEBA_HOT_URL, Headers.of(), this::parseTiebaTopicList);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "百度贴吧热榜数据获取失败：" + e.getMessage());
+        }
 
         List<HotPostDataVO> sortedTopList = dataList.stream()
                 .sorted(Comparator.comparingInt(HotPostDataVO::getFollowerCount).reversed())
@@ -41,7 +55,6 @@ public class TieBaDataSource implements DataSource{
                 .sort(CategoryTypeEnum.GENERAL_DISCUSSION.getValue())
                 .name("百度贴吧热榜")
                 .category(CategoryTypeEnum.GENERAL_DISCUSSION.getValue())
-                .updateInterval(UpdateIntervalEnum.HALF_HOUR.getValue())
                 .iconUrl("https://tieba.baidu.com/favicon.ico")
                 .hostJson(JSON.toJSONString(sortedTopList))
                 .typeName("百度贴吧")
@@ -1,14 +1,18 @@
 package com.cong.fishisland.datasource.hostpost;
 
 import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.annotation.HotDataSource;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.entity.hot.HotPost;
 import com.cong.fishisland.model.enums.CategoryTypeEnum;
+import com.cong.fishisland.model.enums.HotDataKeyEnum;
 import com.cong.fishisland.model.enums.UpdateIntervalEnum;
 import com.cong.fishisland.model.vo.hot.HotPostDataVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -28,14 +32,19 @@ import java.util.List;
  * @author shing
  */
 @Slf4j
+@HotDataSource(key = HotDataKeyEnum.ZHI_BO_8, interval = UpdateIntervalEnum.ONE_HOUR)
 @Component
 @RequiredArgsConstructor
 public class ZhiBo8DataSource implements DataSource {
 
     private static final String ZHIBO8_URL = "https://zhibo8.com/";
 
+    private static final Headers HEADERS = Headers.of("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:66.0) Gecko/20100101 Firefox/66.0");
+
     private final RetryTemplate retryTemplate;
 
+    private final HttpClientManager httpClientManager;
+
     @Override
     public HotPost getHotPost() {
         return retryTemplate.execute(this::fetchHotPost);
@@ -44,9 +53,7 @@ public class ZhiBo8DataSource implements DataSource {
     public HotPost fetchHotPost(RetryContext context) {
         List<HotPostDataVO> dataList = new ArrayList<>();
         try {
-            Document document = Jsoup.connect(ZHIBO8_URL)
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:66.0) Gecko/20100101 Firefox/66.0")
-                    .get();
+            Document document = Jsoup.parse(httpClientManager.get(ZHIBO8_URL, HEADERS), ZHIBO8_URL);
             // 抓取篮球资讯
             extractNews(document, ".vct-box.lanqiu-news ._content a.list-item", dataList);
             // 抓取足球资讯
@@ -65,7 +72,6 @@ public class ZhiBo8DataSource implements DataSource {
                 .sort(CategoryTypeEnum.SPORTS.getValue())
                 .name("直播吧体育热榜")
                 .category(CategoryTypeEnum.SPORTS.getValue())
-                .updateInterval(UpdateIntervalEnum.ONE_HOUR.getValue())
                 .iconUrl("https://zhibo8.com/favicon.ico")
                 .hostJson(JSON.toJSONString(dataList.subList(0, Math.min(dataList.size(), 20))))
                 .typeName("直播吧")
@@ -0,0 +1,30 @@
+package com.cong.fishisland.job.cycle;
+
+import com.cong.fishisland.service.HotPostHistoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 清理热榜历史：删除过期快照并对较早的快照降采样
+ *
+ * @author cong
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CleanHotPostHistory {
+
+    private final HotPostHistoryService hotPostHistoryService;
+
+    /**
+     * 每天 4 点 30 分执行
+     */
+    @Scheduled(cron = "0 30 4 * * ?")
+    public void run() {
+        long start = System.currentTimeMillis();
+        int deleted = hotPostHistoryService.cleanHistory();
+        log.info("CleanHotPostHistory end, deleted {}, cost {}ms", deleted, System.currentTimeMillis() - start);
+    }
+}
@@ -1,19 +1,28 @@
 package com.cong.fishisland.job.cycle;
 
+import cn.hutool.core.collection.CollUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.ThrowUtils;
 import com.cong.fishisland.manager.DataSourceRegistry;
+import com.cong.fishisland.manager.DataSourceScheduler;
+import com.cong.fishisland.manager.HotPostCacheManager;
+import com.cong.fishisland.manager.HotPostCrawlManager;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.entity.hot.HotPost;
-import com.cong.fishisland.model.enums.HotDataKeyEnum;
+import com.cong.fishisland.service.HotPostHistoryService;
 import com.cong.fishisland.service.HotPostService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.retry.support.RetryTemplate;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StopWatch;
 
-import java.math.BigDecimal;
 import java.util.Date;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * 自动同步热榜数据
@@ -26,52 +35,102 @@ public class IncSyncHostPostToMySQL {
 
     private final DataSourceRegistry dataSourceRegistry;
     private final HotPostService hotPostService;
-    private final RetryTemplate retryTemplate;
+    private final HotPostHistoryService hotPostHistoryService;
+    private final HotPostCrawlManager hotPostCrawlManager;
+    private final HttpClientManager httpClientManager;
+    private final HotPostCacheManager hotPostCacheManager;
+    private final DataSourceScheduler dataSourceScheduler;
+
+    private boolean seeded;
 
     /**
-     * 每半小时执行一次
+     * 每 15 秒检查一次，只抓取到期的数据源，各数据源的间隔、退避和熔断由调度器决定
      */
-    @Scheduled(fixedRate = 1_800_000)
+    @Scheduled(initialDelay = 10_000, fixedDelay = 15_000)
     public void run() {
-        log.info("开始更新热榜数据...");
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        HotDataKeyEnum.getValues().forEach(key -> {
-            try {
-                retryTemplate.execute(context -> {
-                    updateHotPost(key);
-                    return null;
-                });
-            } catch (Exception e) {
-                log.error("更新热榜数据失败，已达到最大重试次数，放弃更新【{}】", key, e);
+        if (!seeded) {
+            // 按上次入库时间校准，重启后不会立即重抓所有榜单
+            // 没有入库时间的榜单不校准，按到期处理
+            hotPostService.list().stream()
+                    .filter(hotPost -> hotPost.getUpdateTime() != null)
+                    .forEach(hotPost -> dataSourceScheduler.seed(hotPost.getType(), hotPost.getUpdateTime().getTime()));
+            seeded = true;
+        }
+        List<String> due = dataSourceScheduler.pollDue(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        log.info("开始更新热榜数据：{}", due);
+        // 到期的数据源并发抓取，完成即入库
+        HotPostCrawlManager.CrawlReport report = hotPostCrawlManager.crawl(due, dataSourceRegistry::getTimeout,
+                this::updateHotPost);
+        long now = System.currentTimeMillis();
+        for (String type : due) {
+            long cost = report.getCosts().getOrDefault(type, report.getCostMillis());
+            if (report.getSucceeded().contains(type)) {
+                dataSourceScheduler.onSuccess(type, cost, now);
+            } else {
+                dataSourceScheduler.onFailure(type, cost, report.getErrors().get(type), now);
             }
-        });
-        stopWatch.stop();
-        log.info("更新热榜数据完成，耗时：{}ms", stopWatch.getTotalTimeMillis());
+        }
+        log.info("更新热榜数据完成，耗时：{}ms，成功：{}，失败：{}，超时：{}", report.getCostMillis(),
+                report.getSucceeded().size(), report.getFailed(), report.getTimedOut());
+        httpClientManager.stats().forEach(stats -> log.info("出站请求统计：{}", stats));
     }
 
     private void updateHotPost(String key) {
+        HotPost hotPost = dataSourceRegistry.getDataSourceByType(key).getHotPost();
+        // 多数数据源自行捕获异常并返回空榜单，空榜单按失败处理：不覆盖上次的榜单，计入退避和熔断
+        ThrowUtils.throwIf(isEmptyBoard(hotPost), ErrorCode.OPERATION_ERROR, "榜单为空或无法解析");
+        hotPost.setType(key);
+        hotPost.setUpdateInterval(dataSourceRegistry.getDescriptor(key).interval().getValue());
+        hotPost.setUpdateTime(new Date());
         LambdaQueryWrapper<HotPost> hotPostLambdaQueryWrapper = new LambdaQueryWrapper<>();
         hotPostLambdaQueryWrapper.eq(HotPost::getType, key);
         HotPost oldHotPost = hotPostService.getOne(hotPostLambdaQueryWrapper);
-        if (oldHotPost != null) {
-            //如果更新时间间隔未到直接跳过
-            //小时制
-            BigDecimal updateInterval = oldHotPost.getUpdateInterval();
-            //转成时间戳
-            long updateIntervalMillis = updateInterval.multiply(new BigDecimal(60 * 60 * 1000)).longValue();
-            if (oldHotPost.getUpdateTime().getTime() + updateIntervalMillis > System.currentTimeMillis()) {
-                log.info("加载===========>【{}】热榜数据跳过", HotDataKeyEnum.getEnumByValue(key).getText());
-                return;
-            }
+        try {
+            // 记录历史并补充排名变化等字段，失败不影响榜单本身入库
+            hotPostHistoryService.ingest(hotPost);
+        } catch (Exception e) {
+            log.error("记录【{}】热榜历史失败", hotPost.getTypeName(), e);
+        }
+        if (oldHotPost != null && isUnchanged(oldHotPost, hotPost)) {
+            // 榜单内容未变，只在数据库记录抓取时间（供调度恢复），不重写热点数据；
+            // 缓存不动，响应体和 ETag 保持不变，轮询方继续拿到 304，缓存中的更新时间是榜单内容最后变化的时间
+            hotPostService.lambdaUpdate()
+                    .set(HotPost::getUpdateTime, hotPost.getUpdateTime())
+                    .set(HotPost::getUpdateInterval, hotPost.getUpdateInterval())
+                    .eq(HotPost::getId, oldHotPost.getId())
+                    .update();
+            log.info("加载===========>【{}】热榜数据未变化", hotPost.getTypeName());
+            return;
         }
-        HotPost hotPost = dataSourceRegistry.getDataSourceByType(key).getHotPost();
-        hotPost.setType(key);
         if (oldHotPost != null) {
             hotPost.setId(oldHotPost.getId());
         }
-        hotPost.setUpdateTime(new Date());
         hotPostService.saveOrUpdate(hotPost);
+        // 入库后立即替换该榜单的缓存
+        hotPostCacheManager.refreshBoard(hotPost);
         log.info("加载===========>【{}】热榜数据完成", hotPost.getTypeName());
     }
+
+    static boolean isEmptyBoard(HotPost hotPost) {
+        if (hotPost == null || StringUtils.isBlank(hotPost.getHostJson())) {
+            return true;
+        }
+        try {
+            return CollUtil.isEmpty(JSON.parseArray(hotPost.getHostJson()));
+        } catch (JSONException e) {
+            return true;
+        }
+    }
+
+    private static boolean isUnchanged(HotPost oldHotPost, HotPost hotPost) {
+        return Objects.equals(oldHotPost.getHostJson(), hotPost.getHostJson())
+                && Objects.equals(oldHotPost.getName(), hotPost.getName())
+                && Objects.equals(oldHotPost.getTypeName(), hotPost.getTypeName())
+                && Objects.equals(oldHotPost.getIconUrl(), hotPost.getIconUrl())
+                && Objects.equals(oldHotPost.getSort(), hotPost.getSort())
+                && Objects.equals(oldHotPost.getCategory(), hotPost.getCategory());
+    }
 }
@@ -0,0 +1,47 @@
+package com.cong.fishisland.job.cycle;
+
+import cn.hutool.core.collection.CollUtil;
+import com.cong.fishisland.manager.PostSearchManager;
+import com.cong.fishisland.mapper.post.PostMapper;
+import com.cong.fishisland.model.entity.post.Post;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 增量同步帖子到检索索引
+ * <p>
+ * 增删改接口已实时写索引，这里按 updateTime 兜底补齐点赞、收藏、浏览等计数变化和漏掉的写入。
+ *
+ * @author cong
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class IncSyncPostToIndex {
+
+    private final PostMapper postMapper;
+
+    private final PostSearchManager postSearchManager;
+
+    /**
+     * 每分钟执行一次，查询近 5 分钟内更新过的帖子（包括已删除）
+     */
+    @Scheduled(fixedRate = 60 * 1000)
+    public void run() {
+        if (!postSearchManager.isReady()) {
+            return;
+        }
+        Date fiveMinutesAgoDate = new Date(System.currentTimeMillis() - 5 * 60 * 1000L);
+        List<Post> postList = postMapper.listPostWithDelete(fiveMinutesAgoDate);
+        if (CollUtil.isEmpty(postList)) {
+            return;
+        }
+        postList.forEach(postSearchManager::index);
+        log.info("IncSyncPostToIndex end, total {}", postList.size());
+    }
+}
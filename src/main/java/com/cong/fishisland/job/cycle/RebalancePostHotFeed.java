@@ -0,0 +1,54 @@
+package com.cong.fishisland.job.cycle;
+
+import com.cong.fishisland.manager.PostHotFeedManager;
+import com.cong.fishisland.mapper.post.PostMapper;
+import com.cong.fishisland.model.dto.post.PostHotScore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 定期按数据库重建帖子热榜
+ * <p>
+ * 互动事件实时增量更新热榜，这里兜底校正丢失的事件、剔除超出时间窗口的帖子并裁剪容量。
+ *
+ * @author cong
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RebalancePostHotFeed {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final PostMapper postMapper;
+
+    private final PostHotFeedManager postHotFeedManager;
+
+    /**
+     * 启动 1 分钟后执行，之后每 10 分钟执行一次
+     */
+    @Scheduled(initialDelay = 60 * 1000, fixedDelay = 10 * 60 * 1000)
+    public void run() {
+        long start = System.currentTimeMillis();
+        Date minCreateTime = new Date(start - PostHotFeedManager.WINDOW_MILLIS);
+        List<PostHotScore> scoreList = new ArrayList<>();
+        long lastId = 0;
+        while (true) {
+            List<PostHotScore> batch = postMapper.listHotScoreAfterId(minCreateTime, lastId, BATCH_SIZE);
+            scoreList.addAll(batch);
+            if (batch.size() < BATCH_SIZE) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        long total = postHotFeedManager.rebalance(scoreList);
+        log.info("RebalancePostHotFeed end, scanned {}, kept {}, cost {}ms", scoreList.size(), total,
+                System.currentTimeMillis() - start);
+    }
+}
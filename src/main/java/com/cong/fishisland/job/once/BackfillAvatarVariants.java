@@ -0,0 +1,96 @@
+package com.cong.fishisland.job.once;
+
+import cn.hutool.core.date.StopWatch;
+import com.cong.fishisland.manager.CosManager;
+import com.cong.fishisland.manager.ImageDerivativeManager;
+import com.cong.fishisland.manager.MinioManager;
+import com.cong.fishisland.manager.ObjectStorage;
+import com.cong.fishisland.model.entity.user.User;
+import com.cong.fishisland.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 回填头像衍生图
+ * <p>
+ * 一次性任务：衍生图只在上传时生成，之前上传的头像没有缩略图，查询时一直返回原图。
+ * 按用户 ID 分批读取头像地址，属于 COS 或 MinIO 的图片逐个同步生成（已有记录的跳过，可重复执行），
+ * 外部地址的头像忽略。通过 image.derivative.backfill-avatars-on-startup=true 开启，回填完成后关闭即可。
+ *
+ * @author cong
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "image.derivative", name = "backfill-avatars-on-startup", havingValue = "true")
+public class BackfillAvatarVariants {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final UserService userService;
+
+    private final CosManager cosManager;
+
+    private final MinioManager minioManager;
+
+    private final ImageDerivativeManager imageDerivativeManager;
+
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        log.info("开始回填头像衍生图...");
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        List<ObjectStorage> storages = Arrays.asList(cosManager, minioManager);
+        long lastId = 0;
+        int generated = 0;
+        int failed = 0;
+        try {
+            while (true) {
+                List<User> users = userService.lambdaQuery()
+                        .select(User::getId, User::getUserAvatar)
+                        .gt(User::getId, lastId)
+                        .isNotNull(User::getUserAvatar)
+                        .orderByAsc(User::getId)
+                        .last("limit " + BATCH_SIZE)
+                        .list();
+                if (users.isEmpty()) {
+                    break;
+                }
+                for (User user : users) {
+                    for (ObjectStorage storage : storages) {
+                        String prefix = storage.getUrl("");
+                        if (StringUtils.isEmpty(prefix) || !user.getUserAvatar().startsWith(prefix)) {
+                            continue;
+                        }
+                        try {
+                            if (imageDerivativeManager.backfill(storage,
+                                    user.getUserAvatar().substring(prefix.length()))) {
+                                generated++;
+                            }
+                        } catch (Exception e) {
+                            failed++;
+                            log.warn("生成头像衍生图失败，用户 {}，头像 {}", user.getId(), user.getUserAvatar(), e);
+                        }
+                        break;
+                    }
+                }
+                lastId = users.get(users.size() - 1).getId();
+            }
+            stopWatch.stop();
+            log.info("头像衍生图回填完成，生成 {} 个，失败 {} 个，耗时：{}ms", generated, failed,
+                    stopWatch.getTotalTimeMillis());
+        } catch (Exception e) {
+            log.error("头像衍生图回填失败", e);
+        }
+    }
+}
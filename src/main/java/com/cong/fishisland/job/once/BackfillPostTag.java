@@ -0,0 +1,51 @@
+package com.cong.fishisland.job.once;
+
+import cn.hutool.core.date.StopWatch;
+import com.cong.fishisland.mapper.post.PostMapper;
+import com.cong.fishisland.model.entity.post.Post;
+import com.cong.fishisland.service.PostTagService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * 回填帖子标签关联表
+ * <p>
+ * 一次性任务：流式读取 post.tags 写入 post_tag（insert ignore，可重复执行），完成后重建 Redis 标签计数。
+ * 通过 post-tag.backfill-on-startup=true 开启，回填完成后关闭即可。
+ *
+ * @author cong
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "post-tag", name = "backfill-on-startup", havingValue = "true")
+public class BackfillPostTag {
+
+    private final SqlSessionFactory sqlSessionFactory;
+
+    private final PostTagService postTagService;
+
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        log.info("开始回填帖子标签关联...");
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        try (SqlSession sqlSession = sqlSessionFactory.openSession();
+             Cursor<Post> cursor = sqlSession.getMapper(PostMapper.class).streamAllPost()) {
+            long total = postTagService.backfill(cursor);
+            stopWatch.stop();
+            log.info("帖子标签关联回填完成，新增 {} 条，耗时：{}ms", total, stopWatch.getTotalTimeMillis());
+        } catch (Exception e) {
+            log.error("帖子标签关联回填失败", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.cong.fishisland.job.once;
+
+import cn.hutool.core.date.StopWatch;
+import com.cong.fishisland.manager.PostSearchManager;
+import com.cong.fishisland.mapper.post.PostMapper;
+import com.cong.fishisland.model.entity.post.Post;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * 全量构建帖子检索索引
+ * <p>
+ * 应用启动后若索引为空（或配置了强制重建），用 MyBatis 游标流式读取 post 表写入 Lucene，
+ * 构建完成前检索自动走数据库兜底。
+ *
+ * @author cong
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FullSyncPostToIndex {
+
+    private final SqlSessionFactory sqlSessionFactory;
+
+    private final PostSearchManager postSearchManager;
+
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        if (postSearchManager.isReady()) {
+            log.info("帖子检索索引已存在，跳过全量构建");
+            return;
+        }
+        log.info("开始全量构建帖子检索索引...");
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        // 游标需要在同一个会话内消费完
+        try (SqlSession sqlSession = sqlSessionFactory.openSession();
+             Cursor<Post> cursor = sqlSession.getMapper(PostMapper.class).streamAllPost()) {
+            long total = postSearchManager.rebuild(cursor);
+            stopWatch.stop();
+            log.info("帖子检索索引全量构建完成，共 {} 条，耗时：{}ms", total, stopWatch.getTotalTimeMillis());
+        } catch (Exception e) {
+            log.error("帖子检索索引全量构建失败", e);
+        }
+    }
+}
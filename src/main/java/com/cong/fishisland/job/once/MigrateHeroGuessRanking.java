@@ -0,0 +1,66 @@
+package com.cong.fishisland.job.once;
+
+import com.cong.fishisland.constant.LeaderboardConstant;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.manager.LeaderboardManager;
+import com.cong.fishisland.model.enums.LeaderboardPeriodEnum;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 迁移猜英雄排行
+ * <p>
+ * 一次性任务：旧的 guess:hero:ranking 由 JSON 序列化的 RedisTemplate 写入，成员带引号，
+ * 读出后写入排行榜总榜。通过 leaderboard.migrate-hero-guess-on-startup=true 开启，迁移完成后关闭即可。
+ * 迁移成功后写入标记，之后重启不会再用旧数据覆盖总榜上的新分数。
+ *
+ * @author cong
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "leaderboard", name = "migrate-hero-guess-on-startup", havingValue = "true")
+public class MigrateHeroGuessRanking {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final LeaderboardManager leaderboardManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        String migratedKey = RedisKey.getKey(RedisKey.LEADERBOARD_MIGRATED, LeaderboardConstant.HERO_GUESS);
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(migratedKey))) {
+                log.info("猜英雄排行已迁移，跳过");
+                return;
+            }
+            Set<ZSetOperations.TypedTuple<Object>> tuples = redisTemplate.opsForZSet()
+                    .rangeWithScores(RedisKey.GUESS_HERO_RANKING, 0, -1);
+            if (tuples == null || tuples.isEmpty()) {
+                log.info("没有需要迁移的猜英雄排行");
+                return;
+            }
+            Map<String, Double> scores = new HashMap<>(tuples.size() * 2);
+            for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+                if (tuple.getValue() != null && tuple.getScore() != null) {
+                    scores.put(tuple.getValue().toString(), tuple.getScore());
+                }
+            }
+            leaderboardManager.replace(LeaderboardConstant.HERO_GUESS, LeaderboardPeriodEnum.TOTAL, scores);
+            redisTemplate.opsForValue().set(migratedKey, System.currentTimeMillis());
+            log.info("猜英雄排行迁移完成，共 {} 人", scores.size());
+        } catch (Exception e) {
+            log.error("猜英雄排行迁移失败", e);
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package com.cong.fishisland.manager;
+
+import cn.dev33.satoken.stp.StpUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.config.AiGatewayConfig;
+import com.cong.fishisland.model.vo.ai.AiGatewayStatsVO;
+import com.cong.fishisland.model.vo.ai.AiResponse;
+import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
+import com.cong.fishisland.utils.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AI 请求网关
+ * <p>
+ * 所有 AI 数据源的调用都经过这里：
+ * <ul>
+ *     <li>按模型、按用户的令牌桶限流；</li>
+ *     <li>全局并发上限，超出的请求在有界队列中等待，队列满或等待超时立即拒绝；</li>
+ *     <li>相同的请求正在进行时只发一次，其余等待同一结果；</li>
+ *     <li>结果确定的调用按规范化后的提示哈希缓存；</li>
+ *     <li>服务失败时按配置切换到备用服务。</li>
+ * </ul>
+ * 流式回答同样占用并发名额，名额在流结束、出错或被取消时归还，耗时和 token 用量计入对应服务。
+ * 限流和排队只针对本实例发出的请求，保护的是上游配额和本机线程，不依赖 Redis。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+public class AiGatewayManager {
+
+    public static final String SILICON_FLOW = "siliconflow";
+
+    public static final String CHUTES = "chutes";
+
+    public static final String CHUTES_IMAGE = "chutes-image";
+
+    private final AiGatewayConfig aiGatewayConfig;
+
+    private final Map<String, AiProvider> providers = new ConcurrentHashMap<>();
+
+    private final Map<String, AiStreamProvider> streamProviders = new ConcurrentHashMap<>();
+
+    private final Map<String, ProviderMetrics> metrics = new ConcurrentHashMap<>();
+
+    private final Map<String, TokenBucket> modelBuckets = new ConcurrentHashMap<>();
+
+    private final Cache<String, TokenBucket> userBuckets = Caffeine.newBuilder()
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .maximumSize(100_000)
+            .build();
+
+    private final Cache<String, AiResponse> responseCache;
+
+    private final Map<String, CompletableFuture<AiResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Semaphore permits;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder cacheHits = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public AiGatewayManager(AiGatewayConfig aiGatewayConfig) {
+        this.aiGatewayConfig = aiGatewayConfig;
+        this.permits = new Semaphore(aiGatewayConfig.getMaxConcurrent(), true);
+        this.responseCache = Caffeine.newBuilder()
+                .expireAfterWrite(aiGatewayConfig.getCacheSeconds(), TimeUnit.SECONDS)
+                .maximumSize(aiGatewayConfig.getCacheSize())
+                .build();
+    }
+
+    /**
+     * 注册 AI 服务，数据源启动时调用
+     */
+    public void registerProvider(String name, AiProvider provider) {
+        providers.put(name, provider);
+        metrics.computeIfAbsent(name, key -> new ProviderMetrics());
+    }
+
+    /**
+     * 调用 AI 服务
+     *
+     * @param provider  服务名
+     * @param model     模型
+     * @param messages  消息列表
+     * @param cacheable 结果是否确定（可缓存）
+     */
+    public AiResponse chat(String provider, String model, List<SiliconFlowRequest.Message> messages, boolean cacheable) {
+        String key = requestKey(provider, model, messages);
+        if (cacheable) {
+            AiResponse cached = responseCache.getIfPresent(key);
+            if (cached != null) {
+                cacheHits.increment();
+                return cached;
+            }
+        }
+        String userId = currentUserId();
+        if (userId != null) {
+            acquireUser(userId);
+        }
+
+        CompletableFuture<AiResponse> future = new CompletableFuture<>();
+        CompletableFuture<AiResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            // 相同请求正在进行，等待同一结果
+            coalesced.increment();
+            return join(existing);
+        }
+        try {
+            AiResponse response = execute(provider, model, messages);
+            if (cacheable) {
+                responseCache.put(key, response);
+            }
+            future.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 注册流式 AI 服务，数据源启动时调用
+     */
+    public void registerStreamProvider(String name, AiStreamProvider provider) {
+        streamProviders.put(name, provider);
+        metrics.computeIfAbsent(name, key -> new ProviderMetrics());
+    }
+
+    /**
+     * 流式调用 AI 服务
+     * <p>
+     * 限流和排队在订阅时完成（排队会阻塞订阅线程，最长 queueTimeout），拒绝时以 BusinessException 结束；
+     * 每次订阅各自占用一个并发名额，在流结束、出错或被取消时归还，未订阅的 Flux 不消耗令牌和名额。
+     * 尚未输出任何内容就失败时按配置切换到备用服务。
+     *
+     * @param provider 服务名
+     * @param model    模型
+     * @param userId   用户 ID，为空时不按用户限流
+     * @param messages 消息列表
+     * @return 回答内容增量
+     */
+    public Flux<String> stream(String provider, String model, String userId, List<SiliconFlowRequest.Message> messages) {
+        // 获取名额失败时抛出的异常由 defer 转为错误信号，此时尚未挂上归还逻辑，不会多还名额
+        return Flux.defer(() -> {
+            if (StringUtils.isNotBlank(userId)) {
+                acquireUser(userId);
+            }
+            acquireModel(model);
+            acquirePermit();
+            AtomicBoolean released = new AtomicBoolean();
+            AtomicBoolean emitted = new AtomicBoolean();
+            return streamCall(provider, model, messages)
+                    .doOnNext(chunk -> {
+                        if (StringUtils.isNotEmpty(chunk.getAnswer())) {
+                            emitted.set(true);
+                        }
+                    })
+                    .onErrorResume(e -> emitted.get() ? Flux.error(e) : streamFallback(provider, model, messages, e))
+                    .map(AiResponse::getAnswer)
+                    .filter(StringUtils::isNotEmpty)
+                    // 在结束信号传给下游之前归还，调用方看到结束时统计已经更新
+                    .doOnTerminate(() -> release(released))
+                    .doOnCancel(() -> release(released));
+        });
+    }
+
+    public AiGatewayStatsVO stats() {
+        AiGatewayStatsVO statsVO = new AiGatewayStatsVO();
+        statsVO.setInFlight(aiGatewayConfig.getMaxConcurrent() - permits.availablePermits());
+        statsVO.setQueueDepth(waiting.get());
+        statsVO.setCacheHits(cacheHits.sum());
+        statsVO.setCoalesced(coalesced.sum());
+        statsVO.setRejected(rejected.sum());
+        List<AiGatewayStatsVO.ProviderStats> providerStatsList = new ArrayList<>();
+        metrics.forEach((name, providerMetrics) -> providerStatsList.add(providerMetrics.toStats(name)));
+        statsVO.setProviders(providerStatsList);
+        return statsVO;
+    }
+
+    private AiResponse execute(String provider, String model, List<SiliconFlowRequest.Message> messages) {
+        acquireModel(model);
+        acquirePermit();
+        try {
+            try {
+                return call(provider, model, messages);
+            } catch (Exception e) {
+                String fallback = aiGatewayConfig.getFallbacks().get(provider);
+                if (fallback == null) {
+                    throw e;
+                }
+                String fallbackProvider = StringUtils.substringBefore(fallback, ":");
+                String fallbackModel = StringUtils.defaultIfBlank(StringUtils.substringAfter(fallback, ":"), model);
+                if (!providers.containsKey(fallbackProvider) || !tryAcquireModel(fallbackModel)) {
+                    throw e;
+                }
+                log.warn("AI 服务【{}】调用失败，切换到【{}】：{}", provider, fallbackProvider, e.getMessage());
+                metrics.get(provider).fallbacks.increment();
+                return call(fallbackProvider, fallbackModel, messages);
+            }
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "AI 请求失败：" + e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+
+    private AiResponse call(String provider, String model, List<SiliconFlowRequest.Message> messages) throws Exception {
+        AiProvider aiProvider = providers.get(provider);
+        if (aiProvider == null) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "AI 服务未注册：" + provider);
+        }
+        ProviderMetrics providerMetrics = metrics.get(provider);
+        long start = System.nanoTime();
+        try {
+            AiResponse response = aiProvider.chat(messages, model);
+            providerMetrics.record(System.nanoTime() - start, response);
+            return response;
+        } catch (Exception e) {
+            providerMetrics.failures.increment();
+            providerMetrics.record(System.nanoTime() - start, null);
+            throw e;
+        }
+    }
+
+    private Flux<AiResponse> streamFallback(String provider, String model, List<SiliconFlowRequest.Message> messages,
+                                            Throwable error) {
+        String fallback = aiGatewayConfig.getFallbacks().get(provider);
+        if (fallback == null) {
+            return Flux.error(error);
+        }
+        String fallbackProvider = StringUtils.substringBefore(fallback, ":");
+        String fallbackModel = StringUtils.defaultIfBlank(StringUtils.substringAfter(fallback, ":"), model);
+        if (!streamProviders.containsKey(fallbackProvider) || !tryAcquireModel(fallbackModel)) {
+            return Flux.error(error);
+        }
+        log.warn("AI 服务【{}】流式调用失败，切换到【{}】：{}", provider, fallbackProvider, error.getMessage());
+        metrics.get(provider).fallbacks.increment();
+        return streamCall(fallbackProvider, fallbackModel, messages);
+    }
+
+    private Flux<AiResponse> streamCall(String provider, String model, List<SiliconFlowRequest.Message> messages) {
+        AiStreamProvider aiStreamProvider = streamProviders.get(provider);
+        if (aiStreamProvider == null) {
+            return Flux.error(new BusinessException(ErrorCode.SYSTEM_ERROR, "AI 服务未注册：" + provider));
+        }
+        ProviderMetrics providerMetrics = metrics.get(provider);
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            // 用量在最后一段返回，结束时与耗时一起记录
+            AiResponse usage = new AiResponse();
+            return aiStreamProvider.stream(messages, model)
+                    .doOnNext(chunk -> {
+                        if (chunk.getPromptTokens() != null) {
+                            usage.setPromptTokens(chunk.getPromptTokens());
+                        }
+                        if (chunk.getCompletionTokens() != null) {
+                            usage.setCompletionTokens(chunk.getCompletionTokens());
+                        }
+                    })
+                    .doOnError(e -> providerMetrics.failures.increment())
+                    .doOnTerminate(() -> providerMetrics.record(System.nanoTime() - start, usage))
+                    .doOnCancel(() -> providerMetrics.record(System.nanoTime() - start, usage));
+        });
+    }
+
+    private void release(AtomicBoolean released) {
+        if (released.compareAndSet(false, true)) {
+            permits.release();
+        }
+    }
+
+    private void acquirePermit() {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > aiGatewayConfig.getMaxQueue()) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new BusinessException(ErrorCode.REPEAT_SUBMIT_ERROR, "AI 服务繁忙，请稍后再试");
+        }
+        try {
+            if (!permits.tryAcquire(aiGatewayConfig.getQueueTimeout(), TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new BusinessException(ErrorCode.REPEAT_SUBMIT_ERROR, "AI 服务繁忙，请稍后再试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "AI 请求被中断");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private void acquireModel(String model) {
+        if (!tryAcquireModel(model)) {
+            rejected.increment();
+            throw new BusinessException(ErrorCode.REPEAT_SUBMIT_ERROR, "AI 模型请求过于频繁，请稍后再试");
+        }
+    }
+
+    private boolean tryAcquireModel(String model) {
+        return modelBuckets.computeIfAbsent(model, key -> new TokenBucket(aiGatewayConfig.getModelPermits()
+                .getOrDefault(key, aiGatewayConfig.getModelPermitsPerMinute()))).tryAcquire();
+    }
+
+    private void acquireUser(String userId) {
+        TokenBucket bucket = userBuckets.get(userId, key -> new TokenBucket(aiGatewayConfig.getUserPermitsPerMinute()));
+        if (!bucket.tryAcquire()) {
+            rejected.increment();
+            throw new BusinessException(ErrorCode.REPEAT_SUBMIT_ERROR, "提问过于频繁，请稍后再试");
+        }
+    }
+
+    private static AiResponse join(CompletableFuture<AiResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                throw (BusinessException) e.getCause();
+            }
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "AI 请求失败：" + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 当前登录用户，不在 Web 请求中（如 WebSocket 监听器）时为空
+     */
+    private static String currentUserId() {
+        try {
+            Object loginId = StpUtil.getLoginIdDefaultNull();
+            return loginId == null ? null : loginId.toString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 请求键：服务、模型和规范化后的消息（去掉首尾空白、合并连续空白）
+     */
+    static String requestKey(String provider, String model, List<SiliconFlowRequest.Message> messages) {
+        StringBuilder builder = new StringBuilder(provider).append('\n').append(model);
+        for (SiliconFlowRequest.Message message : messages) {
+            builder.append('\n').append(message.getRole()).append(':')
+                    .append(StringUtils.normalizeSpace(message.getContent()));
+        }
+        return DigestUtil.md5Hex(builder.toString());
+    }
+
+    /**
+     * AI 服务调用
+     */
+    @FunctionalInterface
+    public interface AiProvider {
+
+        AiResponse chat(List<SiliconFlowRequest.Message> messages, String model) throws Exception;
+    }
+
+    /**
+     * 流式 AI 服务调用
+     */
+    @FunctionalInterface
+    public interface AiStreamProvider {
+
+        /**
+         * @return 回答内容增量，带用量的一段填充 promptTokens、completionTokens
+         */
+        Flux<AiResponse> stream(List<SiliconFlowRequest.Message> messages, String model);
+    }
+
+    private static class ProviderMetrics {
+
+        private final LongAdder calls = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder fallbacks = new LongAdder();
+
+        private final LongAdder latencyNanos = new LongAdder();
+
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        private final LongAdder promptTokens = new LongAdder();
+
+        private final LongAdder completionTokens = new LongAdder();
+
+        private void record(long latency, AiResponse response) {
+            calls.increment();
+            latencyNanos.add(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            if (response != null) {
+                if (response.getPromptTokens() != null) {
+                    promptTokens.add(response.getPromptTokens());
+                }
+                if (response.getCompletionTokens() != null) {
+                    completionTokens.add(response.getCompletionTokens());
+                }
+            }
+        }
+
+        private AiGatewayStatsVO.ProviderStats toStats(String name) {
+            AiGatewayStatsVO.ProviderStats stats = new AiGatewayStatsVO.ProviderStats();
+            long callCount = calls.sum();
+            stats.setName(name);
+            stats.setCalls(callCount);
+            stats.setFailures(failures.sum());
+            stats.setFallbacks(fallbacks.sum());
+            stats.setAvgLatencyMillis(callCount == 0 ? 0 : latencyNanos.sum() / callCount / 1_000_000);
+            stats.setMaxLatencyMillis(maxLatencyNanos.get() / 1_000_000);
+            stats.setPromptTokens(promptTokens.sum());
+            stats.setCompletionTokens(completionTokens.sum());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.json.JSONUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.model.vo.ai.AiResponse;
+import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 流式 AI 对话
+ * <p>
+ * 以 stream=true 调用 OpenAI 兼容的 /chat/completions，按 SSE 逐段返回回答内容。
+ * 请求时带上 stream_options.include_usage，服务端在最后一段返回 token 用量。
+ * 基于 WebClient，等待模型输出期间不占用线程。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+public class AiStreamManager {
+
+    private static final String DONE = "[DONE]";
+
+    /**
+     * 两段输出之间的最长等待时间
+     */
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<ServerSentEvent<String>>() {
+            };
+
+    private final WebClient webClient;
+
+    public AiStreamManager(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    /**
+     * 流式对话
+     *
+     * @param baseUrl  接口地址，不含 /chat/completions
+     * @param authorization Authorization 请求头，如 Bearer xxx
+     * @param messages 消息列表
+     * @param model    模型
+     * @return 回答内容增量，收到 [DONE] 或连接关闭时结束
+     */
+    public Flux<String> streamChat(String baseUrl, String authorization, List<SiliconFlowRequest.Message> messages,
+                                   String model) {
+        return streamChunks(baseUrl, authorization, messages, model)
+                .map(AiResponse::getAnswer)
+                .filter(delta -> !delta.isEmpty());
+    }
+
+    /**
+     * 流式对话，保留 token 用量
+     *
+     * @return 每段的 answer 为回答内容增量（可能为空串），带用量的一段会填充 promptTokens、completionTokens
+     */
+    public Flux<AiResponse> streamChunks(String baseUrl, String authorization, List<SiliconFlowRequest.Message> messages,
+                                         String model) {
+        SiliconFlowRequest request = new SiliconFlowRequest();
+        request.setModel(model);
+        request.setMessages(messages);
+        request.setStream(true);
+        request.setStream_options(Collections.singletonMap("include_usage", true));
+        return webClient.post()
+                .uri(baseUrl + "/chat/completions")
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(JSONUtil.toJsonStr(request))
+                .retrieve()
+                .onStatus(status -> !status.is2xxSuccessful(), response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(body -> new BusinessException(ErrorCode.OPERATION_ERROR,
+                                "AI 请求失败，HTTP Status: " + response.rawStatusCode() + "，Body: " + body)))
+                .bodyToFlux(SSE_TYPE)
+                .timeout(IDLE_TIMEOUT)
+                .map(event -> event.data() == null ? "" : event.data().trim())
+                .takeWhile(data -> !DONE.equals(data))
+                .map(AiStreamManager::parseChunk);
+    }
+
+    /**
+     * 把增量按时间窗口合并，每个窗口最多输出一段，避免逐字推送
+     */
+    public static Flux<String> coalesce(Flux<String> deltas, Duration window) {
+        return deltas.buffer(window)
+                .filter(chunks -> !chunks.isEmpty())
+                .map(chunks -> String.join("", chunks));
+    }
+
+    private static AiResponse parseChunk(String data) {
+        AiResponse chunk = AiResponse.builder().answer("").build();
+        if (data.isEmpty()) {
+            return chunk;
+        }
+        try {
+            JSONObject json = JSON.parseObject(data);
+            JSONArray choices = json.getJSONArray("choices");
+            if (choices != null && !choices.isEmpty()) {
+                JSONObject delta = choices.getJSONObject(0).getJSONObject("delta");
+                String content = delta == null ? null : delta.getString("content");
+                chunk.setAnswer(content == null ? "" : content);
+            }
+            JSONObject usage = json.getJSONObject("usage");
+            if (usage != null) {
+                chunk.setPromptTokens(usage.getInteger("prompt_tokens"));
+                chunk.setCompletionTokens(usage.getInteger("completion_tokens"));
+            }
+        } catch (Exception e) {
+            log.warn("无法解析 AI 流式响应：{}", data, e);
+        }
+        return chunk;
+    }
+}
@@ -2,13 +2,24 @@ package com.cong.fishisland.manager;
 
 import cn.dev33.satoken.stp.StpUtil;
 import com.alibaba.fastjson.JSONObject;
+import com.cong.fishisland.constant.FileConstant;
 import com.cong.fishisland.model.vo.file.CosCredentialVo;
 import com.qcloud.cos.COSClient;
+import com.qcloud.cos.model.AbortMultipartUploadRequest;
+import com.qcloud.cos.model.CompleteMultipartUploadRequest;
+import com.qcloud.cos.model.InitiateMultipartUploadRequest;
+import com.qcloud.cos.model.ObjectMetadata;
+import com.qcloud.cos.model.PartETag;
 import com.qcloud.cos.model.PutObjectRequest;
 import com.qcloud.cos.model.PutObjectResult;
+import com.qcloud.cos.model.UploadPartRequest;
 import com.cong.fishisland.config.CosClientConfig;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeMap;
 import java.util.UUID;
 import javax.annotation.Resource;
@@ -16,6 +27,7 @@ import javax.annotation.Resource;
 import com.tencent.cloud.CosStsClient;
 import com.tencent.cloud.Response;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
@@ -24,7 +36,9 @@ import org.springframework.stereotype.Component;
  */
 @Slf4j
 @Component
-public class CosManager {
+public class CosManager implements ObjectStorage {
+
+    public static final String STORAGE_NAME = "cos";
 
     @Resource
     private CosClientConfig cosClientConfig;
@@ -32,6 +46,23 @@ public class CosManager {
     @Resource
     private COSClient cosClient;
 
+    /**
+     * 临时密钥有效时长（秒）
+     */
+    private static final int CREDENTIAL_DURATION_SECONDS = 1800;
+
+    /**
+     * 剩余有效期低于该值时后台刷新（秒）
+     */
+    private static final long CREDENTIAL_REFRESH_BEFORE_SECONDS = 600;
+
+    /**
+     * 返回给客户端的密钥至少保留的有效期（秒），不足时同步获取新密钥
+     */
+    private static final long CREDENTIAL_MIN_REMAINING_SECONDS = 300;
+
+    private volatile Response credential;
+
     /**
      * 上传对象
      *
@@ -58,8 +89,78 @@ public class CosManager {
         return cosClient.putObject(putObjectRequest);
     }
 
+    @Override
+    public String name() {
+        return STORAGE_NAME;
+    }
+
+    @Override
+    public void putObject(String key, byte[] data, int length, String contentType) {
+        ObjectMetadata metadata = metadata(contentType);
+        metadata.setContentLength(length);
+        cosClient.putObject(cosClientConfig.getBucket(), key, new ByteArrayInputStream(data, 0, length), metadata);
+    }
+
+    @Override
+    public String initiateMultipartUpload(String key, String contentType) {
+        InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(cosClientConfig.getBucket(), key,
+                metadata(contentType));
+        return cosClient.initiateMultipartUpload(request).getUploadId();
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, byte[] data, int length) {
+        UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(cosClientConfig.getBucket())
+                .withKey(key)
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withInputStream(new ByteArrayInputStream(data, 0, length))
+                .withPartSize(length);
+        return cosClient.uploadPart(request).getETag();
+    }
+
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, List<String> etags) {
+        List<PartETag> partETags = new ArrayList<>(etags.size());
+        for (int i = 0; i < etags.size(); i++) {
+            partETags.add(new PartETag(i + 1, etags.get(i)));
+        }
+        cosClient.completeMultipartUpload(new CompleteMultipartUploadRequest(cosClientConfig.getBucket(), key,
+                uploadId, partETags));
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        cosClient.abortMultipartUpload(new AbortMultipartUploadRequest(cosClientConfig.getBucket(), key, uploadId));
+    }
+
+    @Override
+    public InputStream getObject(String key) {
+        return cosClient.getObject(cosClientConfig.getBucket(), key).getObjectContent();
+    }
+
+    @Override
+    public void removeObject(String key) {
+        cosClient.deleteObject(cosClientConfig.getBucket(), key);
+    }
+
+    @Override
+    public String getUrl(String key) {
+        return FileConstant.COS_HOST + key;
+    }
+
+    private static ObjectMetadata metadata(String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (contentType != null) {
+            metadata.setContentType(contentType);
+        }
+        return metadata;
+    }
+
     /**
      * 获取凭证
+     * 临时密钥对所有用户的权限相同，缓存后共用，到期前由后台任务提前刷新
      *
      * @return {@link Response }
      */
@@ -67,6 +168,50 @@ public class CosManager {
         if (!StpUtil.isLogin()) {
             return null;
         }
+        Response response = credential();
+        log.info("用户临时密钥获取成功，用户 ID：{}", StpUtil.getLoginId());
+
+        return CosCredentialVo.builder()
+                .response(response)
+                .key("fishMessage/" + UUID.randomUUID() + "_" + fileName)
+                .region(cosClientConfig.getRegion())
+                .bucket(cosClientConfig.getBucket())
+                .build();
+    }
+
+    /**
+     * 剩余有效期不足时提前刷新临时密钥，只刷新已经使用过的密钥
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void refreshCredential() {
+        Response cached = credential;
+        if (cached == null || remainingSeconds(cached) > CREDENTIAL_REFRESH_BEFORE_SECONDS) {
+            return;
+        }
+        try {
+            credential = requestCredential();
+        } catch (Exception e) {
+            // 刷新失败时继续使用旧密钥，剩余有效期不足时由请求同步获取
+            log.error("刷新临时密钥失败，原因：{}", e.getMessage());
+        }
+    }
+
+    private Response credential() {
+        Response cached = credential;
+        if (cached != null && remainingSeconds(cached) > CREDENTIAL_MIN_REMAINING_SECONDS) {
+            return cached;
+        }
+        synchronized (this) {
+            cached = credential;
+            if (cached == null || remainingSeconds(cached) <= CREDENTIAL_MIN_REMAINING_SECONDS) {
+                cached = requestCredential();
+                credential = cached;
+            }
+            return cached;
+        }
+    }
+
+    private Response requestCredential() {
         TreeMap<String, Object> config = new TreeMap<>();
         try {
             // 云 api 密钥 SecretId
@@ -77,7 +222,7 @@ public class CosManager {
             // 5MB
             config.put("numeric_less_than", new JSONObject().put("cos:contentLength", 5 * 1024 * 1024));
             // 临时密钥有效时长，单位是秒
-            config.put("durationSeconds", 1800);
+            config.put("durationSeconds", CREDENTIAL_DURATION_SECONDS);
 
             // 换成你的 bucket
             config.put("bucket", cosClientConfig.getBucket());
@@ -103,19 +248,15 @@ public class CosManager {
             };
             config.put("allowActions", allowActions);
 
-            Response response = CosStsClient.getCredential(config);
-            log.info("用户临时密钥获取成功，用户 ID：{}", StpUtil.getLoginId());
-
-            return CosCredentialVo.builder()
-                    .response(response)
-                    .key("fishMessage/" + UUID.randomUUID() + "_" + fileName)
-                    .region(cosClientConfig.getRegion())
-                    .bucket(cosClientConfig.getBucket())
-                    .build();
+            return CosStsClient.getCredential(config);
         } catch (Exception e) {
             log.error("获取临时密钥失败，原因：{}", e.getMessage());
             throw new IllegalArgumentException("no valid secret !");
         }
     }
 
+    private static long remainingSeconds(Response response) {
+        return response.expiredTime - System.currentTimeMillis() / 1000;
+    }
+
 }
@@ -1,66 +1,83 @@
 package com.cong.fishisland.manager;
 
-import com.cong.fishisland.datasource.hostpost.*;
-import com.cong.fishisland.model.enums.HotDataKeyEnum;
-import lombok.RequiredArgsConstructor;
+import com.cong.fishisland.annotation.HotDataSource;
+import com.cong.fishisland.config.HotPostCrawlConfig;
+import com.cong.fishisland.datasource.hostpost.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
 
-import javax.annotation.PostConstruct;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * 数据源注册表
+ * <p>
+ * 自动发现所有 DataSource Bean，按实现类上的 {@link HotDataSource} 描述注册；
+ * 新接入数据源只需实现 DataSource 并标注描述，无需修改这里。
  *
  * @author 86188
  * @date 2023/03/20
  */
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class DataSourceRegistry {
 
+    private final Map<String, DataSource> typeDataSourceMap = new LinkedHashMap<>();
 
-    private Map<String, DataSource> typeDataSourceMap;
+    private final Map<String, HotDataSource> typeDescriptorMap = new LinkedHashMap<>();
 
-    private final ZhiHuDataSource zhiHuDataSource;
-    private final WeiBoDataSource weiBoDataSource;
-    private final CodeFatherDataSource codeFatherDataSource;
-    private final BiliBiliDataSource bilibiliDataSource;
-    private final HuPuStreetDataSource huPuStreetDataSource;
-    private final DouYinDataSource douYinDataSource;
-    private final WYCloudDataSource wyCloudDataSource;
-    private final CsdnDataSource csdnDataSource;
-    private final JueJinDataSource jueJinDataSource;
-    private final SmzdmDataSource smzdmDataSource;
-    private final ZhiBo8DataSource zhiBo8DataSource;
-    private final TieBaDataSource tieBaDataSource;
-    private final QQMusicDataSource qqMusicDataSource;
+    private final HotPostCrawlConfig hotPostCrawlConfig;
 
+    public DataSourceRegistry(List<DataSource> dataSources, HotPostCrawlConfig hotPostCrawlConfig) {
+        this.hotPostCrawlConfig = hotPostCrawlConfig;
+        for (DataSource dataSource : dataSources) {
+            Class<?> targetClass = AopUtils.getTargetClass(dataSource);
+            HotDataSource descriptor = AnnotationUtils.findAnnotation(targetClass, HotDataSource.class);
+            if (descriptor == null) {
+                throw new IllegalStateException("数据源未声明 @HotDataSource：" + targetClass.getName());
+            }
+            String type = descriptor.key().getValue();
+            DataSource existing = typeDataSourceMap.putIfAbsent(type, dataSource);
+            if (existing != null) {
+                throw new IllegalStateException("热榜类型重复：" + type + "，" + targetClass.getName()
+                        + " 与 " + AopUtils.getTargetClass(existing).getName());
+            }
+            typeDescriptorMap.put(type, descriptor);
+        }
+        log.info("已注册热榜数据源：{}", typeDataSourceMap.keySet());
+    }
+
+    public DataSource getDataSourceByType(String type) {
+        return typeDataSourceMap.get(type);
+    }
 
-    @PostConstruct
-    public void doInit() {
-        typeDataSourceMap = new HashMap<String, DataSource>() {{
-            put(HotDataKeyEnum.ZHI_HU.getValue(), zhiHuDataSource);
-            put(HotDataKeyEnum.WEI_BO.getValue(), weiBoDataSource);
-            put(HotDataKeyEnum.CODE_FATHER.getValue(), codeFatherDataSource);
-            put(HotDataKeyEnum.BILI_BILI.getValue(), bilibiliDataSource);
-            put(HotDataKeyEnum.HU_PU_STREET.getValue(), huPuStreetDataSource);
-            put(HotDataKeyEnum.WY_CLOUD_MUSIC.getValue(), wyCloudDataSource);
-            put(HotDataKeyEnum.DOU_YIN.getValue(), douYinDataSource);
-            put(HotDataKeyEnum.CS_DN.getValue(), csdnDataSource);
-            put(HotDataKeyEnum.JUE_JIN.getValue(), jueJinDataSource);
-            put(HotDataKeyEnum.SM_ZDM.getValue(), smzdmDataSource);
-            put(HotDataKeyEnum.ZHI_BO_8.getValue(), zhiBo8DataSource);
-            put(HotDataKeyEnum.TIE_BA.getValue(), tieBaDataSource);
-            put(HotDataKeyEnum.QQ_MUSIC.getValue(), qqMusicDataSource);
-        }};
+    public HotDataSource getDescriptor(String type) {
+        return typeDescriptorMap.get(type);
     }
 
+    /**
+     * 已注册的热榜类型
+     */
+    public List<String> getTypes() {
+        return new ArrayList<>(typeDataSourceMap.keySet());
+    }
 
-    public DataSource getDataSourceByType(String type) {
-        if (typeDataSourceMap == null) {
-            return null;
+    /**
+     * 时间预算：配置的 source-timeouts 优先，其次是描述中声明的值，最后是默认值
+     */
+    public long getTimeout(String type) {
+        Long configured = hotPostCrawlConfig.getSourceTimeouts().get(type);
+        if (configured != null) {
+            return configured;
         }
-        return typeDataSourceMap.get(type);
+        HotDataSource descriptor = typeDescriptorMap.get(type);
+        if (descriptor != null && descriptor.timeout() > 0) {
+            return descriptor.timeout();
+        }
+        return hotPostCrawlConfig.getSourceTimeout();
     }
-}
\ No newline at end of file
+}
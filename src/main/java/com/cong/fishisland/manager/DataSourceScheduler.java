@@ -0,0 +1,251 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.annotation.HotDataSource;
+import com.cong.fishisland.config.HotPostCrawlConfig;
+import com.cong.fishisland.model.vo.hot.DataSourceHealthVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 热榜数据源调度
+ * <p>
+ * 每个数据源按自己的更新间隔调度，下次执行时间带随机抖动，放在按时间排序的优先队列里；
+ * 失败后按指数退避重试，连续失败达到阈值后熔断，熔断到期放行一次试探，试探失败熔断时长翻倍，
+ * 长期不可用的数据源因此几乎不再占用抓取线程。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+public class DataSourceScheduler {
+
+    private static final int LATENCY_SAMPLES = 128;
+
+    private static final int MAX_SHIFT = 20;
+
+    private final HotPostCrawlConfig hotPostCrawlConfig;
+
+    private final DataSourceRegistry dataSourceRegistry;
+
+    private final Map<String, SourceState> states = new LinkedHashMap<>();
+
+    /**
+     * 等待执行的数据源，执行中的不在队列里
+     */
+    private final PriorityQueue<SourceState> queue = new PriorityQueue<>(
+            Comparator.comparingLong((SourceState state) -> state.nextRunTime)
+                    .thenComparing(state -> -state.priority));
+
+    public DataSourceScheduler(DataSourceRegistry dataSourceRegistry, HotPostCrawlConfig hotPostCrawlConfig) {
+        this.dataSourceRegistry = dataSourceRegistry;
+        this.hotPostCrawlConfig = hotPostCrawlConfig;
+        for (String type : dataSourceRegistry.getTypes()) {
+            HotDataSource descriptor = dataSourceRegistry.getDescriptor(type);
+            long intervalMillis = descriptor.interval().getValue()
+                    .multiply(BigDecimal.valueOf(TimeUnit.HOURS.toMillis(1))).longValue();
+            SourceState state = new SourceState(type, intervalMillis, descriptor.priority());
+            states.put(type, state);
+            queue.add(state);
+        }
+    }
+
+    /**
+     * 按上次入库时间校准下次执行时间，避免重启后所有榜单立即重抓
+     */
+    public synchronized void seed(String type, long lastSuccessTime) {
+        SourceState state = states.get(type);
+        if (state == null || state.running) {
+            return;
+        }
+        queue.remove(state);
+        state.lastSuccessTime = lastSuccessTime;
+        state.nextRunTime = lastSuccessTime + state.intervalMillis;
+        queue.add(state);
+    }
+
+    /**
+     * 取出所有到期的数据源并标记为执行中，按优先级从高到低
+     */
+    public synchronized List<String> pollDue(long now) {
+        List<SourceState> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().nextRunTime <= now) {
+            SourceState state = queue.poll();
+            if (state.circuit == CircuitState.OPEN) {
+                state.circuit = CircuitState.HALF_OPEN;
+            }
+            state.running = true;
+            due.add(state);
+        }
+        due.sort(Comparator.comparingInt((SourceState state) -> state.priority).reversed());
+        return due.stream().map(state -> state.type).collect(Collectors.toList());
+    }
+
+    public synchronized void onSuccess(String type, long latencyMillis, long now) {
+        SourceState state = states.get(type);
+        state.recordLatency(latencyMillis);
+        state.totalRuns++;
+        state.lastSuccessTime = now;
+        state.consecutiveFailures = 0;
+        state.openCount = 0;
+        if (state.circuit != CircuitState.CLOSED) {
+            log.info("热榜数据源【{}】恢复", type);
+        }
+        state.circuit = CircuitState.CLOSED;
+        schedule(state, now + jitter(state.intervalMillis));
+    }
+
+    public synchronized void onFailure(String type, long latencyMillis, String error, long now) {
+        SourceState state = states.get(type);
+        state.recordLatency(latencyMillis);
+        state.totalRuns++;
+        state.totalFailures++;
+        state.consecutiveFailures++;
+        state.lastFailureTime = now;
+        state.lastError = error;
+        long delay;
+        if (state.circuit == CircuitState.HALF_OPEN
+                || state.consecutiveFailures >= hotPostCrawlConfig.getFailureThreshold()) {
+            delay = Math.min(hotPostCrawlConfig.getOpenDuration() << Math.min(state.openCount, MAX_SHIFT),
+                    hotPostCrawlConfig.getOpenDurationMax());
+            state.openCount++;
+            state.circuit = CircuitState.OPEN;
+            log.warn("热榜数据源【{}】连续失败 {} 次，熔断 {} 分钟", type, state.consecutiveFailures,
+                    TimeUnit.MILLISECONDS.toMinutes(delay));
+        } else {
+            delay = Math.min(hotPostCrawlConfig.getBackoffBase() << Math.min(state.consecutiveFailures - 1, MAX_SHIFT),
+                    hotPostCrawlConfig.getBackoffMax());
+        }
+        schedule(state, now + jitter(delay));
+    }
+
+    /**
+     * 各数据源健康状况
+     */
+    public synchronized List<DataSourceHealthVO> health() {
+        List<DataSourceHealthVO> healthList = new ArrayList<>(states.size());
+        for (SourceState state : states.values()) {
+            DataSourceHealthVO healthVO = new DataSourceHealthVO();
+            healthVO.setType(state.type);
+            healthVO.setTypeName(dataSourceRegistry.getDescriptor(state.type).key().getText());
+            healthVO.setCircuit(state.circuit.name());
+            healthVO.setRunning(state.running);
+            healthVO.setConsecutiveFailures(state.consecutiveFailures);
+            healthVO.setTotalRuns(state.totalRuns);
+            healthVO.setTotalFailures(state.totalFailures);
+            healthVO.setLastSuccessTime(state.lastSuccessTime > 0 ? new Date(state.lastSuccessTime) : null);
+            healthVO.setLastFailureTime(state.lastFailureTime > 0 ? new Date(state.lastFailureTime) : null);
+            healthVO.setLastError(state.lastError);
+            healthVO.setNextRunTime(state.running ? null : new Date(state.nextRunTime));
+            long[] latencies = state.sortedLatencies();
+            if (latencies.length > 0) {
+                healthVO.setLatencyP50(percentile(latencies, 0.5));
+                healthVO.setLatencyP95(percentile(latencies, 0.95));
+                healthVO.setLatencyP99(percentile(latencies, 0.99));
+            }
+            healthList.add(healthVO);
+        }
+        return healthList;
+    }
+
+    private void schedule(SourceState state, long nextRunTime) {
+        state.running = false;
+        state.nextRunTime = nextRunTime;
+        queue.add(state);
+    }
+
+    private long jitter(long delay) {
+        double ratio = hotPostCrawlConfig.getJitterRatio();
+        if (ratio <= 0) {
+            return delay;
+        }
+        return (long) (delay * (1 + ThreadLocalRandom.current().nextDouble(-ratio, ratio)));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private enum CircuitState {
+        /**
+         * 正常调度
+         */
+        CLOSED,
+        /**
+         * 熔断中，等待到期
+         */
+        OPEN,
+        /**
+         * 熔断到期后的试探
+         */
+        HALF_OPEN
+    }
+
+    private static class SourceState {
+
+        private final String type;
+
+        private final long intervalMillis;
+
+        private final int priority;
+
+        private long nextRunTime;
+
+        private boolean running;
+
+        private CircuitState circuit = CircuitState.CLOSED;
+
+        private int consecutiveFailures;
+
+        /**
+         * 连续熔断次数，决定下次熔断时长
+         */
+        private int openCount;
+
+        private long totalRuns;
+
+        private long totalFailures;
+
+        private long lastSuccessTime;
+
+        private long lastFailureTime;
+
+        private String lastError;
+
+        /**
+         * 最近的耗时样本（环形缓冲）
+         */
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+
+        private int latencyCount;
+
+        private SourceState(String type, long intervalMillis, int priority) {
+            this.type = type;
+            this.intervalMillis = intervalMillis;
+            this.priority = priority;
+        }
+
+        private void recordLatency(long latencyMillis) {
+            latencies[latencyCount % LATENCY_SAMPLES] = latencyMillis;
+            latencyCount++;
+        }
+
+        private long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, Math.min(latencyCount, LATENCY_SAMPLES));
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
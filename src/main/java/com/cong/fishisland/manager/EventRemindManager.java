@@ -0,0 +1,362 @@
+package com.cong.fishisland.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.cong.fishisland.config.EventRemindConfig;
+import com.cong.fishisland.constant.ActionTypeConstant;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.constant.SourceTypeConstant;
+import com.cong.fishisland.mapper.event.EventRemindMapper;
+import com.cong.fishisland.model.entity.event.EventRemind;
+import com.cong.fishisland.model.enums.MessageTypeEnum;
+import com.cong.fishisland.model.vo.event.EventRemindNoticeVO;
+import com.cong.fishisland.model.vo.event.EventRemindPushVO;
+import com.cong.fishisland.model.ws.response.WSBaseResp;
+import com.cong.fishisland.websocket.service.WebSocketService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 事件提醒的去重、未读数和实时推送
+ * <p>
+ * 去重：每个事件源一个 Redis 集合记录已触发过提醒的操作者，代替每次 COUNT 查询；集合过期后从数据库重新加载。
+ * 未读数：每个用户一个 Redis 哈希（动作 -> 数量），写库后递增、已读后递减；不存在时从数据库统计一次，
+ * 统计期间跳过了调整（哈希尚不存在）时不写入结果，下次读取重新统计，避免丢失这期间的提醒。
+ * 推送：只推给连接在当前节点的用户，同一用户两次推送至少间隔 push-interval-millis，期间同一事件源的提醒合并为一条。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventRemindManager {
+
+    /**
+     * 未读数合计字段
+     */
+    public static final String UNREAD_TOTAL = "total";
+
+    /**
+     * 已从数据库加载的标记，没有操作者的事件源也能与“未加载”区分
+     */
+    private static final String LOADED_MARKER = "-";
+
+    /**
+     * 每条合并提醒保留的操作者数
+     */
+    private static final int MAX_NOTICE_SENDERS = 3;
+
+    /**
+     * 跳过调整次数的保留时间（秒），只需长于一次统计查询
+     */
+    private static final long UNREAD_MISSED_SECONDS = 60;
+
+    /**
+     * 记录操作者：集合未加载返回 -1，新操作者返回 1，已存在返回 0
+     */
+    private static final RedisScript<Long> ADD_SENDER_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end\n" +
+                    "local added = redis.call('SADD', KEYS[1], ARGV[1])\n" +
+                    "redis.call('EXPIRE', KEYS[1], ARGV[2])\n" +
+                    "return added",
+            Long.class);
+
+    /**
+     * 调整未读数（ARGV 为 跳过次数保留时间, 字段, 增量, ...），结果不小于 0；
+     * 未统计过的用户不调整，只记录跳过次数（KEYS[2]）
+     */
+    private static final RedisScript<Long> ADJUST_UNREAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then\n" +
+                    "  redis.call('INCR', KEYS[2])\n" +
+                    "  redis.call('EXPIRE', KEYS[2], ARGV[1])\n" +
+                    "  return 0\n" +
+                    "end\n" +
+                    "for i = 2, #ARGV, 2 do\n" +
+                    "  if redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) < 0 then\n" +
+                    "    redis.call('HSET', KEYS[1], ARGV[i], 0)\n" +
+                    "  end\n" +
+                    "end\n" +
+                    "return 1",
+            Long.class);
+
+    /**
+     * 写入统计出的未读数（ARGV 为 统计前的跳过次数, 过期时间, 字段, 数量, ...）：
+     * 已有哈希或统计期间跳过次数有变化时不写入，返回 0
+     */
+    private static final RedisScript<Long> SEED_UNREAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end\n" +
+                    "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end\n" +
+                    "for i = 3, #ARGV, 2 do\n" +
+                    "  redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])\n" +
+                    "end\n" +
+                    "redis.call('EXPIRE', KEYS[1], ARGV[2])\n" +
+                    "return 1",
+            Long.class);
+
+    private final EventRemindMapper eventRemindMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final WebSocketService webSocketService;
+
+    private final EventRemindConfig eventRemindConfig;
+
+    /**
+     * 接收者 -> 待推送的提醒，访问时加锁
+     */
+    private final Map<Long, PendingPush> pendingPushes = new HashMap<>();
+
+    /**
+     * 记录触发提醒的操作者
+     *
+     * @return 是否首次触发（同一操作者对同一事件源重复点赞时返回 false）
+     */
+    public boolean addSender(String action, Integer sourceType, Long sourceId, Long senderId) {
+        String key = RedisKey.getKey(RedisKey.EVENT_REMIND_SENDERS, action, sourceType, sourceId);
+        String ttl = String.valueOf(eventRemindConfig.getDedupSeconds());
+        Long added = stringRedisTemplate.execute(ADD_SENDER_SCRIPT, Collections.singletonList(key),
+                senderId.toString(), ttl);
+        if (added != null && added < 0) {
+            loadSenders(key, action, sourceType, sourceId);
+            added = stringRedisTemplate.execute(ADD_SENDER_SCRIPT, Collections.singletonList(key),
+                    senderId.toString(), ttl);
+        }
+        return added != null && added > 0;
+    }
+
+    /**
+     * 写库失败的提醒：从去重集合中移除其操作者，之后再次触发时能重新生成提醒
+     */
+    public void removeSenders(Collection<EventRemind> events) {
+        Map<String, List<String>> sendersByKey = events.stream()
+                .filter(event -> ActionTypeConstant.LIKE.equals(event.getAction()))
+                .collect(Collectors.groupingBy(event -> RedisKey.getKey(RedisKey.EVENT_REMIND_SENDERS,
+                                event.getAction(), event.getSourceType(), event.getSourceId()),
+                        Collectors.mapping(event -> event.getSenderId().toString(), Collectors.toList())));
+        sendersByKey.forEach((key, senders) ->
+                stringRedisTemplate.opsForSet().remove(key, senders.toArray()));
+    }
+
+    /**
+     * 已写库的提醒：递增接收者的未读数，并加入待推送
+     */
+    public void onSaved(Collection<EventRemind> events) {
+        Map<Long, Map<String, Long>> unreadByRecipient = events.stream()
+                .collect(Collectors.groupingBy(EventRemind::getRecipientId,
+                        Collectors.groupingBy(EventRemind::getAction, Collectors.counting())));
+        unreadByRecipient.forEach(this::adjustUnread);
+
+        synchronized (pendingPushes) {
+            for (EventRemind event : events) {
+                // 不在线的用户上线后通过未读数接口获取
+                if (webSocketService.isOnline(event.getRecipientId())) {
+                    pendingPushes.computeIfAbsent(event.getRecipientId(), id -> new PendingPush())
+                            .add(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * 推送距上次推送已满间隔的用户的提醒，由写库任务定时调用
+     */
+    public void pushDue() {
+        long now = System.currentTimeMillis();
+        Map<Long, List<EventRemindNoticeVO>> due = new HashMap<>();
+        synchronized (pendingPushes) {
+            Iterator<Map.Entry<Long, PendingPush>> iterator = pendingPushes.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, PendingPush> entry = iterator.next();
+                PendingPush pending = entry.getValue();
+                if (now - pending.lastPushAt < eventRemindConfig.getPushIntervalMillis()) {
+                    continue;
+                }
+                if (pending.notices.isEmpty()) {
+                    // 一个间隔内没有新提醒，下一条提醒可以立即推送
+                    iterator.remove();
+                    continue;
+                }
+                due.put(entry.getKey(), new ArrayList<>(pending.notices.values()));
+                pending.notices.clear();
+                pending.lastPushAt = now;
+            }
+        }
+        due.forEach((recipientId, notices) -> {
+            try {
+                webSocketService.sendToUid(WSBaseResp.builder()
+                        .type(MessageTypeEnum.EVENT_REMIND.getType())
+                        .data(new EventRemindPushVO(notices, getUnreadCount(recipientId)))
+                        .build(), recipientId);
+            } catch (Exception e) {
+                log.warn("推送事件提醒失败: recipientId={}", recipientId, e);
+            }
+        });
+    }
+
+    /**
+     * 用户的未读数：动作类型 -> 数量，total 为合计
+     */
+    public Map<String, Long> getUnreadCount(Long userId) {
+        String key = RedisKey.getKey(RedisKey.EVENT_REMIND_UNREAD, userId);
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(key);
+        if (entries.isEmpty()) {
+            return loadUnreadCount(key, userId);
+        }
+        Map<String, Long> unread = new HashMap<>(entries.size());
+        entries.forEach((field, value) -> unread.put(field.toString(), Long.parseLong(value.toString())));
+        return unread;
+    }
+
+    /**
+     * 提醒被设为已读后递减未读数
+     *
+     * @param readByAction 动作类型 -> 由未读变为已读的条数
+     */
+    public void onRead(Long userId, Map<String, Long> readByAction) {
+        Map<String, Long> deltas = new HashMap<>(readByAction.size());
+        readByAction.forEach((action, count) -> deltas.put(action, -count));
+        adjustUnread(userId, deltas);
+    }
+
+    private void adjustUnread(Long userId, Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(deltas.size() * 2 + 3);
+        args.add(String.valueOf(UNREAD_MISSED_SECONDS));
+        long total = 0;
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            args.add(entry.getKey());
+            args.add(entry.getValue().toString());
+            total += entry.getValue();
+        }
+        args.add(UNREAD_TOTAL);
+        args.add(String.valueOf(total));
+        stringRedisTemplate.execute(ADJUST_UNREAD_SCRIPT, unreadKeys(userId), args.toArray());
+    }
+
+    private Map<String, Long> loadUnreadCount(String key, Long userId) {
+        // 先取跳过次数再查库：查询期间写库的提醒若因哈希不存在而未计入，写入时能发现
+        String missedKey = RedisKey.getKey(RedisKey.EVENT_REMIND_UNREAD_MISSED, userId);
+        String missed = stringRedisTemplate.opsForValue().get(missedKey);
+        QueryWrapper<EventRemind> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("action", "count(*) AS num")
+                .eq("recipientId", userId)
+                .eq("state", 0)
+                .groupBy("action");
+        Map<String, Long> unread = new HashMap<>();
+        long total = 0;
+        for (Map<String, Object> row : eventRemindMapper.selectMaps(queryWrapper)) {
+            long count = ((Number) row.get("num")).longValue();
+            unread.put(row.get("action").toString(), count);
+            total += count;
+        }
+        unread.put(UNREAD_TOTAL, total);
+
+        List<String> args = new ArrayList<>(unread.size() * 2 + 2);
+        args.add(missed == null ? "0" : missed);
+        args.add(String.valueOf(eventRemindConfig.getUnreadSeconds()));
+        unread.forEach((action, count) -> {
+            args.add(action);
+            args.add(count.toString());
+        });
+        stringRedisTemplate.execute(SEED_UNREAD_SCRIPT, Arrays.asList(key, missedKey), args.toArray());
+        return unread;
+    }
+
+    private static List<String> unreadKeys(Long userId) {
+        return Arrays.asList(RedisKey.getKey(RedisKey.EVENT_REMIND_UNREAD, userId),
+                RedisKey.getKey(RedisKey.EVENT_REMIND_UNREAD_MISSED, userId));
+    }
+
+    private void loadSenders(String key, String action, Integer sourceType, Long sourceId) {
+        QueryWrapper<EventRemind> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("senderId")
+                .eq("action", action)
+                .eq("sourceId", sourceId)
+                .eq("sourceType", sourceType);
+        List<String> senders = eventRemindMapper.selectObjs(queryWrapper).stream()
+                .map(Object::toString)
+                .collect(Collectors.toList());
+        senders.add(LOADED_MARKER);
+        stringRedisTemplate.opsForSet().add(key, senders.toArray(new String[0]));
+        stringRedisTemplate.expire(key, eventRemindConfig.getDedupSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * 合并提醒的展示文案
+     */
+    static String noticeText(EventRemindNoticeVO notice) {
+        int count = notice.getCount();
+        switch (notice.getAction()) {
+            case ActionTypeConstant.LIKE:
+                String target = notice.getSourceType() == SourceTypeConstant.COMMENT ? "评论" : "动态";
+                return (count == 1 ? "用户" : count + " 人") + "点赞了你的" + target;
+            case ActionTypeConstant.COMMENT:
+                return count == 1 ? notice.getContent() : count + " 条新评论";
+            case ActionTypeConstant.REPLY:
+                return count == 1 ? notice.getContent() : count + " 条新回复";
+            default:
+                return notice.getContent();
+        }
+    }
+
+    /**
+     * 一个用户待推送的提醒
+     */
+    private static class PendingPush {
+
+        /**
+         * 合并键 -> 合并后的提醒，保持首次出现的顺序
+         */
+        private final Map<String, EventRemindNoticeVO> notices = new LinkedHashMap<>();
+
+        /**
+         * 上次推送时间，初始为 0：一段时间没有提醒的用户，第一条提醒在下一次定时任务时立即推送
+         */
+        private long lastPushAt;
+
+        private void add(EventRemind event) {
+            // 点赞按事件源合并，评论和回复按所在帖子合并
+            boolean byPost = ActionTypeConstant.COMMENT.equals(event.getAction())
+                    || ActionTypeConstant.REPLY.equals(event.getAction());
+            String groupKey = event.getAction() + ":" + event.getSourceType() + ":"
+                    + (byPost ? event.getUrl() : event.getSourceId());
+            EventRemindNoticeVO notice = notices.computeIfAbsent(groupKey, k -> {
+                EventRemindNoticeVO created = new EventRemindNoticeVO();
+                created.setAction(event.getAction());
+                created.setSourceType(event.getSourceType());
+                created.setUrl(event.getUrl());
+                created.setCount(0);
+                created.setSenderIds(new ArrayList<>(MAX_NOTICE_SENDERS));
+                return created;
+            });
+            notice.setSourceId(event.getSourceId());
+            notice.setCount(notice.getCount() + 1);
+            notice.setContent(event.getSourceContent());
+            notice.setRemindTime(event.getRemindTime());
+            List<Long> senderIds = notice.getSenderIds();
+            senderIds.remove(event.getSenderId());
+            senderIds.add(0, event.getSenderId());
+            if (senderIds.size() > MAX_NOTICE_SENDERS) {
+                senderIds.remove(MAX_NOTICE_SENDERS);
+            }
+            notice.setText(noticeText(notice));
+        }
+    }
+}
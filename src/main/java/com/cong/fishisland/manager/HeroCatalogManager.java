@@ -0,0 +1,245 @@
+package com.cong.fishisland.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.ResultUtils;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.common.exception.ThrowUtils;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.mapper.hero.HeroMapper;
+import com.cong.fishisland.model.entity.hero.Hero;
+import com.cong.fishisland.model.vo.hero.HeroVO;
+import com.cong.fishisland.model.vo.hero.SimpleHeroVO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 英雄数据内存快照
+ * <p>
+ * 英雄表每周才同步一次，启动时整表加载为不可变快照，随机、按 id 查询和列表都不再访问数据库。
+ * 同步完成后调用 {@link #publish()} 递增 Redis 中的版本号并替换本机快照，其他节点定时比对版本号后重新加载。
+ * 返回的 HeroVO 为快照内共享的对象，调用方不能修改。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+public class HeroCatalogManager {
+
+    private final HeroMapper heroMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Object loadLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    public HeroCatalogManager(HeroMapper heroMapper, StringRedisTemplate stringRedisTemplate,
+                              ObjectMapper objectMapper) {
+        this.heroMapper = heroMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload(currentVersion());
+        } catch (Exception e) {
+            // 首次访问时再加载
+            log.error("加载英雄数据失败", e);
+        }
+    }
+
+    /**
+     * 随机获取一个英雄
+     */
+    public HeroVO random() {
+        HeroVO[] heroes = snapshot().heroes;
+        ThrowUtils.throwIf(heroes.length == 0, ErrorCode.NOT_FOUND_ERROR, "英雄数据不存在");
+        return heroes[ThreadLocalRandom.current().nextInt(heroes.length)];
+    }
+
+    /**
+     * 按 id 获取英雄，快照中没有时返回 null
+     */
+    public HeroVO get(Long id) {
+        return snapshot().byId.get(id);
+    }
+
+    /**
+     * 上线时间最新的英雄
+     */
+    public HeroVO newest() {
+        HeroVO newest = snapshot().newest;
+        ThrowUtils.throwIf(newest == null, ErrorCode.NOT_FOUND_ERROR, "英雄数据不存在");
+        return newest;
+    }
+
+    /**
+     * 英雄简略信息列表，按上线时间、编号排序
+     */
+    public List<SimpleHeroVO> simpleHeroes() {
+        return snapshot().simpleHeroes;
+    }
+
+    /**
+     * 预先序列化的英雄简略信息列表响应（BaseResponse 的 JSON），可直接写出
+     */
+    public byte[] simpleHeroesResponse() {
+        return snapshot().simpleHeroesResponse;
+    }
+
+    /**
+     * 英雄数据变更后调用：递增版本号并重新加载，其他节点随后同步
+     */
+    public void publish() {
+        Long version = stringRedisTemplate.opsForValue().increment(RedisKey.getKey(RedisKey.HERO_CATALOG_VERSION));
+        reload(version == null ? 0 : version);
+    }
+
+    /**
+     * 版本号与本机快照不同时重新加载
+     */
+    @Scheduled(fixedDelay = 30_000, initialDelay = 30_000)
+    public void syncVersion() {
+        try {
+            long version = currentVersion();
+            Snapshot current = snapshot;
+            if (current == null || current.version != version) {
+                reload(version);
+            }
+        } catch (Exception e) {
+            log.warn("同步英雄数据版本失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 当前快照的版本号，未加载时为 -1
+     */
+    public long version() {
+        Snapshot current = snapshot;
+        return current == null ? -1 : current.version;
+    }
+
+    /**
+     * 将 Hero 实体转换为 HeroVO
+     */
+    public static HeroVO toHeroVO(Hero hero) {
+        HeroVO vo = new HeroVO();
+        BeanUtils.copyProperties(hero, vo);
+        Long id = hero.getId();
+        if (id != null) {
+            vo.setId(id.toString());
+        }
+        vo.setSkinsNum(getSkinsNum(hero.getSkins()));
+        return vo;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (loadLock) {
+                if (snapshot == null) {
+                    reload(currentVersion());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 先读版本号再查库，查库期间版本号变化时下次同步会再加载一次
+     */
+    private long currentVersion() {
+        String version = stringRedisTemplate.opsForValue().get(RedisKey.getKey(RedisKey.HERO_CATALOG_VERSION));
+        return version == null ? 0 : Long.parseLong(version);
+    }
+
+    private void reload(long version) {
+        synchronized (loadLock) {
+            QueryWrapper<Hero> queryWrapper = new QueryWrapper<>();
+            queryWrapper.orderByAsc("releaseDate", "ename");
+            List<Hero> heroes = heroMapper.selectList(queryWrapper);
+            snapshot = new Snapshot(version, heroes, objectMapper);
+            log.info("英雄数据已加载：{} 个，版本 {}", heroes.size(), version);
+        }
+    }
+
+    /**
+     * 获取皮肤数量
+     * @param skins 皮肤
+     * @return 皮肤数量
+     */
+    private static Integer getSkinsNum(String skins) {
+        if (StringUtils.isBlank(skins)) {
+            return 0;
+        }
+        return skins.split("\\|").length;
+    }
+
+    /**
+     * 不可变的英雄数据快照，整体替换
+     */
+    private static class Snapshot {
+
+        private final long version;
+
+        private final HeroVO[] heroes;
+
+        private final Map<Long, HeroVO> byId;
+
+        private final HeroVO newest;
+
+        private final List<SimpleHeroVO> simpleHeroes;
+
+        private final byte[] simpleHeroesResponse;
+
+        private Snapshot(long version, List<Hero> heroList, ObjectMapper objectMapper) {
+            this.version = version;
+            this.heroes = new HeroVO[heroList.size()];
+            Map<Long, HeroVO> idMap = new HashMap<>(heroList.size() * 2);
+            List<SimpleHeroVO> simpleList = new ArrayList<>(heroList.size());
+            HeroVO latest = null;
+            for (int i = 0; i < heroList.size(); i++) {
+                Hero hero = heroList.get(i);
+                HeroVO vo = toHeroVO(hero);
+                heroes[i] = vo;
+                idMap.put(hero.getId(), vo);
+                // 已按上线时间升序
+                if (hero.getReleaseDate() != null) {
+                    latest = vo;
+                }
+                SimpleHeroVO simpleHeroVO = new SimpleHeroVO();
+                simpleHeroVO.setId(hero.getId());
+                simpleHeroVO.setCname(hero.getCname());
+                simpleList.add(simpleHeroVO);
+            }
+            this.byId = idMap;
+            this.newest = latest;
+            this.simpleHeroes = Collections.unmodifiableList(simpleList);
+            try {
+                this.simpleHeroesResponse = objectMapper.writeValueAsBytes(ResultUtils.success(simpleHeroes));
+            } catch (JsonProcessingException e) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "英雄列表序列化失败");
+            }
+        }
+    }
+}
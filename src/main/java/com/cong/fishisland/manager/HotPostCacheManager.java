@@ -0,0 +1,247 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.cong.fishisland.common.ResultUtils;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.model.entity.hot.HotPost;
+import com.cong.fishisland.model.vo.hot.HotPostVO;
+import com.cong.fishisland.service.HotPostService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 热榜列表缓存
+ * <p>
+ * 每个榜单单独序列化后存入 Redis 哈希，抓取入库后只替换该榜单并自增版本号。
+ * 本地保存最近一次拼好的响应体和 ETag，版本号不变时直接返回，不再反序列化和重新编码。
+ * 只缓存已注册数据源的榜单，重建时移除不再抓取的榜单。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotPostCacheManager {
+
+    /**
+     * 写入单个榜单并自增版本号
+     * KEYS: boards, order, version  ARGV: type, sort, json
+     */
+    private static final RedisScript<Long> PUT_BOARD_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[3]) \n" +
+                    "redis.call('ZADD', KEYS[2], ARGV[2], ARGV[1]) \n" +
+                    "return redis.call('INCR', KEYS[3])", Long.class);
+
+    /**
+     * 按顺序读取全部榜单，第一个元素是读取时的版本号
+     * KEYS: boards, order, version
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ_BOARDS_SCRIPT = new DefaultRedisScript<>(
+            "local result = {redis.call('GET', KEYS[3]) or '0'} \n" +
+                    "local types = redis.call('ZRANGE', KEYS[2], 0, -1) \n" +
+                    "if #types > 0 then \n" +
+                    "  local boards = redis.call('HMGET', KEYS[1], unpack(types)) \n" +
+                    "  for i = 1, #boards do \n" +
+                    "    if boards[i] then result[#result + 1] = boards[i] end \n" +
+                    "  end \n" +
+                    "end \n" +
+                    "return result", List.class);
+
+    /**
+     * 移除不在 ARGV 中的榜单，有移除时自增版本号，返回移除的个数
+     * KEYS: boards, order, version  ARGV: 保留的 type
+     */
+    private static final RedisScript<Long> PRUNE_BOARDS_SCRIPT = new DefaultRedisScript<>(
+            "local keep = {} \n" +
+                    "for i = 1, #ARGV do keep[ARGV[i]] = true end \n" +
+                    "local removed = 0 \n" +
+                    "for _, type in ipairs(redis.call('HKEYS', KEYS[1])) do \n" +
+                    "  if not keep[type] then redis.call('HDEL', KEYS[1], type) removed = removed + 1 end \n" +
+                    "end \n" +
+                    "for _, type in ipairs(redis.call('ZRANGE', KEYS[2], 0, -1)) do \n" +
+                    "  if not keep[type] then redis.call('ZREM', KEYS[2], type) end \n" +
+                    "end \n" +
+                    "if removed > 0 then redis.call('INCR', KEYS[3]) end \n" +
+                    "return removed", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final HotPostService hotPostService;
+
+    private final DataSourceRegistry dataSourceRegistry;
+
+    /**
+     * 通用返回类包裹榜单数组时的前后缀，与 ResultUtils.success 的序列化结果一致
+     */
+    private byte[] bodyPrefix;
+
+    private byte[] bodySuffix;
+
+    private volatile HotPostList current;
+
+    @PostConstruct
+    public void init() throws JsonProcessingException {
+        String emptyBody = objectMapper.writeValueAsString(ResultUtils.success(Collections.emptyList()));
+        int index = emptyBody.indexOf("[]");
+        bodyPrefix = emptyBody.substring(0, index + 1).getBytes(StandardCharsets.UTF_8);
+        bodySuffix = emptyBody.substring(index + 1).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 获取热榜列表响应，版本号未变化时复用本地结果
+     */
+    public HotPostList getHotPostList() {
+        try {
+            String version = stringRedisTemplate.opsForValue().get(RedisKey.getKey(RedisKey.HOT_POST_VERSION));
+            HotPostList cached = current;
+            if (cached != null && cached.version.equals(version)) {
+                return cached;
+            }
+            if (version == null) {
+                rebuild();
+            }
+            List<String> result = readBoards();
+            HotPostList loaded = assemble(result.get(0), result.subList(1, result.size()));
+            current = loaded;
+            return loaded;
+        } catch (Exception e) {
+            log.error("读取热榜缓存失败，直接查询数据库", e);
+            Set<String> types = new HashSet<>(dataSourceRegistry.getTypes());
+            List<String> boards = new ArrayList<>();
+            for (HotPostVO hotPostVO : hotPostService.getHotPostList()) {
+                if (types.contains(hotPostVO.getType())) {
+                    boards.add(serialize(hotPostVO));
+                }
+            }
+            return assemble("", boards);
+        }
+    }
+
+    /**
+     * 榜单入库后替换对应缓存
+     */
+    public void refreshBoard(HotPost hotPost) {
+        stringRedisTemplate.execute(PUT_BOARD_SCRIPT, boardKeys(), hotPost.getType(),
+                String.valueOf(hotPost.getSort()), serialize(HotPostVO.objToVo(hotPost)));
+    }
+
+    /**
+     * 启动时按当前注册的数据源重建，下线的数据源不再出现在列表中
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("启动时重建热榜缓存失败", e);
+        }
+    }
+
+    /**
+     * 按数据库重建已注册数据源的榜单缓存，并移除其余榜单
+     */
+    public void rebuild() {
+        Set<String> types = new HashSet<>(dataSourceRegistry.getTypes());
+        List<HotPost> hotPostList = hotPostService.list().stream()
+                .filter(hotPost -> types.contains(hotPost.getType()))
+                .collect(Collectors.toList());
+        for (HotPost hotPost : hotPostList) {
+            refreshBoard(hotPost);
+        }
+        Long removed = stringRedisTemplate.execute(PRUNE_BOARDS_SCRIPT, boardKeys(),
+                hotPostList.stream().map(HotPost::getType).toArray());
+        if (removed != null && removed > 0) {
+            log.info("热榜缓存移除了 {} 个不再抓取的榜单", removed);
+        }
+        if (hotPostList.isEmpty()) {
+            stringRedisTemplate.opsForValue().increment(RedisKey.getKey(RedisKey.HOT_POST_VERSION));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> readBoards() {
+        return stringRedisTemplate.execute(READ_BOARDS_SCRIPT, boardKeys());
+    }
+
+    HotPostList assemble(String version, List<String> boards) {
+        List<byte[]> boardBytes = new ArrayList<>(boards.size());
+        int length = bodyPrefix.length + bodySuffix.length + Math.max(boards.size() - 1, 0);
+        for (String board : boards) {
+            byte[] bytes = board.getBytes(StandardCharsets.UTF_8);
+            boardBytes.add(bytes);
+            length += bytes.length;
+        }
+        byte[] body = new byte[length];
+        System.arraycopy(bodyPrefix, 0, body, 0, bodyPrefix.length);
+        int offset = bodyPrefix.length;
+        for (int i = 0; i < boardBytes.size(); i++) {
+            if (i > 0) {
+                body[offset++] = ',';
+            }
+            byte[] bytes = boardBytes.get(i);
+            System.arraycopy(bytes, 0, body, offset, bytes.length);
+            offset += bytes.length;
+        }
+        System.arraycopy(bodySuffix, 0, body, offset, bodySuffix.length);
+        return new HotPostList(version, body, "\"" + DigestUtil.md5Hex(body) + "\"");
+    }
+
+    private String serialize(HotPostVO hotPostVO) {
+        try {
+            return objectMapper.writeValueAsString(hotPostVO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化热榜失败：" + hotPostVO.getType(), e);
+        }
+    }
+
+    private static List<String> boardKeys() {
+        return Arrays.asList(RedisKey.getKey(RedisKey.HOT_POST_BOARDS), RedisKey.getKey(RedisKey.HOT_POST_ORDER),
+                RedisKey.getKey(RedisKey.HOT_POST_VERSION));
+    }
+
+    /**
+     * 拼好的热榜响应
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class HotPostList {
+
+        /**
+         * 对应的缓存版本号
+         */
+        private final String version;
+
+        /**
+         * 响应体（通用返回类 JSON）
+         */
+        private final byte[] body;
+
+        /**
+         * 响应体摘要，作为强 ETag
+         */
+        private final String etag;
+    }
+}
@@ -0,0 +1,160 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.config.HotPostCrawlConfig;
+import com.cong.fishisland.config.ThreadPoolConfig;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * 热榜并发抓取
+ * <p>
+ * 每个数据源在抓取线程池上独立执行（抓取 + 入库 + 重试），完成即提交，互不等待；
+ * 每个数据源有各自的时间预算，从任务开始执行时算起（排队或由调用线程执行期间不计入），超时的任务被中断并放弃。
+ * 整体耗时取决于最慢的数据源而不是所有数据源之和。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotPostCrawlManager {
+
+    @Qualifier(ThreadPoolConfig.CRAWL_EXECUTOR)
+    private final AsyncTaskExecutor crawlExecutor;
+
+    private final RetryTemplate retryTemplate;
+
+    private final HotPostCrawlConfig hotPostCrawlConfig;
+
+    /**
+     * 并发执行所有数据源的抓取任务，等待全部完成或超时
+     *
+     * @param types 数据源类型
+     * @param task  单个数据源的抓取并入库逻辑，抛出异常时按 RetryTemplate 重试
+     * @return 抓取结果汇总
+     */
+    public CrawlReport crawl(Collection<String> types, Consumer<String> task) {
+        return crawl(types, hotPostCrawlConfig::getTimeout, task);
+    }
+
+    /**
+     * 并发执行所有数据源的抓取任务，等待全部完成或超时
+     *
+     * @param types     数据源类型
+     * @param timeoutOf 各数据源的时间预算（毫秒）
+     * @param task      单个数据源的抓取并入库逻辑，抛出异常时按 RetryTemplate 重试
+     * @return 抓取结果汇总
+     */
+    public CrawlReport crawl(Collection<String> types, ToLongFunction<String> timeoutOf, Consumer<String> task) {
+        long start = System.currentTimeMillis();
+        CrawlReport report = new CrawlReport();
+        Map<String, Long> taskStarts = new ConcurrentHashMap<>();
+        Map<String, Future<?>> futures = new LinkedHashMap<>();
+        for (String type : types) {
+            futures.put(type, crawlExecutor.submit(() -> {
+                long taskStart = System.currentTimeMillis();
+                taskStarts.put(type, taskStart);
+                try {
+                    retryTemplate.execute(context -> {
+                        task.accept(type);
+                        return null;
+                    });
+                } finally {
+                    report.costs.put(type, System.currentTimeMillis() - taskStart);
+                }
+            }));
+        }
+        for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+            String type = entry.getKey();
+            Future<?> future = entry.getValue();
+            long timeout = timeoutOf.applyAsLong(type);
+            try {
+                await(future, taskStarts, type, timeout);
+                report.succeeded.add(type);
+            } catch (TimeoutException e) {
+                // 中断阻塞中的请求或重试等待，线程尽快归还线程池
+                future.cancel(true);
+                report.costs.put(type, timeout);
+                report.errors.put(type, "超时");
+                report.timedOut.add(type);
+                log.error("抓取热榜数据超时，放弃更新【{}】", type);
+            } catch (ExecutionException e) {
+                report.failed.add(type);
+                report.errors.put(type, String.valueOf(e.getCause()));
+                log.error("抓取热榜数据失败，已达到最大重试次数，放弃更新【{}】", type, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(f -> f.cancel(true));
+                break;
+            }
+        }
+        report.costMillis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    /**
+     * 等待数据源任务完成，时间预算从任务开始执行时算起；排队超过时间预算仍未开始的也按超时处理
+     */
+    private static void await(Future<?> future, Map<String, Long> taskStarts, String type, long timeout)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        long waitStart = System.currentTimeMillis();
+        while (true) {
+            Long taskStart = taskStarts.get(type);
+            long remaining = (taskStart == null ? waitStart : taskStart) + timeout - System.currentTimeMillis();
+            try {
+                future.get(Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // 等待期间才开始执行的，按开始时间重新计算
+                if (taskStart != null || !taskStarts.containsKey(type)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 抓取结果汇总
+     */
+    @Getter
+    @ToString
+    public static class CrawlReport {
+
+        private final List<String> succeeded = new ArrayList<>();
+
+        private final List<String> failed = new ArrayList<>();
+
+        private final List<String> timedOut = new ArrayList<>();
+
+        /**
+         * 各数据源耗时（毫秒），超时的记为时间预算
+         */
+        private final Map<String, Long> costs = new ConcurrentHashMap<>();
+
+        /**
+         * 失败或超时的原因
+         */
+        private final Map<String, String> errors = new LinkedHashMap<>();
+
+        private long costMillis;
+    }
+}
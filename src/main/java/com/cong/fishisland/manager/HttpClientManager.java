@@ -0,0 +1,359 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.cong.fishisland.config.HttpClientConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 出站 HTTP 客户端
+ * <p>
+ * 全局共用一个 OkHttpClient：同一连接池和分发器、单主机并发上限、HTTP/2（ALPN 可用时）、透明 gzip、
+ * 磁盘响应缓存（服务端返回 ETag / Last-Modified 时自动发起条件请求）。
+ * 需要特殊超时的调用方通过 {@link #client()} 的 newBuilder() 派生，仍然共享连接池和缓存。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HttpClientManager {
+
+    public static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
+
+    private static final String DEFAULT_USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/123.0.0.0 Safari/537.36";
+
+    private static final int MAX_PARSED_ENTRIES = 256;
+
+    private final HttpClientConfig httpClientConfig;
+
+    private OkHttpClient client;
+
+    /**
+     * 读超时 -> 派生的客户端，与主客户端共享连接池、分发器和缓存
+     */
+    private final Map<Long, OkHttpClient> timeoutClients = new ConcurrentHashMap<>();
+
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    private final Map<String, HostMetrics> hostMetrics = new ConcurrentHashMap<>();
+
+    /**
+     * URL -> 上次响应体摘要和解析结果，响应未变化时跳过解析
+     */
+    private final Cache<String, ParsedResponse> parsedResponses = Caffeine.newBuilder()
+            .maximumSize(MAX_PARSED_ENTRIES)
+            .build();
+
+    @PostConstruct
+    public void init() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(httpClientConfig.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(httpClientConfig.getMaxRequestsPerHost());
+        client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(httpClientConfig.getMaxIdleConnections(),
+                        httpClientConfig.getKeepAliveSec(), TimeUnit.SECONDS))
+                .cache(new okhttp3.Cache(new File(httpClientConfig.getCacheDir()), httpClientConfig.getCacheSizeMb() * 1024 * 1024))
+                .connectTimeout(httpClientConfig.getConnectTimeout(), TimeUnit.MILLISECONDS)
+                .readTimeout(httpClientConfig.getReadTimeout(), TimeUnit.MILLISECONDS)
+                .addInterceptor(this::limitPerHost)
+                .eventListenerFactory(call -> new MetricsEventListener())
+                .build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+        try {
+            if (client.cache() != null) {
+                client.cache().close();
+            }
+        } catch (IOException e) {
+            log.warn("关闭 HTTP 响应缓存失败", e);
+        }
+    }
+
+    /**
+     * 共享的客户端，需要不同超时等配置时调用 newBuilder() 派生
+     */
+    public OkHttpClient client() {
+        return client;
+    }
+
+    /**
+     * 指定读超时的客户端，如耗时较长的 AI 接口
+     */
+    public OkHttpClient client(long readTimeoutMillis) {
+        return timeoutClients.computeIfAbsent(readTimeoutMillis, timeout -> client.newBuilder()
+                .readTimeout(timeout, TimeUnit.MILLISECONDS)
+                .build());
+    }
+
+    /**
+     * GET 请求，返回响应体文本，非 2xx 时抛出 IOException
+     */
+    public String get(String url, Headers headers) throws IOException {
+        return execute(new Request.Builder().url(url).headers(headers).get().build());
+    }
+
+    public String get(String url) throws IOException {
+        return get(url, Headers.of());
+    }
+
+    /**
+     * GET 请求并解析，响应体与上次相同（包括缓存命中、304）时直接返回上次的解析结果
+     *
+     * @param parser 解析函数，结果会被复用，不能返回之后会被修改的对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String url, Headers headers, Function<String, T> parser) throws IOException {
+        String body = get(url, headers);
+        String digest = DigestUtil.md5Hex(body);
+        ParsedResponse parsed = parsedResponses.getIfPresent(url);
+        if (parsed != null && parsed.digest.equals(digest)) {
+            metricsOf(hostOf(url)).unchangedResponses.increment();
+            return (T) parsed.value;
+        }
+        T value = parser.apply(body);
+        parsedResponses.put(url, new ParsedResponse(digest, value));
+        return value;
+    }
+
+    /**
+     * POST JSON 请求，返回响应体文本，非 2xx 时抛出 IOException
+     */
+    public String postJson(String url, Headers headers, String json) throws IOException {
+        return postJson(url, headers, json, httpClientConfig.getReadTimeout());
+    }
+
+    public String postJson(String url, Headers headers, String json, long readTimeoutMillis) throws IOException {
+        return execute(client(readTimeoutMillis), new Request.Builder().url(url).headers(headers)
+                .post(RequestBody.create(json, JSON_MEDIA_TYPE)).build());
+    }
+
+    public String execute(Request request) throws IOException {
+        return execute(client, request);
+    }
+
+    private static String execute(OkHttpClient httpClient, Request request) throws IOException {
+        try (Response response = httpClient.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful()) {
+                throw new IOException("HTTP " + response.code() + " " + request.url());
+            }
+            return body == null ? "" : body.string();
+        }
+    }
+
+    /**
+     * 各主机的请求统计
+     */
+    public List<HostStats> stats() {
+        List<HostStats> stats = new ArrayList<>(hostMetrics.size());
+        hostMetrics.forEach((host, metrics) -> stats.add(metrics.snapshot(host)));
+        return stats;
+    }
+
+    /**
+     * 同步调用不经过 Dispatcher 的并发限制，这里按主机限流
+     */
+    private Response limitPerHost(Interceptor.Chain chain) throws IOException {
+        Semaphore permits = hostPermits.computeIfAbsent(chain.request().url().host(),
+                host -> new Semaphore(httpClientConfig.getHostMaxRequests()
+                        .getOrDefault(host, httpClientConfig.getMaxRequestsPerHost())));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待主机并发许可时被中断");
+        }
+        try {
+            Request request = chain.request();
+            if (request.header("User-Agent") == null) {
+                request = request.newBuilder().header("User-Agent", DEFAULT_USER_AGENT).build();
+            }
+            return chain.proceed(request);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private HostMetrics metricsOf(String host) {
+        return hostMetrics.computeIfAbsent(host, key -> new HostMetrics());
+    }
+
+    private static String hostOf(String url) {
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        return httpUrl == null ? url : httpUrl.host();
+    }
+
+    @AllArgsConstructor
+    private static class ParsedResponse {
+
+        private final String digest;
+
+        private final Object value;
+    }
+
+    private static class HostMetrics {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalLatencyMillis = new LongAdder();
+        private final LongAccumulator maxLatencyMillis = new LongAccumulator(Math::max, 0);
+        private final LongAdder connectionsOpened = new LongAdder();
+        private final LongAdder connectionsAcquired = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder conditionalHits = new LongAdder();
+        private final LongAdder unchangedResponses = new LongAdder();
+
+        private HostStats snapshot(String host) {
+            long requestCount = requests.sum();
+            long opened = connectionsOpened.sum();
+            return new HostStats(host, requestCount, failures.sum(),
+                    requestCount == 0 ? 0 : totalLatencyMillis.sum() / requestCount, maxLatencyMillis.get(),
+                    opened, Math.max(connectionsAcquired.sum() - opened, 0),
+                    cacheHits.sum(), conditionalHits.sum(), unchangedResponses.sum());
+        }
+    }
+
+    /**
+     * 按主机记录耗时、连接复用和缓存命中
+     */
+    private class MetricsEventListener extends EventListener {
+
+        private HostMetrics metrics;
+
+        private long startNanos;
+
+        @Override
+        public void callStart(@NotNull Call call) {
+            metrics = metricsOf(call.request().url().host());
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void connectStart(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy) {
+            metrics.connectionsOpened.increment();
+        }
+
+        @Override
+        public void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+            metrics.connectionsAcquired.increment();
+        }
+
+        @Override
+        public void cacheHit(@NotNull Call call, @NotNull Response response) {
+            metrics.cacheHits.increment();
+        }
+
+        @Override
+        public void cacheConditionalHit(@NotNull Call call, @NotNull Response cachedResponse) {
+            metrics.conditionalHits.increment();
+        }
+
+        @Override
+        public void callEnd(@NotNull Call call) {
+            record(false);
+        }
+
+        @Override
+        public void callFailed(@NotNull Call call, @NotNull IOException ioe) {
+            record(true);
+        }
+
+        private void record(boolean failed) {
+            long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            metrics.requests.increment();
+            if (failed) {
+                metrics.failures.increment();
+            }
+            metrics.totalLatencyMillis.add(latencyMillis);
+            metrics.maxLatencyMillis.accumulate(latencyMillis);
+        }
+    }
+
+    /**
+     * 单个主机的请求统计快照
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class HostStats {
+
+        private final String host;
+
+        private final long requests;
+
+        private final long failures;
+
+        private final long avgLatencyMillis;
+
+        private final long maxLatencyMillis;
+
+        /**
+         * 新建连接数
+         */
+        private final long connectionsOpened;
+
+        /**
+         * 复用已有连接的次数
+         */
+        private final long connectionsReused;
+
+        /**
+         * 直接由本地缓存返回的次数
+         */
+        private final long cacheHits;
+
+        /**
+         * 条件请求返回 304 的次数
+         */
+        private final long conditionalHits;
+
+        /**
+         * 响应体未变化、跳过解析的次数
+         */
+        private final long unchangedResponses;
+    }
+}
@@ -0,0 +1,172 @@
+package com.cong.fishisland.manager;
+
+import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.ThrowUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求去重（幂等）
+ * <p>
+ * 同一个键在有效期内只执行一次：先查本地缓存，本实例上的重复请求不访问 Redis；本地没有时用 SET NX EX 占位，
+ * 多实例之间以 Redis 为准。需要重放时，首次执行的结果以 JSON 写回 Redis，重试的请求直接拿到相同结果。
+ *
+ * @author cong
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyManager {
+
+    /**
+     * Redis 中执行中的占位值
+     */
+    static final String PROCESSING = "0";
+
+    /**
+     * Redis 中已完成结果的前缀，后接结果 JSON
+     */
+    static final String DONE_PREFIX = "1:";
+
+    private static final int LOCAL_CACHE_SIZE = 100_000;
+
+    /**
+     * 其他实例占用的键在读取时已被释放，重新占用的最多次数
+     */
+    private static final int MAX_ACQUIRE_ATTEMPTS = 3;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final Cache<String, Record> localCache = Caffeine.newBuilder()
+            .maximumSize(LOCAL_CACHE_SIZE)
+            .expireAfter(new RecordExpiry())
+            .build();
+
+    /**
+     * 占用请求键
+     *
+     * @param key           请求键
+     * @param expireSeconds 有效期（秒）
+     * @return 获取成功返回 null，可以执行；否则返回已有的记录（执行中或已完成）
+     */
+    public Record tryAcquire(String key, long expireSeconds) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(expireSeconds);
+        for (int attempt = 0; ; attempt++) {
+            Record acquiring = new Record(ttlNanos, true, null, null);
+            Record local = localCache.asMap().putIfAbsent(key, acquiring);
+            // 本实例正在执行或已完成，不访问 Redis
+            if (local != null && (local.owner || local.isDone())) {
+                return local;
+            }
+            if (local == null) {
+                Boolean acquired = stringRedisTemplate.opsForValue()
+                        .setIfAbsent(key, PROCESSING, Duration.ofSeconds(expireSeconds));
+                if (acquired == null) {
+                    localCache.asMap().remove(key, acquiring);
+                }
+                ThrowUtils.throwIf(acquired == null, ErrorCode.SYSTEM_ERROR, "Redis服务异常");
+                if (acquired) {
+                    return null;
+                }
+            }
+            // 其他实例占用：看是否已经有结果
+            String value = stringRedisTemplate.opsForValue().get(key);
+            if (value == null && attempt < MAX_ACQUIRE_ATTEMPTS - 1) {
+                // 其他实例已释放或已过期：去掉本地记录，重新占用
+                localCache.asMap().remove(key, local == null ? acquiring : local);
+                continue;
+            }
+            Record remote = value != null && value.startsWith(DONE_PREFIX)
+                    ? new Record(ttlNanos, false, null, value.substring(DONE_PREFIX.length()))
+                    : new Record(ttlNanos, false, null, null);
+            localCache.put(key, remote);
+            return remote;
+        }
+    }
+
+    /**
+     * 执行成功
+     *
+     * @param result 执行结果，需要重放时非空
+     */
+    public void complete(String key, long expireSeconds, Object result) {
+        if (result == null) {
+            return;
+        }
+        String json = JSON.toJSONString(result);
+        stringRedisTemplate.opsForValue().set(key, DONE_PREFIX + json, Duration.ofSeconds(expireSeconds));
+        localCache.put(key, new Record(TimeUnit.SECONDS.toNanos(expireSeconds), true, result, json));
+    }
+
+    /**
+     * 执行失败，释放请求键，允许重试
+     */
+    public void release(String key) {
+        localCache.invalidate(key);
+        stringRedisTemplate.delete(key);
+    }
+
+    /**
+     * 请求键的执行记录
+     */
+    public static final class Record {
+
+        private final long ttlNanos;
+
+        /**
+         * 是否由本实例占用
+         */
+        private final boolean owner;
+
+        private final Object result;
+
+        private final String json;
+
+        private Record(long ttlNanos, boolean owner, Object result, String json) {
+            this.ttlNanos = ttlNanos;
+            this.owner = owner;
+            this.result = result;
+            this.json = json;
+        }
+
+        public boolean isDone() {
+            return json != null;
+        }
+
+        /**
+         * 首次执行的结果，本实例执行的直接返回原对象，其他实例的从 JSON 还原
+         */
+        public Object getResult(Type type) {
+            return result != null ? result : JSON.parseObject(json, type);
+        }
+    }
+
+    /**
+     * 每条记录按自己的有效期过期，写入结果时重新计时（与 Redis 一致）
+     */
+    private static class RecordExpiry implements Expiry<String, Record> {
+
+        @Override
+        public long expireAfterCreate(String key, Record value, long currentTime) {
+            return value.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Record value, long currentTime, long currentDuration) {
+            return value.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Record value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
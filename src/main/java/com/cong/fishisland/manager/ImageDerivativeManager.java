@@ -0,0 +1,196 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.config.ImageDerivativeConfig;
+import com.cong.fishisland.config.ThreadPoolConfig;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.model.vo.file.ImageVariantsVO;
+import com.cong.fishisland.utils.ImageUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 图片衍生图生成
+ * <p>
+ * 上传完成后在专用线程池中异步生成：原图只解码一次（大图降采样解码），缩放出各尺寸缩略图，
+ * 动图额外生成第一帧封面，与原图存放在同一存储中，键为原图键加尺寸后缀。
+ * 生成后的地址记录在 Redis 中，与衍生图文件一样长期保存，不设置过期时间；
+ * 查询时没有记录（尚未生成或生成失败）则只返回原图。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+public class ImageDerivativeManager {
+
+    private static final List<String> IMAGE_SUFFIXES = Arrays.asList("jpeg", "jpg", "png", "gif", "bmp");
+
+    private static final String POSTER = "poster";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ImageDerivativeConfig imageDerivativeConfig;
+
+    private final ThreadPoolTaskExecutor imageDerivativeExecutor;
+
+    public ImageDerivativeManager(StringRedisTemplate stringRedisTemplate, ImageDerivativeConfig imageDerivativeConfig,
+                                  @Qualifier(ThreadPoolConfig.IMAGE_DERIVATIVE_EXECUTOR)
+                                  ThreadPoolTaskExecutor imageDerivativeExecutor) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.imageDerivativeConfig = imageDerivativeConfig;
+        this.imageDerivativeExecutor = imageDerivativeExecutor;
+    }
+
+    /**
+     * 提交衍生图生成任务，非图片文件忽略
+     *
+     * @param storage 原图所在存储
+     * @param key     原图对象键
+     */
+    public void submit(ObjectStorage storage, String key) {
+        if (!imageDerivativeConfig.isEnabled() || !isImage(key)) {
+            return;
+        }
+        imageDerivativeExecutor.execute(() -> {
+            try {
+                process(storage, key);
+            } catch (Exception e) {
+                log.warn("生成图片衍生图失败，key = {}", key, e);
+            }
+        });
+    }
+
+    /**
+     * 查询图片的衍生图地址
+     *
+     * @param url 原图地址
+     * @return 衍生图地址，尚未生成时只有原图
+     */
+    public ImageVariantsVO getVariants(String url) {
+        if (StringUtils.isBlank(url)) {
+            return original(url);
+        }
+        return parse(url, stringRedisTemplate.opsForValue().get(variantsKey(url)));
+    }
+
+    /**
+     * 批量查询图片的衍生图地址
+     *
+     * @param urls 原图地址
+     * @return 原图地址到衍生图地址的映射
+     */
+    public Map<String, ImageVariantsVO> getVariants(Collection<String> urls) {
+        List<String> distinct = urls.stream()
+                .filter(StringUtils::isNotBlank)
+                .distinct()
+                .collect(Collectors.toList());
+        if (distinct.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> records = stringRedisTemplate.opsForValue().multiGet(distinct.stream()
+                .map(ImageDerivativeManager::variantsKey)
+                .collect(Collectors.toList()));
+        Map<String, ImageVariantsVO> result = new LinkedHashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            result.put(distinct.get(i), parse(distinct.get(i), records == null ? null : records.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * 为已有图片补生成衍生图，在调用线程中同步执行；已有记录或非图片文件跳过
+     *
+     * @param storage 原图所在存储
+     * @param key     原图对象键
+     * @return 是否生成了衍生图
+     */
+    public boolean backfill(ObjectStorage storage, String key) throws Exception {
+        if (!isImage(key) || Boolean.TRUE.equals(stringRedisTemplate.hasKey(variantsKey(storage.getUrl(key))))) {
+            return false;
+        }
+        return process(storage, key) != null;
+    }
+
+    /**
+     * 生成并保存衍生图
+     *
+     * @return 衍生图地址，原图不存在或格式不支持时返回 null
+     */
+    ImageVariantsVO process(ObjectStorage storage, String key) throws Exception {
+        int maxSide = imageDerivativeConfig.getSizes().stream()
+                .mapToInt(Integer::intValue)
+                .max()
+                .orElse(0);
+        ImageUtils.DecodedImage decoded;
+        try (InputStream in = storage.getObject(key)) {
+            if (in == null) {
+                return null;
+            }
+            decoded = ImageUtils.decode(in, Math.max(maxSide, imageDerivativeConfig.getPosterMaxSide()),
+                    imageDerivativeConfig.getMaxPixels());
+        }
+        if (decoded == null) {
+            return null;
+        }
+
+        ImageVariantsVO variants = original(storage.getUrl(key));
+        for (Integer size : imageDerivativeConfig.getSizes()) {
+            variants.getVariants().put(size, store(storage, key, String.valueOf(size),
+                    ImageUtils.resize(decoded.getImage(), size)));
+        }
+        if (decoded.isAnimated()) {
+            variants.setPoster(store(storage, key, POSTER,
+                    ImageUtils.resize(decoded.getImage(), imageDerivativeConfig.getPosterMaxSide())));
+        }
+        stringRedisTemplate.opsForValue().set(variantsKey(variants.getOriginal()), JSON.toJSONString(variants));
+        return variants;
+    }
+
+    private String store(ObjectStorage storage, String key, String suffix, BufferedImage image) throws Exception {
+        ImageUtils.EncodedImage encoded = ImageUtils.encode(image, imageDerivativeConfig.getQuality());
+        String variantKey = variantKey(key, suffix, encoded.getExtension());
+        storage.putObject(variantKey, encoded.getData(), encoded.getData().length, encoded.getContentType());
+        return storage.getUrl(variantKey);
+    }
+
+    /**
+     * 衍生图对象键，如 /user_avatar/1/a.png 的 96 像素缩略图为 /user_avatar/1/a.png_96.jpg
+     */
+    static String variantKey(String key, String suffix, String extension) {
+        return key + "_" + suffix + "." + extension;
+    }
+
+    static boolean isImage(String key) {
+        return IMAGE_SUFFIXES.contains(FileUtil.getSuffix(key).toLowerCase());
+    }
+
+    private static ImageVariantsVO parse(String url, String record) {
+        return record == null ? original(url) : JSON.parseObject(record, ImageVariantsVO.class);
+    }
+
+    private static ImageVariantsVO original(String url) {
+        ImageVariantsVO variants = new ImageVariantsVO();
+        variants.setOriginal(url);
+        return variants;
+    }
+
+    private static String variantsKey(String url) {
+        return RedisKey.getKey(RedisKey.FILE_IMAGE_VARIANTS, DigestUtil.md5Hex(url));
+    }
+}
@@ -0,0 +1,380 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.config.AiImageConfig;
+import com.cong.fishisland.config.ThreadPoolConfig;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.model.enums.ImageJobStatusEnum;
+import com.cong.fishisland.model.vo.ai.AiResponse;
+import com.cong.fishisland.model.vo.ai.ImageJobVO;
+import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
+import com.cong.fishisland.model.ws.request.Message;
+import com.cong.fishisland.websocket.event.AIImageJobEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.RedisListCommands;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AI 图片生成任务队列
+ * <p>
+ * 任务放入 Redis 列表，由专用线程池中的少量线程循环消费，生成耗时不占用共用异步线程池。
+ * 消费线程用 BLMOVE（需要 Redis 6.2 及以上）把任务移入执行列表并登记执行租约，执行期间定时续约，完成后移除；
+ * 消费线程崩溃时租约过期，由 {@link #reap()} 放回队列。重新入队的任务如果已经有生成结果，直接按结果完成，不会再生成一次。
+ * 模型和图片描述相同的请求共用一个任务：任务完成前的请求登记到等待列表，完成后逐条通知；
+ * 完成后一段时间内的请求直接返回已生成的图片。进度和结果以 {@link AIImageJobEvent} 发布，由聊天室推送。
+ * <p>
+ * 提交（查结果、登记等待、检查队列长度、入队）和完成（结束任务、取出全部等待）各在一个 Lua 脚本中执行，
+ * 登记等待时任务要么仍在执行、由完成时通知，要么已结束、由本次提交返回结果或重新入队，每条等待的消息恰好被通知一次。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+public class ImageGenerationManager {
+
+    /**
+     * 执行列表的检查间隔
+     */
+    private static final long REAP_INTERVAL_MILLIS = 60_000;
+
+    /**
+     * 执行租约的续约间隔，租约时长为三个间隔
+     */
+    private static final long LEASE_RENEW_INTERVAL_MILLIS = 30_000;
+
+    private static final Duration LEASE = Duration.ofMillis(LEASE_RENEW_INTERVAL_MILLIS * 3);
+
+    /**
+     * 检查时发现没有租约的任务先写入该标记，下次检查仍为该标记（消费线程未登记租约）时重新入队
+     */
+    private static final String REAPER_MARK = "reaper";
+
+    private static final String LEASE_VALUE = "1";
+
+    /**
+     * 提交任务：已有结果返回 {done, url}，任务执行中登记等待返回 {joined}，队列已满返回 {full}，否则入队返回 {queued, 位置}
+     * KEYS: result, pending, waiters, queue  ARGV: 登记的过期时间（秒）, 队列上限, 任务 json, 请求消息 json
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SUBMIT_SCRIPT = new DefaultRedisScript<>(
+            "local url = redis.call('GET', KEYS[1]) \n" +
+                    "if url then return {'done', url} end \n" +
+                    "local pending = redis.call('EXISTS', KEYS[2]) == 1 \n" +
+                    "if not pending and redis.call('LLEN', KEYS[4]) >= tonumber(ARGV[2]) then return {'full'} end \n" +
+                    "redis.call('RPUSH', KEYS[3], ARGV[4]) \n" +
+                    "redis.call('EXPIRE', KEYS[3], ARGV[1]) \n" +
+                    "if pending then return {'joined'} end \n" +
+                    "redis.call('SET', KEYS[2], '1', 'EX', ARGV[1]) \n" +
+                    "return {'queued', tostring(redis.call('RPUSH', KEYS[4], ARGV[3]))}", List.class);
+
+    /**
+     * 结束任务并取出全部等待的消息
+     * KEYS: pending, waiters, processing, running  ARGV: 任务 json
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1], KEYS[4]) \n" +
+                    "redis.call('LREM', KEYS[3], 1, ARGV[1]) \n" +
+                    "local waiters = redis.call('LRANGE', KEYS[2], 0, -1) \n" +
+                    "redis.call('DEL', KEYS[2]) \n" +
+                    "return waiters", List.class);
+
+    /**
+     * 检查执行列表中的一个任务：没有租约时写入标记，标记未被消费线程的租约覆盖时放回队列头部，返回是否重新入队
+     * KEYS: running, processing, queue  ARGV: 任务 json, 标记, 标记过期时间（秒）
+     */
+    private static final RedisScript<Long> REAP_SCRIPT = new DefaultRedisScript<>(
+            "local lease = redis.call('GET', KEYS[1]) \n" +
+                    "if not lease then \n" +
+                    "  redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3]) \n" +
+                    "  return 0 \n" +
+                    "end \n" +
+                    "if lease ~= ARGV[2] then return 0 end \n" +
+                    "redis.call('DEL', KEYS[1]) \n" +
+                    "if redis.call('LREM', KEYS[2], 1, ARGV[1]) == 0 then return 0 end \n" +
+                    "redis.call('LPUSH', KEYS[3], ARGV[1]) \n" +
+                    "return 1", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final AiGatewayManager aiGatewayManager;
+
+    private final AiImageConfig aiImageConfig;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final ThreadPoolTaskExecutor aiImageExecutor;
+
+    /**
+     * 本实例正在执行的任务，定时续约
+     */
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+
+    public ImageGenerationManager(StringRedisTemplate stringRedisTemplate, AiGatewayManager aiGatewayManager,
+                                  AiImageConfig aiImageConfig, ApplicationEventPublisher applicationEventPublisher,
+                                  @Qualifier(ThreadPoolConfig.AI_IMAGE_EXECUTOR) ThreadPoolTaskExecutor aiImageExecutor) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.aiGatewayManager = aiGatewayManager;
+        this.aiImageConfig = aiImageConfig;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.aiImageExecutor = aiImageExecutor;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < aiImageExecutor.getCorePoolSize(); i++) {
+            aiImageExecutor.execute(this::consume);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * 提交图片生成请求
+     *
+     * @param prompt    图片描述
+     * @param requester 发起请求的聊天消息，进度和结果引用该消息推送
+     * @return 任务当前状态
+     */
+    @SuppressWarnings("unchecked")
+    public ImageJobVO submit(String prompt, Message requester) {
+        String model = aiImageConfig.getModel();
+        ImageJobVO job = new ImageJobVO();
+        job.setJobId(jobId(model, prompt));
+        job.setPrompt(prompt.trim());
+        job.setModel(model);
+        job.setStatus(ImageJobStatusEnum.QUEUED.getValue());
+
+        List<String> result = stringRedisTemplate.execute(SUBMIT_SCRIPT,
+                Arrays.asList(resultKey(job.getJobId()), pendingKey(job.getJobId()), waitersKey(job.getJobId()),
+                        queueKey()),
+                String.valueOf(pendingSeconds()), String.valueOf(aiImageConfig.getMaxQueue()),
+                JSON.toJSONString(job), JSON.toJSONString(requester));
+        switch (result.get(0)) {
+            case "done":
+                job.setStatus(ImageJobStatusEnum.SUCCEED.getValue());
+                job.setUrl(result.get(1));
+                break;
+            case "full":
+                job.setStatus(ImageJobStatusEnum.FAILED.getValue());
+                job.setError("生成图片的人太多了，请稍后再试");
+                break;
+            case "queued":
+                job.setPosition(Long.parseLong(result.get(1)));
+                break;
+            default:
+                // 已登记到执行中任务的等待列表
+                break;
+        }
+        publish(job, requester);
+        return job;
+    }
+
+    /**
+     * 取出一个任务并执行
+     *
+     * @param timeout 队列为空时的等待时间
+     * @return 是否执行了任务
+     */
+    boolean processNext(Duration timeout) {
+        String json = stringRedisTemplate.opsForList().move(queueKey(), RedisListCommands.Direction.LEFT,
+                processingKey(), RedisListCommands.Direction.RIGHT, timeout);
+        if (json == null) {
+            return false;
+        }
+        ImageJobVO job = JSON.parseObject(json, ImageJobVO.class);
+        job.setPosition(null);
+        // 重新入队的任务可能已经生成过，按已有结果完成
+        String url = stringRedisTemplate.opsForValue().get(resultKey(job.getJobId()));
+        if (url != null) {
+            job.setStatus(ImageJobStatusEnum.SUCCEED.getValue());
+            job.setUrl(url);
+            complete(job, json);
+            return true;
+        }
+        runningJobs.add(job.getJobId());
+        try {
+            stringRedisTemplate.opsForValue().set(runningKey(job.getJobId()), LEASE_VALUE, LEASE);
+            job.setStatus(ImageJobStatusEnum.RUNNING.getValue());
+            List<String> waiters = stringRedisTemplate.opsForList().range(waitersKey(job.getJobId()), 0, -1);
+            if (waiters != null) {
+                waiters.forEach(waiter -> publish(job, JSON.parseObject(waiter, Message.class)));
+            }
+            generate(job);
+        } finally {
+            runningJobs.remove(job.getJobId());
+        }
+        complete(job, json);
+        return true;
+    }
+
+    /**
+     * 续约本实例正在执行的任务，执行时间超过租约时长的任务不会被重新入队
+     */
+    @Scheduled(fixedDelay = LEASE_RENEW_INTERVAL_MILLIS, initialDelay = LEASE_RENEW_INTERVAL_MILLIS)
+    public void renewLeases() {
+        for (String jobId : runningJobs) {
+            try {
+                stringRedisTemplate.opsForValue().set(runningKey(jobId), LEASE_VALUE, LEASE);
+            } catch (Exception e) {
+                log.warn("AI 图片生成任务 {} 续约失败：{}", jobId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 执行列表中租约已过期的任务（消费线程或实例崩溃，未能续约）放回队列头部
+     * <p>
+     * 移入执行列表和登记租约不是原子的，没有租约的任务先标记，下次检查时仍未登记租约才重新入队。
+     */
+    @Scheduled(fixedDelay = REAP_INTERVAL_MILLIS, initialDelay = REAP_INTERVAL_MILLIS)
+    public void reap() {
+        try {
+            List<String> processing = stringRedisTemplate.opsForList().range(processingKey(), 0, -1);
+            if (processing == null) {
+                return;
+            }
+            String markSeconds = String.valueOf(REAP_INTERVAL_MILLIS * 3 / 1000);
+            for (String json : processing) {
+                String jobId = JSON.parseObject(json, ImageJobVO.class).getJobId();
+                Long requeued = stringRedisTemplate.execute(REAP_SCRIPT,
+                        Arrays.asList(runningKey(jobId), processingKey(), queueKey()), json, REAPER_MARK, markSeconds);
+                if (requeued != null && requeued > 0) {
+                    log.warn("AI 图片生成任务 {} 的租约已过期，重新入队", jobId);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("检查 AI 图片生成执行列表失败：{}", e.getMessage());
+        }
+    }
+
+    private void generate(ImageJobVO job) {
+        try {
+            AiResponse aiResponse = aiGatewayManager.chat(AiGatewayManager.CHUTES_IMAGE, job.getModel(),
+                    messages(job.getPrompt()), false);
+            job.setStatus(ImageJobStatusEnum.SUCCEED.getValue());
+            job.setUrl(aiResponse.getAnswer());
+            stringRedisTemplate.opsForValue().set(resultKey(job.getJobId()), job.getUrl(),
+                    Duration.ofSeconds(aiImageConfig.getResultSeconds()));
+        } catch (Exception e) {
+            log.error("AI 图片生成失败，任务 {}", job.getJobId(), e);
+            job.setStatus(ImageJobStatusEnum.FAILED.getValue());
+            job.setError("生成图片失败了，请稍后再试");
+        }
+    }
+
+    /**
+     * 去重登记和等待列表的过期时间：排在队尾时前面的任务全部执行完的时间，加上本任务的执行时间
+     */
+    private long pendingSeconds() {
+        int consumers = Math.max(aiImageExecutor.getCorePoolSize(), 1);
+        return aiImageConfig.getJobTimeoutSeconds() * ((long) aiImageConfig.getMaxQueue() / consumers + 1);
+    }
+
+    private void consume() {
+        Duration timeout = Duration.ofSeconds(aiImageConfig.getPollSeconds());
+        while (running) {
+            try {
+                processNext(timeout);
+            } catch (Exception e) {
+                log.error("消费 AI 图片生成队列失败", e);
+                sleep(timeout.toMillis());
+            }
+        }
+    }
+
+    /**
+     * 结束任务，逐条通知取出的等待消息
+     */
+    @SuppressWarnings("unchecked")
+    private void complete(ImageJobVO job, String json) {
+        List<String> waiters = stringRedisTemplate.execute(COMPLETE_SCRIPT,
+                Arrays.asList(pendingKey(job.getJobId()), waitersKey(job.getJobId()), processingKey(),
+                        runningKey(job.getJobId())), json);
+        if (waiters != null) {
+            waiters.forEach(waiter -> publish(job, JSON.parseObject(waiter, Message.class)));
+        }
+    }
+
+    private void publish(ImageJobVO job, Message requester) {
+        try {
+            applicationEventPublisher.publishEvent(new AIImageJobEvent(this, copy(job), requester));
+        } catch (Exception e) {
+            log.error("推送 AI 图片生成进度失败，任务 {}", job.getJobId(), e);
+        }
+    }
+
+    /**
+     * 任务 id：模型和规范化后的描述（去掉首尾空白、合并连续空白）的哈希
+     */
+    static String jobId(String model, String prompt) {
+        return DigestUtil.sha256Hex(model + "\n" + StringUtils.normalizeSpace(prompt));
+    }
+
+    private static List<SiliconFlowRequest.Message> messages(String prompt) {
+        SiliconFlowRequest.Message message = new SiliconFlowRequest.Message();
+        message.setRole("user");
+        message.setContent(prompt);
+        return Collections.singletonList(message);
+    }
+
+    private static ImageJobVO copy(ImageJobVO job) {
+        return JSON.parseObject(JSON.toJSONString(job), ImageJobVO.class);
+    }
+
+    private static String queueKey() {
+        return RedisKey.getKey(RedisKey.AI_IMAGE_QUEUE);
+    }
+
+    private static String processingKey() {
+        return RedisKey.getKey(RedisKey.AI_IMAGE_PROCESSING);
+    }
+
+    private static String runningKey(String jobId) {
+        return RedisKey.getKey(RedisKey.AI_IMAGE_RUNNING, jobId);
+    }
+
+    private static String pendingKey(String jobId) {
+        return RedisKey.getKey(RedisKey.AI_IMAGE_PENDING, jobId);
+    }
+
+    private static String resultKey(String jobId) {
+        return RedisKey.getKey(RedisKey.AI_IMAGE_RESULT, jobId);
+    }
+
+    private static String waitersKey(String jobId) {
+        return RedisKey.getKey(RedisKey.AI_IMAGE_WAITERS, jobId);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.config.LeaderboardConfig;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.model.enums.LeaderboardPeriodEnum;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.DefaultTuple;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 排行榜
+ * <p>
+ * 基于 Redis 有序集合，每个榜单可同时维护总榜、日榜、周榜。日榜、周榜按日期分键，周期切换时自然轮换，
+ * 旧周期保留一段时间供查询，周期结束后只归档前若干名。每次查询只有一次往返（管道或脚本）。
+ * 每个榜单有版本号，分数变化时递增；补全了用户等展示信息的前 N 名按版本号缓存在本地，版本不变时不再补全。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+public class LeaderboardManager {
+
+    /**
+     * 成员名次及前后各 radius 名：返回 {起始名次（从 0 开始）, [成员, 分数, ...]}
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> AROUND_SCRIPT = new DefaultRedisScript<>(
+            "local rank = redis.call('ZREVRANK', KEYS[1], ARGV[1])\n" +
+                    "if not rank then return {} end\n" +
+                    "local start = math.max(rank - tonumber(ARGV[2]), 0)\n" +
+                    "return {start, redis.call('ZREVRANGE', KEYS[1], start, rank + tonumber(ARGV[2]), 'WITHSCORES')}",
+            List.class);
+
+    /**
+     * 整体替换榜单时每条 ZADD 的成员数
+     */
+    private static final int REPLACE_BATCH_SIZE = 1000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final LeaderboardConfig leaderboardConfig;
+
+    /**
+     * 榜单键#名次数 -> 版本号和补全后的前 N 名
+     */
+    private final Cache<String, CachedTop> topCache;
+
+    public LeaderboardManager(StringRedisTemplate stringRedisTemplate, LeaderboardConfig leaderboardConfig) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.leaderboardConfig = leaderboardConfig;
+        this.topCache = Caffeine.newBuilder()
+                .maximumSize(leaderboardConfig.getCacheSize())
+                .expireAfterWrite(1, TimeUnit.DAYS)
+                .build();
+    }
+
+    /**
+     * 增加成员分数，同时计入指定的各个周期
+     */
+    public void increment(String board, String member, double delta, LeaderboardPeriodEnum... periods) {
+        LocalDate today = LocalDate.now();
+        byte[] memberBytes = toBytes(member);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (LeaderboardPeriodEnum period : periods) {
+                byte[] key = toBytes(boardKey(board, period, today));
+                // 先写分数再递增版本号，读到新版本号时分数一定已更新
+                connection.zSetCommands().zIncrBy(key, delta, memberBytes);
+                bumpVersion(connection, board, period, today);
+                expire(connection, key, period);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 整体替换当前周期的榜单，如每天按数据库重新生成
+     *
+     * @param scores 成员 -> 分数
+     */
+    public void replace(String board, LeaderboardPeriodEnum period, Map<String, Double> scores) {
+        LocalDate today = LocalDate.now();
+        String key = boardKey(board, period, today);
+        byte[] keyBytes = toBytes(key);
+        byte[] tmpKey = toBytes(key + ":tmp");
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().del(tmpKey);
+            Iterator<Map.Entry<String, Double>> iterator = scores.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Set<RedisZSetCommands.Tuple> tuples = new HashSet<>();
+                while (iterator.hasNext() && tuples.size() < REPLACE_BATCH_SIZE) {
+                    Map.Entry<String, Double> entry = iterator.next();
+                    tuples.add(new DefaultTuple(toBytes(entry.getKey()), entry.getValue()));
+                }
+                connection.zSetCommands().zAdd(tmpKey, tuples);
+            }
+            // 写完再整体替换，读取方不会看到写了一半的榜单
+            if (scores.isEmpty()) {
+                connection.keyCommands().del(keyBytes);
+            } else {
+                connection.keyCommands().rename(tmpKey, keyBytes);
+                expire(connection, keyBytes, period);
+            }
+            bumpVersion(connection, board, period, today);
+            return null;
+        });
+    }
+
+    /**
+     * 当前周期的前 n 名
+     */
+    public List<Entry> top(String board, LeaderboardPeriodEnum period, int n) {
+        String key = boardKey(board, period, LocalDate.now());
+        Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet()
+                .reverseRangeWithScores(key, 0, n - 1L);
+        return toEntries(tuples);
+    }
+
+    /**
+     * 当前周期补全了展示信息的前 n 名
+     *
+     * @param hydrator 批量补全函数，结果按版本号缓存，不能返回之后会被修改的对象
+     */
+    public <T> List<T> top(String board, LeaderboardPeriodEnum period, int n, Function<List<Entry>, List<T>> hydrator) {
+        return top(board, period, LocalDate.now(), n, hydrator);
+    }
+
+    /**
+     * 指定日期所在周期补全了展示信息的前 n 名，可查询已归档的周期
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> top(String board, LeaderboardPeriodEnum period, LocalDate date, int n,
+                           Function<List<Entry>, List<T>> hydrator) {
+        String key = boardKey(board, period, date);
+        byte[] keyBytes = toBytes(key);
+        byte[] versionKey = toBytes(versionKey(board, period, date));
+        // 版本号和名次在同一次往返中读取
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().get(versionKey);
+            connection.zSetCommands().zRevRangeWithScores(keyBytes, 0, n - 1L);
+            return null;
+        });
+        String version = results.get(0) == null ? "0" : results.get(0).toString();
+        String cacheKey = key + "#" + n;
+        CachedTop cached = topCache.getIfPresent(cacheKey);
+        if (cached != null && cached.version.equals(version)) {
+            return (List<T>) cached.items;
+        }
+        List<T> items = Collections.unmodifiableList(
+                hydrator.apply(toEntries((Set<ZSetOperations.TypedTuple<String>>) results.get(1))));
+        topCache.put(cacheKey, new CachedTop(version, items));
+        return items;
+    }
+
+    /**
+     * 成员在当前周期的名次和分数，不在榜上时返回 null
+     */
+    public Entry rank(String board, LeaderboardPeriodEnum period, String member) {
+        byte[] key = toBytes(boardKey(board, period, LocalDate.now()));
+        byte[] memberBytes = toBytes(member);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.zSetCommands().zRevRank(key, memberBytes);
+            connection.zSetCommands().zScore(key, memberBytes);
+            return null;
+        });
+        if (results.get(0) == null || results.get(1) == null) {
+            return null;
+        }
+        return new Entry(member, (Double) results.get(1), (Long) results.get(0) + 1);
+    }
+
+    /**
+     * 成员在当前周期的名次及前后各 radius 名，不在榜上时返回空列表
+     */
+    public List<Entry> around(String board, LeaderboardPeriodEnum period, String member, int radius) {
+        String key = boardKey(board, period, LocalDate.now());
+        List<?> result = stringRedisTemplate.execute(AROUND_SCRIPT, Collections.singletonList(key), member,
+                String.valueOf(radius));
+        if (result == null || result.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long start = ((Number) result.get(0)).longValue();
+        List<?> flat = (List<?>) result.get(1);
+        List<Entry> entries = new ArrayList<>(flat.size() / 2);
+        for (int i = 0; i + 1 < flat.size(); i += 2) {
+            entries.add(new Entry(flat.get(i).toString(), Double.parseDouble(flat.get(i + 1).toString()),
+                    start + i / 2 + 1));
+        }
+        return entries;
+    }
+
+    /**
+     * 当前周期的成员数
+     */
+    public long size(String board, LeaderboardPeriodEnum period) {
+        Long size = stringRedisTemplate.opsForZSet().zCard(boardKey(board, period, LocalDate.now()));
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * 每天归档上一个周期：日榜、周榜只保留前若干名
+     */
+    @Scheduled(cron = "0 10 0 * * ?")
+    public void archive() {
+        try {
+            archive(LocalDate.now());
+        } catch (Exception e) {
+            log.error("排行榜归档失败", e);
+        }
+    }
+
+    void archive(LocalDate today) {
+        Set<String> boards = stringRedisTemplate.opsForSet().members(RedisKey.getKey(RedisKey.LEADERBOARD_BOARDS));
+        if (boards == null || boards.isEmpty()) {
+            return;
+        }
+        long keep = leaderboardConfig.getArchiveSize();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String boardPeriod : boards) {
+                int separator = boardPeriod.lastIndexOf(':');
+                LeaderboardPeriodEnum period = LeaderboardPeriodEnum.getEnumByValue(boardPeriod.substring(separator + 1));
+                if (period == null || period == LeaderboardPeriodEnum.TOTAL) {
+                    continue;
+                }
+                String key = boardKey(boardPeriod.substring(0, separator), period, period.previous(today));
+                // 按分数升序删除，保留分数最高的 keep 名
+                connection.zSetCommands().zRemRange(toBytes(key), 0, -keep - 1);
+            }
+            return null;
+        });
+        log.info("排行榜归档完成：{} 个榜单", boards.size());
+    }
+
+    private void bumpVersion(RedisConnection connection, String board, LeaderboardPeriodEnum period, LocalDate date) {
+        byte[] versionKey = toBytes(versionKey(board, period, date));
+        connection.stringCommands().incr(versionKey);
+        expire(connection, versionKey, period);
+        connection.setCommands().sAdd(toBytes(RedisKey.getKey(RedisKey.LEADERBOARD_BOARDS)),
+                toBytes(board + ":" + period.getValue()));
+    }
+
+    private void expire(RedisConnection connection, byte[] key, LeaderboardPeriodEnum period) {
+        Duration retention = retention(period);
+        if (retention != null) {
+            connection.keyCommands().expire(key, retention.getSeconds());
+        }
+    }
+
+    private Duration retention(LeaderboardPeriodEnum period) {
+        switch (period) {
+            case DAILY:
+                return Duration.ofDays(leaderboardConfig.getDailyRetentionDays() + 1L);
+            case WEEKLY:
+                return Duration.ofDays(7L * (leaderboardConfig.getWeeklyRetentionWeeks() + 1L));
+            default:
+                return null;
+        }
+    }
+
+    static String boardKey(String board, LeaderboardPeriodEnum period, LocalDate date) {
+        return RedisKey.getKey(RedisKey.LEADERBOARD, board, period.periodId(date));
+    }
+
+    private static String versionKey(String board, LeaderboardPeriodEnum period, LocalDate date) {
+        return RedisKey.getKey(RedisKey.LEADERBOARD_VERSION, board, period.periodId(date));
+    }
+
+    private static List<Entry> toEntries(Set<ZSetOperations.TypedTuple<String>> tuples) {
+        if (tuples == null || tuples.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Entry> entries = new ArrayList<>(tuples.size());
+        long rank = 0;
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            Double score = tuple.getScore();
+            entries.add(new Entry(tuple.getValue(), score == null ? 0 : score, ++rank));
+        }
+        return entries;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 榜单中的一名
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Entry {
+
+        private final String member;
+
+        private final double score;
+
+        /**
+         * 名次，从 1 开始
+         */
+        private final long rank;
+    }
+
+    @AllArgsConstructor
+    private static class CachedTop {
+
+        private final String version;
+
+        private final List<?> items;
+    }
+}
@@ -2,29 +2,63 @@ package com.cong.fishisland.manager;
 
 
 import cn.dev33.satoken.stp.StpUtil;
+import com.github.benmanes.caffeine.cache.Ticker;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.config.MinioConfig;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
 import io.minio.*;
 import io.minio.http.Method;
 import io.minio.messages.Item;
+import io.minio.messages.Part;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
-public class MinioManager {
+public class MinioManager implements ObjectStorage {
+
+    public static final String STORAGE_NAME = "minio";
+
+    /**
+     * 长度未知时的分片大小（MinIO 要求至少 5MB）
+     */
+    private static final long STREAM_PART_SIZE = 5L * 1024 * 1024;
+
     @Resource
     MinioConfig minioConfig;
     @Resource
     MinioClient minioClient;
 
+    /**
+     * 分片上传接口在 SDK 中是 protected 的，按需创建子类客户端
+     */
+    private volatile MultipartMinioClient multipartClient;
+
+    /**
+     * 下载预签名地址缓存
+     */
+    private PresignedUrlCache downloadUrlCache;
+
+    @PostConstruct
+    public void init() {
+        downloadUrlCache = new PresignedUrlCache(this::signDownloadUrl, minioConfig.getPresignExpirySeconds(),
+                minioConfig.getPresignRefreshMarginSeconds(), minioConfig.getPresignCacheSize(), Ticker.systemTicker());
+    }
+
     //获取列表
     public List<String> listObjects() {
         List<String> list = new ArrayList<>();
@@ -67,7 +101,7 @@ public class MinioManager {
                     .bucket(minioConfig.getBucketName())
                     .object(fileName)
                     .contentType(contentType)
-                    .stream(is, is.available(), -1)
+                    .stream(is, -1, STREAM_PART_SIZE)
                     .build();
             minioClient.putObject(putObjectArgs);
             is.close();
@@ -78,6 +112,127 @@ public class MinioManager {
         }
     }
 
+    /**
+     * 上传长度未知的流（如边下载边上传），按分片读取，不把整个文件读入内存
+     *
+     * @param is          输入流，上传后关闭
+     * @param objectName  对象名
+     * @param contentType 内容类型
+     * @return 访问地址
+     */
+    public String uploadStream(InputStream is, String objectName, String contentType) {
+        try (InputStream in = is) {
+            PutObjectArgs putObjectArgs = PutObjectArgs.builder()
+                    .bucket(minioConfig.getBucketName())
+                    .object(objectName)
+                    .contentType(contentType)
+                    .stream(in, -1, STREAM_PART_SIZE)
+                    .build();
+            minioClient.putObject(putObjectArgs);
+            return minioConfig.getUrl() + objectName;
+        } catch (Exception e) {
+            log.error("MinIO 文件上传失败：{}", e.getMessage(), e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "MinIO 文件上传失败");
+        }
+    }
+
+    @Override
+    public String name() {
+        return STORAGE_NAME;
+    }
+
+    @Override
+    public void putObject(String key, byte[] data, int length, String contentType) throws Exception {
+        PutObjectArgs.Builder builder = PutObjectArgs.builder()
+                .bucket(minioConfig.getBucketName())
+                .object(key)
+                .stream(new ByteArrayInputStream(data, 0, length), length, -1);
+        if (contentType != null) {
+            builder.contentType(contentType);
+        }
+        minioClient.putObject(builder.build());
+    }
+
+    @Override
+    public String initiateMultipartUpload(String key, String contentType) throws Exception {
+        Multimap<String, String> headers = contentType == null ? ImmutableMultimap.of()
+                : ImmutableMultimap.of("Content-Type", contentType);
+        return multipartClient().initiate(minioConfig.getBucketName(), key, headers);
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, byte[] data, int length) throws Exception {
+        return multipartClient().part(minioConfig.getBucketName(), key, uploadId, partNumber, data, length);
+    }
+
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, List<String> etags) throws Exception {
+        Part[] parts = new Part[etags.size()];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new Part(i + 1, etags.get(i));
+        }
+        multipartClient().complete(minioConfig.getBucketName(), key, uploadId, parts);
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) throws Exception {
+        multipartClient().abort(minioConfig.getBucketName(), key, uploadId);
+    }
+
+    @Override
+    public void removeObject(String key) throws Exception {
+        minioClient.removeObject(RemoveObjectArgs.builder()
+                .bucket(minioConfig.getBucketName())
+                .object(key)
+                .build());
+    }
+
+    @Override
+    public String getUrl(String key) {
+        return minioConfig.getUrl() + key;
+    }
+
+    private MultipartMinioClient multipartClient() {
+        if (multipartClient == null) {
+            synchronized (this) {
+                if (multipartClient == null) {
+                    multipartClient = new MultipartMinioClient(MinioAsyncClient.builder()
+                            .endpoint(minioConfig.getEndpoint())
+                            .credentials(minioConfig.getAccesskey(), minioConfig.getSecretKey())
+                            .build());
+                }
+            }
+        }
+        return multipartClient;
+    }
+
+    /**
+     * 开放 SDK 中 protected 的分片上传接口（异步接口，调用线程等待结果）
+     */
+    private static class MultipartMinioClient extends MinioAsyncClient {
+
+        MultipartMinioClient(MinioAsyncClient client) {
+            super(client);
+        }
+
+        String initiate(String bucket, String key, Multimap<String, String> headers) throws Exception {
+            return createMultipartUploadAsync(bucket, null, key, headers, null).join().result().uploadId();
+        }
+
+        String part(String bucket, String key, String uploadId, int partNumber, byte[] data, int length)
+                throws Exception {
+            return uploadPartAsync(bucket, null, key, data, length, uploadId, partNumber, null, null).join().etag();
+        }
+
+        void complete(String bucket, String key, String uploadId, Part[] parts) throws Exception {
+            completeMultipartUploadAsync(bucket, null, key, uploadId, parts, null, null).join();
+        }
+
+        void abort(String bucket, String key, String uploadId) throws Exception {
+            abortMultipartUploadAsync(bucket, null, key, uploadId, null, null).join();
+        }
+    }
+
     //获取minio中地址
     public String getObjectUrl(String objectName) {
         try {
@@ -96,6 +251,7 @@ public class MinioManager {
     }
 
     //下载minio服务的文件
+    @Override
     public InputStream getObject(String objectName) {
         try {
             GetObjectArgs getObjectArgs = GetObjectArgs.builder()
@@ -138,28 +294,50 @@ public class MinioManager {
     }
 
     /**
-     * 生成下载预签名URL（GET）
+     * 生成下载预签名URL（GET），有效期内复用已签名的地址
      *
      * @param fileName 文件名
      * @return 预签名URL
      */
     public String generatePresignedDownloadUrl(String fileName) {
         try {
-            String safeFileName = sanitizeFileName(fileName);
-            return minioClient.getPresignedObjectUrl(
-                    GetPresignedObjectUrlArgs.builder()
-                            .method(Method.GET)
-                            .bucket(minioConfig.getBucketName())
-                            .object(safeFileName)
-                            // 1小时有效
-                            .expiry(1, TimeUnit.HOURS)
-                            .build()
-            );
+            return downloadUrlCache.get(sanitizeFileName(fileName));
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "生成预签名URL失败");
+        }
+    }
+
+    /**
+     * 批量生成下载预签名URL（GET）
+     *
+     * @param fileNames 文件名
+     * @return 文件名到预签名URL的映射
+     */
+    public Map<String, String> generatePresignedDownloadUrls(Collection<String> fileNames) {
+        try {
+            Map<String, String> urls = downloadUrlCache.getAll(fileNames.stream()
+                    .map(this::sanitizeFileName)
+                    .collect(Collectors.toList()));
+            return fileNames.stream()
+                    .distinct()
+                    .collect(Collectors.toMap(fileName -> fileName, fileName -> urls.get(sanitizeFileName(fileName)),
+                            (a, b) -> a, LinkedHashMap::new));
         } catch (Exception e) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "生成预签名URL失败");
         }
     }
 
+    private String signDownloadUrl(String objectName, int expirySeconds) throws Exception {
+        return minioClient.getPresignedObjectUrl(
+                GetPresignedObjectUrlArgs.builder()
+                        .method(Method.GET)
+                        .bucket(minioConfig.getBucketName())
+                        .object(objectName)
+                        .expiry(expirySeconds, TimeUnit.SECONDS)
+                        .build()
+        );
+    }
+
     // 文件名安全处理
     private String sanitizeFileName(String fileName) {
         // 过滤非法字符，防止路径遍历
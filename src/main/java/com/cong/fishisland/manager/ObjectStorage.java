@@ -0,0 +1,71 @@
+package com.cong.fishisland.manager;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * 支持分片上传的对象存储，供 {@link StreamUploadManager} 边读请求体边上传
+ *
+ * @author cong
+ */
+public interface ObjectStorage {
+
+    /**
+     * 存储名称，用于区分不同存储的去重记录
+     */
+    String name();
+
+    /**
+     * 一次性上传（内容不足一个分片时使用）
+     *
+     * @param key         对象键
+     * @param data        数据，只读取前 length 个字节
+     * @param length      数据长度
+     * @param contentType 内容类型
+     */
+    void putObject(String key, byte[] data, int length, String contentType) throws Exception;
+
+    /**
+     * 初始化分片上传
+     *
+     * @return 分片上传 id
+     */
+    String initiateMultipartUpload(String key, String contentType) throws Exception;
+
+    /**
+     * 上传一个分片，返回后 data 即可复用
+     *
+     * @param partNumber 分片序号，从 1 开始
+     * @return 分片 ETag
+     */
+    String uploadPart(String key, String uploadId, int partNumber, byte[] data, int length) throws Exception;
+
+    /**
+     * 完成分片上传
+     *
+     * @param etags 按分片序号排列的 ETag
+     */
+    void completeMultipartUpload(String key, String uploadId, List<String> etags) throws Exception;
+
+    /**
+     * 放弃分片上传，清理已上传的分片
+     */
+    void abortMultipartUpload(String key, String uploadId) throws Exception;
+
+    /**
+     * 读取对象
+     *
+     * @return 对象内容，调用方负责关闭；不存在时返回 null
+     */
+    InputStream getObject(String key) throws Exception;
+
+    /**
+     * 删除对象
+     */
+    void removeObject(String key) throws Exception;
+
+    /**
+     * 对象的访问地址
+     */
+    String getUrl(String key);
+}
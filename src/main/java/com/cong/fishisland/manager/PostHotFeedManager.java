@@ -0,0 +1,413 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.collection.CollUtil;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.model.dto.post.PostHotScore;
+import com.cong.fishisland.model.entity.post.Post;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 帖子热榜（Redis 有序集合物化）
+ * <p>
+ * 热度 = log10(max(互动权重, 1)) + (发帖时间 - 纪元) / 衰减周期 + 加精加成。
+ * 时间项随发帖时间单调增长，新帖天然排在同等互动的旧帖之前，
+ * 互动事件只需原子地累加权重并重算该帖分数，无需全量重排；后台任务定期按数据库校正并裁剪。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+public class PostHotFeedManager {
+
+    /**
+     * 时间项纪元（2024-01-01 00:00:00 UTC，秒）
+     */
+    private static final long EPOCH_SECONDS = 1704067200L;
+
+    /**
+     * 衰减周期（秒）：每晚发 12.5 小时，需要 10 倍互动才能追平
+     */
+    private static final double DECAY_SECONDS = 45000D;
+
+    /**
+     * 加精加成（相当于 10 倍互动）
+     */
+    private static final double FEATURED_BOOST = 1.0D;
+
+    public static final double VIEW_WEIGHT = 0.1D;
+    public static final double THUMB_WEIGHT = 2D;
+    public static final double FAVOUR_WEIGHT = 3D;
+    public static final double COMMENT_WEIGHT = 4D;
+
+    /**
+     * 热榜只收录近 30 天的帖子
+     */
+    public static final long WINDOW_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+    /**
+     * 热榜最大容量
+     */
+    static final int MAX_FEED_SIZE = 10000;
+
+    /**
+     * 翻页时每批多取的条数，用于跳过与游标同分的记录；同分记录更多时继续取下一批
+     */
+    private static final int TIE_OVERFETCH = 32;
+
+    /**
+     * 累加互动权重并重算分数；帖子不在热榜中（过旧或已删除）时忽略
+     * KEYS: feed, weight, base  ARGV: postId, delta
+     */
+    private static final RedisScript<Long> INCR_WEIGHT_SCRIPT = new DefaultRedisScript<>(
+            "local base = redis.call('HGET', KEYS[3], ARGV[1]) \n" +
+                    "if not base then return 0 end \n" +
+                    "local w = tonumber(redis.call('HINCRBYFLOAT', KEYS[2], ARGV[1], ARGV[2])) \n" +
+                    "if w < 1 then w = 1 end \n" +
+                    "redis.call('ZADD', KEYS[1], math.log10(w) + tonumber(base), ARGV[1]) \n" +
+                    "return 1", Long.class);
+
+    /**
+     * 设置基础分（发帖、加精变化）并重算分数
+     * KEYS: feed, weight, base  ARGV: postId, base, initWeight
+     */
+    private static final RedisScript<Long> SET_BASE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[3], ARGV[1], ARGV[2]) \n" +
+                    "redis.call('HSETNX', KEYS[2], ARGV[1], ARGV[3]) \n" +
+                    "local w = tonumber(redis.call('HGET', KEYS[2], ARGV[1])) \n" +
+                    "if w < 1 then w = 1 end \n" +
+                    "redis.call('ZADD', KEYS[1], math.log10(w) + tonumber(ARGV[2]), ARGV[1]) \n" +
+                    "return 1", Long.class);
+
+    /**
+     * 用临时键原子替换热榜三件套
+     * KEYS: tmpFeed, tmpWeight, tmpBase, feed, weight, base
+     */
+    private static final RedisScript<Long> SWAP_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then \n" +
+                    "  redis.call('DEL', KEYS[2], KEYS[3], KEYS[4], KEYS[5], KEYS[6]) \n" +
+                    "  return 0 \n" +
+                    "end \n" +
+                    "redis.call('RENAME', KEYS[1], KEYS[4]) \n" +
+                    "redis.call('RENAME', KEYS[2], KEYS[5]) \n" +
+                    "redis.call('RENAME', KEYS[3], KEYS[6]) \n" +
+                    "return 1", Long.class);
+
+    private static final String TMP_SUFFIX = ":rebalance";
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    // region 事件
+
+    /**
+     * 新帖进入热榜
+     */
+    public void onPostCreated(Post post) {
+        if (post == null || post.getId() == null) {
+            return;
+        }
+        Date createTime = post.getCreateTime() == null ? new Date() : post.getCreateTime();
+        setBase(post.getId(), computeBase(createTime, post.getIsFeatured()), 0D);
+    }
+
+    /**
+     * 加精状态变化
+     */
+    public void onFeaturedChanged(Post post) {
+        if (post == null || post.getId() == null || post.getCreateTime() == null) {
+            return;
+        }
+        if (System.currentTimeMillis() - post.getCreateTime().getTime() > WINDOW_MILLIS) {
+            return;
+        }
+        setBase(post.getId(), computeBase(post.getCreateTime(), post.getIsFeatured()), 0D);
+    }
+
+    /**
+     * 帖子删除
+     */
+    public void onPostDeleted(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        String member = String.valueOf(postId);
+        try {
+            stringRedisTemplate.opsForZSet().remove(feedKey(), member);
+            stringRedisTemplate.opsForHash().delete(weightKey(), member);
+            stringRedisTemplate.opsForHash().delete(baseKey(), member);
+        } catch (Exception e) {
+            log.error("热榜移除帖子失败: postId={}", postId, e);
+        }
+    }
+
+    public void onView(Long postId) {
+        incrWeight(postId, VIEW_WEIGHT);
+    }
+
+    /**
+     * @param delta 1 点赞，-1 取消点赞
+     */
+    public void onThumb(Long postId, int delta) {
+        incrWeight(postId, THUMB_WEIGHT * delta);
+    }
+
+    /**
+     * @param delta 1 收藏，-1 取消收藏
+     */
+    public void onFavour(Long postId, int delta) {
+        incrWeight(postId, FAVOUR_WEIGHT * delta);
+    }
+
+    /**
+     * @param delta 1 新增评论，-1 删除评论
+     */
+    public void onComment(Long postId, int delta) {
+        incrWeight(postId, COMMENT_WEIGHT * delta);
+    }
+
+    /**
+     * 删除已失效的帖子（回表时发现不存在）
+     */
+    public void removeAll(Collection<Long> postIds) {
+        postIds.forEach(this::onPostDeleted);
+    }
+
+    // endregion
+
+    /**
+     * 按游标获取热榜帖子 id
+     *
+     * @param cursor   上一页游标（首页为空）
+     * @param pageSize 页面大小
+     * @return {@link HotFeedPage}
+     */
+    public HotFeedPage page(String cursor, int pageSize) {
+        HotFeedCursor hotFeedCursor = decodeCursor(cursor);
+        HotFeedPage hotFeedPage = new HotFeedPage();
+        int batchSize = pageSize + 1 + TIE_OVERFETCH;
+        ZSetOperations.TypedTuple<String> last = null;
+        for (long offset = 0; ; offset += batchSize) {
+            Set<ZSetOperations.TypedTuple<String>> tuples;
+            if (hotFeedCursor == null) {
+                tuples = stringRedisTemplate.opsForZSet().reverseRangeWithScores(feedKey(), offset,
+                        offset + batchSize - 1);
+            } else {
+                tuples = stringRedisTemplate.opsForZSet().reverseRangeByScoreWithScores(feedKey(),
+                        Double.NEGATIVE_INFINITY, hotFeedCursor.getScore(), offset, batchSize);
+            }
+            if (CollUtil.isEmpty(tuples)) {
+                return hotFeedPage;
+            }
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                if (tuple.getValue() == null || tuple.getScore() == null) {
+                    continue;
+                }
+                // 同分成员按成员字典序倒序排列，跳过游标及其之前的记录
+                if (hotFeedCursor != null && tuple.getScore() == hotFeedCursor.getScore()
+                        && tuple.getValue().compareTo(hotFeedCursor.getMember()) >= 0) {
+                    continue;
+                }
+                if (hotFeedPage.getPostIds().size() == pageSize) {
+                    hotFeedPage.setNextCursor(encodeCursor(last));
+                    return hotFeedPage;
+                }
+                hotFeedPage.getPostIds().add(Long.valueOf(tuple.getValue()));
+                last = tuple;
+            }
+            if (tuples.size() < batchSize) {
+                return hotFeedPage;
+            }
+        }
+    }
+
+    /**
+     * 用数据库数据整体重建热榜（校正事件丢失、剔除过期帖子、裁剪容量）
+     *
+     * @param scores 近 {@link #WINDOW_MILLIS} 内帖子的热度字段
+     * @return 热榜中的帖子数
+     */
+    public long rebalance(Iterable<PostHotScore> scores) {
+        String tmpFeedKey = feedKey() + TMP_SUFFIX;
+        String tmpWeightKey = weightKey() + TMP_SUFFIX;
+        String tmpBaseKey = baseKey() + TMP_SUFFIX;
+        stringRedisTemplate.delete(Arrays.asList(tmpFeedKey, tmpWeightKey, tmpBaseKey));
+        List<PostHotScore> batch = new ArrayList<>(1000);
+        long total = 0;
+        for (PostHotScore score : scores) {
+            batch.add(score);
+            if (batch.size() == 1000) {
+                writeBatch(tmpFeedKey, tmpWeightKey, tmpBaseKey, batch);
+                total += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(tmpFeedKey, tmpWeightKey, tmpBaseKey, batch);
+            total += batch.size();
+        }
+        // 只保留分数最高的 MAX_FEED_SIZE 条
+        if (total > MAX_FEED_SIZE) {
+            Set<String> trimmed = stringRedisTemplate.opsForZSet().range(tmpFeedKey, 0, total - MAX_FEED_SIZE - 1);
+            stringRedisTemplate.opsForZSet().removeRange(tmpFeedKey, 0, total - MAX_FEED_SIZE - 1);
+            if (CollUtil.isNotEmpty(trimmed)) {
+                stringRedisTemplate.opsForHash().delete(tmpWeightKey, trimmed.toArray());
+                stringRedisTemplate.opsForHash().delete(tmpBaseKey, trimmed.toArray());
+            }
+            total = MAX_FEED_SIZE;
+        }
+        stringRedisTemplate.execute(SWAP_SCRIPT, Arrays.asList(tmpFeedKey, tmpWeightKey, tmpBaseKey,
+                feedKey(), weightKey(), baseKey()));
+        return total;
+    }
+
+    /**
+     * 计算互动权重
+     */
+    public static double computeWeight(PostHotScore score) {
+        return toInt(score.getViewNum()) * VIEW_WEIGHT
+                + toInt(score.getThumbNum()) * THUMB_WEIGHT
+                + toInt(score.getFavourNum()) * FAVOUR_WEIGHT
+                + toInt(score.getCommentNum()) * COMMENT_WEIGHT;
+    }
+
+    /**
+     * 计算基础分（时间项 + 加精加成）
+     */
+    public static double computeBase(Date createTime, Integer isFeatured) {
+        double timeScore = (createTime.getTime() / 1000D - EPOCH_SECONDS) / DECAY_SECONDS;
+        return Integer.valueOf(1).equals(isFeatured) ? timeScore + FEATURED_BOOST : timeScore;
+    }
+
+    /**
+     * 计算热度分
+     */
+    public static double computeScore(double weight, double base) {
+        return Math.log10(Math.max(weight, 1D)) + base;
+    }
+
+    private void writeBatch(String tmpFeedKey, String tmpWeightKey, String tmpBaseKey, List<PostHotScore> batch) {
+        byte[] feed = toBytes(tmpFeedKey);
+        byte[] weight = toBytes(tmpWeightKey);
+        byte[] base = toBytes(tmpBaseKey);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (PostHotScore score : batch) {
+                byte[] member = toBytes(String.valueOf(score.getId()));
+                double postWeight = computeWeight(score);
+                double postBase = computeBase(score.getCreateTime(), score.getIsFeatured());
+                connection.hashCommands().hSet(weight, member, toBytes(String.valueOf(postWeight)));
+                connection.hashCommands().hSet(base, member, toBytes(String.valueOf(postBase)));
+                connection.zSetCommands().zAdd(feed, computeScore(postWeight, postBase), member);
+            }
+            return null;
+        });
+    }
+
+    private void incrWeight(Long postId, double delta) {
+        if (postId == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(INCR_WEIGHT_SCRIPT, Arrays.asList(feedKey(), weightKey(), baseKey()),
+                    String.valueOf(postId), String.valueOf(delta));
+        } catch (Exception e) {
+            // 热度仅影响排序，失败时等待定时重算校正
+            log.error("热榜更新失败: postId={}, delta={}", postId, delta, e);
+        }
+    }
+
+    private void setBase(Long postId, double base, double initWeight) {
+        try {
+            stringRedisTemplate.execute(SET_BASE_SCRIPT, Arrays.asList(feedKey(), weightKey(), baseKey()),
+                    String.valueOf(postId), String.valueOf(base), String.valueOf(initWeight));
+        } catch (Exception e) {
+            log.error("热榜更新失败: postId={}", postId, e);
+        }
+    }
+
+    private static String encodeCursor(ZSetOperations.TypedTuple<String> tuple) {
+        return Base64.encodeUrlSafe(tuple.getScore() + ":" + tuple.getValue());
+    }
+
+    private static HotFeedCursor decodeCursor(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            String decoded = Base64.decodeStr(cursor);
+            int index = decoded.lastIndexOf(':');
+            HotFeedCursor hotFeedCursor = new HotFeedCursor();
+            hotFeedCursor.setScore(Double.parseDouble(decoded.substring(0, index)));
+            hotFeedCursor.setMember(decoded.substring(index + 1));
+            return hotFeedCursor;
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标不合法");
+        }
+    }
+
+    private static int toInt(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String feedKey() {
+        return RedisKey.getKey(RedisKey.POST_HOT_FEED);
+    }
+
+    private static String weightKey() {
+        return RedisKey.getKey(RedisKey.POST_HOT_WEIGHT);
+    }
+
+    private static String baseKey() {
+        return RedisKey.getKey(RedisKey.POST_HOT_BASE);
+    }
+
+    /**
+     * 热榜游标
+     */
+    @Data
+    private static class HotFeedCursor {
+        private double score;
+        private String member;
+    }
+
+    /**
+     * 热榜分页结果
+     */
+    @Data
+    public static class HotFeedPage {
+
+        /**
+         * 当前页帖子 id（按热度降序）
+         */
+        private List<Long> postIds = new ArrayList<>();
+
+        /**
+         * 下一页游标
+         */
+        private String nextCursor;
+    }
+}
@@ -0,0 +1,601 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.config.PostSearchConfig;
+import com.cong.fishisland.constant.CommonConstant;
+import com.cong.fishisland.constant.PostConstant;
+import com.cong.fishisland.model.dto.post.PostQueryRequest;
+import com.cong.fishisland.model.entity.post.Post;
+import com.cong.fishisland.utils.TagUtils;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cn.smart.SmartChineseAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleFragmenter;
+import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 帖子全文检索（内嵌 Lucene，替代 ES）
+ * <p>
+ * 索引持久化在本地磁盘，写入后由后台线程近实时（NRT）刷新可见，
+ * 支持中文分词、相关度排序、标签分面统计和高亮摘要。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostSearchManager {
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_CONTENT = "content";
+    private static final String FIELD_TAGS = "tags";
+    private static final String FIELD_USER_ID = "userId";
+    private static final String FIELD_IS_FEATURED = "isFeatured";
+    private static final String FIELD_CREATE_TIME = "createTime";
+    private static final String FIELD_THUMB_NUM = "thumbNum";
+    private static final String FIELD_FAVOUR_NUM = "favourNum";
+    private static final String FIELD_VIEW_NUM = "viewNum";
+
+    /**
+     * 允许按数值排序的字段
+     */
+    private static final Set<String> SORTABLE_FIELDS = new HashSet<>(Arrays.asList(
+            FIELD_CREATE_TIME, FIELD_THUMB_NUM, FIELD_FAVOUR_NUM, FIELD_VIEW_NUM));
+
+    /**
+     * 最大可翻页窗口，避免深分页拖垮检索
+     */
+    private static final int MAX_SEARCH_WINDOW = 10000;
+
+    /**
+     * 近实时刷新最小间隔（秒）
+     */
+    private static final double MIN_STALE_SEC = 0.025;
+
+    private static final String HIGHLIGHT_PRE_TAG = "<em>";
+    private static final String HIGHLIGHT_POST_TAG = "</em>";
+    private static final int TITLE_FRAGMENT_SIZE = 80;
+    private static final int CONTENT_FRAGMENT_SIZE = 120;
+
+    private final PostSearchConfig postSearchConfig;
+
+    private final Analyzer analyzer = new SmartChineseAnalyzer();
+
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+
+    private Directory directory;
+
+    /**
+     * 写入器和检索器在重建失败回滚时重新打开
+     */
+    private volatile IndexWriter indexWriter;
+
+    private volatile SearcherManager searcherManager;
+
+    private volatile ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    /**
+     * 标签分面状态，随 reader 变化重建
+     */
+    private volatile SortedSetDocValuesReaderState facetState;
+
+    /**
+     * 索引是否可用（全量构建完成前走数据库兜底）
+     */
+    private volatile boolean ready;
+
+    /**
+     * 全量重建时持有，重建期间不做定时提交，避免把未建完的索引落盘
+     */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    @PostConstruct
+    public void init() throws IOException {
+        facetsConfig.setMultiValued(FIELD_TAGS, true);
+        Path indexPath = Paths.get(postSearchConfig.getIndexDir());
+        Files.createDirectories(indexPath);
+        directory = FSDirectory.open(indexPath);
+        open();
+        int numDocs = indexWriter.getDocStats().numDocs;
+        ready = !postSearchConfig.isRebuildOnStartup() && numDocs > 0;
+        log.info("帖子检索索引已打开，目录：{}，文档数：{}", indexPath.toAbsolutePath(), numDocs);
+    }
+
+    /**
+     * 打开写入器和近实时检索器。关闭时不自动提交，重建中途停机不会把未建完的索引落盘
+     */
+    private void open() throws IOException {
+        IndexWriterConfig writerConfig = new IndexWriterConfig(analyzer);
+        writerConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writerConfig.setRAMBufferSizeMB(64);
+        writerConfig.setCommitOnClose(false);
+        IndexWriter writer = new IndexWriter(directory, writerConfig);
+        SearcherManager manager = new SearcherManager(writer, null);
+        ControlledRealTimeReopenThread<IndexSearcher> thread = new ControlledRealTimeReopenThread<>(writer, manager,
+                postSearchConfig.getMaxStaleSec(), MIN_STALE_SEC);
+        thread.setName("post-search-nrt-reopen");
+        thread.setDaemon(true);
+        thread.start();
+        indexWriter = writer;
+        searcherManager = manager;
+        reopenThread = thread;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        try {
+            reopenThread.close();
+            searcherManager.close();
+            if (!rebuildLock.isLocked()) {
+                indexWriter.commit();
+            }
+            indexWriter.close();
+            directory.close();
+        } catch (IOException | AlreadyClosedException e) {
+            log.error("关闭帖子检索索引失败", e);
+        }
+    }
+
+    /**
+     * 索引是否可用
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 新增或更新帖子索引（已删除的帖子会被移出索引）
+     *
+     * @param post 帖子
+     */
+    public void index(Post post) {
+        if (post == null || post.getId() == null) {
+            return;
+        }
+        if (Integer.valueOf(1).equals(post.getIsDelete())) {
+            delete(post.getId());
+            return;
+        }
+        try {
+            indexWriter.updateDocument(idTerm(post.getId()), facetsConfig.build(toDocument(post)));
+        } catch (IOException | AlreadyClosedException e) {
+            log.error("帖子索引更新失败: postId={}", post.getId(), e);
+        }
+    }
+
+    /**
+     * 删除帖子索引
+     *
+     * @param postId 帖子 id
+     */
+    public void delete(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        try {
+            indexWriter.deleteDocuments(idTerm(postId));
+        } catch (IOException | AlreadyClosedException e) {
+            log.error("帖子索引删除失败: postId={}", postId, e);
+        }
+    }
+
+    /**
+     * 全量重建索引，构建期间 {@link #isReady()} 为 false
+     * <p>
+     * 建完才提交，中途失败时回滚到重建前的提交点并恢复 {@link #isReady()}，磁盘上始终是完整的索引。
+     *
+     * @param posts 帖子流（如 MyBatis 游标）
+     * @return 写入的文档数
+     */
+    public long rebuild(Iterable<Post> posts) throws IOException {
+        rebuildLock.lock();
+        boolean wasReady = ready;
+        try {
+            // 先提交已有的增量写入，失败回滚时只丢弃本次重建
+            indexWriter.commit();
+            ready = false;
+            indexWriter.deleteAll();
+            long count = 0;
+            for (Post post : posts) {
+                if (Integer.valueOf(1).equals(post.getIsDelete())) {
+                    continue;
+                }
+                // 构建期间可能同时有增量写入，统一按 id 覆盖避免重复文档
+                indexWriter.updateDocument(idTerm(post.getId()), facetsConfig.build(toDocument(post)));
+                if (++count % 10000 == 0) {
+                    log.info("帖子索引构建中，已写入 {} 条", count);
+                }
+            }
+            indexWriter.commit();
+            searcherManager.maybeRefreshBlocking();
+            ready = true;
+            return count;
+        } catch (IOException | RuntimeException e) {
+            ready = rollback() && wasReady;
+            throw e;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * 丢弃未提交的写入并重新打开写入器（IndexWriter#rollback 会关闭写入器）
+     *
+     * @return 是否重新打开成功
+     */
+    private boolean rollback() {
+        try {
+            reopenThread.close();
+            searcherManager.close();
+            indexWriter.rollback();
+            open();
+            log.warn("帖子索引重建失败，已回滚到重建前的索引，文档数：{}", indexWriter.getDocStats().numDocs);
+            return true;
+        } catch (IOException | AlreadyClosedException e) {
+            log.error("帖子索引回滚失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 定时提交，保证索引落盘（近实时可见不依赖提交）；全量重建期间跳过
+     */
+    @Scheduled(fixedDelay = 60 * 1000)
+    public void commit() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            if (indexWriter.hasUncommittedChanges()) {
+                indexWriter.commit();
+            }
+        } catch (IOException | AlreadyClosedException e) {
+            log.error("帖子检索索引提交失败", e);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * 检索帖子
+     *
+     * @param postQueryRequest 帖子查询请求
+     * @return {@link PostSearchHits}
+     */
+    public PostSearchHits search(PostQueryRequest postQueryRequest) {
+        int current = Math.max(postQueryRequest.getCurrent(), 1);
+        int size = Math.max(postQueryRequest.getPageSize(), 1);
+        int start = (current - 1) * size;
+        if (start + size > MAX_SEARCH_WINDOW) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "搜索结果翻页过深");
+        }
+        Query textQuery = buildTextQuery(postQueryRequest);
+        Query query = buildQuery(postQueryRequest, textQuery);
+        Sort sort = buildSort(postQueryRequest, textQuery != null);
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            FacetsCollector facetsCollector = new FacetsCollector();
+            TopDocs topDocs = sort == null
+                    ? FacetsCollector.search(searcher, query, start + size, facetsCollector)
+                    : FacetsCollector.search(searcher, query, start + size, sort, facetsCollector);
+
+            PostSearchHits hits = new PostSearchHits();
+            hits.setTotal(topDocs.totalHits.value);
+            hits.setTagFacets(countTags(searcher, facetsCollector));
+            Highlighter titleHighlighter = textQuery == null ? null : newHighlighter(textQuery, FIELD_TITLE, TITLE_FRAGMENT_SIZE);
+            Highlighter contentHighlighter = textQuery == null ? null : newHighlighter(textQuery, FIELD_CONTENT, CONTENT_FRAGMENT_SIZE);
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            for (int i = start; i < scoreDocs.length; i++) {
+                Document document = searcher.doc(scoreDocs[i].doc);
+                Long postId = Long.valueOf(document.get(FIELD_ID));
+                hits.getPostIds().add(postId);
+                if (titleHighlighter != null) {
+                    putIfNotNull(hits.getTitleHighlights(), postId, highlight(titleHighlighter, FIELD_TITLE, document.get(FIELD_TITLE)));
+                    putIfNotNull(hits.getContentHighlights(), postId, highlight(contentHighlighter, FIELD_CONTENT, document.get(FIELD_CONTENT)));
+                }
+            }
+            return hits;
+        } catch (IOException | AlreadyClosedException e) {
+            log.error("帖子检索失败", e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "帖子检索失败");
+        } finally {
+            if (searcher != null) {
+                try {
+                    searcherManager.release(searcher);
+                } catch (IOException e) {
+                    log.error("释放帖子检索器失败", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 构建全文匹配部分（决定相关度与高亮）
+     */
+    private Query buildTextQuery(PostQueryRequest postQueryRequest) {
+        QueryBuilder queryBuilder = new QueryBuilder(analyzer);
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        boolean hasClause = false;
+        String searchText = StringUtils.trim(postQueryRequest.getSearchText());
+        if (StringUtils.isNotBlank(searchText)) {
+            // 标题权重高于正文，命中任一字段或标签即可
+            BooleanQuery.Builder searchTextBuilder = new BooleanQuery.Builder();
+            Query titleQuery = queryBuilder.createBooleanQuery(FIELD_TITLE, searchText, BooleanClause.Occur.MUST);
+            if (titleQuery != null) {
+                searchTextBuilder.add(new BoostQuery(titleQuery, 2.0f), BooleanClause.Occur.SHOULD);
+            }
+            Query contentQuery = queryBuilder.createBooleanQuery(FIELD_CONTENT, searchText, BooleanClause.Occur.MUST);
+            if (contentQuery != null) {
+                searchTextBuilder.add(contentQuery, BooleanClause.Occur.SHOULD);
+            }
+            searchTextBuilder.add(new TermQuery(new Term(FIELD_TAGS, searchText)), BooleanClause.Occur.SHOULD);
+            builder.add(searchTextBuilder.build(), BooleanClause.Occur.MUST);
+            hasClause = true;
+        }
+        String title = StringUtils.trim(postQueryRequest.getTitle());
+        if (StringUtils.isNotBlank(title)) {
+            Query titleQuery = queryBuilder.createBooleanQuery(FIELD_TITLE, title, BooleanClause.Occur.MUST);
+            if (titleQuery != null) {
+                builder.add(titleQuery, BooleanClause.Occur.MUST);
+                hasClause = true;
+            }
+        }
+        String content = StringUtils.trim(postQueryRequest.getContent());
+        if (StringUtils.isNotBlank(content)) {
+            Query contentQuery = queryBuilder.createBooleanQuery(FIELD_CONTENT, content, BooleanClause.Occur.MUST);
+            if (contentQuery != null) {
+                builder.add(contentQuery, BooleanClause.Occur.MUST);
+                hasClause = true;
+            }
+        }
+        return hasClause ? builder.build() : null;
+    }
+
+    /**
+     * 在全文匹配基础上叠加过滤条件（不参与打分）
+     */
+    private Query buildQuery(PostQueryRequest postQueryRequest, Query textQuery) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(textQuery == null ? new MatchAllDocsQuery() : textQuery, BooleanClause.Occur.MUST);
+        List<String> tagList = postQueryRequest.getTags();
+        if (tagList != null) {
+            boolean matchAny = PostConstant.TAG_MATCH_ANY.equals(postQueryRequest.getTagMatchMode());
+            BooleanQuery.Builder anyTagBuilder = new BooleanQuery.Builder();
+            boolean hasAnyTag = false;
+            for (String tag : tagList) {
+                if (StringUtils.isBlank(tag)) {
+                    continue;
+                }
+                TermQuery tagQuery = new TermQuery(new Term(FIELD_TAGS, tag.trim()));
+                if (matchAny) {
+                    anyTagBuilder.add(tagQuery, BooleanClause.Occur.SHOULD);
+                    hasAnyTag = true;
+                } else {
+                    builder.add(tagQuery, BooleanClause.Occur.FILTER);
+                }
+            }
+            if (hasAnyTag) {
+                builder.add(anyTagBuilder.build(), BooleanClause.Occur.FILTER);
+            }
+        }
+        Long id = postQueryRequest.getId();
+        if (id != null) {
+            builder.add(new TermQuery(idTerm(id)), BooleanClause.Occur.FILTER);
+        }
+        Long notId = postQueryRequest.getNotId();
+        if (notId != null) {
+            builder.add(new TermQuery(idTerm(notId)), BooleanClause.Occur.MUST_NOT);
+        }
+        Long userId = postQueryRequest.getUserId();
+        if (userId != null) {
+            builder.add(LongPoint.newExactQuery(FIELD_USER_ID, userId), BooleanClause.Occur.FILTER);
+        }
+        Integer isFeatured = postQueryRequest.getIsFeatured();
+        if (isFeatured != null) {
+            builder.add(IntPoint.newExactQuery(FIELD_IS_FEATURED, isFeatured), BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 指定了可排序字段时按字段排序，否则有关键词按相关度、无关键词按时间倒序
+     */
+    private Sort buildSort(PostQueryRequest postQueryRequest, boolean hasTextQuery) {
+        String sortField = postQueryRequest.getSortField();
+        if (SORTABLE_FIELDS.contains(sortField)) {
+            boolean reverse = !CommonConstant.SORT_ORDER_ASC.equals(postQueryRequest.getSortOrder());
+            return new Sort(new SortField(sortField, SortField.Type.LONG, reverse), SortField.FIELD_SCORE);
+        }
+        if (!hasTextQuery) {
+            return new Sort(new SortField(FIELD_CREATE_TIME, SortField.Type.LONG, true));
+        }
+        return null;
+    }
+
+    private Map<String, Integer> countTags(IndexSearcher searcher, FacetsCollector facetsCollector) throws IOException {
+        Map<String, Integer> tagFacets = new LinkedHashMap<>();
+        SortedSetDocValuesReaderState state = getFacetState(searcher.getIndexReader());
+        if (state == null) {
+            return tagFacets;
+        }
+        FacetResult facetResult;
+        try {
+            facetResult = new SortedSetDocValuesFacetCounts(state, facetsCollector)
+                    .getTopChildren(postSearchConfig.getFacetTopN(), FIELD_TAGS);
+        } catch (IllegalArgumentException e) {
+            // 索引中还没有任何带标签的帖子
+            return tagFacets;
+        }
+        if (facetResult != null) {
+            for (LabelAndValue labelAndValue : facetResult.labelValues) {
+                tagFacets.put(labelAndValue.label, labelAndValue.value.intValue());
+            }
+        }
+        return tagFacets;
+    }
+
+    private SortedSetDocValuesReaderState getFacetState(IndexReader reader) throws IOException {
+        SortedSetDocValuesReaderState state = facetState;
+        if (state != null && state.getReader() == reader) {
+            return state;
+        }
+        try {
+            state = new DefaultSortedSetDocValuesReaderState(reader);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        facetState = state;
+        return state;
+    }
+
+    private Highlighter newHighlighter(Query query, String field, int fragmentSize) {
+        // 片段中的原文先转义，只有高亮标签是 HTML
+        Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter(HIGHLIGHT_PRE_TAG, HIGHLIGHT_POST_TAG),
+                new SimpleHTMLEncoder(), new QueryScorer(query, field));
+        highlighter.setTextFragmenter(new SimpleFragmenter(fragmentSize));
+        return highlighter;
+    }
+
+    private String highlight(Highlighter highlighter, String field, String text) {
+        if (StringUtils.isBlank(text)) {
+            return null;
+        }
+        try {
+            return highlighter.getBestFragment(analyzer, field, text);
+        } catch (IOException | InvalidTokenOffsetsException e) {
+            log.warn("帖子高亮失败: field={}, error={}", field, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void putIfNotNull(Map<Long, String> map, Long key, String value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+
+    private static Term idTerm(Long postId) {
+        return new Term(FIELD_ID, String.valueOf(postId));
+    }
+
+    private Document toDocument(Post post) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, String.valueOf(post.getId()), Field.Store.YES));
+        document.add(new TextField(FIELD_TITLE, StringUtils.defaultString(post.getTitle()), Field.Store.YES));
+        document.add(new TextField(FIELD_CONTENT, StringUtils.defaultString(post.getContent()), Field.Store.YES));
+        for (String tag : TagUtils.parseTags(post.getTags())) {
+            document.add(new StringField(FIELD_TAGS, tag, Field.Store.NO));
+            document.add(new SortedSetDocValuesFacetField(FIELD_TAGS, tag));
+        }
+        if (post.getUserId() != null) {
+            document.add(new LongPoint(FIELD_USER_ID, post.getUserId()));
+        }
+        document.add(new IntPoint(FIELD_IS_FEATURED, post.getIsFeatured() == null ? 0 : post.getIsFeatured()));
+        document.add(new NumericDocValuesField(FIELD_CREATE_TIME,
+                post.getCreateTime() == null ? 0L : post.getCreateTime().getTime()));
+        document.add(new NumericDocValuesField(FIELD_THUMB_NUM, toLong(post.getThumbNum())));
+        document.add(new NumericDocValuesField(FIELD_FAVOUR_NUM, toLong(post.getFavourNum())));
+        document.add(new NumericDocValuesField(FIELD_VIEW_NUM, toLong(post.getViewNum())));
+        return document;
+    }
+
+    private static long toLong(Integer value) {
+        return value == null ? 0L : value;
+    }
+
+    /**
+     * 检索命中结果
+     */
+    @Data
+    public static class PostSearchHits {
+
+        /**
+         * 当前页命中的帖子 id（按排序结果）
+         */
+        private List<Long> postIds = new ArrayList<>();
+
+        /**
+         * 命中总数
+         */
+        private long total;
+
+        /**
+         * 标题高亮
+         */
+        private Map<Long, String> titleHighlights = new HashMap<>();
+
+        /**
+         * 正文高亮摘要
+         */
+        private Map<Long, String> contentHighlights = new HashMap<>();
+
+        /**
+         * 标签分面统计（标签 -> 帖子数，按数量降序）
+         */
+        private Map<String, Integer> tagFacets = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,126 @@
+package com.cong.fishisland.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预签名地址缓存
+ * <p>
+ * 同一对象的预签名地址在有效期内重复使用，到期前留出一段余量后重新签名，
+ * 保证返回给客户端的地址至少还有余量这么长的有效时间；过了复用期限的地址不会再返回。
+ *
+ * @author cong
+ */
+public class PresignedUrlCache {
+
+    /**
+     * 签名方法
+     */
+    @FunctionalInterface
+    public interface Signer {
+
+        /**
+         * @param objectName    对象名
+         * @param expirySeconds 有效期（秒）
+         * @return 预签名地址
+         */
+        String sign(String objectName, int expirySeconds) throws Exception;
+    }
+
+    private final Signer signer;
+
+    private final int expirySeconds;
+
+    private final long reuseNanos;
+
+    private final Ticker ticker;
+
+    private final Cache<String, Entry> cache;
+
+    /**
+     * @param signer               签名方法
+     * @param expirySeconds        地址有效期（秒）
+     * @param refreshMarginSeconds 到期前多久停止复用（秒）
+     * @param maxSize              最多缓存的对象数
+     * @param ticker               时钟
+     */
+    public PresignedUrlCache(Signer signer, int expirySeconds, int refreshMarginSeconds, long maxSize,
+                             Ticker ticker) {
+        this.signer = signer;
+        this.expirySeconds = expirySeconds;
+        this.reuseNanos = TimeUnit.SECONDS.toNanos(Math.max(0, expirySeconds - refreshMarginSeconds));
+        this.ticker = ticker;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return Math.max(0, entry.reuseUntil - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 获取对象的预签名地址，缓存中没有可复用的地址时重新签名
+     */
+    public String get(String objectName) throws Exception {
+        Entry entry = cache.getIfPresent(objectName);
+        // 过期清理可能滞后，再按时钟确认一次
+        if (entry != null && ticker.read() < entry.reuseUntil) {
+            return entry.url;
+        }
+        // 以签名前的时间计算复用期限，不会晚于地址实际的过期时间
+        long signedAt = ticker.read();
+        String url = signer.sign(objectName, expirySeconds);
+        cache.put(objectName, new Entry(url, signedAt + reuseNanos));
+        return url;
+    }
+
+    /**
+     * 批量获取预签名地址
+     *
+     * @return 对象名到预签名地址的映射，按传入顺序
+     */
+    public Map<String, String> getAll(Collection<String> objectNames) throws Exception {
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (String objectName : objectNames) {
+            if (!urls.containsKey(objectName)) {
+                urls.put(objectName, get(objectName));
+            }
+        }
+        return urls;
+    }
+
+    private static class Entry {
+
+        private final String url;
+
+        private final long reuseUntil;
+
+        private Entry(String url, long reuseUntil) {
+            this.url = url;
+            this.reuseUntil = reuseUntil;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.config.RateLimitConfig;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.utils.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式限流
+ * <p>
+ * 使用 GCRA（等价于令牌桶）算法，每次判定只执行一次 Lua 脚本，时间取 Redis 服务器时间，多个实例共享额度。
+ * 判定前先用本地令牌桶（同样的速率和容量）预检：单个实例上已经超出额度的请求全局也一定超出，直接拒绝，
+ * 刷接口时大部分请求不会访问 Redis。Redis 不可用时只按本地限流。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitManager {
+
+    /**
+     * 判定结果，作为指标标签
+     */
+    public static final String ALLOWED = "allowed";
+
+    public static final String REJECTED = "rejected";
+
+    public static final String LOCAL_REJECTED = "local_rejected";
+
+    public static final String REDIS_ERROR = "redis_error";
+
+    /**
+     * GCRA：KEYS[1] 保存理论到达时间 TAT（微秒），ARGV[1] 为请求间隔，ARGV[2] 为突发容忍度（间隔 × (突发数 - 1)）。
+     * TAT - 容忍度 不晚于当前时间时放行并把 TAT 推后一个间隔，否则返回还需等待的微秒数。
+     */
+    private static final String GCRA_SCRIPT =
+            "redis.replicate_commands() " +
+                    "local time = redis.call('TIME') " +
+                    "local now = tonumber(time[1]) * 1000000 + tonumber(time[2]) " +
+                    "local interval = tonumber(ARGV[1]) " +
+                    "local tolerance = tonumber(ARGV[2]) " +
+                    "local tat = tonumber(redis.call('GET', KEYS[1])) " +
+                    "if not tat or tat < now then tat = now end " +
+                    "local allowAt = tat - tolerance " +
+                    "if allowAt > now then return allowAt - now end " +
+                    "local newTat = tat + interval " +
+                    "redis.call('SET', KEYS[1], string.format('%.0f', newTat), 'PX', math.ceil((newTat - now) / 1000)) " +
+                    "return 0";
+
+    private static final DefaultRedisScript<Long> GCRA = new DefaultRedisScript<>(GCRA_SCRIPT, Long.class);
+
+    private static final int LOCAL_BUCKETS = 100_000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RequestMetricsManager requestMetricsManager;
+
+    private final RateLimitConfig rateLimitConfig;
+
+    /**
+     * 本地预检的令牌桶，空闲超过最长周期后淘汰（淘汰时已经补满，与新建等价）
+     */
+    private final Cache<String, TokenBucket> localBuckets = Caffeine.newBuilder()
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .maximumSize(LOCAL_BUCKETS)
+            .build();
+
+    /**
+     * 尝试通过限流
+     *
+     * @param name    限流名称
+     * @param subject 限流对象，如用户 ID、IP
+     * @param rule    规则
+     * @return 0 表示放行，否则为建议的重试等待时间（毫秒）
+     */
+    public long tryAcquire(String name, String subject, RateLimitConfig.Rule rule) {
+        if (!rateLimitConfig.isEnabled()) {
+            return 0;
+        }
+        String key = RedisKey.getKey(RedisKey.RATE_LIMIT, name, subject);
+        long intervalMicros = Math.max(TimeUnit.SECONDS.toMicros(rule.getPeriodSeconds()) / rule.getPermits(), 1);
+        if (rateLimitConfig.isLocalPreLimit() && !localBuckets.get(key, k -> new TokenBucket(rule.burstOrPermits(),
+                rule.getPermits(), Duration.ofSeconds(rule.getPeriodSeconds()))).tryAcquire()) {
+            requestMetricsManager.recordRateLimit(name, LOCAL_REJECTED);
+            return Math.max(TimeUnit.MICROSECONDS.toMillis(intervalMicros), 1);
+        }
+        Long retryAfterMicros;
+        try {
+            retryAfterMicros = stringRedisTemplate.execute(GCRA, Collections.singletonList(key),
+                    String.valueOf(intervalMicros), String.valueOf(intervalMicros * (rule.burstOrPermits() - 1)));
+        } catch (Exception e) {
+            log.warn("rate limit fallback to local, key: {}, error: {}", key, e.getMessage());
+            requestMetricsManager.recordRateLimit(name, REDIS_ERROR);
+            return 0;
+        }
+        if (retryAfterMicros == null || retryAfterMicros <= 0) {
+            requestMetricsManager.recordRateLimit(name, ALLOWED);
+            return 0;
+        }
+        requestMetricsManager.recordRateLimit(name, REJECTED);
+        return Math.max(TimeUnit.MICROSECONDS.toMillis(retryAfterMicros), 1);
+    }
+}
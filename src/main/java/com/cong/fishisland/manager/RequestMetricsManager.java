@@ -0,0 +1,141 @@
+package com.cong.fishisland.manager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求和 SQL 耗时统计
+ * <p>
+ * 每个接口（请求方法 + 路由模板 + 异常类型）、每条 SQL（Mapper 方法）一个带百分位直方图的 Timer，
+ * 同时按接口统计每次请求的 SQL 次数和耗时；另外按限流名称统计放行和拒绝次数。
+ * 指标注册到 Micrometer，由 actuator 在 /actuator/prometheus 导出，分位数在 Prometheus 中用 histogram_quantile 计算。
+ * Meter 按标签缓存，请求线程上不重复查找注册表。
+ *
+ * @author cong
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestMetricsManager {
+
+    static final String REQUEST_METRIC = "http.server.requests";
+
+    static final String REQUEST_SQL_METRIC = "http.server.requests.sql";
+
+    static final String REQUEST_SQL_QUERIES_METRIC = "http.server.requests.sql.queries";
+
+    static final String STATEMENT_METRIC = "mybatis.statement";
+
+    static final String RATE_LIMIT_METRIC = "rate.limit.requests";
+
+    /**
+     * 单次请求 SQL 次数直方图的上限
+     */
+    private static final double MAX_EXPECTED_SQL_QUERIES = 1000;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 请求方法 + 路由模板 + 异常类型 -> 统计
+     */
+    private final Map<EndpointKey, EndpointMeters> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Mapper 方法 -> 耗时
+     */
+    private final Map<String, Timer> statements = new ConcurrentHashMap<>();
+
+    /**
+     * 限流名称 + 结果 -> 次数
+     */
+    private final Map<RateLimitKey, Counter> rateLimits = new ConcurrentHashMap<>();
+
+    public void recordRequest(String method, String uri, String exception, long nanos, long sqlQueries, long sqlNanos) {
+        EndpointMeters meters = endpoints.computeIfAbsent(new EndpointKey(method, uri, exception), this::endpointMeters);
+        meters.latency.record(nanos, TimeUnit.NANOSECONDS);
+        meters.sqlQueries.record(sqlQueries);
+        meters.sqlLatency.record(sqlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStatement(String statementId, long nanos) {
+        statements.computeIfAbsent(statementId, key -> Timer.builder(STATEMENT_METRIC)
+                .description("SQL 耗时")
+                .tag("statement", key)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次限流判定
+     *
+     * @param limit  限流名称
+     * @param result 结果，见 RateLimitManager
+     */
+    public void recordRateLimit(String limit, String result) {
+        rateLimits.computeIfAbsent(new RateLimitKey(limit, result), key -> Counter.builder(RATE_LIMIT_METRIC)
+                .description("限流判定次数")
+                .tag("limit", key.limit)
+                .tag("result", key.result)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    private EndpointMeters endpointMeters(EndpointKey key) {
+        Timer latency = Timer.builder(REQUEST_METRIC)
+                .description("接口耗时")
+                .tags("method", key.method, "uri", key.uri, "exception", key.exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        DistributionSummary sqlQueries = DistributionSummary.builder(REQUEST_SQL_QUERIES_METRIC)
+                .description("单次请求执行的 SQL 次数")
+                .tags("method", key.method, "uri", key.uri, "exception", key.exception)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAX_EXPECTED_SQL_QUERIES)
+                .register(meterRegistry);
+        Timer sqlLatency = Timer.builder(REQUEST_SQL_METRIC)
+                .description("单次请求执行 SQL 的总耗时")
+                .tags("method", key.method, "uri", key.uri, "exception", key.exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        return new EndpointMeters(latency, sqlQueries, sqlLatency);
+    }
+
+    @RequiredArgsConstructor
+    private static class EndpointMeters {
+
+        private final Timer latency;
+
+        private final DistributionSummary sqlQueries;
+
+        private final Timer sqlLatency;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class EndpointKey {
+
+        private final String method;
+
+        private final String uri;
+
+        private final String exception;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class RateLimitKey {
+
+        private final String limit;
+
+        private final String result;
+    }
+}
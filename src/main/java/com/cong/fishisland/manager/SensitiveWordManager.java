@@ -0,0 +1,220 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.cong.fishisland.config.SensitiveWordConfig;
+import com.cong.fishisland.mapper.word.SensitiveWordMapper;
+import com.cong.fishisland.model.entity.word.SensitiveWord;
+import com.cong.fishisland.utils.SensitiveWordAutomaton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 敏感词过滤
+ * <p>
+ * 词库来源：classpath 下的 key-simple.txt、可选的外部词库文件、sensitive_word 表。
+ * 后台定时比对外部文件和词表的指纹，变化时在调度线程上重建自动机并原子替换，请求线程始终读到完整的词库。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SensitiveWordManager {
+
+    private static final String CLASSPATH_WORD_FILE = "key-simple.txt";
+
+    private static final char MASK = '*';
+
+    /**
+     * 复用的替换缓冲区，超过该容量的缓冲区用完即丢弃，避免长期占用内存
+     */
+    private static final int MAX_BUFFER_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final SensitiveWordConfig sensitiveWordConfig;
+
+    private final SensitiveWordMapper sensitiveWordMapper;
+
+    private volatile SensitiveWordAutomaton automaton = SensitiveWordAutomaton.EMPTY;
+
+    private volatile String fingerprint;
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 词库有变化时重建
+     */
+    @Scheduled(initialDelayString = "${sensitive-word.refresh-interval:30000}",
+            fixedDelayString = "${sensitive-word.refresh-interval:30000}")
+    public void refreshIfChanged() {
+        if (!Objects.equals(fingerprint, computeFingerprint())) {
+            reload();
+        }
+    }
+
+    /**
+     * 重新加载全部词库并替换自动机
+     */
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        String newFingerprint = computeFingerprint();
+        Set<String> words = new LinkedHashSet<>();
+        loadClasspathWords(words);
+        loadExternalWords(words);
+        loadTableWords(words);
+        automaton = SensitiveWordAutomaton.build(words);
+        fingerprint = newFingerprint;
+        log.info("敏感词库加载完成，共 {} 个，耗时 {}ms", automaton.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 一次遍历扫描多个字段
+     *
+     * @param fields 待扫描字段，null 跳过
+     * @return 全部命中（含位置），字段下标与参数顺序一致
+     */
+    public List<SensitiveWordAutomaton.Hit> scan(CharSequence... fields) {
+        return automaton.scan(fields);
+    }
+
+    public boolean containsAny(CharSequence text) {
+        return automaton.containsAny(text);
+    }
+
+    public String findFirst(CharSequence text) {
+        return automaton.findFirst(text);
+    }
+
+    /**
+     * 将文本追加到 out 并把敏感词替换为 *
+     */
+    public void replace(CharSequence text, StringBuilder out) {
+        automaton.replace(text, MASK, out);
+    }
+
+    /**
+     * 敏感词替换为 *，使用线程内复用的缓冲区
+     */
+    public String replace(CharSequence text) {
+        return replace(text, out -> { });
+    }
+
+    /**
+     * 敏感词替换为 * 后在同一个缓冲区里继续原地处理，使用线程内复用的缓冲区
+     *
+     * @param postProcessor 对替换结果的原地处理
+     */
+    public String replace(CharSequence text, Consumer<StringBuilder> postProcessor) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        replace(text, out);
+        postProcessor.accept(out);
+        String result = out.toString();
+        if (out.capacity() > MAX_BUFFER_CAPACITY) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    private void loadClasspathWords(Set<String> words) {
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(CLASSPATH_WORD_FILE)) {
+            if (inputStream == null) {
+                log.warn("未找到敏感词文件: {}", CLASSPATH_WORD_FILE);
+                return;
+            }
+            readWords(inputStream, words);
+        } catch (IOException e) {
+            log.error("读取敏感词文件失败: {}", CLASSPATH_WORD_FILE, e);
+        }
+    }
+
+    private void loadExternalWords(Set<String> words) {
+        Path path = externalFile();
+        if (path == null || !Files.isRegularFile(path)) {
+            return;
+        }
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            readWords(inputStream, words);
+        } catch (IOException e) {
+            log.error("读取外部敏感词文件失败: {}", path, e);
+        }
+    }
+
+    private void loadTableWords(Set<String> words) {
+        try {
+            sensitiveWordMapper.selectList(new QueryWrapper<SensitiveWord>().select("word"))
+                    .forEach(sensitiveWord -> words.add(sensitiveWord.getWord()));
+        } catch (Exception e) {
+            // 词表不可用时保留文件词库，下次检查时再重试
+            log.error("读取敏感词表失败", e);
+        }
+    }
+
+    private static void readWords(InputStream inputStream, Set<String> words) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            reader.lines()
+                    .flatMap(line -> Arrays.stream(line.split(",")))
+                    .map(String::trim)
+                    .filter(word -> !word.isEmpty())
+                    .forEach(words::add);
+        }
+    }
+
+    /**
+     * 外部文件的修改时间和大小 + 词表行数和最近更新时间
+     */
+    private String computeFingerprint() {
+        StringBuilder builder = new StringBuilder();
+        Path path = externalFile();
+        if (path != null && Files.isRegularFile(path)) {
+            try {
+                builder.append(Files.getLastModifiedTime(path).toMillis()).append(':').append(Files.size(path));
+            } catch (IOException e) {
+                log.warn("读取外部敏感词文件属性失败: {}", path, e);
+            }
+        }
+        builder.append('|');
+        try {
+            Map<String, Object> tableFingerprint = sensitiveWordMapper.selectFingerprint();
+            if (tableFingerprint != null) {
+                builder.append(tableFingerprint.get("total")).append(':').append(tableFingerprint.get("lastUpdateTime"));
+            }
+        } catch (Exception e) {
+            log.warn("读取敏感词表指纹失败: {}", e.getMessage());
+            builder.append("error");
+        }
+        return builder.toString();
+    }
+
+    private Path externalFile() {
+        String file = sensitiveWordConfig.getFile();
+        return StrUtil.isBlank(file) ? null : Paths.get(file);
+    }
+}
@@ -0,0 +1,207 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.core.util.HexUtil;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.config.FileUploadConfig;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.utils.BufferPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式分片上传
+ * <p>
+ * 边读请求体边按固定大小分片上传到对象存储，同时计算 SHA-256，不落临时文件，也不把整个文件读入内存。
+ * 每个上传只占用缓冲区池中的一个分片缓冲区，池满时等待，超时拒绝。
+ * <p>
+ * 同一去重范围（业务 + 用户）内内容相同的文件只保存一份，哈希只在服务端读取内容时计算：
+ * 不足一个分片的文件读完即可算出哈希，命中时不写存储；多个分片的文件在完成前命中时放弃分片上传；
+ * 并发上传同一内容时，后完成的一方删除自己的对象。
+ *
+ * @author cong
+ */
+@Slf4j
+@Component
+public class StreamUploadManager {
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final FileUploadConfig fileUploadConfig;
+
+    private final BufferPool bufferPool;
+
+    public StreamUploadManager(StringRedisTemplate stringRedisTemplate, FileUploadConfig fileUploadConfig) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.fileUploadConfig = fileUploadConfig;
+        this.bufferPool = new BufferPool(fileUploadConfig.getPartSize(), fileUploadConfig.getMaxBuffers());
+    }
+
+    /**
+     * 上传输入流，读完为止，不关闭输入流
+     *
+     * @param storage     对象存储
+     * @param in          输入流
+     * @param key         对象键
+     * @param contentType 内容类型
+     * @param maxSize     大小上限（字节），超出时放弃上传
+     * @param scope       去重范围，如业务 + 用户，不同范围的相同内容各自保存
+     * @return 访问地址，内容与同一范围内已有文件相同时返回已有文件的地址
+     */
+    public String upload(ObjectStorage storage, InputStream in, String key, String contentType, long maxSize,
+                         String scope) {
+        byte[] buffer;
+        try {
+            buffer = bufferPool.acquire(fileUploadConfig.getAcquireTimeoutMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "上传失败");
+        }
+        if (buffer == null) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "上传的人太多了，请稍后再试");
+        }
+        try {
+            return upload(storage, in, key, contentType, Math.min(maxSize, fileUploadConfig.getMaxSize()), scope,
+                    buffer);
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    private String upload(ObjectStorage storage, InputStream in, String key, String contentType, long maxSize,
+                          String scope, byte[] buffer) {
+        MessageDigest digest = sha256();
+        int n = read(in, buffer);
+        long total = checkSize(n, maxSize);
+        digest.update(buffer, 0, n);
+        if (n < buffer.length) {
+            String hash = HexUtil.encodeHexStr(digest.digest());
+            String existing = stringRedisTemplate.opsForValue().get(hashKey(storage, scope, hash));
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                storage.putObject(key, buffer, n, contentType);
+            } catch (Exception e) {
+                log.error("文件上传失败，key = {}", key, e);
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "上传失败");
+            }
+            return remember(storage, scope, hash, key);
+        }
+
+        String uploadId;
+        try {
+            uploadId = storage.initiateMultipartUpload(key, contentType);
+        } catch (Exception e) {
+            log.error("初始化分片上传失败，key = {}", key, e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "上传失败");
+        }
+        boolean completed = false;
+        try {
+            List<String> etags = new ArrayList<>();
+            do {
+                etags.add(storage.uploadPart(key, uploadId, etags.size() + 1, buffer, n));
+                n = read(in, buffer);
+                total = checkSize(total + n, maxSize);
+                digest.update(buffer, 0, n);
+            } while (n > 0);
+            String hash = HexUtil.encodeHexStr(digest.digest());
+            String existing = stringRedisTemplate.opsForValue().get(hashKey(storage, scope, hash));
+            if (existing != null) {
+                return existing;
+            }
+            storage.completeMultipartUpload(key, uploadId, etags);
+            completed = true;
+            return remember(storage, scope, hash, key);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("分片上传失败，key = {}", key, e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "上传失败");
+        } finally {
+            if (!completed) {
+                abort(storage, key, uploadId);
+            }
+        }
+    }
+
+    /**
+     * 记录哈希到地址的映射；其他上传已先记录同一内容时删除本次上传的对象，返回已有地址
+     */
+    private String remember(ObjectStorage storage, String scope, String hash, String key) {
+        String url = storage.getUrl(key);
+        String hashKey = hashKey(storage, scope, hash);
+        Duration ttl = Duration.ofSeconds(fileUploadConfig.getDedupeSeconds());
+        if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(hashKey, url, ttl))) {
+            return url;
+        }
+        String existing = stringRedisTemplate.opsForValue().get(hashKey);
+        if (existing == null) {
+            return url;
+        }
+        try {
+            storage.removeObject(key);
+        } catch (Exception e) {
+            log.warn("删除重复文件失败，key = {}", key, e);
+        }
+        return existing;
+    }
+
+    private static void abort(ObjectStorage storage, String key, String uploadId) {
+        try {
+            storage.abortMultipartUpload(key, uploadId);
+        } catch (Exception e) {
+            log.warn("放弃分片上传失败，key = {}, uploadId = {}", key, uploadId, e);
+        }
+    }
+
+    /**
+     * 读满缓冲区或读到结尾
+     *
+     * @return 读到的字节数，结尾返回 0
+     */
+    private static int read(InputStream in, byte[] buffer) {
+        int n = 0;
+        try {
+            while (n < buffer.length) {
+                int read = in.read(buffer, n, buffer.length - n);
+                if (read == -1) {
+                    break;
+                }
+                n += read;
+            }
+        } catch (IOException e) {
+            log.warn("读取上传内容失败", e);
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "上传失败");
+        }
+        return n;
+    }
+
+    private static long checkSize(long total, long maxSize) {
+        if (total > maxSize) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "文件大小不能超过 " + maxSize / 1024 / 1024 + "M");
+        }
+        return total;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hashKey(ObjectStorage storage, String scope, String hash) {
+        return RedisKey.getKey(RedisKey.FILE_HASH, storage.name(), scope, hash);
+    }
+}
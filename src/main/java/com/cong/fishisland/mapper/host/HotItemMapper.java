@@ -0,0 +1,43 @@
+package com.cong.fishisland.mapper.host;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.cong.fishisland.model.entity.hot.HotItem;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 热榜条目数据库操作
+ *
+ * @author cong
+ */
+public interface HotItemMapper extends BaseMapper<HotItem> {
+
+    /**
+     * 查询某来源在榜的条目和本次出现的条目
+     *
+     * @param type     热点类型
+     * @param urlHashes 本次出现的链接哈希
+     * @return 条目
+     */
+    List<HotItem> listOnBoardOrIn(@Param("type") String type, @Param("urlHashes") Collection<Long> urlHashes);
+
+    /**
+     * 批量刷新最近在榜时间
+     *
+     * @param ids          条目 id
+     * @param lastSeenTime 最近在榜时间
+     * @return 更新条数
+     */
+    int updateLastSeenTime(@Param("ids") Collection<Long> ids, @Param("lastSeenTime") Date lastSeenTime);
+
+    /**
+     * 删除早于指定时间下榜的条目
+     *
+     * @param before 时间
+     * @return 删除条数
+     */
+    int deleteOffBoardBefore(@Param("before") Date before);
+}
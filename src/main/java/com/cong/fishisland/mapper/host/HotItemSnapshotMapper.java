@@ -0,0 +1,41 @@
+package com.cong.fishisland.mapper.host;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.cong.fishisland.model.entity.hot.HotItemSnapshot;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 热榜条目快照数据库操作
+ *
+ * @author cong
+ */
+public interface HotItemSnapshotMapper extends BaseMapper<HotItemSnapshot> {
+
+    /**
+     * 批量插入
+     *
+     * @param snapshotList 快照
+     * @return 插入条数
+     */
+    int insertBatch(@Param("list") List<HotItemSnapshot> snapshotList);
+
+    /**
+     * 降采样：早于指定时间的快照，每个条目在每个时间桶内只保留最后一条
+     *
+     * @param before       时间
+     * @param bucketFormat 时间桶格式（DATE_FORMAT），如按小时 %Y%m%d%H
+     * @return 删除条数
+     */
+    int downsample(@Param("before") Date before, @Param("bucketFormat") String bucketFormat);
+
+    /**
+     * 删除早于指定时间的快照
+     *
+     * @param before 时间
+     * @return 删除条数
+     */
+    int deleteBefore(@Param("before") Date before);
+}
@@ -0,0 +1,23 @@
+package com.cong.fishisland.mapper.mockInterview;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.cong.fishisland.model.entity.mockInterview.MockInterviewTurn;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 模拟面试对话轮次数据库操作
+ *
+ * @author cong
+ */
+public interface MockInterviewTurnMapper extends BaseMapper<MockInterviewTurn> {
+
+    /**
+     * 批量追加
+     *
+     * @param turnList 轮次
+     * @return 插入条数
+     */
+    int insertBatch(@Param("list") List<MockInterviewTurn> turnList);
+}
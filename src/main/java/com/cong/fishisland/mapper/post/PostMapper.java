@@ -1,7 +1,11 @@
 package com.cong.fishisland.mapper.post;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.cong.fishisland.model.dto.post.PostHotScore;
 import com.cong.fishisland.model.entity.post.Post;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
 import java.util.Date;
 import java.util.List;
 
@@ -16,6 +20,22 @@ public interface PostMapper extends BaseMapper<Post> {
      */
     List<Post> listPostWithDelete(Date minUpdateTime);
 
+    /**
+     * 流式遍历所有未删除的帖子（全量构建检索索引，避免一次性加载到内存）
+     */
+    Cursor<Post> streamAllPost();
+
+    /**
+     * 按 id 分批查询指定时间后发布的帖子热度字段（含评论数）
+     *
+     * @param minCreateTime 最早发布时间
+     * @param lastId        上一批最后一条 id
+     * @param limit         批大小
+     */
+    List<PostHotScore> listHotScoreAfterId(@Param("minCreateTime") Date minCreateTime,
+                                           @Param("lastId") long lastId,
+                                           @Param("limit") int limit);
+
 }
 
 
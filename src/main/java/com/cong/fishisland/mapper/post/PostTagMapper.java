@@ -0,0 +1,31 @@
+package com.cong.fishisland.mapper.post;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.cong.fishisland.model.entity.post.PostTag;
+import com.cong.fishisland.model.vo.tags.TagCountVO;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 帖子标签关联数据库操作
+ *
+ * @author cong
+ */
+public interface PostTagMapper extends BaseMapper<PostTag> {
+
+    /**
+     * 批量插入（已存在的关联忽略）
+     *
+     * @param postTagList 帖子标签关联
+     * @return 插入条数
+     */
+    int insertIgnoreBatch(@Param("list") List<PostTag> postTagList);
+
+    /**
+     * 统计每个标签的帖子数
+     *
+     * @return 标签计数
+     */
+    List<TagCountVO> countGroupByTagName();
+}
@@ -0,0 +1,21 @@
+package com.cong.fishisland.mapper.word;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.cong.fishisland.model.entity.word.SensitiveWord;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Map;
+
+/**
+ * 敏感词表数据库操作
+ *
+ * @author cong
+ */
+public interface SensitiveWordMapper extends BaseMapper<SensitiveWord> {
+
+    /**
+     * 词表指纹（总行数和最近更新时间），含已逻辑删除的行，删除也会刷新 updateTime
+     */
+    @Select("select count(*) as total, max(updateTime) as lastUpdateTime from sensitive_word")
+    Map<String, Object> selectFingerprint();
+}
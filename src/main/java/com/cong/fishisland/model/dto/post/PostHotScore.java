@@ -0,0 +1,52 @@
+package com.cong.fishisland.model.dto.post;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 帖子热度计算所需字段（热榜重算时批量查询）
+ *
+ * @author cong
+ */
+@Data
+public class PostHotScore implements Serializable {
+
+    /**
+     * 帖子 id
+     */
+    private Long id;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 点赞数
+     */
+    private Integer thumbNum;
+
+    /**
+     * 收藏数
+     */
+    private Integer favourNum;
+
+    /**
+     * 浏览量
+     */
+    private Integer viewNum;
+
+    /**
+     * 评论数
+     */
+    private Integer commentNum;
+
+    /**
+     * 是否加精
+     */
+    private Integer isFeatured;
+
+    private static final long serialVersionUID = 1L;
+}
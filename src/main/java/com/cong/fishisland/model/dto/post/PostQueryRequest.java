@@ -14,6 +14,16 @@ import lombok.EqualsAndHashCode;
 @Data
 public class PostQueryRequest extends PageRequest implements Serializable {
 
+    /**
+     * id
+     */
+    private Long id;
+
+    /**
+     * 排除的 id
+     */
+    private Long notId;
+
     /**
      * 标题
      */
@@ -29,6 +39,11 @@ public class PostQueryRequest extends PageRequest implements Serializable {
      */
     private List<String> tags;
 
+    /**
+     * 多标签匹配方式（all-全部包含，any-任一包含，默认 all）
+     */
+    private String tagMatchMode;
+
     /**
      * 创建用户 id
      */
@@ -0,0 +1,79 @@
+package com.cong.fishisland.model.entity.hot;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 热榜条目（每个来源的每条链接一行）
+ *
+ * @author cong
+ */
+@TableName(value = "hot_item")
+@Data
+public class HotItem implements Serializable {
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 热点类型
+     */
+    private String type;
+
+    /**
+     * 链接哈希（链接为空时取标题）
+     */
+    private Long urlHash;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * 链接
+     */
+    private String url;
+
+    /**
+     * 最近一次排名（从 1 开始）
+     */
+    private Integer lastRank;
+
+    /**
+     * 最高排名
+     */
+    private Integer bestRank;
+
+    /**
+     * 最近一次热度
+     */
+    private Integer lastFollowerCount;
+
+    /**
+     * 是否在榜
+     */
+    private Integer onBoard;
+
+    /**
+     * 本次上榜时间
+     */
+    private Date onBoardTime;
+
+    /**
+     * 最近在榜时间
+     */
+    private Date lastSeenTime;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+}
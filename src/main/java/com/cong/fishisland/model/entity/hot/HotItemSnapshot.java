@@ -0,0 +1,49 @@
+package com.cong.fishisland.model.entity.hot;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 热榜条目快照（只追加，排名或热度变化时写入）
+ *
+ * @author cong
+ */
+@TableName(value = "hot_item_snapshot")
+@Data
+public class HotItemSnapshot implements Serializable {
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 条目 id
+     */
+    private Long itemId;
+
+    /**
+     * 排名，0 表示下榜
+     */
+    private Integer boardRank;
+
+    /**
+     * 热度
+     */
+    private Integer followerCount;
+
+    /**
+     * 快照时间
+     */
+    private Date snapshotTime;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+}
@@ -45,6 +45,18 @@ public class MockInterview implements Serializable {
     @TableField(value = "messages")
     private String messages;
 
+    /**
+     * 滚动摘要（移出上下文窗口的轮次压缩而成）
+     */
+    @TableField(value = "summary")
+    private String summary;
+
+    /**
+     * 摘要已覆盖到的轮次序号
+     */
+    @TableField(value = "summaryTurnNo")
+    private Integer summaryTurnNo;
+
     /**
      * 状态（0-待开始、1-进行中、2-已结束）
      */
@@ -0,0 +1,54 @@
+package com.cong.fishisland.model.entity.mockInterview;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 模拟面试对话轮次（只追加，每条消息一行）
+ *
+ * @author cong
+ */
+@TableName(value = "mock_interview_turn")
+@Data
+public class MockInterviewTurn implements Serializable {
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 模拟面试 id
+     */
+    private Long interviewId;
+
+    /**
+     * 轮次序号，从 1 开始
+     */
+    private Integer turnNo;
+
+    /**
+     * 角色（user/assistant）
+     */
+    private String role;
+
+    /**
+     * 消息内容
+     */
+    private String content;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,42 @@
+package com.cong.fishisland.model.enums;
+
+import lombok.Getter;
+import org.apache.commons.lang3.ObjectUtils;
+
+/**
+ * AI 图片生成任务状态枚举
+ *
+ * @author cong
+ */
+@Getter
+public enum ImageJobStatusEnum {
+
+    QUEUED("排队中", "queued"),
+    RUNNING("生成中", "running"),
+    SUCCEED("已完成", "succeed"),
+    FAILED("失败", "failed");
+
+    private final String text;
+
+    private final String value;
+
+    ImageJobStatusEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     */
+    public static ImageJobStatusEnum getEnumByValue(String value) {
+        if (ObjectUtils.isEmpty(value)) {
+            return null;
+        }
+        for (ImageJobStatusEnum anEnum : ImageJobStatusEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+}
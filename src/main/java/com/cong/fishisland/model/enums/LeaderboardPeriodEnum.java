@@ -0,0 +1,76 @@
+package com.cong.fishisland.model.enums;
+
+import lombok.Getter;
+import org.apache.commons.lang3.ObjectUtils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+
+/**
+ * 排行榜周期枚举
+ *
+ * @author cong
+ */
+@Getter
+public enum LeaderboardPeriodEnum {
+
+    TOTAL("总榜", "total"),
+    DAILY("日榜", "daily"),
+    WEEKLY("周榜", "weekly");
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final String text;
+
+    private final String value;
+
+    LeaderboardPeriodEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 日期所在周期的标识，如 total、20250101、2025W01
+     */
+    public String periodId(LocalDate date) {
+        switch (this) {
+            case DAILY:
+                return date.format(DAY_FORMATTER);
+            case WEEKLY:
+                return date.get(IsoFields.WEEK_BASED_YEAR) + "W"
+                        + String.format("%02d", date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * 上一个周期中的日期，总榜没有上一个周期
+     */
+    public LocalDate previous(LocalDate date) {
+        switch (this) {
+            case DAILY:
+                return date.minusDays(1);
+            case WEEKLY:
+                return date.minusWeeks(1);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 根据 value 获取枚举
+     */
+    public static LeaderboardPeriodEnum getEnumByValue(String value) {
+        if (ObjectUtils.isEmpty(value)) {
+            return null;
+        }
+        for (LeaderboardPeriodEnum anEnum : LeaderboardPeriodEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+}
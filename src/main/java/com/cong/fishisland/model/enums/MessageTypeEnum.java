@@ -25,6 +25,8 @@ public enum MessageTypeEnum {
     MOVE_CHESS("moveChess", "对方落子"),
     JOIN_SUCCESS("joinSuccess", "成功加入房间"),
     CHAT("chat", "群聊天消息"),
+    CHAT_DELTA("chatDelta", "群聊天消息增量（流式回答）"),
+    IMAGE_PROGRESS("imageProgress", "AI 图片生成进度"),
     UNDERCOVER("undercover", "谁是卧底消息"),
     DRAW("draw", "你画我猜消息"),
     CLEAR_DRAW("clearDraw", "清空画板"),
@@ -37,6 +39,7 @@ public enum MessageTypeEnum {
     CREATE_DRAW_ROOM("createDrawRoom", "创建绘画房间"),
     ROOM_DRAW_CREATED("roomDrawCreated", "房间绘画创建成功"),
     ROOM_DRAW_USER_LIST("roomDrawUserList", "发送你画我猜在线用户列表"),
+    EVENT_REMIND("eventRemind", "事件提醒（合并后的点赞、评论和未读数）"),
     ;
 
     private final String type;
@@ -0,0 +1,41 @@
+package com.cong.fishisland.model.enums;
+
+import lombok.Getter;
+import org.apache.commons.lang3.ObjectUtils;
+
+/**
+ * 限流维度枚举
+ *
+ * @author cong
+ */
+@Getter
+public enum RateLimitKeyEnum {
+
+    USER("按用户（未登录时按 IP）", "user"),
+    IP("按客户端 IP", "ip"),
+    GLOBAL("接口全局", "global");
+
+    private final String text;
+
+    private final String value;
+
+    RateLimitKeyEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     */
+    public static RateLimitKeyEnum getEnumByValue(String value) {
+        if (ObjectUtils.isEmpty(value)) {
+            return null;
+        }
+        for (RateLimitKeyEnum anEnum : RateLimitKeyEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.cong.fishisland.model.vo;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 网页链接预览统计
+ *
+ * @author cong
+ */
+@Data
+public class WebPreviewStatsVO implements Serializable {
+
+    @ApiModelProperty(value = "请求次数")
+    private Long requests;
+
+    @ApiModelProperty(value = "本地缓存命中次数")
+    private Long localHits;
+
+    @ApiModelProperty(value = "Redis 缓存命中次数")
+    private Long redisHits;
+
+    @ApiModelProperty(value = "合并到进行中抓取的次数")
+    private Long coalesced;
+
+    @ApiModelProperty(value = "缓存命中率（含合并）")
+    private Double hitRatio;
+
+    @ApiModelProperty(value = "抓取次数")
+    private Long fetches;
+
+    @ApiModelProperty(value = "抓取失败次数")
+    private Long failures;
+
+    @ApiModelProperty(value = "线程池已满被拒绝的次数")
+    private Long rejected;
+
+    @ApiModelProperty(value = "正在进行的抓取数")
+    private Integer inFlight;
+
+    @ApiModelProperty(value = "平均抓取耗时（毫秒）")
+    private Long avgFetchMillis;
+
+    @ApiModelProperty(value = "最大抓取耗时（毫秒）")
+    private Long maxFetchMillis;
+
+    private static final long serialVersionUID = 1L;
+}
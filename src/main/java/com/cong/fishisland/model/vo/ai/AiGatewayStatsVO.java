@@ -0,0 +1,66 @@
+package com.cong.fishisland.model.vo.ai;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * AI 网关统计
+ *
+ * @author cong
+ */
+@Data
+public class AiGatewayStatsVO implements Serializable {
+
+    @ApiModelProperty(value = "正在进行的请求数")
+    private Integer inFlight;
+
+    @ApiModelProperty(value = "排队等待的请求数")
+    private Integer queueDepth;
+
+    @ApiModelProperty(value = "缓存命中次数")
+    private Long cacheHits;
+
+    @ApiModelProperty(value = "合并到进行中请求的次数")
+    private Long coalesced;
+
+    @ApiModelProperty(value = "限流或排队被拒绝的次数")
+    private Long rejected;
+
+    @ApiModelProperty(value = "各 AI 服务统计")
+    private List<ProviderStats> providers;
+
+    private static final long serialVersionUID = 1L;
+
+    @Data
+    public static class ProviderStats implements Serializable {
+
+        @ApiModelProperty(value = "服务名")
+        private String name;
+
+        @ApiModelProperty(value = "调用次数")
+        private Long calls;
+
+        @ApiModelProperty(value = "失败次数")
+        private Long failures;
+
+        @ApiModelProperty(value = "切换到备用服务的次数")
+        private Long fallbacks;
+
+        @ApiModelProperty(value = "平均耗时（毫秒）")
+        private Long avgLatencyMillis;
+
+        @ApiModelProperty(value = "最大耗时（毫秒）")
+        private Long maxLatencyMillis;
+
+        @ApiModelProperty(value = "累计输入 token")
+        private Long promptTokens;
+
+        @ApiModelProperty(value = "累计输出 token")
+        private Long completionTokens;
+
+        private static final long serialVersionUID = 1L;
+    }
+}
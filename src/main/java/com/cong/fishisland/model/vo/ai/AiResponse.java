@@ -26,4 +26,10 @@ public class AiResponse {
 
     @ApiModelProperty(value = "模型名称")
     private String aiName;
+
+    @ApiModelProperty(value = "输入 token 数")
+    private Integer promptTokens;
+
+    @ApiModelProperty(value = "输出 token 数")
+    private Integer completionTokens;
 }
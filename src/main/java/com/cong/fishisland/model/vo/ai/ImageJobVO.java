@@ -0,0 +1,51 @@
+package com.cong.fishisland.model.vo.ai;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * AI 图片生成任务
+ *
+ * @author cong
+ */
+@Data
+public class ImageJobVO implements Serializable {
+
+    /**
+     * 任务 id（模型和图片描述的内容哈希，相同描述共用一个任务）
+     */
+    private String jobId;
+
+    /**
+     * 图片描述
+     */
+    private String prompt;
+
+    /**
+     * 模型
+     */
+    private String model;
+
+    /**
+     * 状态，见 ImageJobStatusEnum
+     */
+    private String status;
+
+    /**
+     * 入队时的排队位置（从 1 开始），合并到已有任务时为空
+     */
+    private Long position;
+
+    /**
+     * 图片地址
+     */
+    private String url;
+
+    /**
+     * 失败原因
+     */
+    private String error;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -15,6 +15,8 @@ public class SiliconFlowRequest {
     private String model = "Qwen/Qwen2.5-14B-Instruct";
     private List<Message> messages;
     private boolean stream = false;
+    // 流式请求的选项，如 include_usage
+    private Map<String, Object> stream_options;
     private int max_tokens = 512;
     private Object stop = null;
     private double temperature = 0.7;
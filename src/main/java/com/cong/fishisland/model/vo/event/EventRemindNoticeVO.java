@@ -0,0 +1,46 @@
+package com.cong.fishisland.model.vo.event;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 合并后的事件提醒，如“12 人点赞了你的动态”
+ *
+ * @author cong
+ */
+@Data
+public class EventRemindNoticeVO implements Serializable {
+
+    @ApiModelProperty(value = "动作类型")
+    private String action;
+
+    @ApiModelProperty(value = "事件源类型：1-帖子、2-评论")
+    private Integer sourceType;
+
+    @ApiModelProperty(value = "事件源 ID，合并多条评论时为最新一条")
+    private Long sourceId;
+
+    @ApiModelProperty(value = "事件所发生的地点链接")
+    private String url;
+
+    @ApiModelProperty(value = "合并的提醒条数")
+    private Integer count;
+
+    @ApiModelProperty(value = "最近的几位操作者 ID，最新的在前")
+    private List<Long> senderIds;
+
+    @ApiModelProperty(value = "最新一条提醒的内容")
+    private String content;
+
+    @ApiModelProperty(value = "展示文案")
+    private String text;
+
+    @ApiModelProperty(value = "最新一条提醒的时间")
+    private Date remindTime;
+
+    private static final long serialVersionUID = 1L;
+}
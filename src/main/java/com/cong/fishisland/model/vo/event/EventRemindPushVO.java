@@ -0,0 +1,29 @@
+package com.cong.fishisland.model.vo.event;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 推送给在线用户的事件提醒
+ *
+ * @author cong
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventRemindPushVO implements Serializable {
+
+    @ApiModelProperty(value = "上次推送以来的提醒，同一事件源合并为一条")
+    private List<EventRemindNoticeVO> notices;
+
+    @ApiModelProperty(value = "未读数：动作类型 -> 数量，total 为合计")
+    private Map<String, Long> unread;
+
+    private static final long serialVersionUID = 1L;
+}
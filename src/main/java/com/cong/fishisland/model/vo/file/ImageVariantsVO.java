@@ -0,0 +1,43 @@
+package com.cong.fishisland.model.vo.file;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 图片衍生图地址
+ *
+ * @author cong
+ */
+@Data
+public class ImageVariantsVO implements Serializable {
+
+    @ApiModelProperty(value = "原图地址")
+    private String original;
+
+    @ApiModelProperty(value = "缩略图地址，键为长边像素；衍生图尚未生成时为空")
+    private Map<Integer, String> variants = new TreeMap<>();
+
+    @ApiModelProperty(value = "动图第一帧封面地址，非动图为空")
+    private String poster;
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 不超过指定长边的最大缩略图，没有时返回原图
+     */
+    public String fit(int side) {
+        String url = original;
+        int best = 0;
+        for (Map.Entry<Integer, String> entry : variants.entrySet()) {
+            if (entry.getKey() <= side && entry.getKey() > best) {
+                best = entry.getKey();
+                url = entry.getValue();
+            }
+        }
+        return url;
+    }
+}
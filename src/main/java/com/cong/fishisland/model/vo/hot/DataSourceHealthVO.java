@@ -0,0 +1,87 @@
+package com.cong.fishisland.model.vo.hot;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 热榜数据源健康状况
+ *
+ * @author cong
+ */
+@Data
+public class DataSourceHealthVO implements Serializable {
+
+    /**
+     * 热点类型
+     */
+    private String type;
+
+    /**
+     * 热点类型名称
+     */
+    private String typeName;
+
+    /**
+     * 熔断状态：CLOSED 正常，OPEN 熔断中，HALF_OPEN 试探中
+     */
+    private String circuit;
+
+    /**
+     * 是否正在抓取
+     */
+    private Boolean running;
+
+    /**
+     * 连续失败次数
+     */
+    private Integer consecutiveFailures;
+
+    /**
+     * 累计执行次数
+     */
+    private Long totalRuns;
+
+    /**
+     * 累计失败次数
+     */
+    private Long totalFailures;
+
+    /**
+     * 最近成功时间
+     */
+    private Date lastSuccessTime;
+
+    /**
+     * 最近失败时间
+     */
+    private Date lastFailureTime;
+
+    /**
+     * 最近失败原因
+     */
+    private String lastError;
+
+    /**
+     * 下次执行时间
+     */
+    private Date nextRunTime;
+
+    /**
+     * 最近耗时 P50（毫秒）
+     */
+    private Long latencyP50;
+
+    /**
+     * 最近耗时 P95（毫秒）
+     */
+    private Long latencyP95;
+
+    /**
+     * 最近耗时 P99（毫秒）
+     */
+    private Long latencyP99;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,32 @@
+package com.cong.fishisland.model.vo.hot;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 热榜条目排名历史
+ *
+ * @author cong
+ */
+@Data
+public class HotItemHistoryVO implements Serializable {
+
+    /**
+     * 排名，0 表示下榜
+     */
+    private Integer rank;
+
+    /**
+     * 热度
+     */
+    private Integer followerCount;
+
+    /**
+     * 时间
+     */
+    private Date time;
+
+    private static final long serialVersionUID = 1L;
+}
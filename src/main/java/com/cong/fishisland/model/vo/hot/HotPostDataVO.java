@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.io.Serializable;
+import java.util.Date;
 
 /**
  * 热榜视图
@@ -28,5 +29,30 @@ public class HotPostDataVO implements Serializable {
      */
     private String url;
 
+    /**
+     * 排名变化（正数为上升），新上榜时为空
+     */
+    private Integer rankChange;
+
+    /**
+     * 是否新上榜
+     */
+    private Boolean isNew;
+
+    /**
+     * 是否飙升
+     */
+    private Boolean rising;
+
+    /**
+     * 本次上榜时间
+     */
+    private Date onBoardTime;
+
+    /**
+     * 同一话题上榜的来源数（含本来源）
+     */
+    private Integer crossSourceCount;
+
 
 }
@@ -64,6 +64,16 @@ public class HotPostVO implements Serializable {
      */
     private List<HotPostDataVO> data;
 
+    /**
+     * 新上榜条数
+     */
+    private Integer newCount;
+
+    /**
+     * 飙升条数
+     */
+    private Integer risingCount;
+
     /**
      * 对象转包装类
      *
@@ -83,7 +93,12 @@ public class HotPostVO implements Serializable {
         hotPostVO.setUpdateTime(hotPost.getUpdateTime());
         hotPostVO.setCategory(hotPost.getCategory());
         hotPostVO.setCategoryName(CategoryTypeEnum.getEnumByValue(hotPost.getCategory()).getText());
-        hotPostVO.setData(JSON.parseArray(hotPost.getHostJson(), HotPostDataVO.class));
+        List<HotPostDataVO> dataList = JSON.parseArray(hotPost.getHostJson(), HotPostDataVO.class);
+        hotPostVO.setData(dataList);
+        if (dataList != null) {
+            hotPostVO.setNewCount((int) dataList.stream().filter(data -> Boolean.TRUE.equals(data.getIsNew())).count());
+            hotPostVO.setRisingCount((int) dataList.stream().filter(data -> Boolean.TRUE.equals(data.getRising())).count());
+        }
         return hotPostVO;
     }
 
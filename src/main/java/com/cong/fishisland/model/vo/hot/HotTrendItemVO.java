@@ -0,0 +1,41 @@
+package com.cong.fishisland.model.vo.hot;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 热门话题在某个来源的条目
+ *
+ * @author cong
+ */
+@Data
+public class HotTrendItemVO implements Serializable {
+
+    /**
+     * 热点类型
+     */
+    private String type;
+
+    /**
+     * 热点类型名称
+     */
+    private String typeName;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * 链接
+     */
+    private String url;
+
+    /**
+     * 排名
+     */
+    private Integer rank;
+
+    private static final long serialVersionUID = 1L;
+}
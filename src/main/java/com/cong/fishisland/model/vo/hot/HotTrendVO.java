@@ -0,0 +1,32 @@
+package com.cong.fishisland.model.vo.hot;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 跨来源热门话题
+ *
+ * @author cong
+ */
+@Data
+public class HotTrendVO implements Serializable {
+
+    /**
+     * 话题标题（取排名最高的条目）
+     */
+    private String title;
+
+    /**
+     * 上榜来源数
+     */
+    private Integer sourceCount;
+
+    /**
+     * 各来源的条目，按排名升序
+     */
+    private List<HotTrendItemVO> items;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,28 @@
+package com.cong.fishisland.model.vo.post;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * 帖子检索结果视图
+ *
+ * @author cong
+ */
+@Data
+public class PostSearchVO implements Serializable {
+
+    /**
+     * 分页结果（标题、内容为高亮片段）
+     */
+    private Page<PostVO> page;
+
+    /**
+     * 标签分面统计（标签 -> 帖子数）
+     */
+    private Map<String, Integer> tagFacets;
+
+    private static final long serialVersionUID = 1L;
+}
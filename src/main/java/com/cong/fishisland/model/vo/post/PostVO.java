@@ -108,6 +108,16 @@ public class PostVO implements Serializable {
      */
     private CommentVO thumbComment;
 
+    /**
+     * 全文检索命中的标题片段（原文已转义，命中词用 em 标签包裹），未命中为空
+     */
+    private String titleHighlight;
+
+    /**
+     * 全文检索命中的内容片段（原文已转义，命中词用 em 标签包裹），未命中为空
+     */
+    private String contentHighlight;
+
     /**
      * 包装类转对象
      *
@@ -0,0 +1,30 @@
+package com.cong.fishisland.model.vo.tags;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 标签帖子数
+ *
+ * @author cong
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagCountVO implements Serializable {
+
+    /**
+     * 标签名
+     */
+    private String tagName;
+
+    /**
+     * 帖子数
+     */
+    private Long count;
+
+    private static final long serialVersionUID = 1L;
+}
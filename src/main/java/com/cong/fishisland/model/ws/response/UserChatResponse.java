@@ -18,6 +18,9 @@ public class UserChatResponse {
     @ApiModelProperty(value = "用户头像")
     private String avatar;
 
+    @ApiModelProperty(value = "用户头像缩略图，没有缩略图时为原图")
+    private String avatarThumbnail;
+
     @ApiModelProperty(value = "用户等级")
     private Integer level;
 
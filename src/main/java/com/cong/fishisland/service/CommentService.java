@@ -1,6 +1,7 @@
 package com.cong.fishisland.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cong.fishisland.common.CursorPage;
 import com.cong.fishisland.model.dto.comment.ChildCommentQueryRequest;
 import com.cong.fishisland.model.dto.comment.CommentQueryRequest;
 import com.cong.fishisland.model.entity.comment.Comment;
@@ -8,6 +9,9 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import com.cong.fishisland.model.vo.comment.CommentNodeVO;
 import com.cong.fishisland.model.vo.comment.CommentVO;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
 * @author 许林涛
 * @description 针对表【comment(评论表)】的数据库操作Service
@@ -29,11 +33,29 @@ public interface CommentService extends IService<Comment> {
      */
     Page<CommentVO> getChildComments(ChildCommentQueryRequest request);
 
+    /**
+     * 游标分页获取评论树（未指定排序字段时按发布时间倒序）
+     */
+    CursorPage<CommentNodeVO> getCommentTreeByCursor(CommentQueryRequest commentQueryRequest);
+
+    /**
+     * 游标分页获取二级评论（按发布时间升序）
+     */
+    CursorPage<CommentVO> getChildCommentsByCursor(ChildCommentQueryRequest request);
+
     /**
      * 获取评论数
      */
     Integer getCommentNum(Long postId);
 
+    /**
+     * 批量获取评论数（一次分组查询）
+     *
+     * @param postIds 帖子 id 集合
+     * @return postId -> 评论数，无评论的帖子不在结果中
+     */
+    Map<Long, Integer> getCommentNumMap(Collection<Long> postIds);
+
     /**
      * 获取帖子最新一条评论
      */
@@ -2,12 +2,15 @@ package com.cong.fishisland.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cong.fishisland.common.CursorPage;
 import com.cong.fishisland.model.dto.event.EventRemindQueryRequest;
 import com.cong.fishisland.model.dto.event.EventRemindStateRequest;
 import com.cong.fishisland.model.entity.event.EventRemind;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.cong.fishisland.model.vo.event.EventRemindVO;
 
+import java.util.Map;
+
 /**
 * @author 许林涛
 * @description 针对表【event_remind(事件提醒表)】的数据库操作Service
@@ -21,10 +24,11 @@ public interface EventRemindService extends IService<EventRemind> {
     Boolean batchSetRead(EventRemindStateRequest request);
 
     /**
-     * 检查是否已存在相同事件
+     * 获取当前用户的未读数
+     *
+     * @return 动作类型 -> 数量，total 为合计
      */
-    boolean existsEvent(String action, Long sourceId, Integer sourceType,
-                        Long senderId, Long recipientId);
+    Map<String, Long> getMyUnreadCount();
 
     /**
      * 获取查询包装器
@@ -41,4 +45,12 @@ public interface EventRemindService extends IService<EventRemind> {
      * @return VO分页
      */
     Page<EventRemindVO> getEventRemindVOPage(Page<EventRemind> eventRemindPage);
+
+    /**
+     * 游标分页获取当前用户的事件提醒（按提醒时间倒序）
+     *
+     * @param request 事件提醒查询请求（cursor 为上一页游标）
+     * @return 游标分页结果
+     */
+    CursorPage<EventRemindVO> listMyEventRemindByCursor(EventRemindQueryRequest request);
 }
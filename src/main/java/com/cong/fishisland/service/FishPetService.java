@@ -104,7 +104,7 @@ public interface FishPetService extends IService<FishPet> {
     List<PetSkinVO> getPetSkins(Long petId);
     
     /**
-     * 生成宠物排行榜并缓存到Redis
+     * 生成宠物排行榜，整体替换 Redis 中的排行榜
      * 
      * @return 生成的排行榜数量
      */
@@ -118,6 +118,14 @@ public interface FishPetService extends IService<FishPet> {
      */
     List<PetRankVO> getPetRankList(int limit);
 
+    /**
+     * 获取用户宠物的名次及前后的排行
+     *
+     * @param userId 用户ID
+     * @return 排行列表，没有宠物或未上榜时为空
+     */
+    List<PetRankVO> getPetRankAround(Long userId);
+
     /**
      * 更新用户宠物称号
      * 移除昨天排行榜用户的宠物称号，给今天排行榜用户添加宠物称号
@@ -0,0 +1,48 @@
+package com.cong.fishisland.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.cong.fishisland.model.entity.hot.HotItem;
+import com.cong.fishisland.model.entity.hot.HotPost;
+import com.cong.fishisland.model.vo.hot.HotItemHistoryVO;
+import com.cong.fishisland.model.vo.hot.HotTrendVO;
+
+import java.util.List;
+
+/**
+ * 热榜历史服务
+ *
+ * @author cong
+ */
+public interface HotPostHistoryService extends IService<HotItem> {
+
+    /**
+     * 记录一次榜单抓取：追加排名或热度变化的快照，并把排名变化、新上榜、飙升、上榜时间和跨来源话题数写回热点数据
+     *
+     * @param hotPost 刚抓取的榜单（type、updateTime、hostJson 必填），hostJson 会被替换为补充后的数据
+     */
+    void ingest(HotPost hotPost);
+
+    /**
+     * 获取跨来源热门话题
+     *
+     * @param size 条数
+     * @return {@link List }<{@link HotTrendVO }>
+     */
+    List<HotTrendVO> listTrending(int size);
+
+    /**
+     * 获取条目的排名历史
+     *
+     * @param type 热点类型
+     * @param url  链接
+     * @return {@link List }<{@link HotItemHistoryVO }>
+     */
+    List<HotItemHistoryVO> listItemHistory(String type, String url);
+
+    /**
+     * 按保留天数删除过期快照，并对较早的快照降采样
+     *
+     * @return 删除的快照条数
+     */
+    int cleanHistory();
+}
@@ -14,7 +14,7 @@ import java.util.List;
 public interface HotPostService extends IService<HotPost> {
 
     /**
-     * 获取热门帖子列表
+     * 获取热门帖子列表（直接查询数据库，接口读取走 HotPostCacheManager）
      *
      * @return {@link List }<{@link HotPostVO }>
      */
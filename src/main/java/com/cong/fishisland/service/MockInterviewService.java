@@ -6,6 +6,7 @@ import com.cong.fishisland.model.dto.mockInterview.MockInterviewEventRequest;
 import com.cong.fishisland.model.dto.mockInterview.MockInterviewQueryRequest;
 import com.cong.fishisland.model.entity.mockInterview.MockInterview;
 import com.baomidou.mybatisplus.extension.service.IService;
+import reactor.core.publisher.Flux;
 
 /**
 * @author Shing
@@ -36,4 +37,17 @@ public interface MockInterviewService extends IService<MockInterview> {
      */
     String handleMockInterviewEvent(MockInterviewEventRequest mockInterviewEventRequest);
 
+    /**
+     * 流式处理模拟面试事件
+     * @param mockInterviewEventRequest
+     * @return AI 回复的增量内容
+     */
+    Flux<String> streamMockInterviewEvent(MockInterviewEventRequest mockInterviewEventRequest);
+
+    /**
+     * 进行中的模拟面试从对话轮次汇总消息记录
+     * @param mockInterview
+     */
+    void fillMessages(MockInterview mockInterview);
+
 }
@@ -3,9 +3,12 @@ package com.cong.fishisland.service;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.cong.fishisland.common.CursorPage;
+import com.cong.fishisland.common.CursorPageRequest;
 import com.cong.fishisland.model.dto.post.PostFeaturedRequest;
 import com.cong.fishisland.model.dto.post.PostQueryRequest;
 import com.cong.fishisland.model.entity.post.Post;
+import com.cong.fishisland.model.vo.post.PostSearchVO;
 import com.cong.fishisland.model.vo.post.PostVO;
 
 /**
@@ -32,13 +35,29 @@ public interface PostService extends IService<Post> {
     QueryWrapper<Post> getQueryWrapper(PostQueryRequest postQueryRequest);
 
     /**
-     * 从 ES 查询
+     * 从全文检索索引查询（索引未就绪时回退数据库查询）
      *
      * @param postQueryRequest 发布查询请求
      * @return {@link Page}<{@link Post}>
      */
     Page<Post> searchFromEs(PostQueryRequest postQueryRequest);
 
+    /**
+     * 全文检索帖子（带高亮和标签分面）
+     *
+     * @param postQueryRequest 发布查询请求
+     * @return {@link PostSearchVO}
+     */
+    PostSearchVO searchPostVO(PostQueryRequest postQueryRequest);
+
+    /**
+     * 热榜帖子（游标分页）
+     *
+     * @param cursorPageRequest 游标分页请求
+     * @return {@link CursorPage}<{@link PostVO}>
+     */
+    CursorPage<PostVO> listHotPostVoByCursor(CursorPageRequest cursorPageRequest);
+
     /**
      * 获取帖子封装
      *
@@ -75,4 +94,45 @@ public interface PostService extends IService<Post> {
      * @return {@link Page}<{@link PostVO}>
      */
     Page<PostVO> listFavourPostByPage(PostQueryRequest postQueryRequest, Long id);
+
+    /**
+     * 游标分页获取帖子（未指定排序字段时按创建时间倒序）
+     *
+     * @param postQueryRequest 帖子查询请求（cursor 为上一页游标）
+     * @return {@link CursorPage}<{@link PostVO}>
+     */
+    CursorPage<PostVO> listPostVoByCursor(PostQueryRequest postQueryRequest);
+
+    /**
+     * 游标分页获取用户收藏的帖子（按收藏时间倒序）
+     *
+     * @param postQueryRequest 帖子查询请求（cursor 为上一页游标）
+     * @param userId           用户id
+     * @return {@link CursorPage}<{@link PostVO}>
+     */
+    CursorPage<PostVO> listFavourPostByCursor(PostQueryRequest postQueryRequest, Long userId);
+
+    /**
+     * 保存帖子并写入标签关联（同一事务）
+     *
+     * @param post 帖子
+     * @return 是否成功
+     */
+    boolean savePostWithTags(Post post);
+
+    /**
+     * 更新帖子，传了标签时同步标签关联（同一事务）
+     *
+     * @param post 帖子
+     * @return 是否成功
+     */
+    boolean updatePostWithTags(Post post);
+
+    /**
+     * 删除帖子及其标签关联（同一事务）
+     *
+     * @param postId 帖子 id
+     * @return 是否成功
+     */
+    boolean removePostWithTags(Long postId);
 }
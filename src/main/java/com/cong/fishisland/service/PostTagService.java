@@ -0,0 +1,63 @@
+package com.cong.fishisland.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.cong.fishisland.model.entity.post.Post;
+import com.cong.fishisland.model.entity.post.PostTag;
+import com.cong.fishisland.model.vo.tags.TagCountVO;
+
+import java.util.List;
+
+/**
+ * 帖子标签关联服务
+ *
+ * @author cong
+ */
+public interface PostTagService extends IService<PostTag> {
+
+    /**
+     * 同步帖子的标签关联（新增的写入、移除的删除），并更新标签计数
+     *
+     * @param postId 帖子 id
+     * @param tags   标签列表 json
+     */
+    void syncPostTags(Long postId, String tags);
+
+    /**
+     * 删除帖子的全部标签关联，并更新标签计数
+     *
+     * @param postId 帖子 id
+     */
+    void removePostTags(Long postId);
+
+    /**
+     * 回填存量帖子的标签关联（可重复执行），完成后重建标签计数
+     *
+     * @param posts 帖子流
+     * @return 写入的关联条数
+     */
+    long backfill(Iterable<Post> posts);
+
+    /**
+     * 按 post_tag 重建 Redis 中的标签计数
+     */
+    void rebuildTagCounts();
+
+    /**
+     * 获取帖子数最多的标签（标签云）
+     * <p>
+     * Redis 中没有计数时按 post_tag 重建，每分钟至多一次
+     *
+     * @param topN 数量
+     * @return 标签计数
+     */
+    List<TagCountVO> listHotTags(int topN);
+
+    /**
+     * 获取近几天新增帖子最多的标签（趋势标签）
+     *
+     * @param days 天数
+     * @param topN 数量
+     * @return 标签计数
+     */
+    List<TagCountVO> listTrendingTags(int days, int topN);
+}
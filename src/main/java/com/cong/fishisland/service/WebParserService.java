@@ -1,6 +1,11 @@
 package com.cong.fishisland.service;
 
 import com.cong.fishisland.model.vo.WebParseVO;
+import com.cong.fishisland.model.vo.WebPreviewStatsVO;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author cong
@@ -13,4 +18,25 @@ public interface WebParserService {
      * @return 解析结果
      */
     WebParseVO parseWebPage(String url);
-} 
\ No newline at end of file
+
+    /**
+     * 异步解析网页信息，失败时结果为空的 WebParseVO
+     *
+     * @param url 网页URL
+     * @return 解析结果
+     */
+    CompletableFuture<WebParseVO> parseWebPageAsync(String url);
+
+    /**
+     * 批量解析网页信息，各网页并发抓取
+     *
+     * @param urls 网页URL
+     * @return 网页URL到解析结果的映射，按传入顺序
+     */
+    Map<String, WebParseVO> parseWebPages(Collection<String> urls);
+
+    /**
+     * 链接预览统计
+     */
+    WebPreviewStatsVO stats();
+}
@@ -1,18 +1,30 @@
 package com.cong.fishisland.service.event;
 
+import com.cong.fishisland.config.EventRemindConfig;
 import com.cong.fishisland.constant.ActionTypeConstant;
 import com.cong.fishisland.constant.SourceTypeConstant;
+import com.cong.fishisland.manager.EventRemindManager;
 import com.cong.fishisland.model.entity.event.EventRemind;
 import com.cong.fishisland.service.EventRemindService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.Resource;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * 事件提醒处理服务
+ * <p>
+ * 点赞通过 Redis 集合去重，提醒先进入队列，定时批量写库，写库后更新未读数并合并推送给在线的接收者。
+ * 写库失败的批次会从去重集合中移除操作者，再次点赞时重新提醒。
+ * 队列只在内存中，进程正常关闭时会先写库，但崩溃或被强制终止时尚未写库的提醒（最多一个写库间隔内的）会丢失。
  *
  * @author 许林涛
  * @date 2025年07月09日 15:32
@@ -20,8 +32,25 @@ import java.util.Date;
 @Slf4j
 @Service
 public class EventRemindHandler {
-    @Resource
-    private EventRemindService eventRemindService;
+
+    private final EventRemindService eventRemindService;
+
+    private final EventRemindManager eventRemindManager;
+
+    private final EventRemindConfig eventRemindConfig;
+
+    /**
+     * 待写库的提醒
+     */
+    private final BlockingQueue<EventRemind> queue;
+
+    public EventRemindHandler(EventRemindService eventRemindService, EventRemindManager eventRemindManager,
+                              EventRemindConfig eventRemindConfig) {
+        this.eventRemindService = eventRemindService;
+        this.eventRemindManager = eventRemindManager;
+        this.eventRemindConfig = eventRemindConfig;
+        this.queue = new LinkedBlockingQueue<>(eventRemindConfig.getQueueCapacity());
+    }
 
     /**
      * 异步处理点赞动态事件
@@ -29,12 +58,7 @@ public class EventRemindHandler {
     @Async("eventRemindExecutor")
     public void handlePostLike(Long postId, Long senderId, Long recipientId) {
         // 检查是否已存在相同事件
-        if (eventRemindService.existsEvent(
-                ActionTypeConstant.LIKE,
-                postId,
-                SourceTypeConstant.POST,
-                senderId,
-                recipientId)) {
+        if (!eventRemindManager.addSender(ActionTypeConstant.LIKE, SourceTypeConstant.POST, postId, senderId)) {
             log.info("已存在点赞动态事件，跳过保存: postId={}, senderId={}", postId, senderId);
             return;
         }
@@ -49,8 +73,8 @@ public class EventRemindHandler {
         event.setSenderId(senderId);
         event.setRecipientId(recipientId);
         event.setRemindTime(new Date());
-        eventRemindService.save(event);
-        log.info("保存点赞动态事件: postId={}, senderId={}, recipientId={}",
+        submit(event);
+        log.info("提交点赞动态事件: postId={}, senderId={}, recipientId={}",
                 postId, senderId, recipientId);
     }
 
@@ -60,12 +84,7 @@ public class EventRemindHandler {
     @Async("eventRemindExecutor")
     public void handleCommentLike(Long commentId, Long senderId, Long recipientId, Long postId) {
         // 检查是否已存在相同事件
-        if (eventRemindService.existsEvent(
-                ActionTypeConstant.LIKE,
-                commentId,
-                SourceTypeConstant.COMMENT,
-                senderId,
-                recipientId)) {
+        if (!eventRemindManager.addSender(ActionTypeConstant.LIKE, SourceTypeConstant.COMMENT, commentId, senderId)) {
             log.info("已存在点赞评论事件，跳过保存: commentId={}, senderId={}", commentId, senderId);
             return;
         }
@@ -81,8 +100,8 @@ public class EventRemindHandler {
         event.setRecipientId(recipientId);
         event.setRemindTime(new Date());
 
-        eventRemindService.save(event);
-        log.info("保存点赞评论事件: commentId={}, senderId={}, recipientId={}",
+        submit(event);
+        log.info("提交点赞评论事件: commentId={}, senderId={}, recipientId={}",
                 commentId, senderId, recipientId);
     }
 
@@ -108,8 +127,50 @@ public class EventRemindHandler {
         event.setRecipientId(recipientId);
         event.setRemindTime(new Date());
 
-        eventRemindService.save(event);
-        log.info("保存评论事件: commentId={}, postId={}, senderId={}, recipientId={}",
+        submit(event);
+        log.info("提交评论事件: commentId={}, postId={}, senderId={}, recipientId={}",
                 commentId, postId, senderId, recipientId);
     }
+
+    /**
+     * 定时批量写库，并推送已满间隔的提醒
+     */
+    @Scheduled(initialDelayString = "${event-remind.flush-interval-millis:500}",
+            fixedDelayString = "${event-remind.flush-interval-millis:500}")
+    public void flush() {
+        int batchSize = eventRemindConfig.getBatchSize();
+        List<EventRemind> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            save(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+        eventRemindManager.pushDue();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    private void submit(EventRemind event) {
+        if (!queue.offer(event)) {
+            log.warn("事件提醒队列已满，直接写库");
+            save(Collections.singletonList(event));
+        }
+    }
+
+    private void save(List<EventRemind> events) {
+        try {
+            eventRemindService.saveBatch(events, eventRemindConfig.getBatchSize());
+        } catch (Exception e) {
+            log.error("事件提醒写库失败，丢弃 {} 条", events.size(), e);
+            try {
+                eventRemindManager.removeSenders(events);
+            } catch (Exception ex) {
+                log.error("移除写库失败的提醒操作者失败", ex);
+            }
+            return;
+        }
+        eventRemindManager.onSaved(events);
+    }
 }
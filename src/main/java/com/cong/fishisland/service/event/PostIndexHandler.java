@@ -0,0 +1,42 @@
+package com.cong.fishisland.service.event;
+
+import com.cong.fishisland.manager.PostSearchManager;
+import com.cong.fishisland.model.entity.post.Post;
+import com.cong.fishisland.service.PostService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+/**
+ * 帖子检索索引增量更新
+ *
+ * @author cong
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostIndexHandler {
+
+    private final PostService postService;
+
+    private final PostSearchManager postSearchManager;
+
+    /**
+     * 异步同步帖子索引（帖子不存在或已删除时移出索引）
+     *
+     * @param postId 帖子ID
+     */
+    @Async("taskExecutor")
+    public void syncPostAsync(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        Post post = postService.getById(postId);
+        if (post == null) {
+            postSearchManager.delete(postId);
+            return;
+        }
+        postSearchManager.index(post);
+    }
+}
@@ -75,7 +75,7 @@ public class PostSummaryHandler {
             }});
 
             // 调用AI生成总结
-            AiResponse aiResponse = siliconFlowDataSource.getAiResponse(
+            AiResponse aiResponse = siliconFlowDataSource.getCacheableAiResponse(
                     messages,
                     "Qwen/Qwen2.5-14B-Instruct"
             );
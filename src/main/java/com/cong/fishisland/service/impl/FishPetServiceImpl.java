@@ -6,12 +6,15 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.BusinessException;
-import com.cong.fishisland.constant.PetRedisKey;
+import com.cong.fishisland.constant.LeaderboardConstant;
 import com.cong.fishisland.constant.TitleConstant;
+import com.cong.fishisland.manager.LeaderboardManager;
+import com.cong.fishisland.manager.SensitiveWordManager;
 import com.cong.fishisland.mapper.pet.FishPetMapper;
 import com.cong.fishisland.model.dto.pet.CreatePetRequest;
 import com.cong.fishisland.model.dto.pet.UpdatePetNameRequest;
 import com.cong.fishisland.model.entity.pet.FishPet;
+import com.cong.fishisland.model.enums.LeaderboardPeriodEnum;
 import com.cong.fishisland.model.vo.pet.OtherUserPetVO;
 import com.cong.fishisland.model.vo.pet.PetRankVO;
 import com.cong.fishisland.model.vo.pet.PetSkinVO;
@@ -22,15 +25,12 @@ import com.cong.fishisland.service.PetSkinService;
 import com.cong.fishisland.service.UserPointsService;
 import com.cong.fishisland.service.UserTitleService;
 import com.cong.fishisland.service.UserService;
-import com.cong.fishisland.utils.RedisUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import toolgood.words.StringSearch;
 
-import java.time.Duration;
 import java.util.*;
 
 import com.alibaba.fastjson.JSON;
@@ -46,11 +46,12 @@ import com.alibaba.fastjson.JSONObject;
 @Slf4j
 public class FishPetServiceImpl extends ServiceImpl<FishPetMapper, FishPet> implements FishPetService {
 
-    private final StringSearch wordsUtil;
+    private final SensitiveWordManager sensitiveWordManager;
     private final UserPointsService userPointsService;
     private final PetSkinService petSkinService;
     private final UserTitleService userTitleService;
     private final UserService userService;
+    private final LeaderboardManager leaderboardManager;
 
 
     // 每次喂食增加的饥饿度
@@ -66,8 +67,12 @@ public class FishPetServiceImpl extends ServiceImpl<FishPetMapper, FishPet> impl
     // 修改宠物名字消耗的积分
     private static final int RENAME_POINT_COST = 100;
 
-    // 宠物排行榜缓存时间（24小时）
-    private static final Duration PET_RANK_CACHE_DURATION = Duration.ofHours(24);
+    // 排行榜最多收录的宠物数
+    private static final int PET_BOARD_SIZE = 100_000;
+    // 排行榜单次最多获取的数量
+    private static final int MAX_RANK_LIMIT = 50;
+    // 排行榜分数中等级的权重（经验不超过 2^32），分数不超过 double 的精确整数范围
+    private static final double PET_SCORE_LEVEL_WEIGHT = 4294967296d;
     // 默认排行榜数量
     private static final int DEFAULT_RANK_LIMIT = 10;
 
@@ -86,7 +91,7 @@ public class FishPetServiceImpl extends ServiceImpl<FishPetMapper, FishPet> impl
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "宠物名称不能为空");
         }
 
-        if (wordsUtil.Replace(name).contains("*")) {
+        if (sensitiveWordManager.containsAny(name)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "宠物名称不能包含，敏感词");
         }
 
@@ -166,7 +171,7 @@ public class FishPetServiceImpl extends ServiceImpl<FishPetMapper, FishPet> impl
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "宠物名称不能为空");
         }
 
-        if (wordsUtil.Replace(name).contains("*")) {
+        if (sensitiveWordManager.containsAny(name)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "宠物名称不能包含，敏感词");
         }
 
@@ -385,28 +390,19 @@ public class FishPetServiceImpl extends ServiceImpl<FishPetMapper, FishPet> impl
         log.info("开始生成宠物排行榜");
 
         try {
-            // 从数据库获取排行榜数据
-            List<PetRankVO> petRankList = baseMapper.getPetRankList(DEFAULT_RANK_LIMIT);
+            // 从数据库获取全部上榜宠物，整体替换排行榜
+            List<PetRankVO> petRankList = baseMapper.getPetRankList(PET_BOARD_SIZE);
 
             if (petRankList == null || petRankList.isEmpty()) {
                 log.info("没有宠物数据，不生成排行榜");
                 return 0;
             }
 
-            // 设置排名
-            for (int i = 0; i < petRankList.size(); i++) {
-                petRankList.get(i).setRank(i + 1);
+            Map<String, Double> scores = new LinkedHashMap<>(petRankList.size() * 2);
+            for (PetRankVO petRankVO : petRankList) {
+                scores.put(petRankVO.getPetId().toString(), petScore(petRankVO.getLevel(), petRankVO.getExp()));
             }
-
-            // 将排行榜数据缓存到Redis
-            String petRankKey = PetRedisKey.getKey(PetRedisKey.PET_RANK);
-
-            // 先删除旧的排行榜数据
-            RedisUtils.delete(petRankKey);
-
-            // 将新的排行榜数据存入Redis
-            String petRankJson = JSON.toJSONString(petRankList);
-            RedisUtils.set(petRankKey, petRankJson, PET_RANK_CACHE_DURATION);
+            leaderboardManager.replace(LeaderboardConstant.PET, LeaderboardPeriodEnum.TOTAL, scores);
 
             log.info("宠物排行榜生成成功，共{}条数据", petRankList.size());
             return petRankList.size();
@@ -420,40 +416,84 @@ public class FishPetServiceImpl extends ServiceImpl<FishPetMapper, FishPet> impl
     public List<PetRankVO> getPetRankList(int limit) {
         // 限制获取数量
         if (limit <= 0) {
-            limit = 10;
+            limit = DEFAULT_RANK_LIMIT;
         }
-        limit = Math.min(limit, DEFAULT_RANK_LIMIT);
+        limit = Math.min(limit, MAX_RANK_LIMIT);
 
-        // 从Redis获取排行榜数据
-        String petRankKey = PetRedisKey.getKey(PetRedisKey.PET_RANK);
-        String petRankJson = RedisUtils.get(petRankKey);
+        // 宠物和主人信息按排行榜版本缓存，排行榜每天更新一次
+        List<PetRankVO> petRankList = leaderboardManager.top(LeaderboardConstant.PET, LeaderboardPeriodEnum.TOTAL,
+                limit, this::toPetRankList);
+        if (petRankList.isEmpty() && generatePetRankList() > 0) {
+            // 排行榜还未生成（如 Redis 数据丢失），从数据库生成
+            petRankList = leaderboardManager.top(LeaderboardConstant.PET, LeaderboardPeriodEnum.TOTAL, limit,
+                    this::toPetRankList);
+        }
+        return petRankList;
+    }
 
-        List<PetRankVO> petRankList;
+    @Override
+    public List<PetRankVO> getPetRankAround(Long userId) {
+        FishPet fishPet = this.getOne(new LambdaQueryWrapper<FishPet>().eq(FishPet::getUserId, userId));
+        if (fishPet == null) {
+            return Collections.emptyList();
+        }
+        return toPetRankList(leaderboardManager.around(LeaderboardConstant.PET, LeaderboardPeriodEnum.TOTAL,
+                fishPet.getPetId().toString(), LeaderboardConstant.AROUND_RADIUS));
+    }
 
-        if (petRankJson != null && !petRankJson.isEmpty()) {
-            // 如果Redis中有数据，直接返回
-            petRankList = JSON.parseArray(petRankJson, PetRankVO.class);
+    /**
+     * 排行榜分数：等级优先，同等级比较经验
+     */
+    static double petScore(Integer level, Integer exp) {
+        return (level == null ? 0 : level) * PET_SCORE_LEVEL_WEIGHT + (exp == null ? 0 : exp);
+    }
 
-            // 如果需要的数量小于缓存的数量，截取前limit个
-            if (petRankList.size() > limit) {
-                petRankList = petRankList.subList(0, limit);
+    /**
+     * 批量查询宠物和主人信息，补全排行；等级和经验取生成排行榜时的数据，与名次一致
+     */
+    private List<PetRankVO> toPetRankList(List<LeaderboardManager.Entry> entries) {
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> petIds = new ArrayList<>(entries.size());
+        for (LeaderboardManager.Entry entry : entries) {
+            petIds.add(Long.parseLong(entry.getMember()));
+        }
+        Map<Long, FishPet> petMap = new HashMap<>(petIds.size() * 2);
+        for (FishPet fishPet : this.listByIds(petIds)) {
+            petMap.put(fishPet.getPetId(), fishPet);
+        }
+        Set<Long> userIds = new HashSet<>();
+        petMap.values().forEach(fishPet -> userIds.add(fishPet.getUserId()));
+        Map<Long, User> userMap = new HashMap<>(userIds.size() * 2);
+        if (!userIds.isEmpty()) {
+            for (User user : userService.listByIds(userIds)) {
+                userMap.put(user.getId(), user);
             }
-        } else {
-            // 如果Redis中没有数据，从数据库获取并生成排行榜
-            petRankList = baseMapper.getPetRankList(limit);
+        }
 
-            // 设置排名
-            for (int i = 0; i < petRankList.size(); i++) {
-                petRankList.get(i).setRank(i + 1);
+        List<PetRankVO> petRankList = new ArrayList<>(entries.size());
+        for (LeaderboardManager.Entry entry : entries) {
+            FishPet fishPet = petMap.get(Long.parseLong(entry.getMember()));
+            if (fishPet == null) {
+                // 生成排行榜后被删除
+                continue;
             }
-
-            // 将排行榜数据缓存到Redis
-            if (!petRankList.isEmpty()) {
-                String newPetRankJson = JSON.toJSONString(petRankList);
-                RedisUtils.set(petRankKey, newPetRankJson, PET_RANK_CACHE_DURATION);
+            PetRankVO petRankVO = new PetRankVO();
+            petRankVO.setPetId(fishPet.getPetId());
+            petRankVO.setName(fishPet.getName());
+            petRankVO.setPetUrl(fishPet.getPetUrl());
+            petRankVO.setLevel((int) (entry.getScore() / PET_SCORE_LEVEL_WEIGHT));
+            petRankVO.setExp((int) (entry.getScore() % PET_SCORE_LEVEL_WEIGHT));
+            petRankVO.setUserId(fishPet.getUserId());
+            User user = userMap.get(fishPet.getUserId());
+            if (user != null) {
+                petRankVO.setUserName(user.getUserName());
+                petRankVO.setUserAvatar(user.getUserAvatar());
             }
+            petRankVO.setRank((int) entry.getRank());
+            petRankList.add(petRankVO);
         }
-
         return petRankList;
     }
 
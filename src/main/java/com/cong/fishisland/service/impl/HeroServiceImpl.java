@@ -10,6 +10,7 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.ThrowUtils;
+import com.cong.fishisland.manager.HeroCatalogManager;
 import com.cong.fishisland.mapper.hero.HeroMapper;
 import com.cong.fishisland.model.dto.hero.HeroDTO;
 import com.cong.fishisland.model.dto.hero.HeroDetailDTO;
@@ -19,7 +20,6 @@ import com.cong.fishisland.model.vo.hero.SimpleHeroVO;
 import com.cong.fishisland.service.HeroService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
@@ -38,6 +38,8 @@ public class HeroServiceImpl extends ServiceImpl<HeroMapper, Hero>
         implements HeroService {
     @Resource
     private HeroMapper heroMapper;
+    @Resource
+    private HeroCatalogManager heroCatalogManager;
     /**
      * 英雄列表接口路径
      */
@@ -97,7 +99,7 @@ public class HeroServiceImpl extends ServiceImpl<HeroMapper, Hero>
                             ExceptionUtil.getMessage(e));
                 }
             });
-
+            heroCatalogManager.publish();
             return true;
         } catch (Exception e) {
             log.error("批量添加英雄失败，错误信息：{}", ExceptionUtil.getMessage(e), e);
@@ -140,6 +142,7 @@ public class HeroServiceImpl extends ServiceImpl<HeroMapper, Hero>
             heroes.forEach(hero -> {
                 updateHeroSkins(hero.getEname(), hero.getSkins());
             });
+            heroCatalogManager.publish();
         } catch (Exception e) {
             log.error("更新英雄皮肤失败，错误信息：{}", ExceptionUtil.getMessage(e), e);
         }
@@ -151,9 +154,7 @@ public class HeroServiceImpl extends ServiceImpl<HeroMapper, Hero>
      */
     @Override
     public HeroVO getRandomHero() {
-        Hero hero = heroMapper.selectRandomHero();
-        ThrowUtils.throwIf(hero == null, ErrorCode.NOT_FOUND_ERROR,  "英雄数据不存在");
-        return convertToHeroVO(hero);
+        return heroCatalogManager.random();
     }
 
     /**
@@ -162,9 +163,7 @@ public class HeroServiceImpl extends ServiceImpl<HeroMapper, Hero>
      */
     @Override
     public HeroVO getNewHero() {
-        Hero hero = heroMapper.selectNewestHero();
-        ThrowUtils.throwIf(hero == null, ErrorCode.NOT_FOUND_ERROR, "英雄数据不存在");
-        return convertToHeroVO(hero);
+        return heroCatalogManager.newest();
     }
 
     /**
@@ -172,18 +171,7 @@ public class HeroServiceImpl extends ServiceImpl<HeroMapper, Hero>
      */
     @Override
     public List<SimpleHeroVO> listSimpleHero() {
-        QueryWrapper<Hero> queryWrapper = new QueryWrapper<>();
-        queryWrapper.select("id", "cname");
-        queryWrapper.orderByAsc("releaseDate","ename");
-        List<Hero> heroList = this.list(queryWrapper);
-        return heroList.stream()
-                .map(hero -> {
-                    SimpleHeroVO vo = new SimpleHeroVO();
-                    vo.setId(hero.getId());
-                    vo.setCname(hero.getCname());
-                    return vo;
-                })
-                .collect(Collectors.toList());
+        return heroCatalogManager.simpleHeroes();
     }
 
     /**
@@ -194,36 +182,14 @@ public class HeroServiceImpl extends ServiceImpl<HeroMapper, Hero>
     @Override
     public HeroVO getHeroById(Long id) {
         ThrowUtils.throwIf(id == null, ErrorCode.PARAMS_ERROR, "英雄id不能为空");
+        HeroVO heroVO = heroCatalogManager.get(id);
+        if (heroVO != null) {
+            return heroVO;
+        }
+        // 快照尚未同步到新数据时查库
         Hero hero = heroMapper.selectById(id);
         ThrowUtils.throwIf(hero == null, ErrorCode.NOT_FOUND_ERROR, "英雄数据不存在");
-        return convertToHeroVO(hero);
-    }
-
-    /**
-     * 将 Hero 实体转换为 HeroVO
-     */
-    private HeroVO convertToHeroVO(Hero hero) {
-        HeroVO vo = new HeroVO();
-        BeanUtils.copyProperties(hero, vo);
-        Long id = hero.getId();
-        if (id != null){
-            vo.setId(id.toString());
-        }
-        vo.setSkinsNum(getSkinsNum(hero.getSkins()));
-        return vo;
-    }
-
-    /**
-     * 获取皮肤数量
-     * @param skins 皮肤
-     * @return 皮肤数量
-     */
-    private Integer getSkinsNum(String skins) {
-        if (StringUtils.isBlank(skins)) {
-            return 0;
-        }
-        String[] split = skins.split("\\|");
-        return split.length;
+        return HeroCatalogManager.toHeroVO(hero);
     }
 
 
@@ -1,77 +1,375 @@
 package com.cong.fishisland.service.impl;
 
+import cn.hutool.crypto.digest.DigestUtil;
+import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.config.ThreadPoolConfig;
+import com.cong.fishisland.config.WebPreviewConfig;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.manager.HttpClientManager;
 import com.cong.fishisland.model.vo.WebParseVO;
+import com.cong.fishisland.model.vo.WebPreviewStatsVO;
 import com.cong.fishisland.service.WebParserService;
+import com.cong.fishisland.utils.HtmlHeadReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.apache.commons.lang3.StringUtils;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.Objects;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * 网页链接预览
+ * <p>
+ * 按规范化后的地址缓存解析结果（本地缓存 + Redis），抓取失败的结果也缓存一段较短的时间；
+ * 同一地址同时只抓取一次，其余请求等待同一结果。抓取在独立的线程池中进行，只读取 head 部分。
+ *
  * @author cong
  */
 @Service
 @Slf4j
 public class WebParserServiceImpl implements WebParserService {
 
-    private final OkHttpClient client = new OkHttpClient.Builder()
-            .followRedirects(true)
-            .connectTimeout(2, TimeUnit.SECONDS)
-            .build();
+    private static final String USER_AGENT = "Mozilla/5.0 (compatible; FishIsland/1.0; link preview)";
+
+    /**
+     * Redis 中表示抓取失败的值
+     */
+    private static final String FAILURE = "";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final WebPreviewConfig webPreviewConfig;
+
+    private final ThreadPoolTaskExecutor webPreviewExecutor;
+
+    private final OkHttpClient client;
+
+    private final Cache<String, Preview> localCache;
+
+    private final Map<String, CompletableFuture<Preview>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder localHits = new LongAdder();
+
+    private final LongAdder redisHits = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder fetches = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder fetchNanos = new LongAdder();
+
+    private final AtomicLong maxFetchNanos = new AtomicLong();
+
+    public WebParserServiceImpl(HttpClientManager httpClientManager, StringRedisTemplate stringRedisTemplate,
+                                WebPreviewConfig webPreviewConfig,
+                                @Qualifier(ThreadPoolConfig.WEB_PREVIEW_EXECUTOR) ThreadPoolTaskExecutor webPreviewExecutor) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.webPreviewConfig = webPreviewConfig;
+        this.webPreviewExecutor = webPreviewExecutor;
+        this.client = httpClientManager.client().newBuilder()
+                .followRedirects(true)
+                .callTimeout(webPreviewConfig.getTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(webPreviewConfig.getLocalCacheSize())
+                .expireAfter(new Expiry<String, Preview>() {
+                    @Override
+                    public long expireAfterCreate(String key, Preview preview, long currentTime) {
+                        return TimeUnit.SECONDS.toNanos(localSeconds(preview));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Preview preview, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, preview, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Preview preview, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     @Override
     public WebParseVO parseWebPage(String url) {
+        return await(parseWebPageAsync(url), webPreviewConfig.getTimeoutMillis() * 2);
+    }
+
+    @Override
+    public CompletableFuture<WebParseVO> parseWebPageAsync(String url) {
+        requests.increment();
+        String key = normalize(url);
+        if (key == null) {
+            return CompletableFuture.completedFuture(new WebParseVO());
+        }
+        Preview cached = localCache.getIfPresent(key);
+        if (cached != null) {
+            localHits.increment();
+            return CompletableFuture.completedFuture(cached.toVO());
+        }
+
+        CompletableFuture<Preview> future = new CompletableFuture<>();
+        CompletableFuture<Preview> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            // 相同地址正在抓取，等待同一结果
+            coalesced.increment();
+            return existing.thenApply(Preview::toVO);
+        }
+        cached = readRedis(key);
+        if (cached != null) {
+            redisHits.increment();
+            localCache.put(key, cached);
+            complete(key, future, cached);
+        } else {
+            try {
+                webPreviewExecutor.execute(() -> complete(key, future, fetch(key)));
+            } catch (RejectedExecutionException e) {
+                // 线程池已满，本次返回空结果，不缓存
+                rejected.increment();
+                complete(key, future, Preview.FAILED);
+            }
+        }
+        return future.thenApply(Preview::toVO);
+    }
+
+    @Override
+    public Map<String, WebParseVO> parseWebPages(Collection<String> urls) {
+        Map<String, CompletableFuture<WebParseVO>> futures = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (StringUtils.isNotBlank(url) && !futures.containsKey(url)) {
+                futures.put(url, parseWebPageAsync(url));
+            }
+        }
+        // 所有网页共用一个等待期限
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(webPreviewConfig.getTimeoutMillis() * 2);
+        Map<String, WebParseVO> result = new LinkedHashMap<>();
+        futures.forEach((url, future) -> result.put(url, await(future,
+                TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))));
+        return result;
+    }
+
+    @Override
+    public WebPreviewStatsVO stats() {
+        WebPreviewStatsVO statsVO = new WebPreviewStatsVO();
+        long requestCount = requests.sum();
+        long hits = localHits.sum() + redisHits.sum() + coalesced.sum();
+        long fetchCount = fetches.sum();
+        statsVO.setRequests(requestCount);
+        statsVO.setLocalHits(localHits.sum());
+        statsVO.setRedisHits(redisHits.sum());
+        statsVO.setCoalesced(coalesced.sum());
+        statsVO.setHitRatio(requestCount == 0 ? 0 : (double) hits / requestCount);
+        statsVO.setFetches(fetchCount);
+        statsVO.setFailures(failures.sum());
+        statsVO.setRejected(rejected.sum());
+        statsVO.setInFlight(inFlight.size());
+        statsVO.setAvgFetchMillis(fetchCount == 0 ? 0 : fetchNanos.sum() / fetchCount / 1_000_000);
+        statsVO.setMaxFetchMillis(maxFetchNanos.get() / 1_000_000);
+        return statsVO;
+    }
+
+    /**
+     * 规范化地址作为缓存键：协议和主机小写、去掉默认端口、锚点和 utm_ 跟踪参数
+     *
+     * @return 不是 http/https 地址时返回 null
+     */
+    static String normalize(String url) {
+        HttpUrl parsed = url == null ? null : HttpUrl.parse(url.trim());
+        if (parsed == null) {
+            return null;
+        }
+        HttpUrl.Builder builder = parsed.newBuilder().fragment(null);
+        int removed = 0;
+        for (String name : parsed.queryParameterNames()) {
+            if (name.startsWith("utm_")) {
+                builder.removeAllQueryParameters(name);
+                removed++;
+            }
+        }
+        if (removed > 0 && removed == parsed.queryParameterNames().size()) {
+            builder.query(null);
+        }
+        return builder.build().toString();
+    }
+
+    private Preview fetch(String url) {
+        fetches.increment();
+        long start = System.nanoTime();
+        Preview preview;
+        try {
+            preview = Preview.of(fetchHead(url));
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("网页解析失败：{}，{}", url, e.getMessage());
+            preview = Preview.FAILED;
+        }
+        long latency = System.nanoTime() - start;
+        fetchNanos.add(latency);
+        maxFetchNanos.accumulateAndGet(latency, Math::max);
+
+        localCache.put(url, preview);
+        try {
+            stringRedisTemplate.opsForValue().set(redisKey(url),
+                    preview.failed ? FAILURE : JSON.toJSONString(preview.toVO()),
+                    Duration.ofSeconds(preview.failed ? webPreviewConfig.getFailureSeconds()
+                            : webPreviewConfig.getSuccessSeconds()));
+        } catch (Exception e) {
+            log.warn("网页预览写入 Redis 失败：{}", e.getMessage());
+        }
+        return preview;
+    }
+
+    private WebParseVO fetchHead(String url) throws IOException {
+        Request request = new Request.Builder()
+                .url(url)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "text/html,application/xhtml+xml")
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Unexpected response " + response.code());
+            }
+            ResponseBody body = response.body();
+            MediaType contentType = body == null ? null : body.contentType();
+            String head = "";
+            // 图片、文件等非网页内容不读取，只返回默认图标
+            if (body != null && (contentType == null || contentType.subtype().contains("html"))) {
+                head = HtmlHeadReader.read(body.byteStream(), contentType == null ? null : contentType.charset(),
+                        webPreviewConfig.getMaxHeadBytes());
+            }
+            // 跟随重定向后，相对地址以最终地址为准
+            return parseHead(head, response.request().url().toString());
+        }
+    }
+
+    private static WebParseVO parseHead(String head, String baseUri) throws IOException {
+        Document doc = Jsoup.parse(head, baseUri);
         WebParseVO result = new WebParseVO();
+
+        // 获取标题
+        String title = doc.title();
+        result.setTitle(title.isEmpty() ? meta(doc, "meta[property=og:title]") : title);
+
+        // 获取描述
+        String description = meta(doc, "meta[name=description]");
+        result.setDescription(description.isEmpty() ? meta(doc, "meta[property=og:description]") : description);
+
+        // 获取favicon
+        Element icon = doc.select("link[rel~=(?i)icon]").first();
+        String favicon = icon != null ? icon.absUrl("href") : "";
+        result.setFavicon(favicon.isEmpty() ? new URL(new URL(baseUri), "/favicon.ico").toString() : favicon);
+        return result;
+    }
+
+    private static String meta(Document doc, String query) {
+        Element meta = doc.select(query).first();
+        return meta != null ? meta.attr("content") : "";
+    }
+
+    private Preview readRedis(String url) {
         try {
-            Request request = new Request.Builder()
-                    .url(url)
-                    .build();
-
-            try (Response response = client.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    throw new IOException("Unexpected response " + response);
-                }
-
-                assert response.body() != null;
-                String html = response.body().string();
-                Document doc = Jsoup.parse(html);
-
-                // 获取标题
-                String title = doc.title();
-                result.setTitle(title.isEmpty() ? "" : title);
-
-                // 获取描述
-                Element descriptionMeta = doc.select("meta[name=description]").first();
-                String description = descriptionMeta != null ? descriptionMeta.attr("content") : "";
-                result.setDescription(description);
-
-                // 获取favicon
-                String favicon = "";
-                Elements faviconElements = doc.select("link[rel~=icon]");
-                if (!faviconElements.isEmpty()) {
-                    favicon = Objects.requireNonNull(faviconElements.first()).attr("href");
-                    if (!favicon.startsWith("http")) {
-                        favicon = new URL(new URL(url), favicon).toString();
-                    }
-                } else {
-                    favicon = new URL(new URL(url), "/favicon.ico").toString();
-                }
-                result.setFavicon(favicon);
+            String value = stringRedisTemplate.opsForValue().get(redisKey(url));
+            if (value == null) {
+                return null;
             }
+            return FAILURE.equals(value) ? Preview.FAILED : Preview.of(JSON.parseObject(value, WebParseVO.class));
+        } catch (Exception e) {
+            log.warn("网页预览读取 Redis 失败：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void complete(String key, CompletableFuture<Preview> future, Preview preview) {
+        inFlight.remove(key, future);
+        future.complete(preview);
+    }
+
+    private long localSeconds(Preview preview) {
+        return preview.failed ? Math.min(webPreviewConfig.getFailureSeconds(), webPreviewConfig.getLocalSeconds())
+                : webPreviewConfig.getLocalSeconds();
+    }
+
+    private static String redisKey(String url) {
+        return RedisKey.getKey(RedisKey.WEB_PREVIEW, DigestUtil.md5Hex(url));
+    }
+
+    private static WebParseVO await(CompletableFuture<WebParseVO> future, long timeoutMillis) {
+        try {
+            return future.get(Math.max(0, timeoutMillis), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new WebParseVO();
         } catch (Exception e) {
-            log.error("Error parsing webpage: " + url, e);
             return new WebParseVO();
         }
-        return result;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 缓存中的解析结果，不可变，每次返回新的 WebParseVO
+     */
+    private static class Preview {
+
+        private static final Preview FAILED = new Preview(null, null, null, true);
+
+        private final String title;
+
+        private final String description;
+
+        private final String favicon;
+
+        private final boolean failed;
+
+        private Preview(String title, String description, String favicon, boolean failed) {
+            this.title = title;
+            this.description = description;
+            this.favicon = favicon;
+            this.failed = failed;
+        }
+
+        private static Preview of(WebParseVO vo) {
+            return new Preview(vo.getTitle(), vo.getDescription(), vo.getFavicon(), false);
+        }
+
+        private WebParseVO toVO() {
+            WebParseVO vo = new WebParseVO();
+            vo.setTitle(title);
+            vo.setDescription(description);
+            vo.setFavicon(favicon);
+            return vo;
+        }
+    }
+}
@@ -5,10 +5,13 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.cong.fishisland.common.CursorPage;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.common.exception.ThrowUtils;
 import com.cong.fishisland.constant.CommonConstant;
+import com.cong.fishisland.manager.PostHotFeedManager;
+import com.cong.fishisland.manager.SensitiveWordManager;
 import com.cong.fishisland.mapper.comment.CommentMapper;
 import com.cong.fishisland.mapper.comment.CommentThumbMapper;
 import com.cong.fishisland.model.dto.comment.ChildCommentQueryRequest;
@@ -20,11 +23,11 @@ import com.cong.fishisland.model.vo.comment.CommentNodeVO;
 import com.cong.fishisland.model.vo.comment.CommentVO;
 import com.cong.fishisland.service.CommentService;
 import com.cong.fishisland.service.UserService;
+import com.cong.fishisland.utils.CursorUtils;
 import com.cong.fishisland.utils.SqlUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
-import toolgood.words.StringSearch;
 
 import javax.annotation.Resource;
 import java.util.*;
@@ -40,7 +43,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment>
         implements CommentService {
 
     @Resource
-    private StringSearch wordsUtil;
+    private SensitiveWordManager sensitiveWordManager;
 
     @Resource
     private UserService userService;
@@ -48,6 +51,9 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment>
     @Resource
     private CommentThumbMapper commentThumbMapper;
 
+    @Resource
+    private PostHotFeedManager postHotFeedManager;
+
     @Override
     public Long addComment(Comment comment) {
         // 参数校验
@@ -55,6 +61,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment>
         if (!this.save(comment)) {
             throw new BusinessException(ErrorCode.OPERATION_ERROR, "评论添加失败");
         }
+        postHotFeedManager.onComment(comment.getPostId(), 1);
         return comment.getId();
     }
 
@@ -196,6 +203,34 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment>
         return pageResult;
     }
 
+    @Override
+    public CursorPage<CommentNodeVO> getCommentTreeByCursor(CommentQueryRequest commentQueryRequest) {
+        // 参数校验
+        validCommentQueryRequest(commentQueryRequest);
+        QueryWrapper<Comment> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("postId", commentQueryRequest.getPostId());
+        queryWrapper.isNull("parentId");
+        CursorPage<Comment> topCursorPage = CursorUtils.page(baseMapper, queryWrapper, commentQueryRequest);
+        CursorPage<CommentNodeVO> cursorPage = new CursorPage<>(toCommentNodes(topCursorPage.getRecords()),
+                topCursorPage.getNextCursor());
+        cursorPage.setTotal(topCursorPage.getTotal());
+        return cursorPage;
+    }
+
+    @Override
+    public CursorPage<CommentVO> getChildCommentsByCursor(ChildCommentQueryRequest request) {
+        // 参数校验
+        validChildCommentQueryRequest(request);
+        QueryWrapper<Comment> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("rootId", request.getRootId());
+        CursorPage<Comment> childCursorPage = CursorUtils.page(baseMapper, queryWrapper, "createTime", true,
+                request.getCursor(), request.getPageSize(), Boolean.TRUE.equals(request.getSearchCount()));
+        CursorPage<CommentVO> cursorPage = new CursorPage<>(toChildCommentVOs(childCursorPage.getRecords()),
+                childCursorPage.getNextCursor());
+        cursorPage.setTotal(childCursorPage.getTotal());
+        return cursorPage;
+    }
+
     @Override
     public Integer getCommentNum(Long postId) {
         ThrowUtils.throwIf(postId == null, ErrorCode.PARAMS_ERROR, "帖子id不能为空");
@@ -204,6 +239,21 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment>
         );
     }
 
+    @Override
+    public Map<Long, Integer> getCommentNumMap(Collection<Long> postIds) {
+        if (CollUtil.isEmpty(postIds)) {
+            return Collections.emptyMap();
+        }
+        List<Map<String, Object>> countList = this.listMaps(new QueryWrapper<Comment>()
+                .select("postId", "count(*) as commentNum")
+                .in("postId", postIds)
+                .groupBy("postId"));
+        Map<Long, Integer> postIdCommentNumMap = new HashMap<>(countList.size());
+        countList.forEach(count -> postIdCommentNumMap.put(((Number) count.get("postId")).longValue(),
+                ((Number) count.get("commentNum")).intValue()));
+        return postIdCommentNumMap;
+    }
+
     @Override
     public CommentVO getLatestComment(Long postId) {
         ThrowUtils.throwIf(postId == null, ErrorCode.PARAMS_ERROR, "帖子id不能为空");
@@ -260,7 +310,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment>
         ThrowUtils.throwIf(StringUtils.isBlank(content), ErrorCode.PARAMS_ERROR, "内容不能为空");
         ThrowUtils.throwIf(comment.getPostId() == null, ErrorCode.PARAMS_ERROR, "帖子id不能为空");
         // 敏感词校验（标题和内容）
-        String contentSensitiveWord = wordsUtil.FindFirst(content);
+        String contentSensitiveWord = sensitiveWordManager.findFirst(content);
         // 构建敏感词提示信息
         ThrowUtils.throwIf(StringUtils.isNotBlank(contentSensitiveWord), ErrorCode.PARAMS_ERROR, "内容包含敏感词: " + contentSensitiveWord);
         if (StringUtils.isNotBlank(content) && content.length() > 8192) {
@@ -281,6 +331,100 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment>
         ) != null;
     }
 
+    /**
+     * 为顶级评论加载预览二级评论和用户信息，转换为评论树节点
+     */
+    private List<CommentNodeVO> toCommentNodes(List<Comment> topComments) {
+        if (CollUtil.isEmpty(topComments)) {
+            return Collections.emptyList();
+        }
+        // 收集所有需要查询的用户ID
+        Set<Long> userIds = new HashSet<>();
+        topComments.forEach(comment -> userIds.add(comment.getUserId()));
+        // 为每个顶级评论加载部分二级评论
+        Map<Long, List<Comment>> childrenMap = new HashMap<>();
+        for (Comment top : topComments) {
+            // 加载前3条二级评论
+            List<Comment> children = this.list(new LambdaQueryWrapper<Comment>()
+                    .eq(Comment::getRootId, top.getId())
+                    .eq(Comment::getIsDelete, 0)
+                    .orderByAsc(Comment::getCreateTime)
+                    .last("LIMIT 3")
+            );
+            childrenMap.put(top.getId(), children);
+            children.forEach(child -> userIds.add(child.getUserId()));
+        }
+
+        // 批量查询用户信息
+        Map<Long, User> userMap = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            List<User> users = userService.listByIds(userIds);
+            users.forEach(user -> userMap.put(user.getId(), user));
+        }
+
+        // 构建节点列表
+        return topComments.stream().map(top -> {
+            CommentNodeVO node = new CommentNodeVO();
+            BeanUtils.copyProperties(top, node);
+
+            // 填充顶级评论用户信息
+            User user = userMap.get(top.getUserId());
+            if (user != null) {
+                node.setUser(userService.getUserVO(user));
+            }
+
+            // 获取二级评论总数
+            node.setChildCount((int) this.count(new LambdaQueryWrapper<Comment>()
+                    .eq(Comment::getRootId, top.getId())
+            ));
+
+            // 填充二级评论用户信息
+            List<Comment> children = childrenMap.get(top.getId());
+            List<CommentVO> childVOs = children.stream().map(child -> {
+                CommentVO vo = new CommentVO();
+                BeanUtils.copyProperties(child, vo);
+
+                User childUser = userMap.get(child.getUserId());
+                if (childUser != null) {
+                    vo.setUser(userService.getUserVO(childUser));
+                }
+                vo.setHasThumb(hasCommentThumb(child.getId()));
+                return vo;
+            }).collect(Collectors.toList());
+            node.setPreviewChildren(childVOs);
+            node.setHasThumb(hasCommentThumb(top.getId()));
+            return node;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * 二级评论转换为 VO 并填充用户信息
+     */
+    private List<CommentVO> toChildCommentVOs(List<Comment> children) {
+        if (CollUtil.isEmpty(children)) {
+            return Collections.emptyList();
+        }
+        // 收集用户ID并批量查询
+        Set<Long> userIds = children.stream()
+                .map(Comment::getUserId)
+                .collect(Collectors.toSet());
+
+        Map<Long, User> userMap = userService.listByIds(userIds).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+
+        // 转换为VO并填充用户信息
+        return children.stream().map(child -> {
+            CommentVO vo = new CommentVO();
+            BeanUtils.copyProperties(child, vo);
+            User user = userMap.get(child.getUserId());
+            if (user != null) {
+                vo.setUser(userService.getUserVO(user));
+            }
+            vo.setHasThumb(hasCommentThumb(child.getId()));
+            return vo;
+        }).collect(Collectors.toList());
+    }
+
 }
 
 
@@ -5,8 +5,10 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.cong.fishisland.common.CursorPage;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.ThrowUtils;
+import com.cong.fishisland.manager.EventRemindManager;
 import com.cong.fishisland.mapper.event.EventRemindMapper;
 import com.cong.fishisland.model.dto.event.EventRemindQueryRequest;
 import com.cong.fishisland.model.dto.event.EventRemindStateRequest;
@@ -16,6 +18,7 @@ import com.cong.fishisland.model.vo.event.EventRemindVO;
 import com.cong.fishisland.model.vo.post.PostVO;
 import com.cong.fishisland.service.EventRemindService;
 import com.cong.fishisland.service.UserService;
+import com.cong.fishisland.utils.CursorUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
@@ -37,6 +40,9 @@ public class EventRemindServiceImpl extends ServiceImpl<EventRemindMapper, Event
     @Resource
     private UserService userService;
 
+    @Resource
+    private EventRemindManager eventRemindManager;
+
     /**
      * 已读
      */
@@ -50,28 +56,30 @@ public class EventRemindServiceImpl extends ServiceImpl<EventRemindMapper, Event
         User loginUser = userService.getLoginUser();
         Long userId = loginUser.getId();
         QueryWrapper<EventRemind> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "action", "state");
         queryWrapper.in("id", request.getIds());
         queryWrapper.eq("recipientId", userId);
-        long count = this.count(queryWrapper);
+        List<EventRemind> eventReminds = this.list(queryWrapper);
         // 校验权限
-        ThrowUtils.throwIf(count != (long) ids.size(), ErrorCode.NO_AUTH_ERROR);
+        ThrowUtils.throwIf(eventReminds.size() != ids.size(), ErrorCode.NO_AUTH_ERROR);
         // 更新数据
         UpdateWrapper<EventRemind> updateWrapper = new UpdateWrapper<>();
         updateWrapper.in("id", request.getIds());
         updateWrapper.set("state", READ);
-        return update(updateWrapper);
+        boolean result = update(updateWrapper);
+        // 同步未读数
+        Map<String, Long> readByAction = eventReminds.stream()
+                .filter(eventRemind -> !READ.equals(eventRemind.getState()))
+                .collect(Collectors.groupingBy(EventRemind::getAction, Collectors.counting()));
+        if (result && !readByAction.isEmpty()) {
+            eventRemindManager.onRead(userId, readByAction);
+        }
+        return result;
     }
 
     @Override
-    public boolean existsEvent(String action, Long sourceId, Integer sourceType,
-                               Long senderId, Long recipientId) {
-        QueryWrapper<EventRemind> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("action", action)
-                .eq("sourceId", sourceId)
-                .eq("sourceType", sourceType)
-                .eq("senderId", senderId)
-                .eq("recipientId", recipientId);
-        return this.count(queryWrapper) > 0;
+    public Map<String, Long> getMyUnreadCount() {
+        return eventRemindManager.getUnreadCount(userService.getLoginUser().getId());
     }
 
 
@@ -125,6 +133,20 @@ public class EventRemindServiceImpl extends ServiceImpl<EventRemindMapper, Event
         return voPage;
     }
 
+    @Override
+    public CursorPage<EventRemindVO> listMyEventRemindByCursor(EventRemindQueryRequest request) {
+        ThrowUtils.throwIf(request == null, ErrorCode.PARAMS_ERROR);
+        CursorPage<EventRemind> eventRemindCursorPage = CursorUtils.page(baseMapper, getQueryWrapper(request),
+                "remindTime", false, request.getCursor(), request.getPageSize(),
+                Boolean.TRUE.equals(request.getSearchCount()));
+        Page<EventRemind> eventRemindPage = new Page<>(1, request.getPageSize());
+        eventRemindPage.setRecords(eventRemindCursorPage.getRecords());
+        CursorPage<EventRemindVO> cursorPage = new CursorPage<>(getEventRemindVOPage(eventRemindPage).getRecords(),
+                eventRemindCursorPage.getNextCursor());
+        cursorPage.setTotal(eventRemindCursorPage.getTotal());
+        return cursorPage;
+    }
+
     private void validEventRemindStateRequest(EventRemindStateRequest request) {
         ThrowUtils.throwIf(request == null, ErrorCode.PARAMS_ERROR, "参数为空");
         List<Long> ids = request.getIds();
@@ -0,0 +1,295 @@
+package com.cong.fishisland.service.impl.hot;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.alibaba.fastjson.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.cong.fishisland.annotation.HotDataSource;
+import com.cong.fishisland.config.HotPostHistoryConfig;
+import com.cong.fishisland.manager.DataSourceRegistry;
+import com.cong.fishisland.mapper.host.HotItemMapper;
+import com.cong.fishisland.mapper.host.HotItemSnapshotMapper;
+import com.cong.fishisland.model.entity.hot.HotItem;
+import com.cong.fishisland.model.entity.hot.HotItemSnapshot;
+import com.cong.fishisland.model.entity.hot.HotPost;
+import com.cong.fishisland.model.vo.hot.HotItemHistoryVO;
+import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import com.cong.fishisland.model.vo.hot.HotTrendItemVO;
+import com.cong.fishisland.model.vo.hot.HotTrendVO;
+import com.cong.fishisland.service.HotPostHistoryService;
+import com.cong.fishisland.utils.TitleClusterIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 热榜历史服务实现
+ * <p>
+ * 条目以 (type, 链接哈希) 为键，快照只在排名或热度变化、上榜和下榜时追加，未变化的条目只刷新最近在榜时间。
+ * 排名变化、新上榜等在入库时与上一次的状态比较得出并写回热点数据，读取热榜时不再额外计算。
+ * 在榜条目的标题维护在内存 MinHash 索引中，抓取时只替换该来源的条目，首次使用时按数据库加载。
+ *
+ * @author cong
+ */
+@Slf4j
+@Service
+public class HotPostHistoryServiceImpl extends ServiceImpl<HotItemMapper, HotItem>
+        implements HotPostHistoryService {
+
+    private static final String HOURLY_BUCKET = "%Y%m%d%H";
+
+    private static final String DAILY_BUCKET = "%Y%m%d";
+
+    @Resource
+    private HotItemSnapshotMapper hotItemSnapshotMapper;
+
+    @Resource
+    private HotPostHistoryConfig hotPostHistoryConfig;
+
+    @Resource
+    private DataSourceRegistry dataSourceRegistry;
+
+    private TitleClusterIndex<HotItem> titleIndex;
+
+    private volatile boolean titleIndexLoaded;
+
+    @PostConstruct
+    public void init() {
+        titleIndex = new TitleClusterIndex<>(HotItem::getTitle, hotPostHistoryConfig.getSimilarityThreshold());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void ingest(HotPost hotPost) {
+        List<HotPostDataVO> dataList = JSON.parseArray(hotPost.getHostJson(), HotPostDataVO.class);
+        // 空榜单视为抓取失败，保留原有状态；否则在榜条目会全部下榜，下次抓取又全部变成新上榜
+        if (CollUtil.isEmpty(dataList)) {
+            return;
+        }
+        String type = hotPost.getType();
+        Date now = hotPost.getUpdateTime();
+        // 同一链接在榜单中出现多次时只记录第一次
+        Map<Long, Integer> rankByHash = new LinkedHashMap<>();
+        for (int i = 0; i < dataList.size(); i++) {
+            rankByHash.putIfAbsent(urlHash(dataList.get(i)), i + 1);
+        }
+        Map<Long, HotItem> existingMap = baseMapper.listOnBoardOrIn(type, rankByHash.keySet()).stream()
+                .collect(Collectors.toMap(HotItem::getUrlHash, Function.identity()));
+
+        List<HotItem> insertList = new ArrayList<>();
+        List<HotItem> updateList = new ArrayList<>();
+        List<Long> seenIdList = new ArrayList<>();
+        Map<Long, HotItem> currentMap = new LinkedHashMap<>();
+        for (int i = 0; i < dataList.size(); i++) {
+            HotPostDataVO data = dataList.get(i);
+            long hash = urlHash(data);
+            int rank = i + 1;
+            if (rankByHash.get(hash) != rank) {
+                continue;
+            }
+            HotItem item = existingMap.get(hash);
+            boolean wasOnBoard = item != null && item.getOnBoard() == 1;
+            if (item == null) {
+                item = new HotItem();
+                item.setType(type);
+                item.setUrlHash(hash);
+                item.setBestRank(rank);
+                insertList.add(item);
+            } else if (!wasOnBoard || item.getLastRank() != rank
+                    || !Objects.equals(item.getLastFollowerCount(), data.getFollowerCount())
+                    || !Objects.equals(item.getTitle(), data.getTitle())) {
+                updateList.add(item);
+            } else {
+                seenIdList.add(item.getId());
+            }
+            if (wasOnBoard) {
+                int rankChange = item.getLastRank() - rank;
+                data.setRankChange(rankChange);
+                data.setRising(rankChange >= hotPostHistoryConfig.getRisingRankChange());
+            } else {
+                item.setOnBoardTime(now);
+                data.setRising(false);
+            }
+            data.setIsNew(!wasOnBoard);
+            item.setTitle(StringUtils.abbreviate(data.getTitle(), 512));
+            item.setUrl(StringUtils.abbreviate(data.getUrl(), 1024));
+            item.setLastRank(rank);
+            item.setBestRank(Math.min(item.getBestRank(), rank));
+            item.setLastFollowerCount(data.getFollowerCount());
+            item.setOnBoard(1);
+            item.setLastSeenTime(now);
+            data.setOnBoardTime(item.getOnBoardTime());
+            currentMap.put(hash, item);
+        }
+        // 上次在榜、这次不在的条目下榜
+        List<HotItemSnapshot> snapshotList = new ArrayList<>();
+        for (HotItem item : existingMap.values()) {
+            if (item.getOnBoard() == 1 && !currentMap.containsKey(item.getUrlHash())) {
+                item.setOnBoard(0);
+                updateList.add(item);
+                snapshotList.add(snapshot(item.getId(), 0, null, now));
+            }
+        }
+        if (!insertList.isEmpty()) {
+            this.saveBatch(insertList);
+        }
+        if (!updateList.isEmpty()) {
+            this.updateBatchById(updateList);
+        }
+        if (!seenIdList.isEmpty()) {
+            baseMapper.updateLastSeenTime(seenIdList, now);
+        }
+        for (HotItem item : insertList) {
+            snapshotList.add(snapshot(item.getId(), item.getLastRank(), item.getLastFollowerCount(), now));
+        }
+        for (HotItem item : updateList) {
+            if (item.getOnBoard() == 1) {
+                snapshotList.add(snapshot(item.getId(), item.getLastRank(), item.getLastFollowerCount(), now));
+            }
+        }
+        if (!snapshotList.isEmpty()) {
+            hotItemSnapshotMapper.insertBatch(snapshotList);
+        }
+
+        // 跨来源话题：其他来源的榜单随时在变，条目未变化时也重新计算
+        loadTitleIndex();
+        Map<String, HotItem> indexItems = new LinkedHashMap<>();
+        currentMap.forEach((hash, item) -> indexItems.put(indexKey(type, hash), item));
+        titleIndex.replaceSource(type, indexItems);
+        fillCrossSourceCount(type, dataList);
+        hotPost.setHostJson(JSON.toJSONString(dataList));
+    }
+
+    private void fillCrossSourceCount(String type, List<HotPostDataVO> dataList) {
+        Map<String, Integer> sourceCounts = titleIndex.sourceCounts(type);
+        for (HotPostDataVO data : dataList) {
+            data.setCrossSourceCount(sourceCounts.get(indexKey(type, urlHash(data))));
+        }
+    }
+
+    @Override
+    public List<HotTrendVO> listTrending(int size) {
+        loadTitleIndex();
+        List<HotTrendVO> trendList = new ArrayList<>();
+        for (List<HotItem> cluster : titleIndex.clusters(2)) {
+            cluster.sort(Comparator.comparing(HotItem::getLastRank));
+            List<HotTrendItemVO> itemList = new ArrayList<>(cluster.size());
+            for (HotItem item : cluster) {
+                HotTrendItemVO itemVO = new HotTrendItemVO();
+                itemVO.setType(item.getType());
+                HotDataSource descriptor = dataSourceRegistry.getDescriptor(item.getType());
+                itemVO.setTypeName(descriptor == null ? item.getType() : descriptor.key().getText());
+                itemVO.setTitle(item.getTitle());
+                itemVO.setUrl(item.getUrl());
+                itemVO.setRank(item.getLastRank());
+                itemList.add(itemVO);
+            }
+            HotTrendVO trendVO = new HotTrendVO();
+            trendVO.setTitle(cluster.get(0).getTitle());
+            trendVO.setSourceCount((int) cluster.stream().map(HotItem::getType).distinct().count());
+            trendVO.setItems(itemList);
+            trendList.add(trendVO);
+        }
+        // 覆盖来源多的在前，同样多时按最高排名
+        trendList.sort(Comparator.comparing(HotTrendVO::getSourceCount, Comparator.reverseOrder())
+                .thenComparing(trendVO -> trendVO.getItems().get(0).getRank()));
+        return trendList.subList(0, Math.min(size, trendList.size()));
+    }
+
+    @Override
+    public List<HotItemHistoryVO> listItemHistory(String type, String url) {
+        HotItem item = this.getOne(new LambdaQueryWrapper<HotItem>()
+                .eq(HotItem::getType, type)
+                .eq(HotItem::getUrlHash, hash(url)));
+        if (item == null) {
+            return Collections.emptyList();
+        }
+        return hotItemSnapshotMapper.selectList(new LambdaQueryWrapper<HotItemSnapshot>()
+                        .eq(HotItemSnapshot::getItemId, item.getId())
+                        .orderByAsc(HotItemSnapshot::getSnapshotTime))
+                .stream().map(snapshot -> {
+                    HotItemHistoryVO historyVO = new HotItemHistoryVO();
+                    historyVO.setRank(snapshot.getBoardRank());
+                    historyVO.setFollowerCount(snapshot.getFollowerCount());
+                    historyVO.setTime(snapshot.getSnapshotTime());
+                    return historyVO;
+                }).collect(Collectors.toList());
+    }
+
+    @Override
+    public int cleanHistory() {
+        long now = System.currentTimeMillis();
+        Date retentionBefore = new Date(now - TimeUnit.DAYS.toMillis(hotPostHistoryConfig.getRetentionDays()));
+        int deleted = hotItemSnapshotMapper.deleteBefore(retentionBefore);
+        deleted += hotItemSnapshotMapper.downsample(
+                new Date(now - TimeUnit.DAYS.toMillis(hotPostHistoryConfig.getDailyAfterDays())), DAILY_BUCKET);
+        deleted += hotItemSnapshotMapper.downsample(
+                new Date(now - TimeUnit.DAYS.toMillis(hotPostHistoryConfig.getHourlyAfterDays())), HOURLY_BUCKET);
+        int deletedItems = baseMapper.deleteOffBoardBefore(retentionBefore);
+        log.info("清理热榜历史：删除快照 {} 条，删除条目 {} 条", deleted, deletedItems);
+        return deleted;
+    }
+
+    /**
+     * 首次使用时按数据库加载在榜条目
+     */
+    private void loadTitleIndex() {
+        if (titleIndexLoaded) {
+            return;
+        }
+        synchronized (this) {
+            if (titleIndexLoaded) {
+                return;
+            }
+            Map<String, Map<String, HotItem>> sourceItems = new HashMap<>();
+            for (HotItem item : this.list(new LambdaQueryWrapper<HotItem>().eq(HotItem::getOnBoard, 1))) {
+                sourceItems.computeIfAbsent(item.getType(), key -> new LinkedHashMap<>())
+                        .put(indexKey(item.getType(), item.getUrlHash()), item);
+            }
+            sourceItems.forEach(titleIndex::replaceSource);
+            titleIndexLoaded = true;
+        }
+    }
+
+    private static HotItemSnapshot snapshot(Long itemId, int rank, Integer followerCount, Date time) {
+        HotItemSnapshot snapshot = new HotItemSnapshot();
+        snapshot.setItemId(itemId);
+        snapshot.setBoardRank(rank);
+        snapshot.setFollowerCount(followerCount);
+        snapshot.setSnapshotTime(time);
+        return snapshot;
+    }
+
+    private static String indexKey(String type, long hash) {
+        return type + ":" + hash;
+    }
+
+    private static long urlHash(HotPostDataVO data) {
+        return hash(StringUtils.isNotBlank(data.getUrl()) ? data.getUrl() : data.getTitle());
+    }
+
+    /**
+     * 取 MD5 的前 8 个字节
+     */
+    private static long hash(String value) {
+        return ByteBuffer.wrap(DigestUtil.md5(StringUtils.defaultString(value))).getLong();
+    }
+}
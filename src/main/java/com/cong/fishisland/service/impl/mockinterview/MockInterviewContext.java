@@ -0,0 +1,163 @@
+package com.cong.fishisland.service.impl.mockinterview;
+
+import cn.hutool.json.JSONUtil;
+import com.cong.fishisland.model.dto.mockInterview.MockInterviewChatMessage;
+import com.cong.fishisland.model.entity.mockInterview.MockInterviewTurn;
+import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 模拟面试上下文
+ * <p>
+ * 发给模型的上下文由系统提示、滚动摘要和最近若干条消息组成，不随面试轮数增长：
+ * 未摘要的消息超过窗口时，把窗口之前的部分连同旧摘要压缩为新摘要。
+ *
+ * @author cong
+ */
+public final class MockInterviewContext {
+
+    /**
+     * 上下文窗口保留的最近消息条数（一问一答为两条）
+     */
+    public static final int WINDOW_SIZE = 8;
+
+    /**
+     * 窗口之前累计的未摘要消息达到该条数时压缩一次
+     */
+    public static final int COMPACT_BATCH = 4;
+
+    /**
+     * 上下文中未摘要消息的上限，摘要未能及时生成时丢弃更早的消息
+     */
+    public static final int MAX_CONTEXT_TURNS = WINDOW_SIZE * 3;
+
+    /**
+     * 摘要字数上限
+     */
+    public static final int SUMMARY_MAX_LENGTH = 300;
+
+    public static final String ROLE_SYSTEM = "system";
+
+    public static final String ROLE_USER = "user";
+
+    public static final String ROLE_ASSISTANT = "assistant";
+
+    private MockInterviewContext() {
+    }
+
+    /**
+     * 构建发给模型的消息列表
+     *
+     * @param systemPrompt 系统提示
+     * @param summary      滚动摘要，可为空
+     * @param turns        摘要之后的轮次，按轮次序号升序
+     * @param userMessage  本次用户消息
+     * @return 消息列表
+     */
+    public static List<SiliconFlowRequest.Message> build(String systemPrompt, String summary,
+                                                         List<MockInterviewTurn> turns, String userMessage) {
+        List<SiliconFlowRequest.Message> messages = new ArrayList<>();
+        String system = StringUtils.isBlank(summary) ? systemPrompt
+                : systemPrompt + "\n此前的面试摘要（更早的对话已省略）：\n" + summary;
+        messages.add(message(ROLE_SYSTEM, system));
+        int from = Math.max(0, turns.size() - MAX_CONTEXT_TURNS);
+        for (MockInterviewTurn turn : turns.subList(from, turns.size())) {
+            messages.add(message(turn.getRole(), turn.getContent()));
+        }
+        messages.add(message(ROLE_USER, userMessage));
+        return messages;
+    }
+
+    /**
+     * 需要压缩的轮次：未摘要的消息达到窗口加一个批次时，返回窗口之前的部分，否则返回空列表
+     *
+     * @param turns 摘要之后的轮次，按轮次序号升序
+     */
+    public static List<MockInterviewTurn> toCompact(List<MockInterviewTurn> turns) {
+        if (turns.size() < WINDOW_SIZE + COMPACT_BATCH) {
+            return Collections.emptyList();
+        }
+        return turns.subList(0, turns.size() - WINDOW_SIZE);
+    }
+
+    /**
+     * 构建生成滚动摘要的消息列表
+     *
+     * @param summary 旧摘要，可为空
+     * @param turns   需要压缩的轮次
+     */
+    public static List<SiliconFlowRequest.Message> buildSummaryPrompt(String summary, List<MockInterviewTurn> turns) {
+        StringBuilder prompt = new StringBuilder("请把下面的模拟面试记录压缩为不超过 ")
+                .append(SUMMARY_MAX_LENGTH)
+                .append(" 字的要点摘要，保留已问过的问题、候选人回答的要点和面试官的评价，只输出摘要本身。\n");
+        if (StringUtils.isNotBlank(summary)) {
+            prompt.append("\n已有摘要：\n").append(summary).append('\n');
+        }
+        prompt.append("\n新增记录：\n");
+        for (MockInterviewTurn turn : turns) {
+            prompt.append(ROLE_ASSISTANT.equals(turn.getRole()) ? "面试官：" : "候选人：")
+                    .append(turn.getContent())
+                    .append('\n');
+        }
+        return Collections.singletonList(message(ROLE_USER, prompt.toString()));
+    }
+
+    /**
+     * 转换为 mock_interview.messages 的 JSON 格式（含系统提示）
+     */
+    public static String toMessagesJson(String systemPrompt, List<MockInterviewTurn> turns) {
+        List<MockInterviewChatMessage> chatMessages = new ArrayList<>(turns.size() + 1);
+        chatMessages.add(chatMessage(ROLE_SYSTEM, systemPrompt));
+        for (MockInterviewTurn turn : turns) {
+            chatMessages.add(chatMessage(turn.getRole(), turn.getContent()));
+        }
+        return JSONUtil.toJsonStr(chatMessages);
+    }
+
+    /**
+     * 从 mock_interview.messages 的 JSON 转换为轮次，用于迁移进行中的存量面试（忽略系统提示）
+     */
+    public static List<MockInterviewTurn> fromMessagesJson(Long interviewId, String messagesJson) {
+        if (StringUtils.isBlank(messagesJson)) {
+            return new ArrayList<>();
+        }
+        List<MockInterviewChatMessage> chatMessages = JSONUtil.parseArray(messagesJson)
+                .toList(MockInterviewChatMessage.class)
+                .stream()
+                .filter(chatMessage -> !ROLE_SYSTEM.equals(chatMessage.getRole()))
+                .collect(Collectors.toList());
+        List<MockInterviewTurn> turns = new ArrayList<>(chatMessages.size());
+        for (MockInterviewChatMessage chatMessage : chatMessages) {
+            turns.add(turn(interviewId, turns.size() + 1, chatMessage.getRole(), chatMessage.getMessage()));
+        }
+        return turns;
+    }
+
+    public static MockInterviewTurn turn(Long interviewId, int turnNo, String role, String content) {
+        MockInterviewTurn turn = new MockInterviewTurn();
+        turn.setInterviewId(interviewId);
+        turn.setTurnNo(turnNo);
+        turn.setRole(role);
+        turn.setContent(content);
+        return turn;
+    }
+
+    private static SiliconFlowRequest.Message message(String role, String content) {
+        SiliconFlowRequest.Message message = new SiliconFlowRequest.Message();
+        message.setRole(role);
+        message.setContent(content);
+        return message;
+    }
+
+    private static MockInterviewChatMessage chatMessage(String role, String content) {
+        MockInterviewChatMessage chatMessage = new MockInterviewChatMessage();
+        chatMessage.setRole(role);
+        chatMessage.setMessage(content);
+        return chatMessage;
+    }
+}
@@ -1,20 +1,24 @@
 package com.cong.fishisland.service.impl.mockinterview;
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.common.exception.ThrowUtils;
+import com.cong.fishisland.config.ThreadPoolConfig;
 import com.cong.fishisland.constant.CommonConstant;
 import com.cong.fishisland.datasource.ai.MockInterviewDataSource;
+import com.cong.fishisland.manager.AiGatewayManager;
 import com.cong.fishisland.mapper.mockInterview.MockInterviewMapper;
+import com.cong.fishisland.mapper.mockInterview.MockInterviewTurnMapper;
 import com.cong.fishisland.model.dto.mockInterview.MockInterviewAddRequest;
-import com.cong.fishisland.model.dto.mockInterview.MockInterviewChatMessage;
 import com.cong.fishisland.model.dto.mockInterview.MockInterviewEventRequest;
 import com.cong.fishisland.model.dto.mockInterview.MockInterviewQueryRequest;
 import com.cong.fishisland.model.entity.mockInterview.MockInterview;
+import com.cong.fishisland.model.entity.mockInterview.MockInterviewTurn;
 import com.cong.fishisland.model.entity.user.User;
 import com.cong.fishisland.model.enums.MockInterviewEventEnum;
 import com.cong.fishisland.model.enums.MockInterviewStatusEnum;
@@ -23,15 +27,19 @@ import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
 import com.cong.fishisland.service.MockInterviewService;
 import com.cong.fishisland.service.UserService;
 import com.cong.fishisland.utils.SqlUtils;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import javax.annotation.Resource;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 import static com.cong.fishisland.datasource.ai.MockInterviewDataSource.DEFAULT_MODEL;
 
 /**
@@ -39,6 +47,7 @@ import static com.cong.fishisland.datasource.ai.MockInterviewDataSource.DEFAULT_
  * @description 针对表【mock_interview(模拟面试)】的数据库操作Service实现
  * @createDate 2025-04-02 18:21:40
  */
+@Slf4j
 @Service
 public class MockInterviewServiceImpl extends ServiceImpl<MockInterviewMapper, MockInterview>
         implements MockInterviewService {
@@ -49,6 +58,15 @@ public class MockInterviewServiceImpl extends ServiceImpl<MockInterviewMapper, M
     @Resource
     private UserService userService;
 
+    @Resource
+    private MockInterviewTurnMapper mockInterviewTurnMapper;
+
+    @Resource
+    private AiGatewayManager aiGatewayManager;
+
+    @Resource(name = ThreadPoolConfig.WANWU_EXECUTOR)
+    private ThreadPoolTaskExecutor fishExecutor;
+
     private final String systemPromptFormat = "你是一位严厉的程序员面试官，我是候选人，来应聘 %s 的 %s 岗位，面试难度为 %s。请你向我依次提出问题（最多 20 个问题），我也会依次回复。在这期间请完全保持真人面试官的口吻，比如适当引导学员、或者表达出你对学员回答的态度。\n" +
             "必须满足如下要求：\n" +
             "1. 当学员回复 “开始” 时，你要正式开始面试\n" +
@@ -56,17 +74,9 @@ public class MockInterviewServiceImpl extends ServiceImpl<MockInterviewMapper, M
             "3. 此外，当你觉得这场面试可以结束时（比如候选人回答结果较差、不满足工作年限的招聘需求、或者候选人态度不礼貌），必须主动提出面试结束，不用继续询问更多问题了。并且要在回复中包含字符串【面试结束】\n" +
             "4. 面试结束后，应该给出候选人整场面试的表现和总结。";
 
-    final SiliconFlowRequest.Message userStartMessage = new SiliconFlowRequest.Message();
-    final SiliconFlowRequest.Message endUserMessage = new SiliconFlowRequest.Message();
+    private static final String USER_START_MESSAGE = "开始";
 
-    // 初始化块设置消息属性
-    {
-        userStartMessage.setRole("user");
-        userStartMessage.setContent("开始");
-
-        endUserMessage.setRole("user");
-        endUserMessage.setContent("结束");
-    }
+    private static final String END_USER_MESSAGE = "结束";
 
 
     /**
@@ -135,7 +145,60 @@ public class MockInterviewServiceImpl extends ServiceImpl<MockInterviewMapper, M
     @Override
     public String handleMockInterviewEvent(MockInterviewEventRequest mockInterviewEventRequest) {
         User loginUser = userService.getLoginUser();
-        // 区分事件
+        MockInterview mockInterview = getOwnMockInterview(mockInterviewEventRequest, loginUser);
+        MockInterviewEventEnum eventEnum = getEventEnum(mockInterviewEventRequest, mockInterview);
+        String userMessage = getUserMessage(eventEnum, mockInterviewEventRequest);
+        List<MockInterviewTurn> turns = listUnsummarizedTurns(mockInterview);
+        List<SiliconFlowRequest.Message> messages = MockInterviewContext.build(getSystemPrompt(mockInterview),
+                mockInterview.getSummary(), turns, userMessage);
+
+        // 调用 AI 接口获取回复
+        AiResponse aiResponse = mockInterviewDataSource.getAiResponse(messages, DEFAULT_MODEL);
+        String answer = aiResponse.getAnswer();
+
+        appendTurns(mockInterview, eventEnum, turns, userMessage, answer);
+        return answer;
+    }
+
+    /**
+     * 流式处理模拟面试事件，回答生成完毕后追加对话轮次
+     */
+    @Override
+    public Flux<String> streamMockInterviewEvent(MockInterviewEventRequest mockInterviewEventRequest) {
+        User loginUser = userService.getLoginUser();
+        MockInterview mockInterview = getOwnMockInterview(mockInterviewEventRequest, loginUser);
+        MockInterviewEventEnum eventEnum = getEventEnum(mockInterviewEventRequest, mockInterview);
+        String userMessage = getUserMessage(eventEnum, mockInterviewEventRequest);
+        List<MockInterviewTurn> turns = listUnsummarizedTurns(mockInterview);
+        List<SiliconFlowRequest.Message> messages = MockInterviewContext.build(getSystemPrompt(mockInterview),
+                mockInterview.getSummary(), turns, userMessage);
+
+        StringBuilder answer = new StringBuilder();
+        return aiGatewayManager.stream(AiGatewayManager.CHUTES, DEFAULT_MODEL, String.valueOf(loginUser.getId()), messages)
+                .doOnNext(answer::append)
+                .concatWith(Mono.<String>fromRunnable(() -> appendTurns(mockInterview, eventEnum, turns, userMessage,
+                                stripThinking(answer.toString())))
+                        .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    /**
+     * 进行中的面试返回完整消息记录（面试结束前 messages 字段不随每轮更新）
+     */
+    @Override
+    public void fillMessages(MockInterview mockInterview) {
+        if (MockInterviewStatusEnum.ENDED.getValue() == mockInterview.getStatus()) {
+            return;
+        }
+        List<MockInterviewTurn> turns = listTurns(mockInterview.getId(), 0);
+        if (!turns.isEmpty()) {
+            mockInterview.setMessages(MockInterviewContext.toMessagesJson(getSystemPrompt(mockInterview), turns));
+        }
+    }
+
+    /**
+     * 获取本人创建的模拟面试
+     */
+    private MockInterview getOwnMockInterview(MockInterviewEventRequest mockInterviewEventRequest, User loginUser) {
         Long id = mockInterviewEventRequest.getId();
         if (id == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "参数错误");
@@ -146,195 +209,140 @@ public class MockInterviewServiceImpl extends ServiceImpl<MockInterviewMapper, M
         if (!mockInterview.getUserId().equals(loginUser.getId())) {
             throw new BusinessException(ErrorCode.NO_AUTH_ERROR);
         }
-        String event = mockInterviewEventRequest.getEvent();
-        MockInterviewEventEnum eventEnum = MockInterviewEventEnum.getEnumByValue(event);
-        switch (Objects.requireNonNull(eventEnum)) {
-            // -- 处理开始事件
-            // 用户进入模拟面试，发送“开始”事件，修改模拟面试的状态为“已开始”，AI 要给出对应的回复
+        return mockInterview;
+    }
+
+    private MockInterviewEventEnum getEventEnum(MockInterviewEventRequest mockInterviewEventRequest,
+                                                MockInterview mockInterview) {
+        MockInterviewEventEnum eventEnum = MockInterviewEventEnum.getEnumByValue(mockInterviewEventRequest.getEvent());
+        ThrowUtils.throwIf(eventEnum == null, ErrorCode.PARAMS_ERROR, "参数错误");
+        ThrowUtils.throwIf(MockInterviewStatusEnum.ENDED.getValue() == mockInterview.getStatus(),
+                ErrorCode.OPERATION_ERROR, "模拟面试已结束");
+        return eventEnum;
+    }
+
+    /**
+     * 区分事件
+     * -- 开始事件：用户进入模拟面试，修改模拟面试的状态为“进行中”，AI 要给出对应的回复
+     * -- 对话事件：用户和 AI 面试官发送消息，携带上要发送的消息内容，AI 要给出对应的回复
+     * -- 结束事件：退出模拟面试，AI 给出面试的复盘总结，修改状态为“已结束”
+     */
+    private String getUserMessage(MockInterviewEventEnum eventEnum, MockInterviewEventRequest mockInterviewEventRequest) {
+        switch (eventEnum) {
             case START:
-                return handleChatStartEvent(mockInterview);
-            // -- 处理对话事件
-            // 用户可以和 AI 面试官发送消息，发送“消息”事件，携带上要发送的消息内容，AI 要给出对应的回复
+                return USER_START_MESSAGE;
             case CHAT:
-                return handleChatMessageEvent(mockInterviewEventRequest, mockInterview);
+                String message = mockInterviewEventRequest.getMessage();
+                ThrowUtils.throwIf(StringUtils.isBlank(message), ErrorCode.PARAMS_ERROR, "消息不能为空");
+                return message;
             case END:
-                // -- 处理结束事件
-                // 退出模拟面试，发送“退出”事件，AI 给出面试的复盘总结，修改状态为“已结束”
-                return handleChatEndEvent(mockInterview);
+                return END_USER_MESSAGE;
             default:
                 throw new BusinessException(ErrorCode.PARAMS_ERROR, "参数错误");
         }
     }
 
     /**
-     * 处理 AI 对话开始事件（开始对话时调用）
+     * 根据用户的工作经验、职位和难度生成系统提示
      */
-    private String handleChatStartEvent(MockInterview mockInterview) {
-        // 根据用户的工作经验、职位和难度生成系统提示
-        String systemPrompt = String.format(systemPromptFormat,
+    private String getSystemPrompt(MockInterview mockInterview) {
+        return String.format(systemPromptFormat,
                 mockInterview.getWorkExperience(),
                 mockInterview.getJobPosition(),
                 mockInterview.getDifficulty());
-
-        List<SiliconFlowRequest.Message> messages = new ArrayList<>();
-
-        // 添加系统消息
-        SiliconFlowRequest.Message systemMessage = new SiliconFlowRequest.Message();
-        systemMessage.setRole("system");
-        systemMessage.setContent(systemPrompt);
-        messages.add(systemMessage);
-
-        messages.add(userStartMessage);
-
-
-        // 调用 AI 接口获取回复
-        AiResponse aiResponse = mockInterviewDataSource.getAiResponse(messages,DEFAULT_MODEL);
-        String answer = aiResponse.getAnswer();
-
-        // 封装 AI 回复消息，添加至消息列表
-        SiliconFlowRequest.Message assistantMessage = new SiliconFlowRequest.Message();
-        assistantMessage.setRole("assistant");
-        assistantMessage.setContent(answer);
-        messages.add(assistantMessage);
-
-        // 保存更新后的消息记录（转换为可持久化保存的格式）
-        List<MockInterviewChatMessage> chatMessageList = transformFromSiliconFlowMessage(messages);
-        String jsonStr = JSONUtil.toJsonStr(chatMessageList);
-
-        // 更新面试记录状态为进行中，并保存消息记录
-        MockInterview updateMockInterview = new MockInterview();
-        updateMockInterview.setId(mockInterview.getId());
-        updateMockInterview.setStatus(MockInterviewStatusEnum.IN_PROGRESS.getValue());
-        updateMockInterview.setMessages(jsonStr);
-
-        boolean result = this.updateById(updateMockInterview);
-        ThrowUtils.throwIf(!result, ErrorCode.SYSTEM_ERROR, "更新失败");
-
-        return answer;
     }
 
     /**
-     * 处理 AI 对话消息事件（对话过程中用户发送消息时调用）
+     * 摘要之后的轮次，进行中的存量面试首次访问时把 messages 字段迁移为轮次
      */
-    private String handleChatMessageEvent(MockInterviewEventRequest mockInterviewEventRequest, MockInterview mockInterview) {
-        String message = mockInterviewEventRequest.getMessage();
-
-        // 获取历史消息记录
-        List<SiliconFlowRequest.Message> historyMessages = JSONUtil.parseArray(mockInterview.getMessages())
-                .toList(MockInterviewChatMessage.class)
-                .stream()
-                .map(this::convertToSiliconFlowMessage)
-                .collect(Collectors.toList());
-
-        SiliconFlowRequest.Message userMessage = new SiliconFlowRequest.Message();
-        userMessage.setRole("user");
-        userMessage.setContent(message);
-        historyMessages.add(userMessage);
-
-        // 调用 AI 接口获取回复
-        AiResponse aiResponse = mockInterviewDataSource.getAiResponse(historyMessages, DEFAULT_MODEL);
-        String chatAnswer = aiResponse.getAnswer();
-
-        // 封装 AI 的回复消息
-        SiliconFlowRequest.Message assistantMessage = new SiliconFlowRequest.Message();
-        assistantMessage.setRole("assistant");
-        assistantMessage.setContent(chatAnswer);
-        historyMessages.add(assistantMessage);
-
-        // 更新消息记录，转换为可保存的格式并转换为 JSON 字符串
-        List<MockInterviewChatMessage> chatMessages = transformFromSiliconFlowMessage(historyMessages);
-        String newJsonStr = JSONUtil.toJsonStr(chatMessages);
-
-        MockInterview newUpdateMockInterview = new MockInterview();
-        newUpdateMockInterview.setId(mockInterview.getId());
-        newUpdateMockInterview.setMessages(newJsonStr);
-
-        // 如果 AI 主动结束了面试，则更新状态
-        if (chatAnswer.contains("【面试结束】")) {
-            newUpdateMockInterview.setStatus(MockInterviewStatusEnum.ENDED.getValue());
+    private List<MockInterviewTurn> listUnsummarizedTurns(MockInterview mockInterview) {
+        int summaryTurnNo = ObjectUtils.defaultIfNull(mockInterview.getSummaryTurnNo(), 0);
+        List<MockInterviewTurn> turns = listTurns(mockInterview.getId(), summaryTurnNo);
+        if (turns.isEmpty() && summaryTurnNo == 0 && StringUtils.isNotBlank(mockInterview.getMessages())) {
+            turns = MockInterviewContext.fromMessagesJson(mockInterview.getId(), mockInterview.getMessages());
+            if (!turns.isEmpty()) {
+                mockInterviewTurnMapper.insertBatch(turns);
+            }
         }
+        return turns;
+    }
 
-        boolean newResult = this.updateById(newUpdateMockInterview);
-        ThrowUtils.throwIf(!newResult, ErrorCode.SYSTEM_ERROR, "更新失败");
-
-        return chatAnswer;
+    private List<MockInterviewTurn> listTurns(Long interviewId, int afterTurnNo) {
+        return mockInterviewTurnMapper.selectList(new LambdaQueryWrapper<MockInterviewTurn>()
+                .eq(MockInterviewTurn::getInterviewId, interviewId)
+                .gt(MockInterviewTurn::getTurnNo, afterTurnNo)
+                .orderByAsc(MockInterviewTurn::getTurnNo));
     }
 
     /**
-     * 处理 AI 对话结束事件（对话结束时调用）
+     * 追加本轮的问答，只写入两行新消息；面试结束时才把完整记录写回 messages 字段
      */
-    private String handleChatEndEvent(MockInterview mockInterview) {
-        // 获取之前的消息记录
-        String historyMessage = mockInterview.getMessages();
-        List<MockInterviewChatMessage> historyMessageList = JSONUtil.parseArray(historyMessage)
-                .toList(MockInterviewChatMessage.class);
-
-        // 1.直接转换为 SiliconFlowRequest.Message 列表
-        List<SiliconFlowRequest.Message> messages = historyMessageList.stream()
-                .map(this::convertToSiliconFlowMessage)
-                .collect(Collectors.toList());
-
-        // 2.添加用户结束消息（使用预定义的 endUserMessage）
-        messages.add(endUserMessage);
-
-        // 调用 AI 接口获取答案（使用默认模型）
-        AiResponse aiResponse = mockInterviewDataSource.getAiResponse(messages, DEFAULT_MODEL);
-        String endAnswer = aiResponse.getAnswer();
-
-        // 3.构建 AI 回复消息
-        SiliconFlowRequest.Message assistantMessage = new SiliconFlowRequest.Message();
-        assistantMessage.setRole("assistant");
-        assistantMessage.setContent(endAnswer);
-        messages.add(assistantMessage);
-
-        // 转换持久化格式
-        List<MockInterviewChatMessage> mockInterviewChatMessages = messages.stream()
-                .map(msg -> {
-                    MockInterviewChatMessage entity = new MockInterviewChatMessage();
-                    entity.setRole(msg.getRole());
-                    entity.setMessage(msg.getContent());
-                    return entity;
-                })
-                .collect(Collectors.toList());
-
-        String newJsonStr = JSONUtil.toJsonStr(mockInterviewChatMessages);
-
-        // 更新面试记录状态为已结束，同时保存消息记录
-        MockInterview newUpdateMockInterview = new MockInterview();
-        newUpdateMockInterview.setId(mockInterview.getId());
-        newUpdateMockInterview.setStatus(MockInterviewStatusEnum.ENDED.getValue());
-        newUpdateMockInterview.setMessages(newJsonStr);
-
-        boolean newResult = this.updateById(newUpdateMockInterview);
-        ThrowUtils.throwIf(!newResult, ErrorCode.SYSTEM_ERROR, "更新失败");
-
-        return endAnswer;
+    private void appendTurns(MockInterview mockInterview, MockInterviewEventEnum eventEnum,
+                             List<MockInterviewTurn> turns, String userMessage, String answer) {
+        int nextTurnNo = turns.isEmpty() ? ObjectUtils.defaultIfNull(mockInterview.getSummaryTurnNo(), 0) + 1
+                : turns.get(turns.size() - 1).getTurnNo() + 1;
+        Long interviewId = mockInterview.getId();
+        List<MockInterviewTurn> newTurns = Arrays.asList(
+                MockInterviewContext.turn(interviewId, nextTurnNo, MockInterviewContext.ROLE_USER, userMessage),
+                MockInterviewContext.turn(interviewId, nextTurnNo + 1, MockInterviewContext.ROLE_ASSISTANT, answer));
+        mockInterviewTurnMapper.insertBatch(newTurns);
+
+        // 结束事件，或 AI 主动结束了面试
+        boolean ended = eventEnum == MockInterviewEventEnum.END || answer.contains("【面试结束】");
+        if (ended) {
+            MockInterview updateMockInterview = new MockInterview();
+            updateMockInterview.setId(interviewId);
+            updateMockInterview.setStatus(MockInterviewStatusEnum.ENDED.getValue());
+            updateMockInterview.setMessages(MockInterviewContext.toMessagesJson(getSystemPrompt(mockInterview),
+                    listTurns(interviewId, 0)));
+            boolean result = this.updateById(updateMockInterview);
+            ThrowUtils.throwIf(!result, ErrorCode.SYSTEM_ERROR, "更新失败");
+            return;
+        }
+        if (eventEnum == MockInterviewEventEnum.START
+                && MockInterviewStatusEnum.IN_PROGRESS.getValue() != mockInterview.getStatus()) {
+            MockInterview updateMockInterview = new MockInterview();
+            updateMockInterview.setId(interviewId);
+            updateMockInterview.setStatus(MockInterviewStatusEnum.IN_PROGRESS.getValue());
+            boolean result = this.updateById(updateMockInterview);
+            ThrowUtils.throwIf(!result, ErrorCode.SYSTEM_ERROR, "更新失败");
+        }
+        List<MockInterviewTurn> allTurns = new ArrayList<>(turns);
+        allTurns.addAll(newTurns);
+        compactAsync(mockInterview, allTurns);
     }
 
     /**
-     * 转换持久化消息格式
+     * 未摘要的消息超出窗口时，异步把窗口之前的部分合并进滚动摘要
+     * <p>
+     * 以摘要序号做乐观锁，并发压缩时只有一个生效
      */
-    private List<MockInterviewChatMessage> transformFromSiliconFlowMessage(List<SiliconFlowRequest.Message> messages) {
-        return messages.stream().map(msg -> {
-            MockInterviewChatMessage entity = new MockInterviewChatMessage();
-            entity.setRole(msg.getRole());
-            entity.setMessage(msg.getContent());
-            return entity;
-        }).collect(Collectors.toList());
+    private void compactAsync(MockInterview mockInterview, List<MockInterviewTurn> turns) {
+        List<MockInterviewTurn> toCompact = MockInterviewContext.toCompact(turns);
+        if (toCompact.isEmpty()) {
+            return;
+        }
+        int summaryTurnNo = ObjectUtils.defaultIfNull(mockInterview.getSummaryTurnNo(), 0);
+        int compactTurnNo = toCompact.get(toCompact.size() - 1).getTurnNo();
+        fishExecutor.execute(() -> {
+            try {
+                String summary = mockInterviewDataSource.getAiResponse(
+                        MockInterviewContext.buildSummaryPrompt(mockInterview.getSummary(), toCompact),
+                        DEFAULT_MODEL).getAnswer();
+                this.update(new LambdaUpdateWrapper<MockInterview>()
+                        .eq(MockInterview::getId, mockInterview.getId())
+                        .eq(MockInterview::getSummaryTurnNo, summaryTurnNo)
+                        .set(MockInterview::getSummary, summary)
+                        .set(MockInterview::getSummaryTurnNo, compactTurnNo));
+            } catch (Exception e) {
+                log.warn("模拟面试 {} 生成摘要失败", mockInterview.getId(), e);
+            }
+        });
     }
 
-    /**
-     * 转换历史消息格式
-     */
-    private SiliconFlowRequest.Message convertToSiliconFlowMessage(MockInterviewChatMessage entity) {
-        SiliconFlowRequest.Message msg = new SiliconFlowRequest.Message();
-        msg.setRole(entity.getRole());
-        msg.setContent(entity.getMessage());
-        return msg;
+    private static String stripThinking(String answer) {
+        String[] answers = answer.split("</think>");
+        return answers.length > 1 ? answers[1].trim() : answers[0].trim();
     }
 
 }
-
-
-
-
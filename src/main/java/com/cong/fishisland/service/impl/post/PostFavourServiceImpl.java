@@ -7,6 +7,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.manager.PostHotFeedManager;
 import com.cong.fishisland.mapper.post.PostFavourMapper;
 import com.cong.fishisland.model.entity.post.Post;
 import com.cong.fishisland.model.entity.post.PostFavour;
@@ -30,6 +31,9 @@ public class PostFavourServiceImpl extends ServiceImpl<PostFavourMapper, PostFav
     @Resource
     private PostService postService;
 
+    @Resource
+    private PostHotFeedManager postHotFeedManager;
+
     /**
      * 帖子收藏
      *
@@ -50,7 +54,11 @@ public class PostFavourServiceImpl extends ServiceImpl<PostFavourMapper, PostFav
         // 锁必须要包裹住事务方法
         PostFavourService postFavourService = (PostFavourService) AopContext.currentProxy();
         synchronized (String.valueOf(userId).intern()) {
-            return postFavourService.doPostFavourInner(userId, postId);
+            int result = postFavourService.doPostFavourInner(userId, postId);
+            if (result != 0) {
+                postHotFeedManager.onFavour(postId, result);
+            }
+            return result;
         }
     }
 
@@ -1,6 +1,7 @@
 package com.cong.fishisland.service.impl.post;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
@@ -10,6 +11,12 @@ import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.BusinessException;
 import com.cong.fishisland.common.exception.ThrowUtils;
 import com.cong.fishisland.constant.CommonConstant;
+import com.cong.fishisland.constant.PostConstant;
+import com.cong.fishisland.common.CursorPage;
+import com.cong.fishisland.common.CursorPageRequest;
+import com.cong.fishisland.manager.PostHotFeedManager;
+import com.cong.fishisland.manager.PostSearchManager;
+import com.cong.fishisland.manager.SensitiveWordManager;
 import com.cong.fishisland.mapper.post.PostFavourMapper;
 import com.cong.fishisland.mapper.post.PostMapper;
 import com.cong.fishisland.mapper.post.PostThumbMapper;
@@ -19,25 +26,34 @@ import com.cong.fishisland.model.entity.post.Post;
 import com.cong.fishisland.model.entity.post.PostFavour;
 import com.cong.fishisland.model.entity.post.PostThumb;
 import com.cong.fishisland.model.entity.user.User;
+import com.cong.fishisland.model.vo.post.PostSearchVO;
 import com.cong.fishisland.model.vo.post.PostVO;
 import com.cong.fishisland.model.vo.user.UserVO;
 import com.cong.fishisland.service.CommentService;
 import com.cong.fishisland.service.PostService;
+import com.cong.fishisland.service.PostTagService;
 import com.cong.fishisland.service.UserService;
+import com.cong.fishisland.utils.CursorUtils;
+import com.cong.fishisland.utils.SensitiveWordAutomaton;
 import com.cong.fishisland.utils.SqlUtils;
+import com.cong.fishisland.utils.TagUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import toolgood.words.StringSearch;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.Resource;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.cong.fishisland.constant.PostConstant.POST_ID;
 
@@ -59,11 +75,20 @@ public class PostServiceImpl extends ServiceImpl<PostMapper, Post> implements Po
     private PostFavourMapper postFavourMapper;
 
     @Resource
-    private StringSearch wordsUtil;
+    private SensitiveWordManager sensitiveWordManager;
 
     @Resource
     private CommentService commentService;
 
+    @Resource
+    private PostSearchManager postSearchManager;
+
+    @Resource
+    private PostHotFeedManager postHotFeedManager;
+
+    @Resource
+    private PostTagService postTagService;
+
     /**
      * 帖子加精
      */
@@ -81,6 +106,7 @@ public class PostServiceImpl extends ServiceImpl<PostMapper, Post> implements Po
         update(new UpdateWrapper<Post>()
                 .setSql("viewNum = viewNum + 1")
                 .eq("id", postId));
+        postHotFeedManager.onView(postId);
     }
 
     @Override
@@ -99,8 +125,13 @@ public class PostServiceImpl extends ServiceImpl<PostMapper, Post> implements Po
         updateWrapper.eq(Post::getId, id)
                 .set(Post::getIsFeatured, isFeatured);
 
-        return update(updateWrapper);
-
+        boolean result = update(updateWrapper);
+        if (result) {
+            post.setIsFeatured(isFeatured);
+            postSearchManager.index(post);
+            postHotFeedManager.onFeaturedChanged(post);
+        }
+        return result;
     }
 
     @Override
@@ -109,26 +140,69 @@ public class PostServiceImpl extends ServiceImpl<PostMapper, Post> implements Po
         long current = postQueryRequest.getCurrent();
         long size = postQueryRequest.getPageSize();
 
-        // 1. 分页查询收藏记录
-        Page<PostFavour> favourPage = new Page<>(current, size);
+        // 1. 分页查询收藏记录（收藏表已分页，帖子表只按 id 回表，不能再次分页）
+        Page<PostFavour> favourPage = new Page<>(current, size, !Boolean.FALSE.equals(postQueryRequest.getSearchCount()));
         QueryWrapper<PostFavour> favourQueryWrapper = new QueryWrapper<>();
         favourQueryWrapper.eq("userId", userId);
+        favourQueryWrapper.orderByDesc("id");
         Page<PostFavour> postFavourPage = postFavourMapper.selectPage(favourPage, favourQueryWrapper);
 
-        // 2. 提取帖子ID并查询帖子
-        List<Long> postIdList = postFavourPage.getRecords().stream()
+        // 2. 按收藏顺序回表查询帖子并转换VO
+        Page<Post> postPage = new Page<>(current, size, postFavourPage.getTotal());
+        postPage.setRecords(listByIdsInOrder(postFavourPage.getRecords().stream()
                 .map(PostFavour::getPostId)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList())));
+        return getPostVOPage(postPage);
+    }
+
+    @Override
+    public CursorPage<PostVO> listPostVoByCursor(PostQueryRequest postQueryRequest) {
+        ThrowUtils.throwIf(postQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        CursorPage<Post> postCursorPage = CursorUtils.page(baseMapper, getQueryWrapper(postQueryRequest),
+                postQueryRequest);
+        return toPostVoCursorPage(postCursorPage, postCursorPage.getRecords());
+    }
 
+    @Override
+    public CursorPage<PostVO> listFavourPostByCursor(PostQueryRequest postQueryRequest, Long userId) {
+        ThrowUtils.throwIf(postQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        QueryWrapper<PostFavour> favourQueryWrapper = new QueryWrapper<>();
+        favourQueryWrapper.eq("userId", userId);
+        // 收藏记录 id 自增，按 id 倒序即按收藏时间倒序
+        CursorPage<PostFavour> favourCursorPage = CursorUtils.page(postFavourMapper, favourQueryWrapper, null, false,
+                postQueryRequest.getCursor(), postQueryRequest.getPageSize(),
+                Boolean.TRUE.equals(postQueryRequest.getSearchCount()));
+        List<Post> postList = listByIdsInOrder(favourCursorPage.getRecords().stream()
+                .map(PostFavour::getPostId)
+                .collect(Collectors.toList()));
+        return toPostVoCursorPage(favourCursorPage, postList);
+    }
+
+    /**
+     * 按给定 id 顺序查询帖子，跳过已删除的帖子
+     */
+    private List<Post> listByIdsInOrder(List<Long> postIdList) {
         if (CollUtil.isEmpty(postIdList)) {
-            return new Page<>(current, size, 0);
+            return Collections.emptyList();
         }
+        Map<Long, Post> postIdPostMap = this.listByIds(postIdList).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        return postIdList.stream()
+                .map(postIdPostMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
 
-        // 3. 查询帖子并转换VO
-        QueryWrapper<Post> postQueryWrapper = new QueryWrapper<>();
-        postQueryWrapper.in("id", postIdList);
-        Page<Post> postPage = this.page(new Page<>(current, size), postQueryWrapper);
-        return getPostVOPage(postPage);
+    /**
+     * 用游标页的游标和总数包装帖子 VO 列表
+     */
+    private CursorPage<PostVO> toPostVoCursorPage(CursorPage<?> cursorPage, List<Post> postList) {
+        Page<Post> postPage = new Page<>(1, Math.max(postList.size(), 1));
+        postPage.setRecords(postList);
+        CursorPage<PostVO> postVoCursorPage = new CursorPage<>(getPostVOPage(postPage).getRecords(),
+                cursorPage.getNextCursor());
+        postVoCursorPage.setTotal(cursorPage.getTotal());
+        return postVoCursorPage;
     }
 
     private void validPostFeaturedRequest(PostFeaturedRequest request){
@@ -151,9 +225,16 @@ public class PostServiceImpl extends ServiceImpl<PostMapper, Post> implements Po
         ThrowUtils.throwIf(StringUtils.isBlank(title), ErrorCode.PARAMS_ERROR, "标题不能为空");
         ThrowUtils.throwIf(StringUtils.isBlank(content), ErrorCode.PARAMS_ERROR, "内容不能为空");
         ThrowUtils.throwIf(StringUtils.isBlank(tags), ErrorCode.PARAMS_ERROR, "标签不能为空");
-        // 敏感词校验（标题和内容）
-        String titleSensitiveWord = wordsUtil.FindFirst(title);
-        String contentSensitiveWord = wordsUtil.FindFirst(content);
+        // 超长的标签写不进 post_tag，按标签过滤时会查不到
+        ThrowUtils.throwIf(JSONUtil.toList(tags, String.class).stream()
+                        .anyMatch(tag -> StringUtils.length(StringUtils.trim(tag)) > TagUtils.MAX_TAG_LENGTH),
+                ErrorCode.PARAMS_ERROR, "单个标签不能超过" + TagUtils.MAX_TAG_LENGTH + "个字符");
+        // 敏感词校验（标题和内容一次扫描）
+        List<SensitiveWordAutomaton.Hit> hits = sensitiveWordManager.scan(title, content);
+        String titleSensitiveWord = hits.stream().filter(hit -> hit.getField() == 0)
+                .map(SensitiveWordAutomaton.Hit::getWord).findFirst().orElse(null);
+        String contentSensitiveWord = hits.stream().filter(hit -> hit.getField() == 1)
+                .map(SensitiveWordAutomaton.Hit::getWord).findFirst().orElse(null);
         // 构建敏感词提示信息
         StringBuilder sensitiveWords = new StringBuilder();
         if (StringUtils.isNotBlank(titleSensitiveWord)) {
@@ -174,6 +255,37 @@ public class PostServiceImpl extends ServiceImpl<PostMapper, Post> implements Po
 
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean savePostWithTags(Post post) {
+        boolean result = save(post);
+        if (result) {
+            postTagService.syncPostTags(post.getId(), post.getTags());
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updatePostWithTags(Post post) {
+        boolean result = updateById(post);
+        // 未传标签时不修改标签
+        if (result && post.getTags() != null) {
+            postTagService.syncPostTags(post.getId(), post.getTags());
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean removePostWithTags(Long postId) {
+        boolean result = removeById(postId);
+        if (result) {
+            postTagService.removePostTags(postId);
+        }
+        return result;
+    }
+
     /**
      * 获取查询包装类
      *
@@ -188,6 +300,8 @@ public class PostServiceImpl extends ServiceImpl<PostMapper, Post> implements Po
         }
         String sortField = postQueryRequest.getSortField();
         String sortOrder = postQueryRequest.getSortOrder();
+        Long id = postQueryRequest.getId();
+        Long notId = postQueryRequest.getNotId();
         String title = postQueryRequest.getTitle();
         String content = postQueryRequest.getContent();
         List<String> tagList = postQueryRequest.getTags();
@@ -201,10 +315,10 @@ public class PostServiceImpl extends ServiceImpl<PostMapper, Post> implements Po
         queryWrapper.like(StringUtils.isNotBlank(title), "title", title);
         queryWrapper.like(StringUtils.isNotBlank(content), "content", content);
         if (CollUtil.isNotEmpty(tagList)) {
-            for (String tag : tagList) {
-                queryWrapper.like("tags", "\"" + tag + "\"");
-            }
+            applyTagFilter(queryWrapper, tagList, postQueryRequest.getTagMatchMode());
         }
+        queryWrapper.ne(ObjectUtils.isNotEmpty(notId), "id", notId);
+        queryWrapper.eq(ObjectUtils.isNotEmpty(id), "id", id);
         queryWrapper.eq(ObjectUtils.isNotEmpty(userId), "userId", userId);
         queryWrapper.eq(ObjectUtils.isNotEmpty(isFeatured), "isFeatured", isFeatured);
         queryWrapper.orderBy(SqlUtils.validSortField(sortField), sortOrder.equals(CommonConstant.SORT_ORDER_ASC),
@@ -212,9 +326,105 @@ public class PostServiceImpl extends ServiceImpl<PostMapper, Post> implements Po
         return queryWrapper;
     }
 
+    /**
+     * 标签过滤走 post_tag 关联表（tagName, postId 索引），替代对 tags json 列的 LIKE 扫描
+     */
+    private void applyTagFilter(QueryWrapper<Post> queryWrapper, List<String> tagList, String tagMatchMode) {
+        List<String> tags = tagList.stream()
+                .filter(StringUtils::isNotBlank)
+                .map(String::trim)
+                .distinct()
+                .collect(Collectors.toList());
+        if (tags.isEmpty()) {
+            return;
+        }
+        if (PostConstant.TAG_MATCH_ANY.equals(tagMatchMode)) {
+            String placeholders = IntStream.range(0, tags.size())
+                    .mapToObj(i -> "{" + i + "}")
+                    .collect(Collectors.joining(","));
+            queryWrapper.apply("id in (select postId from post_tag where tagName in (" + placeholders + "))", tags.toArray());
+            return;
+        }
+        for (String tag : tags) {
+            queryWrapper.apply("id in (select postId from post_tag where tagName = {0})", tag);
+        }
+    }
+
     @Override
     public Page<Post> searchFromEs(PostQueryRequest postQueryRequest) {
-        return null;
+        ThrowUtils.throwIf(postQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        long current = postQueryRequest.getCurrent();
+        long size = postQueryRequest.getPageSize();
+        // 索引全量构建完成前走数据库兜底
+        if (!postSearchManager.isReady()) {
+            return this.page(new Page<>(current, size), getQueryWrapper(postQueryRequest));
+        }
+        return toPostPage(postSearchManager.search(postQueryRequest), current, size);
+    }
+
+    @Override
+    public PostSearchVO searchPostVO(PostQueryRequest postQueryRequest) {
+        ThrowUtils.throwIf(postQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        long current = postQueryRequest.getCurrent();
+        long size = postQueryRequest.getPageSize();
+        PostSearchVO postSearchVO = new PostSearchVO();
+        if (!postSearchManager.isReady()) {
+            Page<Post> postPage = this.page(new Page<>(current, size), getQueryWrapper(postQueryRequest));
+            postSearchVO.setPage(getPostVOPage(postPage));
+            postSearchVO.setTagFacets(Collections.emptyMap());
+            return postSearchVO;
+        }
+        PostSearchManager.PostSearchHits hits = postSearchManager.search(postQueryRequest);
+        Page<PostVO> postVoPage = getPostVOPage(toPostPage(hits, current, size));
+        // 高亮片段单独返回，标题和内容保持原文
+        postVoPage.getRecords().forEach(postVO -> {
+            postVO.setTitleHighlight(hits.getTitleHighlights().get(postVO.getId()));
+            postVO.setContentHighlight(hits.getContentHighlights().get(postVO.getId()));
+        });
+        postSearchVO.setPage(postVoPage);
+        postSearchVO.setTagFacets(hits.getTagFacets());
+        return postSearchVO;
+    }
+
+    @Override
+    public CursorPage<PostVO> listHotPostVoByCursor(CursorPageRequest cursorPageRequest) {
+        PostHotFeedManager.HotFeedPage hotFeedPage = postHotFeedManager.page(cursorPageRequest.getCursor(),
+                cursorPageRequest.getPageSize());
+        List<Long> postIdList = hotFeedPage.getPostIds();
+        if (CollUtil.isEmpty(postIdList)) {
+            return CursorPage.empty();
+        }
+        List<Post> postList = listByIdsInOrder(postIdList);
+        // 热榜与数据库短暂不一致时，移除已删除的帖子
+        if (postList.size() < postIdList.size()) {
+            Set<Long> existIdSet = postList.stream().map(Post::getId).collect(Collectors.toSet());
+            postHotFeedManager.removeAll(postIdList.stream()
+                    .filter(postId -> !existIdSet.contains(postId))
+                    .collect(Collectors.toList()));
+        }
+        Page<Post> postPage = new Page<>(1, postIdList.size());
+        postPage.setRecords(postList);
+        return new CursorPage<>(getPostVOPage(postPage).getRecords(), hotFeedPage.getNextCursor());
+    }
+
+    /**
+     * 按检索命中顺序回表查询帖子
+     */
+    private Page<Post> toPostPage(PostSearchManager.PostSearchHits hits, long current, long size) {
+        Page<Post> postPage = new Page<>(current, size, hits.getTotal());
+        List<Long> postIdList = hits.getPostIds();
+        if (CollUtil.isEmpty(postIdList)) {
+            return postPage;
+        }
+        Map<Long, Post> postIdPostMap = this.listByIds(postIdList).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        List<Post> postList = postIdList.stream()
+                .map(postIdPostMap::get)
+                // 索引与数据库短暂不一致时，已删除的帖子直接跳过
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        postPage.setRecords(postList);
+        return postPage;
     }
 
 
@@ -282,6 +492,9 @@ public class PostServiceImpl extends ServiceImpl<PostMapper, Post> implements Po
             List<PostFavour> postFavourList = postFavourMapper.selectList(postFavourQueryWrapper);
             postFavourList.forEach(postFavour -> postIdHasFavourMap.put(postFavour.getPostId(), true));
         }
+        // 3. 批量获取评论数
+        Map<Long, Integer> postIdCommentNumMap = commentService.getCommentNumMap(
+                postList.stream().map(Post::getId).collect(Collectors.toSet()));
         // 填充信息
         List<PostVO> postVOList = postList.stream().map(post -> {
             PostVO postVO = PostVO.objToVo(post);
@@ -294,8 +507,7 @@ public class PostServiceImpl extends ServiceImpl<PostMapper, Post> implements Po
             postVO.setUser(userService.getUserVO(user));
             postVO.setHasThumb(postIdHasThumbMap.getOrDefault(postId, false));
             postVO.setHasFavour(postIdHasFavourMap.getOrDefault(postId, false));
-            // 获取评论数
-            postVO.setCommentNum(commentService.getCommentNum(postId));
+            postVO.setCommentNum(postIdCommentNumMap.getOrDefault(postId, 0));
             // 获取点赞最高一条评论
             postVO.setThumbComment(commentService.getThumbComment(postId));
             return postVO;
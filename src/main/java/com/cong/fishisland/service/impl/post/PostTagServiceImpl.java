@@ -0,0 +1,254 @@
+package com.cong.fishisland.service.impl.post;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.DatePattern;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.mapper.post.PostTagMapper;
+import com.cong.fishisland.model.entity.post.Post;
+import com.cong.fishisland.model.entity.post.PostTag;
+import com.cong.fishisland.model.vo.tags.TagCountVO;
+import com.cong.fishisland.service.PostTagService;
+import com.cong.fishisland.utils.TagUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.cong.fishisland.constant.PostConstant.POST_ID;
+
+/**
+ * 帖子标签关联服务实现
+ *
+ * @author cong
+ */
+@Service
+@Slf4j
+public class PostTagServiceImpl extends ServiceImpl<PostTagMapper, PostTag> implements PostTagService {
+
+    /**
+     * 回填时每批写入的关联条数
+     */
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    /**
+     * 每日标签计数保留时长
+     */
+    private static final Duration DAILY_COUNT_TTL = Duration.ofDays(31);
+
+    /**
+     * 趋势标签聚合结果缓存时长
+     */
+    private static final Duration TRENDING_CACHE_TTL = Duration.ofMinutes(5);
+
+    /**
+     * 计数键不存在时按需重建的最小间隔
+     */
+    private static final Duration REBUILD_INTERVAL = Duration.ofMinutes(1);
+
+    private static final int MAX_TRENDING_DAYS = 30;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void syncPostTags(Long postId, String tags) {
+        if (postId == null) {
+            return;
+        }
+        Set<String> newTags = TagUtils.parseTags(tags);
+        Set<String> oldTags = listTagNames(postId);
+        List<String> removedTags = oldTags.stream().filter(tag -> !newTags.contains(tag)).collect(Collectors.toList());
+        List<String> addedTags = newTags.stream().filter(tag -> !oldTags.contains(tag)).collect(Collectors.toList());
+        if (CollUtil.isNotEmpty(removedTags)) {
+            this.remove(new QueryWrapper<PostTag>().eq(POST_ID, postId).in("tagName", removedTags));
+        }
+        if (CollUtil.isNotEmpty(addedTags)) {
+            baseMapper.insertIgnoreBatch(addedTags.stream()
+                    .map(tag -> buildPostTag(postId, tag))
+                    .collect(Collectors.toList()));
+        }
+        updateTagCountsAfterCommit(addedTags, removedTags);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void removePostTags(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        Set<String> oldTags = listTagNames(postId);
+        if (oldTags.isEmpty()) {
+            return;
+        }
+        this.remove(new QueryWrapper<PostTag>().eq(POST_ID, postId));
+        updateTagCountsAfterCommit(Collections.emptyList(), oldTags);
+    }
+
+    @Override
+    public long backfill(Iterable<Post> posts) {
+        long total = 0;
+        List<PostTag> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+        for (Post post : posts) {
+            for (String tag : TagUtils.parseTags(post.getTags())) {
+                batch.add(buildPostTag(post.getId(), tag));
+            }
+            if (batch.size() >= BACKFILL_BATCH_SIZE) {
+                total += baseMapper.insertIgnoreBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            total += baseMapper.insertIgnoreBatch(batch);
+        }
+        rebuildTagCounts();
+        return total;
+    }
+
+    @Override
+    public void rebuildTagCounts() {
+        List<TagCountVO> tagCountList = baseMapper.countGroupByTagName();
+        String countKey = RedisKey.getKey(RedisKey.POST_TAG_COUNT);
+        if (CollUtil.isEmpty(tagCountList)) {
+            stringRedisTemplate.delete(countKey);
+            return;
+        }
+        // 先写临时键再 RENAME，重建过程中读到的始终是完整数据
+        String tmpKey = countKey + ":rebuild";
+        stringRedisTemplate.delete(tmpKey);
+        Set<ZSetOperations.TypedTuple<String>> tuples = tagCountList.stream()
+                .map(tagCount -> ZSetOperations.TypedTuple.of(tagCount.getTagName(), tagCount.getCount().doubleValue()))
+                .collect(Collectors.toSet());
+        stringRedisTemplate.opsForZSet().add(tmpKey, tuples);
+        stringRedisTemplate.rename(tmpKey, countKey);
+    }
+
+    @Override
+    public List<TagCountVO> listHotTags(int topN) {
+        String countKey = RedisKey.getKey(RedisKey.POST_TAG_COUNT);
+        // 还没有任何标签时重建后计数键仍不存在，按间隔限制重建次数
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(countKey))
+                && Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(
+                RedisKey.getKey(RedisKey.POST_TAG_COUNT_REBUILT), "1", REBUILD_INTERVAL))) {
+            rebuildTagCounts();
+        }
+        return toTagCountList(stringRedisTemplate.opsForZSet().reverseRangeWithScores(countKey, 0, topN - 1L));
+    }
+
+    @Override
+    public List<TagCountVO> listTrendingTags(int days, int topN) {
+        int validDays = Math.min(Math.max(days, 1), MAX_TRENDING_DAYS);
+        String trendingKey = RedisKey.getKey(RedisKey.POST_TAG_TRENDING, validDays);
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(trendingKey))) {
+            LocalDate today = LocalDate.now();
+            List<String> otherKeys = new ArrayList<>(validDays - 1);
+            for (int i = 1; i < validDays; i++) {
+                otherKeys.add(dailyKey(today.minusDays(i)));
+            }
+            stringRedisTemplate.opsForZSet().unionAndStore(dailyKey(today), otherKeys, trendingKey);
+            stringRedisTemplate.expire(trendingKey, TRENDING_CACHE_TTL);
+        }
+        return toTagCountList(stringRedisTemplate.opsForZSet().reverseRangeWithScores(trendingKey, 0, topN - 1L));
+    }
+
+    private Set<String> listTagNames(Long postId) {
+        return this.list(new QueryWrapper<PostTag>().select("tagName").eq(POST_ID, postId)).stream()
+                .map(PostTag::getTagName)
+                .collect(Collectors.toSet());
+    }
+
+    private static PostTag buildPostTag(Long postId, String tagName) {
+        PostTag postTag = new PostTag();
+        postTag.setPostId(postId);
+        postTag.setTagName(tagName);
+        return postTag;
+    }
+
+    /**
+     * 事务提交后再更新 Redis 计数，回滚时计数不受影响
+     */
+    private void updateTagCountsAfterCommit(Collection<String> addedTags, Collection<String> removedTags) {
+        if (addedTags.isEmpty() && removedTags.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            updateTagCounts(addedTags, removedTags);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                updateTagCounts(addedTags, removedTags);
+            }
+        });
+    }
+
+    /**
+     * 一次管道往返更新总计数和当日计数
+     */
+    private void updateTagCounts(Collection<String> addedTags, Collection<String> removedTags) {
+        byte[] countKey = toBytes(RedisKey.getKey(RedisKey.POST_TAG_COUNT));
+        byte[] todayKey = toBytes(dailyKey(LocalDate.now()));
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String tag : addedTags) {
+                    connection.zSetCommands().zIncrBy(countKey, 1, toBytes(tag));
+                    connection.zSetCommands().zIncrBy(todayKey, 1, toBytes(tag));
+                }
+                for (String tag : removedTags) {
+                    connection.zSetCommands().zIncrBy(countKey, -1, toBytes(tag));
+                }
+                if (!removedTags.isEmpty()) {
+                    connection.zSetCommands().zRemRangeByScore(countKey, Double.NEGATIVE_INFINITY, 0);
+                }
+                expireDailyKey(connection, todayKey, addedTags);
+                return null;
+            });
+        } catch (Exception e) {
+            // 计数仅用于标签云展示，失败时不影响帖子写入，可通过 rebuildTagCounts 校正
+            log.error("更新标签计数失败: added={}, removed={}", addedTags, removedTags, e);
+        }
+    }
+
+    private static void expireDailyKey(RedisConnection connection, byte[] todayKey, Collection<String> addedTags) {
+        if (!addedTags.isEmpty()) {
+            connection.keyCommands().expire(todayKey, DAILY_COUNT_TTL.getSeconds());
+        }
+    }
+
+    private static String dailyKey(LocalDate date) {
+        return RedisKey.getKey(RedisKey.POST_TAG_DAILY_COUNT, date.format(DatePattern.PURE_DATE_FORMATTER));
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<TagCountVO> toTagCountList(Set<ZSetOperations.TypedTuple<String>> tuples) {
+        if (CollUtil.isEmpty(tuples)) {
+            return Collections.emptyList();
+        }
+        return tuples.stream()
+                .filter(tuple -> tuple.getValue() != null && tuple.getScore() != null)
+                .map(tuple -> new TagCountVO(tuple.getValue(), tuple.getScore().longValue()))
+                .collect(Collectors.toList());
+    }
+}
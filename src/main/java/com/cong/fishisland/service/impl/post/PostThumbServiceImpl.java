@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.cong.fishisland.common.ErrorCode;
 import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.manager.PostHotFeedManager;
 import com.cong.fishisland.mapper.post.PostThumbMapper;
 import com.cong.fishisland.model.entity.post.Post;
 import com.cong.fishisland.model.entity.post.PostThumb;
@@ -30,6 +31,8 @@ public class PostThumbServiceImpl extends ServiceImpl<PostThumbMapper, PostThumb
     private PostService postService;
     @Resource
     private EventRemindHandler eventRemindHandler;
+    @Resource
+    private PostHotFeedManager postHotFeedManager;
 
     /**
      * 点赞
@@ -52,6 +55,9 @@ public class PostThumbServiceImpl extends ServiceImpl<PostThumbMapper, PostThumb
         PostThumbService postThumbService = (PostThumbService) AopContext.currentProxy();
         synchronized (String.valueOf(userId).intern()) {
             int result = postThumbService.doPostThumbInner(userId, postId);
+            if (result != 0) {
+                postHotFeedManager.onThumb(postId, result);
+            }
             // 异步处理事件提醒（避免通知自己）
             if (result == 1 && !post.getUserId().equals(userId)) {
                 eventRemindHandler.handlePostLike(postId, userId, post.getUserId());
@@ -447,7 +447,7 @@ public class RedPacketServiceImpl implements RedPacketService {
     /**
      * 计算随机红包金额
      */
-    private Integer calculateRandomAmount(RedPacket redPacket) {
+    static Integer calculateRandomAmount(RedPacket redPacket) {
         // 如果是最后一个红包，直接返回剩余金额
         if (redPacket.getRemainingCount() == 1) {
             return redPacket.getRemainingAmount();
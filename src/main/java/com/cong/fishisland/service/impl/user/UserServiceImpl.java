@@ -91,12 +91,6 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
     private static final String EMAIL_CODE_PREFIX = "email:code:";
 
-    private static final String IP_COUNT_PREFIX = "email:ip:";
-
-    // 限流阈值：同一 IP 10 分钟内最多 5 次
-    private static final int IP_THRESHOLD = 5;
-    private static final Duration IP_WINDOW = Duration.ofMinutes(10);
-
     @Resource
     private RedissonClient redissonClient;
 
@@ -257,21 +251,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if (ipBanned) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "您的 IP 已被封禁，暂时无法发送验证码");
         }
-        // IP 限流 & 日志告警
-        String ipKey = IP_COUNT_PREFIX + clientIp;
-        Long ipCount = stringRedisTemplate.opsForValue().increment(ipKey);
-        if (ipCount != null) {
-            if (ipCount == 1) {
-                // 第一次请求，设置过期时间
-                stringRedisTemplate.expire(ipKey, IP_WINDOW);
-            }
-            if (ipCount > IP_THRESHOLD) {
-                // 超出阈值，记录警告日志
-                log.warn("频繁请求警告：来自 IP [{}] 在 {} 分钟内已请求 {} 次",
-                        clientIp, IP_WINDOW.toMinutes(), ipCount);
-            }
-        }
-
+        // IP 限流见 UserController#userEmailSend 上的 @RateLimit
         // 检查 Redis 是否已有验证码，防止频繁发送
         String redisKey = EMAIL_CODE_PREFIX + email;
         Boolean occupied = stringRedisTemplate.opsForValue()
@@ -0,0 +1,56 @@
+package com.cong.fishisland.utils;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定长字节缓冲区池
+ * <p>
+ * 缓冲区按需创建，数量不超过上限，归还后复用；没有空闲缓冲区时等待，超时返回 null。
+ *
+ * @author cong
+ */
+public class BufferPool {
+
+    private final int bufferSize;
+
+    private final Semaphore permits;
+
+    private final ConcurrentLinkedQueue<byte[]> free = new ConcurrentLinkedQueue<>();
+
+    public BufferPool(int bufferSize, int maxBuffers) {
+        this.bufferSize = bufferSize;
+        this.permits = new Semaphore(maxBuffers);
+    }
+
+    /**
+     * 借出缓冲区，用完必须 {@link #release(byte[])}
+     *
+     * @param timeoutMillis 等待空闲缓冲区的最长时间
+     * @return 缓冲区，超时返回 null
+     */
+    public byte[] acquire(long timeoutMillis) throws InterruptedException {
+        if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        byte[] buffer = free.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    public void release(byte[] buffer) {
+        free.offer(buffer);
+        permits.release();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 当前可借出的缓冲区数
+     */
+    public int available() {
+        return permits.availablePermits();
+    }
+}
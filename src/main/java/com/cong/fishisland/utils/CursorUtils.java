@@ -0,0 +1,161 @@
+package com.cong.fishisland.utils;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.codec.Base64;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.cong.fishisland.common.CursorPage;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.PageRequest;
+import com.cong.fishisland.constant.CommonConstant;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.common.exception.ThrowUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 游标（keyset）分页工具
+ * <p>
+ * 按 (排序字段, id) 定位上一页最后一条记录，用 where 条件代替 offset，翻页深度不影响查询耗时；
+ * 游标对调用方不透明，内容为 Base64(排序字段,类型值,id)。排序字段须与数据库列同名且非空。
+ *
+ * @author cong
+ */
+public class CursorUtils {
+
+    private static final String ID = "id";
+
+    private static final String CREATE_TIME = "createTime";
+
+    private static final char TYPE_DATE = 'd';
+
+    private static final char TYPE_NUMBER = 'n';
+
+    private static final char TYPE_STRING = 's';
+
+    private CursorUtils() {
+    }
+
+    /**
+     * 按分页请求的排序字段、游标和页面大小分页
+     * <p>
+     * 未指定排序字段时按创建时间倒序（最新在前），不使用 {@link PageRequest} 默认的升序。
+     *
+     * @param mapper       实体 Mapper
+     * @param queryWrapper 过滤条件（已有的排序会被替换）
+     * @param pageRequest  分页请求
+     * @return {@link CursorPage}
+     */
+    public static <T> CursorPage<T> page(BaseMapper<T> mapper, QueryWrapper<T> queryWrapper, PageRequest pageRequest) {
+        String sortField = pageRequest.getSortField();
+        if (StringUtils.isBlank(sortField)) {
+            return page(mapper, queryWrapper, CREATE_TIME, false, pageRequest.getCursor(), pageRequest.getPageSize(),
+                    Boolean.TRUE.equals(pageRequest.getSearchCount()));
+        }
+        return page(mapper, queryWrapper, sortField, CommonConstant.SORT_ORDER_ASC.equals(pageRequest.getSortOrder()),
+                pageRequest.getCursor(), pageRequest.getPageSize(), Boolean.TRUE.equals(pageRequest.getSearchCount()));
+    }
+
+    /**
+     * 游标分页查询
+     *
+     * @param mapper       实体 Mapper
+     * @param queryWrapper 过滤条件（已有的排序会被替换）
+     * @param sortField    排序字段（为空按 id 排序）
+     * @param asc          是否升序
+     * @param cursor       上一页游标（首页为空）
+     * @param pageSize     页面大小
+     * @param searchCount  是否查询总数
+     * @return {@link CursorPage}
+     */
+    public static <T> CursorPage<T> page(BaseMapper<T> mapper, QueryWrapper<T> queryWrapper, String sortField,
+                                         boolean asc, String cursor, int pageSize, boolean searchCount) {
+        ThrowUtils.throwIf(pageSize <= 0, ErrorCode.PARAMS_ERROR);
+        String field = StringUtils.isBlank(sortField) ? ID : sortField;
+        ThrowUtils.throwIf(!SqlUtils.validSortField(field), ErrorCode.PARAMS_ERROR, "排序字段不合法");
+        queryWrapper.getExpression().getOrderBy().clear();
+        Long total = searchCount ? mapper.selectCount(queryWrapper) : null;
+
+        Object[] position = decodeCursor(cursor, field);
+        if (position != null) {
+            Object sortValue = position[0];
+            Long lastId = (Long) position[1];
+            if (ID.equals(field)) {
+                queryWrapper.gt(asc, ID, lastId).lt(!asc, ID, lastId);
+            } else {
+                queryWrapper.and(qw -> qw.gt(asc, field, sortValue).lt(!asc, field, sortValue)
+                        .or(sub -> sub.eq(field, sortValue).gt(asc, ID, lastId).lt(!asc, ID, lastId)));
+            }
+        }
+        if (ID.equals(field)) {
+            queryWrapper.orderBy(true, asc, ID);
+        } else {
+            queryWrapper.orderBy(true, asc, field, ID);
+        }
+        // 多取一条判断是否还有下一页
+        queryWrapper.last("limit " + (pageSize + 1));
+        List<T> records = mapper.selectList(queryWrapper);
+
+        String nextCursor = null;
+        if (records.size() > pageSize) {
+            records = records.subList(0, pageSize);
+            nextCursor = encodeCursor(records.get(pageSize - 1), field);
+        }
+        CursorPage<T> cursorPage = new CursorPage<>(records, nextCursor);
+        cursorPage.setTotal(total);
+        return cursorPage;
+    }
+
+    static String encodeCursor(Object record, String field) {
+        Object sortValue = BeanUtil.getFieldValue(record, field);
+        Object id = BeanUtil.getFieldValue(record, ID);
+        if (sortValue == null || id == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "排序字段不支持游标分页");
+        }
+        String typedValue;
+        if (sortValue instanceof Date) {
+            typedValue = TYPE_DATE + String.valueOf(((Date) sortValue).getTime());
+        } else if (sortValue instanceof Number) {
+            typedValue = TYPE_NUMBER + sortValue.toString();
+        } else {
+            typedValue = TYPE_STRING + sortValue.toString();
+        }
+        return Base64.encodeUrlSafe(field + "," + typedValue + "," + id);
+    }
+
+    /**
+     * @return [排序字段值, id]，游标为空时返回 null
+     */
+    static Object[] decodeCursor(String cursor, String field) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            String decoded = Base64.decodeStr(cursor);
+            int first = decoded.indexOf(',');
+            int last = decoded.lastIndexOf(',');
+            String cursorField = decoded.substring(0, first);
+            String typedValue = decoded.substring(first + 1, last);
+            Long id = Long.valueOf(decoded.substring(last + 1));
+            if (!field.equals(cursorField) || typedValue.isEmpty()) {
+                throw new IllegalArgumentException();
+            }
+            String value = typedValue.substring(1);
+            switch (typedValue.charAt(0)) {
+                case TYPE_DATE:
+                    return new Object[]{new Date(Long.parseLong(value)), id};
+                case TYPE_NUMBER:
+                    return new Object[]{new BigDecimal(value), id};
+                case TYPE_STRING:
+                    return new Object[]{value, id};
+                default:
+                    throw new IllegalArgumentException();
+            }
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标不合法");
+        }
+    }
+}
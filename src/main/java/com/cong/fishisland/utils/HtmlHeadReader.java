@@ -0,0 +1,83 @@
+package com.cong.fishisland.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 只读取 HTML 的 head 部分
+ * <p>
+ * 读到 &lt;/head&gt; 或达到字节上限即停止，不读取正文；编码优先取响应头，其次取 head 中的 meta charset。
+ *
+ * @author cong
+ */
+public class HtmlHeadReader {
+
+    private static final byte[] HEAD_END = "</head".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Pattern META_CHARSET = Pattern.compile("<meta[^>]+charset\\s*=\\s*[\"']?([\\w-]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private HtmlHeadReader() {
+    }
+
+    /**
+     * 读取 head 部分
+     *
+     * @param in       响应体
+     * @param charset  响应头声明的编码，可为空
+     * @param maxBytes 最多读取的字节数
+     * @return head 部分的 HTML（包含 &lt;/head&gt; 之前的全部内容）
+     */
+    public static String read(InputStream in, Charset charset, int maxBytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(maxBytes, CHUNK_SIZE * 4));
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int headEnd = -1;
+        while (out.size() < maxBytes) {
+            int n = in.read(chunk, 0, Math.min(chunk.length, maxBytes - out.size()));
+            if (n == -1) {
+                break;
+            }
+            int searchFrom = Math.max(0, out.size() - HEAD_END.length + 1);
+            out.write(chunk, 0, n);
+            headEnd = indexOfIgnoreCase(out.toByteArray(), searchFrom, out.size());
+            if (headEnd >= 0) {
+                break;
+            }
+        }
+        byte[] bytes = out.toByteArray();
+        int length = headEnd >= 0 ? headEnd : bytes.length;
+        return new String(bytes, 0, length, charset != null ? charset : detectCharset(bytes, length));
+    }
+
+    private static Charset detectCharset(byte[] bytes, int length) {
+        Matcher matcher = META_CHARSET.matcher(new String(bytes, 0, length, StandardCharsets.ISO_8859_1));
+        if (matcher.find()) {
+            try {
+                return Charset.forName(matcher.group(1));
+            } catch (IllegalArgumentException e) {
+                // 不认识的编码按 UTF-8 处理
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static int indexOfIgnoreCase(byte[] bytes, int from, int to) {
+        outer:
+        for (int i = from; i <= to - HEAD_END.length; i++) {
+            for (int j = 0; j < HEAD_END.length; j++) {
+                if (Character.toLowerCase(bytes[i + j]) != HEAD_END[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
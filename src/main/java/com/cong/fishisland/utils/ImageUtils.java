@@ -0,0 +1,201 @@
+package com.cong.fishisland.utils;
+
+import lombok.Data;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * 图片缩放工具
+ * <p>
+ * 解码前先读取图片尺寸：像素数超过上限直接拒绝，大图按需要的最大尺寸降采样解码，
+ * 解码占用的内存只与目标尺寸有关，不随原图增大；输入流只缓存在内存中，不写临时文件。
+ *
+ * @author cong
+ */
+public class ImageUtils {
+
+    private static final String GIF = "gif";
+
+    private ImageUtils() {
+    }
+
+    /**
+     * 解码图片，动图只解码第一帧
+     *
+     * @param in        图片输入流
+     * @param maxSide   后续需要的最大边长，解码结果的长边不小于它（原图更小时除外）且小于它的两倍
+     * @param maxPixels 原图像素数上限
+     * @return 解码结果，不支持的格式返回 null
+     * @throws IOException 读取失败或像素数超过上限
+     */
+    public static DecodedImage decode(InputStream in, int maxSide, long maxPixels) throws IOException {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, false, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("图片像素数超过上限：" + width + "x" + height);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / maxSide);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+
+                DecodedImage decoded = new DecodedImage();
+                decoded.setImage(image);
+                decoded.setWidth(width);
+                decoded.setHeight(height);
+                decoded.setFormat(reader.getFormatName().toLowerCase());
+                decoded.setAnimated(GIF.equals(decoded.getFormat()) && reader.getNumImages(true) > 1);
+                return decoded;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 等比缩小到长边不超过 maxSide，不放大；逐次减半缩小以保证缩略图质量
+     */
+    public static BufferedImage resize(BufferedImage image, int maxSide) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxSide / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        int type = hasAlpha(image) ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * 编码图片：不透明的图片编码为 JPEG，带透明通道的编码为 PNG
+     *
+     * @param quality JPEG 质量（0~1）
+     */
+    public static EncodedImage encode(BufferedImage image, float quality) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EncodedImage encoded = new EncodedImage();
+        if (hasAlpha(image)) {
+            try (MemoryCacheImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+                ImageIO.write(image, "png", ios);
+            }
+            encoded.setExtension("png");
+            encoded.setContentType("image/png");
+        } else {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (MemoryCacheImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+                writer.setOutput(ios);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.write(null, new IIOImage(toRgb(image), null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            encoded.setExtension("jpg");
+            encoded.setContentType("image/jpeg");
+        }
+        encoded.setData(out.toByteArray());
+        return encoded;
+    }
+
+    private static boolean hasAlpha(BufferedImage image) {
+        return image.getColorModel().hasAlpha();
+    }
+
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * 解码结果
+     */
+    @Data
+    public static class DecodedImage {
+
+        /**
+         * 解码（可能已降采样）后的图片，动图为第一帧
+         */
+        private BufferedImage image;
+
+        /**
+         * 原图宽度
+         */
+        private int width;
+
+        /**
+         * 原图高度
+         */
+        private int height;
+
+        /**
+         * 图片格式，如 jpeg、png、gif
+         */
+        private String format;
+
+        /**
+         * 是否为多帧动图
+         */
+        private boolean animated;
+    }
+
+    /**
+     * 编码结果
+     */
+    @Data
+    public static class EncodedImage {
+
+        private byte[] data;
+
+        private String extension;
+
+        private String contentType;
+    }
+}
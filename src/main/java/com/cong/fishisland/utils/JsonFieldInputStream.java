@@ -0,0 +1,124 @@
+package com.cong.fishisland.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 从 JSON 响应流中读取指定字符串字段的值
+ * <p>
+ * 边读边扫描，找到字段后只输出字段值的字节（去掉引号、还原转义），读完即结束，
+ * 适合从 {"data":[{"b64_json":"..."}]} 这类响应中取出体积很大的 base64 内容，不把整个响应读入内存。
+ * 只匹配第一次出现的字段名，字段值需为不含 \\u 转义的字符串。
+ *
+ * @author cong
+ */
+public class JsonFieldInputStream extends FilterInputStream {
+
+    private final byte[] pattern;
+
+    /**
+     * 0 未找到，1 已在字段值中，2 已读完
+     */
+    private int state;
+
+    public JsonFieldInputStream(InputStream in, String field) {
+        super(in);
+        this.pattern = ("\"" + field + "\"").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 定位到字段值的起始位置
+     *
+     * @return 是否找到字段
+     */
+    public boolean find() throws IOException {
+        if (state != 0) {
+            return state == 1;
+        }
+        int matched = 0;
+        int b;
+        while (matched < pattern.length && (b = in.read()) != -1) {
+            if (b == pattern[matched]) {
+                matched++;
+            } else {
+                matched = b == pattern[0] ? 1 : 0;
+            }
+        }
+        if (matched < pattern.length || !skipTo(':') || !skipTo('"')) {
+            state = 2;
+            return false;
+        }
+        state = 1;
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!find()) {
+            return -1;
+        }
+        int b = in.read();
+        if (b == '\\') {
+            b = in.read();
+        } else if (b == '"') {
+            b = -1;
+        }
+        if (b == -1) {
+            state = 2;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int count = 0;
+        while (count < len) {
+            int b = read();
+            if (b == -1) {
+                break;
+            }
+            buffer[off + count++] = (byte) b;
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && read() != -1) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * 跳过空白直到指定字符
+     */
+    private boolean skipTo(char expected) throws IOException {
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == expected) {
+                return true;
+            }
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,114 @@
+package com.cong.fishisland.utils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 标题 MinHash 签名，用于跨来源标题近似匹配
+ * <p>
+ * 标题去掉空白和标点并统一小写后，以相邻两个字符为一个元素（单字标题取单字）；
+ * 两个签名相同位置相等的比例即元素集合 Jaccard 相似度的估计。
+ * 签名按 {@link #BANDS} 段切分，任意一段完全相同即为候选（LSH），再用估计的相似度确认。
+ *
+ * @author cong
+ */
+public final class MinHashUtils {
+
+    public static final int HASH_COUNT = 32;
+
+    public static final int BANDS = 16;
+
+    private static final int ROWS = HASH_COUNT / BANDS;
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * 哈希函数 h(x) = (a * x + b) 的高 32 位，a 为奇数；种子固定，签名可跨进程比较
+     */
+    private static final long[] SEEDS_A = new long[HASH_COUNT];
+    private static final long[] SEEDS_B = new long[HASH_COUNT];
+
+    static {
+        Random random = new Random(0x5EED_1234L);
+        for (int i = 0; i < HASH_COUNT; i++) {
+            SEEDS_A[i] = random.nextLong() | 1L;
+            SEEDS_B[i] = random.nextLong();
+        }
+    }
+
+    private MinHashUtils() {
+    }
+
+    /**
+     * 计算签名，没有有效字符时返回空数组
+     */
+    public static int[] signature(String text) {
+        if (text == null) {
+            return EMPTY;
+        }
+        char[] chars = new char[text.length()];
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                chars[length++] = Character.toLowerCase(c);
+            }
+        }
+        if (length == 0) {
+            return EMPTY;
+        }
+        int[] signature = new int[HASH_COUNT];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        if (length == 1) {
+            update(signature, chars[0]);
+        }
+        for (int i = 1; i < length; i++) {
+            update(signature, (chars[i - 1] << 16) | chars[i]);
+        }
+        return signature;
+    }
+
+    /**
+     * 估计的 Jaccard 相似度，任一签名为空时为 0
+     */
+    public static double similarity(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return 0D;
+        }
+        int same = 0;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / HASH_COUNT;
+    }
+
+    /**
+     * 各段的桶键（已混入段号），签名为空时返回空数组
+     */
+    public static long[] bandKeys(int[] signature) {
+        if (signature.length == 0) {
+            return new long[0];
+        }
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                key = key * 0x9E3779B97F4A7C15L + signature[band * ROWS + row];
+            }
+            keys[band] = key ^ (key >>> 31);
+        }
+        return keys;
+    }
+
+    private static void update(int[] signature, int element) {
+        long x = element & 0xFFFFFFFFL;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            int hash = (int) ((SEEDS_A[i] * x + SEEDS_B[i]) >>> 32);
+            if (hash < signature[i]) {
+                signature[i] = hash;
+            }
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.cong.fishisland.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 敏感词自动机（双数组 Trie + Aho-Corasick 失配链）
+ * <p>
+ * 构建后不可变，可被多线程并发读取；词库变化时整体重建并替换引用。
+ * 字符先经 65536 长度的码表映射为紧凑编码（不在任何敏感词中的字符编码为 0，直接回到根节点），
+ * 转移为 base[s] + code 的数组寻址。匹配忽略 ASCII 和全角字母大小写及全半角差异。
+ *
+ * @author cong
+ */
+public final class SensitiveWordAutomaton {
+
+    public static final SensitiveWordAutomaton EMPTY = build(Collections.emptyList());
+
+    private static final int ROOT = 0;
+
+    /**
+     * 字符 -> 编码（已包含大小写、全半角归一）
+     */
+    private final char[] codes = new char[Character.MAX_VALUE + 1];
+
+    /**
+     * 双数组：状态 s 经编码 c 转移到 t = base[s] + c，当且仅当 check[t] == s + 1
+     */
+    private final int[] base;
+    private final int[] check;
+
+    private final int[] fail;
+
+    /**
+     * 以该状态结尾的敏感词长度，0 表示不是词尾
+     */
+    private final int[] outputLength;
+
+    /**
+     * 该状态（含自身）沿失配链最近的词尾状态，0 表示没有
+     */
+    private final int[] firstOutput;
+
+    /**
+     * 失配链上更短的下一个词尾状态，0 表示没有
+     */
+    private final int[] nextOutput;
+
+    private final int wordCount;
+
+    private SensitiveWordAutomaton(List<String> words) {
+        // 1. 归一化字符编码
+        char[] normalizedCodes = new char[Character.MAX_VALUE + 1];
+        char codeCount = 0;
+        for (String word : words) {
+            for (int i = 0; i < word.length(); i++) {
+                char c = normalize(word.charAt(i));
+                if (normalizedCodes[c] == 0) {
+                    normalizedCodes[c] = ++codeCount;
+                }
+            }
+        }
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            codes[c] = normalizedCodes[normalize((char) c)];
+        }
+
+        // 2. 构建普通 Trie
+        List<TreeMap<Integer, Integer>> children = new ArrayList<>();
+        children.add(new TreeMap<>());
+        List<Integer> lengths = new ArrayList<>();
+        lengths.add(0);
+        int count = 0;
+        for (String word : words) {
+            int node = ROOT;
+            for (int i = 0; i < word.length(); i++) {
+                int code = codes[word.charAt(i)];
+                Integer next = children.get(node).get(code);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    lengths.add(0);
+                    children.get(node).put(code, next);
+                }
+                node = next;
+            }
+            if (lengths.get(node) == 0) {
+                count++;
+            }
+            lengths.set(node, word.length());
+        }
+        this.wordCount = count;
+
+        // 3. 按层序为每个节点分配 base，压缩为双数组
+        int capacity = Math.max(children.size() * 2, codeCount + 2);
+        int[] bases = new int[capacity];
+        int[] checks = new int[capacity];
+        int[] lengthOf = new int[capacity];
+        int[] stateOf = new int[children.size()];
+        boolean[] used = new boolean[capacity];
+        used[ROOT] = true;
+        int size = 1;
+        int firstFree = 1;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(ROOT);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            int state = stateOf[node];
+            TreeMap<Integer, Integer> edges = children.get(node);
+            if (edges.isEmpty()) {
+                continue;
+            }
+            while (firstFree < used.length && used[firstFree]) {
+                firstFree++;
+            }
+            int b = Math.max(firstFree - edges.firstKey(), 1);
+            while (true) {
+                int required = b + edges.lastKey() + 1;
+                if (required > used.length) {
+                    int newCapacity = Math.max(required, used.length * 2);
+                    used = Arrays.copyOf(used, newCapacity);
+                    bases = Arrays.copyOf(bases, newCapacity);
+                    checks = Arrays.copyOf(checks, newCapacity);
+                    lengthOf = Arrays.copyOf(lengthOf, newCapacity);
+                }
+                boolean free = true;
+                for (int code : edges.keySet()) {
+                    if (used[b + code]) {
+                        free = false;
+                        break;
+                    }
+                }
+                if (free) {
+                    break;
+                }
+                b++;
+            }
+            bases[state] = b;
+            for (Map.Entry<Integer, Integer> edge : edges.entrySet()) {
+                int target = b + edge.getKey();
+                used[target] = true;
+                checks[target] = state + 1;
+                stateOf[edge.getValue()] = target;
+                lengthOf[target] = lengths.get(edge.getValue());
+                size = Math.max(size, target + 1);
+                queue.add(edge.getValue());
+            }
+        }
+        // check 末尾预留一个字母表长度，base[s] + code 不会越界
+        base = Arrays.copyOf(bases, size);
+        check = Arrays.copyOf(checks, size + codeCount + 1);
+        outputLength = Arrays.copyOf(lengthOf, size);
+
+        // 4. 按层序计算失配指针和输出链
+        fail = new int[size];
+        firstOutput = new int[size];
+        nextOutput = new int[size];
+        queue.add(ROOT);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            int state = stateOf[node];
+            for (Map.Entry<Integer, Integer> edge : children.get(node).entrySet()) {
+                int target = stateOf[edge.getValue()];
+                int failState = state == ROOT ? ROOT : step(fail[state], edge.getKey());
+                fail[target] = failState;
+                nextOutput[target] = firstOutput[failState];
+                firstOutput[target] = outputLength[target] > 0 ? target : firstOutput[failState];
+                queue.add(edge.getValue());
+            }
+        }
+    }
+
+    /**
+     * 构建自动机（空白词忽略，重复词去重）
+     */
+    public static SensitiveWordAutomaton build(Collection<String> words) {
+        List<String> trimmedWords = new ArrayList<>(words.size());
+        for (String word : words) {
+            if (word != null && !word.trim().isEmpty()) {
+                trimmedWords.add(word.trim());
+            }
+        }
+        return new SensitiveWordAutomaton(trimmedWords);
+    }
+
+    /**
+     * 词库中的敏感词数量
+     */
+    public int size() {
+        return wordCount;
+    }
+
+    /**
+     * 是否包含敏感词
+     */
+    public boolean containsAny(CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        final char[] codeTable = codes;
+        final int[] outputs = firstOutput;
+        int state = ROOT;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            int code = codeTable[text.charAt(i)];
+            if (code == 0) {
+                state = ROOT;
+                continue;
+            }
+            state = step(state, code);
+            if (outputs[state] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 返回最先出现（词尾最靠前）的敏感词原文，没有时返回 null
+     */
+    public String findFirst(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        final char[] codeTable = codes;
+        final int[] outputs = firstOutput;
+        int state = ROOT;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            int code = codeTable[text.charAt(i)];
+            if (code == 0) {
+                state = ROOT;
+                continue;
+            }
+            state = step(state, code);
+            int output = outputs[state];
+            if (output != 0) {
+                return text.subSequence(i + 1 - outputLength[output], i + 1).toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 一次遍历扫描多个字段，返回全部命中（含重叠命中）
+     *
+     * @param fields 待扫描字段，null 跳过
+     * @return 命中列表，按字段、词尾位置排序
+     */
+    public List<Hit> scan(CharSequence... fields) {
+        List<Hit> hits = null;
+        for (int field = 0; field < fields.length; field++) {
+            CharSequence text = fields[field];
+            if (text == null) {
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0, length = text.length(); i < length; i++) {
+                int code = codes[text.charAt(i)];
+                if (code == 0) {
+                    state = ROOT;
+                    continue;
+                }
+                state = step(state, code);
+                int output = firstOutput[state];
+                while (output != 0) {
+                    if (hits == null) {
+                        hits = new ArrayList<>();
+                    }
+                    int start = i + 1 - outputLength[output];
+                    hits.add(new Hit(field, start, i + 1, text.subSequence(start, i + 1).toString()));
+                    output = nextOutput[output];
+                }
+            }
+        }
+        return hits == null ? Collections.emptyList() : hits;
+    }
+
+    /**
+     * 将文本追加到 out 并把命中部分替换为 mask，除 out 扩容外不产生额外对象
+     */
+    public void replace(CharSequence text, char mask, StringBuilder out) {
+        if (text == null) {
+            return;
+        }
+        int offset = out.length();
+        out.append(text);
+        int state = ROOT;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            int code = codes[text.charAt(i)];
+            if (code == 0) {
+                state = ROOT;
+                continue;
+            }
+            state = step(state, code);
+            int output = firstOutput[state];
+            if (output != 0) {
+                // 输出链上第一个即最长的词，覆盖了其余后缀词
+                for (int j = offset + i + 1 - outputLength[output]; j <= offset + i; j++) {
+                    out.setCharAt(j, mask);
+                }
+            }
+        }
+    }
+
+    /**
+     * 将命中部分替换为 *
+     */
+    public String replace(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        replace(text, '*', out);
+        return out.toString();
+    }
+
+    private int step(int state, int code) {
+        while (true) {
+            int target = base[state] + code;
+            if (check[target] == state + 1) {
+                return target;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    /**
+     * 全角转半角、大写转小写
+     */
+    static char normalize(char c) {
+        if (c >= '\uFF01' && c <= '\uFF5E') {
+            c = (char) (c - 0xFEE0);
+        } else if (c == '\u3000') {
+            c = ' ';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            c = (char) (c + ('a' - 'A'));
+        }
+        return c;
+    }
+
+    /**
+     * 敏感词命中
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Hit {
+
+        /**
+         * 命中字段下标（scan 参数顺序）
+         */
+        private final int field;
+
+        /**
+         * 起始位置（含）
+         */
+        private final int start;
+
+        /**
+         * 结束位置（不含）
+         */
+        private final int end;
+
+        /**
+         * 命中的原文
+         */
+        private final String word;
+    }
+}
@@ -0,0 +1,50 @@
+package com.cong.fishisland.utils;
+
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 帖子标签工具
+ *
+ * @author cong
+ */
+@Slf4j
+public class TagUtils {
+
+    /**
+     * 标签最大长度（与 post_tag.tagName 一致），发帖和编辑时超长的标签直接拒绝
+     */
+    public static final int MAX_TAG_LENGTH = 80;
+
+    private TagUtils() {
+    }
+
+    /**
+     * 解析帖子标签 json，去空、去重并保持原有顺序
+     *
+     * @param tags 标签列表 json
+     * @return 标签集合
+     */
+    public static Set<String> parseTags(String tags) {
+        if (StringUtils.isBlank(tags)) {
+            return Collections.emptySet();
+        }
+        Set<String> tagSet = new LinkedHashSet<>();
+        try {
+            for (String tag : JSONUtil.toList(tags, String.class)) {
+                String trimmed = StringUtils.trim(tag);
+                if (StringUtils.isNotBlank(trimmed) && trimmed.length() <= MAX_TAG_LENGTH) {
+                    tagSet.add(trimmed);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("帖子标签解析失败: tags={}", tags);
+        }
+        return tagSet;
+    }
+}
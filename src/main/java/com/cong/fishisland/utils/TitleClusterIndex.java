@@ -0,0 +1,218 @@
+package com.cong.fishisland.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 跨来源标题聚类索引（MinHash + LSH）
+ * <p>
+ * 每个来源整体替换自己的条目，替换时只对新增和移除的条目增删桶；
+ * 两个条目来自不同来源、至少有一个桶相同且估计相似度达到阈值时视为同一话题。
+ * 方法都加了锁，可被并发抓取的多个来源同时调用。
+ *
+ * @param <T> 条目附带的数据
+ * @author cong
+ */
+public class TitleClusterIndex<T> {
+
+    private final Function<T, String> titleOf;
+
+    private final double threshold;
+
+    /**
+     * 条目键 -> 条目
+     */
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+
+    /**
+     * 桶键 -> 条目键
+     */
+    private final Map<Long, Set<String>> buckets = new HashMap<>();
+
+    /**
+     * 来源 -> 条目键
+     */
+    private final Map<String, Set<String>> sourceKeys = new HashMap<>();
+
+    public TitleClusterIndex(Function<T, String> titleOf, double threshold) {
+        this.titleOf = titleOf;
+        this.threshold = threshold;
+    }
+
+    /**
+     * 用最新的条目替换某个来源的全部条目
+     *
+     * @param source 来源
+     * @param items  条目键 -> 条目
+     */
+    public synchronized void replaceSource(String source, Map<String, T> items) {
+        Set<String> oldKeys = sourceKeys.getOrDefault(source, Collections.emptySet());
+        for (String key : oldKeys) {
+            if (!items.containsKey(key)) {
+                remove(key);
+            }
+        }
+        for (Map.Entry<String, T> item : items.entrySet()) {
+            Entry<T> entry = entries.get(item.getKey());
+            String title = titleOf.apply(item.getValue());
+            if (entry != null && Objects.equals(entry.title, title)) {
+                entry.value = item.getValue();
+                continue;
+            }
+            if (entry != null) {
+                remove(item.getKey());
+            }
+            add(source, item.getKey(), title, item.getValue());
+        }
+        if (items.isEmpty()) {
+            sourceKeys.remove(source);
+        } else {
+            sourceKeys.put(source, new HashSet<>(items.keySet()));
+        }
+    }
+
+    /**
+     * 某个来源各条目所在话题覆盖的来源数（含自身）
+     */
+    public synchronized Map<String, Integer> sourceCounts(String source) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String key : sourceKeys.getOrDefault(source, Collections.emptySet())) {
+            Set<String> sources = new HashSet<>();
+            sources.add(source);
+            for (String other : similarKeys(key)) {
+                sources.add(entries.get(other).source);
+            }
+            counts.put(key, sources.size());
+        }
+        return counts;
+    }
+
+    /**
+     * 覆盖至少 minSources 个来源的话题（话题内条目无序）
+     */
+    public synchronized List<List<T>> clusters(int minSources) {
+        Map<String, String> parent = new HashMap<>();
+        for (String key : entries.keySet()) {
+            for (String other : similarKeys(key)) {
+                union(parent, key, other);
+            }
+        }
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (String key : entries.keySet()) {
+            if (parent.containsKey(key)) {
+                groups.computeIfAbsent(find(parent, key), root -> new ArrayList<>()).add(key);
+            }
+        }
+        List<List<T>> clusters = new ArrayList<>();
+        for (List<String> group : groups.values()) {
+            Set<String> sources = new HashSet<>();
+            List<T> values = new ArrayList<>(group.size());
+            for (String key : group) {
+                Entry<T> entry = entries.get(key);
+                sources.add(entry.source);
+                values.add(entry.value);
+            }
+            if (sources.size() >= minSources) {
+                clusters.add(values);
+            }
+        }
+        return clusters;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Set<String> similarKeys(String key) {
+        Entry<T> entry = entries.get(key);
+        Set<String> result = new HashSet<>();
+        for (long bandKey : entry.bandKeys) {
+            for (String other : buckets.get(bandKey)) {
+                if (result.contains(other)) {
+                    continue;
+                }
+                Entry<T> candidate = entries.get(other);
+                if (!candidate.source.equals(entry.source)
+                        && MinHashUtils.similarity(entry.signature, candidate.signature) >= threshold) {
+                    result.add(other);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void add(String source, String key, String title, T value) {
+        int[] signature = MinHashUtils.signature(title);
+        Entry<T> entry = new Entry<>(source, title, signature, MinHashUtils.bandKeys(signature), value);
+        entries.put(key, entry);
+        for (long bandKey : entry.bandKeys) {
+            buckets.computeIfAbsent(bandKey, k -> new HashSet<>()).add(key);
+        }
+    }
+
+    private void remove(String key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (long bandKey : entry.bandKeys) {
+            Set<String> bucket = buckets.get(bandKey);
+            bucket.remove(key);
+            if (bucket.isEmpty()) {
+                buckets.remove(bandKey);
+            }
+        }
+    }
+
+    private static String find(Map<String, String> parent, String key) {
+        String root = key;
+        while (!parent.get(root).equals(root)) {
+            root = parent.get(root);
+        }
+        while (!key.equals(root)) {
+            String next = parent.get(key);
+            parent.put(key, root);
+            key = next;
+        }
+        return root;
+    }
+
+    private static void union(Map<String, String> parent, String a, String b) {
+        parent.putIfAbsent(a, a);
+        parent.putIfAbsent(b, b);
+        String rootA = find(parent, a);
+        String rootB = find(parent, b);
+        if (!rootA.equals(rootB)) {
+            parent.put(rootB, rootA);
+        }
+    }
+
+    private static class Entry<T> {
+
+        private final String source;
+
+        private final String title;
+
+        private final int[] signature;
+
+        private final long[] bandKeys;
+
+        private T value;
+
+        private Entry(String source, String title, int[] signature, long[] bandKeys, T value) {
+            this.source = source;
+            this.title = title;
+            this.signature = signature;
+            this.bandKeys = bandKeys;
+            this.value = value;
+        }
+    }
+}
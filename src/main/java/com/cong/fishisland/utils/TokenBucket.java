@@ -0,0 +1,61 @@
+package com.cong.fishisland.utils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶，容量即允许的突发量，令牌按固定速率连续补充
+ *
+ * @author cong
+ */
+public final class TokenBucket {
+
+    private final double capacity;
+
+    /**
+     * 每纳秒补充的令牌数
+     */
+    private final double refillPerNano;
+
+    private double tokens;
+
+    private long lastRefillTime;
+
+    public TokenBucket(int permitsPerMinute) {
+        this(permitsPerMinute, permitsPerMinute, System.nanoTime());
+    }
+
+    /**
+     * @param capacity 容量，即允许的突发量
+     * @param permits  每个周期补充的令牌数
+     * @param period   周期
+     */
+    public TokenBucket(int capacity, int permits, Duration period) {
+        this(capacity, permits, period.toNanos(), System.nanoTime());
+    }
+
+    TokenBucket(double capacity, int permitsPerMinute, long now) {
+        this(capacity, permitsPerMinute, TimeUnit.MINUTES.toNanos(1), now);
+    }
+
+    TokenBucket(double capacity, int permits, long periodNanos, long now) {
+        this.capacity = capacity;
+        this.refillPerNano = permits / (double) periodNanos;
+        this.tokens = capacity;
+        this.lastRefillTime = now;
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    synchronized boolean tryAcquire(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefillTime) * refillPerNano);
+        lastRefillTime = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
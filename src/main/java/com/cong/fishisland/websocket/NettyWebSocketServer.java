@@ -1,7 +1,10 @@
 package com.cong.fishisland.websocket;
 
+import com.cong.fishisland.config.RateLimitConfig;
+import com.cong.fishisland.manager.RequestMetricsManager;
 import com.cong.fishisland.websocket.handler.HttpHeadersHandler;
 import com.cong.fishisland.websocket.handler.NettyWebSocketServerHandler;
+import com.cong.fishisland.websocket.handler.WebSocketRateLimitHandler;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
@@ -24,6 +27,7 @@ import org.springframework.context.annotation.Configuration;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
 
 /**
  * Netty Web 套接字服务器
@@ -36,6 +40,10 @@ import javax.annotation.PreDestroy;
 public class NettyWebSocketServer {
     @Value("${websocket.port:8090}")
     private int webSocketPort;
+    @Resource
+    private RateLimitConfig rateLimitConfig;
+    @Resource
+    private RequestMetricsManager requestMetricsManager;
     // 创建线程池执行器
     private final EventLoopGroup bossGroup = new NioEventLoopGroup(1);
     private final EventLoopGroup workerGroup = new NioEventLoopGroup(8);
@@ -92,6 +100,8 @@ public class NettyWebSocketServer {
                         pipeline.addLast(new HttpHeadersHandler());
                         //websocket
                         pipeline.addLast(new WebSocketServerProtocolHandler("/"));
+                        // 每个连接的消息帧限流
+                        pipeline.addLast(new WebSocketRateLimitHandler(rateLimitConfig, requestMetricsManager));
                         // 自定义handler ，处理业务逻辑
                         pipeline.addLast(new NettyWebSocketServerHandler());
                     }
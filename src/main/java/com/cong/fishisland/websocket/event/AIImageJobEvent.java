@@ -0,0 +1,27 @@
+package com.cong.fishisland.websocket.event;
+
+import com.cong.fishisland.model.vo.ai.ImageJobVO;
+import com.cong.fishisland.model.ws.request.Message;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * AI 图片生成任务进度事件，每个发起请求的消息各发布一次
+ *
+ * @author cong
+ */
+@Getter
+public class AIImageJobEvent extends ApplicationEvent {
+    private final ImageJobVO job;
+
+    /**
+     * 发起请求的聊天消息
+     */
+    private final Message requester;
+
+    public AIImageJobEvent(Object source, ImageJobVO job, Message requester) {
+        super(source);
+        this.job = job;
+        this.requester = requester;
+    }
+}
@@ -0,0 +1,64 @@
+package com.cong.fishisland.websocket.handler;
+
+import cn.hutool.json.JSONUtil;
+import com.cong.fishisland.config.RateLimitConfig;
+import com.cong.fishisland.manager.RateLimitManager;
+import com.cong.fishisland.manager.RequestMetricsManager;
+import com.cong.fishisland.model.enums.MessageTypeEnum;
+import com.cong.fishisland.model.ws.response.WSBaseResp;
+import com.cong.fishisland.utils.TokenBucket;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.util.ReferenceCountUtil;
+
+import java.time.Duration;
+
+/**
+ * WebSocket 消息帧限流
+ * <p>
+ * 每个连接一个本地令牌桶，超出的帧在解析前直接丢弃，避免单个连接占满 Netty 工作线程；
+ * 连续丢弃时只提示一次。按用户的聊天、AI 频率在 WebSocketService 中按分布式规则限制。
+ *
+ * @author cong
+ */
+public class WebSocketRateLimitHandler extends ChannelInboundHandlerAdapter {
+
+    static final String LIMIT_NAME = "wsFrame";
+
+    private final TokenBucket bucket;
+
+    private final RequestMetricsManager requestMetricsManager;
+
+    /**
+     * 本轮丢弃是否已经提示过
+     */
+    private boolean notified;
+
+    public WebSocketRateLimitHandler(RateLimitConfig rateLimitConfig, RequestMetricsManager requestMetricsManager) {
+        this.bucket = rateLimitConfig.isEnabled()
+                ? new TokenBucket(rateLimitConfig.getWsFrameBurst(), rateLimitConfig.getWsFramesPerSecond(),
+                Duration.ofSeconds(1))
+                : null;
+        this.requestMetricsManager = requestMetricsManager;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!(msg instanceof TextWebSocketFrame) || bucket == null || bucket.tryAcquire()) {
+            notified = false;
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        ReferenceCountUtil.release(msg);
+        requestMetricsManager.recordRateLimit(LIMIT_NAME, RateLimitManager.LOCAL_REJECTED);
+        if (!notified) {
+            notified = true;
+            WSBaseResp<Object> errorResp = WSBaseResp.builder()
+                    .type(MessageTypeEnum.ERROR.getType())
+                    .data("消息发送过于频繁，请稍后再试")
+                    .build();
+            ctx.channel().writeAndFlush(new TextWebSocketFrame(JSONUtil.toJsonStr(errorResp)));
+        }
+    }
+}
@@ -2,10 +2,14 @@ package com.cong.fishisland.websocket.listener;
 
 
 import com.alibaba.fastjson.JSON;
-import com.cong.fishisland.datasource.ai.AIChatDataSource;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.manager.AiGatewayManager;
+import com.cong.fishisland.manager.ImageGenerationManager;
+import com.cong.fishisland.manager.AiStreamManager;
 import com.cong.fishisland.model.entity.chat.RoomMessage;
 import com.cong.fishisland.model.enums.MessageTypeEnum;
-import com.cong.fishisland.model.vo.ai.AiResponse;
+import com.cong.fishisland.model.enums.ImageJobStatusEnum;
+import com.cong.fishisland.model.vo.ai.ImageJobVO;
 import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
 import com.cong.fishisland.model.ws.request.Message;
 import com.cong.fishisland.model.ws.request.MessageWrapper;
@@ -13,15 +17,18 @@ import com.cong.fishisland.model.ws.request.Sender;
 import com.cong.fishisland.model.ws.response.WSBaseResp;
 import com.cong.fishisland.service.RoomMessageService;
 import com.cong.fishisland.websocket.event.AIAnswerEvent;
+import com.cong.fishisland.websocket.event.AIImageJobEvent;
 import com.cong.fishisland.websocket.service.WebSocketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -36,11 +43,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AIQuestionAnswerListener {
     private final WebSocketService webSocketService;
-    @Qualifier("siliconFlowDataSource")
-    private final AIChatDataSource siliconFlowDataSource;
-    @Qualifier("chutesAI2DataSource")
-    private final AIChatDataSource chutesAI2DataSource;
+    private final ImageGenerationManager imageGenerationManager;
     private final RoomMessageService roomMessageService;
+    private final AiGatewayManager aiGatewayManager;
+    private static final String MODEL = "Qwen/Qwen2.5-14B-Instruct";
+    /**
+     * 增量合并窗口，窗口内的输出合成一帧推送
+     */
+    private static final Duration DELTA_WINDOW = Duration.ofMillis(50);
+    private static final String FALLBACK_ANSWER = "摸鱼助手开小差了，请稍后再试~";
     // 系统预设
     private final String SYSTEM_PROMPT = "你是摸鱼小助手，你的任务是负责解决摸鱼用户的各种问题，" +
             "你比较擅长配合 emoji 以及清晰易懂的方式回答用户";
@@ -55,45 +66,82 @@ public class AIQuestionAnswerListener {
         String content = message.getContent().trim().replace("@摸鱼助手", "");
         if (content.contains("我是真爱粉:")) {
             String imgContent = content.replace("我是真爱粉:", "");
-            AiResponse aiResponse = chutesAI2DataSource.getAiResponse(imgContent, "flux.1-dev");
-            //AI 回答
-            sendAndSaveAiMessage("[img]" + aiResponse.getAnswer() + "[/img]", message);
+            // 放入图片生成队列，进度和结果通过 AIImageJobEvent 推送
+            imageGenerationManager.submit(imgContent, message);
             return;
         }
 
-        // 获取或初始化消息列表
-        List<SiliconFlowRequest.Message> messages = new ArrayList<>();
-
-        // 添加当前用户消息
-        messages.add(new SiliconFlowRequest.Message() {{
-            setRole("user");
-            setContent(content);
-        }});
-
-        // 调用 AI 添加系统消息
-        List<SiliconFlowRequest.Message> requestMessages = new ArrayList<>(messages);
-        requestMessages.add(0, new SiliconFlowRequest.Message() {{
+        List<SiliconFlowRequest.Message> requestMessages = new ArrayList<>();
+        requestMessages.add(new SiliconFlowRequest.Message() {{
             setRole("system");
             setContent(SYSTEM_PROMPT);
         }});
+        requestMessages.add(new SiliconFlowRequest.Message() {{
+            setRole("user");
+            setContent(content);
+        }});
 
-        // 调用 AI
-        AiResponse aiResponse = siliconFlowDataSource.getAiResponse(requestMessages, "Qwen/Qwen2.5-14B-Instruct");
-
-        // 添加 AI 响应消息
-        SiliconFlowRequest.Message assistantMessage = new SiliconFlowRequest.Message() {{
-            setRole("assistant");
-            setContent(aiResponse.getAnswer());
-        }};
-        messages.add(assistantMessage);
+        // 流式调用 AI，订阅后立即返回，不占用异步线程；回答 ID 取自提问消息，同一毫秒内的多个回答不会互相覆盖
+        String answerId = "ai-" + message.getId();
+        StringBuilder answer = new StringBuilder();
+        Flux<String> deltas = aiGatewayManager.stream(AiGatewayManager.SILICON_FLOW, MODEL, senderId, requestMessages)
+                .doOnNext(answer::append);
+        AiStreamManager.coalesce(deltas, DELTA_WINDOW).subscribe(
+                delta -> webSocketService.sendToAllOnline(WSBaseResp.builder()
+                        .type(MessageTypeEnum.CHAT_DELTA.getType())
+                        .data(getMessageWrapper(answerId, delta, message)).build()),
+                error -> {
+                    if (error instanceof BusinessException && answer.length() == 0) {
+                        // 限流或排队超时，在订阅时就结束，回复拒绝原因
+                        finishAnswer(answerId, error.getMessage(), message);
+                        return;
+                    }
+                    log.error("AI 流式回答失败，已输出 {} 字", answer.length(), error);
+                    finishAnswer(answerId, answer.length() > 0 ? answer.toString() : FALLBACK_ANSWER, message);
+                },
+                () -> finishAnswer(answerId, answer.toString(), message));
+    }
 
-        //AI 回答
-        sendAndSaveAiMessage(aiResponse.getAnswer(), message);
+    /**
+     * 推送图片生成进度，完成或失败时推送结果消息并入库；与进度使用同一消息 ID，前端原位替换
+     */
+    @EventListener(classes = AIImageJobEvent.class)
+    public void sendImageJobProgress(AIImageJobEvent event) {
+        ImageJobVO job = event.getJob();
+        Message message = event.getRequester();
+        String answerId = "img-" + message.getId();
+        ImageJobStatusEnum status = ImageJobStatusEnum.getEnumByValue(job.getStatus());
+        if (status == ImageJobStatusEnum.SUCCEED) {
+            sendAndSaveAiMessage(answerId, "[img]" + job.getUrl() + "[/img]", message);
+            return;
+        }
+        if (status == ImageJobStatusEnum.FAILED) {
+            sendAndSaveAiMessage(answerId, job.getError(), message);
+            return;
+        }
+        String progress;
+        if (status == ImageJobStatusEnum.RUNNING) {
+            progress = "图片生成中，请稍候~";
+        } else if (job.getPosition() == null) {
+            progress = "相同描述的图片正在生成，完成后一起发送~";
+        } else {
+            progress = "已加入图片生成队列，前面还有 " + (job.getPosition() - 1) + " 个任务~";
+        }
+        webSocketService.sendToAllOnline(WSBaseResp.builder()
+                .type(MessageTypeEnum.IMAGE_PROGRESS.getType())
+                .data(getMessageWrapper(answerId, progress, message)).build());
+    }
 
+    /**
+     * 回答结束后推送完整消息并入库，前端用同一消息 ID 替换增量拼出的内容
+     */
+    private void finishAnswer(String answerId, String answer, Message message) {
+        // 回调在网络线程上，入库切到弹性线程池
+        Schedulers.boundedElastic().schedule(() -> sendAndSaveAiMessage(answerId, answer, message));
     }
 
-    private void sendAndSaveAiMessage(String answer, Message message) {
-        MessageWrapper messageWrapper = getMessageWrapper(answer, message);
+    private void sendAndSaveAiMessage(String answerId, String answer, Message message) {
+        MessageWrapper messageWrapper = getMessageWrapper(answerId, answer, message);
 
         webSocketService.sendToAllOnline(WSBaseResp.builder()
                 .type(MessageTypeEnum.CHAT.getType())
@@ -107,10 +155,10 @@ public class AIQuestionAnswerListener {
         roomMessageService.save(roomMessage);
     }
 
-    private static @NotNull MessageWrapper getMessageWrapper(String answer, Message message) {
+    private static @NotNull MessageWrapper getMessageWrapper(String answerId, String answer, Message message) {
         Message aiMessage = new Message();
         aiMessage.setContent(answer);
-        aiMessage.setId(String.valueOf(System.currentTimeMillis()));
+        aiMessage.setId(answerId);
         Sender aiSender = Sender.builder()
                 .id("-1")
                 .level(1)
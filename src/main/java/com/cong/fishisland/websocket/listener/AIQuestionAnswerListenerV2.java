@@ -4,6 +4,7 @@ package com.cong.fishisland.websocket.listener;
 import com.alibaba.fastjson.JSON;
 import com.cong.fishisland.datasource.ai.AIChatDataSource;
 import com.cong.fishisland.manager.AiManager;
+import com.cong.fishisland.manager.ImageGenerationManager;
 import com.cong.fishisland.model.entity.chat.RoomMessage;
 import com.cong.fishisland.model.enums.MessageTypeEnum;
 import com.cong.fishisland.model.vo.ai.AiResponse;
@@ -39,8 +40,7 @@ public class AIQuestionAnswerListenerV2 {
     private final WebSocketService webSocketService;
     @Qualifier("siliconFlowDataSource")
     private final AIChatDataSource siliconFlowDataSource;
-    @Qualifier("chutesAI2DataSource")
-    private final AIChatDataSource chutesAI2DataSource;
+    private final ImageGenerationManager imageGenerationManager;
     private final AiManager aiManager;
     private final RoomMessageService roomMessageService;
     // 系统预设
@@ -57,9 +57,8 @@ public class AIQuestionAnswerListenerV2 {
         String content = message.getContent().trim().replace("@摸鱼助手", "");
         if (content.contains("我是真爱粉:")) {
             String imgContent = content.replace("我是真爱粉:", "");
-            AiResponse aiResponse = chutesAI2DataSource.getAiResponse(imgContent, "flux.1-dev");
-            //AI 回答
-            sendAndSaveAiMessage("[img]" + aiResponse.getAnswer() + "[/img]", message);
+            // 放入图片生成队列，进度和结果通过 AIImageJobEvent 推送
+            imageGenerationManager.submit(imgContent, message);
             return;
         }
 
@@ -54,6 +54,13 @@ public interface WebSocketService {
 
     void sendToUid(WSBaseResp<?> wsBaseResp, Long uid);
 
+    /**
+     * 用户是否连接在当前节点
+     *
+     * @param uid 用户 ID
+     */
+    boolean isOnline(Long uid);
+
     void sendMessage(Channel channel, WSBaseReq req);
 
     void sendMessage(String token, WSBaseReq req);
@@ -10,8 +10,12 @@ import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.config.RateLimitConfig;
 import com.cong.fishisland.config.ThreadPoolConfig;
 import com.cong.fishisland.constant.UserConstant;
+import com.cong.fishisland.manager.ImageDerivativeManager;
+import com.cong.fishisland.manager.RateLimitManager;
+import com.cong.fishisland.manager.SensitiveWordManager;
 import com.cong.fishisland.model.dto.ws.WSChannelExtraDTO;
 import com.cong.fishisland.model.entity.chat.RoomMessage;
 import com.cong.fishisland.model.entity.user.User;
@@ -47,7 +51,6 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
-import toolgood.words.StringSearch;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -68,16 +71,30 @@ public class WebSocketServiceImpl implements WebSocketService {
      * 所需服务
      */
     private final UserService userService;
-    private final StringSearch wordsUtil;
+    private final SensitiveWordManager sensitiveWordManager;
     private final UserCache userCache;
     @Qualifier(ThreadPoolConfig.WS_EXECUTOR)
     private final ThreadPoolTaskExecutor threadPoolTaskExecutor;
     private final ApplicationEventPublisher applicationEventPublisher;
 
     private static final String ROOM_ID = "roomId";
+    /**
+     * 聊天室消息、@摸鱼助手 的限流名称
+     */
+    private static final String CHAT_LIMIT = "wsChat";
+    private static final String AI_LIMIT = "wsAi";
+
+    /**
+     * 在线列表头像缩略图的长边像素
+     */
+    private static final int AVATAR_THUMBNAIL_SIDE = 96;
+
     private final RoomMessageService roomMessageService;
     private final UserMuteService userMuteService;
     private final UserVipService userVipService;
+    private final ImageDerivativeManager imageDerivativeManager;
+    private final RateLimitManager rateLimitManager;
+    private final RateLimitConfig rateLimitConfig;
 
 
     /**
@@ -199,6 +216,11 @@ public class WebSocketServiceImpl implements WebSocketService {
         channels.forEach(channel -> threadPoolTaskExecutor.execute(() -> sendMsg(channel, wsBaseResp)));
     }
 
+    @Override
+    public boolean isOnline(Long uid) {
+        return CollUtil.isNotEmpty(ONLINE_UID_MAP.get(uid));
+    }
+
     @Override
     public void sendMessage(Channel channel, WSBaseReq req) {
         // 发送数据
@@ -256,6 +278,10 @@ public class WebSocketServiceImpl implements WebSocketService {
         }
 
         long loginUserId = Long.parseLong(loginIdObj.toString());
+        if (rateLimitManager.tryAcquire(CHAT_LIMIT, String.valueOf(loginUserId), rateLimitConfig.getChat()) > 0) {
+            sendError(channel, "消息发送过于频繁，请稍后再试");
+            return;
+        }
         User loginUser = userService.getLoginUser(token);
         MessageTypeEnum messageTypeEnum = MessageTypeEnum.of(chatMessageVo.getType());
         //发送消息
@@ -284,7 +310,10 @@ public class WebSocketServiceImpl implements WebSocketService {
                 if (mentionedUsers != null && !mentionedUsers.isEmpty()) {
                     //校验里面是否有机器人
                     boolean isRobot = mentionedUsers.stream().anyMatch(item -> item.getId().equals(UserConstant.ROBOT_ID));
-                    if (isRobot) {
+                    if (isRobot && rateLimitManager.tryAcquire(AI_LIMIT, String.valueOf(loginUserId),
+                            rateLimitConfig.getAi()) > 0) {
+                        sendError(channel, "摸鱼助手忙不过来啦，请稍后再问");
+                    } else if (isRobot) {
                         applicationEventPublisher.publishEvent(new AIAnswerEvent(this, result.messageDto));
                     }
                 }
@@ -392,11 +421,29 @@ public class WebSocketServiceImpl implements WebSocketService {
     }
 
     private @NotNull String fixMessage(Message message) {
-        //敏感词替换
-        String resultContent = wordsUtil.Replace(message.getContent());
-        //移除代码高亮符号
-        resultContent = resultContent.replaceAll("```", "");
-        return resultContent;
+        String content = message.getContent();
+        if (content == null) {
+            return "";
+        }
+        //敏感词替换，并在同一个缓冲区里移除代码高亮符号
+        return sensitiveWordManager.replace(content, WebSocketServiceImpl::removeCodeFence);
+    }
+
+    /**
+     * 原地移除 ```，不走正则
+     */
+    private static void removeCodeFence(StringBuilder builder) {
+        int write = 0;
+        int length = builder.length();
+        for (int read = 0; read < length; read++) {
+            if (read + 2 < length && builder.charAt(read) == '`' && builder.charAt(read + 1) == '`'
+                    && builder.charAt(read + 2) == '`') {
+                read += 2;
+                continue;
+            }
+            builder.setCharAt(write++, builder.charAt(read));
+        }
+        builder.setLength(write);
     }
 
     private void createDrawRoom(Channel channel, User loginUser) {
@@ -511,6 +558,8 @@ public class WebSocketServiceImpl implements WebSocketService {
         userChatResponse.setId(String.valueOf(currentUser.getId()));
         userChatResponse.setName(currentUser.getUserName());
         userChatResponse.setAvatar(currentUser.getUserAvatar());
+        userChatResponse.setAvatarThumbnail(imageDerivativeManager.getVariants(currentUser.getUserAvatar())
+                .fit(AVATAR_THUMBNAIL_SIDE));
         userChatResponse.setAvatarFramerUrl(currentUser.getAvatarFramerUrl());
         userChatResponse.setTitleId(currentUser.getTitleId());
         userChatResponse.setTitleIdList(currentUser.getTitleIdList());
@@ -578,6 +627,12 @@ public class WebSocketServiceImpl implements WebSocketService {
         channel.writeAndFlush(new TextWebSocketFrame(JSONUtil.toJsonStr(wsBaseResp)));
     }
 
+    private void sendError(Channel channel, String message) {
+        if (channel != null) {
+            sendMsg(channel, WSBaseResp.builder().type(MessageTypeEnum.ERROR.getType()).data(message).build());
+        }
+    }
+
     /**
      * 用户下线
      * return 是否全下线成功（用户所有连接都已断开）
@@ -0,0 +1,180 @@
+package com.cong.fishisland.aop;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.spring.SaTokenContextForSpring;
+import com.cong.fishisland.annotation.NoRepeatSubmit;
+import com.cong.fishisland.common.BaseResponse;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.ResultUtils;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.manager.IdempotencyManager;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 防重复提交切面测试，Redis 用内存 Map 模拟
+ */
+class NoRepeatSubmitAspectTest {
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(inv -> redis.putIfAbsent(inv.getArgument(0), inv.getArgument(1)) == null);
+        when(valueOperations.get(anyString())).thenAnswer(inv -> redis.get((String) inv.getArgument(0)));
+        doAnswer(inv -> redis.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        when(stringRedisTemplate.delete(anyString())).thenAnswer(inv -> redis.remove((String) inv.getArgument(0)) != null);
+
+        request = new MockHttpServletRequest("POST", "/api/pet/skin/exchange");
+        request.setRemoteAddr("10.0.0.1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+    }
+
+    /**
+     * 与运行时一样从 Spring 请求上下文读取 Sa-Token 令牌（未登录）
+     */
+    @BeforeAll
+    static void initSaToken() {
+        SaManager.setSaTokenContext(new SaTokenContextForSpring());
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void duplicateRejectedLocallyWithoutSession() throws Throwable {
+        NoRepeatSubmitAspect aspect = new NoRepeatSubmitAspect(new IdempotencyManager(stringRedisTemplate));
+        ProceedingJoinPoint point = point("skin-1");
+
+        assertEquals(Boolean.TRUE, ((BaseResponse<?>) aspect.around(point, annotation(false))).getData());
+        BusinessException e = assertThrows(BusinessException.class, () -> aspect.around(point, annotation(false)));
+        assertEquals(ErrorCode.REPEAT_SUBMIT_ERROR.getCode(), e.getCode());
+
+        verify(point, times(1)).proceed();
+        // 重复提交由本地缓存拦截，只访问一次 Redis
+        verify(stringRedisTemplate.opsForValue(), times(1)).setIfAbsent(anyString(), anyString(), any(Duration.class));
+        verify(stringRedisTemplate.opsForValue(), never()).get(anyString());
+        assertNull(request.getSession(false));
+    }
+
+    @Test
+    void differentBodyOrIdempotencyKeyIsNewSubmit() throws Throwable {
+        NoRepeatSubmitAspect aspect = new NoRepeatSubmitAspect(new IdempotencyManager(stringRedisTemplate));
+        aspect.around(point("skin-1"), annotation(false));
+        aspect.around(point("skin-2"), annotation(false));
+        request.addHeader(NoRepeatSubmitAspect.IDEMPOTENCY_KEY_HEADER, "order-1");
+        aspect.around(point("skin-1"), annotation(false));
+
+        assertEquals(3, redis.size());
+        assertTrue(redis.keySet().stream().anyMatch(key -> key.contains(":ip-10.0.0.1-order-1:")));
+        assertNull(request.getSession(false));
+    }
+
+    @Test
+    void replayReturnsFirstResultAcrossInstances() throws Throwable {
+        NoRepeatSubmitAspect first = new NoRepeatSubmitAspect(new IdempotencyManager(stringRedisTemplate));
+        NoRepeatSubmitAspect second = new NoRepeatSubmitAspect(new IdempotencyManager(stringRedisTemplate));
+        ProceedingJoinPoint point = point("skin-1");
+
+        Object result = first.around(point, annotation(true));
+        assertSame(result, first.around(point, annotation(true)));
+        BaseResponse<?> replayed = (BaseResponse<?>) second.around(point, annotation(true));
+        assertEquals(0, replayed.getCode());
+        assertEquals(Boolean.TRUE, replayed.getData());
+
+        verify(point, times(1)).proceed();
+        assertNull(request.getSession(false));
+    }
+
+    @Test
+    void failureReleasesKey() throws Throwable {
+        NoRepeatSubmitAspect aspect = new NoRepeatSubmitAspect(new IdempotencyManager(stringRedisTemplate));
+        ProceedingJoinPoint point = point("skin-1");
+        when(point.proceed()).thenThrow(new BusinessException(ErrorCode.OPERATION_ERROR, "积分不足"))
+                .thenReturn(ResultUtils.success(true));
+
+        assertThrows(BusinessException.class, () -> aspect.around(point, annotation(false)));
+        assertTrue(redis.isEmpty());
+        aspect.around(point, annotation(false));
+        verify(point, times(2)).proceed();
+    }
+
+    @Test
+    void releasedByOtherInstanceCanBeRetried() throws Throwable {
+        new NoRepeatSubmitAspect(new IdempotencyManager(stringRedisTemplate)).around(point("skin-1"), annotation(false));
+        String key = redis.keySet().iterator().next();
+        redis.clear();
+        IdempotencyManager other = new IdempotencyManager(stringRedisTemplate);
+        NoRepeatSubmitAspect aspect = new NoRepeatSubmitAspect(new IdempotencyManager(stringRedisTemplate));
+
+        // 其他实例占用期间的重复提交被拒绝
+        assertNull(other.tryAcquire(key, 5));
+        BusinessException e = assertThrows(BusinessException.class, () -> aspect.around(point("skin-1"), annotation(false)));
+        assertEquals(ErrorCode.REPEAT_SUBMIT_ERROR.getCode(), e.getCode());
+
+        // 其他实例执行失败释放后，本实例可以重新执行
+        other.release(key);
+        ProceedingJoinPoint retry = point("skin-1");
+        assertEquals(Boolean.TRUE, ((BaseResponse<?>) aspect.around(retry, annotation(false))).getData());
+        verify(retry, times(1)).proceed();
+    }
+
+    private static ProceedingJoinPoint point(String body) throws Throwable {
+        ProceedingJoinPoint point = mock(ProceedingJoinPoint.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(Controller.class.getMethod("exchange", String.class));
+        when(point.getSignature()).thenReturn(signature);
+        when(point.getArgs()).thenReturn(new Object[]{body});
+        when(point.proceed()).thenReturn(ResultUtils.success(true));
+        return point;
+    }
+
+    private static NoRepeatSubmit annotation(boolean replay) throws NoSuchMethodException {
+        return Controller.class.getMethod(replay ? "exchangeReplay" : "exchange", String.class)
+                .getAnnotation(NoRepeatSubmit.class);
+    }
+
+    @SuppressWarnings("unused")
+    public static class Controller {
+
+        @NoRepeatSubmit
+        public BaseResponse<Boolean> exchange(String body) {
+            return ResultUtils.success(true);
+        }
+
+        @NoRepeatSubmit(replay = true)
+        public BaseResponse<Boolean> exchangeReplay(String body) {
+            return ResultUtils.success(true);
+        }
+    }
+}
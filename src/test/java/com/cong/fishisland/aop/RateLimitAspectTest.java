@@ -0,0 +1,83 @@
+package com.cong.fishisland.aop;
+
+import com.cong.fishisland.annotation.RateLimit;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.config.RateLimitConfig;
+import com.cong.fishisland.manager.RateLimitManager;
+import com.cong.fishisland.model.enums.RateLimitKeyEnum;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 接口限流切面测试
+ */
+class RateLimitAspectTest {
+
+    private MockHttpServletResponse response;
+
+    private ProceedingJoinPoint point;
+
+    @BeforeEach
+    void setUp() throws Throwable {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/file/upload");
+        request.setRemoteAddr("10.0.0.1");
+        response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(Controller.class.getMethod("upload"));
+        point = mock(ProceedingJoinPoint.class);
+        when(point.getSignature()).thenReturn(signature);
+        when(point.proceed()).thenReturn("ok");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void checksEveryLimit() throws Throwable {
+        RateLimitManager rateLimitManager = mock(RateLimitManager.class);
+        RateLimitAspect aspect = new RateLimitAspect(rateLimitManager);
+
+        assertEquals("ok", aspect.around(point));
+        // 未登录时按用户限流退化为按 IP
+        verify(rateLimitManager).tryAcquire(eq("upload:user"), eq("ip-10.0.0.1"), any(RateLimitConfig.Rule.class));
+        verify(rateLimitManager).tryAcquire(eq("upload:ip"), eq("ip-10.0.0.1"), any(RateLimitConfig.Rule.class));
+    }
+
+    @Test
+    void rejectedWithRetryAfter() throws Throwable {
+        RateLimitManager rateLimitManager = mock(RateLimitManager.class);
+        when(rateLimitManager.tryAcquire(eq("upload:ip"), anyString(), any(RateLimitConfig.Rule.class))).thenReturn(1500L);
+        RateLimitAspect aspect = new RateLimitAspect(rateLimitManager);
+
+        BusinessException e = assertThrows(BusinessException.class, () -> aspect.around(point));
+        assertEquals(ErrorCode.REPEAT_SUBMIT_ERROR.getCode(), e.getCode());
+        assertEquals("上传过于频繁", e.getMessage());
+        assertEquals("2", response.getHeader("Retry-After"));
+        verify(point, never()).proceed();
+    }
+
+    @SuppressWarnings("unused")
+    public static class Controller {
+
+        @RateLimit(name = "upload", permits = 30)
+        @RateLimit(name = "upload", key = RateLimitKeyEnum.IP, permits = 100, message = "上传过于频繁")
+        public String upload() {
+            return "ok";
+        }
+    }
+}
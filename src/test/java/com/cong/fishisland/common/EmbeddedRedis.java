@@ -0,0 +1,86 @@
+package com.cong.fishisland.common;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * 单元测试使用的真实 Redis
+ * <p>
+ * 首次使用时在随机端口启动 embedded-redis 自带的 redis-server（6.2），同一个测试进程内共享，进程退出时关闭。
+ * Lua 脚本、BLMOVE 等命令直接在真实 Redis 上执行，测试不需要用 Java 重写脚本逻辑。
+ * 各测试在 @BeforeEach 中调用 {@link #flush()} 清空数据。
+ *
+ * @author cong
+ */
+public final class EmbeddedRedis {
+
+    private static final String HOST = "127.0.0.1";
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static StringRedisTemplate stringRedisTemplate;
+
+    private EmbeddedRedis() {
+    }
+
+    public static synchronized RedisConnectionFactory connectionFactory() {
+        if (connectionFactory == null) {
+            start();
+        }
+        return connectionFactory;
+    }
+
+    public static synchronized StringRedisTemplate template() {
+        if (stringRedisTemplate == null) {
+            stringRedisTemplate = new StringRedisTemplate(connectionFactory());
+        }
+        return stringRedisTemplate;
+    }
+
+    /**
+     * 清空全部数据
+     */
+    public static void flush() {
+        template().execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+
+    private static void start() {
+        try {
+            int port;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            RedisServer server = RedisServer.newRedisServer()
+                    .bind(HOST)
+                    .port(port)
+                    .setting("save \"\"")
+                    .setting("appendonly no")
+                    .build();
+            server.start();
+            LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(HOST, port));
+            factory.afterPropertiesSet();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                factory.destroy();
+                try {
+                    server.stop();
+                } catch (IOException ignored) {
+                    // 进程退出时 redis-server 随之结束
+                }
+            }));
+            connectionFactory = factory;
+        } catch (IOException e) {
+            throw new UncheckedIOException("embedded redis start failed", e);
+        }
+    }
+}
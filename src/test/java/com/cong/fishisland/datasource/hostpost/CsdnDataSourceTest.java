@@ -0,0 +1,108 @@
+package com.cong.fishisland.datasource.hostpost;
+
+import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.config.HttpClientConfig;
+import com.cong.fishisland.manager.HttpClientManager;
+import com.cong.fishisland.model.entity.hot.HotPost;
+import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CSDN 分页并发抓取测试（本地 HTTP 服务模拟热榜接口）
+ */
+class CsdnDataSourceTest {
+
+    private static final long PAGE_DELAY_MILLIS = 400;
+
+    private HttpServer server;
+
+    private ExecutorService pageExecutor;
+
+    private HttpClientManager httpClientManager;
+
+    @TempDir
+    Path cacheDir;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/hot-rank", exchange -> {
+            requestCount.incrementAndGet();
+            String query = exchange.getRequestURI().getQuery();
+            int page = Integer.parseInt(query.replaceAll(".*page=(\\d+).*", "$1"));
+            StringBuilder body = new StringBuilder("{\"data\":[");
+            for (int i = 0; i < 25; i++) {
+                if (i > 0) {
+                    body.append(',');
+                }
+                int score = page * 100 + i;
+                body.append("{\"articleTitle\":\"title-").append(score)
+                        .append("\",\"articleDetailUrl\":\"https://blog.csdn.net/").append(score)
+                        .append("\",\"hotRankScore\":\"").append(score).append("\"}");
+            }
+            body.append("]}");
+            try {
+                Thread.sleep(PAGE_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        });
+        server.start();
+        pageExecutor = Executors.newFixedThreadPool(4);
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        httpClientConfig.setCacheDir(cacheDir.toString());
+        httpClientManager = new HttpClientManager(httpClientConfig);
+        httpClientManager.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        pageExecutor.shutdownNow();
+        httpClientManager.destroy();
+    }
+
+    @Test
+    void testPagesFetchedInParallel() {
+        CsdnDataSource csdnDataSource = new CsdnDataSource(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/hot-rank", pageExecutor, httpClientManager);
+
+        // 预热 HTTP 客户端和 JSON 解析，排除首次类加载的耗时
+        csdnDataSource.getHotPost();
+        long start = System.currentTimeMillis();
+        HotPost hotPost = csdnDataSource.getHotPost();
+        long cost = System.currentTimeMillis() - start;
+
+        assertEquals(6, requestCount.get());
+        // 串行需要 3 * 400ms
+        assertTrue(cost < PAGE_DELAY_MILLIS * 2, "cost " + cost);
+        List<HotPostDataVO> dataList = JSON.parseArray(hotPost.getHostJson(), HotPostDataVO.class);
+        assertEquals(20, dataList.size());
+        // 三页合并后按热度排序，最高的来自最后一页
+        assertEquals(224, dataList.get(0).getFollowerCount());
+    }
+}
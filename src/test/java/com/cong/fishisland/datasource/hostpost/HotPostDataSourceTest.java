@@ -0,0 +1,256 @@
+package com.cong.fishisland.datasource.hostpost;
+
+import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.manager.HttpClientManager;
+import com.cong.fishisland.model.entity.hot.HotPost;
+import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import okhttp3.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 各热榜数据源解析测试（模拟 HTTP 客户端返回固定的接口响应）
+ */
+class HotPostDataSourceTest {
+
+    private HttpClientManager httpClientManager;
+
+    @BeforeEach
+    void setUp() {
+        httpClientManager = mock(HttpClientManager.class);
+    }
+
+    @Test
+    void testBiliBili() throws IOException {
+        stubParsed("https://api.bilibili.com/x/web-interface/popular", "{\"code\":0,\"data\":{\"list\":["
+                + "{\"title\":\"视频A\",\"short_link_v2\":\"https://b23.tv/BV1a\",\"stat\":{\"view\":1200}},"
+                + "{\"title\":\"视频B\",\"short_link_v2\":\"https://b23.tv/BV1b\",\"stat\":{\"view\":56000}}]}}");
+
+        List<HotPostDataVO> dataList = parse(new BiliBiliDataSource(httpClientManager).getHotPost());
+
+        assertEquals(2, dataList.size());
+        // 按播放量降序
+        assertItem(dataList.get(0), "视频B", "https://b23.tv/BV1b", 56000);
+        assertItem(dataList.get(1), "视频A", "https://b23.tv/BV1a", 1200);
+    }
+
+    @Test
+    void testCodeFather() throws IOException {
+        when(httpClientManager.postJson(eq("https://api.codefather.cn/api/search/hot"), any(Headers.class), anyString()))
+                .thenReturn("{\"code\":0,\"data\":{\"searchPage\":{\"records\":["
+                        + "{\"id\":\"101\",\"title\":\"面经分享\",\"content\":\"\",\"recommendScore\":\"35\"},"
+                        + "{\"id\":\"102\",\"title\":\"\",\"content\":\"没有标题的动态取正文前二十个字作为标题展示\",\"recommendScore\":\"8\"}]}}}");
+
+        List<HotPostDataVO> dataList = parse(new CodeFatherDataSource(httpClientManager).getHotPost());
+
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "面经分享", "https://www.codefather.cn/post/101", 350);
+        assertItem(dataList.get(1), "没有标题的动态取正文前二十个字作为标题展", "https://www.codefather.cn/essay/102", 80);
+    }
+
+    @Test
+    void testDouYin() throws IOException {
+        stubParsed("https://www.douyin.com/aweme/v1/web/hot/search/list", "{\"data\":{\"word_list\":["
+                + "{\"word\":\"热点 二\",\"hot_value\":900,\"sentence_id\":\"2002\",\"position\":2},"
+                + "{\"word\":\"缺少 ID\",\"hot_value\":800,\"position\":3},"
+                + "{\"word\":\"热点一\",\"hot_value\":1000,\"sentence_id\":\"2001\",\"position\":1}]}}");
+
+        List<HotPostDataVO> dataList = parse(new DouYinDataSource(httpClientManager).getHotPost());
+
+        // 按 position 排序，缺字段的条目被过滤
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "热点一", "https://www.douyin.com/hot/2001/%E7%83%AD%E7%82%B9%E4%B8%80", 1000);
+        assertItem(dataList.get(1), "热点 二", "https://www.douyin.com/hot/2002/%E7%83%AD%E7%82%B9%20%E4%BA%8C", 900);
+    }
+
+    @Test
+    void testHuPu() throws IOException {
+        when(httpClientManager.get(eq("https://hupu.com"), any(Headers.class))).thenReturn("<html><body>"
+                + "<div class=\"list-item\"><a class=\"list-item-title\" href=\"https://bbs.hupu.com/1.html\">"
+                + "<div class=\"item-title-conent\">帖子一</div></a><div class=\"list-item-lights\">12亮</div></div>"
+                + "<div class=\"list-item\"><a class=\"list-item-title\" href=\"https://bbs.hupu.com/2.html\">"
+                + "<div class=\"item-title-conent\">帖子二</div></a><div class=\"list-item-lights\">345亮</div></div>"
+                + "</body></html>");
+
+        List<HotPostDataVO> dataList = parse(new HuPuDataSource(httpClientManager).getHotPost());
+
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "帖子二", "https://bbs.hupu.com/2.html", 345000);
+        assertItem(dataList.get(1), "帖子一", "https://bbs.hupu.com/1.html", 12000);
+    }
+
+    @Test
+    void testHuPuStreet() throws IOException {
+        when(httpClientManager.get(eq("https://bbs.hupu.com/all-gambia"), any(Headers.class))).thenReturn("<html><body>"
+                + "<div class=\"list-item\"><a href=\"/601.html\"><span class=\"t-title\">步行街一</span></a>"
+                + "<span class=\"t-lights\">8</span></div>"
+                + "<div class=\"list-item\"><a href=\"/602.html\"><span class=\"t-title\">步行街二</span></a>"
+                + "<span class=\"t-lights\">40</span></div>"
+                + "<div class=\"list-item\"><span class=\"t-title\">没有链接</span></div>"
+                + "</body></html>");
+
+        List<HotPostDataVO> dataList = parse(new HuPuStreetDataSource(httpClientManager).getHotPost());
+
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "步行街二", "https://bbs.hupu.com/602.html", 40000);
+        assertItem(dataList.get(1), "步行街一", "https://bbs.hupu.com/601.html", 8000);
+    }
+
+    @Test
+    void testJueJin() throws IOException {
+        stubParsed("https://api.juejin.cn/content_api/v1/content/article_rank", "{\"err_no\":0,\"data\":["
+                + "{\"content\":{\"content_id\":\"7001\",\"title\":\"文章一\"},\"content_counter\":{\"hot_rank\":300}},"
+                + "{\"content\":{\"content_id\":\"7002\",\"title\":\"文章二\"},\"content_counter\":{\"hot_rank\":900}}]}");
+
+        List<HotPostDataVO> dataList = parse(new JueJinDataSource(httpClientManager).getHotPost());
+
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "文章二", "https://juejin.cn/post/7002", 900);
+        assertItem(dataList.get(1), "文章一", "https://juejin.cn/post/7001", 300);
+    }
+
+    @Test
+    void testQQMusic() throws IOException {
+        stubParsed("https://u.y.qq.com/cgi-bin/musicu.fcg", "{\"detail\":{\"data\":{\"data\":{\"song\":["
+                + "{\"rank\":1,\"title\":\"歌曲一\",\"songId\":3001},"
+                + "{\"rank\":2,\"title\":\"歌曲二\",\"songId\":3002}]}}}}");
+
+        List<HotPostDataVO> dataList = parse(new QQMusicDataSource(httpClientManager).getHotPost());
+
+        // 保持榜单原有顺序
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "歌曲一", "https://y.qq.com/n/ryqq/songDetail/3001", 1);
+        assertItem(dataList.get(1), "歌曲二", "https://y.qq.com/n/ryqq/songDetail/3002", 2);
+    }
+
+    @Test
+    void testSmzdm() throws IOException {
+        stubParsed("https://www.smzdm.com/top/", "<html><body>"
+                + "<div class=\"feed-hot-card\" data-position=\"2\"><a target=\"_blank\" href=\"https://www.smzdm.com/p/2/\""
+                + " onclick=\"dataLayer.push({'floor':'好价品类榜'})\"><div class=\"feed-hot-title\">好价二</div></a></div>"
+                + "<div class=\"feed-hot-card\" data-position=\"1\"><a target=\"_blank\" href=\"https://www.smzdm.com/p/1/\""
+                + " onclick=\"dataLayer.push({'floor':'好价品类榜'})\"><div class=\"feed-hot-title\">好价一</div></a></div>"
+                + "<div class=\"feed-hot-card\" data-position=\"3\"><a target=\"_blank\" href=\"https://www.smzdm.com/p/3/\""
+                + " onclick=\"dataLayer.push({'floor':'晒物榜'})\"><div class=\"feed-hot-title\">晒物</div></a></div>"
+                + "</body></html>");
+
+        List<HotPostDataVO> dataList = parse(new SmzdmDataSource(httpClientManager).getHotPost());
+
+        // 只保留好价品类榜，按位置升序
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "好价一", "https://www.smzdm.com/p/1/", 1);
+        assertItem(dataList.get(1), "好价二", "https://www.smzdm.com/p/2/", 2);
+    }
+
+    @Test
+    void testTieBa() throws IOException {
+        stubParsed("https://tieba.baidu.com/hottopic/browse/topicList", "{\"errno\":0,\"data\":{\"bang_topic\":{\"topic_list\":["
+                + "{\"topic_name\":\"话题一\",\"topic_url\":\"https://tieba.baidu.com/t/1\",\"discuss_num\":1500},"
+                + "{\"topic_name\":\"话题二\",\"topic_url\":\"https://tieba.baidu.com/t/2\",\"discuss_num\":99000}]}}}");
+
+        List<HotPostDataVO> dataList = parse(new TieBaDataSource(httpClientManager).getHotPost());
+
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "话题二", "https://tieba.baidu.com/t/2", 99000);
+        assertItem(dataList.get(1), "话题一", "https://tieba.baidu.com/t/1", 1500);
+    }
+
+    @Test
+    void testWYCloud() throws IOException {
+        stubParsed("https://music.163.com/discover/toplist?id=3778678", "<html><body><ul class=\"f-hide\">"
+                + "<li><a href=\"/song?id=4001\">歌曲一</a></li>"
+                + "<li><a href=\"/song?id=4002\">歌曲二</a></li>"
+                + "</ul></body></html>");
+
+        List<HotPostDataVO> dataList = parse(new WYCloudDataSource(httpClientManager).getHotPost());
+
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "歌曲一", "//music.163.com/outchain/player?type=2&id=4001&auto=0&height=66", null);
+        assertItem(dataList.get(1), "歌曲二", "//music.163.com/outchain/player?type=2&id=4002&auto=0&height=66", null);
+    }
+
+    @Test
+    void testWeiBo() throws IOException {
+        when(httpClientManager.get(startsWith("https://passport.weibo.com/visitor/genvisitor")))
+                .thenReturn("window.gen_callback && gen_callback({\"retcode\":20000000,\"data\":{\"tid\":\"tid-1\"}});");
+        when(httpClientManager.get(startsWith("https://passport.weibo.com/visitor/visitor")))
+                .thenReturn("window.cross_domain && cross_domain({\"retcode\":20000000,\"data\":{\"sub\":\"sub-1\",\"subp\":\"subp-1\"}});");
+        when(httpClientManager.get(eq("https://s.weibo.com/top/summary?cate=realtimehot"), any(Headers.class)))
+                .thenReturn("<html><body><table><tbody>"
+                        + "<tr><td class=\"td-01\"></td><td class=\"td-02\"><a href=\"/weibo?q=top\">置顶</a></td></tr>"
+                        + "<tr><td class=\"td-01\">1</td><td class=\"td-02\"><a href=\"/weibo?q=a\">热搜一</a><span>剧集 523401</span></td></tr>"
+                        + "<tr><td class=\"td-01\">•</td><td class=\"td-02\"><a href=\"/weibo?q=ad\">推广</a></td></tr>"
+                        + "<tr><td class=\"td-01\">2</td><td class=\"td-02\"><a href=\"/weibo?q=b\">热搜二</a><span>301122</span></td></tr>"
+                        + "</tbody></table></body></html>");
+
+        List<HotPostDataVO> dataList = parse(new WeiBoDataSource(httpClientManager).getHotPost());
+
+        // 置顶和推广被过滤
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "热搜一", "https://s.weibo.com/weibo?q=a", 523401);
+        assertItem(dataList.get(1), "热搜二", "https://s.weibo.com/weibo?q=b", 301122);
+        verify(httpClientManager).get(contains("t=tid-1"));
+        ArgumentCaptor<Headers> headers = ArgumentCaptor.forClass(Headers.class);
+        verify(httpClientManager).get(eq("https://s.weibo.com/top/summary?cate=realtimehot"), headers.capture());
+        assertEquals("SUB=sub-1; SUBP=subp-1;", headers.getValue().get("Cookie"));
+    }
+
+    @Test
+    void testZhiBo8() throws IOException {
+        when(httpClientManager.get(eq("https://zhibo8.com/"), any(Headers.class))).thenReturn("<html><body>"
+                + "<div class=\"vct-box zuqiu-news\"><div class=\"_content\">"
+                + "<a class=\"list-item\" href=\"https://news.zhibo8.com/zuqiu/1.htm\">足球新闻</a></div></div>"
+                + "<div class=\"vct-box lanqiu-news\"><div class=\"_content\">"
+                + "<a class=\"list-item\" href=\"https://news.zhibo8.com/nba/1.htm\">篮球新闻</a></div></div>"
+                + "</body></html>");
+
+        List<HotPostDataVO> dataList = parse(new ZhiBo8DataSource(new RetryTemplate(), httpClientManager).getHotPost());
+
+        // 篮球在前，足球在后
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "篮球新闻", "https://news.zhibo8.com/nba/1.htm", 100);
+        assertItem(dataList.get(1), "足球新闻", "https://news.zhibo8.com/zuqiu/1.htm", 100);
+    }
+
+    @Test
+    void testZhiHu() throws IOException {
+        stubParsed("https://www.zhihu.com/api/v3/feed/topstory/hot-lists/total", "{\"data\":["
+                + "{\"detail_text\":\"1024 万热度\",\"target\":{\"title\":\"问题一\",\"url\":\"https://api.zhihu.com/questions/5001\"}},"
+                + "{\"detail_text\":\"88 万热度\",\"target\":{\"title\":\"问题二\",\"url\":\"https://api.zhihu.com/questions/5002\"}}]}");
+
+        List<HotPostDataVO> dataList = parse(new ZhiHuDataSource(httpClientManager).getHotPost());
+
+        assertEquals(2, dataList.size());
+        assertItem(dataList.get(0), "问题一", "https://zhihu.com/question/5001", 10240000);
+        assertItem(dataList.get(1), "问题二", "https://zhihu.com/question/5002", 880000);
+    }
+
+    /**
+     * 模拟带解析函数的 GET：直接把固定响应交给数据源自己的解析函数
+     */
+    private void stubParsed(String urlPrefix, String body) throws IOException {
+        when(httpClientManager.get(startsWith(urlPrefix), any(Headers.class), any()))
+                .thenAnswer(invocation -> invocation.<Function<String, Object>>getArgument(2).apply(body));
+    }
+
+    private static List<HotPostDataVO> parse(HotPost hotPost) {
+        assertNotNull(hotPost);
+        return JSON.parseArray(hotPost.getHostJson(), HotPostDataVO.class);
+    }
+
+    private static void assertItem(HotPostDataVO item, String title, String url, Integer followerCount) {
+        assertEquals(title, item.getTitle());
+        assertEquals(url, item.getUrl());
+        assertEquals(followerCount, item.getFollowerCount());
+    }
+}
@@ -0,0 +1,29 @@
+package com.cong.fishisland.job.cycle;
+
+import com.cong.fishisland.model.entity.hot.HotPost;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 热榜同步任务测试
+ *
+ * @author cong
+ */
+class IncSyncHostPostToMySQLTest {
+
+    @Test
+    void emptyOrBrokenBoardCountsAsFailure() {
+        assertTrue(IncSyncHostPostToMySQL.isEmptyBoard(null));
+        assertTrue(IncSyncHostPostToMySQL.isEmptyBoard(board(null)));
+        assertTrue(IncSyncHostPostToMySQL.isEmptyBoard(board("")));
+        assertTrue(IncSyncHostPostToMySQL.isEmptyBoard(board("[]")));
+        assertTrue(IncSyncHostPostToMySQL.isEmptyBoard(board("<html>")));
+        assertFalse(IncSyncHostPostToMySQL.isEmptyBoard(board("[{\"title\":\"t\",\"url\":\"https://a.com\"}]")));
+    }
+
+    private static HotPost board(String hostJson) {
+        return HotPost.builder().hostJson(hostJson).build();
+    }
+}
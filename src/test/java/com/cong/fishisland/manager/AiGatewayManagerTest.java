@@ -0,0 +1,337 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.config.AIModelConfig;
+import com.cong.fishisland.config.AiGatewayConfig;
+import com.cong.fishisland.config.HttpClientConfig;
+import com.cong.fishisland.datasource.ai.MockInterviewDataSource;
+import com.cong.fishisland.datasource.ai.SiliconFlowDataSource;
+import com.cong.fishisland.model.vo.ai.AiGatewayStatsVO;
+import com.cong.fishisland.model.vo.ai.AiResponse;
+import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AI 网关测试，本地 HTTP 服务模拟两个 OpenAI 兼容的 AI 服务：
+ * /primary 对应模拟面试数据源（chutes），/backup 对应硅基流动数据源（siliconflow），请求带 stream=true 时按 SSE 返回
+ */
+class AiGatewayManagerTest {
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    private AiGatewayConfig aiGatewayConfig;
+
+    private AiGatewayManager aiGatewayManager;
+
+    private MockInterviewDataSource primarySource;
+
+    @TempDir
+    Path cacheDir;
+
+    private final AtomicInteger primaryRequests = new AtomicInteger();
+
+    private final AtomicInteger backupRequests = new AtomicInteger();
+
+    private volatile CountDownLatch primaryHold = new CountDownLatch(0);
+
+    private volatile int primaryStatus = 200;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/primary/chat/completions", exchange -> {
+            int n = primaryRequests.incrementAndGet();
+            await(primaryHold);
+            respond(exchange, primaryStatus, "primary-" + n);
+        });
+        server.createContext("/backup/chat/completions", exchange ->
+                respond(exchange, 200, "backup-" + backupRequests.incrementAndGet()));
+        server.start();
+        executor = Executors.newCachedThreadPool();
+
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        AIModelConfig aiModelConfig = new AIModelConfig();
+        aiModelConfig.setChutesAi2(baseUrl + "/primary");
+        aiModelConfig.setSiliconFlowUrl(baseUrl + "/backup");
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        httpClientConfig.setCacheDir(cacheDir.toString());
+        HttpClientManager httpClientManager = new HttpClientManager(httpClientConfig);
+        httpClientManager.init();
+
+        aiGatewayConfig = new AiGatewayConfig();
+        aiGatewayConfig.getFallbacks().put(AiGatewayManager.CHUTES, AiGatewayManager.SILICON_FLOW + ":backup-model");
+        aiGatewayManager = new AiGatewayManager(aiGatewayConfig);
+        AiStreamManager aiStreamManager = new AiStreamManager(WebClient.builder().build());
+        primarySource = new MockInterviewDataSource(aiModelConfig, httpClientManager, aiGatewayManager, aiStreamManager);
+        primarySource.init();
+        SiliconFlowDataSource backupSource = new SiliconFlowDataSource();
+        ReflectionTestUtils.setField(backupSource, "aiModelConfig", aiModelConfig);
+        ReflectionTestUtils.setField(backupSource, "httpClientManager", httpClientManager);
+        ReflectionTestUtils.setField(backupSource, "aiGatewayManager", aiGatewayManager);
+        ReflectionTestUtils.setField(backupSource, "aiStreamManager", aiStreamManager);
+        backupSource.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaryHold.countDown();
+        executor.shutdownNow();
+        server.stop(0);
+    }
+
+    @Test
+    void testIdenticalInFlightRequestsCoalesced() throws Exception {
+        primaryHold = new CountDownLatch(1);
+        List<Future<AiResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(executor.submit(() -> primarySource.getAiResponse("相同的问题", "model")));
+        }
+        waitUntil(() -> aiGatewayManager.stats().getCoalesced() == 4);
+        primaryHold.countDown();
+
+        for (Future<AiResponse> future : futures) {
+            assertEquals("primary-1", future.get(5, TimeUnit.SECONDS).getAnswer());
+        }
+        assertEquals(1, primaryRequests.get());
+    }
+
+    @Test
+    void testCacheableCallsReuseNormalizedPrompt() {
+        AiResponse first = primarySource.getCacheableAiResponse(messages("帖子  内容\n"), "model");
+        AiResponse second = primarySource.getCacheableAiResponse(messages(" 帖子 内容"), "model");
+
+        assertEquals(first.getAnswer(), second.getAnswer());
+        assertEquals(1, primaryRequests.get());
+        assertEquals(1, aiGatewayManager.stats().getCacheHits());
+
+        // 结果不确定的调用不走缓存
+        primarySource.getAiResponse(messages("帖子 内容"), "model");
+        primarySource.getAiResponse(messages("帖子 内容"), "model");
+        assertEquals(3, primaryRequests.get());
+    }
+
+    @Test
+    void testFullQueueRejectsImmediately() throws Exception {
+        aiGatewayConfig.setMaxConcurrent(1);
+        aiGatewayConfig.setMaxQueue(1);
+        aiGatewayConfig.setQueueTimeout(30_000);
+        aiGatewayManager = new AiGatewayManager(aiGatewayConfig);
+        primarySource = new MockInterviewDataSource(primarySource.getAiModelConfig(),
+                primarySource.getHttpClientManager(), aiGatewayManager, primarySource.getAiStreamManager());
+        primarySource.init();
+        primaryHold = new CountDownLatch(1);
+
+        Future<AiResponse> running = executor.submit(() -> primarySource.getAiResponse("问题 1", "model"));
+        waitUntil(() -> primaryRequests.get() == 1);
+        Future<AiResponse> queued = executor.submit(() -> primarySource.getAiResponse("问题 2", "model"));
+        waitUntil(() -> aiGatewayManager.stats().getQueueDepth() == 1);
+
+        long start = System.nanoTime();
+        assertThrows(BusinessException.class, () -> primarySource.getAiResponse("问题 3", "model"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        AiGatewayStatsVO stats = aiGatewayManager.stats();
+        assertEquals(1, stats.getInFlight());
+        assertEquals(1, stats.getRejected());
+
+        primaryHold.countDown();
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(0, aiGatewayManager.stats().getQueueDepth());
+    }
+
+    @Test
+    void testModelAndUserRateLimits() {
+        aiGatewayConfig.getModelPermits().put("limited", 2);
+        aiGatewayConfig.setUserPermitsPerMinute(2);
+
+        primarySource.getAiResponse("问题 1", "limited");
+        primarySource.getAiResponse("问题 2", "limited");
+        assertThrows(BusinessException.class, () -> primarySource.getAiResponse("问题 3", "limited"));
+        assertEquals(2, primaryRequests.get());
+
+        stream("model", "1").blockLast(Duration.ofSeconds(10));
+        stream("model", "1").blockLast(Duration.ofSeconds(10));
+        assertThrows(BusinessException.class, () -> stream("model", "1").blockLast(Duration.ofSeconds(10)));
+        // 其他用户不受影响
+        stream("model", "2").blockLast(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void testStreamHoldsPermitUntilComplete() throws Exception {
+        primaryHold = new CountDownLatch(1);
+        List<String> deltas = new ArrayList<>();
+        Disposable subscription = stream("model", "1").subscribe(deltas::add);
+        waitUntil(() -> primaryRequests.get() == 1);
+        assertEquals(1, aiGatewayManager.stats().getInFlight());
+
+        primaryHold.countDown();
+        waitUntil(subscription::isDisposed);
+        assertEquals(Collections.singletonList("primary-1"), deltas);
+        AiGatewayStatsVO.ProviderStats primary = providerStats(AiGatewayManager.CHUTES);
+        assertEquals(0, aiGatewayManager.stats().getInFlight());
+        assertEquals(1, primary.getCalls());
+        assertEquals(3, primary.getPromptTokens());
+        assertEquals(5, primary.getCompletionTokens());
+    }
+
+    @Test
+    void testCancelledStreamReleasesPermit() throws Exception {
+        aiGatewayConfig.setMaxConcurrent(1);
+        aiGatewayConfig.setQueueTimeout(100);
+        aiGatewayManager = new AiGatewayManager(aiGatewayConfig);
+        primarySource = new MockInterviewDataSource(primarySource.getAiModelConfig(),
+                primarySource.getHttpClientManager(), aiGatewayManager, primarySource.getAiStreamManager());
+        primarySource.init();
+        primaryHold = new CountDownLatch(1);
+
+        Disposable subscription = stream("model", "1").subscribe();
+        waitUntil(() -> primaryRequests.get() == 1);
+        // 名额被流占用，后续请求排队超时；被拒绝的订阅没有拿到名额，也不会归还
+        assertThrows(BusinessException.class, () -> stream("model", "2").blockLast(Duration.ofSeconds(10)));
+        assertEquals(1, aiGatewayManager.stats().getInFlight());
+
+        subscription.dispose();
+        waitUntil(() -> aiGatewayManager.stats().getInFlight() == 0);
+        primaryHold.countDown();
+        assertEquals(Collections.singletonList("primary-2"), stream("model", "3").collectList().block(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void testStreamAcquiresOnSubscribe() {
+        aiGatewayConfig.setUserPermitsPerMinute(1);
+
+        // 只创建不订阅，不消耗令牌和名额
+        Flux<String> unsubscribed = stream("model", "1");
+        assertNotNull(unsubscribed);
+        assertEquals(0, aiGatewayManager.stats().getInFlight());
+        assertEquals(Collections.singletonList("primary-1"), stream("model", "1").collectList().block(Duration.ofSeconds(10)));
+
+        // 每次订阅各自限流
+        Flux<String> once = stream("model", "2");
+        once.blockLast(Duration.ofSeconds(10));
+        assertThrows(BusinessException.class, () -> once.blockLast(Duration.ofSeconds(10)));
+        assertEquals(0, aiGatewayManager.stats().getInFlight());
+        assertEquals(2, primaryRequests.get());
+    }
+
+    @Test
+    void testStreamFallbackToBackupProvider() {
+        primaryStatus = 500;
+
+        List<String> deltas = stream("model", "1").collectList().block(Duration.ofSeconds(10));
+
+        assertEquals(Collections.singletonList("backup-1"), deltas);
+        AiGatewayStatsVO.ProviderStats primary = providerStats(AiGatewayManager.CHUTES);
+        AiGatewayStatsVO.ProviderStats backup = providerStats(AiGatewayManager.SILICON_FLOW);
+        assertEquals(1, primary.getFailures());
+        assertEquals(1, primary.getFallbacks());
+        assertEquals(1, backup.getCalls());
+        assertEquals(5, backup.getCompletionTokens());
+        assertEquals(0, aiGatewayManager.stats().getInFlight());
+    }
+
+    @Test
+    void testFallbackToBackupProvider() {
+        primaryStatus = 500;
+
+        AiResponse response = primarySource.getAiResponse("问题", "model");
+
+        assertEquals("backup-1", response.getAnswer());
+        AiGatewayStatsVO.ProviderStats primary = providerStats(AiGatewayManager.CHUTES);
+        AiGatewayStatsVO.ProviderStats backup = providerStats(AiGatewayManager.SILICON_FLOW);
+        assertEquals(1, primary.getFailures());
+        assertEquals(1, primary.getFallbacks());
+        assertEquals(1, backup.getCalls());
+        assertEquals(3, backup.getPromptTokens());
+        assertEquals(5, backup.getCompletionTokens());
+    }
+
+    private Flux<String> stream(String model, String userId) {
+        return aiGatewayManager.stream(AiGatewayManager.CHUTES, model, userId, messages("问题"));
+    }
+
+    private AiGatewayStatsVO.ProviderStats providerStats(String name) {
+        return aiGatewayManager.stats().getProviders().stream()
+                .filter(stats -> name.equals(stats.getName()))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    private static List<SiliconFlowRequest.Message> messages(String content) {
+        SiliconFlowRequest.Message message = new SiliconFlowRequest.Message();
+        message.setRole("user");
+        message.setContent(content);
+        return Collections.singletonList(message);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String answer) throws IOException {
+        String request = new Scanner(exchange.getRequestBody(), "UTF-8").useDelimiter("\\A").next();
+        if (status == 200 && request.contains("\"stream\":true")) {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(("data: {\"choices\":[{\"delta\":{\"content\":\"" + answer + "\"}}]}\n\n"
+                        + "data: {\"choices\":[],\"usage\":{\"prompt_tokens\":3,\"completion_tokens\":5}}\n\n"
+                        + "data: [DONE]\n\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return;
+        }
+        String json = "{\"id\":\"1\",\"created\":1,\"model\":\"model\",\"choices\":[{\"index\":0,"
+                + "\"message\":{\"role\":\"assistant\",\"content\":\"" + answer + "\"}}],"
+                + "\"usage\":{\"prompt_tokens\":3,\"completion_tokens\":5,\"total_tokens\":8}}";
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.model.vo.ai.AiResponse;
+import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式 AI 对话测试，本地 SSE 服务按固定间隔逐字输出，模拟模型生成
+ */
+@Slf4j
+class AiStreamManagerTest {
+
+    private static final int TOKENS = 10;
+
+    private static final long TOKEN_DELAY_MILLIS = 50;
+
+    private HttpServer server;
+
+    private String baseUrl;
+
+    private AiStreamManager aiStreamManager;
+
+    private final AtomicReference<String> lastRequest = new AtomicReference<>();
+
+    private final AtomicReference<String> lastAuthorization = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/chat/completions", exchange -> {
+            lastRequest.set(new Scanner(exchange.getRequestBody(), "UTF-8").useDelimiter("\\A").next());
+            lastAuthorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                write(out, "{\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}");
+                for (int i = 0; i < TOKENS; i++) {
+                    sleep(TOKEN_DELAY_MILLIS);
+                    write(out, "{\"choices\":[{\"delta\":{\"content\":\"t" + i + "\"}}]}");
+                }
+                write(out, "{\"choices\":[],\"usage\":{\"prompt_tokens\":3,\"completion_tokens\":" + TOKENS + "}}");
+                write(out, "[DONE]");
+            }
+        });
+        server.createContext("/error/chat/completions", exchange -> {
+            byte[] body = "{\"message\":\"rate limited\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(429, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        aiStreamManager = new AiStreamManager(WebClient.builder().build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testStreamsDeltasUntilDone() {
+        List<String> deltas = aiStreamManager.streamChat(baseUrl + "/v1", "Bearer key", messages(), "model")
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(IntStream.range(0, TOKENS).mapToObj(i -> "t" + i).collect(Collectors.toList()), deltas);
+        assertTrue(lastRequest.get().contains("\"stream\":true"));
+        assertTrue(lastRequest.get().contains("\"max_tokens\":512"));
+        assertEquals("Bearer key", lastAuthorization.get());
+    }
+
+    @Test
+    void testStreamChunksCarryUsage() {
+        List<AiResponse> chunks = aiStreamManager.streamChunks(baseUrl + "/v1", "Bearer key", messages(), "model")
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertNotNull(chunks);
+        AiResponse last = chunks.get(chunks.size() - 1);
+        assertEquals("", last.getAnswer());
+        assertEquals(3, last.getPromptTokens());
+        assertEquals(TOKENS, last.getCompletionTokens());
+        assertTrue(lastRequest.get().contains("\"include_usage\":true"));
+    }
+
+    @Test
+    void testTimeToFirstToken() {
+        // 预热，排除首次建立事件循环和连接的开销
+        aiStreamManager.streamChat(baseUrl + "/v1", "Bearer key", messages(), "model").blockLast(Duration.ofSeconds(10));
+        long start = System.nanoTime();
+        List<Long> arrivals = aiStreamManager.streamChat(baseUrl + "/v1", "Bearer key", messages(), "model")
+                .map(delta -> (System.nanoTime() - start) / 1_000_000)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertNotNull(arrivals);
+        long firstToken = arrivals.get(0);
+        long total = arrivals.get(arrivals.size() - 1);
+        log.info("首个输出 {}ms，全部输出 {}ms", firstToken, total);
+        // 首个输出不必等待完整回答，之后按生成节奏陆续到达
+        assertTrue(firstToken < total / 2, "首个输出 " + firstToken + "ms，全部输出 " + total + "ms");
+        assertTrue(total - firstToken >= (TOKENS - 2) * TOKEN_DELAY_MILLIS);
+    }
+
+    @Test
+    void testConcurrentStreams() {
+        int streams = 200;
+        long start = System.nanoTime();
+        List<Integer> counts = Flux.range(0, streams)
+                .flatMap(i -> aiStreamManager.streamChat(baseUrl + "/v1", "Bearer key", messages(), "model").count()
+                        .map(Long::intValue), streams)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+        long cost = (System.nanoTime() - start) / 1_000_000;
+
+        assertNotNull(counts);
+        assertEquals(Collections.nCopies(streams, TOKENS), counts);
+        log.info("{} 路并发流式回答耗时 {}ms，单路约 {}ms", streams, cost, TOKENS * TOKEN_DELAY_MILLIS);
+        // 串行需要 streams * 500ms，并发时总耗时与单路同一量级
+        assertTrue(cost < streams * TOKENS * TOKEN_DELAY_MILLIS / 10, "耗时 " + cost + "ms");
+    }
+
+    @Test
+    void testErrorStatusFailsStream() {
+        Mono<List<String>> result = aiStreamManager.streamChat(baseUrl + "/error", "Bearer key", messages(), "model")
+                .collectList();
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> result.block(Duration.ofSeconds(10)));
+        assertTrue(exception.getMessage().contains("429"));
+    }
+
+    @Test
+    void testCoalesceMergesWithinWindow() {
+        List<String> frames = AiStreamManager.coalesce(Flux.interval(Duration.ofMillis(5)).take(40)
+                        .map(String::valueOf), Duration.ofMillis(50))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertNotNull(frames);
+        assertTrue(frames.size() < 40, "帧数 " + frames.size());
+        assertEquals(IntStream.range(0, 40).mapToObj(String::valueOf).collect(Collectors.joining()),
+                String.join("", frames));
+    }
+
+    private static List<SiliconFlowRequest.Message> messages() {
+        SiliconFlowRequest.Message message = new SiliconFlowRequest.Message();
+        message.setRole("user");
+        message.setContent("你好");
+        List<SiliconFlowRequest.Message> messages = new ArrayList<>();
+        messages.add(message);
+        return messages;
+    }
+
+    private static void write(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
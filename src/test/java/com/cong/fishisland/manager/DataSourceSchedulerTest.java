@@ -0,0 +1,188 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.annotation.HotDataSource;
+import com.cong.fishisland.config.HotPostCrawlConfig;
+import com.cong.fishisland.datasource.hostpost.DataSource;
+import com.cong.fishisland.model.entity.hot.HotPost;
+import com.cong.fishisland.model.enums.HotDataKeyEnum;
+import com.cong.fishisland.model.enums.UpdateIntervalEnum;
+import com.cong.fishisland.model.vo.hot.DataSourceHealthVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据源注册与调度测试，时间由测试传入，不依赖真实时钟
+ */
+class DataSourceSchedulerTest {
+
+    private static final long HALF_HOUR = 1_800_000;
+
+    private HotPostCrawlConfig config;
+
+    private DataSourceRegistry registry;
+
+    private DataSourceScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        config = new HotPostCrawlConfig();
+        config.setJitterRatio(0);
+        registry = new DataSourceRegistry(Arrays.asList(new ZhiHu(), new WeiBo(), new CodeFather()), config);
+        scheduler = new DataSourceScheduler(registry, config);
+    }
+
+    @Test
+    void testRegistryDiscoversDescriptors() {
+        assertEquals(Arrays.asList("zhiHu", "WeiBo", "CodeFather"), registry.getTypes());
+        assertEquals(5000, registry.getTimeout("WeiBo"));
+        assertEquals(config.getSourceTimeout(), registry.getTimeout("zhiHu"));
+        config.getSourceTimeouts().put("WeiBo", 8000L);
+        assertEquals(8000, registry.getTimeout("WeiBo"));
+    }
+
+    @Test
+    void testRegistryRejectsDuplicateOrUndeclared() {
+        assertThrows(IllegalStateException.class,
+                () -> new DataSourceRegistry(Arrays.asList(new ZhiHu(), new ZhiHu()), config));
+        assertThrows(IllegalStateException.class,
+                () -> new DataSourceRegistry(Collections.singletonList(() -> HotPost.builder().build()), config));
+    }
+
+    @Test
+    void testDueOrderedByPriority() {
+        // 全部首次到期，优先级高的先抓取
+        assertEquals(Arrays.asList("WeiBo", "zhiHu", "CodeFather"), scheduler.pollDue(0));
+        // 执行中的不会重复取出
+        assertTrue(scheduler.pollDue(0).isEmpty());
+    }
+
+    @Test
+    void testSeedAndIntervalPerSource() {
+        scheduler.seed("zhiHu", 1000);
+        scheduler.seed("WeiBo", 1000);
+        scheduler.seed("CodeFather", 1000);
+
+        assertTrue(scheduler.pollDue(1000 + HALF_HOUR - 1).isEmpty());
+        assertEquals(Arrays.asList("WeiBo", "zhiHu"), scheduler.pollDue(1000 + HALF_HOUR));
+        // 编程导航每天更新一次
+        assertTrue(scheduler.pollDue(1000 + 47 * HALF_HOUR).isEmpty());
+        assertEquals(Collections.singletonList("CodeFather"), scheduler.pollDue(1000 + 48 * HALF_HOUR));
+    }
+
+    @Test
+    void testExponentialBackoff() {
+        scheduler.seed("WeiBo", Long.MAX_VALUE / 2);
+        scheduler.seed("CodeFather", Long.MAX_VALUE / 2);
+        long now = 0;
+        poll(now, "zhiHu");
+        scheduler.onFailure("zhiHu", 10, "error", now);
+        assertTrue(scheduler.pollDue(now + config.getBackoffBase() - 1).isEmpty());
+        now += config.getBackoffBase();
+        poll(now, "zhiHu");
+        scheduler.onFailure("zhiHu", 10, "error", now);
+        // 第二次失败退避翻倍
+        assertTrue(scheduler.pollDue(now + 2 * config.getBackoffBase() - 1).isEmpty());
+        now += 2 * config.getBackoffBase();
+        poll(now, "zhiHu");
+        scheduler.onSuccess("zhiHu", 10, now);
+        // 成功后恢复正常间隔
+        assertTrue(scheduler.pollDue(now + HALF_HOUR - 1).isEmpty());
+        poll(now + HALF_HOUR, "zhiHu");
+    }
+
+    @Test
+    void testCircuitOpensAndHalfOpenDoubles() {
+        scheduler.seed("WeiBo", Long.MAX_VALUE / 2);
+        scheduler.seed("CodeFather", Long.MAX_VALUE / 2);
+        long now = 0;
+        for (int i = 0; i < config.getFailureThreshold(); i++) {
+            now = scheduler.health().get(0).getNextRunTime().getTime();
+            poll(now, "zhiHu");
+            scheduler.onFailure("zhiHu", 10, "error", now);
+        }
+        DataSourceHealthVO health = scheduler.health().get(0);
+        assertEquals("OPEN", health.getCircuit());
+        assertEquals(now + config.getOpenDuration(), health.getNextRunTime().getTime());
+
+        // 熔断到期后放行一次试探，试探失败熔断时长翻倍
+        now += config.getOpenDuration();
+        poll(now, "zhiHu");
+        assertEquals("HALF_OPEN", scheduler.health().get(0).getCircuit());
+        scheduler.onFailure("zhiHu", 10, "error", now);
+        assertEquals(now + 2 * config.getOpenDuration(), scheduler.health().get(0).getNextRunTime().getTime());
+
+        now += 2 * config.getOpenDuration();
+        poll(now, "zhiHu");
+        scheduler.onSuccess("zhiHu", 10, now);
+        health = scheduler.health().get(0);
+        assertEquals("CLOSED", health.getCircuit());
+        assertEquals(0, health.getConsecutiveFailures());
+        assertEquals(config.getFailureThreshold() + 2, health.getTotalRuns());
+        assertEquals(config.getFailureThreshold() + 1, health.getTotalFailures());
+    }
+
+    @Test
+    void testOpenDurationCapped() {
+        config.setOpenDurationMax(3 * HALF_HOUR);
+        scheduler.seed("WeiBo", Long.MAX_VALUE / 2);
+        scheduler.seed("CodeFather", Long.MAX_VALUE / 2);
+        long now = 0;
+        for (int i = 0; i < config.getFailureThreshold() + 10; i++) {
+            now = scheduler.health().get(0).getNextRunTime().getTime();
+            poll(now, "zhiHu");
+            scheduler.onFailure("zhiHu", 10, "error", now);
+        }
+        assertEquals(now + 3 * HALF_HOUR, scheduler.health().get(0).getNextRunTime().getTime());
+    }
+
+    @Test
+    void testLatencyPercentiles() {
+        long now = 0;
+        for (int i = 1; i <= 100; i++) {
+            scheduler.pollDue(now);
+            scheduler.onSuccess("WeiBo", i, now);
+            now += HALF_HOUR;
+        }
+        DataSourceHealthVO health = scheduler.health().get(1);
+        assertEquals("WeiBo", health.getType());
+        assertEquals("微博", health.getTypeName());
+        assertEquals(50, health.getLatencyP50());
+        assertEquals(95, health.getLatencyP95());
+        assertEquals(99, health.getLatencyP99());
+    }
+
+    private void poll(long now, String... expected) {
+        List<String> due = scheduler.pollDue(now);
+        assertEquals(Arrays.asList(expected), due);
+    }
+
+    @HotDataSource(key = HotDataKeyEnum.ZHI_HU)
+    private static class ZhiHu implements DataSource {
+        @Override
+        public HotPost getHotPost() {
+            return HotPost.builder().build();
+        }
+    }
+
+    @HotDataSource(key = HotDataKeyEnum.WEI_BO, timeout = 5000, priority = 10)
+    private static class WeiBo implements DataSource {
+        @Override
+        public HotPost getHotPost() {
+            return HotPost.builder().build();
+        }
+    }
+
+    @HotDataSource(key = HotDataKeyEnum.CODE_FATHER, interval = UpdateIntervalEnum.ONE_DAY, priority = -1)
+    private static class CodeFather implements DataSource {
+        @Override
+        public HotPost getHotPost() {
+            return HotPost.builder().build();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.mapper.hero.HeroMapper;
+import com.cong.fishisland.model.entity.hero.Hero;
+import com.cong.fishisland.model.vo.hero.HeroVO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 英雄数据内存快照测试：内存实现代替 Redis 和数据库
+ */
+class HeroCatalogManagerTest {
+
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    private final List<Hero> table = new ArrayList<>();
+
+    private final HeroMapper heroMapper = mock(HeroMapper.class);
+
+    private HeroCatalogManager heroCatalogManager;
+
+    @BeforeEach
+    void setUp() {
+        // 与查询一致，按上线时间升序
+        table.add(hero(2L, "亚瑟", "2015-11-26", "a"));
+        table.add(hero(1L, "苍", "2024-01-01", "a|b"));
+        table.add(hero(3L, "大禹", "2025-01-01", ""));
+        when(heroMapper.selectList(any())).thenAnswer(inv -> new ArrayList<>(table));
+        heroCatalogManager = new HeroCatalogManager(heroMapper, redis(), new ObjectMapper());
+        heroCatalogManager.init();
+    }
+
+    @Test
+    void testServesFromSnapshot() throws Exception {
+        Set<String> picked = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            picked.add(heroCatalogManager.random().getCname());
+        }
+
+        assertEquals(3, picked.size());
+        assertEquals("大禹", heroCatalogManager.newest().getCname());
+        HeroVO heroVO = heroCatalogManager.get(1L);
+        assertEquals("1", heroVO.getId());
+        assertEquals(2, heroVO.getSkinsNum());
+        assertNull(heroCatalogManager.get(9L));
+        assertEquals(3, heroCatalogManager.simpleHeroes().size());
+        String response = new String(heroCatalogManager.simpleHeroesResponse(), StandardCharsets.UTF_8);
+        assertTrue(response.contains("\"cname\":\"亚瑟\""), response);
+        // 只在启动时查一次库
+        verify(heroMapper, times(1)).selectList(any());
+    }
+
+    @Test
+    void testOtherNodesReloadAfterPublish() {
+        HeroCatalogManager otherNode = new HeroCatalogManager(heroMapper, redis(), new ObjectMapper());
+        otherNode.init();
+        table.add(hero(4L, "新英雄", "2026-01-01", "a"));
+
+        heroCatalogManager.publish();
+
+        assertEquals("新英雄", heroCatalogManager.newest().getCname());
+        assertEquals("大禹", otherNode.newest().getCname());
+        otherNode.syncVersion();
+        assertEquals("新英雄", otherNode.newest().getCname());
+        assertEquals(heroCatalogManager.version(), otherNode.version());
+        // 版本未变化时不重新加载
+        otherNode.syncVersion();
+        verify(heroMapper, times(4)).selectList(any());
+    }
+
+    @Test
+    void testEmptyTableRejected() {
+        table.clear();
+        heroCatalogManager.publish();
+
+        assertThrows(BusinessException.class, () -> heroCatalogManager.random());
+        assertThrows(BusinessException.class, () -> heroCatalogManager.newest());
+    }
+
+    @SuppressWarnings("unchecked")
+    private StringRedisTemplate redis() {
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(inv -> values.get(inv.<String>getArgument(0)));
+        when(valueOperations.increment(anyString())).thenAnswer(inv -> Long.parseLong(values.merge(
+                inv.getArgument(0), "1", (old, one) -> String.valueOf(Long.parseLong(old) + 1))));
+        return stringRedisTemplate;
+    }
+
+    private static Hero hero(Long id, String cname, String releaseDate, String skins) {
+        Hero hero = new Hero();
+        hero.setId(id);
+        hero.setCname(cname);
+        hero.setReleaseDate(java.sql.Date.valueOf(releaseDate));
+        hero.setSkins(skins);
+        return hero;
+    }
+}
@@ -0,0 +1,199 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.EmbeddedRedis;
+import com.cong.fishisland.common.ResultUtils;
+import com.cong.fishisland.config.JsonConfig;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.controller.hot.HotPostController;
+import com.cong.fishisland.model.entity.hot.HotPost;
+import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import com.cong.fishisland.model.vo.hot.HotPostVO;
+import com.cong.fishisland.service.HotPostHistoryService;
+import com.cong.fishisland.service.HotPostService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 热榜列表缓存测试
+ */
+class HotPostCacheManagerTest {
+
+    private final ObjectMapper objectMapper = new JsonConfig().jacksonObjectMapper(new Jackson2ObjectMapperBuilder());
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private ValueOperations<String, String> valueOperations;
+
+    private HotPostService hotPostService;
+
+    private DataSourceRegistry dataSourceRegistry;
+
+    private HotPostCacheManager hotPostCacheManager;
+
+    private List<HotPostVO> boards;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        hotPostService = mock(HotPostService.class);
+        dataSourceRegistry = mock(DataSourceRegistry.class);
+        when(dataSourceRegistry.getTypes()).thenReturn(Arrays.asList("zhihu", "weibo"));
+        hotPostCacheManager = new HotPostCacheManager(stringRedisTemplate, objectMapper, hotPostService,
+                dataSourceRegistry);
+        hotPostCacheManager.init();
+
+        boards = Arrays.asList(board("zhihu", "知乎热榜"), board("weibo", "微博热搜"));
+        List<Object> result = new ArrayList<>();
+        result.add("1");
+        for (HotPostVO board : boards) {
+            result.add(objectMapper.writeValueAsString(board));
+        }
+        when(valueOperations.get(anyString())).thenReturn("1");
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList())).thenReturn(result);
+    }
+
+    @Test
+    void testBodyMatchesBaseResponse() throws Exception {
+        HotPostCacheManager.HotPostList hotPostList = hotPostCacheManager.getHotPostList();
+
+        // 拼接结果与直接序列化通用返回类完全一致
+        assertEquals(objectMapper.writeValueAsString(ResultUtils.success(boards)),
+                new String(hotPostList.getBody(), StandardCharsets.UTF_8));
+        assertEquals("1", hotPostList.getVersion());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReloadOnlyWhenVersionChanges() {
+        HotPostCacheManager.HotPostList first = hotPostCacheManager.getHotPostList();
+        HotPostCacheManager.HotPostList second = hotPostCacheManager.getHotPostList();
+
+        assertSame(first, second);
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class), anyList());
+
+        // 某个榜单入库后版本号自增，重新读取
+        when(valueOperations.get(anyString())).thenReturn("2");
+        HotPostCacheManager.HotPostList third = hotPostCacheManager.getHotPostList();
+
+        assertNotSame(first, third);
+        verify(stringRedisTemplate, times(2)).execute(any(RedisScript.class), anyList());
+    }
+
+    @Test
+    void testEtagFollowsContent() {
+        String etag = hotPostCacheManager.assemble("1", Collections.singletonList("{\"type\":\"a\"}")).getEtag();
+
+        assertEquals(etag, hotPostCacheManager.assemble("2", Collections.singletonList("{\"type\":\"a\"}")).getEtag());
+        assertNotEquals(etag, hotPostCacheManager.assemble("3", Collections.singletonList("{\"type\":\"b\"}")).getEtag());
+    }
+
+    @Test
+    void testFallbackToDatabaseWhenRedisDown() throws Exception {
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        when(hotPostService.getHotPostList()).thenReturn(boards);
+
+        HotPostCacheManager.HotPostList hotPostList = hotPostCacheManager.getHotPostList();
+
+        assertEquals(objectMapper.writeValueAsString(ResultUtils.success(boards)),
+                new String(hotPostList.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testRebuildPrunesBoardsNoLongerCrawled() throws Exception {
+        EmbeddedRedis.flush();
+        StringRedisTemplate redis = EmbeddedRedis.template();
+        HotPostCacheManager manager = new HotPostCacheManager(redis, objectMapper, hotPostService, dataSourceRegistry);
+        manager.init();
+        // 已下线数据源的榜单还在缓存和数据库中
+        redis.opsForHash().put(RedisKey.getKey(RedisKey.HOT_POST_BOARDS), "retired", "{\"type\":\"retired\"}");
+        redis.opsForZSet().add(RedisKey.getKey(RedisKey.HOT_POST_ORDER), "retired", 0);
+        redis.opsForValue().set(RedisKey.getKey(RedisKey.HOT_POST_VERSION), "5");
+        when(hotPostService.list()).thenReturn(Arrays.asList(hotPost("zhihu", 1), hotPost("weibo", 2),
+                hotPost("retired", 3)));
+
+        manager.rebuild();
+
+        assertEquals(new HashSet<>(Arrays.asList("zhihu", "weibo")),
+                redis.<String, String>opsForHash().keys(RedisKey.getKey(RedisKey.HOT_POST_BOARDS)));
+        assertEquals(new HashSet<>(Arrays.asList("zhihu", "weibo")),
+                redis.opsForZSet().range(RedisKey.getKey(RedisKey.HOT_POST_ORDER), 0, -1));
+        // 两个榜单写入各自增一次，移除再自增一次
+        assertEquals("8", redis.opsForValue().get(RedisKey.getKey(RedisKey.HOT_POST_VERSION)));
+        assertFalse(new String(manager.getHotPostList().getBody(), StandardCharsets.UTF_8).contains("retired"));
+    }
+
+    @Test
+    void testListEndpointSupportsIfNoneMatch() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new HotPostController(hotPostCacheManager,
+                mock(HotPostHistoryService.class), mock(DataSourceScheduler.class))).build();
+
+        MvcResult result = mockMvc.perform(get("/hot/list"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = result.getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/hot/list").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        // 原有的 POST 调用方不受影响
+        mockMvc.perform(post("/hot/list").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+    }
+
+    private static HotPost hotPost(String type, int sort) {
+        return HotPost.builder()
+                .name(type)
+                .type(type)
+                .typeName(type)
+                .category(1)
+                .sort(sort)
+                .hostJson("[{\"title\":\"t\",\"url\":\"https://example.com\"}]")
+                .build();
+    }
+
+    private static HotPostVO board(String type, String name) {
+        HotPostVO hotPostVO = new HotPostVO();
+        hotPostVO.setId(1L);
+        hotPostVO.setName(name);
+        hotPostVO.setType(type);
+        hotPostVO.setTypeName(name);
+        hotPostVO.setUpdateTime(new Date(1700000000000L));
+        hotPostVO.setCategory(1);
+        hotPostVO.setCategoryName("综合");
+        hotPostVO.setData(Collections.singletonList(HotPostDataVO.builder()
+                .title(name + "第一条")
+                .url("https://example.com/" + type)
+                .followerCount(100)
+                .build()));
+        return hotPostVO;
+    }
+}
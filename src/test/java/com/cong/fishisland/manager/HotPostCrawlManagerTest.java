@@ -0,0 +1,180 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import com.cong.fishisland.config.HotPostCrawlConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 热榜并发抓取测试，每个数据源对应本地 HTTP 服务上的一个路径，按路径名模拟延迟、失败和挂起
+ */
+class HotPostCrawlManagerTest {
+
+    private static final long SOURCE_DELAY_MILLIS = 300;
+
+    private HttpServer server;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private HotPostCrawlConfig config;
+
+    private HotPostCrawlManager hotPostCrawlManager;
+
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 数据源 -> 入库时刻（相对抓取开始）
+     */
+    private final Map<String, Long> committedAt = new ConcurrentHashMap<>();
+
+    private long start;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            String type = exchange.getRequestURI().getPath().substring(1);
+            requestCounts.computeIfAbsent(type, key -> new AtomicInteger()).incrementAndGet();
+            int status = 200;
+            try {
+                if (type.startsWith("slow")) {
+                    Thread.sleep(SOURCE_DELAY_MILLIS * 5);
+                } else if (type.startsWith("hang")) {
+                    Thread.sleep(10_000);
+                } else if (type.startsWith("error")) {
+                    status = 500;
+                } else {
+                    Thread.sleep(SOURCE_DELAY_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"type\":\"" + type + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(16);
+        executor.setThreadNamePrefix("crawl-test-");
+        executor.initialize();
+
+        RetryTemplate retryTemplate = new RetryTemplate();
+        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy();
+        retryPolicy.setMaxAttempts(3);
+        retryTemplate.setRetryPolicy(retryPolicy);
+        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+        backOffPolicy.setBackOffPeriod(50);
+        retryTemplate.setBackOffPolicy(backOffPolicy);
+
+        config = new HotPostCrawlConfig();
+        config.setSourceTimeout(5_000);
+        hotPostCrawlManager = new HotPostCrawlManager(executor, retryTemplate, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    @Test
+    void testCrawlRunsSourcesConcurrently() {
+        List<String> types = new ArrayList<>();
+        for (int i = 0; i < 13; i++) {
+            types.add("source" + i);
+        }
+
+        HotPostCrawlManager.CrawlReport report = crawl(types);
+
+        assertEquals(types, report.getSucceeded());
+        assertEquals(13, committedAt.size());
+        // 串行需要 13 * 300ms，并发约等于单个数据源的耗时
+        assertTrue(report.getCostMillis() < SOURCE_DELAY_MILLIS * 4, "cost " + report.getCostMillis());
+    }
+
+    @Test
+    void testEachSourceCommittedWhenDone() {
+        HotPostCrawlManager.CrawlReport report = crawl(Arrays.asList("slow", "fast"));
+
+        assertEquals(Arrays.asList("slow", "fast"), report.getSucceeded());
+        // 快的数据源不等慢的数据源，自己完成就入库
+        assertTrue(committedAt.get("fast") < committedAt.get("slow"));
+        assertTrue(committedAt.get("fast") < SOURCE_DELAY_MILLIS * 3, "fast committed at " + committedAt.get("fast"));
+    }
+
+    @Test
+    void testTimeoutAndFailureAreIsolated() {
+        config.getSourceTimeouts().put("hang", 800L);
+
+        HotPostCrawlManager.CrawlReport report = crawl(Arrays.asList("hang", "error", "ok"));
+
+        assertEquals(Arrays.asList("ok"), report.getSucceeded());
+        assertEquals(Arrays.asList("error"), report.getFailed());
+        assertEquals(Arrays.asList("hang"), report.getTimedOut());
+        // 失败的数据源在自己的任务里重试
+        assertEquals(3, requestCounts.get("error").get());
+        assertFalse(committedAt.containsKey("hang"));
+        // 挂起的数据源只占用自己的时间预算
+        assertTrue(report.getCostMillis() < 2_000, "cost " + report.getCostMillis());
+    }
+
+    @Test
+    void testTimeoutCountsFromTaskStart() {
+        // 单线程依次执行，后面的数据源要排队；每个数据源 300ms，预算 500ms
+        ThreadPoolTaskExecutor singleExecutor = new ThreadPoolTaskExecutor();
+        singleExecutor.setCorePoolSize(1);
+        singleExecutor.setMaxPoolSize(1);
+        singleExecutor.initialize();
+        config.setSourceTimeout(SOURCE_DELAY_MILLIS + 200);
+        hotPostCrawlManager = new HotPostCrawlManager(singleExecutor, new RetryTemplate(), config);
+        try {
+            HotPostCrawlManager.CrawlReport report = crawl(Arrays.asList("source0", "source1", "source2"));
+
+            // 排队时间不计入预算，都能完成
+            assertEquals(Arrays.asList("source0", "source1", "source2"), report.getSucceeded());
+            assertTrue(report.getTimedOut().isEmpty());
+        } finally {
+            singleExecutor.shutdown();
+        }
+    }
+
+    private HotPostCrawlManager.CrawlReport crawl(List<String> types) {
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        start = System.currentTimeMillis();
+        return hotPostCrawlManager.crawl(types, type -> {
+            try (HttpResponse response = HttpRequest.get(baseUrl + type).timeout(15_000).execute()) {
+                if (!response.isOk()) {
+                    throw new IllegalStateException("status " + response.getStatus());
+                }
+            }
+            committedAt.put(type, System.currentTimeMillis() - start);
+        });
+    }
+}
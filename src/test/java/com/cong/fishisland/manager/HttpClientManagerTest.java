@@ -0,0 +1,153 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.config.HttpClientConfig;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.Headers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 出站 HTTP 客户端测试（本地 HTTP 服务模拟热榜接口）
+ */
+class HttpClientManagerTest {
+
+    private static final String ETAG = "\"board-v1\"";
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+
+    private HttpClientManager httpClientManager;
+
+    private final AtomicInteger notModifiedCount = new AtomicInteger();
+
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+
+    private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        // 带 ETag 的热榜，条件请求命中时返回 304
+        server.createContext("/board", exchange -> {
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedCount.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+            byte[] body = "[\"a\",\"b\"]".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            maxConcurrentRequests.accumulateAndGet(concurrentRequests.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrentRequests.decrementAndGet();
+            }
+            exchange.sendResponseHeaders(200, 2);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write("ok".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/error", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.start();
+
+        HttpClientConfig config = new HttpClientConfig();
+        config.setCacheDir(cacheDir.toString());
+        config.setMaxRequestsPerHost(2);
+        httpClientManager = new HttpClientManager(config);
+        httpClientManager.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClientManager.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void testConditionalRequestSkipsParsing() throws IOException {
+        AtomicInteger parseCount = new AtomicInteger();
+
+        List<String> first = httpClientManager.get(url("/board"), Headers.of(), body -> {
+            parseCount.incrementAndGet();
+            return Arrays.asList(body.replaceAll("[\\[\\]\"]", "").split(","));
+        });
+        List<String> second = httpClientManager.get(url("/board"), Headers.of(), body -> {
+            parseCount.incrementAndGet();
+            return Arrays.asList(body.split(","));
+        });
+
+        assertEquals(Arrays.asList("a", "b"), first);
+        // 第二次带 If-None-Match 发出，服务端 304，未重新解析
+        assertSame(first, second);
+        assertEquals(1, parseCount.get());
+        assertEquals(1, notModifiedCount.get());
+        HttpClientManager.HostStats stats = httpClientManager.stats().get(0);
+        assertEquals(2, stats.getRequests());
+        assertEquals(1, stats.getConditionalHits());
+        assertEquals(1, stats.getUnchangedResponses());
+        // 第二次复用第一次的连接
+        assertEquals(1, stats.getConnectionsOpened());
+        assertEquals(1, stats.getConnectionsReused());
+    }
+
+    @Test
+    void testPerHostConcurrencyLimit() throws InterruptedException {
+        Thread[] threads = new Thread[6];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    assertEquals("ok", httpClientManager.get(url("/slow")));
+                } catch (IOException e) {
+                    fail(e);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(2, maxConcurrentRequests.get());
+    }
+
+    @Test
+    void testErrorStatusThrows() {
+        IOException exception = assertThrows(IOException.class, () -> httpClientManager.get(url("/error")));
+
+        assertTrue(exception.getMessage().startsWith("HTTP 500"));
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+}
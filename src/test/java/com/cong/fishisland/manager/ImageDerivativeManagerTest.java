@@ -0,0 +1,157 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.cong.fishisland.common.EmbeddedRedis;
+import com.cong.fishisland.config.ImageDerivativeConfig;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.model.vo.file.ImageVariantsVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 图片衍生图生成测试：衍生图记录写入真实 Redis，对象存储用内存实现代替
+ */
+class ImageDerivativeManagerTest {
+
+    private final StringRedisTemplate redis = EmbeddedRedis.template();
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    private final ObjectStorage storage = mock(ObjectStorage.class);
+
+    private ImageDerivativeManager imageDerivativeManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EmbeddedRedis.flush();
+        when(storage.getObject(anyString())).thenAnswer(inv -> {
+            byte[] object = objects.get(inv.<String>getArgument(0));
+            return object == null ? null : new ByteArrayInputStream(object);
+        });
+        doAnswer(inv -> objects.put(inv.getArgument(0), Arrays.copyOf(inv.<byte[]>getArgument(1),
+                inv.<Integer>getArgument(2))))
+                .when(storage).putObject(anyString(), any(byte[].class), anyInt(), anyString());
+        when(storage.getUrl(anyString())).thenAnswer(inv -> "mem:/" + inv.getArgument(0));
+
+        imageDerivativeManager = new ImageDerivativeManager(redis, new ImageDerivativeConfig(),
+                new ThreadPoolTaskExecutor());
+    }
+
+    @Test
+    void testStoresVariantsUnderDeterministicKeys() throws Exception {
+        objects.put("/user_post/1/a.jpg", image("jpeg", 1200, 900));
+
+        ImageVariantsVO variants = imageDerivativeManager.process(storage, "/user_post/1/a.jpg");
+
+        assertEquals("mem://user_post/1/a.jpg_48.jpg", variants.getVariants().get(48));
+        assertEquals("mem://user_post/1/a.jpg_256.jpg", variants.getVariants().get(256));
+        assertNull(variants.getPoster());
+        assertEquals(256, read("/user_post/1/a.jpg_256.jpg").getWidth());
+        assertEquals(72, read("/user_post/1/a.jpg_96.jpg").getHeight());
+
+        ImageVariantsVO stored = imageDerivativeManager.getVariants("mem://user_post/1/a.jpg");
+        assertEquals(variants.getVariants(), stored.getVariants());
+        assertEquals("mem://user_post/1/a.jpg_96.jpg", stored.fit(100));
+        assertEquals("mem://user_post/1/a.jpg", stored.fit(32));
+        // 记录与衍生图文件一样长期有效
+        assertEquals(-1L, redis.getExpire(RedisKey.getKey(RedisKey.FILE_IMAGE_VARIANTS,
+                DigestUtil.md5Hex("mem://user_post/1/a.jpg"))));
+    }
+
+    @Test
+    void testBackfillSkipsExistingRecords() throws Exception {
+        objects.put("/user_avatar/1/a.png", image("png", 300, 300));
+
+        assertTrue(imageDerivativeManager.backfill(storage, "/user_avatar/1/a.png"));
+        assertEquals("mem://user_avatar/1/a.png_48.jpg",
+                imageDerivativeManager.getVariants("mem://user_avatar/1/a.png").fit(48));
+
+        // 已有记录、非图片、原图不存在都不生成
+        objects.remove("/user_avatar/1/a.png_48.jpg");
+        assertFalse(imageDerivativeManager.backfill(storage, "/user_avatar/1/a.png"));
+        assertFalse(objects.containsKey("/user_avatar/1/a.png_48.jpg"));
+        assertFalse(imageDerivativeManager.backfill(storage, "/user_avatar/1/a.svg"));
+        assertFalse(imageDerivativeManager.backfill(storage, "/user_avatar/2/missing.png"));
+    }
+
+    @Test
+    void testAnimatedGifGetsPoster() throws Exception {
+        objects.put("/user_avatar/1/a.gif", gif(Color.RED, Color.BLUE));
+
+        ImageVariantsVO variants = imageDerivativeManager.process(storage, "/user_avatar/1/a.gif");
+
+        assertEquals("mem://user_avatar/1/a.gif_poster.jpg", variants.getPoster());
+        Color poster = new Color(read("/user_avatar/1/a.gif_poster.jpg").getRGB(32, 32));
+        assertTrue(poster.getRed() > 200 && poster.getBlue() < 60, "封面应为第一帧：" + poster);
+    }
+
+    @Test
+    void testMissingVariantsFallBackToOriginal() {
+        Map<String, ImageVariantsVO> variants = imageDerivativeManager.getVariants(Arrays.asList("mem://x.png",
+                "mem://x.png", null));
+
+        assertEquals(1, variants.size());
+        assertEquals("mem://x.png", variants.get("mem://x.png").fit(48));
+        assertTrue(ImageDerivativeManager.isImage("/a/b.JPG"));
+        assertFalse(ImageDerivativeManager.isImage("/a/b.svg"));
+    }
+
+    private BufferedImage read(String key) throws Exception {
+        try (InputStream in = new ByteArrayInputStream(objects.get(key))) {
+            return ImageIO.read(in);
+        }
+    }
+
+    private static byte[] image(String format, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillOval(0, 0, width, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] gif(Color... frames) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.prepareWriteSequence(null);
+            for (Color color : frames) {
+                BufferedImage frame = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = frame.createGraphics();
+                graphics.setColor(color);
+                graphics.fillRect(0, 0, 64, 64);
+                graphics.dispose();
+                writer.writeToSequence(new IIOImage(frame, null, null), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
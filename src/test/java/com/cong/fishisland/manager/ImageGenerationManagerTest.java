@@ -0,0 +1,384 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.EmbeddedRedis;
+import com.cong.fishisland.config.AIModelConfig;
+import com.cong.fishisland.config.AiGatewayConfig;
+import com.cong.fishisland.config.AiImageConfig;
+import com.cong.fishisland.config.HttpClientConfig;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.datasource.ai.ChutesAI2DataSource;
+import com.cong.fishisland.model.enums.ImageJobStatusEnum;
+import com.cong.fishisland.model.vo.ai.ImageJobVO;
+import com.cong.fishisland.model.ws.request.Message;
+import com.cong.fishisland.websocket.event.AIImageJobEvent;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.RedisListCommands;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * AI 图片生成任务测试：本地 HTTP 服务模拟图片模型，提交、完成和检查脚本在真实 Redis 上执行，MinIO 用读取流的替身代替
+ */
+class ImageGenerationManagerTest {
+
+    /**
+     * 队列为空时的等待时间（BLMOVE 的超时为 0 表示一直阻塞）
+     */
+    private static final Duration NO_WAIT = Duration.ofMillis(100);
+
+    private static final String QUEUE = RedisKey.getKey(RedisKey.AI_IMAGE_QUEUE);
+
+    private static final String PROCESSING = RedisKey.getKey(RedisKey.AI_IMAGE_PROCESSING);
+
+    private static final String JOB_ID = ImageGenerationManager.jobId("flux.1-dev", "一只猫");
+
+    private final byte[] image = new byte[256 * 1024];
+
+    private final StringRedisTemplate redis = EmbeddedRedis.template();
+
+    private final List<AIImageJobEvent> events = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger providerRequests = new AtomicInteger();
+
+    private final ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+
+    /**
+     * 模型响应发出一半后等待上传端读到数据再继续
+     */
+    private final CountDownLatch firstChunkUploaded = new CountDownLatch(1);
+
+    private final AtomicBoolean providerFinished = new AtomicBoolean();
+
+    private final AtomicBoolean uploadStartedBeforeProviderFinished = new AtomicBoolean();
+
+    private volatile int providerStatus = 200;
+
+    private volatile CountDownLatch providerHold = new CountDownLatch(0);
+
+    private HttpServer server;
+
+    private AiImageConfig aiImageConfig;
+
+    private ImageGenerationManager imageGenerationManager;
+
+    @TempDir
+    Path cacheDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        EmbeddedRedis.flush();
+        new Random(42).nextBytes(image);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/chutes/images/generations", exchange -> {
+            providerRequests.incrementAndGet();
+            await(providerHold);
+            if (providerStatus != 200) {
+                exchange.sendResponseHeaders(providerStatus, -1);
+                exchange.close();
+                return;
+            }
+            // JSON 中的 / 转义为 \/
+            String b64 = Base64.getEncoder().encodeToString(image).replace("/", "\\/");
+            byte[] head = ("{\"created\":1,\"data\":[{\"b64_json\": \"" + b64.substring(0, b64.length() / 2))
+                    .getBytes(StandardCharsets.UTF_8);
+            byte[] tail = (b64.substring(b64.length() / 2) + "\"}]}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(head);
+                out.flush();
+                await(firstChunkUploaded);
+                providerFinished.set(true);
+                out.write(tail);
+            }
+        });
+        server.start();
+
+        MinioManager minioManager = mock(MinioManager.class);
+        when(minioManager.uploadStream(any(InputStream.class), anyString(), anyString())).thenAnswer(inv -> {
+            try (InputStream in = inv.getArgument(0)) {
+                byte[] buffer = new byte[1024];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    if (uploaded.size() == 0) {
+                        uploadStartedBeforeProviderFinished.set(!providerFinished.get());
+                        firstChunkUploaded.countDown();
+                    }
+                    uploaded.write(buffer, 0, n);
+                }
+            }
+            return "http://minio/" + inv.getArgument(1);
+        });
+
+        AIModelConfig aiModelConfig = new AIModelConfig();
+        aiModelConfig.setChutesAi2("http://127.0.0.1:" + server.getAddress().getPort() + "/chutes");
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        httpClientConfig.setCacheDir(cacheDir.toString());
+        HttpClientManager httpClientManager = new HttpClientManager(httpClientConfig);
+        httpClientManager.init();
+        AiGatewayManager aiGatewayManager = new AiGatewayManager(new AiGatewayConfig());
+        ChutesAI2DataSource chutesAI2DataSource = new ChutesAI2DataSource();
+        ReflectionTestUtils.setField(chutesAI2DataSource, "aiModelConfig", aiModelConfig);
+        ReflectionTestUtils.setField(chutesAI2DataSource, "httpClientManager", httpClientManager);
+        ReflectionTestUtils.setField(chutesAI2DataSource, "aiGatewayManager", aiGatewayManager);
+        ReflectionTestUtils.setField(chutesAI2DataSource, "minioManager", minioManager);
+        chutesAI2DataSource.init();
+
+        aiImageConfig = new AiImageConfig();
+        ApplicationEventPublisher publisher = event -> events.add((AIImageJobEvent) event);
+        imageGenerationManager = new ImageGenerationManager(redis, aiGatewayManager, aiImageConfig,
+                publisher, new ThreadPoolTaskExecutor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        firstChunkUploaded.countDown();
+        providerHold.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void testJobStreamsImageToStorage() {
+        ImageJobVO job = imageGenerationManager.submit("一只猫", message("1"));
+
+        assertEquals(ImageJobStatusEnum.QUEUED.getValue(), job.getStatus());
+        assertEquals(1L, job.getPosition());
+        assertTrue(imageGenerationManager.processNext(NO_WAIT));
+
+        assertArrayEquals(image, uploaded.toByteArray());
+        assertTrue(uploadStartedBeforeProviderFinished.get(), "模型响应读完前就应开始上传");
+        assertEquals(statuses("1"), statuses(ImageJobStatusEnum.QUEUED, ImageJobStatusEnum.RUNNING,
+                ImageJobStatusEnum.SUCCEED));
+        ImageJobVO done = events.get(events.size() - 1).getJob();
+        assertTrue(done.getUrl().startsWith("http://minio/ai-image/"));
+        assertFalse(imageGenerationManager.processNext(NO_WAIT));
+    }
+
+    @Test
+    void testIdenticalPromptsDeduplicated() {
+        ImageJobVO first = imageGenerationManager.submit("一只  猫", message("1"));
+        ImageJobVO second = imageGenerationManager.submit(" 一只 猫 ", message("2"));
+
+        assertEquals(first.getJobId(), second.getJobId());
+        assertNull(second.getPosition());
+        assertTrue(imageGenerationManager.processNext(NO_WAIT));
+        assertFalse(imageGenerationManager.processNext(NO_WAIT));
+        assertEquals(1, providerRequests.get());
+        assertEquals(ImageJobStatusEnum.SUCCEED.getValue(), lastStatus("1"));
+        assertEquals(ImageJobStatusEnum.SUCCEED.getValue(), lastStatus("2"));
+
+        // 已生成的图片直接返回
+        ImageJobVO third = imageGenerationManager.submit("一只猫", message("3"));
+        assertNotEquals(first.getJobId(), third.getJobId());
+        ImageJobVO fourth = imageGenerationManager.submit("一只 猫", message("4"));
+        assertEquals(ImageJobStatusEnum.SUCCEED.getValue(), fourth.getStatus());
+        assertEquals(statuses("4"), statuses(ImageJobStatusEnum.SUCCEED));
+        assertEquals(1, providerRequests.get());
+    }
+
+    @Test
+    void testFailureNotifiesAndAllowsRetry() {
+        providerStatus = 500;
+        imageGenerationManager.submit("一只猫", message("1"));
+        imageGenerationManager.submit("一只猫", message("2"));
+        assertTrue(imageGenerationManager.processNext(NO_WAIT));
+
+        assertEquals(ImageJobStatusEnum.FAILED.getValue(), lastStatus("1"));
+        assertEquals(ImageJobStatusEnum.FAILED.getValue(), lastStatus("2"));
+        assertNull(redis.opsForValue().get(RedisKey.getKey(RedisKey.AI_IMAGE_RESULT, JOB_ID)));
+        assertEquals(Boolean.FALSE, redis.hasKey(RedisKey.getKey(RedisKey.AI_IMAGE_PENDING, JOB_ID)));
+
+        providerStatus = 200;
+        ImageJobVO retry = imageGenerationManager.submit("一只猫", message("3"));
+        assertEquals(1L, retry.getPosition());
+        assertTrue(imageGenerationManager.processNext(NO_WAIT));
+        assertEquals(ImageJobStatusEnum.SUCCEED.getValue(), lastStatus("3"));
+    }
+
+    @Test
+    void testFullQueueRejected() {
+        aiImageConfig.setMaxQueue(1);
+        imageGenerationManager.submit("一只猫", message("1"));
+
+        ImageJobVO rejected = imageGenerationManager.submit("一只狗", message("2"));
+
+        assertEquals(ImageJobStatusEnum.FAILED.getValue(), rejected.getStatus());
+        assertEquals(statuses("2"), statuses(ImageJobStatusEnum.FAILED));
+        // 被拒绝的描述稍后可以重新提交
+        assertTrue(imageGenerationManager.processNext(NO_WAIT));
+        assertEquals(1L, imageGenerationManager.submit("一只狗", message("3")).getPosition());
+    }
+
+    @Test
+    void testPendingCoversQueueWait() {
+        imageGenerationManager.submit("一只猫", message("1"));
+        imageGenerationManager.submit("一只猫", message("2"));
+
+        // 单个消费线程，队尾的任务要等前面 maxQueue 个任务执行完
+        long expected = aiImageConfig.getJobTimeoutSeconds() * (aiImageConfig.getMaxQueue() + 1);
+        for (String key : new String[]{RedisKey.getKey(RedisKey.AI_IMAGE_PENDING, JOB_ID),
+                RedisKey.getKey(RedisKey.AI_IMAGE_WAITERS, JOB_ID)}) {
+            Long ttl = redis.getExpire(key, TimeUnit.SECONDS);
+            assertNotNull(ttl);
+            assertTrue(ttl > expected - 5 && ttl <= expected, key + " ttl " + ttl);
+        }
+    }
+
+    @Test
+    void testCrashedJobRequeued() {
+        imageGenerationManager.submit("一只猫", message("1"));
+        // 模拟消费线程移入执行列表后、登记租约前崩溃
+        moveToProcessing();
+
+        // 第一次检查只做标记，第二次仍未登记租约才重新入队
+        imageGenerationManager.reap();
+        assertEquals(0L, redis.opsForList().size(QUEUE));
+        imageGenerationManager.reap();
+        assertEquals(1L, redis.opsForList().size(QUEUE));
+        assertEquals(0L, redis.opsForList().size(PROCESSING));
+
+        assertTrue(imageGenerationManager.processNext(NO_WAIT));
+        assertEquals(ImageJobStatusEnum.SUCCEED.getValue(), lastStatus("1"));
+        assertEquals(0L, redis.opsForList().size(PROCESSING));
+    }
+
+    @Test
+    void testLeasedJobNotRequeued() {
+        imageGenerationManager.submit("一只猫", message("1"));
+        moveToProcessing();
+        redis.opsForValue().set(RedisKey.getKey(RedisKey.AI_IMAGE_RUNNING, JOB_ID), "1");
+
+        imageGenerationManager.reap();
+        imageGenerationManager.reap();
+
+        assertEquals(0L, redis.opsForList().size(QUEUE));
+        assertEquals(1L, redis.opsForList().size(PROCESSING));
+    }
+
+    @Test
+    void testLongRunningJobKeepsLease() throws Exception {
+        providerHold = new CountDownLatch(1);
+        imageGenerationManager.submit("一只猫", message("1"));
+        ExecutorService consumer = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> processed = consumer.submit(() -> imageGenerationManager.processNext(NO_WAIT));
+            waitUntil(() -> providerRequests.get() == 1);
+            String runningKey = RedisKey.getKey(RedisKey.AI_IMAGE_RUNNING, JOB_ID);
+
+            // 执行时间超过租约时长：租约过期、检查线程写入标记后，续约覆盖标记，任务不会重新入队
+            redis.delete(runningKey);
+            imageGenerationManager.reap();
+            imageGenerationManager.renewLeases();
+            imageGenerationManager.reap();
+            assertEquals(0L, redis.opsForList().size(QUEUE));
+            assertEquals("1", redis.opsForValue().get(runningKey));
+
+            providerHold.countDown();
+            assertTrue(processed.get(10, TimeUnit.SECONDS));
+            assertEquals(1, providerRequests.get());
+            assertEquals(ImageJobStatusEnum.SUCCEED.getValue(), lastStatus("1"));
+            assertEquals(Boolean.FALSE, redis.hasKey(runningKey));
+            assertEquals(0L, redis.opsForList().size(PROCESSING));
+        } finally {
+            consumer.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRequeuedJobWithResultNotRegenerated() {
+        imageGenerationManager.submit("一只猫", message("1"));
+        // 模拟生成结果已写入、结束任务前实例崩溃，任务被重新入队
+        redis.opsForValue().set(RedisKey.getKey(RedisKey.AI_IMAGE_RESULT, JOB_ID), "http://minio/ai-image/cat.png");
+
+        assertTrue(imageGenerationManager.processNext(NO_WAIT));
+
+        assertEquals(0, providerRequests.get());
+        assertEquals(statuses("1"), statuses(ImageJobStatusEnum.QUEUED, ImageJobStatusEnum.SUCCEED));
+        assertEquals("http://minio/ai-image/cat.png", events.get(events.size() - 1).getJob().getUrl());
+        assertEquals(0L, redis.opsForList().size(PROCESSING));
+        assertEquals(Boolean.FALSE, redis.hasKey(RedisKey.getKey(RedisKey.AI_IMAGE_PENDING, JOB_ID)));
+    }
+
+    private void moveToProcessing() {
+        redis.opsForList().move(QUEUE, RedisListCommands.Direction.LEFT, PROCESSING, RedisListCommands.Direction.RIGHT);
+    }
+
+    private List<String> statuses(String messageId) {
+        return events.stream()
+                .filter(event -> messageId.equals(event.getRequester().getId()))
+                .map(event -> event.getJob().getStatus())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> statuses(ImageJobStatusEnum... statuses) {
+        List<String> values = new ArrayList<>();
+        for (ImageJobStatusEnum status : statuses) {
+            values.add(status.getValue());
+        }
+        return values;
+    }
+
+    private String lastStatus(String messageId) {
+        List<String> statuses = statuses(messageId);
+        return statuses.isEmpty() ? null : statuses.get(statuses.size() - 1);
+    }
+
+    private static Message message(String id) {
+        Message message = new Message();
+        message.setId(id);
+        message.setContent("@摸鱼助手 我是真爱粉:一只猫");
+        return message;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
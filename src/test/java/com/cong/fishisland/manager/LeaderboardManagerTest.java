@@ -0,0 +1,154 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.EmbeddedRedis;
+import com.cong.fishisland.config.LeaderboardConfig;
+import com.cong.fishisland.model.enums.LeaderboardPeriodEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 排行榜测试：管道命令和 AROUND_SCRIPT 在真实 Redis 上执行
+ */
+class LeaderboardManagerTest {
+
+    private static final String BOARD = "test";
+
+    private final StringRedisTemplate redis = EmbeddedRedis.template();
+
+    private final LeaderboardConfig leaderboardConfig = new LeaderboardConfig();
+
+    private LeaderboardManager leaderboardManager;
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+        leaderboardManager = new LeaderboardManager(redis, leaderboardConfig);
+    }
+
+    @Test
+    void testScoresCountedInEachPeriod() {
+        leaderboardManager.increment(BOARD, "1", 3, LeaderboardPeriodEnum.TOTAL, LeaderboardPeriodEnum.DAILY);
+        leaderboardManager.increment(BOARD, "2", 5, LeaderboardPeriodEnum.TOTAL);
+        leaderboardManager.increment(BOARD, "1", 1, LeaderboardPeriodEnum.TOTAL, LeaderboardPeriodEnum.DAILY);
+
+        List<LeaderboardManager.Entry> top = leaderboardManager.top(BOARD, LeaderboardPeriodEnum.TOTAL, 10);
+        assertEquals(Arrays.asList("2", "1"), members(top));
+        assertEquals(4, top.get(1).getScore());
+        assertEquals(2, top.get(1).getRank());
+        assertEquals(Arrays.asList("1"), members(leaderboardManager.top(BOARD, LeaderboardPeriodEnum.DAILY, 10)));
+        assertEquals(Boolean.TRUE, redis.hasKey(LeaderboardManager.boardKey(BOARD, LeaderboardPeriodEnum.DAILY,
+                LocalDate.now())));
+
+        LeaderboardManager.Entry rank = leaderboardManager.rank(BOARD, LeaderboardPeriodEnum.TOTAL, "1");
+        assertEquals(2, rank.getRank());
+        assertEquals(4, rank.getScore());
+        assertNull(leaderboardManager.rank(BOARD, LeaderboardPeriodEnum.TOTAL, "3"));
+    }
+
+    @Test
+    void testAroundWindow() {
+        Map<String, Double> scores = new HashMap<>();
+        for (int i = 1; i <= 20; i++) {
+            scores.put(String.valueOf(i), (double) i);
+        }
+        leaderboardManager.replace(BOARD, LeaderboardPeriodEnum.TOTAL, scores);
+
+        List<LeaderboardManager.Entry> around = leaderboardManager.around(BOARD, LeaderboardPeriodEnum.TOTAL, "10", 2);
+        assertEquals(Arrays.asList("12", "11", "10", "9", "8"), members(around));
+        assertEquals(9, around.get(0).getRank());
+        assertEquals(11, around.get(2).getRank());
+
+        // 靠近榜首时窗口从第 1 名开始
+        List<LeaderboardManager.Entry> nearTop = leaderboardManager.around(BOARD, LeaderboardPeriodEnum.TOTAL, "19", 2);
+        assertEquals(Arrays.asList("20", "19", "18", "17"), members(nearTop));
+        assertEquals(1, nearTop.get(0).getRank());
+        assertTrue(leaderboardManager.around(BOARD, LeaderboardPeriodEnum.TOTAL, "99", 2).isEmpty());
+
+        // 同分按成员降序（"9" > "10"），与 ZREVRANK 一致；小数分数原样返回
+        leaderboardManager.increment(BOARD, "9", 1, LeaderboardPeriodEnum.TOTAL);
+        leaderboardManager.increment(BOARD, "8", 0.5, LeaderboardPeriodEnum.TOTAL);
+        List<LeaderboardManager.Entry> tied = leaderboardManager.around(BOARD, LeaderboardPeriodEnum.TOTAL, "10", 1);
+        assertEquals(Arrays.asList("9", "10", "8"), members(tied));
+        assertEquals(12, tied.get(1).getRank());
+        assertEquals(8.5, tied.get(2).getScore());
+    }
+
+    @Test
+    void testHydratedTopCachedPerVersion() {
+        AtomicInteger hydrations = new AtomicInteger();
+        leaderboardManager.increment(BOARD, "1", 1, LeaderboardPeriodEnum.TOTAL);
+
+        List<String> first = leaderboardManager.top(BOARD, LeaderboardPeriodEnum.TOTAL, 10,
+                entries -> hydrate(entries, hydrations));
+        List<String> second = leaderboardManager.top(BOARD, LeaderboardPeriodEnum.TOTAL, 10,
+                entries -> hydrate(entries, hydrations));
+
+        assertSame(first, second);
+        assertEquals(1, hydrations.get());
+
+        leaderboardManager.increment(BOARD, "2", 2, LeaderboardPeriodEnum.TOTAL);
+        List<String> third = leaderboardManager.top(BOARD, LeaderboardPeriodEnum.TOTAL, 10,
+                entries -> hydrate(entries, hydrations));
+
+        assertEquals(Arrays.asList("user-2#1", "user-1#2"), third);
+        assertEquals(2, hydrations.get());
+    }
+
+    @Test
+    void testReplaceSwapsWholeBoard() {
+        leaderboardManager.increment(BOARD, "old", 100, LeaderboardPeriodEnum.TOTAL);
+        Map<String, Double> scores = new HashMap<>();
+        for (int i = 0; i < 2500; i++) {
+            scores.put("m" + i, (double) i);
+        }
+
+        leaderboardManager.replace(BOARD, LeaderboardPeriodEnum.TOTAL, scores);
+
+        assertEquals(2500, leaderboardManager.size(BOARD, LeaderboardPeriodEnum.TOTAL));
+        assertEquals("m2499", leaderboardManager.top(BOARD, LeaderboardPeriodEnum.TOTAL, 1).get(0).getMember());
+        assertNull(leaderboardManager.rank(BOARD, LeaderboardPeriodEnum.TOTAL, "old"));
+        assertTrue(redis.keys("*:tmp").isEmpty());
+    }
+
+    @Test
+    void testArchiveKeepsTopOfPreviousPeriod() {
+        leaderboardConfig.setArchiveSize(3);
+        LocalDate today = LocalDate.now();
+        String yesterdayKey = LeaderboardManager.boardKey(BOARD, LeaderboardPeriodEnum.DAILY, today.minusDays(1));
+        for (int i = 0; i < 10; i++) {
+            redis.opsForZSet().add(yesterdayKey, String.valueOf(i), i);
+        }
+        leaderboardManager.increment(BOARD, "1", 1, LeaderboardPeriodEnum.DAILY, LeaderboardPeriodEnum.TOTAL);
+
+        leaderboardManager.archive(today);
+
+        assertEquals(new HashSet<>(Arrays.asList("7", "8", "9")), redis.opsForZSet().range(yesterdayKey, 0, -1));
+        // 当前周期和总榜不受影响
+        assertEquals(1, leaderboardManager.size(BOARD, LeaderboardPeriodEnum.DAILY));
+        assertEquals(1, leaderboardManager.size(BOARD, LeaderboardPeriodEnum.TOTAL));
+    }
+
+    private static List<String> hydrate(List<LeaderboardManager.Entry> entries, AtomicInteger hydrations) {
+        hydrations.incrementAndGet();
+        return entries.stream()
+                .map(entry -> "user-" + entry.getMember() + "#" + entry.getRank())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> members(List<LeaderboardManager.Entry> entries) {
+        return entries.stream().map(LeaderboardManager.Entry::getMember).collect(Collectors.toList());
+    }
+
+}
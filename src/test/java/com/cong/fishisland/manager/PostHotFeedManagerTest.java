@@ -0,0 +1,183 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.EmbeddedRedis;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.model.dto.post.PostHotScore;
+import com.cong.fishisland.model.entity.post.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 帖子热榜测试：INCR_WEIGHT_SCRIPT、SET_BASE_SCRIPT、SWAP_SCRIPT 在真实 Redis 上执行
+ */
+class PostHotFeedManagerTest {
+
+    private static final String FEED = RedisKey.getKey(RedisKey.POST_HOT_FEED);
+
+    private static final String WEIGHT = RedisKey.getKey(RedisKey.POST_HOT_WEIGHT);
+
+    private static final String BASE = RedisKey.getKey(RedisKey.POST_HOT_BASE);
+
+    private final StringRedisTemplate redis = EmbeddedRedis.template();
+
+    private final Date now = new Date();
+
+    private PostHotFeedManager postHotFeedManager;
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+        postHotFeedManager = new PostHotFeedManager();
+        ReflectionTestUtils.setField(postHotFeedManager, "stringRedisTemplate", redis);
+    }
+
+    @Test
+    void testScoreFollowsWeightAndBase() {
+        postHotFeedManager.onPostCreated(post(1L, now, 0));
+        double base = PostHotFeedManager.computeBase(now, 0);
+        assertEquals(base, score(1L), 1e-9);
+
+        postHotFeedManager.onThumb(1L, 1);
+        postHotFeedManager.onComment(1L, 1);
+        postHotFeedManager.onView(1L);
+        double weight = PostHotFeedManager.THUMB_WEIGHT + PostHotFeedManager.COMMENT_WEIGHT
+                + PostHotFeedManager.VIEW_WEIGHT;
+        assertEquals(Math.log10(weight) + base, score(1L), 1e-9);
+
+        // 取消互动后权重低于 1 时按 1 计算，分数回到基础分
+        postHotFeedManager.onThumb(1L, -1);
+        postHotFeedManager.onComment(1L, -1);
+        assertEquals(base, score(1L), 1e-9);
+
+        // 加精只改基础分，已累计的权重保留
+        postHotFeedManager.onThumb(1L, 5);
+        Post featured = post(1L, now, 1);
+        postHotFeedManager.onFeaturedChanged(featured);
+        assertEquals(PostHotFeedManager.computeScore(10 + PostHotFeedManager.VIEW_WEIGHT,
+                PostHotFeedManager.computeBase(now, 1)), score(1L), 1e-9);
+    }
+
+    @Test
+    void testEventsIgnoredForPostsNotInFeed() {
+        postHotFeedManager.onThumb(2L, 1);
+        postHotFeedManager.onView(2L);
+
+        assertNull(redis.opsForZSet().score(FEED, "2"));
+        assertFalse(redis.opsForHash().hasKey(WEIGHT, "2"));
+
+        postHotFeedManager.onPostCreated(post(2L, now, 0));
+        postHotFeedManager.onPostDeleted(2L);
+        assertNull(redis.opsForZSet().score(FEED, "2"));
+        assertFalse(redis.opsForHash().hasKey(WEIGHT, "2"));
+        assertFalse(redis.opsForHash().hasKey(BASE, "2"));
+    }
+
+    @Test
+    void testCursorPagesThroughLargeTies() {
+        // 100 条同一时间发布、没有互动的帖子同分，远多于每批多取的条数
+        List<PostHotScore> scores = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            scores.add(hotScore(id, now, 0));
+        }
+        // 一条更热的帖子排在最前
+        PostHotScore hot = hotScore(1000L, now, 0);
+        hot.setThumbNum(10);
+        scores.add(hot);
+        postHotFeedManager.rebalance(scores);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            PostHotFeedManager.HotFeedPage page = postHotFeedManager.page(cursor, 7);
+            assertTrue(page.getPostIds().size() <= 7);
+            seen.addAll(page.getPostIds());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // 同分按成员字典序倒序，每条恰好出现一次
+        List<Long> expected = LongStream.rangeClosed(1, 100).boxed()
+                .sorted(Comparator.comparing(String::valueOf, Comparator.reverseOrder()))
+                .collect(Collectors.toList());
+        expected.add(0, 1000L);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void testRebalanceSwapsAndTrims() {
+        // 线上已有的过期帖子在重建后被剔除
+        postHotFeedManager.onPostCreated(post(-1L, now, 0));
+
+        List<PostHotScore> scores = new ArrayList<>();
+        int total = PostHotFeedManager.MAX_FEED_SIZE + 5;
+        for (long id = 1; id <= total; id++) {
+            // id 越大发布越晚，分数越高
+            scores.add(hotScore(id, new Date(now.getTime() - (total - id) * 1000L), 0));
+        }
+        assertEquals(PostHotFeedManager.MAX_FEED_SIZE, postHotFeedManager.rebalance(scores));
+
+        assertEquals(PostHotFeedManager.MAX_FEED_SIZE, redis.opsForZSet().zCard(FEED));
+        assertEquals(PostHotFeedManager.MAX_FEED_SIZE, redis.opsForHash().size(WEIGHT));
+        assertEquals(PostHotFeedManager.MAX_FEED_SIZE, redis.opsForHash().size(BASE));
+        assertNull(redis.opsForZSet().score(FEED, "-1"));
+        // 分数最低的 5 条连同权重和基础分被裁掉
+        for (long id = 1; id <= 5; id++) {
+            assertNull(redis.opsForZSet().score(FEED, String.valueOf(id)));
+            assertFalse(redis.opsForHash().hasKey(BASE, String.valueOf(id)));
+        }
+        assertEquals(Arrays.asList((long) total, total - 1L), postHotFeedManager.page(null, 2).getPostIds());
+        // 临时键已改名为线上键
+        assertEquals(Collections.emptySet(), redis.keys("*:rebalance"));
+
+        // 重建后的帖子照常接收互动
+        postHotFeedManager.onThumb(6L, 1);
+        assertEquals(PostHotFeedManager.computeScore(PostHotFeedManager.THUMB_WEIGHT,
+                PostHotFeedManager.computeBase(new Date(now.getTime() - (total - 6) * 1000L), 0)), score(6L), 1e-9);
+    }
+
+    @Test
+    void testRebalanceWithoutPostsClearsFeed() {
+        postHotFeedManager.onPostCreated(post(1L, now, 0));
+
+        assertEquals(0, postHotFeedManager.rebalance(Collections.emptyList()));
+
+        assertEquals(Boolean.FALSE, redis.hasKey(FEED));
+        assertEquals(Boolean.FALSE, redis.hasKey(WEIGHT));
+        assertEquals(Boolean.FALSE, redis.hasKey(BASE));
+        assertTrue(postHotFeedManager.page(null, 10).getPostIds().isEmpty());
+    }
+
+    private double score(Long postId) {
+        Double score = redis.opsForZSet().score(FEED, String.valueOf(postId));
+        assertNotNull(score);
+        return score;
+    }
+
+    private static Post post(Long id, Date createTime, int isFeatured) {
+        Post post = new Post();
+        post.setId(id);
+        post.setCreateTime(createTime);
+        post.setIsFeatured(isFeatured);
+        return post;
+    }
+
+    private static PostHotScore hotScore(Long id, Date createTime, int isFeatured) {
+        PostHotScore score = new PostHotScore();
+        score.setId(id);
+        score.setCreateTime(createTime);
+        score.setIsFeatured(isFeatured);
+        return score;
+    }
+}
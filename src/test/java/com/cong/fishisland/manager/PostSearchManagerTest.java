@@ -0,0 +1,181 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.json.JSONUtil;
+import com.cong.fishisland.config.PostSearchConfig;
+import com.cong.fishisland.model.dto.post.PostQueryRequest;
+import com.cong.fishisland.model.entity.post.Post;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+
+/**
+ * 帖子全文检索测试（不依赖 Spring 容器）
+ */
+class PostSearchManagerTest {
+
+    @TempDir
+    Path indexDir;
+
+    private PostSearchManager postSearchManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        PostSearchConfig config = new PostSearchConfig();
+        config.setIndexDir(indexDir.toString());
+        config.setMaxStaleSec(0.05);
+        postSearchManager = new PostSearchManager(config);
+        postSearchManager.init();
+        postSearchManager.rebuild(Arrays.asList(
+                buildPost(1L, "摸鱼岛上线了", "今天的摸鱼岛新增了全文检索功能", Arrays.asList("公告", "技术")),
+                buildPost(2L, "Java 并发编程", "线程池和锁的使用心得", Collections.singletonList("技术")),
+                buildPost(3L, "周末去钓鱼", "湖边钓鱼真开心", Collections.singletonList("生活"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        postSearchManager.destroy();
+    }
+
+    @Test
+    void searchChineseWithHighlightAndFacets() {
+        PostQueryRequest request = new PostQueryRequest();
+        request.setSearchText("检索");
+        PostSearchManager.PostSearchHits hits = postSearchManager.search(request);
+        Assertions.assertEquals(1, hits.getTotal());
+        Assertions.assertEquals(Collections.singletonList(1L), hits.getPostIds());
+        Assertions.assertTrue(hits.getContentHighlights().get(1L).contains("<em>检索</em>"));
+        Assertions.assertEquals(1, hits.getTagFacets().get("技术"));
+    }
+
+    @Test
+    void highlightEscapesOriginalMarkup() throws Exception {
+        postSearchManager.index(buildPost(4L, "<b>检索</b>", "<img src=x onerror=alert(1)>检索", Collections.emptyList()));
+        Thread.sleep(300);
+        PostQueryRequest request = new PostQueryRequest();
+        request.setSearchText("检索");
+        PostSearchManager.PostSearchHits hits = postSearchManager.search(request);
+        String titleHighlight = hits.getTitleHighlights().get(4L);
+        Assertions.assertTrue(titleHighlight.startsWith("&lt;b&gt;<em>检索</em>"), titleHighlight);
+        Assertions.assertFalse(titleHighlight.contains("<b>"));
+        Assertions.assertFalse(hits.getContentHighlights().get(4L).contains("<img"));
+    }
+
+    @Test
+    void filterByTagsAndCountFacets() {
+        PostQueryRequest request = new PostQueryRequest();
+        request.setTags(Collections.singletonList("技术"));
+        PostSearchManager.PostSearchHits hits = postSearchManager.search(request);
+        Assertions.assertEquals(2, hits.getTotal());
+        Assertions.assertEquals(2, hits.getTagFacets().get("技术"));
+        Assertions.assertEquals(1, hits.getTagFacets().get("公告"));
+        Assertions.assertFalse(hits.getTagFacets().containsKey("生活"));
+    }
+
+    @Test
+    void filterByIdAndNotId() {
+        PostQueryRequest request = new PostQueryRequest();
+        request.setTags(Collections.singletonList("技术"));
+        request.setNotId(1L);
+        Assertions.assertEquals(Collections.singletonList(2L), postSearchManager.search(request).getPostIds());
+
+        request.setNotId(null);
+        request.setId(1L);
+        Assertions.assertEquals(Collections.singletonList(1L), postSearchManager.search(request).getPostIds());
+
+        request.setNotId(1L);
+        Assertions.assertEquals(0, postSearchManager.search(request).getTotal());
+    }
+
+    @Test
+    void incrementalUpdateIsVisibleNearRealTime() throws Exception {
+        postSearchManager.index(buildPost(4L, "钓鱼技巧分享", "如何在湖边钓到大鱼", Collections.singletonList("生活")));
+        postSearchManager.delete(3L);
+        Thread.sleep(300);
+        PostQueryRequest request = new PostQueryRequest();
+        request.setSearchText("钓鱼");
+        PostSearchManager.PostSearchHits hits = postSearchManager.search(request);
+        Assertions.assertEquals(Collections.singletonList(4L), hits.getPostIds());
+    }
+
+    @Test
+    void failedRebuildKeepsCommittedIndex() {
+        // 游标写入一条后中断，期间触发定时提交
+        Iterable<Post> brokenCursor = () -> new Iterator<Post>() {
+
+            private int returned;
+
+            @Override
+            public boolean hasNext() {
+                if (returned == 0) {
+                    return true;
+                }
+                Thread scheduledCommit = new Thread(postSearchManager::commit);
+                scheduledCommit.start();
+                try {
+                    scheduledCommit.join();
+                    Assertions.assertEquals(3, committedDocs());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                throw new IllegalStateException("cursor closed");
+            }
+
+            @Override
+            public Post next() {
+                returned++;
+                return buildPost(10L, "重建中的帖子", "只写入了一条", Collections.emptyList());
+            }
+        };
+
+        Assertions.assertThrows(IllegalStateException.class, () -> postSearchManager.rebuild(brokenCursor));
+
+        Assertions.assertTrue(postSearchManager.isReady());
+        Assertions.assertEquals(3, committedDocs());
+        PostQueryRequest request = new PostQueryRequest();
+        request.setSearchText("钓鱼");
+        Assertions.assertEquals(Collections.singletonList(3L), postSearchManager.search(request).getPostIds());
+        // 回滚后重新打开的写入器可以继续增量写入
+        postSearchManager.delete(3L);
+        postSearchManager.commit();
+        Assertions.assertEquals(2, committedDocs());
+    }
+
+    /**
+     * 磁盘上最近一次提交的文档数
+     */
+    private int committedDocs() {
+        try (Directory directory = FSDirectory.open(indexDir);
+             DirectoryReader reader = DirectoryReader.open(directory)) {
+            return reader.numDocs();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Post buildPost(Long id, String title, String content, java.util.List<String> tags) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle(title);
+        post.setContent(content);
+        post.setTags(JSONUtil.toJsonStr(tags));
+        post.setUserId(1L);
+        post.setThumbNum(0);
+        post.setFavourNum(0);
+        post.setViewNum(0);
+        post.setIsFeatured(0);
+        post.setIsDelete(0);
+        post.setCreateTime(new Date(id * 1000));
+        return post;
+    }
+}
@@ -0,0 +1,93 @@
+package com.cong.fishisland.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预签名地址缓存测试：可控时钟代替系统时钟
+ */
+class PresignedUrlCacheTest {
+
+    private static final int EXPIRY_SECONDS = 3600;
+
+    private static final int MARGIN_SECONDS = 300;
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+
+    private final AtomicInteger signs = new AtomicInteger();
+
+    /**
+     * 签名耗时，签名期间时钟前进
+     */
+    private volatile long signNanos;
+
+    /**
+     * 地址中带上签名时间，测试据此计算地址的实际过期时间
+     */
+    private final PresignedUrlCache cache = new PresignedUrlCache((objectName, expirySeconds) -> {
+        signs.incrementAndGet();
+        now.addAndGet(signNanos);
+        return objectName + "?signedAt=" + now.get() + "&expiry=" + expirySeconds;
+    }, EXPIRY_SECONDS, MARGIN_SECONDS, 1000, now::get);
+
+    @Test
+    void testReusesUntilShortlyBeforeExpiry() throws Exception {
+        String first = cache.get("a.png");
+        advanceSeconds(EXPIRY_SECONDS - MARGIN_SECONDS - 1);
+
+        assertEquals(first, cache.get("a.png"));
+        assertEquals(1, signs.get());
+
+        advanceSeconds(1);
+        String second = cache.get("a.png");
+
+        assertNotEquals(first, second);
+        assertEquals(2, signs.get());
+    }
+
+    @Test
+    void testExpiredEntriesNeverServed() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            signNanos = TimeUnit.MILLISECONDS.toNanos(random.nextInt(2000));
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(random.nextInt(10_000)));
+            String objectName = "img-" + random.nextInt(5) + ".png";
+
+            String url = cache.get(objectName);
+
+            long expiresAt = signedAt(url) + TimeUnit.SECONDS.toNanos(EXPIRY_SECONDS);
+            assertTrue(expiresAt - now.get() >= TimeUnit.SECONDS.toNanos(MARGIN_SECONDS),
+                    "返回的地址剩余有效期不足：" + url);
+        }
+        // 期间复用了缓存
+        assertTrue(signs.get() < 1000, "签名次数 " + signs.get());
+    }
+
+    @Test
+    void testBatchSignsEachObjectOnce() throws Exception {
+        cache.get("b.png");
+
+        Map<String, String> urls = cache.getAll(Arrays.asList("a.png", "b.png", "a.png", "c.png"));
+
+        assertEquals(Arrays.asList("a.png", "b.png", "c.png"), Arrays.asList(urls.keySet().toArray()));
+        assertEquals(3, signs.get());
+        assertEquals(urls.get("b.png"), cache.get("b.png"));
+    }
+
+    private void advanceSeconds(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private static long signedAt(String url) {
+        String value = url.substring(url.indexOf("signedAt=") + "signedAt=".length());
+        return Long.parseLong(value.substring(0, value.indexOf('&')));
+    }
+}
@@ -0,0 +1,186 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.common.EmbeddedRedis;
+import com.cong.fishisland.config.RateLimitConfig;
+import com.cong.fishisland.constant.RedisKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 限流测试，GCRA 脚本在真实 Redis 上执行，多个“实例”共享同一个 Redis
+ */
+@Slf4j
+class RateLimitManagerTest {
+
+    private final AtomicInteger redisCalls = new AtomicInteger();
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RequestMetricsManager requestMetricsManager;
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+        // 统计脚本调用次数，验证本地预检挡住的请求不访问 Redis
+        stringRedisTemplate = new StringRedisTemplate(EmbeddedRedis.connectionFactory()) {
+            @Override
+            public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+                redisCalls.incrementAndGet();
+                return super.execute(script, keys, args);
+            }
+        };
+        meterRegistry = new SimpleMeterRegistry();
+        requestMetricsManager = new RequestMetricsManager(meterRegistry);
+    }
+
+    @Test
+    void burstThenRejectedLocally() {
+        RateLimitManager manager = new RateLimitManager(stringRedisTemplate, requestMetricsManager, new RateLimitConfig());
+        RateLimitConfig.Rule rule = new RateLimitConfig.Rule(10, 60, 0);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, manager.tryAcquire("test", "u-1", rule));
+        }
+        long retryAfter = manager.tryAcquire("test", "u-1", rule);
+        assertTrue(retryAfter > 0 && retryAfter <= TimeUnit.SECONDS.toMillis(6));
+        // 其他用户不受影响
+        assertEquals(0, manager.tryAcquire("test", "u-2", rule));
+
+        assertEquals(11, redisCalls.get());
+        assertEquals(11, rateLimitCount("test", RateLimitManager.ALLOWED));
+        assertEquals(1, rateLimitCount("test", RateLimitManager.LOCAL_REJECTED));
+    }
+
+    @Test
+    void sharedAcrossInstances() {
+        RateLimitManager first = new RateLimitManager(stringRedisTemplate, requestMetricsManager, new RateLimitConfig());
+        RateLimitManager second = new RateLimitManager(stringRedisTemplate, requestMetricsManager, new RateLimitConfig());
+        RateLimitConfig.Rule rule = new RateLimitConfig.Rule(10, 60, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, first.tryAcquire("test", "u-1", rule));
+            assertEquals(0, second.tryAcquire("test", "u-1", rule));
+        }
+        // 本地都还有额度，由 Redis 拒绝
+        assertTrue(first.tryAcquire("test", "u-1", rule) > 0);
+        assertEquals(1, rateLimitCount("test", RateLimitManager.REJECTED));
+    }
+
+    @Test
+    void storesTatAsIntegerWithMatchingExpiry() {
+        RateLimitManager manager = new RateLimitManager(stringRedisTemplate, requestMetricsManager, new RateLimitConfig());
+        RateLimitConfig.Rule rule = new RateLimitConfig.Rule(10, 60, 0);
+        String key = RedisKey.getKey(RedisKey.RATE_LIMIT, "test", "u-1");
+
+        assertEquals(0, manager.tryAcquire("test", "u-1", rule));
+
+        // 微秒时间戳超过 Lua 数字的整数显示范围，必须按整数格式写入，不能是 1.7e+15 这样的科学计数法
+        String tat = stringRedisTemplate.opsForValue().get(key);
+        assertNotNull(tat);
+        assertTrue(tat.matches("\\d{16}"), tat);
+        long interval = TimeUnit.SECONDS.toMicros(60) / 10;
+        long drift = Long.parseLong(tat) - interval - redisMicros();
+        assertTrue(drift <= 0 && drift > -TimeUnit.SECONDS.toMicros(1), "drift " + drift);
+        // 过期时间等于 TAT 距当前的时长，到期后桶已补满
+        Long ttl = stringRedisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        assertNotNull(ttl);
+        assertTrue(ttl > 5_000 && ttl <= 6_000, "ttl " + ttl);
+
+        // 突发额度用完后 TAT 每次推后一个间隔，过期时间同步延长
+        for (int i = 0; i < 9; i++) {
+            assertEquals(0, manager.tryAcquire("test", "u-1", rule));
+        }
+        ttl = stringRedisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        assertNotNull(ttl);
+        assertTrue(ttl > 59_000 && ttl <= 60_000, "ttl " + ttl);
+    }
+
+    @Test
+    void redisFailureFallsBackToLocal() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        RateLimitManager manager = new RateLimitManager(stringRedisTemplate, requestMetricsManager, new RateLimitConfig());
+        RateLimitConfig.Rule rule = new RateLimitConfig.Rule(3, 60, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, manager.tryAcquire("test", "u-1", rule));
+        }
+        assertTrue(manager.tryAcquire("test", "u-1", rule) > 0);
+    }
+
+    /**
+     * 两个实例各 8 个线程持续请求 2 秒，放行数与 突发数 + 速率 × 时长 的误差不超过 3%。
+     * 结果受机器负载影响，默认不运行，-Dbenchmark=true 开启
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void accurateUnderLoadAcrossTwoInstances() throws InterruptedException {
+        RateLimitManager[] nodes = {
+                new RateLimitManager(stringRedisTemplate, requestMetricsManager, new RateLimitConfig()),
+                new RateLimitManager(stringRedisTemplate, requestMetricsManager, new RateLimitConfig())
+        };
+        RateLimitConfig.Rule rule = new RateLimitConfig.Rule(500, 1, 50);
+        int threadsPerNode = 8;
+        long durationNanos = TimeUnit.SECONDS.toNanos(2);
+        AtomicLong allowed = new AtomicLong();
+        AtomicLong attempts = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(nodes.length * threadsPerNode);
+        long start = System.nanoTime();
+        for (RateLimitManager node : nodes) {
+            for (int i = 0; i < threadsPerNode; i++) {
+                new Thread(() -> {
+                    while (System.nanoTime() - start < durationNanos) {
+                        attempts.incrementAndGet();
+                        if (node.tryAcquire("load", "global", rule) == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }).start();
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double expected = rule.getBurst() + rule.getPermits() * seconds;
+        double error = Math.abs(allowed.get() - expected) / expected;
+        log.info("放行 {}，期望 {}，误差 {}，Redis 调用 {} / {}", allowed.get(), Math.round(expected),
+                String.format("%.2f%%", error * 100), redisCalls.get(), attempts.get());
+        assertTrue(error < 0.03, "allowed " + allowed.get() + ", expected " + expected);
+        // 大部分超额请求在本地拒绝
+        assertTrue(redisCalls.get() < attempts.get() / 2, "redis " + redisCalls.get() + " of " + attempts.get());
+    }
+
+    private long redisMicros() {
+        Long micros = stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.serverCommands().time(TimeUnit.MICROSECONDS));
+        assertNotNull(micros);
+        return micros;
+    }
+
+    private double rateLimitCount(String limit, String result) {
+        return meterRegistry.get(RequestMetricsManager.RATE_LIMIT_METRIC).tag("limit", limit).tag("result", result)
+                .counter().count();
+    }
+}
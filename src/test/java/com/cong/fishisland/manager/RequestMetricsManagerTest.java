@@ -0,0 +1,77 @@
+package com.cong.fishisland.manager;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求耗时统计测试
+ */
+class RequestMetricsManagerTest {
+
+    private final PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+    private final RequestMetricsManager requestMetricsManager = new RequestMetricsManager(meterRegistry);
+
+    @Test
+    void testRequestTimersPerEndpoint() {
+        for (int i = 0; i < 10; i++) {
+            requestMetricsManager.recordRequest("GET", "/post/{id}", "none", TimeUnit.MILLISECONDS.toNanos(20), 3,
+                    TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        requestMetricsManager.recordRequest("POST", "/post/add", "BusinessException", TimeUnit.MILLISECONDS.toNanos(1), 0, 0);
+
+        Timer latency = meterRegistry.get(RequestMetricsManager.REQUEST_METRIC)
+                .tags("method", "GET", "uri", "/post/{id}", "exception", "none").timer();
+        assertEquals(10, latency.count());
+        assertEquals(200, latency.totalTime(TimeUnit.MILLISECONDS), 0.001);
+
+        DistributionSummary sqlQueries = meterRegistry.get(RequestMetricsManager.REQUEST_SQL_QUERIES_METRIC)
+                .tags("method", "GET", "uri", "/post/{id}", "exception", "none").summary();
+        assertEquals(30, sqlQueries.totalAmount(), 0.001);
+        assertEquals(3, sqlQueries.max(), 0.001);
+        assertEquals(50, meterRegistry.get(RequestMetricsManager.REQUEST_SQL_METRIC)
+                .tags("method", "GET", "uri", "/post/{id}", "exception", "none").timer()
+                .totalTime(TimeUnit.MILLISECONDS), 0.001);
+
+        assertEquals(1, meterRegistry.get(RequestMetricsManager.REQUEST_METRIC)
+                .tag("exception", "BusinessException").timer().count());
+
+        // 导出百分位直方图的桶，分位数由 Prometheus 计算
+        String scrape = meterRegistry.scrape();
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"), scrape);
+        assertTrue(scrape.contains("http_server_requests_sql_queries_bucket{"), scrape);
+        assertTrue(scrape.contains("http_server_requests_sql_seconds_bucket{"), scrape);
+    }
+
+    @Test
+    void testStatementTimerReused() {
+        String statementId = "com.cong.fishisland.mapper.post.PostMapper.selectById";
+        requestMetricsManager.recordStatement(statementId, TimeUnit.MILLISECONDS.toNanos(4));
+        requestMetricsManager.recordStatement(statementId, TimeUnit.MILLISECONDS.toNanos(6));
+
+        Timer statement = meterRegistry.get(RequestMetricsManager.STATEMENT_METRIC).tag("statement", statementId).timer();
+        assertEquals(2, statement.count());
+        assertEquals(6, statement.max(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, meterRegistry.find(RequestMetricsManager.STATEMENT_METRIC).timers().size());
+        assertTrue(meterRegistry.scrape().contains("mybatis_statement_seconds_bucket{"));
+    }
+
+    @Test
+    void testRateLimitCounters() {
+        requestMetricsManager.recordRateLimit("chat", RateLimitManager.ALLOWED);
+        requestMetricsManager.recordRateLimit("chat", RateLimitManager.ALLOWED);
+        requestMetricsManager.recordRateLimit("chat", RateLimitManager.REJECTED);
+
+        assertEquals(2, meterRegistry.get(RequestMetricsManager.RATE_LIMIT_METRIC)
+                .tags("limit", "chat", "result", RateLimitManager.ALLOWED).counter().count());
+        assertEquals(1, meterRegistry.get(RequestMetricsManager.RATE_LIMIT_METRIC)
+                .tags("limit", "chat", "result", RateLimitManager.REJECTED).counter().count());
+    }
+}
@@ -0,0 +1,75 @@
+package com.cong.fishisland.manager;
+
+import com.cong.fishisland.config.SensitiveWordConfig;
+import com.cong.fishisland.mapper.word.SensitiveWordMapper;
+import com.cong.fishisland.model.entity.word.SensitiveWord;
+import com.cong.fishisland.utils.SensitiveWordAutomaton;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 敏感词过滤测试：长文直接由自动机扫描
+ */
+class SensitiveWordManagerTest {
+
+    private static final String FILLER = StringUtils.repeat("今天摸鱼岛上在讨论缓存和并发优化", 100);
+
+    @Test
+    void testLongText() {
+        SensitiveWordManager sensitiveWordManager = buildManager("中国", "国人", "zg人", " ");
+        String text = FILLER + "我是ＺＧ人" + FILLER;
+
+        // 全角和大小写归一后同样命中
+        assertTrue(sensitiveWordManager.containsAny(text));
+        assertEquals("ＺＧ人", sensitiveWordManager.findFirst(text));
+        StringBuilder out = new StringBuilder();
+        sensitiveWordManager.replace(text, out);
+        assertEquals(FILLER + "我是***" + FILLER, out.toString());
+
+        assertFalse(sensitiveWordManager.containsAny(FILLER));
+        out = new StringBuilder("前缀:");
+        sensitiveWordManager.replace(FILLER, out);
+        assertEquals("前缀:" + FILLER, out.toString());
+    }
+
+    @Test
+    void testScanAndReplaceWithPostProcessor() {
+        SensitiveWordManager sensitiveWordManager = buildManager("摸鱼王");
+
+        List<SensitiveWordAutomaton.Hit> hits = sensitiveWordManager.scan("标题", FILLER + "摸鱼王");
+        assertEquals(1, hits.size());
+        assertEquals(1, hits.get(0).getField());
+        assertEquals(FILLER.length(), hits.get(0).getStart());
+        assertTrue(sensitiveWordManager.scan("标题", FILLER).isEmpty());
+        assertEquals("摸鱼王", sensitiveWordManager.findFirst(FILLER + "摸鱼王"));
+        assertNull(sensitiveWordManager.findFirst(FILLER));
+
+        // 替换和后续处理在同一个缓冲区里完成
+        assertEquals("***!", sensitiveWordManager.replace("摸鱼王", out -> out.append('!')));
+        assertNull(sensitiveWordManager.replace(null));
+    }
+
+    /**
+     * 词库为 classpath 词库加上词表中的词
+     */
+    private static SensitiveWordManager buildManager(String... words) {
+        SensitiveWordMapper sensitiveWordMapper = mock(SensitiveWordMapper.class);
+        when(sensitiveWordMapper.selectList(any())).thenReturn(Arrays.stream(words).map(word -> {
+            SensitiveWord sensitiveWord = new SensitiveWord();
+            sensitiveWord.setWord(word);
+            return sensitiveWord;
+        }).collect(Collectors.toList()));
+        SensitiveWordManager sensitiveWordManager = new SensitiveWordManager(new SensitiveWordConfig(), sensitiveWordMapper);
+        sensitiveWordManager.init();
+        return sensitiveWordManager;
+    }
+}
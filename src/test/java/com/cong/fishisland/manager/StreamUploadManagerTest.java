@@ -0,0 +1,257 @@
+package com.cong.fishisland.manager;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.cong.fishisland.common.ErrorCode;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.config.FileUploadConfig;
+import com.cong.fishisland.constant.RedisKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 流式分片上传测试：内存实现代替 Redis 和对象存储
+ */
+class StreamUploadManagerTest {
+
+    private static final int MB = 1024 * 1024;
+
+    private static final String SCOPE = "user_file:1";
+
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    private FileUploadConfig fileUploadConfig;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private MemoryStorage storage;
+
+    private StreamUploadManager streamUploadManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(inv -> values.get(inv.<String>getArgument(0)));
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(inv -> values.putIfAbsent(inv.getArgument(0), inv.getArgument(1)) == null);
+        fileUploadConfig = new FileUploadConfig();
+        storage = new MemoryStorage();
+        streamUploadManager = new StreamUploadManager(stringRedisTemplate, fileUploadConfig);
+    }
+
+    @Test
+    void testUploadsInFixedSizeParts() {
+        byte[] content = content(12 * MB);
+
+        String url = streamUploadManager.upload(storage, new ByteArrayInputStream(content), "a", "image/png",
+                Long.MAX_VALUE, SCOPE);
+
+        assertEquals("mem://a", url);
+        assertArrayEquals(content, storage.objects.get("a").toByteArray());
+        assertEquals(3, storage.partSizes.size());
+        assertEquals(fileUploadConfig.getPartSize(), storage.partSizes.get(0));
+        assertEquals(2 * MB, storage.partSizes.get(2));
+        // 所有分片复用同一个缓冲区
+        assertEquals(1, storage.partBuffers.size());
+        assertEquals(url, values.get(RedisKey.getKey(RedisKey.FILE_HASH, "mem", SCOPE, DigestUtil.sha256Hex(content))));
+    }
+
+    @Test
+    void testDuplicateSmallFileSkipsStorage() {
+        byte[] content = content(1024);
+
+        String first = streamUploadManager.upload(storage, new ByteArrayInputStream(content), "a", null, MB, SCOPE);
+        String second = streamUploadManager.upload(storage, new ByteArrayInputStream(content), "b", null, MB, SCOPE);
+
+        assertEquals(first, second);
+        assertEquals(1, storage.puts);
+        assertFalse(storage.objects.containsKey("b"));
+    }
+
+    @Test
+    void testDuplicateIsScopedByBizAndUser() {
+        byte[] content = content(1024);
+
+        String first = streamUploadManager.upload(storage, new ByteArrayInputStream(content), "a", null, MB, SCOPE);
+        String other = streamUploadManager.upload(storage, new ByteArrayInputStream(content), "b", null, MB,
+                "user_file:2");
+
+        assertEquals("mem://a", first);
+        assertEquals("mem://b", other);
+        assertEquals(2, storage.puts);
+    }
+
+    @Test
+    void testDuplicateLargeFileAbortsMultipartUpload() {
+        byte[] content = content(11 * MB);
+        streamUploadManager.upload(storage, new ByteArrayInputStream(content), "a", null, Long.MAX_VALUE, SCOPE);
+
+        String url = streamUploadManager.upload(storage, new ByteArrayInputStream(content), "b", null,
+                Long.MAX_VALUE, SCOPE);
+
+        assertEquals("mem://a", url);
+        assertFalse(storage.objects.containsKey("b"));
+        assertTrue(storage.pending.isEmpty());
+        assertEquals(1, storage.aborts);
+    }
+
+    @Test
+    void testTooLargeAbortsAndReleasesBuffer() {
+        fileUploadConfig.setMaxBuffers(1);
+        streamUploadManager = new StreamUploadManager(stringRedisTemplate, fileUploadConfig);
+
+        BusinessException e = assertThrows(BusinessException.class, () -> streamUploadManager.upload(storage,
+                new ByteArrayInputStream(content(11 * MB)), "a", null, 8 * MB, SCOPE));
+
+        assertEquals(ErrorCode.PARAMS_ERROR.getCode(), e.getCode());
+        assertTrue(storage.pending.isEmpty());
+        assertTrue(storage.objects.isEmpty());
+        // 缓冲区已归还，下一次上传可以拿到
+        assertEquals("mem://b", streamUploadManager.upload(storage, new ByteArrayInputStream(content(10)), "b",
+                null, MB, SCOPE));
+    }
+
+    @Test
+    void testRejectsWhenBuffersExhausted() throws Exception {
+        fileUploadConfig.setMaxBuffers(1);
+        fileUploadConfig.setAcquireTimeoutMillis(10);
+        streamUploadManager = new StreamUploadManager(stringRedisTemplate, fileUploadConfig);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream slow = new InputStream() {
+            @Override
+            public int read() {
+                reading.countDown();
+                await(release);
+                return -1;
+            }
+        };
+        Thread thread = new Thread(() -> streamUploadManager.upload(storage, slow, "a", null, MB, SCOPE));
+        thread.start();
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+        BusinessException e = assertThrows(BusinessException.class, () -> streamUploadManager.upload(storage,
+                new ByteArrayInputStream(content(10)), "b", null, MB, SCOPE));
+
+        assertEquals(ErrorCode.OPERATION_ERROR.getCode(), e.getCode());
+        release.countDown();
+        thread.join(5000);
+        assertTrue(storage.objects.containsKey("a"));
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 内存对象存储
+     */
+    private static class MemoryStorage implements ObjectStorage {
+
+        private final Map<String, ByteArrayOutputStream> objects = new ConcurrentHashMap<>();
+
+        private final Map<String, ByteArrayOutputStream> pending = new ConcurrentHashMap<>();
+
+        /**
+         * 最近一次分片上传的各分片大小
+         */
+        private final List<Integer> partSizes = new ArrayList<>();
+
+        private final Set<byte[]> partBuffers = ConcurrentHashMap.newKeySet();
+
+        private int puts;
+
+        private int aborts;
+
+        @Override
+        public String name() {
+            return "mem";
+        }
+
+        @Override
+        public void putObject(String key, byte[] data, int length, String contentType) {
+            puts++;
+            objects.put(key, write(new ByteArrayOutputStream(), data, length));
+        }
+
+        @Override
+        public String initiateMultipartUpload(String key, String contentType) {
+            partSizes.clear();
+            pending.put(key, new ByteArrayOutputStream());
+            return "upload-" + key;
+        }
+
+        @Override
+        public String uploadPart(String key, String uploadId, int partNumber, byte[] data, int length) {
+            assertEquals(partSizes.size() + 1, partNumber);
+            partSizes.add(length);
+            partBuffers.add(data);
+            write(pending.get(key), data, length);
+            return "etag-" + partNumber;
+        }
+
+        @Override
+        public void completeMultipartUpload(String key, String uploadId, List<String> etags) {
+            assertEquals(partSizes.size(), etags.size());
+            objects.put(key, pending.remove(key));
+        }
+
+        @Override
+        public void abortMultipartUpload(String key, String uploadId) {
+            aborts++;
+            pending.remove(key);
+        }
+
+        @Override
+        public InputStream getObject(String key) {
+            ByteArrayOutputStream object = objects.get(key);
+            return object == null ? null : new ByteArrayInputStream(object.toByteArray());
+        }
+
+        @Override
+        public void removeObject(String key) {
+            objects.remove(key);
+        }
+
+        @Override
+        public String getUrl(String key) {
+            return "mem://" + key;
+        }
+
+        private ByteArrayOutputStream write(ByteArrayOutputStream out, byte[] data, int length) {
+            out.write(data, 0, length);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.cong.fishisland.service;
+
+import com.cong.fishisland.common.EmbeddedRedis;
+import com.cong.fishisland.config.EventRemindConfig;
+import com.cong.fishisland.constant.ActionTypeConstant;
+import com.cong.fishisland.constant.SourceTypeConstant;
+import com.cong.fishisland.manager.EventRemindManager;
+import com.cong.fishisland.mapper.event.EventRemindMapper;
+import com.cong.fishisland.model.entity.event.EventRemind;
+import com.cong.fishisland.model.vo.event.EventRemindNoticeVO;
+import com.cong.fishisland.model.vo.event.EventRemindPushVO;
+import com.cong.fishisland.model.ws.response.WSBaseResp;
+import com.cong.fishisland.service.event.EventRemindHandler;
+import com.cong.fishisland.websocket.service.WebSocketService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 事件提醒测试：embedded-redis 代替 Redis，内存实现代替数据库和 WebSocket
+ */
+@Slf4j
+class EventRemindHandlerTest {
+
+    private static final long AUTHOR_ID = 100L;
+
+    private final List<EventRemind> table = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger batches = new AtomicInteger();
+
+    private final List<EventRemindPushVO> pushes = new CopyOnWriteArrayList<>();
+
+    private final AtomicBoolean failSave = new AtomicBoolean();
+
+    private final EventRemindMapper eventRemindMapper = mock(EventRemindMapper.class);
+
+    private final EventRemindConfig eventRemindConfig = new EventRemindConfig();
+
+    private EventRemindManager eventRemindManager;
+
+    private EventRemindHandler eventRemindHandler;
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+        EventRemindService eventRemindService = mock(EventRemindService.class);
+        when(eventRemindService.saveBatch(anyCollection(), anyInt())).thenAnswer(inv -> {
+            if (failSave.get()) {
+                throw new IllegalStateException("数据库不可用");
+            }
+            batches.incrementAndGet();
+            table.addAll(inv.<Collection<EventRemind>>getArgument(0));
+            return true;
+        });
+        WebSocketService webSocketService = mock(WebSocketService.class);
+        when(webSocketService.isOnline(AUTHOR_ID)).thenReturn(true);
+        doAnswer(inv -> pushes.add((EventRemindPushVO) inv.<WSBaseResp<?>>getArgument(0).getData()))
+                .when(webSocketService).sendToUid(any(), anyLong());
+
+        eventRemindManager = new EventRemindManager(eventRemindMapper, EmbeddedRedis.template(), webSocketService,
+                eventRemindConfig);
+        eventRemindHandler = new EventRemindHandler(eventRemindService, eventRemindManager, eventRemindConfig);
+    }
+
+    /**
+     * 热门帖子：1 万次点赞压缩到几秒内完成，写库间隔和推送间隔同比例缩小
+     */
+    @Test
+    void testViralPostLikes() throws Exception {
+        int likes = 10_000;
+        eventRemindConfig.setPushIntervalMillis(50);
+        assertEquals(0L, eventRemindManager.getUnreadCount(AUTHOR_ID).get(EventRemindManager.UNREAD_TOTAL));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (running.get()) {
+                eventRemindHandler.flush();
+                sleep(8);
+            }
+        });
+        flusher.start();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.currentTimeMillis();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            executor.execute(() -> {
+                for (long sender = offset; sender < likes; sender += threads) {
+                    eventRemindHandler.handlePostLike(1L, sender, AUTHOR_ID);
+                    // 取消后再次点赞
+                    if (sender % 10 == 0) {
+                        eventRemindHandler.handlePostLike(1L, sender, AUTHOR_ID);
+                    }
+                    // 每个线程约每毫秒 1 次，合计约每秒 1 万次
+                    sleep(1);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        running.set(false);
+        flusher.join();
+        eventRemindHandler.flush();
+        sleep(eventRemindConfig.getPushIntervalMillis());
+        eventRemindHandler.flush();
+        long elapsed = System.currentTimeMillis() - start;
+
+        int notified = pushes.stream()
+                .flatMap(push -> push.getNotices().stream())
+                .mapToInt(EventRemindNoticeVO::getCount)
+                .sum();
+        log.info("{} 次点赞（{} ms）：写库 {} 批，推送 {} 次", likes, elapsed, batches.get(), pushes.size());
+        assertEquals(likes, table.size());
+        assertEquals(likes, notified);
+        assertEquals((long) likes, eventRemindManager.getUnreadCount(AUTHOR_ID).get(EventRemindManager.UNREAD_TOTAL));
+        assertTrue(batches.get() < likes / 10, "batches: " + batches.get());
+        assertTrue(pushes.size() > 1);
+        assertTrue(pushes.size() <= elapsed / eventRemindConfig.getPushIntervalMillis() + 2, "pushes: " + pushes.size());
+        EventRemindPushVO last = pushes.get(pushes.size() - 1);
+        assertEquals((long) likes, last.getUnread().get(ActionTypeConstant.LIKE));
+        // 只有最初并发的几次点赞查询数据库
+        verify(eventRemindMapper, atMost(threads)).selectObjs(any());
+    }
+
+    @Test
+    void testDuplicateLikeCheckedAgainstDatabaseOnce() {
+        when(eventRemindMapper.selectObjs(any())).thenReturn(new ArrayList<>(Collections.singletonList(7L)), new ArrayList<>());
+
+        assertFalse(eventRemindManager.addSender(ActionTypeConstant.LIKE, SourceTypeConstant.POST, 2L, 7L));
+        assertTrue(eventRemindManager.addSender(ActionTypeConstant.LIKE, SourceTypeConstant.POST, 2L, 8L));
+        assertFalse(eventRemindManager.addSender(ActionTypeConstant.LIKE, SourceTypeConstant.POST, 2L, 8L));
+        // 其他事件源单独去重
+        assertTrue(eventRemindManager.addSender(ActionTypeConstant.LIKE, SourceTypeConstant.COMMENT, 2L, 7L));
+        verify(eventRemindMapper, times(2)).selectObjs(any());
+    }
+
+    @Test
+    void testFailedSaveReleasesSenders() {
+        failSave.set(true);
+        eventRemindHandler.handlePostLike(3L, 7L, AUTHOR_ID);
+        eventRemindHandler.handleCommentLike(4L, 7L, AUTHOR_ID, 3L);
+        eventRemindHandler.flush();
+        assertTrue(table.isEmpty());
+
+        // 写库失败的点赞不再被当作重复，再次点赞重新提醒
+        failSave.set(false);
+        eventRemindHandler.handlePostLike(3L, 7L, AUTHOR_ID);
+        eventRemindHandler.handleCommentLike(4L, 7L, AUTHOR_ID, 3L);
+        eventRemindHandler.handlePostLike(3L, 7L, AUTHOR_ID);
+        eventRemindHandler.flush();
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void testUnreadCountedOnceThenAdjusted() {
+        when(eventRemindMapper.selectMaps(any())).thenReturn(Arrays.asList(row(ActionTypeConstant.LIKE, 2),
+                row(ActionTypeConstant.COMMENT, 1)));
+
+        assertEquals(3L, eventRemindManager.getUnreadCount(AUTHOR_ID).get(EventRemindManager.UNREAD_TOTAL));
+        eventRemindHandler.handleComment(11L, 5L, 2L, AUTHOR_ID, "好帖", false);
+        eventRemindHandler.flush();
+        eventRemindManager.onRead(AUTHOR_ID, Collections.singletonMap(ActionTypeConstant.LIKE, 2L));
+
+        Map<String, Long> unread = eventRemindManager.getUnreadCount(AUTHOR_ID);
+        assertEquals(0L, unread.get(ActionTypeConstant.LIKE));
+        assertEquals(2L, unread.get(ActionTypeConstant.COMMENT));
+        assertEquals(2L, unread.get(EventRemindManager.UNREAD_TOTAL));
+        // 重复设为已读不会减成负数
+        eventRemindManager.onRead(AUTHOR_ID, Collections.singletonMap(ActionTypeConstant.COMMENT, 5L));
+        assertEquals(0L, eventRemindManager.getUnreadCount(AUTHOR_ID).get(ActionTypeConstant.COMMENT));
+        verify(eventRemindMapper, times(1)).selectMaps(any());
+    }
+
+    @Test
+    void testUnreadNotCachedWhenReminderSavedDuringCount() {
+        // 统计查询期间另一条提醒写库，此时哈希还不存在，递增被跳过
+        when(eventRemindMapper.selectMaps(any())).thenAnswer(inv -> {
+            eventRemindManager.onSaved(Collections.singletonList(remind(ActionTypeConstant.LIKE)));
+            return Collections.singletonList(row(ActionTypeConstant.LIKE, 2));
+        }).thenReturn(Collections.singletonList(row(ActionTypeConstant.LIKE, 3)));
+
+        assertEquals(2L, eventRemindManager.getUnreadCount(AUTHOR_ID).get(EventRemindManager.UNREAD_TOTAL));
+        // 上次的统计结果没有写入，重新统计后缓存
+        assertEquals(3L, eventRemindManager.getUnreadCount(AUTHOR_ID).get(EventRemindManager.UNREAD_TOTAL));
+        eventRemindManager.onSaved(Collections.singletonList(remind(ActionTypeConstant.LIKE)));
+        assertEquals(4L, eventRemindManager.getUnreadCount(AUTHOR_ID).get(ActionTypeConstant.LIKE));
+        verify(eventRemindMapper, times(2)).selectMaps(any());
+    }
+
+    @Test
+    void testCommentsCoalescedPerPost() {
+        eventRemindConfig.setPushIntervalMillis(60_000);
+        eventRemindHandler.handleComment(11L, 5L, 2L, AUTHOR_ID, "第一条", false);
+        eventRemindHandler.flush();
+        eventRemindHandler.handleComment(12L, 5L, 3L, AUTHOR_ID, "第二条", false);
+        eventRemindHandler.handleComment(13L, 5L, 4L, AUTHOR_ID, "第三条", false);
+        eventRemindHandler.handleComment(14L, 6L, 4L, 200L, "离线用户", false);
+        eventRemindHandler.flush();
+
+        // 第一条立即推送，之后的在间隔内合并
+        assertEquals(1, pushes.size());
+        assertEquals("第一条", pushes.get(0).getNotices().get(0).getText());
+        assertEquals(4, table.size());
+
+        eventRemindConfig.setPushIntervalMillis(0);
+        eventRemindHandler.flush();
+        assertEquals(2, pushes.size());
+        List<EventRemindNoticeVO> notices = pushes.get(1).getNotices();
+        assertEquals(1, notices.size());
+        assertEquals("2 条新评论", notices.get(0).getText());
+        assertEquals(Arrays.asList(4L, 3L), notices.get(0).getSenderIds());
+        assertEquals(13L, notices.get(0).getSourceId());
+    }
+
+    private static EventRemind remind(String action) {
+        EventRemind eventRemind = new EventRemind();
+        eventRemind.setAction(action);
+        eventRemind.setSourceId(1L);
+        eventRemind.setSourceType(SourceTypeConstant.POST);
+        eventRemind.setSenderId(7L);
+        eventRemind.setRecipientId(AUTHOR_ID);
+        return eventRemind;
+    }
+
+    private static Map<String, Object> row(String action, long num) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("action", action);
+        row.put("num", num);
+        return row;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.cong.fishisland.service;
+
+import com.alibaba.fastjson.JSON;
+import com.cong.fishisland.config.HotPostHistoryConfig;
+import com.cong.fishisland.mapper.host.HotItemMapper;
+import com.cong.fishisland.mapper.host.HotItemSnapshotMapper;
+import com.cong.fishisland.model.entity.hot.HotItem;
+import com.cong.fishisland.model.entity.hot.HotPost;
+import com.cong.fishisland.model.vo.hot.HotPostDataVO;
+import com.cong.fishisland.service.impl.hot.HotPostHistoryServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 热榜历史测试：内存中的条目表代替数据库
+ */
+class HotPostHistoryServiceTest {
+
+    private static final String TYPHOON = "台风登陆广东沿海多地停课";
+
+    private final List<HotItem> table = new ArrayList<>();
+
+    private HotItemMapper hotItemMapper;
+
+    private HotItemSnapshotMapper hotItemSnapshotMapper;
+
+    private HotPostHistoryServiceImpl hotPostHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        table.add(item(1L, "weibo", "https://weibo.com/1", TYPHOON));
+        table.add(item(2L, "zhihu", "https://zhihu.com/2", "今天中午吃什么"));
+
+        hotItemMapper = mock(HotItemMapper.class);
+        when(hotItemMapper.listOnBoardOrIn(anyString(), anyCollection())).thenAnswer(invocation -> table.stream()
+                .filter(item -> item.getType().equals(invocation.getArgument(0)))
+                .collect(Collectors.toList()));
+        when(hotItemMapper.selectList(any())).thenReturn(table);
+        hotItemSnapshotMapper = mock(HotItemSnapshotMapper.class);
+
+        HotPostHistoryServiceImpl service = new HotPostHistoryServiceImpl();
+        ReflectionTestUtils.setField(service, "baseMapper", hotItemMapper);
+        ReflectionTestUtils.setField(service, "hotItemSnapshotMapper", hotItemSnapshotMapper);
+        ReflectionTestUtils.setField(service, "hotPostHistoryConfig", new HotPostHistoryConfig());
+        service.init();
+        hotPostHistoryService = spy(service);
+        doReturn(true).when(hotPostHistoryService).updateBatchById(anyCollection());
+    }
+
+    @Test
+    void emptyBoardKeepsHistory() {
+        HotPost hotPost = board("weibo", "[]");
+        hotPostHistoryService.ingest(hotPost);
+
+        assertEquals("[]", hotPost.getHostJson());
+        assertEquals(1, table.get(0).getOnBoard());
+        verify(hotItemMapper, never()).listOnBoardOrIn(anyString(), anyCollection());
+        verify(hotItemSnapshotMapper, never()).insertBatch(any());
+    }
+
+    @Test
+    void unchangedBoardRefreshesCrossSourceCount() {
+        String weiboJson = JSON.toJSONString(new Object[]{data(TYPHOON, "https://weibo.com/1")});
+        HotPost weibo = board("weibo", weiboJson);
+        hotPostHistoryService.ingest(weibo);
+        assertEquals(1, parse(weibo).get(0).getCrossSourceCount());
+
+        // 另一个来源出现同一话题
+        hotPostHistoryService.ingest(board("zhihu",
+                JSON.toJSONString(new Object[]{data(TYPHOON + "停工", "https://zhihu.com/2")})));
+
+        // 微博榜单本身未变，跨来源数随其他来源更新
+        HotPost unchanged = board("weibo", weiboJson);
+        hotPostHistoryService.ingest(unchanged);
+        HotPostDataVO data = parse(unchanged).get(0);
+        assertEquals(2, data.getCrossSourceCount());
+        assertEquals(0, data.getRankChange());
+        assertEquals(false, data.getIsNew());
+    }
+
+    private static HotItem item(Long id, String type, String url, String title) {
+        HotItem item = new HotItem();
+        item.setId(id);
+        item.setType(type);
+        item.setUrl(url);
+        item.setTitle(title);
+        item.setUrlHash(urlHash(url));
+        item.setLastRank(1);
+        item.setBestRank(1);
+        item.setLastFollowerCount(100);
+        item.setOnBoard(1);
+        item.setOnBoardTime(new Date(0));
+        return item;
+    }
+
+    private static long urlHash(String url) {
+        return (long) ReflectionTestUtils.invokeMethod(HotPostHistoryServiceImpl.class, "hash", url);
+    }
+
+    private static HotPostDataVO data(String title, String url) {
+        return HotPostDataVO.builder().title(title).url(url).followerCount(100).build();
+    }
+
+    private static HotPost board(String type, String hostJson) {
+        return HotPost.builder().type(type).hostJson(hostJson).updateTime(new Date()).build();
+    }
+
+    private static List<HotPostDataVO> parse(HotPost hotPost) {
+        return JSON.parseArray(hotPost.getHostJson(), HotPostDataVO.class);
+    }
+}
@@ -0,0 +1,169 @@
+package com.cong.fishisland.service;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.cong.fishisland.model.dto.mockInterview.MockInterviewChatMessage;
+import com.cong.fishisland.model.entity.mockInterview.MockInterviewTurn;
+import com.cong.fishisland.model.vo.ai.SiliconFlowRequest;
+import com.cong.fishisland.service.impl.mockinterview.MockInterviewContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 模拟面试上下文测试，并对比整列重写与只追加两种存储方式每轮写入的字节数和第 20 轮的提示词规模
+ */
+@Slf4j
+class MockInterviewContextTest {
+
+    private static final String SYSTEM_PROMPT = StrUtil.repeat("系", 400);
+
+    private static final int QUESTION_LENGTH = 150;
+
+    private static final int ANSWER_LENGTH = 300;
+
+    private static final int ROUNDS = 20;
+
+    @Test
+    void testWindowKeepsRecentTurns() {
+        List<MockInterviewTurn> turns = turns(0, 6);
+
+        List<SiliconFlowRequest.Message> messages = MockInterviewContext.build(SYSTEM_PROMPT, "摘要", turns, "回答");
+
+        assertEquals(8, messages.size());
+        assertEquals("system", messages.get(0).getRole());
+        assertTrue(messages.get(0).getContent().endsWith("摘要"));
+        assertEquals("问题1", messages.get(1).getContent().substring(0, 3));
+        assertEquals("回答", messages.get(7).getContent());
+        // 未达到窗口加一个批次时不压缩
+        assertTrue(MockInterviewContext.toCompact(turns(0, MockInterviewContext.WINDOW_SIZE
+                + MockInterviewContext.COMPACT_BATCH - 2)).isEmpty());
+    }
+
+    @Test
+    void testCompactLeavesWindow() {
+        List<MockInterviewTurn> turns = turns(4, MockInterviewContext.WINDOW_SIZE + MockInterviewContext.COMPACT_BATCH);
+
+        List<MockInterviewTurn> toCompact = MockInterviewContext.toCompact(turns);
+
+        assertEquals(MockInterviewContext.COMPACT_BATCH, toCompact.size());
+        assertEquals(5, toCompact.get(0).getTurnNo());
+        assertEquals(8, toCompact.get(toCompact.size() - 1).getTurnNo());
+        String prompt = MockInterviewContext.buildSummaryPrompt("旧摘要", toCompact).get(0).getContent();
+        assertTrue(prompt.contains("旧摘要"));
+        assertTrue(prompt.contains("候选人：问题5"));
+        assertTrue(prompt.contains("面试官：回答8"));
+        assertFalse(prompt.contains("问题9"));
+    }
+
+    @Test
+    void testContextCappedWhenSummaryLags() {
+        List<MockInterviewTurn> turns = turns(0, 100);
+
+        List<SiliconFlowRequest.Message> messages = MockInterviewContext.build(SYSTEM_PROMPT, null, turns, "回答");
+
+        assertEquals(MockInterviewContext.MAX_CONTEXT_TURNS + 2, messages.size());
+        assertEquals(SYSTEM_PROMPT, messages.get(0).getContent());
+    }
+
+    @Test
+    void testMessagesJsonRoundTrip() {
+        List<MockInterviewTurn> turns = turns(0, 4);
+
+        String json = MockInterviewContext.toMessagesJson(SYSTEM_PROMPT, turns);
+        List<MockInterviewChatMessage> chatMessages = JSONUtil.parseArray(json).toList(MockInterviewChatMessage.class);
+        List<MockInterviewTurn> restored = MockInterviewContext.fromMessagesJson(1L, json);
+
+        assertEquals(5, chatMessages.size());
+        assertEquals("system", chatMessages.get(0).getRole());
+        assertEquals(4, restored.size());
+        for (int i = 0; i < turns.size(); i++) {
+            assertEquals(turns.get(i).getTurnNo(), restored.get(i).getTurnNo());
+            assertEquals(turns.get(i).getRole(), restored.get(i).getRole());
+            assertEquals(turns.get(i).getContent(), restored.get(i).getContent());
+        }
+    }
+
+    /**
+     * 模拟 20 轮面试：
+     * 整列重写每轮写入完整 JSON、发送完整历史；只追加每轮写入两行、发送摘要加窗口
+     */
+    @Test
+    void testBytesWrittenAndPromptSizeAtRound20() {
+        String summary = StrUtil.repeat("摘", MockInterviewContext.SUMMARY_MAX_LENGTH);
+        List<MockInterviewTurn> allTurns = new ArrayList<>();
+        List<MockInterviewTurn> unsummarized = new ArrayList<>();
+        long rewriteBytes = 0;
+        long appendBytes = 0;
+        int lastRewriteBytes = 0;
+        int lastAppendBytes = 0;
+        int fullPromptChars = 0;
+        int windowPromptChars = 0;
+        long fullPromptTotal = 0;
+        long windowPromptTotal = 0;
+        for (int round = 1; round <= ROUNDS; round++) {
+            String userMessage = "问题" + StrUtil.repeat("答", QUESTION_LENGTH);
+            String answer = "回答" + StrUtil.repeat("问", ANSWER_LENGTH);
+            fullPromptChars = promptChars(MockInterviewContext.build(SYSTEM_PROMPT, null, allTurns, userMessage));
+            windowPromptChars = promptChars(MockInterviewContext.build(SYSTEM_PROMPT,
+                    allTurns.size() > unsummarized.size() ? summary : null, unsummarized, userMessage));
+            fullPromptTotal += fullPromptChars;
+            windowPromptTotal += windowPromptChars;
+
+            List<MockInterviewTurn> newTurns = new ArrayList<>();
+            newTurns.add(MockInterviewContext.turn(1L, allTurns.size() + 1, "user", userMessage));
+            newTurns.add(MockInterviewContext.turn(1L, allTurns.size() + 2, "assistant", answer));
+            allTurns.addAll(newTurns);
+            unsummarized.addAll(newTurns);
+            List<MockInterviewTurn> toCompact = MockInterviewContext.toCompact(unsummarized);
+            if (!toCompact.isEmpty()) {
+                unsummarized = new ArrayList<>(unsummarized.subList(toCompact.size(), unsummarized.size()));
+            }
+
+            lastRewriteBytes = utf8Bytes(MockInterviewContext.toMessagesJson(SYSTEM_PROMPT, allTurns));
+            lastAppendBytes = utf8Bytes(userMessage) + utf8Bytes(answer);
+            if (!toCompact.isEmpty()) {
+                lastAppendBytes += utf8Bytes(summary);
+            }
+            rewriteBytes += lastRewriteBytes;
+            appendBytes += lastAppendBytes;
+        }
+
+        log.info("第 {} 轮写入：整列重写 {} 字节，只追加 {} 字节；累计：整列重写 {} 字节，只追加 {} 字节",
+                ROUNDS, lastRewriteBytes, lastAppendBytes, rewriteBytes, appendBytes);
+        log.info("第 {} 轮提示词：完整历史 {} 字，摘要加窗口 {} 字；累计：完整历史 {} 字，摘要加窗口 {} 字（中文约一字一 token）",
+                ROUNDS, fullPromptChars, windowPromptChars, fullPromptTotal, windowPromptTotal);
+        assertTrue(lastAppendBytes * 10 < lastRewriteBytes);
+        assertTrue(appendBytes * 5 < rewriteBytes);
+        // 摘要加窗口的规模与轮数无关
+        int bound = SYSTEM_PROMPT.length() + 50 + MockInterviewContext.SUMMARY_MAX_LENGTH
+                + (MockInterviewContext.WINDOW_SIZE + MockInterviewContext.COMPACT_BATCH) / 2
+                * (QUESTION_LENGTH + ANSWER_LENGTH + 4) + QUESTION_LENGTH + 2;
+        assertTrue(windowPromptChars < bound, "提示词 " + windowPromptChars + " 字");
+        assertTrue(windowPromptChars * 3 < fullPromptChars * 2);
+    }
+
+    private static List<MockInterviewTurn> turns(int afterTurnNo, int count) {
+        List<MockInterviewTurn> turns = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            int turnNo = afterTurnNo + i;
+            boolean user = turnNo % 2 == 1;
+            turns.add(MockInterviewContext.turn(1L, turnNo, user ? "user" : "assistant",
+                    (user ? "问题" : "回答") + turnNo));
+        }
+        return turns;
+    }
+
+    private static int promptChars(List<SiliconFlowRequest.Message> messages) {
+        return messages.stream().mapToInt(message -> message.getContent().length()).sum();
+    }
+
+    private static int utf8Bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,173 @@
+package com.cong.fishisland.service;
+
+import cn.hutool.core.date.DatePattern;
+import com.cong.fishisland.common.EmbeddedRedis;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.mapper.post.PostTagMapper;
+import com.cong.fishisland.model.entity.post.PostTag;
+import com.cong.fishisland.model.vo.tags.TagCountVO;
+import com.cong.fishisland.service.impl.post.PostTagServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 帖子标签测试：Mapper 为 Mock，标签计数在真实 Redis 上执行
+ */
+class PostTagServiceTest {
+
+    private static final String COUNT = RedisKey.getKey(RedisKey.POST_TAG_COUNT);
+
+    private final StringRedisTemplate redis = EmbeddedRedis.template();
+
+    private PostTagMapper postTagMapper;
+
+    private PostTagServiceImpl postTagService;
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+        postTagMapper = mock(PostTagMapper.class);
+        postTagService = new PostTagServiceImpl();
+        ReflectionTestUtils.setField(postTagService, "baseMapper", postTagMapper);
+        ReflectionTestUtils.setField(postTagService, "stringRedisTemplate", redis);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSyncWritesOnlyChangedTags() {
+        when(postTagMapper.selectList(any())).thenReturn(Arrays.asList(postTag("Java"), postTag("摸鱼")));
+        redis.opsForZSet().add(COUNT, "Java", 3);
+        redis.opsForZSet().add(COUNT, "摸鱼", 1);
+
+        postTagService.syncPostTags(1L, "[\" Java \", \"Redis\", \"Redis\", \"\"]");
+
+        // 保留的标签不动，删除摸鱼，新增 Redis
+        verify(postTagMapper, times(1)).delete(any());
+        ArgumentCaptor<List<PostTag>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(postTagMapper).insertIgnoreBatch(inserted.capture());
+        assertEquals(Collections.singletonList("Redis"),
+                inserted.getValue().stream().map(PostTag::getTagName).collect(Collectors.toList()));
+        assertEquals(1L, inserted.getValue().get(0).getPostId());
+
+        assertEquals(3D, redis.opsForZSet().score(COUNT, "Java"));
+        assertEquals(1D, redis.opsForZSet().score(COUNT, "Redis"));
+        // 减到 0 的标签从标签云中移除
+        assertNull(redis.opsForZSet().score(COUNT, "摸鱼"));
+        assertEquals(1D, redis.opsForZSet().score(dailyKey(LocalDate.now()), "Redis"));
+        assertNull(redis.opsForZSet().score(dailyKey(LocalDate.now()), "Java"));
+        assertTrue(redis.getExpire(dailyKey(LocalDate.now())) > 0);
+    }
+
+    @Test
+    void testUnchangedTagsSkipWrites() {
+        when(postTagMapper.selectList(any())).thenReturn(Collections.singletonList(postTag("Java")));
+
+        postTagService.syncPostTags(1L, "[\"Java\"]");
+
+        verify(postTagMapper, never()).delete(any());
+        verify(postTagMapper, never()).insertIgnoreBatch(anyList());
+        assertEquals(Boolean.FALSE, redis.hasKey(COUNT));
+    }
+
+    @Test
+    void testCountsUpdatedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            postTagService.syncPostTags(1L, "[\"Java\"]");
+            // 提交前计数不变，回滚时不会多计
+            assertNull(redis.opsForZSet().score(COUNT, "Java"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(1D, redis.opsForZSet().score(COUNT, "Java"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRebuildReplacesCounts() {
+        redis.opsForZSet().add(COUNT, "过期标签", 5);
+        when(postTagMapper.countGroupByTagName()).thenReturn(Arrays.asList(new TagCountVO("Java", 3L),
+                new TagCountVO("Redis", 1L)));
+
+        postTagService.rebuildTagCounts();
+
+        assertEquals(2L, redis.opsForZSet().zCard(COUNT));
+        assertEquals(3D, redis.opsForZSet().score(COUNT, "Java"));
+        assertEquals(Boolean.FALSE, redis.hasKey(COUNT + ":rebuild"));
+
+        // 没有任何标签时删除计数
+        when(postTagMapper.countGroupByTagName()).thenReturn(Collections.emptyList());
+        postTagService.rebuildTagCounts();
+        assertEquals(Boolean.FALSE, redis.hasKey(COUNT));
+    }
+
+    @Test
+    void testHotTagsRebuiltOnDemand() {
+        when(postTagMapper.countGroupByTagName()).thenReturn(Arrays.asList(new TagCountVO("Java", 3L),
+                new TagCountVO("Redis", 1L), new TagCountVO("摸鱼", 2L)));
+
+        List<TagCountVO> hotTags = postTagService.listHotTags(2);
+
+        assertEquals(Arrays.asList(new TagCountVO("Java", 3L), new TagCountVO("摸鱼", 2L)), hotTags);
+        postTagService.listHotTags(2);
+        verify(postTagMapper, times(1)).countGroupByTagName();
+    }
+
+    @Test
+    void testEmptyHotTagsNotRebuiltOnEveryCall() {
+        when(postTagMapper.countGroupByTagName()).thenReturn(Collections.emptyList());
+
+        assertTrue(postTagService.listHotTags(10).isEmpty());
+        assertTrue(postTagService.listHotTags(10).isEmpty());
+        assertTrue(postTagService.listHotTags(10).isEmpty());
+
+        verify(postTagMapper, times(1)).countGroupByTagName();
+    }
+
+    @Test
+    void testTrendingTagsUnionCached() {
+        LocalDate today = LocalDate.now();
+        redis.opsForZSet().add(dailyKey(today), "Java", 2);
+        redis.opsForZSet().add(dailyKey(today.minusDays(1)), "Java", 1);
+        redis.opsForZSet().add(dailyKey(today.minusDays(1)), "Redis", 2);
+        // 超出天数范围的不计入
+        redis.opsForZSet().add(dailyKey(today.minusDays(2)), "摸鱼", 10);
+
+        assertEquals(Arrays.asList(new TagCountVO("Java", 3L), new TagCountVO("Redis", 2L)),
+                postTagService.listTrendingTags(2, 10));
+
+        // 聚合结果短时缓存，期间的新增不重新聚合
+        redis.opsForZSet().incrementScore(dailyKey(today), "Redis", 5);
+        assertEquals(Arrays.asList(new TagCountVO("Java", 3L), new TagCountVO("Redis", 2L)),
+                postTagService.listTrendingTags(2, 10));
+        assertTrue(redis.getExpire(RedisKey.getKey(RedisKey.POST_TAG_TRENDING, 2)) > 0);
+    }
+
+    private static PostTag postTag(String tagName) {
+        PostTag postTag = new PostTag();
+        postTag.setPostId(1L);
+        postTag.setTagName(tagName);
+        return postTag;
+    }
+
+    private static String dailyKey(LocalDate date) {
+        return RedisKey.getKey(RedisKey.POST_TAG_DAILY_COUNT, date.format(DatePattern.PURE_DATE_FORMATTER));
+    }
+}
@@ -0,0 +1,86 @@
+package com.cong.fishisland.service;
+
+import com.cong.fishisland.common.TestBase;
+import com.cong.fishisland.config.RateLimitConfig;
+import com.cong.fishisland.constant.RedisKey;
+import com.cong.fishisland.manager.RateLimitManager;
+import com.cong.fishisland.manager.RequestMetricsManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.annotation.Resource;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 限流压测：两个实例（各自的本地令牌桶，共享 Redis）同时超额请求，放行数应接近 突发数 + 速率 × 时长
+ * <p>
+ * 需要可用的 Redis，只在显式开启时运行：
+ * mvn test -Dtest=RateLimitLoadTest -Dbenchmark=true
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RateLimitLoadTest extends TestBase {
+
+    private static final String LIMIT_NAME = "loadTest";
+
+    private static final String SUBJECT = "global";
+
+    private static final int THREADS_PER_NODE = 16;
+
+    private static final long DURATION_SECONDS = 10;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RateLimitConfig rateLimitConfig;
+
+    @AfterEach
+    void cleanUp() {
+        stringRedisTemplate.delete(RedisKey.getKey(RedisKey.RATE_LIMIT, LIMIT_NAME, SUBJECT));
+    }
+
+    @Test
+    void accuracyAcrossTwoNodes() throws InterruptedException {
+        RequestMetricsManager metrics = new RequestMetricsManager(new SimpleMeterRegistry());
+        RateLimitManager[] nodes = {
+                new RateLimitManager(stringRedisTemplate, metrics, rateLimitConfig),
+                new RateLimitManager(stringRedisTemplate, metrics, rateLimitConfig)
+        };
+        RateLimitConfig.Rule rule = new RateLimitConfig.Rule(1000, 1, 100);
+        AtomicLong allowed = new AtomicLong();
+        AtomicLong attempts = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(nodes.length * THREADS_PER_NODE);
+        long durationNanos = TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+        long start = System.nanoTime();
+        for (RateLimitManager node : nodes) {
+            for (int i = 0; i < THREADS_PER_NODE; i++) {
+                new Thread(() -> {
+                    while (System.nanoTime() - start < durationNanos) {
+                        attempts.incrementAndGet();
+                        if (node.tryAcquire(LIMIT_NAME, SUBJECT, rule) == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }).start();
+            }
+        }
+        assertTrue(done.await(DURATION_SECONDS * 3, TimeUnit.SECONDS));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double expected = rule.getBurst() + rule.getPermits() * seconds;
+        double error = Math.abs(allowed.get() - expected) / expected;
+        log.info("{} 秒内请求 {} 次，放行 {} 次，期望 {}，误差 {}%", String.format("%.1f", seconds), attempts.get(),
+                allowed.get(), Math.round(expected), String.format("%.2f", error * 100));
+        assertTrue(error < 0.03);
+    }
+}
@@ -0,0 +1,278 @@
+package com.cong.fishisland.service;
+
+import com.cong.fishisland.config.HttpClientConfig;
+import com.cong.fishisland.config.WebPreviewConfig;
+import com.cong.fishisland.manager.HttpClientManager;
+import com.cong.fishisland.model.vo.WebParseVO;
+import com.cong.fishisland.model.vo.WebPreviewStatsVO;
+import com.cong.fishisland.service.impl.WebParserServiceImpl;
+import com.cong.fishisland.utils.HtmlHeadReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 网页链接预览测试（本地 HTTP 服务模拟网站，内存实现代替 Redis）
+ */
+class WebParserServiceTest {
+
+    private static final String HEAD = "<!DOCTYPE html><html><head><title>摸鱼岛</title>"
+            + "<meta name=\"description\" content=\"一起摸鱼\">"
+            + "<link rel=\"shortcut icon\" href=\"/static/icon.png\"></head>";
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+
+    private HttpClientManager httpClientManager;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private final WebPreviewConfig webPreviewConfig = new WebPreviewConfig();
+
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    private final Map<String, Duration> ttls = new ConcurrentHashMap<>();
+
+    private final AtomicInteger pageRequests = new AtomicInteger();
+
+    private final CountDownLatch releaseBody = new CountDownLatch(1);
+
+    private final AtomicBoolean bodySent = new AtomicBoolean();
+
+    /**
+     * /slow 同时在处理的请求数及其最大值
+     */
+    private final AtomicInteger slowInFlight = new AtomicInteger();
+
+    private final AtomicInteger maxSlowInFlight = new AtomicInteger();
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private WebParserService webParserService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        // head 之后的正文迟迟不发送
+        server.createContext("/page", exchange -> {
+            pageRequests.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(HEAD.getBytes(StandardCharsets.UTF_8));
+                outputStream.flush();
+                releaseBody.await(10, TimeUnit.SECONDS);
+                bodySent.set(true);
+                outputStream.write("<body>正文</body></html>".getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException | IOException e) {
+                // 客户端读完 head 后断开
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            pageRequests.incrementAndGet();
+            maxSlowInFlight.accumulateAndGet(slowInFlight.incrementAndGet(), Math::max);
+            try {
+                sleep(300);
+                send(exchange, 200, HEAD);
+            } finally {
+                slowInFlight.decrementAndGet();
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            pageRequests.incrementAndGet();
+            send(exchange, 404, "not found");
+        });
+        server.start();
+
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        httpClientConfig.setCacheDir(cacheDir.toString());
+        httpClientManager = new HttpClientManager(httpClientConfig);
+        httpClientManager.init();
+
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(inv -> values.get(inv.<String>getArgument(0)));
+        doAnswer(inv -> {
+            ttls.put(inv.getArgument(0), inv.getArgument(2));
+            return values.put(inv.getArgument(0), inv.getArgument(1));
+        }).when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.initialize();
+        webParserService = newService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseBody.countDown();
+        executor.shutdown();
+        httpClientManager.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void testParsesHeadWithoutWaitingForBody() {
+        WebParseVO result = webParserService.parseWebPage(url("/page"));
+
+        assertEquals("摸鱼岛", result.getTitle());
+        assertEquals("一起摸鱼", result.getDescription());
+        assertEquals(url("/static/icon.png"), result.getFavicon());
+        // 正文在释放前不会发送，读到 </head> 就返回
+        assertEquals(1, releaseBody.getCount());
+        assertFalse(bodySent.get());
+    }
+
+    @Test
+    void testCachesByNormalizedUrl() {
+        String first = url("/page?id=1");
+        webParserService.parseWebPage(first);
+        webParserService.parseWebPage(first + "#comments");
+        webParserService.parseWebPage(first.replace("http://", "HTTP://") + "&utm_source=chat");
+
+        assertEquals(1, pageRequests.get());
+
+        // 其他实例从 Redis 读取
+        WebParserService otherInstance = newService();
+        assertEquals("摸鱼岛", otherInstance.parseWebPage(first).getTitle());
+        assertEquals(1, pageRequests.get());
+
+        WebPreviewStatsVO stats = webParserService.stats();
+        assertEquals(3, stats.getRequests());
+        assertEquals(2, stats.getLocalHits());
+        assertEquals(1, stats.getFetches());
+        assertEquals(2.0 / 3, stats.getHitRatio(), 1e-9);
+        assertEquals(1, otherInstance.stats().getRedisHits());
+    }
+
+    @Test
+    void testConcurrentRequestsFetchOnce() {
+        List<CompletableFuture<WebParseVO>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> webParserService.parseWebPage(url("/slow"))));
+        }
+
+        for (CompletableFuture<WebParseVO> future : futures) {
+            assertEquals("摸鱼岛", future.join().getTitle());
+        }
+        assertEquals(1, pageRequests.get());
+        WebPreviewStatsVO stats = webParserService.stats();
+        assertEquals(1, stats.getFetches());
+        assertTrue(stats.getMaxFetchMillis() >= 300);
+    }
+
+    @Test
+    void testFailureCachedForShortTime() {
+        WebParseVO first = webParserService.parseWebPage(url("/missing"));
+        WebParseVO second = webParserService.parseWebPage(url("/missing"));
+
+        assertNull(first.getTitle());
+        assertNull(second.getTitle());
+        assertEquals(1, pageRequests.get());
+        assertEquals(1, webParserService.stats().getFailures());
+        assertEquals(Duration.ofSeconds(webPreviewConfig.getFailureSeconds()), ttls.values().iterator().next());
+        // 不是网页地址的不抓取
+        assertNull(webParserService.parseWebPage("ftp://example.com").getTitle());
+    }
+
+    @Test
+    void testBatchFetchesConcurrently() {
+        Map<String, WebParseVO> results = webParserService.parseWebPages(Arrays.asList(url("/slow?a=1"),
+                url("/slow?a=2"), url("/slow?a=3"), url("/slow?a=1")));
+
+        assertEquals(3, results.size());
+        results.values().forEach(result -> assertEquals("摸鱼岛", result.getTitle()));
+        // 重复地址只抓一次，不同地址同时抓取
+        assertEquals(3, pageRequests.get());
+        assertTrue(maxSlowInFlight.get() > 1, "最大并发 " + maxSlowInFlight.get());
+    }
+
+    @Test
+    void testHeadReaderStopsAtLimit() throws IOException {
+        StringBuilder html = new StringBuilder("<html><head><meta charset=\"gbk\"><title>标题</title>");
+        while (html.length() < 1024 * 1024) {
+            html.append("<meta name=\"x\" content=\"y\">");
+        }
+        AtomicInteger consumed = new AtomicInteger();
+        InputStream in = new FilterInputStream(new ByteArrayInputStream(html.toString()
+                .getBytes(Charset.forName("GBK")))) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                consumed.addAndGet(Math.max(n, 0));
+                return n;
+            }
+        };
+
+        String head = HtmlHeadReader.read(in, null, 64 * 1024);
+
+        assertEquals(64 * 1024, consumed.get());
+        // 未声明编码时按 meta charset 解码
+        assertTrue(head.contains("<title>标题</title>"));
+        assertEquals("<html><head><title>t</title>", HtmlHeadReader.read(new ByteArrayInputStream(
+                "<html><head><title>t</title></HEAD><body>".getBytes(StandardCharsets.UTF_8)), null, 1024));
+    }
+
+    private WebParserService newService() {
+        return new WebParserServiceImpl(httpClientManager, stringRedisTemplate, webPreviewConfig, executor);
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.cong.fishisland.utils;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.cong.fishisland.common.CursorPage;
+import com.cong.fishisland.common.exception.BusinessException;
+import com.cong.fishisland.model.dto.post.PostQueryRequest;
+import com.cong.fishisland.model.entity.post.Post;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 游标分页工具测试（不依赖 Spring 容器）
+ */
+class CursorUtilsTest {
+
+    @SuppressWarnings("unchecked")
+    private final BaseMapper<Post> postMapper = Mockito.mock(BaseMapper.class);
+
+    @Test
+    void encodeAndDecodeCursor() {
+        Post post = buildPost(42L, new Date(1720000000000L), 7);
+
+        Object[] byTime = CursorUtils.decodeCursor(CursorUtils.encodeCursor(post, "createTime"), "createTime");
+        Assertions.assertEquals(post.getCreateTime(), byTime[0]);
+        Assertions.assertEquals(42L, byTime[1]);
+
+        Object[] byThumb = CursorUtils.decodeCursor(CursorUtils.encodeCursor(post, "thumbNum"), "thumbNum");
+        Assertions.assertEquals(new BigDecimal(7), byThumb[0]);
+
+        Assertions.assertNull(CursorUtils.decodeCursor(null, "id"));
+    }
+
+    @Test
+    void rejectCursorOfAnotherSortField() {
+        String cursor = CursorUtils.encodeCursor(buildPost(1L, new Date(), 0), "createTime");
+        Assertions.assertThrows(BusinessException.class, () -> CursorUtils.decodeCursor(cursor, "thumbNum"));
+        Assertions.assertThrows(BusinessException.class, () -> CursorUtils.decodeCursor("not-a-cursor", "id"));
+    }
+
+    @Test
+    void pageFetchesOneExtraRowAndSkipsCount() {
+        List<Post> rows = new ArrayList<>();
+        for (long id = 10; id > 7; id--) {
+            rows.add(buildPost(id, new Date(id * 1000), 0));
+        }
+        Mockito.when(postMapper.selectList(Mockito.any())).thenReturn(rows);
+
+        CursorPage<Post> page = CursorUtils.page(postMapper, new QueryWrapper<>(), "createTime", false, null, 2, false);
+
+        Assertions.assertEquals(2, page.getRecords().size());
+        Assertions.assertTrue(page.isHasMore());
+        Assertions.assertNull(page.getTotal());
+        Mockito.verify(postMapper, Mockito.never()).selectCount(Mockito.any());
+
+        Object[] position = CursorUtils.decodeCursor(page.getNextCursor(), "createTime");
+        Assertions.assertEquals(9L, position[1]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pageAppliesKeysetCondition() {
+        Mockito.when(postMapper.selectList(Mockito.any())).thenReturn(new ArrayList<>());
+        String cursor = CursorUtils.encodeCursor(buildPost(9L, new Date(9000), 0), "createTime");
+        QueryWrapper<Post> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("userId", 1L).orderByAsc("thumbNum");
+
+        CursorPage<Post> page = CursorUtils.page(postMapper, queryWrapper, "createTime", false, cursor, 2, false);
+
+        ArgumentCaptor<QueryWrapper<Post>> captor = ArgumentCaptor.forClass(QueryWrapper.class);
+        Mockito.verify(postMapper).selectList(captor.capture());
+        String sql = captor.getValue().getCustomSqlSegment();
+        Assertions.assertTrue(sql.contains("createTime <"), sql);
+        Assertions.assertTrue(sql.contains("id <"), sql);
+        Assertions.assertTrue(sql.contains("ORDER BY createTime DESC,id DESC"), sql);
+        Assertions.assertFalse(sql.contains("thumbNum"), sql);
+        Assertions.assertTrue(sql.endsWith("limit 3"), sql);
+        Assertions.assertFalse(page.isHasMore());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pageRequestDefaultsToCreateTimeDesc() {
+        Mockito.when(postMapper.selectList(Mockito.any())).thenReturn(new ArrayList<>());
+        ArgumentCaptor<QueryWrapper<Post>> captor = ArgumentCaptor.forClass(QueryWrapper.class);
+
+        // 未指定排序字段时忽略默认的升序
+        PostQueryRequest defaultRequest = new PostQueryRequest();
+        CursorUtils.page(postMapper, new QueryWrapper<>(), defaultRequest);
+        PostQueryRequest thumbRequest = new PostQueryRequest();
+        thumbRequest.setSortField("thumbNum");
+        CursorUtils.page(postMapper, new QueryWrapper<>(), thumbRequest);
+
+        Mockito.verify(postMapper, Mockito.times(2)).selectList(captor.capture());
+        String defaultSql = captor.getAllValues().get(0).getCustomSqlSegment();
+        Assertions.assertTrue(defaultSql.contains("ORDER BY createTime DESC,id DESC"), defaultSql);
+        String thumbSql = captor.getAllValues().get(1).getCustomSqlSegment();
+        Assertions.assertTrue(thumbSql.contains("ORDER BY thumbNum ASC,id ASC"), thumbSql);
+    }
+
+    private static Post buildPost(Long id, Date createTime, int thumbNum) {
+        Post post = new Post();
+        post.setId(id);
+        post.setCreateTime(createTime);
+        post.setThumbNum(thumbNum);
+        return post;
+    }
+}
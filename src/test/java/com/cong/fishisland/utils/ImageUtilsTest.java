@@ -0,0 +1,199 @@
+package com.cong.fishisland.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 图片缩放工具测试，并测量大图解码的内存占用
+ */
+@Slf4j
+class ImageUtilsTest {
+
+    private static final long MAX_PIXELS = 100_000_000L;
+
+    @Test
+    void testResizeKeepsAspectRatio() throws IOException {
+        ImageUtils.DecodedImage decoded = ImageUtils.decode(new ByteArrayInputStream(jpeg(800, 600)), 256,
+                MAX_PIXELS);
+
+        assertEquals("jpeg", decoded.getFormat());
+        assertEquals(800, decoded.getWidth());
+        assertFalse(decoded.isAnimated());
+        // 按目标尺寸降采样解码
+        int decodedWidth = decoded.getImage().getWidth();
+        assertTrue(decodedWidth >= 256 && decodedWidth < 512);
+        BufferedImage small = ImageUtils.resize(decoded.getImage(), 96);
+        assertEquals(96, small.getWidth());
+        assertEquals(72, small.getHeight());
+        // 不放大
+        assertEquals(decodedWidth, ImageUtils.resize(decoded.getImage(), 1024).getWidth());
+
+        ImageUtils.EncodedImage encoded = ImageUtils.encode(small, 0.8f);
+        assertEquals("jpg", encoded.getExtension());
+        assertEquals(96, ImageIO.read(new ByteArrayInputStream(encoded.getData())).getWidth());
+    }
+
+    @Test
+    void testTransparentImageEncodedAsPng() throws IOException {
+        BufferedImage image = new BufferedImage(100, 50, BufferedImage.TYPE_INT_ARGB);
+
+        ImageUtils.EncodedImage encoded = ImageUtils.encode(ImageUtils.resize(image, 48), 0.8f);
+
+        assertEquals("png", encoded.getExtension());
+        assertEquals("image/png", encoded.getContentType());
+        assertEquals(24, ImageIO.read(new ByteArrayInputStream(encoded.getData())).getHeight());
+    }
+
+    @Test
+    void testAnimatedGifDecodesFirstFrame() throws IOException {
+        ImageUtils.DecodedImage decoded = ImageUtils.decode(new ByteArrayInputStream(gif(Color.RED, Color.BLUE)),
+                256, MAX_PIXELS);
+
+        assertTrue(decoded.isAnimated());
+        assertEquals(Color.RED.getRGB(), decoded.getImage().getRGB(10, 10));
+        assertFalse(ImageUtils.decode(new ByteArrayInputStream(gif(Color.RED)), 256, MAX_PIXELS).isAnimated());
+    }
+
+    @Test
+    void testRejectsTooManyPixelsBeforeDecoding() {
+        // 只有文件头，像素数检查在读取图像数据之前
+        byte[] header = new byte[33];
+        System.arraycopy(png(30000, 30000, 0), 0, header, 0, header.length);
+
+        IOException e = assertThrows(IOException.class,
+                () -> ImageUtils.decode(new ByteArrayInputStream(header), 256, MAX_PIXELS));
+        assertTrue(e.getMessage().contains("30000x30000"));
+        assertNull(decodeQuietly("not an image".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 8000x8000 的 PNG 完整解码需要 192MB，降采样解码的分配量只与目标尺寸有关
+     */
+    @Test
+    void testLargeImageDecodedWithinMemoryCap() throws IOException {
+        byte[] png = png(8000, 8000, 8000);
+
+        long start = allocatedBytes();
+        ImageUtils.DecodedImage decoded = ImageUtils.decode(new ByteArrayInputStream(png), 512, MAX_PIXELS);
+        long allocated = allocatedBytes() - start;
+
+        log.info("8000x8000 PNG 降采样解码分配 {} KB，解码结果 {}x{}", allocated / 1024,
+                decoded.getImage().getWidth(), decoded.getImage().getHeight());
+        assertTrue(decoded.getImage().getWidth() >= 512 && decoded.getImage().getWidth() < 1024);
+        assertTrue(allocated < 32L * 1024 * 1024, "解码分配 " + allocated);
+    }
+
+    private static ImageUtils.DecodedImage decodeQuietly(byte[] data) {
+        try {
+            return ImageUtils.decode(new ByteArrayInputStream(data), 256, MAX_PIXELS);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        for (int y = 0; y < height; y += 40) {
+            graphics.setColor(new Color((y * 7) % 256, (y * 3) % 256, 128));
+            graphics.fillRect(0, y, width, 40);
+        }
+        graphics.setColor(Color.WHITE);
+        graphics.drawOval(width / 4, height / 4, width / 2, height / 2);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] gif(Color... frames) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.prepareWriteSequence(null);
+            for (Color color : frames) {
+                BufferedImage frame = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = frame.createGraphics();
+                graphics.setColor(color);
+                graphics.fillRect(0, 0, 64, 64);
+                graphics.dispose();
+                writer.writeToSequence(new IIOImage(frame, null, null), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 逐行生成 RGB PNG，不在内存中创建整张图片
+     *
+     * @param rows 写入的行数，为 0 时不写图像数据
+     */
+    private static byte[] png(int width, int height, int rows) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'});
+            ByteArrayOutputStream ihdr = new ByteArrayOutputStream();
+            DataOutputStream header = new DataOutputStream(ihdr);
+            header.writeInt(width);
+            header.writeInt(height);
+            header.write(new byte[]{8, 2, 0, 0, 0});
+            chunk(out, "IHDR", ihdr.toByteArray());
+            if (rows > 0) {
+                ByteArrayOutputStream idat = new ByteArrayOutputStream();
+                try (DeflaterOutputStream deflater = new DeflaterOutputStream(idat)) {
+                    byte[] row = new byte[1 + width * 3];
+                    for (int y = 0; y < rows; y++) {
+                        for (int x = 1; x < row.length; x += 3) {
+                            row[x] = (byte) y;
+                        }
+                        deflater.write(row);
+                    }
+                }
+                chunk(out, "IDAT", idat.toByteArray());
+            }
+            chunk(out, "IEND", new byte[0]);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void chunk(ByteArrayOutputStream out, String type, byte[] data) throws IOException {
+        DataOutputStream chunk = new DataOutputStream(out);
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        chunk.writeInt(data.length);
+        chunk.write(typeBytes);
+        chunk.write(data);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        chunk.writeInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,43 @@
+package com.cong.fishisland.utils;
+
+import cn.hutool.core.io.IoUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JSON 字段流测试
+ */
+class JsonFieldInputStreamTest {
+
+    @Test
+    void testReadsFieldValue() throws IOException {
+        JsonFieldInputStream in = stream("{\"created\":1,\"data\":[{\"b64_json\" : \"ab\\/c+d=\",\"other\":\"x\"}]}");
+
+        assertTrue(in.find());
+        assertEquals("ab/c+d=", IoUtil.read(in, StandardCharsets.UTF_8));
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    void testPartialMatchRestarts() throws IOException {
+        JsonFieldInputStream in = stream("{\"\"b64\":1,\"b64_json\":\"v\"}");
+
+        assertEquals("v", IoUtil.read(in, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testMissingField() throws IOException {
+        assertFalse(stream("{\"data\":[{\"url\":\"http://a\"}]}").find());
+        // 字段值不是字符串
+        assertFalse(stream("{\"b64_json\":null}").find());
+    }
+
+    private static JsonFieldInputStream stream(String json) {
+        return new JsonFieldInputStream(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "b64_json");
+    }
+}
@@ -0,0 +1,51 @@
+package com.cong.fishisland.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 敏感词自动机测试（不依赖 Spring 容器）
+ */
+class SensitiveWordAutomatonTest {
+
+    private final SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(
+            Arrays.asList("中国", "国人", "zg人", "abc", "b", " ", "abc"));
+
+    @Test
+    void findAndContains() {
+        Assertions.assertEquals(5, automaton.size());
+        Assertions.assertEquals("中国", automaton.findFirst("我是中国人"));
+        Assertions.assertTrue(automaton.containsAny("ZG人"));
+        Assertions.assertFalse(automaton.containsAny("摸鱼岛"));
+        Assertions.assertNull(automaton.findFirst(null));
+        Assertions.assertFalse(SensitiveWordAutomaton.EMPTY.containsAny("中国"));
+    }
+
+    @Test
+    void scanReturnsOverlappingHitsPerField() {
+        List<SensitiveWordAutomaton.Hit> hits = automaton.scan("我是中国人", null, "xABCx");
+        Assertions.assertEquals(4, hits.size());
+        Assertions.assertEquals(0, hits.get(0).getField());
+        Assertions.assertEquals("中国", hits.get(0).getWord());
+        Assertions.assertEquals(2, hits.get(0).getStart());
+        Assertions.assertEquals("国人", hits.get(1).getWord());
+        Assertions.assertEquals(5, hits.get(1).getEnd());
+        // 全角和大小写归一后匹配，返回原文
+        Assertions.assertEquals(2, hits.get(2).getField());
+        Assertions.assertEquals("B", hits.get(2).getWord());
+        Assertions.assertEquals("ABC", hits.get(3).getWord());
+    }
+
+    @Test
+    void replaceMasksAllMatches() {
+        Assertions.assertEquals("我是***", automaton.replace("我是中国人"));
+        Assertions.assertEquals("***-*", automaton.replace("ａＢc-b"));
+
+        StringBuilder out = new StringBuilder("前缀:");
+        automaton.replace("zg人好", '#', out);
+        Assertions.assertEquals("前缀:###好", out.toString());
+    }
+}
@@ -0,0 +1,72 @@
+package com.cong.fishisland.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 跨来源标题聚类测试
+ */
+class TitleClusterIndexTest {
+
+    @Test
+    void testSimilarity() {
+        int[] a = MinHashUtils.signature("国足 2:0 战胜对手，晋级世预赛下一阶段");
+        int[] b = MinHashUtils.signature("国足2-0战胜对手 晋级世预赛下一阶段！");
+        int[] c = MinHashUtils.signature("苹果发布新款 MacBook Pro");
+
+        assertEquals(1D, MinHashUtils.similarity(a, a));
+        assertTrue(MinHashUtils.similarity(a, b) >= 0.6, "similarity " + MinHashUtils.similarity(a, b));
+        assertTrue(MinHashUtils.similarity(a, c) < 0.2, "similarity " + MinHashUtils.similarity(a, c));
+        // 只有标点的标题没有签名，不与任何标题相似
+        assertEquals(0, MinHashUtils.signature("！？……").length);
+        assertEquals(0D, MinHashUtils.similarity(MinHashUtils.signature("！？"), a));
+    }
+
+    @Test
+    void testClustersAcrossSources() {
+        TitleClusterIndex<String> index = new TitleClusterIndex<>(title -> title, 0.4);
+        index.replaceSource("weibo", items("w1", "国足2比0战胜对手晋级世预赛下一阶段", "w2", "某明星官宣结婚"));
+        index.replaceSource("zhihu", items("z1", "如何评价国足 2:0 战胜对手晋级世预赛下一阶段？", "z2", "为什么程序员总是加班"));
+        index.replaceSource("baidu", items("b1", "国足2:0战胜对手 晋级世预赛下一阶段"));
+
+        Map<String, Integer> counts = index.sourceCounts("weibo");
+        assertEquals(3, counts.get("w1"));
+        assertEquals(1, counts.get("w2"));
+
+        List<List<String>> clusters = index.clusters(2);
+        assertEquals(1, clusters.size());
+        assertEquals(3, clusters.get(0).size());
+
+        // 百度这一轮不再有该话题，只剩两个来源
+        index.replaceSource("baidu", items("b2", "天气预报：明天有雨"));
+        assertEquals(2, index.sourceCounts("weibo").get("w1"));
+        assertEquals(5, index.size());
+
+        index.replaceSource("zhihu", Collections.emptyMap());
+        assertTrue(index.clusters(2).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testSameSourceNotClustered() {
+        TitleClusterIndex<String> index = new TitleClusterIndex<>(title -> title, 0.4);
+        index.replaceSource("weibo", items("w1", "国足晋级世预赛下一阶段", "w2", "国足晋级世预赛下一阶段！"));
+
+        assertEquals(1, index.sourceCounts("weibo").get("w1"));
+        assertTrue(index.clusters(2).isEmpty());
+    }
+
+    private static Map<String, String> items(String... keyAndTitles) {
+        Map<String, String> items = new LinkedHashMap<>();
+        for (int i = 0; i < keyAndTitles.length; i += 2) {
+            items.put(keyAndTitles[i], keyAndTitles[i + 1]);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,41 @@
+package com.cong.fishisland.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 令牌桶测试，时间由测试传入
+ */
+class TokenBucketTest {
+
+    @Test
+    void testBurstThenRefill() {
+        TokenBucket bucket = new TokenBucket(2, 60, 0);
+
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+        // 每秒补充一个
+        assertFalse(bucket.tryAcquire(TimeUnit.MILLISECONDS.toNanos(999)));
+        assertTrue(bucket.tryAcquire(TimeUnit.SECONDS.toNanos(1)));
+        // 长时间空闲也不超过容量
+        long later = TimeUnit.MINUTES.toNanos(10);
+        assertTrue(bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later));
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    void testCustomPeriod() {
+        // 容量 1，每 10 秒补充 5 个（每 2 秒一个）
+        TokenBucket bucket = new TokenBucket(1, 5, TimeUnit.SECONDS.toNanos(10), 0);
+
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(TimeUnit.MILLISECONDS.toNanos(1999)));
+        assertTrue(bucket.tryAcquire(TimeUnit.SECONDS.toNanos(2)));
+        assertFalse(bucket.tryAcquire(TimeUnit.SECONDS.toNanos(2)));
+    }
+}